@@ -49,10 +49,16 @@ public class TileCache implements ITileCache {
     class CacheTileReader implements TileReader {
         final InputStream mInputStream;
         final Tile mTile;
+        final Metadata mMetadata;
 
         public CacheTileReader(Tile tile, InputStream is) {
+            this(tile, is, null);
+        }
+
+        CacheTileReader(Tile tile, InputStream is, Metadata metadata) {
             mTile = tile;
             mInputStream = is;
+            mMetadata = metadata;
         }
 
         @Override
@@ -64,11 +70,17 @@ public class TileCache implements ITileCache {
         public InputStream getInputStream() {
             return mInputStream;
         }
+
+        @Override
+        public Metadata getMetadata() {
+            return mMetadata;
+        }
     }
 
     class CacheTileWriter implements TileWriter {
         final ByteArrayOutputStream mOutputStream;
         final Tile mTile;
+        Metadata mMetadata;
 
         CacheTileWriter(Tile tile, ByteArrayOutputStream os) {
             mTile = tile;
@@ -85,9 +97,14 @@ public class TileCache implements ITileCache {
             return mOutputStream;
         }
 
+        @Override
+        public void setMetadata(Metadata metadata) {
+            mMetadata = metadata;
+        }
+
         @Override
         public void complete(boolean success) {
-            saveTile(mTile, mOutputStream, success);
+            saveTile(mTile, mOutputStream, mMetadata, success);
         }
     }
 
@@ -96,6 +113,7 @@ public class TileCache implements ITileCache {
     private final SQLiteDatabase mDatabase;
     private final SQLiteStatement mStmtGetTile;
     private final SQLiteStatement mStmtPutTile;
+    private final SQLiteStatement mStmtUpdateMetadata;
 
     //private final SQLiteStatement mStmtUpdateTile;
 
@@ -126,8 +144,14 @@ public class TileCache implements ITileCache {
 
         mStmtPutTile = mDatabase.compileStatement("" +
                 "INSERT OR REPLACE INTO " + TABLE_NAME +
-                " (x, y, z, time, last_access, data)" +
-                " VALUES(?,?,?,?,?,?)");
+                " (x, y, z, time, last_access, data, " +
+                COLUMN_ETAG + ", " + COLUMN_LAST_MODIFIED + ", " + COLUMN_EXPIRES + ", " + COLUMN_LIFETIME + ")" +
+                " VALUES(?,?,?,?,?,?,?,?,?,?)");
+
+        mStmtUpdateMetadata = mDatabase.compileStatement("" +
+                "UPDATE " + TABLE_NAME +
+                " SET " + COLUMN_ETAG + "=?, " + COLUMN_LAST_MODIFIED + "=?, " + COLUMN_EXPIRES + "=?, " + COLUMN_LIFETIME + "=?" +
+                " WHERE x=? AND y=? AND z=?");
 
         //mStmtUpdateTile = mDatabase.compileStatement("" +
         //        "UPDATE " + TABLE_NAME +
@@ -154,13 +178,17 @@ public class TileCache implements ITileCache {
     static final String COLUMN_TIME = "time";
     static final String COLUMN_ACCESS = "last_access";
     static final String COLUMN_DATA = "data";
+    static final String COLUMN_ETAG = "etag";
+    static final String COLUMN_LAST_MODIFIED = "last_modified";
+    static final String COLUMN_EXPIRES = "expires";
+    static final String COLUMN_LIFETIME = "lifetime";
 
     //static final String COLUMN_SIZE = "size";
 
     class SQLiteHelper extends SQLiteOpenHelper {
 
         //private static final String DATABASE_NAME = "tile.db";
-        private static final int DATABASE_VERSION = 1;
+        private static final int DATABASE_VERSION = 3;
 
         private static final String TILE_SCHEMA =
                 "CREATE TABLE "
@@ -172,6 +200,10 @@ public class TileCache implements ITileCache {
                         //+ COLUMN_SIZE + " LONG NOT NULL,"
                         + COLUMN_ACCESS + " LONG NOT NULL,"
                         + COLUMN_DATA + " BLOB,"
+                        + COLUMN_ETAG + " TEXT,"
+                        + COLUMN_LAST_MODIFIED + " TEXT,"
+                        + COLUMN_EXPIRES + " LONG NOT NULL DEFAULT 0,"
+                        + COLUMN_LIFETIME + " LONG NOT NULL DEFAULT 0,"
                         + "PRIMARY KEY(x,y,z));";
 
         public SQLiteHelper(Context context, String dbName) {
@@ -186,6 +218,17 @@ public class TileCache implements ITileCache {
 
         @Override
         public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+            if ((oldVersion == 1 || oldVersion == 2) && newVersion == 3) {
+                if (oldVersion == 1) {
+                    log.debug("add metadata");
+                    db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_ETAG + " TEXT");
+                    db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_LAST_MODIFIED + " TEXT");
+                    db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_EXPIRES + " LONG NOT NULL DEFAULT 0");
+                }
+                log.debug("add lifetime");
+                db.execSQL("ALTER TABLE " + TABLE_NAME + " ADD COLUMN " + COLUMN_LIFETIME + " LONG NOT NULL DEFAULT 0");
+                return;
+            }
             log.debug("drop table");
             db.execSQL("DROP TABLE IF EXISTS " + TABLE_NAME);
             onCreate(db);
@@ -198,6 +241,10 @@ public class TileCache implements ITileCache {
     }
 
     public void saveTile(Tile tile, ByteArrayOutputStream data, boolean success) {
+        saveTile(tile, data, null, success);
+    }
+
+    public void saveTile(Tile tile, ByteArrayOutputStream data, Metadata metadata, boolean success) {
         byte[] bytes = null;
 
         if (success)
@@ -221,12 +268,42 @@ public class TileCache implements ITileCache {
             mStmtPutTile.bindLong(4, 0);
             mStmtPutTile.bindLong(5, 0);
             mStmtPutTile.bindBlob(6, bytes);
+            bindString(mStmtPutTile, 7, metadata == null ? null : metadata.eTag);
+            bindString(mStmtPutTile, 8, metadata == null ? null : metadata.lastModified);
+            mStmtPutTile.bindLong(9, metadata == null ? 0 : metadata.expires);
+            mStmtPutTile.bindLong(10, metadata == null ? 0 : metadata.lifetime);
 
             mStmtPutTile.execute();
             mStmtPutTile.clearBindings();
         }
     }
 
+    @Override
+    public void updateMetadata(Tile tile, Metadata metadata) {
+        if (dbg)
+            log.debug("update tile {} {}", tile, metadata);
+
+        synchronized (mStmtUpdateMetadata) {
+            bindString(mStmtUpdateMetadata, 1, metadata.eTag);
+            bindString(mStmtUpdateMetadata, 2, metadata.lastModified);
+            mStmtUpdateMetadata.bindLong(3, metadata.expires);
+            mStmtUpdateMetadata.bindLong(4, metadata.lifetime);
+            mStmtUpdateMetadata.bindLong(5, tile.tileX);
+            mStmtUpdateMetadata.bindLong(6, tile.tileY);
+            mStmtUpdateMetadata.bindLong(7, tile.zoomLevel);
+
+            mStmtUpdateMetadata.execute();
+            mStmtUpdateMetadata.clearBindings();
+        }
+    }
+
+    private static void bindString(SQLiteStatement stmt, int index, String value) {
+        if (value == null)
+            stmt.bindNull(index);
+        else
+            stmt.bindString(index, value);
+    }
+
     @TargetApi(Build.VERSION_CODES.HONEYCOMB)
     public TileReader getTileApi11(Tile tile) {
         InputStream in = null;
@@ -263,7 +340,8 @@ public class TileCache implements ITileCache {
         mQueryVals[1] = String.valueOf(tile.tileX);
         mQueryVals[2] = String.valueOf(tile.tileY);
 
-        Cursor cursor = mDatabase.rawQuery("SELECT " + COLUMN_DATA +
+        Cursor cursor = mDatabase.rawQuery("SELECT " + COLUMN_DATA + ", " +
+                COLUMN_ETAG + ", " + COLUMN_LAST_MODIFIED + ", " + COLUMN_EXPIRES + ", " + COLUMN_LIFETIME +
                 " FROM " + TABLE_NAME +
                 " WHERE z=? AND x=? AND y=?", mQueryVals);
 
@@ -276,12 +354,18 @@ public class TileCache implements ITileCache {
         }
 
         InputStream in = new ByteArrayInputStream(cursor.getBlob(0));
+        Metadata metadata = null;
+        String eTag = cursor.getString(1);
+        String lastModified = cursor.getString(2);
+        long expires = cursor.getLong(3);
+        if (eTag != null || lastModified != null || expires != 0)
+            metadata = new Metadata(eTag, lastModified, expires, cursor.getLong(4));
         cursor.close();
 
         if (dbg)
             log.debug("load tile {}", tile);
 
-        return new CacheTileReader(tile, in);
+        return new CacheTileReader(tile, in, metadata);
     }
 
     @Override
@@ -27,7 +27,9 @@ import org.oscim.backend.CanvasAdapter;
 import org.oscim.utils.GraphicUtils;
 import org.oscim.utils.IOUtils;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 
 import static android.graphics.Bitmap.Config.ARGB_8888;
@@ -45,6 +47,65 @@ public class AndroidBitmap implements org.oscim.backend.canvas.Bitmap {
         mBitmap = bitmap;
     }
 
+    /**
+     * Upper bound of encoded image size for decoding again when the
+     * image could not be decoded into the reused Bitmap.
+     */
+    private static final int MARK_LIMIT = 1 << 20;
+
+    /**
+     * Decode into 'reuse' (BitmapFactory.Options.inBitmap) when it has
+     * the size of the image. Decoded Bitmaps are mutable to be reusable.
+     *
+     * @return 'reuse' or a new AndroidBitmap
+     */
+    static AndroidBitmap decode(InputStream inputStream, AndroidBitmap reuse) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inPreferredConfig = ARGB_8888;
+
+        Bitmap target = (reuse == null) ? null : reuse.mBitmap;
+        if (target != null && !target.isRecycled() && target.isMutable()
+                && target.getConfig() == ARGB_8888) {
+
+            if (!inputStream.markSupported())
+                inputStream = new BufferedInputStream(inputStream);
+            inputStream.mark(MARK_LIMIT);
+
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeStream(inputStream, null, options);
+            options.inJustDecodeBounds = false;
+            inputStream.reset();
+
+            /* before KitKat inBitmap must have the same size */
+            if (options.outWidth == target.getWidth()
+                    && options.outHeight == target.getHeight()) {
+                options.inBitmap = target;
+                options.inSampleSize = 1;
+                try {
+                    Bitmap bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+                    if (bitmap == target)
+                        return reuse;
+                    return new AndroidBitmap(bitmap);
+                } catch (IllegalArgumentException e) {
+                    /* image format cannot be decoded into inBitmap */
+                    options.inBitmap = null;
+                    inputStream.reset();
+                }
+            }
+        }
+
+        Bitmap bitmap = BitmapFactory.decodeStream(inputStream, null, options);
+        if (bitmap != null) {
+            try {
+                GLUtils.getType(bitmap);
+            } catch (IllegalArgumentException e) {
+                bitmap = bitmap.copy(ARGB_8888, true);
+            }
+        }
+        return new AndroidBitmap(bitmap);
+    }
+
     public AndroidBitmap(InputStream inputStream, int width, int height, int percent) {
         this(inputStream);
         float[] newSize = GraphicUtils.imageSize(getWidth(), getHeight(), CanvasAdapter.getScale(), width, height, percent);
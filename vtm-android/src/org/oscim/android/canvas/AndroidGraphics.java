@@ -58,6 +58,11 @@ public final class AndroidGraphics extends CanvasAdapter {
         return new AndroidBitmap(inputStream);
     }
 
+    @Override
+    public Bitmap decodeBitmapImpl(InputStream inputStream, Bitmap reuse) throws IOException {
+        return AndroidBitmap.decode(inputStream, reuse instanceof AndroidBitmap ? (AndroidBitmap) reuse : null);
+    }
+
     @Override
     public Bitmap decodeBitmapImpl(InputStream inputStream, int width, int height, int percent) {
         return new AndroidBitmap(inputStream, width, height, percent);
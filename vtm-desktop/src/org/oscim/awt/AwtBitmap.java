@@ -38,8 +38,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.IntBuffer;
+import java.util.Iterator;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
 
 public class AwtBitmap implements Bitmap {
     private static final Logger log = new Logger(AwtBitmap.class);
@@ -67,6 +72,65 @@ public class AwtBitmap implements Bitmap {
         scaleTo((int) newSize[0], (int) newSize[1]);
     }
 
+    /**
+     * Decode into the raster of 'reuse' when it has the size of the image
+     * and a type the ImageReader can write to.
+     *
+     * @return 'reuse' or a new AwtBitmap
+     */
+    static AwtBitmap decode(InputStream inputStream, AwtBitmap reuse) throws IOException {
+        ImageInputStream stream = ImageIO.createImageInputStream(inputStream);
+        if (stream == null)
+            throw new IOException("Cannot create image stream");
+
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext())
+                throw new IOException("No image reader");
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+
+                boolean reused = reuse != null && canDecodeInto(reader, reuse.bitmap);
+                if (reused)
+                    param.setDestination(reuse.bitmap);
+
+                BufferedImage image = reader.read(0, param);
+                if (reused)
+                    return reuse;
+
+                return new AwtBitmap(image);
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static boolean canDecodeInto(ImageReader reader, BufferedImage image) throws IOException {
+        int type = image.getType();
+        /* indexed color models are specific to each image, premultiplied
+         * images were coerced after decoding */
+        if (type == BufferedImage.TYPE_CUSTOM
+                || type == BufferedImage.TYPE_BYTE_INDEXED
+                || type == BufferedImage.TYPE_BYTE_BINARY
+                || image.isAlphaPremultiplied())
+            return false;
+
+        if (reader.getWidth(0) != image.getWidth() || reader.getHeight(0) != image.getHeight())
+            return false;
+
+        Iterator<ImageTypeSpecifier> types = reader.getImageTypes(0);
+        while (types.hasNext()) {
+            if (types.next().getBufferedImageType() == type)
+                return true;
+        }
+        return false;
+    }
+
     public AwtBitmap(BufferedImage bitmap) {
         this.bitmap = bitmap;
         if (!this.bitmap.isAlphaPremultiplied()
@@ -108,6 +108,11 @@ public class AwtGraphics extends CanvasAdapter {
         return new AwtBitmap(inputStream);
     }
 
+    @Override
+    public Bitmap decodeBitmapImpl(InputStream inputStream, Bitmap reuse) throws IOException {
+        return AwtBitmap.decode(inputStream, reuse instanceof AwtBitmap ? (AwtBitmap) reuse : null);
+    }
+
     @Override
     public Bitmap decodeBitmapImpl(InputStream inputStream, int width, int height, int percent) throws IOException {
         return new AwtBitmap(inputStream, width, height, percent);
@@ -31,7 +31,6 @@ import org.oscim.debug.Logger;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.LinkedHashMap;
 
 import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
@@ -87,7 +86,8 @@ public class GeoJsonTileDecoder implements ITileDecoder {
         mTileY = tile.tileY / mTileScale;
         mTileScale *= Tile.SIZE;
 
-        JsonParser jp = mJsonFactory.createParser(new InputStreamReader(is));
+        /* byte based parser, skips unused values without decoding them */
+        JsonParser jp = mJsonFactory.createParser(is);
 
         for (JsonToken t; (t = jp.nextToken()) != null; ) {
             if (t == FIELD_NAME) {
@@ -120,11 +120,13 @@ public class GeoJsonTileDecoder implements ITileDecoder {
                 if (match(jp, FIELD_GEOMETRY)) {
                     if (jp.nextToken() == START_OBJECT)
                         parseGeometry(jp);
-                }
-
-                if (match(jp, FIELD_PROPERTIES)) {
+                } else if (match(jp, FIELD_PROPERTIES)) {
                     if (jp.nextToken() == START_OBJECT)
                         parseProperties(jp);
+                } else {
+                    /* e.g. id, bbox */
+                    jp.nextToken();
+                    jp.skipChildren();
                 }
                 continue;
             }
@@ -150,10 +152,13 @@ public class GeoJsonTileDecoder implements ITileDecoder {
             throws JsonParseException, IOException {
         for (JsonToken t; (t = jp.nextToken()) != null; ) {
             if (t == FIELD_NAME) {
+                /* field names are canonicalized by the parser */
                 String text = jp.getCurrentName();
 
                 t = jp.nextToken();
-                if (t == VALUE_STRING) {
+                if (t == START_OBJECT || t == START_ARRAY || !mTileSource.isPropertyUsed(text)) {
+                    jp.skipChildren();
+                } else if (t == VALUE_STRING) {
                     mTagMap.put(text, jp.getText());
                 } else if (t == VALUE_NUMBER_INT) {
                     mTagMap.put(text, jp.getNumberValue());
@@ -176,6 +181,11 @@ public class GeoJsonTileDecoder implements ITileDecoder {
                 if (match(jp, FIELD_COORDINATES)) {
                     if (jp.nextToken() != START_ARRAY)
                         continue;
+                    if (type == GeometryType.NONE) {
+                        /* type after coordinates is not supported */
+                        jp.skipChildren();
+                        continue;
+                    }
                     if (multi) {
                         parseMulti(jp, type);
                     } else {
@@ -213,6 +223,10 @@ public class GeoJsonTileDecoder implements ITileDecoder {
 
                     if (type == GeometryType.POINT)
                         mMapElement.startPoints();
+                } else {
+                    /* e.g. bbox, crs */
+                    jp.nextToken();
+                    jp.skipChildren();
                 }
                 continue;
             }
@@ -24,9 +24,12 @@ import org.oscim.tiling.source.UrlTileSource;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 public abstract class GeoJsonTileSource extends UrlTileSource {
 
+    private Set<String> mPropertyKeys;
+
     public GeoJsonTileSource(String url) {
         super(url, "/{Z}/{X}/{Y}.json");
         Map<String, String> opt = new HashMap<String, String>();
@@ -51,6 +54,24 @@ public abstract class GeoJsonTileSource extends UrlTileSource {
         return null;
     }
 
+    /**
+     * Pass only properties with these keys to {@link #decodeTags}, the
+     * decoder skips other properties without reading their values.
+     *
+     * @param keys the property keys, null for all
+     */
+    public void setPropertyKeys(Set<String> keys) {
+        mPropertyKeys = keys;
+    }
+
+    /**
+     * @return true when the property with the key is passed to
+     * {@link #decodeTags}
+     */
+    public boolean isPropertyUsed(String key) {
+        return mPropertyKeys == null || mPropertyKeys.contains(key);
+    }
+
     /**
      * allow overriding tag handling
      */
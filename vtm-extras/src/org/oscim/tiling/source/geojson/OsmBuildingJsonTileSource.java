@@ -19,12 +19,14 @@ package org.oscim.tiling.source.geojson;
 import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 
+import java.util.Collections;
 import java.util.Map;
 
 public class OsmBuildingJsonTileSource extends GeoJsonTileSource {
 
     public OsmBuildingJsonTileSource() {
         super("http://tile.openstreetmap.us/vectiles-buildings");
+        setPropertyKeys(Collections.<String>emptySet());
     }
 
     Tag mTagBuilding = new Tag(Tag.KEY_BUILDING, Tag.VALUE_YES);
@@ -21,6 +21,7 @@ import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 import org.oscim.debug.Logger;
 
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -29,6 +30,7 @@ public class OsmLanduseJsonTileSource extends GeoJsonTileSource {
 
     public OsmLanduseJsonTileSource() {
         super("http://tile.openstreetmap.us/vectiles-land-usages");
+        setPropertyKeys(Collections.singleton("kind"));
     }
 
     private static LinkedHashMap<String, Tag> mappings =
@@ -20,6 +20,8 @@ import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 import org.oscim.debug.Logger;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
 
 public class OsmRoadLabelJsonTileSource extends GeoJsonTileSource {
@@ -28,6 +30,7 @@ public class OsmRoadLabelJsonTileSource extends GeoJsonTileSource {
 
     public OsmRoadLabelJsonTileSource() {
         super("http://tile.openstreetmap.us/vectiles-skeletron");
+        setPropertyKeys(new HashSet<>(Arrays.asList("highway", "name")));
     }
 
     @Override
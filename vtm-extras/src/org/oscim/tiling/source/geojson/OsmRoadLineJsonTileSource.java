@@ -21,6 +21,8 @@ import org.oscim.core.Tag;
 import org.oscim.debug.Logger;
 
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
 
 public class OsmRoadLineJsonTileSource extends GeoJsonTileSource {
@@ -32,6 +34,8 @@ public class OsmRoadLineJsonTileSource extends GeoJsonTileSource {
 
     public OsmRoadLineJsonTileSource() {
         super("http://tile.openstreetmap.us/vectiles-highroad");
+        setPropertyKeys(new HashSet<>(Arrays.asList("highway", "railway", "is_link",
+                "is_tunnel", "is_bridge", "sort_key")));
     }
 
     @Override
@@ -19,12 +19,14 @@ package org.oscim.tiling.source.geojson;
 import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 
+import java.util.Collections;
 import java.util.Map;
 
 public class OsmWaterJsonTileSource extends GeoJsonTileSource {
 
     public OsmWaterJsonTileSource() {
         super("http://tile.openstreetmap.us/vectiles-water-areas");
+        setPropertyKeys(Collections.<String>emptySet());
     }
 
     Tag mTagWater = new Tag("natural", "water");
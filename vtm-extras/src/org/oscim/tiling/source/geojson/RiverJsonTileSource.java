@@ -3,12 +3,14 @@ package org.oscim.tiling.source.geojson;
 import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 
+import java.util.Collections;
 import java.util.Map;
 
 public class RiverJsonTileSource extends GeoJsonTileSource {
 
     public RiverJsonTileSource() {
         super("http://www.somebits.com:8001/rivers");
+        setPropertyKeys(Collections.<String>emptySet());
     }
 
     Tag mTagWater = new Tag("waterway", "river");
@@ -0,0 +1,432 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.osmpbf;
+
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.MapElement;
+import org.oscim.core.MercatorProjection;
+import org.oscim.core.Tag;
+import org.oscim.core.Tile;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.utils.osmpbf.NodeStore;
+import org.oscim.utils.osmpbf.OsmPbfIngest;
+import org.oscim.utils.osmpbf.SortedNodeStore;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Disk-backed spatial index of the nodes and ways of an OSM PBF extract.
+ * <p/>
+ * Each element is stored once with its tags, bounding box and coordinates
+ * in world pixels (mercator, 2^30 per map width). The cell table assigns
+ * every element to the smallest quadtree cell (down to {@link #MAX_LEVEL})
+ * which contains its bounding box; cells are sorted by level and morton
+ * code, so the cells of a tile are one range per level.
+ * <p/>
+ * Layout:
+ * <pre>
+ * header   magic, version, key count, cell count, keys offset, cells offset
+ * elements (type, bbox, tags, points)*
+ * keys     (unsigned short length, UTF-8 bytes)*
+ * cells    (level << 59 | morton << 31 | element offset)*
+ * </pre>
+ * The index is memory-mapped and thus limited to 2GB, i.e. regional
+ * extracts.
+ */
+public class OsmPbfIndex implements Closeable {
+    static final Logger log = new Logger(OsmPbfIndex.class);
+
+    /**
+     * Deepest quadtree level of the cell table.
+     */
+    public static final int MAX_LEVEL = 14;
+
+    static final int MAGIC = 0x56504246; // VPBF
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 4 * 4 + 2 * 8;
+
+    static final int SCALE_BITS = 30;
+    static final double SCALE = 1 << SCALE_BITS;
+
+    static final long OFFSET_MASK = 0x7fffffffL;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final RandomAccessFile mFile;
+    private final ByteBuffer mBuffer;
+    private final String[] mKeys;
+    private final long[] mCells;
+
+    private OsmPbfIndex(RandomAccessFile file) throws IOException {
+        mFile = file;
+        if (file.length() > Integer.MAX_VALUE)
+            throw new IOException("index too large: " + file.length());
+
+        mBuffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+        if (mBuffer.getInt(0) != MAGIC || mBuffer.getInt(4) != VERSION)
+            throw new IOException("invalid index");
+
+        int numKeys = mBuffer.getInt(8);
+        int numCells = mBuffer.getInt(12);
+        int keysOffset = (int) mBuffer.getLong(16);
+        int cellsOffset = (int) mBuffer.getLong(24);
+
+        mKeys = new String[numKeys];
+        int pos = keysOffset;
+        for (int i = 0; i < numKeys; i++) {
+            mKeys[i] = readString(pos).intern();
+            pos += 2 + (mBuffer.getShort(pos) & 0xffff);
+        }
+
+        mCells = new long[numCells];
+        for (int i = 0; i < numCells; i++)
+            mCells[i] = mBuffer.getLong(cellsOffset + i * 8);
+    }
+
+    public static OsmPbfIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            return new OsmPbfIndex(raf);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+
+    /**
+     * @return number of indexed elements
+     */
+    public int size() {
+        return mCells.length;
+    }
+
+    /**
+     * Callback for elements of a query.
+     */
+    public interface Callback {
+        /**
+         * @param e element with points in pixels relative to the tile
+         */
+        void process(MapElement e);
+    }
+
+    /**
+     * Read all elements whose bounding box intersects the area of the tile,
+     * with points projected to {@link Tile#SIZE}.
+     *
+     * @param e      element to reuse
+     * @param buffer extend the tile bounds by this fraction of the tile size
+     */
+    public void query(Tile tile, float buffer, MapElement e, Callback callback) {
+        int z = tile.zoomLevel;
+        int shift = SCALE_BITS - z;
+        long size = 1L << shift;
+        long ext = (long) (size * buffer);
+        long originX = (long) tile.tileX << shift;
+        long originY = (long) tile.tileY << shift;
+        long minX = originX - ext;
+        long minY = originY - ext;
+        long maxX = originX + size + ext;
+        long maxY = originY + size + ext;
+        double scale = (double) Tile.SIZE / size;
+
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            long first, count;
+            if (level <= z) {
+                first = morton(tile.tileX >> (z - level), tile.tileY >> (z - level));
+                count = 1;
+            } else {
+                int d = level - z;
+                first = morton((long) tile.tileX << d, (long) tile.tileY << d);
+                count = 1L << (2 * d);
+            }
+            long to = cellKey(level, first + count);
+
+            for (int i = lowerBound(cellKey(level, first)); i < mCells.length && mCells[i] < to; i++) {
+                int offset = (int) (mCells[i] & OFFSET_MASK);
+                if (mBuffer.getInt(offset + 9) < minX || mBuffer.getInt(offset + 1) > maxX
+                        || mBuffer.getInt(offset + 13) < minY || mBuffer.getInt(offset + 5) > maxY)
+                    continue;
+                read(offset, e, originX, originY, scale);
+                callback.process(e);
+            }
+        }
+    }
+
+    private int lowerBound(long key) {
+        int i = Arrays.binarySearch(mCells, key);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    private void read(int offset, MapElement e, long originX, long originY, double scale) {
+        e.clear();
+        e.tags.clear();
+
+        int pos = offset;
+        byte type = mBuffer.get(pos);
+        pos += 17;
+
+        int numTags = mBuffer.getShort(pos) & 0xffff;
+        pos += 2;
+        for (int i = 0; i < numTags; i++) {
+            String key = mKeys[mBuffer.getShort(pos) & 0xffff];
+            pos += 2;
+            String value = readString(pos);
+            pos += 2 + (mBuffer.getShort(pos) & 0xffff);
+            e.tags.add(new Tag(key, value, false));
+        }
+
+        if (type == TYPE_POINT)
+            e.startPoints();
+        else if (type == TYPE_POLYGON)
+            e.startPolygon();
+        else
+            e.startLine();
+
+        int numPoints = mBuffer.getInt(pos);
+        pos += 4;
+        for (int i = 0; i < numPoints; i++, pos += 8)
+            e.addPoint((float) ((mBuffer.getInt(pos) - originX) * scale),
+                    (float) ((mBuffer.getInt(pos + 4) - originY) * scale));
+    }
+
+    private String readString(int pos) {
+        int length = mBuffer.getShort(pos) & 0xffff;
+        byte[] bytes = new byte[length];
+        ByteBuffer b = mBuffer.duplicate();
+        b.position(pos + 2);
+        b.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    static final byte TYPE_POINT = 1;
+    static final byte TYPE_LINE = 2;
+    static final byte TYPE_POLYGON = 3;
+
+    static long morton(long x, long y) {
+        long m = 0;
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            m |= ((x >> i) & 1L) << (2 * i);
+            m |= ((y >> i) & 1L) << (2 * i + 1);
+        }
+        return m;
+    }
+
+    static long cellKey(int level, long morton) {
+        return ((long) level << 59) | (morton << 31);
+    }
+
+    /**
+     * Build the index of a PBF file.
+     *
+     * @param tmpDir directory for the temporary node store
+     */
+    public static void build(File pbf, File index, File tmpDir) throws IOException {
+        File nodes = File.createTempFile("nodes", ".tmp", tmpDir);
+        NodeStore store = new SortedNodeStore(nodes);
+        Writer writer = new Writer(index);
+        try {
+            OsmPbfIngest ingest = new OsmPbfIngest(store);
+            ingest.process(pbf, writer);
+            writer.finish();
+            log.debug("indexed " + writer.mNumCells + " elements of " + pbf);
+        } finally {
+            writer.close();
+            store.dispose();
+        }
+    }
+
+    /**
+     * Writes the elements emitted by {@link OsmPbfIngest}.
+     */
+    static final class Writer implements ITileDataSink, Closeable {
+        private final RandomAccessFile mFile;
+        private final DataOutputStream mOut;
+
+        private final Map<String, Integer> mKeyIds = new HashMap<>();
+        private final List<String> mKeys = new ArrayList<>();
+
+        private long[] mCells = new long[1 << 16];
+        private int mNumCells;
+
+        private int[] mPoints = new int[256];
+        private IOException mError;
+
+        Writer(File file) throws IOException {
+            mFile = new RandomAccessFile(file, "rw");
+            mFile.setLength(0);
+            mOut = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(mFile.getFD()), 1 << 16));
+            mOut.write(new byte[HEADER_SIZE]);
+        }
+
+        @Override
+        public void process(MapElement e) {
+            if (mError != null)
+                return;
+            try {
+                write(e);
+            } catch (IOException ex) {
+                mError = ex;
+            }
+        }
+
+        private void write(MapElement e) throws IOException {
+            int numPoints = e.getNumPoints();
+            if (numPoints == 0)
+                return;
+            if (mPoints.length < numPoints * 2)
+                mPoints = new int[numPoints * 2];
+
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int i = 0; i < numPoints; i++) {
+                /* x/y are longitude/latitude, see OsmPbfIngest */
+                int x = (int) (MercatorProjection.longitudeToX(e.points[i * 2]) * (SCALE - 1));
+                int y = (int) (MercatorProjection.latitudeToY(e.points[i * 2 + 1]) * (SCALE - 1));
+                mPoints[i * 2] = x;
+                mPoints[i * 2 + 1] = y;
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+
+            /* size() saturates at MAX_VALUE */
+            int offset = mOut.size();
+            if (offset == Integer.MAX_VALUE)
+                throw new IOException("index too large, use a smaller extract");
+
+            DataOutputStream out = mOut;
+            out.writeByte(e.type == GeometryType.POINT ? TYPE_POINT
+                    : e.type == GeometryType.POLY ? TYPE_POLYGON : TYPE_LINE);
+            out.writeInt(minX);
+            out.writeInt(minY);
+            out.writeInt(maxX);
+            out.writeInt(maxY);
+
+            int numTags = Math.min(e.tags.size(), 0xffff);
+            out.writeShort(numTags);
+            for (int i = 0; i < numTags; i++) {
+                Tag tag = e.tags.get(i);
+                out.writeShort(key(tag.key));
+                writeString(tag.value);
+            }
+            out.writeInt(numPoints);
+            for (int i = 0; i < numPoints * 2; i++)
+                out.writeInt(mPoints[i]);
+
+            /* smallest cell containing the bbox */
+            int level = MAX_LEVEL;
+            int shift = SCALE_BITS - MAX_LEVEL;
+            long x1 = minX >> shift, x2 = maxX >> shift;
+            long y1 = minY >> shift, y2 = maxY >> shift;
+            while (level > 0 && (x1 != x2 || y1 != y2)) {
+                x1 >>= 1;
+                x2 >>= 1;
+                y1 >>= 1;
+                y2 >>= 1;
+                level--;
+            }
+            if (mNumCells == mCells.length)
+                mCells = Arrays.copyOf(mCells, mNumCells * 2);
+            mCells[mNumCells++] = cellKey(level, morton(x1, y1)) | offset;
+        }
+
+        private int key(String key) throws IOException {
+            Integer id = mKeyIds.get(key);
+            if (id == null) {
+                if (mKeys.size() == 0xffff)
+                    throw new IOException("too many keys");
+                id = mKeys.size();
+                mKeyIds.put(key, id);
+                mKeys.add(key);
+            }
+            return id;
+        }
+
+        private void writeString(String s) throws IOException {
+            byte[] bytes = s.getBytes(UTF8);
+            int length = Math.min(bytes.length, 0xffff);
+            /* cut at a character boundary */
+            while (length < bytes.length && length > 0 && (bytes[length] & 0xc0) == 0x80)
+                length--;
+            mOut.writeShort(length);
+            mOut.write(bytes, 0, length);
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+        }
+
+        void finish() throws IOException {
+            if (mError != null)
+                throw mError;
+
+            long keysOffset = mOut.size();
+            for (String key : mKeys)
+                writeString(key);
+            long cellsOffset = mOut.size();
+
+            Arrays.sort(mCells, 0, mNumCells);
+            for (int i = 0; i < mNumCells; i++)
+                mOut.writeLong(mCells[i]);
+            mOut.flush();
+
+            if (mOut.size() == Integer.MAX_VALUE)
+                throw new IOException("index too large, use a smaller extract");
+
+            mFile.seek(0);
+            mFile.writeInt(MAGIC);
+            mFile.writeInt(VERSION);
+            mFile.writeInt(mKeys.size());
+            mFile.writeInt(mNumCells);
+            mFile.writeLong(keysOffset);
+            mFile.writeLong(cellsOffset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            mOut.close();
+            mFile.close();
+        }
+    }
+}
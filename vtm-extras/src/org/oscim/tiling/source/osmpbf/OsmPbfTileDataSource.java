@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.osmpbf;
+
+import org.oscim.core.GeometryBuffer;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.utils.LRUCache;
+import org.oscim.utils.geom.SimplifyDP;
+import org.oscim.utils.geom.SimplifyVW;
+import org.oscim.utils.geom.TileClipper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.oscim.tiling.QueryResult.SUCCESS;
+
+/**
+ * Cuts the elements of an {@link OsmPbfIndex} into tiles: elements are
+ * clipped to the tile with a small buffer and simplified with tolerances
+ * in pixels, i.e. stronger on lower zoom levels. Results are kept in an
+ * LRU cache shared by all data sources of the tile source.
+ */
+public class OsmPbfTileDataSource implements ITileDataSource, OsmPbfIndex.Callback {
+
+    /**
+     * Buffer around the tile in pixels, used for clipping.
+     */
+    static final float CLIP_BUFFER = 16;
+
+    /**
+     * Lines and polygons with a bounding box smaller than this (in pixels)
+     * are dropped.
+     */
+    static final float MIN_SIZE = 1;
+
+    private final OsmPbfTileSource mTileSource;
+    private final LRUCache<Long, List<MapElement>> mCache;
+
+    private final MapElement mElement = new MapElement();
+    private final TileClipper mClipper;
+    private final GeometryBuffer mClipBuffer = new GeometryBuffer(16, 2);
+    private final SimplifyDP mSimplifyDP = new SimplifyDP();
+    private final SimplifyVW mSimplifyVW = new SimplifyVW();
+
+    private List<MapElement> mElements;
+
+    private long mQueryCount;
+    private long mQueryTime;
+
+    public OsmPbfTileDataSource(OsmPbfTileSource tileSource, LRUCache<Long, List<MapElement>> cache) {
+        mTileSource = tileSource;
+        mCache = cache;
+        mClipper = new TileClipper(-CLIP_BUFFER, -CLIP_BUFFER,
+                Tile.SIZE + CLIP_BUFFER, Tile.SIZE + CLIP_BUFFER);
+    }
+
+    @Override
+    public void query(MapTile tile, ITileDataSink sink) {
+        Long key = key(tile);
+        List<MapElement> elements;
+        synchronized (mCache) {
+            elements = mCache.get(key);
+        }
+
+        if (elements == null) {
+            long start = System.nanoTime();
+
+            mElements = new ArrayList<>();
+            mTileSource.getIndex().query(tile, CLIP_BUFFER / Tile.SIZE, mElement, this);
+            elements = mElements;
+            mElements = null;
+
+            mQueryTime += System.nanoTime() - start;
+            mQueryCount++;
+
+            synchronized (mCache) {
+                mCache.put(key, elements);
+            }
+        }
+
+        /* the sink may modify the elements */
+        for (MapElement e : elements)
+            sink.process(new MapElement(e));
+
+        sink.completed(SUCCESS);
+    }
+
+    @Override
+    public void process(MapElement e) {
+        if (!e.isPoint()) {
+            if (!mClipper.clip(e, mClipBuffer))
+                return;
+            if (e.getNumPoints() == 0)
+                return;
+            if (!isVisible(e))
+                return;
+            if (e.isPoly())
+                mSimplifyVW.simplify(e, 0.1f);
+            mSimplifyDP.simplify(e, 0.5f);
+        }
+        mElements.add(new MapElement(e));
+    }
+
+    private static boolean isVisible(MapElement e) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        float[] points = e.points;
+        for (int i = 0, n = e.getNumPoints() * 2; i < n; i += 2) {
+            minX = Math.min(minX, points[i]);
+            maxX = Math.max(maxX, points[i]);
+            minY = Math.min(minY, points[i + 1]);
+            maxY = Math.max(maxY, points[i + 1]);
+        }
+        return maxX - minX >= MIN_SIZE || maxY - minY >= MIN_SIZE;
+    }
+
+    private static Long key(Tile tile) {
+        return ((long) tile.zoomLevel << 58) | ((long) tile.tileX << 29) | tile.tileY;
+    }
+
+    /**
+     * @return number of tiles read from the index, i.e. not from the cache
+     */
+    public long getQueryCount() {
+        return mQueryCount;
+    }
+
+    /**
+     * @return average time of reading a tile from the index in milliseconds
+     */
+    public double getAverageQueryTime() {
+        return mQueryCount == 0 ? 0 : mQueryTime / 1e6 / mQueryCount;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public void cancel() {
+    }
+}
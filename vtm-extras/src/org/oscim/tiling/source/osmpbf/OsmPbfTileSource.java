@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.osmpbf;
+
+import org.oscim.core.MapElement;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.OverzoomTileDataSource;
+import org.oscim.tiling.TileSource;
+import org.oscim.utils.IOUtils;
+import org.oscim.utils.LRUCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Renders a local OSM PBF extract without converting it to a map file.
+ * On first {@link #open()} the nodes and ways of the extract are written to
+ * an index next to it ("file" + ".idx"), which is reused as long as it is
+ * newer than the extract. Relations are not read, i.e. multipolygons are
+ * missing.
+ */
+public class OsmPbfTileSource extends TileSource {
+    private static final Logger log = new Logger(OsmPbfTileSource.class);
+
+    /**
+     * Number of tiles kept in the cache of cut tiles.
+     */
+    public static int CACHE_SIZE = 256;
+
+    private OsmPbfIndex mIndex;
+    private LRUCache<Long, List<MapElement>> mCache;
+    private long mBuildTime;
+
+    public OsmPbfTileSource() {
+        this(10, 17);
+    }
+
+    public OsmPbfTileSource(int zoomMin, int zoomMax) {
+        super(zoomMin, zoomMax);
+    }
+
+    public boolean setPbfFile(String filename) {
+        setOption("file", filename);
+
+        File file = new File(filename);
+        return file.isFile() && file.canRead();
+    }
+
+    /**
+     * @return the index file of an extract
+     */
+    public static File getIndexFile(File pbf) {
+        return new File(pbf.getPath() + ".idx");
+    }
+
+    @Override
+    public OpenResult open() {
+        if (!options.containsKey("file"))
+            return new OpenResult("no pbf file set");
+
+        File file = new File(options.get("file"));
+        if (!file.isFile() || !file.canRead())
+            return new OpenResult("cannot read file: " + file);
+
+        File indexFile = getIndexFile(file);
+        try {
+            if (!indexFile.exists() || indexFile.lastModified() < file.lastModified()) {
+                long start = System.currentTimeMillis();
+                File tmp = new File(indexFile.getPath() + ".tmp");
+                OsmPbfIndex.build(file, tmp, indexFile.getParentFile());
+                if (indexFile.exists() && !indexFile.delete())
+                    throw new IOException("cannot replace " + indexFile);
+                if (!tmp.renameTo(indexFile))
+                    throw new IOException("cannot write " + indexFile);
+                mBuildTime = System.currentTimeMillis() - start;
+                log.debug("built " + indexFile + " in " + mBuildTime + "ms");
+            }
+            mIndex = OsmPbfIndex.open(indexFile);
+            mCache = new LRUCache<>(CACHE_SIZE);
+            return OpenResult.SUCCESS;
+        } catch (IOException e) {
+            log.error(e);
+            close();
+            return new OpenResult(e.getMessage());
+        }
+    }
+
+    @Override
+    public ITileDataSource getDataSource() {
+        return new OverzoomTileDataSource(new OsmPbfTileDataSource(this, mCache), mOverZoom);
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(mIndex);
+        mIndex = null;
+        mCache = null;
+    }
+
+    OsmPbfIndex getIndex() {
+        return mIndex;
+    }
+
+    /**
+     * @return time to build the index in milliseconds, 0 if an existing
+     * index was opened
+     */
+    public long getBuildTime() {
+        return mBuildTime;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.osmpbf;
+
+import java.util.Arrays;
+
+/**
+ * {@link NodeStore} on heap using open addressing on primitive arrays, 16
+ * bytes per slot. Accepts ids in any order.
+ */
+public class HashNodeStore implements NodeStore {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] mKeys;
+    private long[] mValues;
+    private int mMask;
+    private int mSize;
+
+    public HashNodeStore() {
+        this(1 << 16);
+    }
+
+    /**
+     * @param expected number of nodes to store without rehashing
+     */
+    public HashNodeStore(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new long[capacity];
+        Arrays.fill(mKeys, FREE);
+        mMask = capacity - 1;
+    }
+
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    @Override
+    public void put(long id, int latE7, int lonE7) {
+        if (mSize >= (mKeys.length >> 1) + (mKeys.length >> 2))
+            rehash();
+
+        int i = hash(id) & mMask;
+        while (mKeys[i] != FREE && mKeys[i] != id)
+            i = (i + 1) & mMask;
+
+        if (mKeys[i] == FREE)
+            mSize++;
+        mKeys[i] = id;
+        mValues[i] = Coordinates.pack(latE7, lonE7);
+    }
+
+    @Override
+    public long get(long id) {
+        int i = hash(id) & mMask;
+        long key;
+        while ((key = mKeys[i]) != FREE) {
+            if (key == id)
+                return mValues[i];
+            i = (i + 1) & mMask;
+        }
+        return NOT_FOUND;
+    }
+
+    private void rehash() {
+        long[] keys = mKeys;
+        long[] values = mValues;
+        allocate(keys.length << 1);
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE)
+                put(keys[i], Coordinates.lat(values[i]), Coordinates.lon(values[i]));
+        }
+    }
+
+    @Override
+    public long size() {
+        return mSize;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return (long) mKeys.length * 16;
+    }
+
+    @Override
+    public void dispose() {
+        allocate(16);
+        mSize = 0;
+    }
+}
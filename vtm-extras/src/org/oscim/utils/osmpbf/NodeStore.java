@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.osmpbf;
+
+/**
+ * Maps node ids to coordinates packed into one long: latitude and longitude
+ * in 1e-7 degrees (the resolution of OSM) as upper and lower int.
+ * <p/>
+ * {@link #put(long, int, int)} is called by a single thread while nodes are
+ * read, {@link #get(long)} may be called concurrently afterwards.
+ */
+public interface NodeStore {
+
+    /**
+     * Returned by {@link #get(long)} for unknown ids.
+     */
+    long NOT_FOUND = Long.MIN_VALUE;
+
+    void put(long id, int latE7, int lonE7);
+
+    /**
+     * @return packed coordinate or {@link #NOT_FOUND}
+     */
+    long get(long id);
+
+    /**
+     * @return number of stored nodes
+     */
+    long size();
+
+    /**
+     * @return bytes allocated for the stored nodes, on heap, off heap or in
+     * a file.
+     */
+    long getMemoryUsage();
+
+    /**
+     * Release memory and files.
+     */
+    void dispose();
+
+    final class Coordinates {
+        private Coordinates() {
+        }
+
+        public static long pack(int latE7, int lonE7) {
+            return ((long) latE7 << 32) | (lonE7 & 0xffffffffL);
+        }
+
+        public static int lat(long packed) {
+            return (int) (packed >> 32);
+        }
+
+        public static int lon(long packed) {
+            return (int) packed;
+        }
+    }
+}
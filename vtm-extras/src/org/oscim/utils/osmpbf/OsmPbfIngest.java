@@ -0,0 +1,498 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.osmpbf;
+
+import org.openstreetmap.osmosis.osmbinary.BinaryParser;
+import org.openstreetmap.osmosis.osmbinary.Osmformat;
+import org.openstreetmap.osmosis.osmbinary.file.BlockInputStream;
+import org.openstreetmap.osmosis.osmbinary.file.BlockReaderAdapter;
+import org.openstreetmap.osmosis.osmbinary.file.FileBlock;
+import org.openstreetmap.osmosis.osmbinary.file.FileBlockPosition;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tag;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileDataSink;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.oscim.tiling.QueryResult.FAILED;
+import static org.oscim.tiling.QueryResult.SUCCESS;
+
+/**
+ * Streaming alternative to {@link OsmPbfParser} for large extracts.
+ * <p/>
+ * Instead of materializing {@link org.oscim.core.osm.OsmData} the file is
+ * read twice: the first pass stores node coordinates in a {@link NodeStore}
+ * and emits tagged nodes, the second pass resolves way geometries from the
+ * store and emits the ways. Primitive blocks are parsed in parallel, tags
+ * are shared between elements. Relations are not processed.
+ * <p/>
+ * Elements are passed to {@link ITileDataSink#process(MapElement)} with
+ * longitude/latitude in degrees as x/y. Calls are synchronized on the sink,
+ * the MapElement is reused after the call returns.
+ */
+public class OsmPbfIngest {
+    static final Logger log = new Logger(OsmPbfIngest.class);
+
+    private static final double COORD_SCALE = 1e-7;
+
+    private final NodeStore mNodes;
+    private final int mThreads;
+    private final TagInterner mTags = new TagInterner();
+
+    private final AtomicLong mNodeCount = new AtomicLong();
+    private final AtomicLong mWayCount = new AtomicLong();
+    private final AtomicLong mMissingNodes = new AtomicLong();
+    private long mNodePassTime;
+    private long mWayPassTime;
+
+    /**
+     * @param nodes store for node coordinates, a {@link SortedNodeStore}
+     *              for sorted extracts
+     */
+    public OsmPbfIngest(NodeStore nodes) {
+        this(nodes, Runtime.getRuntime().availableProcessors());
+    }
+
+    public OsmPbfIngest(NodeStore nodes, int threads) {
+        mNodes = nodes;
+        mThreads = Math.max(1, threads);
+    }
+
+    /**
+     * Read the file and emit all tagged nodes and ways to the sink.
+     */
+    public void process(File file, ITileDataSink sink) throws IOException {
+        try {
+            long time = System.currentTimeMillis();
+            run(file, true, sink);
+            mNodePassTime = System.currentTimeMillis() - time;
+
+            time = System.currentTimeMillis();
+            run(file, false, sink);
+            mWayPassTime = System.currentTimeMillis() - time;
+        } catch (IOException e) {
+            sink.completed(FAILED);
+            throw e;
+        }
+        sink.completed(SUCCESS);
+
+        log.debug("nodes: " + mNodes.size() + " in " + mNodePassTime + "ms, "
+                + (mNodes.getMemoryUsage() >> 20) + "MB"
+                + ", ways: " + mWayCount.get() + " in " + mWayPassTime + "ms"
+                + ", missing nodes: " + mMissingNodes.get());
+    }
+
+    public NodeStore getNodeStore() {
+        return mNodes;
+    }
+
+    /**
+     * @return number of emitted nodes
+     */
+    public long getNodeCount() {
+        return mNodeCount.get();
+    }
+
+    /**
+     * @return number of emitted ways
+     */
+    public long getWayCount() {
+        return mWayCount.get();
+    }
+
+    /**
+     * @return way references to nodes which are not in the file
+     */
+    public long getMissingNodes() {
+        return mMissingNodes.get();
+    }
+
+    /**
+     * @return milliseconds of the node and way pass
+     */
+    public long[] getPassTimes() {
+        return new long[]{mNodePassTime, mWayPassTime};
+    }
+
+    private void run(File file, boolean nodePass, ITileDataSink sink) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(mThreads);
+        Dispatcher dispatcher = new Dispatcher(executor, nodePass, sink);
+
+        InputStream is = new BufferedInputStream(new FileInputStream(file));
+        try {
+            new BlockInputStream(is, dispatcher).process();
+            dispatcher.await();
+        } finally {
+            executor.shutdown();
+            is.close();
+        }
+    }
+
+    /**
+     * Passes blocks to parser threads and commits parsed nodes in file order.
+     */
+    private final class Dispatcher implements BlockReaderAdapter {
+        private final ExecutorService mExecutor;
+        private final boolean mNodePass;
+        private final ITileDataSink mSink;
+
+        /* limits blocks in flight and thus pending batches */
+        private final Semaphore mInFlight;
+        private final int mPermits;
+
+        private int mSequence;
+        private int mNextCommit;
+        private final Map<Integer, NodeBatch> mPending = new HashMap<>();
+        private volatile Throwable mError;
+
+        Dispatcher(ExecutorService executor, boolean nodePass, ITileDataSink sink) {
+            mExecutor = executor;
+            mNodePass = nodePass;
+            mSink = sink;
+            mPermits = mThreads * 2;
+            mInFlight = new Semaphore(mPermits);
+        }
+
+        @Override
+        public boolean skipBlock(FileBlockPosition block) {
+            return !"OSMData".equals(block.getType()) && !"OSMHeader".equals(block.getType());
+        }
+
+        @Override
+        public void handleBlock(final FileBlock block) {
+            if ("OSMHeader".equals(block.getType())) {
+                if (mNodePass)
+                    checkHeader(block);
+                return;
+            }
+            if (mError != null)
+                return;
+
+            mInFlight.acquireUninterruptibly();
+            final int sequence = mSequence++;
+            mExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    NodeBatch batch = null;
+                    try {
+                        BlockParser parser = new BlockParser(mNodePass, mSink);
+                        parser.parse(Osmformat.PrimitiveBlock.parseFrom(block.getData()));
+                        batch = parser.mBatch;
+                    } catch (Throwable t) {
+                        mError = t;
+                    } finally {
+                        commit(sequence, batch);
+                        mInFlight.release();
+                    }
+                }
+            });
+        }
+
+        private void checkHeader(FileBlock block) {
+            try {
+                Osmformat.HeaderBlock header = Osmformat.HeaderBlock.parseFrom(block.getData());
+                for (String s : header.getRequiredFeaturesList()) {
+                    if (!s.equals("OsmSchema-V0.6") && !s.equals("DenseNodes"))
+                        throw new RuntimeException("File requires unknown feature: " + s);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private void commit(int sequence, NodeBatch batch) {
+            if (!mNodePass)
+                return;
+            synchronized (mPending) {
+                mPending.put(sequence, batch);
+                while (mPending.containsKey(mNextCommit)) {
+                    NodeBatch b = mPending.remove(mNextCommit++);
+                    if (b == null || mError != null)
+                        continue;
+                    try {
+                        for (int i = 0; i < b.size; i++)
+                            mNodes.put(b.ids[i], b.lat[i], b.lon[i]);
+                    } catch (RuntimeException e) {
+                        mError = e;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        void await() throws IOException {
+            mInFlight.acquireUninterruptibly(mPermits);
+            mInFlight.release(mPermits);
+            if (mError != null)
+                throw new IOException(mError);
+        }
+    }
+
+    /**
+     * Node coordinates of one block.
+     */
+    static final class NodeBatch {
+        long[] ids = new long[8000];
+        int[] lat = new int[8000];
+        int[] lon = new int[8000];
+        int size;
+
+        void add(long id, int latE7, int lonE7) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                lat = Arrays.copyOf(lat, size * 2);
+                lon = Arrays.copyOf(lon, size * 2);
+            }
+            ids[size] = id;
+            lat[size] = latE7;
+            lon[size] = lonE7;
+            size++;
+        }
+    }
+
+    /**
+     * Parser for one primitive block.
+     */
+    private final class BlockParser extends BinaryParser {
+        private final boolean mNodePass;
+        private final ITileDataSink mSink;
+        private final MapElement mElement = new MapElement();
+        final NodeBatch mBatch;
+
+        BlockParser(boolean nodePass, ITileDataSink sink) {
+            mNodePass = nodePass;
+            mSink = sink;
+            mBatch = nodePass ? new NodeBatch() : null;
+        }
+
+        private int latE7(long lat) {
+            return (int) ((lat_offset + (long) granularity * lat) / 100);
+        }
+
+        private int lonE7(long lon) {
+            return (int) ((lon_offset + (long) granularity * lon) / 100);
+        }
+
+        @Override
+        protected void parseNodes(List<Osmformat.Node> nodes) {
+            if (!mNodePass)
+                return;
+            for (Osmformat.Node n : nodes) {
+                int lat = latE7(n.getLat());
+                int lon = lonE7(n.getLon());
+                mBatch.add(n.getId(), lat, lon);
+
+                int tagCnt = n.getKeysCount();
+                if (tagCnt == 0)
+                    continue;
+                MapElement e = mElement;
+                e.clear();
+                e.tags.clear();
+                for (int j = 0; j < tagCnt; j++)
+                    e.tags.add(mTags.get(getStringById(n.getKeys(j)), getStringById(n.getVals(j))));
+                emitNode(e, lat, lon);
+            }
+        }
+
+        @Override
+        protected void parseDense(Osmformat.DenseNodes nodes) {
+            if (!mNodePass)
+                return;
+            long lastId = 0, lastLat = 0, lastLon = 0;
+            int j = 0;
+            boolean hasTags = nodes.getKeysValsCount() > 0;
+
+            for (int i = 0, n = nodes.getIdCount(); i < n; i++) {
+                lastId += nodes.getId(i);
+                lastLat += nodes.getLat(i);
+                lastLon += nodes.getLon(i);
+                int lat = latE7(lastLat);
+                int lon = lonE7(lastLon);
+                mBatch.add(lastId, lat, lon);
+
+                if (!hasTags)
+                    continue;
+                MapElement e = mElement;
+                e.clear();
+                e.tags.clear();
+                while (nodes.getKeysVals(j) != 0) {
+                    int key = nodes.getKeysVals(j++);
+                    int val = nodes.getKeysVals(j++);
+                    e.tags.add(mTags.get(getStringById(key), getStringById(val)));
+                }
+                j++; // skip the '0' delimiter
+                if (e.tags.size() > 0)
+                    emitNode(e, lat, lon);
+            }
+        }
+
+        private void emitNode(MapElement e, int lat, int lon) {
+            e.startPoints();
+            e.addPoint((float) (lon * COORD_SCALE), (float) (lat * COORD_SCALE));
+            synchronized (mSink) {
+                mSink.process(e);
+            }
+            mNodeCount.incrementAndGet();
+        }
+
+        @Override
+        protected void parseWays(List<Osmformat.Way> ways) {
+            if (mNodePass)
+                return;
+            MapElement e = mElement;
+            for (Osmformat.Way w : ways) {
+                int tagCnt = w.getKeysCount();
+                int refCnt = w.getRefsCount();
+                if (tagCnt == 0 || refCnt < 2)
+                    continue;
+
+                e.clear();
+                e.tags.clear();
+                for (int j = 0; j < tagCnt; j++)
+                    e.tags.add(mTags.get(getStringById(w.getKeys(j)), getStringById(w.getVals(j))));
+
+                long first = w.getRefs(0);
+                long last = first;
+                for (int j = 1; j < refCnt; j++)
+                    last += w.getRefs(j);
+
+                boolean polygon = refCnt > 3 && first == last && isArea(e);
+                if (polygon) {
+                    e.startPolygon();
+                    /* polygons are implicitly closed */
+                    refCnt--;
+                } else {
+                    e.startLine();
+                }
+
+                long id = 0;
+                for (int j = 0; j < refCnt; j++) {
+                    id += w.getRefs(j);
+                    long coord = mNodes.get(id);
+                    if (coord == NodeStore.NOT_FOUND) {
+                        mMissingNodes.incrementAndGet();
+                        continue;
+                    }
+                    e.addPoint((float) (NodeStore.Coordinates.lon(coord) * COORD_SCALE),
+                            (float) (NodeStore.Coordinates.lat(coord) * COORD_SCALE));
+                }
+                if (e.getNumPoints() < (polygon ? 3 : 2))
+                    continue;
+
+                synchronized (mSink) {
+                    mSink.process(e);
+                }
+                mWayCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        protected void parseRelations(List<Osmformat.Relation> rels) {
+        }
+
+        @Override
+        public void parse(Osmformat.HeaderBlock block) {
+        }
+
+        @Override
+        public void complete() {
+        }
+    }
+
+    /**
+     * Closed ways which are areas by default, see the OSM wiki 'Key:area'.
+     */
+    static boolean isArea(MapElement e) {
+        String area = e.tags.getValue(Tag.KEY_AREA);
+        if (area != null)
+            return !"no".equals(area);
+        return e.tags.containsKey(Tag.KEY_BUILDING)
+                || e.tags.containsKey(Tag.KEY_LANDUSE)
+                || e.tags.containsKey(Tag.KEY_AMENITY)
+                || e.tags.containsKey("natural")
+                || e.tags.containsKey("leisure")
+                || e.tags.containsKey("place");
+    }
+
+    /**
+     * Shares Tag instances between elements. Tags with unique values, like
+     * names, only share the key.
+     */
+    static final class TagInterner {
+        private final ConcurrentHashMap<String, ConcurrentHashMap<String, Tag>> mTags =
+                new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, String> mKeys = new ConcurrentHashMap<>();
+
+        Tag get(String key, String value) {
+            if (isUnique(key)) {
+                String k = mKeys.get(key);
+                if (k == null) {
+                    k = key.intern();
+                    mKeys.putIfAbsent(k, k);
+                }
+                return new Tag(k, value, false);
+            }
+
+            ConcurrentHashMap<String, Tag> values = mTags.get(key);
+            if (values == null) {
+                values = new ConcurrentHashMap<>();
+                ConcurrentHashMap<String, Tag> prev = mTags.putIfAbsent(key, values);
+                if (prev != null)
+                    values = prev;
+            }
+            Tag tag = values.get(value);
+            if (tag == null) {
+                tag = new Tag(key, value);
+                Tag prev = values.putIfAbsent(value, tag);
+                if (prev != null)
+                    tag = prev;
+            }
+            return tag;
+        }
+
+        static boolean isUnique(String key) {
+            return key.startsWith(Tag.KEY_NAME)
+                    || key.startsWith("addr:")
+                    || key.equals(Tag.KEY_REF)
+                    || key.equals(Tag.KEY_ELE)
+                    || key.equals(Tag.KEY_HEIGHT)
+                    || key.startsWith("website")
+                    || key.startsWith("wiki")
+                    || key.startsWith("contact:")
+                    || key.equals("phone")
+                    || key.equals("opening_hours")
+                    || key.equals("description")
+                    || key.equals("note")
+                    || key.equals("source");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.osmpbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link NodeStore} for nodes in ascending id order, as written by osmosis
+ * and osmium ("Sort.Type_then_ID"). Id and coordinate are appended to
+ * chunks of direct (off-heap) or memory-mapped file buffers, lookups use
+ * binary search. Needs 16 bytes per node and no rehashing.
+ */
+public class SortedNodeStore implements NodeStore {
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int CHUNK_ENTRIES = 1 << 20;
+
+    private final File mFile;
+    private RandomAccessFile mRandomAccessFile;
+
+    private final List<ByteBuffer> mChunks = new ArrayList<>();
+    private long[] mFirstIds = new long[16];
+    private long mSize;
+    private long mLastId = Long.MIN_VALUE;
+
+    /**
+     * Store nodes in direct buffers.
+     */
+    public SortedNodeStore() {
+        mFile = null;
+    }
+
+    /**
+     * Store nodes in a memory-mapped file, which is deleted on
+     * {@link #dispose()}.
+     */
+    public SortedNodeStore(File file) throws IOException {
+        mFile = file;
+        mRandomAccessFile = new RandomAccessFile(file, "rw");
+    }
+
+    @Override
+    public void put(long id, int latE7, int lonE7) {
+        if (id <= mLastId)
+            throw new IllegalArgumentException("node ids must be ascending: " + id);
+        mLastId = id;
+
+        int entry = (int) (mSize % CHUNK_ENTRIES);
+        if (entry == 0)
+            addChunk(id);
+
+        ByteBuffer chunk = mChunks.get(mChunks.size() - 1);
+        chunk.putLong(entry * ENTRY_BYTES, id);
+        chunk.putLong(entry * ENTRY_BYTES + 8, Coordinates.pack(latE7, lonE7));
+        mSize++;
+    }
+
+    private void addChunk(long firstId) {
+        int size = CHUNK_ENTRIES * ENTRY_BYTES;
+        ByteBuffer chunk;
+        if (mRandomAccessFile == null) {
+            chunk = ByteBuffer.allocateDirect(size);
+        } else {
+            try {
+                chunk = mRandomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE,
+                        (long) mChunks.size() * size, size);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        chunk.order(ByteOrder.nativeOrder());
+
+        if (mChunks.size() == mFirstIds.length)
+            mFirstIds = Arrays.copyOf(mFirstIds, mFirstIds.length * 2);
+        mFirstIds[mChunks.size()] = firstId;
+        mChunks.add(chunk);
+    }
+
+    @Override
+    public long get(long id) {
+        int numChunks = mChunks.size();
+        if (numChunks == 0 || id < mFirstIds[0] || id > mLastId)
+            return NOT_FOUND;
+
+        /* last chunk with first id <= id */
+        int c = Arrays.binarySearch(mFirstIds, 0, numChunks, id);
+        if (c < 0)
+            c = -c - 2;
+
+        ByteBuffer chunk = mChunks.get(c);
+        int entries = (c < numChunks - 1) ? CHUNK_ENTRIES
+                : (int) (mSize - (long) c * CHUNK_ENTRIES);
+
+        int lo = 0, hi = entries - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long v = chunk.getLong(mid * ENTRY_BYTES);
+            if (v < id)
+                lo = mid + 1;
+            else if (v > id)
+                hi = mid - 1;
+            else
+                return chunk.getLong(mid * ENTRY_BYTES + 8);
+        }
+        return NOT_FOUND;
+    }
+
+    @Override
+    public long size() {
+        return mSize;
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return (long) mChunks.size() * CHUNK_ENTRIES * ENTRY_BYTES;
+    }
+
+    @Override
+    public void dispose() {
+        mChunks.clear();
+        mSize = 0;
+        mLastId = Long.MIN_VALUE;
+        if (mRandomAccessFile != null) {
+            try {
+                mRandomAccessFile.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            mRandomAccessFile = null;
+            mFile.delete();
+        }
+    }
+}
@@ -173,6 +173,8 @@ public class GdxModelRenderer extends LayerRenderer {
         }
 
         gl.depthMask(false);
+        // libgdx changed the state behind GLState and the state filter
+        GLState.invalidate();
         GLState.bindElementBuffer(GLState.UNBIND);
         GLState.bindBuffer(GL.ARRAY_BUFFER, GLState.UNBIND);
     }
@@ -187,6 +187,8 @@ public class GdxRenderer3D extends LayerRenderer {
         //log.debug(">>> " + (System.currentTimeMillis() - time) + " " + cnt + "/" + rnd);
 
         gl.depthMask(false);
+        // libgdx changed the state behind GLState and the state filter
+        GLState.invalidate();
         GLState.bindElementBuffer(GLState.UNBIND);
         GLState.bindBuffer(GL.ARRAY_BUFFER, GLState.UNBIND);
     }
@@ -162,6 +162,8 @@ public class GdxRenderer3D2 extends LayerRenderer {
 
         gl.frontFace(GL.CW);
         gl.depthMask(false);
+        // libgdx changed the state behind GLState and the state filter
+        GLState.invalidate();
         GLState.bindElementBuffer(GLState.UNBIND);
         GLState.bindBuffer(GL.ARRAY_BUFFER, GLState.UNBIND);
 
@@ -25,9 +25,12 @@ import org.oscim.tiling.source.UrlTileDataSource;
 import org.oscim.tiling.source.UrlTileSource;
 
 import java.util.Map;
+import java.util.Set;
 
 public abstract class GeojsonTileSource extends UrlTileSource {
 
+    private volatile Set<String> mPropertyKeys;
+
     protected GeojsonTileSource(Builder<?> builder) {
         super(builder);
     }
@@ -49,6 +52,31 @@ public abstract class GeojsonTileSource extends UrlTileSource {
         return null;
     }
 
+    /**
+     * Pass only properties with these keys to {@link #decodeTags}, the
+     * decoder skips other properties without reading their values. The
+     * {@link org.oscim.layers.tile.vector.VectorTileLayer} sets the keys
+     * used by its theme and layers, see {@link #setUsedKeys(Set)}.
+     *
+     * @param keys the property keys, null for all
+     */
+    public void setPropertyKeys(Set<String> keys) {
+        mPropertyKeys = keys;
+    }
+
+    @Override
+    public void setUsedKeys(Set<String> keys) {
+        setPropertyKeys(keys);
+    }
+
+    /**
+     * @return true when the property with the key is passed to
+     * {@link #decodeTags}
+     */
+    public boolean isPropertyUsed(String key) {
+        return mPropertyKeys == null || mPropertyKeys.contains(key);
+    }
+
     /**
      * allow overriding tag handling
      */
@@ -65,6 +93,9 @@ public abstract class GeojsonTileSource extends UrlTileSource {
 
     /**
      * modify mapElement before process()
+     * <p/>
+     * Elements may be skipped by the tags from {@link #decodeTags} before this
+     * is called, so tags added here should not decide about rendering.
      */
     public void postGeomHook(MapElement mapElement) {
     }
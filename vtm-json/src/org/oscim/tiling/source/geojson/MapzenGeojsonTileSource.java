@@ -76,6 +76,13 @@ public class MapzenGeojsonTileSource extends GeojsonTileSource {
         this(builder().url(urlString));
     }
 
+    @Override
+    public boolean isPropertyUsed(String key) {
+        /* localized names and building part heights are mapped to tags */
+        return super.isPropertyUsed(key) || key.startsWith(Tag.KEY_NAME)
+                || Tag.KEY_VOLUME.equals(key) || Tag.KEY_AREA.equals(key);
+    }
+
     @Override
     public void decodeTags(MapElement mapElement, Map<String, Object> properties) {
         boolean hasName = false;
@@ -25,13 +25,13 @@ import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 import org.oscim.core.Tile;
+import org.oscim.tiling.ITileDataFilter;
 import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.source.ITileDecoder;
 import org.oscim.utils.ArrayUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.LinkedHashMap;
 
 import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
@@ -66,9 +66,13 @@ public class TileDecoder implements ITileDecoder {
     private static final char[] MULTI_POINT = "MultiPoint".toCharArray();
 
     private ITileDataSink mTileDataSink;
+    private ITileDataFilter mFilter;
 
     private double mTileY, mTileX, mTileScale;
 
+    private long mSkippedFeatures;
+    private long mSkippedBytes;
+
     public TileDecoder(GeojsonTileSource tileSource) {
         mTileSource = tileSource;
         mTagMap = new LinkedHashMap<>();
@@ -81,12 +85,14 @@ public class TileDecoder implements ITileDecoder {
     @Override
     public boolean decode(Tile tile, ITileDataSink sink, InputStream is) throws IOException {
         mTileDataSink = sink;
+        mFilter = (sink instanceof ITileDataFilter) ? (ITileDataFilter) sink : null;
         mTileScale = 1 << tile.zoomLevel;
         mTileX = tile.tileX / mTileScale;
         mTileY = tile.tileY / mTileScale;
         mTileScale *= Tile.SIZE;
 
-        JsonParser jp = mJsonFactory.createParser(new InputStreamReader(is));
+        /* byte based parser, skips unused values without decoding them */
+        JsonParser jp = mJsonFactory.createParser(is);
 
         Tag layerTag = null;
         for (JsonToken t; (t = jp.nextToken()) != null; ) {
@@ -110,6 +116,22 @@ public class TileDecoder implements ITileDecoder {
         return true;
     }
 
+    /**
+     * @return number of features whose geometry was skipped, because they
+     * have no tags or the sink discards them by their tags
+     */
+    public long getSkippedFeatures() {
+        return mSkippedFeatures;
+    }
+
+    /**
+     * @return number of bytes of the geometries of
+     * {@link #getSkippedFeatures()}
+     */
+    public long getSkippedBytes() {
+        return mSkippedBytes;
+    }
+
     private void parseFeature(JsonParser jp, Tag layerTag) throws IOException {
 
         mMapElement.clear();
@@ -118,16 +140,40 @@ public class TileDecoder implements ITileDecoder {
             mMapElement.tags.add(layerTag);
         mTagMap.clear();
 
+        boolean tagsDecoded = false;
+        boolean skip = false;
+
         for (JsonToken t; (t = jp.nextToken()) != null; ) {
             if (t == FIELD_NAME) {
                 if (match(jp, FIELD_GEOMETRY)) {
-                    if (jp.nextToken() == START_OBJECT)
-                        parseGeometry(jp);
-                }
-
-                if (match(jp, FIELD_PROPERTIES)) {
-                    if (jp.nextToken() == START_OBJECT)
+                    if (jp.nextToken() == START_OBJECT) {
+                        if (skip) {
+                            long start = jp.getCurrentLocation().getByteOffset();
+                            jp.skipChildren();
+                            mSkippedFeatures++;
+                            mSkippedBytes += jp.getCurrentLocation().getByteOffset() - start;
+                        } else {
+                            parseGeometry(jp);
+                        }
+                    }
+                } else if (match(jp, FIELD_PROPERTIES)) {
+                    if (jp.nextToken() == START_OBJECT) {
                         parseProperties(jp);
+
+                        //add tag information
+                        mTileSource.decodeTags(mMapElement, mTagMap);
+                        tagsDecoded = true;
+
+                        /* skip the geometry when it follows */
+                        if (mMapElement.tags.size() == 0)
+                            skip = true;
+                        else if (mFilter != null && mMapElement.type == GeometryType.NONE)
+                            skip = !mFilter.accept(GeometryType.NONE, mMapElement.tags);
+                    }
+                } else {
+                    /* e.g. id, bbox */
+                    jp.nextToken();
+                    jp.skipChildren();
                 }
                 continue;
             }
@@ -135,8 +181,11 @@ public class TileDecoder implements ITileDecoder {
                 break;
         }
 
-        //add tag information
-        mTileSource.decodeTags(mMapElement, mTagMap);
+        if (skip)
+            return;
+
+        if (!tagsDecoded)
+            mTileSource.decodeTags(mMapElement, mTagMap);
         if (mMapElement.tags.size() == 0)
             return;
 
@@ -152,10 +201,13 @@ public class TileDecoder implements ITileDecoder {
     private void parseProperties(JsonParser jp) throws IOException {
         for (JsonToken t; (t = jp.nextToken()) != null; ) {
             if (t == FIELD_NAME) {
+                /* field names are canonicalized by the parser */
                 String text = jp.getCurrentName();
 
                 t = jp.nextToken();
-                if (t == VALUE_STRING) {
+                if (t == START_OBJECT || t == START_ARRAY || !mTileSource.isPropertyUsed(text)) {
+                    jp.skipChildren();
+                } else if (t == VALUE_STRING) {
                     mTagMap.put(text, jp.getText());
                 } else if (t == VALUE_NUMBER_INT) {
                     mTagMap.put(text, jp.getNumberValue());
@@ -177,6 +229,11 @@ public class TileDecoder implements ITileDecoder {
                 if (match(jp, FIELD_COORDINATES)) {
                     if (jp.nextToken() != START_ARRAY)
                         continue;
+                    if (type == GeometryType.NONE) {
+                        /* type after coordinates is not supported */
+                        jp.skipChildren();
+                        continue;
+                    }
                     if (multi) {
                         parseMulti(jp, type);
                     } else {
@@ -214,6 +271,10 @@ public class TileDecoder implements ITileDecoder {
 
                     if (type == GeometryType.POINT)
                         mMapElement.startPoints();
+                } else {
+                    /* e.g. bbox, crs */
+                    jp.nextToken();
+                    jp.skipChildren();
                 }
                 continue;
             }
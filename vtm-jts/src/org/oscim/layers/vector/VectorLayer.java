@@ -41,9 +41,10 @@ import org.oscim.renderer.bucket.LineBucket;
 import org.oscim.renderer.bucket.MeshBucket;
 import org.oscim.theme.styles.AreaStyle;
 import org.oscim.theme.styles.LineStyle;
+import org.oscim.utils.ConcurrentSpatialIndex;
 import org.oscim.utils.FastMath;
-import org.oscim.utils.QuadTree;
 import org.oscim.utils.SpatialIndex;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.geom.GeomBuilder;
 import org.oscim.debug.Logger;
 
@@ -67,9 +68,14 @@ public class VectorLayer extends AbstractVectorLayer<Drawable> implements Gestur
     private static final int STROKE_MIN_ZOOM = 12;
 
     //private final SpatialIndex<Drawable> mDrawables = new RTree<Drawable>();
-    protected final SpatialIndex<Drawable> mDrawables = new QuadTree<Drawable>(1 << 30, 18);
+    /**
+     * Drawables may be added and removed from any thread while the worker
+     * iterates them.
+     */
+    protected final SpatialIndex<Drawable> mDrawables = new ConcurrentSpatialIndex<Drawable>();
 
     protected final List<Drawable> tmpDrawables = new ArrayList<Drawable>(128);
+    private final List<Drawable> mWorkerDrawables = new ArrayList<Drawable>(128);
 
     protected final JtsConverter mConverter;
     protected double mMinX;
@@ -134,7 +140,7 @@ public class VectorLayer extends AbstractVectorLayer<Drawable> implements Gestur
      * @param geometry
      * @param style
      */
-    public synchronized void add(Geometry geometry, Style style) {
+    public void add(Geometry geometry, Style style) {
         mDrawables.insert(bbox(geometry, style), new GeometryWithStyle(geometry, style));
     }
 
@@ -143,7 +149,7 @@ public class VectorLayer extends AbstractVectorLayer<Drawable> implements Gestur
      *
      * @param drawable
      */
-    public synchronized void remove(Drawable drawable) {
+    public void remove(Drawable drawable) {
         mDrawables.remove(bbox(drawable.getGeometry(), drawable.getStyle()), drawable);
     }
 
@@ -152,17 +158,13 @@ public class VectorLayer extends AbstractVectorLayer<Drawable> implements Gestur
      *
      * @param geometry
      */
-    public synchronized void remove(Geometry geometry) {
+    public void remove(Geometry geometry) {
         Drawable toRemove = null;
         Box bbox = bbox(geometry, null);
 
-        synchronized (this) {
-            tmpDrawables.clear();
-            mDrawables.search(bbox, tmpDrawables);
-            for (Drawable d : tmpDrawables) {
-                if (d.getGeometry() == geometry)
-                    toRemove = d;
-            }
+        for (Drawable d : mDrawables.search(bbox, new ArrayList<Drawable>())) {
+            if (d.getGeometry() == geometry)
+                toRemove = d;
         }
 
         if (toRemove == null) {
@@ -200,21 +202,30 @@ public class VectorLayer extends AbstractVectorLayer<Drawable> implements Gestur
         Style lastStyle = null;
 
         /* go through features, find the matching style and draw */
-        synchronized (this) {
-            tmpDrawables.clear();
-            mDrawables.search(bbox, tmpDrawables);
-            // TODO sort by some order...
+        List<Drawable> drawables = mWorkerDrawables;
+        drawables.clear();
+        mDrawables.search(bbox, drawables);
+        // TODO sort by some order...
 
-            for (Drawable d : tmpDrawables) {
-                Style style = d.getStyle();
-                draw(t, level, d, style);
+        for (Drawable d : drawables) {
+            /* superseded, AbstractVectorLayer drops the result */
+            if (MapExecutor.isCanceled())
+                break;
 
-                if (style != lastStyle)
-                    level += 2;
+            Style style = d.getStyle();
+            draw(t, level, d, style);
 
-                lastStyle = style;
-            }
+            if (style != lastStyle)
+                level += 2;
+
+            lastStyle = style;
+        }
+
+        synchronized (this) {
+            tmpDrawables.clear();
+            tmpDrawables.addAll(drawables);
         }
+        drawables.clear();
     }
 
     protected void draw(Task task, int level, Drawable d, Style style) {
@@ -32,9 +32,11 @@ import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.geom.MultiPolygon;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.Polygon;
+import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 import org.oscim.core.Tile;
+import org.oscim.tiling.ITileDataFilter;
 import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.source.ITileDecoder;
 
@@ -51,6 +53,7 @@ public class MvtTileDecoder implements ITileDecoder {
     private final GeometryFactory mGeomFactory;
     private final MapElement mMapElement;
     private ITileDataSink mTileDataSink;
+    private ITileDataFilter mFilter;
 
     public MvtTileDecoder() {
         this("");
@@ -68,6 +71,7 @@ public class MvtTileDecoder implements ITileDecoder {
             throws IOException {
 
         mTileDataSink = sink;
+        mFilter = (sink instanceof ITileDataFilter) ? (ITileDataFilter) sink : null;
         mScale = REF_TILE_SIZE / Tile.SIZE;
 
         JtsMvt jtsMvt = MvtReader.loadMvt(
@@ -95,6 +99,9 @@ public class MvtTileDecoder implements ITileDecoder {
         if (mMapElement.tags.size() == 0) {
             return;
         }
+        if (mFilter != null && !mFilter.accept(getGeometryType(geometry), mMapElement.tags)) {
+            return;
+        }
 
         boolean err = false;
         if (geometry instanceof Point) {
@@ -130,6 +137,16 @@ public class MvtTileDecoder implements ITileDecoder {
         }
     }
 
+    private static GeometryType getGeometryType(Geometry geometry) {
+        if (geometry instanceof Point || geometry instanceof MultiPoint)
+            return GeometryType.POINT;
+        if (geometry instanceof LineString || geometry instanceof MultiLineString)
+            return GeometryType.LINE;
+        if (geometry instanceof Polygon || geometry instanceof MultiPolygon)
+            return GeometryType.POLY;
+        return GeometryType.NONE;
+    }
+
     private void processLineString(LineString lineString) {
         mMapElement.startLine();
         processCoordinateArray(lineString.getCoordinates(), false);
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.buildings;
+
+import org.oscim.core.GeometryBuffer;
+import org.oscim.core.Tag;
+import org.oscim.layers.tile.buildings.S3DBMeshCache;
+import org.oscim.layers.tile.buildings.S3DBUtils;
+import org.oscim.utils.Parameters;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time, allocations and garbage collections of roof mesh
+ * generation of {@link S3DBUtils} and of reading them from the
+ * {@link S3DBMeshCache}, for generated rectangular, L, T and U shaped
+ * buildings at the scale of several zoom levels.
+ */
+public class S3DBRoofTest {
+
+    static final int BUILDINGS = 5000;
+    static final int ROUNDS = 10;
+    static final int[] SCALES = {1, 2, 4, 8};
+
+    /**
+     * Rectilinear outline, rotated and moved to a random position of the tile.
+     */
+    static float[] generateOutline(Random r) {
+        float w = 20 + r.nextInt(100), h = 20 + r.nextInt(100);
+        float a = 5 + r.nextInt((int) w - 10), b = 5 + r.nextInt((int) h - 10);
+        float c = Math.min(w - 2, a + 5 + r.nextInt(40));
+        float[] shape;
+        switch (r.nextInt(4)) {
+            case 0:
+                shape = new float[]{0, 0, w, 0, w, h, 0, h};
+                break;
+            case 1:
+                shape = new float[]{0, 0, w, 0, w, b, a, b, a, h, 0, h};
+                break;
+            case 2:
+                shape = new float[]{0, 0, w, 0, w, b, c, b, c, h, a, h, a, b, 0, b};
+                break;
+            default:
+                shape = new float[]{0, 0, w, 0, w, h, c, h, c, b, a, b, a, h, 0, h};
+                break;
+        }
+        double rot = r.nextDouble() * Math.PI * 2;
+        float cos = (float) Math.cos(rot), sin = (float) Math.sin(rot);
+        float x = r.nextInt(4096), y = r.nextInt(4096);
+        for (int i = 0; i < shape.length; i += 2) {
+            float px = shape[i], py = shape[i + 1];
+            shape[i] = px * cos - py * sin + x;
+            shape[i + 1] = px * sin + py * cos + y;
+        }
+        return shape;
+    }
+
+    static GeometryBuffer outline(float[] points, int scale) {
+        GeometryBuffer g = new GeometryBuffer(points.length / 2, 1);
+        g.startPolygon();
+        for (int i = 0; i < points.length; i += 2)
+            g.addPoint(points[i] * scale, points[i + 1] * scale);
+        return g;
+    }
+
+    static boolean calcRoof(GeometryBuffer element, String shape, boolean across, float direction) {
+        GeometryBuffer specialParts = new GeometryBuffer(0, 0);
+        switch (shape) {
+            case Tag.VALUE_GABLED:
+                return S3DBUtils.calcRidgeMesh(element, 10, 15, across, true, specialParts);
+            case Tag.VALUE_SKILLION:
+                return S3DBUtils.calcSkillionMesh(element, 10, 15, direction, specialParts);
+            default:
+                return S3DBUtils.calcRidgeMesh(element, 10, 15, across, false, null);
+        }
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, bean.getCollectionCount());
+        return count;
+    }
+
+    static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, bean.getCollectionTime());
+        return time;
+    }
+
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    static void run(String name, List<float[]> buildings, String shape, S3DBMeshCache cache) {
+        long count = 0, failed = 0;
+        long gcCount = gcCount(), gcTime = gcTime(), allocated = allocatedBytes();
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int scale : SCALES) {
+                for (int i = 0; i < buildings.size(); i++) {
+                    GeometryBuffer element = outline(buildings.get(i), scale);
+                    boolean across = (i & 1) == 0;
+                    float direction = (i * 37) % 360;
+                    S3DBMeshCache.Key key = null;
+                    if (cache != null) {
+                        key = cache.key(Integer.toString(i), shape, across, direction, element, 10, 15);
+                        if (cache.get(key) != null) {
+                            count++;
+                            continue;
+                        }
+                    }
+                    if (!calcRoof(element, shape, across, direction))
+                        failed++;
+                    else if (cache != null)
+                        cache.put(key, element, null);
+                    count++;
+                }
+            }
+        }
+        time = System.nanoTime() - time;
+        allocated = allocatedBytes() - allocated;
+
+        System.out.printf("%-22s %7.2f us/roof  %7d bytes/roof  gc: %4d (%5d ms)  failed: %d%n",
+                name, time / 1000.0 / count, allocated / count,
+                gcCount() - gcCount, gcTime() - gcTime, failed / ROUNDS);
+    }
+
+    public static void main(String[] args) {
+        Parameters.JAVA_TESSELLATOR = true;
+
+        Random r = new Random(42);
+        List<float[]> buildings = new ArrayList<>();
+        for (int i = 0; i < BUILDINGS; i++)
+            buildings.add(generateOutline(r));
+
+        /* warm up */
+        run("warm up", buildings, Tag.VALUE_GABLED, null);
+        System.out.println();
+
+        run("hipped", buildings, Tag.VALUE_HIPPED, null);
+        run("gabled", buildings, Tag.VALUE_GABLED, null);
+        run("skillion", buildings, Tag.VALUE_SKILLION, null);
+        run("gabled cached", buildings, Tag.VALUE_GABLED, new S3DBMeshCache(4 * BUILDINGS));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.renderer;
+
+import com.badlogic.gdx.utils.SharedLibraryLoader;
+import org.oscim.backend.AssetAdapter;
+import org.oscim.backend.GLAdapter;
+import org.oscim.backend.HeadlessGL;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.map.Map;
+import org.oscim.renderer.GLViewport;
+import org.oscim.renderer.MapRenderer;
+import org.oscim.renderer.bucket.MeshBucket;
+import org.oscim.renderer.bucket.PolygonBucket;
+import org.oscim.renderer.bucket.RenderBucket;
+import org.oscim.renderer.bucket.RenderBuckets;
+import org.oscim.theme.styles.AreaStyle;
+import org.oscim.utils.Parameters;
+
+import java.io.InputStream;
+
+/**
+ * Compares the GL calls for drawing the areas of one tile with the stencil
+ * polygon renderer and as triangulated meshes (theme attribute
+ * 'mesh-polygons'), recorded by {@link HeadlessGL}.
+ */
+public class MeshPolygonsTest {
+
+    static final int LEVELS = 20;
+    static final int POLYGONS = 50;
+
+    static GeometryBuffer polygon(int level, int i) {
+        GeometryBuffer g = new GeometryBuffer(32, 4);
+        float x = (i % 10) * 40 + level;
+        float y = (i / 10) * 40 + level;
+        g.startPolygon();
+        g.addPoint(x, y);
+        g.addPoint(x + 30, y);
+        g.addPoint(x + 30, y + 30);
+        g.addPoint(x + 15, y + 20);
+        g.addPoint(x, y + 30);
+        g.startHole();
+        g.addPoint(x + 5, y + 5);
+        g.addPoint(x + 5, y + 10);
+        g.addPoint(x + 10, y + 10);
+        g.addPoint(x + 10, y + 5);
+        return g;
+    }
+
+    static HeadlessGL.Stats draw(HeadlessGL gl, boolean mesh) {
+        RenderBuckets buckets = new RenderBuckets();
+        for (int level = 0; level < LEVELS; level++) {
+            AreaStyle area = AreaStyle.builder()
+                    .color(0xff000000 | level * 0x0a0a0a)
+                    .level(level)
+                    .build();
+            for (int i = 0; i < POLYGONS; i++) {
+                GeometryBuffer g = polygon(level, i);
+                if (mesh) {
+                    MeshBucket mb = buckets.getMeshBucket(level);
+                    mb.area = area;
+                    mb.addMesh(g);
+                } else {
+                    PolygonBucket pb = buckets.getPolygonBucket(level);
+                    pb.area = area;
+                    pb.addPolygon(g.points, g.index);
+                }
+            }
+        }
+        /* done on loader threads */
+        buckets.prepare();
+        buckets.pack(true);
+
+        buckets.compile(true);
+        GLViewport v = new GLViewport();
+        gl.endFrame();
+
+        /* as in VectorTileRenderer.drawTile() */
+        buckets.bind();
+        PolygonBucket.Renderer.clip(v.mvp, PolygonBucket.CLIP_STENCIL);
+        boolean first = true;
+        for (RenderBucket b = buckets.get(); b != null; ) {
+            if (b.type == RenderBucket.POLYGON) {
+                b = PolygonBucket.Renderer.draw(b, v, 1, first);
+                first = false;
+            } else {
+                b = MeshBucket.Renderer.draw(b, v);
+            }
+            buckets.bind();
+        }
+        PolygonBucket.Renderer.drawOver(v.mvp, 0, 1);
+
+        HeadlessGL.Stats stats = new HeadlessGL.Stats();
+        stats.add(gl.getFrame());
+        buckets.clear();
+        return stats;
+    }
+
+    public static void main(String[] args) {
+        new SharedLibraryLoader().load("vtm-jni");
+        AssetAdapter.init(new AssetAdapter() {
+            @Override
+            protected InputStream openFileAsStream(String file) {
+                return MeshPolygonsTest.class.getResourceAsStream("/assets/" + file);
+            }
+        });
+        Parameters.JAVA_TESSELLATOR = args.length == 0 || !"jni".equals(args[0]);
+
+        HeadlessGL gl = new HeadlessGL();
+        GLAdapter.init(gl);
+        new MapRenderer(new HeadlessMap()).onSurfaceCreated();
+
+        System.out.println("stencil: " + draw(gl, false));
+        System.out.println("mesh:    " + draw(gl, true));
+    }
+
+    static class HeadlessMap extends Map {
+        @Override
+        public void updateMap() {
+        }
+
+        @Override
+        public void updateMap(boolean redraw) {
+        }
+
+        @Override
+        public void render() {
+        }
+
+        @Override
+        public boolean post(Runnable action) {
+            return false;
+        }
+
+        @Override
+        public boolean postDelayed(Runnable action, long delay) {
+            return false;
+        }
+
+        @Override
+        public int getWidth() {
+            return 1024;
+        }
+
+        @Override
+        public int getHeight() {
+            return 1024;
+        }
+
+        @Override
+        public int getScreenWidth() {
+            return 1024;
+        }
+
+        @Override
+        public int getScreenHeight() {
+            return 1024;
+        }
+
+        @Override
+        public void beginFrame() {
+        }
+
+        @Override
+        public void doneFrame(boolean needsRedraw) {
+        }
+    }
+}
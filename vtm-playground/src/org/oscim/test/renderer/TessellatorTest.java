@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.renderer;
+
+import com.badlogic.gdx.utils.SharedLibraryLoader;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.renderer.bucket.VertexData;
+import org.oscim.utils.EarcutTessellator;
+import org.oscim.utils.Parameters;
+import org.oscim.utils.TessJNI;
+import org.oscim.utils.Tessellator;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the throughput, allocations and garbage collections of
+ * {@link EarcutTessellator} and the native {@link TessJNI} tessellator for
+ * both entry points of {@link Tessellator}: building outlines to
+ * {@link VertexData} as for extrusions and areas with holes to a mesh
+ * {@link GeometryBuffer} as for 3D buildings.
+ * <p>
+ * The allocations of the native tessellator are only counted for its Java
+ * side. Without the vtm-jni library only the Java tessellator is measured.
+ */
+public class TessellatorTest {
+
+    static final int POLYGONS = 5000;
+    static final int ROUNDS = 20;
+
+    /**
+     * Rectilinear outline of a building with 4 to 16 points.
+     */
+    static GeometryBuffer building(Random r) {
+        GeometryBuffer g = new GeometryBuffer(16, 2);
+        float x = r.nextInt(4000), y = r.nextInt(4000);
+        float w = 10 + r.nextInt(60), h = 10 + r.nextInt(60);
+        int steps = 1 + r.nextInt(4);
+        g.startPolygon();
+        g.addPoint(x, y);
+        for (int i = 0; i < steps; i++) {
+            float sx = x + w * (i + 1) / steps;
+            g.addPoint(sx, y + (i & 1) * 5);
+            g.addPoint(sx, y + ((i + 1) & 1) * 5);
+        }
+        g.addPoint(x + w, y + h);
+        g.addPoint(x, y + h);
+        return g;
+    }
+
+    /**
+     * Star shaped area with 20 to 400 points and up to 3 holes.
+     */
+    static GeometryBuffer area(Random r) {
+        int points = 20 + r.nextInt(380);
+        int holes = r.nextInt(4);
+        GeometryBuffer g = new GeometryBuffer(points + holes * 8, 2 + holes);
+        float cx = 500 + r.nextInt(3000), cy = 500 + r.nextInt(3000);
+        g.startPolygon();
+        for (int i = 0; i < points; i++) {
+            double a = -2 * Math.PI * i / points;
+            float d = 300 + r.nextInt(150);
+            g.addPoint(cx + (float) Math.cos(a) * d, cy + (float) Math.sin(a) * d);
+        }
+        for (int i = 0; i < holes; i++) {
+            float hx = cx - 150 + i * 100, hy = cy;
+            g.startHole();
+            g.addPoint(hx, hy);
+            g.addPoint(hx, hy + 40);
+            g.addPoint(hx + 40, hy + 40);
+            g.addPoint(hx + 40, hy);
+        }
+        return g;
+    }
+
+    static int numRings(GeometryBuffer g) {
+        int n = 0;
+        while (n < g.index.length && g.index[n] >= 0)
+            n++;
+        return n;
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, bean.getCollectionCount());
+        return count;
+    }
+
+    static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, bean.getCollectionTime());
+        return time;
+    }
+
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    static void run(String name, List<GeometryBuffer> polygons, boolean mesh) {
+        VertexData tris = new VertexData();
+        GeometryBuffer out = new GeometryBuffer(0, 0);
+        long count = 0, indices = 0;
+        long gcCount = gcCount(), gcTime = gcTime(), allocated = allocatedBytes();
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (GeometryBuffer g : polygons) {
+                if (mesh) {
+                    indices += Tessellator.tessellate(g, out);
+                } else {
+                    indices += Tessellator.tessellate(g.points, 0, g.pointNextPos, g.index, 0,
+                            numRings(g), 0, tris);
+                    tris.dispose();
+                }
+                count++;
+            }
+        }
+        time = System.nanoTime() - time;
+        allocated = allocatedBytes() - allocated;
+
+        System.out.printf("%-22s %9.0f polygons/s  %7.2f us/polygon  %6d bytes/polygon"
+                        + "  gc: %4d (%5d ms)  triangles: %d%n",
+                name, count * 1e9 / time, time / 1000.0 / count, allocated / count,
+                gcCount() - gcCount, gcTime() - gcTime, indices / 3 / ROUNDS);
+    }
+
+    static void runAll(String tessellator, List<GeometryBuffer> buildings, List<GeometryBuffer> areas) {
+        run(tessellator + " buildings", buildings, false);
+        run(tessellator + " areas", areas, true);
+    }
+
+    public static void main(String[] args) {
+        Random r = new Random(42);
+        List<GeometryBuffer> buildings = new ArrayList<>();
+        List<GeometryBuffer> areas = new ArrayList<>();
+        for (int i = 0; i < POLYGONS; i++) {
+            buildings.add(building(r));
+            areas.add(area(r));
+        }
+
+        boolean jni;
+        try {
+            new SharedLibraryLoader().load("vtm-jni");
+            jni = true;
+        } catch (Throwable t) {
+            System.out.println("vtm-jni not available: " + t.getMessage());
+            jni = false;
+        }
+
+        /* warm up */
+        Parameters.JAVA_TESSELLATOR = true;
+        runAll("warm up", buildings, areas);
+        if (jni) {
+            Parameters.JAVA_TESSELLATOR = false;
+            runAll("warm up", buildings, areas);
+        }
+        System.out.println();
+
+        Parameters.JAVA_TESSELLATOR = true;
+        runAll("earcut", buildings, areas);
+        if (jni) {
+            Parameters.JAVA_TESSELLATOR = false;
+            runAll("jni", buildings, areas);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.renderer;
+
+import com.badlogic.gdx.utils.SharedLibraryLoader;
+import org.oscim.backend.AssetAdapter;
+import org.oscim.backend.GLAdapter;
+import org.oscim.backend.HeadlessGL;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.core.Tile;
+import org.oscim.renderer.GLViewport;
+import org.oscim.renderer.MapRenderer;
+import org.oscim.renderer.bucket.LineBucket;
+import org.oscim.renderer.bucket.MeshBucket;
+import org.oscim.renderer.bucket.PolygonBucket;
+import org.oscim.renderer.bucket.RenderBucket;
+import org.oscim.renderer.bucket.RenderBuckets;
+import org.oscim.renderer.bucket.TileBatch;
+import org.oscim.theme.styles.AreaStyle;
+import org.oscim.theme.styles.LineStyle;
+import org.oscim.utils.Parameters;
+
+import java.io.InputStream;
+
+/**
+ * Compares the GL calls for drawing the line and mesh buckets of 4x4 tiles
+ * per tile (as VectorTileRenderer.drawTile()) and with {@link TileBatch},
+ * recorded by {@link HeadlessGL}.
+ */
+public class TileBatchTest {
+
+    static final int TILES = 16;
+    static final int LEVELS = 20;
+    static final int ITEMS = 20;
+
+    static final AreaStyle[] areas = new AreaStyle[LEVELS];
+    static final LineStyle[] lines = new LineStyle[LEVELS];
+
+    static {
+        for (int level = 0; level < LEVELS; level++) {
+            int color = 0xff000000 | level * 0x0a0a0a;
+            areas[level] = AreaStyle.builder().color(color).level(level).build();
+            lines[level] = LineStyle.builder().color(color).strokeWidth(2).level(level).build();
+        }
+    }
+
+    static RenderBuckets tile(int t) {
+        RenderBuckets buckets = new RenderBuckets();
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < ITEMS; i++) {
+                GeometryBuffer g = new GeometryBuffer(16, 2);
+                float x = (i % 5) * 80 + level + t;
+                float y = (i / 5) * 80 + level;
+                if ((level & 1) == 0) {
+                    g.startPolygon();
+                    g.addPoint(x, y);
+                    g.addPoint(x + 60, y);
+                    g.addPoint(x + 60, y + 60);
+                    g.addPoint(x, y + 60);
+                    MeshBucket mb = buckets.getMeshBucket(level);
+                    mb.area = areas[level];
+                    mb.addMesh(g);
+                } else {
+                    g.startLine();
+                    g.addPoint(x, y);
+                    g.addPoint(x + 60, y + 30);
+                    g.addPoint(x + 20, y + 60);
+                    LineBucket lb = buckets.addLineBucket(level, lines[level]);
+                    lb.scale = 2;
+                    lb.addLine(g);
+                }
+            }
+        }
+        /* done on loader threads */
+        buckets.prepare();
+        buckets.pack(true);
+
+        buckets.compile(true);
+        return buckets;
+    }
+
+    static HeadlessGL.Stats draw(HeadlessGL gl, boolean batch) {
+        Parameters.BATCH_TILES = batch;
+        RenderBuckets[] tiles = new RenderBuckets[TILES];
+        for (int t = 0; t < TILES; t++)
+            tiles[t] = tile(t);
+
+        GLViewport v = new GLViewport();
+        float size = Tile.SIZE;
+        TileBatch tileBatch = new TileBatch();
+        HeadlessGL.Stats stats = new HeadlessGL.Stats();
+
+        /* first frame uploads the batch */
+        for (int frame = 0; frame < 2; frame++) {
+            gl.endFrame();
+            if (batch) {
+                tileBatch.begin();
+                for (int t = 0; t < TILES; t++)
+                    tileBatch.add(tiles[t], (t % 4) * size, (t / 4) * size, 1);
+                tileBatch.draw(v, 1);
+            } else {
+                for (int t = 0; t < TILES; t++)
+                    drawTile(tiles[t], v);
+            }
+            if (frame == 1)
+                stats.add(gl.getFrame());
+        }
+        tileBatch.clear();
+        for (RenderBuckets buckets : tiles)
+            buckets.clear();
+        return stats;
+    }
+
+    /* as in VectorTileRenderer.drawTile() */
+    static void drawTile(RenderBuckets buckets, GLViewport v) {
+        buckets.bind();
+        PolygonBucket.Renderer.clip(v.mvp, PolygonBucket.CLIP_STENCIL);
+        for (RenderBucket b = buckets.get(); b != null; ) {
+            if (b.type == RenderBucket.LINE)
+                b = LineBucket.Renderer.draw(b, v, 1, buckets);
+            else
+                b = MeshBucket.Renderer.draw(b, v);
+            buckets.bind();
+        }
+        PolygonBucket.Renderer.drawOver(v.mvp, 0, 1);
+    }
+
+    public static void main(String[] args) {
+        new SharedLibraryLoader().load("vtm-jni");
+        AssetAdapter.init(new AssetAdapter() {
+            @Override
+            protected InputStream openFileAsStream(String file) {
+                return TileBatchTest.class.getResourceAsStream("/assets/" + file);
+            }
+        });
+        Parameters.JAVA_TESSELLATOR = true;
+        Parameters.BATCH_TILES = true;
+
+        HeadlessGL gl = new HeadlessGL();
+        GLAdapter.init(gl);
+        new MapRenderer(new MeshPolygonsTest.HeadlessMap()).onSurfaceCreated();
+
+        System.out.println("per tile: " + draw(gl, false));
+        System.out.println("batched:  " + draw(gl, true));
+    }
+}
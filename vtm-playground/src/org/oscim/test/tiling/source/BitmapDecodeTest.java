@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.awt.AwtGraphics;
+import org.oscim.backend.CanvasAdapter;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.Tile;
+import org.oscim.renderer.bucket.TextureItem.TexturePool;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Compares decoding raster tiles into new Bitmaps with decoding into
+ * Bitmaps recycled by {@link TexturePool}, as BitmapTileLoader does,
+ * on the desktop backend. Reports throughput and GC activity.
+ * <p>
+ * Run with a small heap (e.g. -Xmx128m) to see the effect on GC pauses.
+ */
+public class BitmapDecodeTest {
+
+    static final int TILES = 64;
+    static final int ROUNDS = 20;
+
+    static byte[][] encodeTiles(String format) throws IOException {
+        Random r = new Random(42);
+        byte[][] tiles = new byte[TILES][];
+        int type = "png".equals(format) ? BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR;
+        for (int i = 0; i < TILES; i++) {
+            BufferedImage image = new BufferedImage(Tile.SIZE, Tile.SIZE, type);
+            Graphics2D g = image.createGraphics();
+            for (int j = 0; j < 200; j++) {
+                g.setColor(new Color(r.nextInt(0xffffff)));
+                g.fillRect(r.nextInt(Tile.SIZE), r.nextInt(Tile.SIZE), 4 + r.nextInt(40), 4 + r.nextInt(40));
+            }
+            g.dispose();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, format, out);
+            tiles[i] = out.toByteArray();
+        }
+        return tiles;
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            count += gc.getCollectionCount();
+        return count;
+    }
+
+    static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            time += gc.getCollectionTime();
+        return time;
+    }
+
+    static void run(String name, byte[][] tiles, TexturePool pool) throws IOException {
+        long count = gcCount();
+        long gc = gcTime();
+        long start = System.nanoTime();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (byte[] data : tiles) {
+                Bitmap reuse = pool.getRecycledBitmap();
+                Bitmap bitmap = CanvasAdapter.decodeBitmap(new ByteArrayInputStream(data), reuse);
+                if (reuse != null && reuse != bitmap)
+                    reuse.recycle();
+
+                /* uploaded by BitmapBucket */
+                pool.recycleBitmap(bitmap);
+            }
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        int n = ROUNDS * tiles.length;
+
+        System.out.println(name
+                + " tiles/s: " + (n * 1000L / Math.max(1, time))
+                + " ms: " + time
+                + " gc: " + (gcCount() - count)
+                + " gc ms: " + (gcTime() - gc));
+    }
+
+    public static void main(String[] args) throws IOException {
+        AwtGraphics.init();
+
+        for (String format : new String[]{"png", "jpg"}) {
+            byte[][] tiles = encodeTiles(format);
+
+            /* warm up */
+            run(format + " warmup  ", tiles, new TexturePool(20, false));
+            run(format + " warmup  ", tiles, new TexturePool(20, true));
+
+            run(format + " new     ", tiles, new TexturePool(20, false));
+            run(format + " recycled", tiles, new TexturePool(20, true));
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.awt.AwtGraphics;
+import org.oscim.backend.AssetAdapter;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tile;
+import org.oscim.theme.IRenderTheme;
+import org.oscim.theme.ThemeLoader;
+import org.oscim.theme.VtmThemes;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.geojson.NextzenGeojsonTileSource;
+import org.oscim.tiling.source.geojson.TileDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares decoding Nextzen GeoJSON tiles with all properties and with the
+ * properties restricted to the keys of the mapzen theme: tiles per second,
+ * allocated bytes and garbage collections, and the properties and tags per
+ * tile. The VectorTileLayer sets these keys on its tile source, together
+ * with the few keys its hooks read, e.g. building heights.
+ * <p>
+ * The tiles are generated with roads, buildings and places which carry
+ * the properties of Nextzen tiles, most of which the theme does not use.
+ */
+public class GeoJsonPropertiesTest {
+
+    static final int TILES = 50;
+    static final int FEATURES = 200;
+    static final int ROUNDS = 20;
+
+    static final String[] LANGUAGES = {"de", "en", "es", "fr", "it", "ja", "ru", "zh"};
+
+    static class CountingTileSource extends NextzenGeojsonTileSource {
+        long properties;
+
+        @Override
+        public void decodeTags(MapElement mapElement, Map<String, Object> properties) {
+            this.properties += properties.size();
+            super.decodeTags(mapElement, properties);
+        }
+    }
+
+    static class CountingSink implements ITileDataSink {
+        long elements;
+        long tags;
+
+        @Override
+        public void process(MapElement element) {
+            elements++;
+            tags += element.tags.size();
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+        }
+    }
+
+    static void property(StringBuilder sb, String key, Object value) {
+        sb.append('"').append(key).append("\":");
+        if (value instanceof String)
+            sb.append('"').append(value).append('"');
+        else
+            sb.append(value);
+        sb.append(',');
+    }
+
+    static void commonProperties(StringBuilder sb, Random r, String kind, boolean name) {
+        property(sb, "kind", kind);
+        property(sb, "min_zoom", 10 + r.nextInt(6));
+        property(sb, "sort_rank", r.nextInt(500));
+        property(sb, "source", "openstreetmap.org");
+        property(sb, "id", r.nextInt(Integer.MAX_VALUE));
+        if (name) {
+            property(sb, "name", "Name " + r.nextInt(1000));
+            for (String language : LANGUAGES)
+                property(sb, "name:" + language, "Name " + language + " " + r.nextInt(1000));
+            property(sb, "wikidata_id", "Q" + r.nextInt(1000000));
+        }
+    }
+
+    static void coordinates(StringBuilder sb, Random r, int points, boolean ring) {
+        double lon = 13.4 + r.nextDouble() * 0.01, lat = 52.5 + r.nextDouble() * 0.01;
+        sb.append(ring ? "[[" : "[");
+        for (int i = 0; i < points; i++) {
+            if (i > 0)
+                sb.append(',');
+            double a = 2 * Math.PI * i / points;
+            double x = ring ? lon + Math.cos(a) * 0.0002 : lon + i * 0.0001;
+            double y = ring ? lat + Math.sin(a) * 0.0002 : lat + r.nextDouble() * 0.0001;
+            sb.append('[').append((float) x).append(',').append((float) y).append(']');
+        }
+        if (ring)
+            sb.append(",[").append((float) (lon + 0.0002)).append(',').append((float) lat).append("]]");
+        sb.append(']');
+    }
+
+    static String generateTile(Random r) {
+        StringBuilder sb = new StringBuilder();
+        StringBuilder props = new StringBuilder();
+        sb.append('{');
+        String[] layers = {"roads", "buildings", "places"};
+        for (int l = 0; l < layers.length; l++) {
+            if (l > 0)
+                sb.append(',');
+            sb.append('"').append(layers[l]).append("\":{\"type\":\"FeatureCollection\",\"features\":[");
+            for (int i = 0; i < FEATURES; i++) {
+                if (i > 0)
+                    sb.append(',');
+                props.setLength(0);
+                String geometry;
+                sb.append("{\"type\":\"Feature\",\"geometry\":{\"type\":\"");
+                if (l == 0) {
+                    geometry = "LineString";
+                    commonProperties(props, r, "major_road", r.nextBoolean());
+                    property(props, "kind_detail", "secondary");
+                    property(props, "highway", "secondary");
+                    property(props, "network", "DE:BE");
+                    property(props, "ref", "B " + r.nextInt(200));
+                    property(props, "surface", "asphalt");
+                    property(props, "is_bridge", r.nextBoolean());
+                    property(props, "is_tunnel", r.nextBoolean());
+                    property(props, "oneway", "yes");
+                    property(props, "speed", "50 km/h");
+                    property(props, "lanes", 2);
+                } else if (l == 1) {
+                    geometry = "Polygon";
+                    commonProperties(props, r, "building", r.nextInt(8) == 0);
+                    property(props, "area", 100 + r.nextInt(1000));
+                    property(props, "volume", 1000 + r.nextInt(10000));
+                    property(props, "height", 5 + r.nextInt(40));
+                    property(props, "building_levels", 1 + r.nextInt(10));
+                    property(props, "roof_shape", "gabled");
+                    property(props, "roof_color", "#aa3300");
+                    property(props, "addr_housenumber", Integer.toString(r.nextInt(200)));
+                    property(props, "addr_street", "Street " + r.nextInt(100));
+                    property(props, "landuse_kind", "residential");
+                    property(props, "scale_rank", r.nextInt(5));
+                } else {
+                    geometry = "Point";
+                    commonProperties(props, r, "neighbourhood", true);
+                    property(props, "population", r.nextInt(100000));
+                    property(props, "population_rank", r.nextInt(10));
+                    property(props, "area", r.nextInt(100000));
+                    property(props, "is_landuse_aoi", r.nextBoolean());
+                }
+                props.setLength(props.length() - 1);
+                sb.append(geometry).append("\",\"coordinates\":");
+                if (l == 0)
+                    coordinates(sb, r, 2 + r.nextInt(10), false);
+                else if (l == 1)
+                    coordinates(sb, r, 4 + r.nextInt(8), true);
+                else
+                    sb.append('[').append((float) (13.4 + r.nextDouble() * 0.01)).append(',')
+                            .append((float) (52.5 + r.nextDouble() * 0.01)).append(']');
+                sb.append("},\"properties\":{").append(props).append("}}");
+            }
+            sb.append("]}");
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            count += Math.max(0, bean.getCollectionCount());
+        return count;
+    }
+
+    static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans())
+            time += Math.max(0, bean.getCollectionTime());
+        return time;
+    }
+
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    static void run(String name, byte[][] tiles, Set<String> keys) throws IOException {
+        CountingTileSource tileSource = new CountingTileSource();
+        tileSource.setUsedKeys(keys);
+        TileDecoder decoder = new TileDecoder(tileSource);
+        CountingSink sink = new CountingSink();
+        Tile tile = new Tile(70406, 42987, (byte) 17);
+
+        long gcCount = gcCount(), gcTime = gcTime(), allocated = allocatedBytes();
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (byte[] data : tiles)
+                decoder.decode(tile, sink, new ByteArrayInputStream(data));
+        }
+        time = System.nanoTime() - time;
+        allocated = allocatedBytes() - allocated;
+
+        long count = (long) ROUNDS * tiles.length;
+        System.out.printf("%-16s %7.0f tiles/s  %8d bytes/tile  gc: %4d (%5d ms)"
+                        + "  properties/tile: %6d  tags/tile: %6d%n",
+                name, count * 1e9 / time, allocated / count, gcCount() - gcCount,
+                gcTime() - gcTime, tileSource.properties / count, sink.tags / count);
+    }
+
+    public static void main(String[] args) throws IOException {
+        AwtGraphics.init();
+        AssetAdapter.init(new AssetAdapter() {
+            @Override
+            protected InputStream openFileAsStream(String file) {
+                return GeoJsonPropertiesTest.class.getResourceAsStream("/assets/" + file);
+            }
+        });
+        IRenderTheme theme = ThemeLoader.load(VtmThemes.MAPZEN);
+        Set<String> keys = theme.getKeys();
+        System.out.println("theme keys: " + keys);
+
+        Random r = new Random(42);
+        byte[][] tiles = new byte[TILES][];
+        long size = 0;
+        for (int i = 0; i < TILES; i++) {
+            tiles[i] = generateTile(r).getBytes(StandardCharsets.UTF_8);
+            size += tiles[i].length;
+        }
+        System.out.println("tile size: " + size / TILES + " bytes");
+
+        /* warm up */
+        run("warm up", tiles, null);
+        run("warm up", tiles, keys);
+        System.out.println();
+
+        run("all properties", tiles, null);
+        run("theme keys", tiles, keys);
+    }
+}
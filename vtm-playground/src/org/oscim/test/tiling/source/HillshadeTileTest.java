@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.awt.AwtGraphics;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.BoundingBox;
+import org.oscim.core.MapElement;
+import org.oscim.core.MercatorProjection;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.hillshade.HillshadeTileSource;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures tiles per second of {@link HillshadeTileSource} at several zoom
+ * levels with one data source per thread, as BitmapTileLayer loaders do.
+ * <p>
+ * Pass a directory of .hgt or GeoTIFF files, otherwise four SRTM3 tiles
+ * of random terrain are generated.
+ */
+public class HillshadeTileTest {
+
+    static final int SRTM3 = 1201;
+    static final int MAX_TILES = 256;
+
+    static File generateDem() throws IOException {
+        File dir = Files.createTempDirectory("dem").toFile();
+        dir.deleteOnExit();
+        Random r = new Random(42);
+        for (int lat = 47; lat < 49; lat++) {
+            for (int lon = 11; lon < 13; lon++) {
+                ByteBuffer buf = ByteBuffer.allocate(SRTM3 * SRTM3 * 2);
+                double fx = r.nextDouble() * 40, fy = r.nextDouble() * 40;
+                for (int row = 0; row < SRTM3; row++) {
+                    for (int col = 0; col < SRTM3; col++) {
+                        double x = (lon + col / (double) SRTM3) * 20;
+                        double y = (lat + row / (double) SRTM3) * 20;
+                        double e = 1500 + 800 * Math.sin(x + fx) * Math.cos(y + fy)
+                                + 200 * Math.sin(x * 7.3) * Math.sin(y * 5.1)
+                                + 20 * r.nextDouble();
+                        buf.putShort((short) e);
+                    }
+                }
+                File file = new File(dir, String.format("N%02dE%03d.hgt", lat, lon));
+                FileOutputStream out = new FileOutputStream(file);
+                out.write(buf.array());
+                out.close();
+                file.deleteOnExit();
+            }
+        }
+        return dir;
+    }
+
+    static List<MapTile> tiles(BoundingBox bounds, int zoom) {
+        byte z = (byte) zoom;
+        int x1 = MercatorProjection.longitudeToTileX(bounds.getMinLongitude(), z);
+        int x2 = MercatorProjection.longitudeToTileX(bounds.getMaxLongitude(), z);
+        int y1 = MercatorProjection.latitudeToTileY(bounds.getMaxLatitude(), z);
+        int y2 = MercatorProjection.latitudeToTileY(bounds.getMinLatitude(), z);
+
+        List<MapTile> tiles = new ArrayList<>();
+        for (int y = y1; y <= y2 && tiles.size() < MAX_TILES; y++)
+            for (int x = x1; x <= x2 && tiles.size() < MAX_TILES; x++)
+                tiles.add(new MapTile(x, y, zoom));
+        return tiles;
+    }
+
+    static void run(final HillshadeTileSource tileSource, final List<MapTile> tiles,
+                    int threads, String name) throws InterruptedException {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger loaded = new AtomicInteger();
+
+        Thread[] workers = new Thread[threads];
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread() {
+                @Override
+                public void run() {
+                    ITileDataSource dataSource = tileSource.getDataSource();
+                    ITileDataSink sink = new ITileDataSink() {
+                        @Override
+                        public void process(MapElement element) {
+                        }
+
+                        @Override
+                        public void setTileImage(Bitmap bitmap) {
+                            bitmap.recycle();
+                        }
+
+                        @Override
+                        public void completed(QueryResult result) {
+                            if (result == QueryResult.SUCCESS)
+                                loaded.incrementAndGet();
+                        }
+                    };
+                    for (int i; (i = next.getAndIncrement()) < tiles.size(); )
+                        dataSource.query(tiles.get(i), sink);
+                    dataSource.dispose();
+                }
+            };
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+
+        long time = (System.nanoTime() - start) / 1000000;
+        System.out.println(name + " threads: " + threads
+                + " tiles: " + loaded.get() + "/" + tiles.size()
+                + " ms: " + time
+                + " tiles/s: " + (tiles.size() * 1000L / Math.max(1, time)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        AwtGraphics.init();
+
+        File dir = args.length > 0 ? new File(args[0]) : generateDem();
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int zoom : new int[]{8, 10, 12, 14}) {
+            HillshadeTileSource tileSource = HillshadeTileSource.builder()
+                    .demDirectory(dir.getPath())
+                    .memoryCacheSize(MAX_TILES)
+                    .build();
+            tileSource.open();
+            List<MapTile> tiles = tiles(tileSource.getBounds(), zoom);
+
+            run(tileSource, tiles, 1, "z" + zoom + " shade ");
+            run(tileSource, tiles, 1, "z" + zoom + " cached");
+            tileSource.close();
+
+            tileSource.open();
+            run(tileSource, tiles, cores, "z" + zoom + " shade ");
+            tileSource.close();
+        }
+    }
+}
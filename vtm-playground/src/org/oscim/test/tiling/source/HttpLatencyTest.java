@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.layers.tile.vector.VectorTileLoader;
+import org.oscim.server.ServerPool;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.HttpEngine;
+import org.oscim.tiling.source.ITileDecoder;
+import org.oscim.tiling.source.LwHttp;
+import org.oscim.tiling.source.NioHttp;
+import org.oscim.tiling.source.UrlTileDataSource;
+import org.oscim.tiling.source.oscimap4.OSciMap4TileSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures tiles per second of {@link LwHttp} and {@link NioHttp} against
+ * a local server which answers each request after an injected latency,
+ * like a remote server with that round trip time. Four loader threads
+ * query a {@link UrlTileDataSource} each, in batches when the engine
+ * pipelines as VectorTileLoader does.
+ * <p>
+ * Then compares one and two degraded servers in a {@link ServerPool}, with
+ * hedged requests.
+ */
+public class HttpLatencyTest {
+
+    static final int TILES = 400;
+    static final int LOADERS = 4;
+    static final int TILE_SIZE = 20000;
+
+    /**
+     * Responses of a connection are written in order, each not before
+     * latency ms after its request arrived.
+     */
+    static class LatencyServer extends Thread {
+        final ServerSocket socket;
+        final byte[] response;
+        final AtomicInteger requests = new AtomicInteger();
+        volatile int latency;
+        /* every tailEvery-th response is tailLatency ms later */
+        volatile int tailEvery;
+        volatile int tailLatency;
+
+        LatencyServer() throws IOException {
+            socket = new ServerSocket(0, 100);
+            byte[] body = new byte[TILE_SIZE];
+            byte[] header = ("HTTP/1.1 200 OK\r\nContent-Length: " + body.length
+                    + "\r\n\r\n").getBytes();
+            response = new byte[header.length + body.length];
+            System.arraycopy(header, 0, response, 0, header.length);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true)
+                    serve(socket.accept());
+            } catch (IOException e) {
+                /* closed */
+            }
+        }
+
+        long delay() {
+            int n = requests.incrementAndGet();
+            if (tailEvery > 0 && n % tailEvery == 0)
+                return latency + tailLatency;
+            return latency;
+        }
+
+        void serve(final Socket s) throws IOException {
+            s.setTcpNoDelay(true);
+            final InputStream in = s.getInputStream();
+            final OutputStream out = s.getOutputStream();
+            final LinkedBlockingQueue<Long> due = new LinkedBlockingQueue<>();
+
+            Thread writer = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            long time = due.take();
+                            if (time < 0)
+                                break;
+                            long wait = time - System.currentTimeMillis();
+                            if (wait > 0)
+                                Thread.sleep(wait);
+                            out.write(response);
+                            out.flush();
+                        }
+                    } catch (Exception e) {
+                        /* closed */
+                    }
+                    try {
+                        s.close();
+                    } catch (IOException e) {
+                        /* ignore */
+                    }
+                }
+            };
+            writer.setDaemon(true);
+            writer.start();
+
+            Thread reader = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        int c, lineLength = 0;
+                        while ((c = in.read()) >= 0) {
+                            if (c == '\n') {
+                                if (lineLength == 0)
+                                    due.add(System.currentTimeMillis() + delay());
+                                lineLength = 0;
+                            } else if (c != '\r') {
+                                lineLength++;
+                            }
+                        }
+                    } catch (IOException e) {
+                        /* closed */
+                    }
+                    due.add(-1L);
+                }
+            };
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    static void run(final OSciMap4TileSource tileSource, final HttpEngine.Factory factory,
+                    int latency, String name) throws InterruptedException {
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicInteger loaded = new AtomicInteger();
+
+        final ITileDecoder decoder = new ITileDecoder() {
+            final byte[] buf = new byte[8192];
+
+            @Override
+            public boolean decode(Tile tile, ITileDataSink sink, InputStream is) throws IOException {
+                while (is.read(buf) >= 0) ;
+                return true;
+            }
+        };
+        final ITileDataSink sink = new ITileDataSink() {
+            @Override
+            public void process(MapElement element) {
+            }
+
+            @Override
+            public void setTileImage(Bitmap bitmap) {
+            }
+
+            @Override
+            public void completed(QueryResult result) {
+                if (result == QueryResult.SUCCESS)
+                    loaded.incrementAndGet();
+            }
+        };
+
+        Thread[] loaders = new Thread[LOADERS];
+        long start = System.nanoTime();
+        for (int t = 0; t < LOADERS; t++) {
+            loaders[t] = new Thread() {
+                @Override
+                public void run() {
+                    UrlTileDataSource dataSource = new UrlTileDataSource(tileSource,
+                            decoder, factory.create(tileSource));
+                    int batch = dataSource.isPipelining() ? VectorTileLoader.BATCH_SIZE : 1;
+                    MapTile[] tiles = new MapTile[batch];
+                    ITileDataSink[] sinks = new ITileDataSink[batch];
+                    while (true) {
+                        int count = 0;
+                        for (int i; count < batch && (i = next.getAndIncrement()) < TILES; count++) {
+                            tiles[count] = new MapTile(i % 64, i / 64, 12);
+                            sinks[count] = sink;
+                        }
+                        if (count == 0)
+                            break;
+                        dataSource.query(tiles, sinks, count);
+                    }
+                    dataSource.dispose();
+                }
+            };
+            loaders[t].start();
+        }
+        for (Thread loader : loaders)
+            loader.join();
+
+        long time = (System.nanoTime() - start) / 1000000;
+        System.out.println(name + " latency: " + latency + "ms"
+                + " tiles: " + loaded.get() + "/" + TILES
+                + " ms: " + time
+                + " tiles/s: " + (TILES * 1000L / Math.max(1, time)));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LatencyServer server = new LatencyServer();
+        server.start();
+
+        String url = "http://localhost:" + server.socket.getLocalPort() + "/tiles/vtm";
+        OSciMap4TileSource tileSource = new OSciMap4TileSource(url);
+
+        for (int latency : new int[]{0, 20, 50, 100}) {
+            server.latency = latency;
+            run(tileSource, new LwHttp.LwHttpFactory(), latency, "LwHttp ");
+            run(tileSource, new NioHttp.NioHttpFactory(), latency, "NioHttp");
+        }
+
+        /* degraded servers: every 40th response 500ms late */
+        LatencyServer second = new LatencyServer();
+        second.start();
+        String url2 = "http://localhost:" + second.socket.getLocalPort() + "/tiles/vtm";
+        for (LatencyServer s : new LatencyServer[]{server, second}) {
+            s.latency = 20;
+            s.tailEvery = 40;
+            s.tailLatency = 500;
+        }
+        OSciMap4TileSource pooled = new OSciMap4TileSource(url);
+        pooled.setServerPool(new ServerPool(Arrays.asList(url, url2)));
+        for (int i = 0; i < 2; i++) {
+            run(tileSource, new NioHttp.NioHttpFactory(), 20, "NioHttp tail       ");
+            run(pooled, new NioHttp.NioHttpFactory(), 20, "NioHttp tail hedged");
+        }
+        System.out.println(pooled.getServerPool());
+    }
+}
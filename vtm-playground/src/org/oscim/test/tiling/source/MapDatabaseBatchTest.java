@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeoPoint;
+import org.oscim.core.MapElement;
+import org.oscim.core.MercatorProjection;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.mapfile.MapDatabase;
+import org.oscim.tiling.source.mapfile.MapFileTileSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares loading tiles of a map file one by one and as batch queries of
+ * {@link MapDatabase}: tiles per second, allocated bytes per tile, block
+ * reads and the block reads and way decodes saved by batches.
+ * <p>
+ * Loads the tiles of a 4x4 viewport around the center of the map file
+ * given as argument on several zoom levels, and for zoom transitions the
+ * viewport together with the tiles of the next lower zoom level.
+ */
+public class MapDatabaseBatchTest {
+
+    static final int ROUNDS = 20;
+    static final int VIEWPORT = 4;
+    static final int[] ZOOM_LEVELS = {12, 14, 16, 17};
+
+    static class CountingSink implements ITileDataSink {
+        long elements;
+        long failed;
+
+        @Override
+        public void process(MapElement element) {
+            elements++;
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+            if (result != QueryResult.SUCCESS)
+                failed++;
+        }
+    }
+
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    static void addViewport(List<MapTile> tiles, GeoPoint center, int zoomLevel, int size) {
+        int x = MercatorProjection.longitudeToTileX(center.getLongitude(), (byte) zoomLevel) - size / 2;
+        int y = MercatorProjection.latitudeToTileY(center.getLatitude(), (byte) zoomLevel) - size / 2;
+        for (int dy = 0; dy < size; dy++)
+            for (int dx = 0; dx < size; dx++)
+                tiles.add(new MapTile(x + dx, y + dy, zoomLevel));
+    }
+
+    static void run(String name, MapFileTileSource tileSource, List<MapTile> tiles, boolean batch)
+            throws IOException {
+        MapDatabase db = new MapDatabase(tileSource);
+        MapTile[] array = tiles.toArray(new MapTile[tiles.size()]);
+        CountingSink sink = new CountingSink();
+        CountingSink[] sinks = new CountingSink[array.length];
+        for (int i = 0; i < sinks.length; i++)
+            sinks[i] = sink;
+
+        long allocated = allocatedBytes();
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            if (batch) {
+                db.query(array, sinks, array.length);
+            } else {
+                for (MapTile tile : array)
+                    db.query(tile, sink);
+            }
+        }
+        time = System.nanoTime() - time;
+        allocated = allocatedBytes() - allocated;
+        db.dispose();
+
+        long count = (long) ROUNDS * array.length;
+        System.out.printf("%-26s %8.0f tiles/s  %8d bytes/tile  elements: %7d  block reads: %5d"
+                        + "  shared reads: %5d  shared decodes: %7d  failed: %d%n",
+                name, count * 1e9 / time, allocated / count, sink.elements / ROUNDS,
+                db.getBlockReads() / ROUNDS, db.getSharedBlockReads() / ROUNDS,
+                db.getSharedDecodes() / ROUNDS, sink.failed / ROUNDS);
+    }
+
+    static void compare(String name, MapFileTileSource tileSource, List<MapTile> tiles)
+            throws IOException {
+        run(name + " single", tileSource, tiles, false);
+        run(name + " batch", tileSource, tiles, true);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("missing argument: <mapFile>");
+        File file = new File(args[0]);
+        if (!file.isFile() || !file.canRead())
+            throw new IllegalArgumentException("cannot read file: " + file);
+
+        MapFileTileSource tileSource = new MapFileTileSource();
+        tileSource.setMapFile(file.getAbsolutePath());
+        if (!tileSource.open().isSuccess())
+            throw new IOException("cannot open map file: " + file);
+        GeoPoint center = tileSource.getMapInfo().boundingBox.getCenterPoint();
+
+        /* warm up */
+        List<MapTile> warmUp = new ArrayList<>();
+        addViewport(warmUp, center, 14, VIEWPORT);
+        compare("warm up", tileSource, warmUp);
+        System.out.println();
+
+        for (int zoomLevel : ZOOM_LEVELS) {
+            List<MapTile> tiles = new ArrayList<>();
+            addViewport(tiles, center, zoomLevel, VIEWPORT);
+            compare("z" + zoomLevel, tileSource, tiles);
+
+            /* the tiles of both zoom levels are loaded during zoom transitions */
+            addViewport(tiles, center, zoomLevel - 1, VIEWPORT / 2);
+            compare("z" + zoomLevel + "+z" + (zoomLevel - 1), tileSource, tiles);
+        }
+        tileSource.close();
+    }
+}
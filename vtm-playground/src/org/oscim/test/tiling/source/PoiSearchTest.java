@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.core.GeoPoint;
+import org.oscim.core.MercatorProjection;
+import org.oscim.core.Tag;
+import org.oscim.core.Tile;
+import org.oscim.tiling.source.mapfile.MapDatabase;
+import org.oscim.tiling.source.mapfile.MapFileTileSource;
+import org.oscim.tiling.source.mapfile.MapReadResult;
+import org.oscim.tiling.source.mapfile.PoiIndex;
+import org.oscim.tiling.source.mapfile.PoiIndexBuilder;
+import org.oscim.tiling.source.mapfile.PointOfInterest;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compares area and category queries through {@link PoiIndex#search} with
+ * reading the POIs of the area by {@link MapDatabase#readPoiData(Tile, Tile)}
+ * and filtering them: time per query, bytes read and results.
+ * <p>
+ * The areas are centered on the map file given as argument, its index is
+ * built by {@link PoiIndexBuilder} when missing or outdated.
+ */
+public class PoiSearchTest {
+
+    static final int ROUNDS = 20;
+    /**
+     * Zoom level of the tiles read from the map file.
+     */
+    static final int ZOOM_LEVEL = 14;
+    /**
+     * Side length of the areas in degrees.
+     */
+    static final double[] AREAS = {0.01, 0.05, 0.2};
+    /**
+     * Categories, null for all POIs of an area.
+     */
+    static final String[] CATEGORIES = {null, "amenity=restaurant", "amenity=fuel",
+            "tourism=hotel", "shop=supermarket"};
+
+    static boolean matches(PointOfInterest poi, String category, BoundingBox bbox) {
+        if (!bbox.contains(poi.position))
+            return false;
+        if (category == null)
+            return true;
+        int sep = category.indexOf('=');
+        String key = category.substring(0, sep);
+        String value = category.substring(sep + 1);
+        for (Tag tag : poi.tags) {
+            if (key.equals(tag.key) && value.equals(tag.value))
+                return true;
+        }
+        return false;
+    }
+
+    static void runIndex(String name, PoiIndex index, BoundingBox bbox, String category) {
+        long bytes = index.getBytesRead();
+        int results = 0;
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++)
+            results = index.search(null, category, bbox, Integer.MAX_VALUE).size();
+        time = System.nanoTime() - time;
+
+        System.out.printf("%-40s %9.3f ms/query  %10d bytes/query  results: %6d%n",
+                name, time / 1e6 / ROUNDS, (index.getBytesRead() - bytes) / ROUNDS, results);
+    }
+
+    static void runMapFile(String name, MapFileTileSource tileSource, BoundingBox bbox,
+                           String category) throws IOException {
+        MapDatabase db = new MapDatabase(tileSource);
+        byte zoomLevel = (byte) ZOOM_LEVEL;
+        Tile upperLeft = new Tile(
+                MercatorProjection.longitudeToTileX(bbox.getMinLongitude(), zoomLevel),
+                MercatorProjection.latitudeToTileY(bbox.getMaxLatitude(), zoomLevel), zoomLevel);
+        Tile lowerRight = new Tile(
+                MercatorProjection.longitudeToTileX(bbox.getMaxLongitude(), zoomLevel),
+                MercatorProjection.latitudeToTileY(bbox.getMinLatitude(), zoomLevel), zoomLevel);
+
+        int results = 0;
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            MapReadResult result = db.readPoiData(upperLeft, lowerRight);
+            results = 0;
+            if (result == null)
+                continue;
+            for (PointOfInterest poi : result.pointOfInterests) {
+                if (matches(poi, category, bbox))
+                    results++;
+            }
+        }
+        time = System.nanoTime() - time;
+        db.dispose();
+
+        System.out.printf("%-40s %9.3f ms/query  %10d bytes/query  results: %6d%n",
+                name, time / 1e6 / ROUNDS, db.getBytesRead() / ROUNDS, results);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("missing argument: map file");
+        File file = new File(args[0]);
+        if (!file.isFile() || !file.canRead())
+            throw new IllegalArgumentException("cannot read file: " + file);
+
+        MapFileTileSource tileSource = new MapFileTileSource();
+        tileSource.setMapFile(file.getAbsolutePath());
+        if (!tileSource.open().isSuccess())
+            throw new IOException("cannot open map file: " + file);
+
+        File indexFile = PoiIndex.getIndexFile(file);
+        PoiIndex index = indexFile.isFile() ? PoiIndex.open(indexFile) : null;
+        if (index == null || !index.isValid(tileSource.getMapInfo())) {
+            if (index != null)
+                index.close();
+            long time = System.nanoTime();
+            int count = new PoiIndexBuilder().build(tileSource, indexFile);
+            System.out.printf("index built: %d pois in %.0f ms, %d bytes%n", count,
+                    (System.nanoTime() - time) / 1e6, indexFile.length());
+            index = PoiIndex.open(indexFile);
+        }
+
+        GeoPoint center = tileSource.getMapInfo().boundingBox.getCenterPoint();
+
+        /* warm up */
+        BoundingBox warmUp = new BoundingBox(center.getLatitude() - AREAS[0], center.getLongitude() - AREAS[0],
+                center.getLatitude() + AREAS[0], center.getLongitude() + AREAS[0]);
+        runIndex("warm up", index, warmUp, null);
+        runMapFile("warm up", tileSource, warmUp, null);
+        System.out.println();
+
+        for (double area : AREAS) {
+            double d = area / 2;
+            BoundingBox bbox = new BoundingBox(center.getLatitude() - d, center.getLongitude() - d,
+                    center.getLatitude() + d, center.getLongitude() + d);
+            for (String category : CATEGORIES) {
+                String query = area + "° " + (category == null ? "all" : category);
+                runIndex("index " + query, index, bbox, category);
+                runMapFile("map " + query, tileSource, bbox, category);
+            }
+            System.out.println();
+        }
+        index.close();
+        tileSource.close();
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.awt.AwtGraphics;
+import org.oscim.backend.AssetAdapter;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeoPoint;
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.MapElement;
+import org.oscim.core.MercatorProjection;
+import org.oscim.core.Tag;
+import org.oscim.core.TagSet;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.theme.RenderTheme;
+import org.oscim.theme.ThemeLoader;
+import org.oscim.theme.VtmThemes;
+import org.oscim.theme.rule.RuleFilter;
+import org.oscim.tiling.ITileDataFilter;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.geojson.GeojsonTileSource;
+import org.oscim.tiling.source.geojson.TileDecoder;
+import org.oscim.tiling.source.mapfile.MapDatabase;
+import org.oscim.tiling.source.mapfile.MapFileTileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Measures the tiles per second and the bytes skipped by tile decoders when
+ * they ask the {@link RuleFilter} of the calimoto themes before decoding
+ * geometry, compared to decoding all elements.
+ * <p>
+ * GeoJSON tiles are generated with OSM tags, many of which the themes do
+ * not render at lower zoom levels. When a map file is given as argument,
+ * the tiles of a 4x4 viewport around its center are loaded from
+ * {@link MapDatabase} as well.
+ */
+public class ThemeFilterTest {
+
+    static final VtmThemes[] THEMES = {VtmThemes.CALIMOTO, VtmThemes.CALIMOTO_NAVIGATION,
+            VtmThemes.CALIMOTO_ROADTRIP};
+    static final int[] ZOOM_LEVELS = {10, 12, 14, 16};
+    static final int ROUNDS = 50;
+    static final int TILES = 20;
+    static final int FEATURES = 500;
+    static final int VIEWPORT = 4;
+
+    /**
+     * Tags of the generated features, from main roads and buildings to
+     * details of higher zoom levels.
+     */
+    static final String[][] TAGS = {
+            {"highway", "primary"}, {"highway", "secondary"}, {"highway", "residential"},
+            {"highway", "service"}, {"highway", "footway"}, {"highway", "path"},
+            {"highway", "track"}, {"building", "yes"}, {"building", "house"},
+            {"landuse", "forest"}, {"landuse", "residential"}, {"natural", "water"},
+            {"waterway", "stream"}, {"railway", "rail"}, {"amenity", "bench"},
+            {"amenity", "parking"}, {"barrier", "fence"}, {"power", "line"},
+            {"man_made", "survey_point"}, {"leisure", "pitch"}};
+
+    static class OsmTileSource extends GeojsonTileSource {
+        OsmTileSource() {
+            super("http://localhost", "/{Z}/{X}/{Y}.json");
+        }
+
+        @Override
+        public void decodeTags(MapElement mapElement, Map<String, Object> properties) {
+            for (Map.Entry<String, Object> e : properties.entrySet())
+                mapElement.tags.add(new Tag(e.getKey(), String.valueOf(e.getValue())));
+        }
+    }
+
+    static class CountingSink implements ITileDataSink {
+        long elements;
+
+        @Override
+        public void process(MapElement element) {
+            elements++;
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+        }
+    }
+
+    /**
+     * Discards elements by the filter of the theme, as VectorTileLoader does.
+     */
+    static class FilterSink extends CountingSink implements ITileDataFilter {
+        final RuleFilter filter;
+        final int zoomLevel;
+
+        FilterSink(RuleFilter filter, int zoomLevel) {
+            this.filter = filter;
+            this.zoomLevel = zoomLevel;
+        }
+
+        @Override
+        public boolean accept(GeometryType type, TagSet tags) {
+            return filter.accept(type, tags, zoomLevel);
+        }
+
+        @Override
+        public void process(MapElement element) {
+            if (filter.accept(element.type, element.tags, zoomLevel))
+                super.process(element);
+        }
+    }
+
+    static void coordinates(StringBuilder sb, Random r, boolean polygon) {
+        int points = 4 + r.nextInt(polygon ? 20 : 40);
+        double lon = 13.4 + r.nextDouble() * 0.01, lat = 52.5 + r.nextDouble() * 0.01;
+        sb.append(polygon ? "[[" : "[");
+        for (int i = 0; i < points; i++) {
+            double a = 2 * Math.PI * i / points;
+            double x = polygon ? lon + Math.cos(a) * 0.0003 : lon + i * 0.0001;
+            double y = polygon ? lat + Math.sin(a) * 0.0003 : lat + r.nextDouble() * 0.0001;
+            sb.append('[').append((float) x).append(',').append((float) y).append("],");
+        }
+        if (polygon)
+            sb.append('[').append((float) (lon + 0.0003)).append(',').append((float) lat).append("]]");
+        else
+            sb.setLength(sb.length() - 1);
+        sb.append(']');
+    }
+
+    static String generateTile(Random r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"type\":\"FeatureCollection\",\"features\":[");
+        for (int i = 0; i < FEATURES; i++) {
+            if (i > 0)
+                sb.append(',');
+            String[] tag = TAGS[r.nextInt(TAGS.length)];
+            boolean polygon = "building".equals(tag[0]) || "landuse".equals(tag[0])
+                    || "natural".equals(tag[0]) || "leisure".equals(tag[0]);
+            /* properties before the geometry, so that decoders can skip it */
+            sb.append("{\"type\":\"Feature\",\"properties\":{\"").append(tag[0]).append("\":\"")
+                    .append(tag[1]).append('"');
+            if (r.nextInt(4) == 0)
+                sb.append(",\"name\":\"Name ").append(r.nextInt(1000)).append('"');
+            sb.append("},\"geometry\":{\"type\":\"").append(polygon ? "Polygon" : "LineString")
+                    .append("\",\"coordinates\":");
+            coordinates(sb, r, polygon);
+            sb.append("}}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    static void runGeojson(String name, byte[][] tiles, CountingSink sink, int zoomLevel)
+            throws IOException {
+        TileDecoder decoder = new TileDecoder(new OsmTileSource());
+        Tile tile = new Tile(0, 0, (byte) zoomLevel);
+        long size = 0;
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (byte[] data : tiles) {
+                decoder.decode(tile, sink, new ByteArrayInputStream(data));
+                size += data.length;
+            }
+        }
+        time = System.nanoTime() - time;
+
+        long count = (long) ROUNDS * tiles.length;
+        System.out.printf("%-28s %7.0f tiles/s  elements: %5d  skipped: %5d  skipped bytes: %7d (%4.1f%%)%n",
+                name, count * 1e9 / time, sink.elements / count, decoder.getSkippedFeatures() / count,
+                decoder.getSkippedBytes() / count, decoder.getSkippedBytes() * 100.0 / size);
+    }
+
+    static void runMapFile(String name, MapFileTileSource tileSource, GeoPoint center,
+                           CountingSink sink, int zoomLevel) throws IOException {
+        MapDatabase db = new MapDatabase(tileSource);
+        int x = MercatorProjection.longitudeToTileX(center.getLongitude(), (byte) zoomLevel) - VIEWPORT / 2;
+        int y = MercatorProjection.latitudeToTileY(center.getLatitude(), (byte) zoomLevel) - VIEWPORT / 2;
+        long time = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int dy = 0; dy < VIEWPORT; dy++)
+                for (int dx = 0; dx < VIEWPORT; dx++)
+                    db.query(new MapTile(x + dx, y + dy, zoomLevel), sink);
+        }
+        time = System.nanoTime() - time;
+        db.dispose();
+
+        long count = (long) ROUNDS * VIEWPORT * VIEWPORT;
+        System.out.printf("%-28s %7.0f tiles/s  elements: %5d  skipped: %5d  skipped bytes: %7d%n",
+                name, count * 1e9 / time, sink.elements / count, db.getSkippedWays() / count,
+                db.getSkippedWayBytes() / count);
+    }
+
+    public static void main(String[] args) throws IOException {
+        AwtGraphics.init();
+        AssetAdapter.init(new AssetAdapter() {
+            @Override
+            protected InputStream openFileAsStream(String file) {
+                return ThemeFilterTest.class.getResourceAsStream("/assets/" + file);
+            }
+        });
+
+        Random r = new Random(42);
+        byte[][] tiles = new byte[TILES][];
+        for (int i = 0; i < TILES; i++)
+            tiles[i] = generateTile(r).getBytes(StandardCharsets.UTF_8);
+
+        MapFileTileSource tileSource = null;
+        GeoPoint center = null;
+        if (args.length > 0) {
+            File file = new File(args[0]);
+            if (!file.isFile() || !file.canRead())
+                throw new IllegalArgumentException("cannot read file: " + file);
+            tileSource = new MapFileTileSource();
+            tileSource.setMapFile(file.getAbsolutePath());
+            if (!tileSource.open().isSuccess())
+                throw new IOException("cannot open map file: " + file);
+            center = tileSource.getMapInfo().boundingBox.getCenterPoint();
+        }
+
+        /* warm up */
+        RuleFilter warmUp = ((RenderTheme) ThemeLoader.load(THEMES[0])).getFilter();
+        runGeojson("warm up", tiles, new CountingSink(), 14);
+        runGeojson("warm up", tiles, new FilterSink(warmUp, 14), 14);
+        System.out.println();
+
+        for (VtmThemes theme : THEMES) {
+            RuleFilter filter = ((RenderTheme) ThemeLoader.load(theme)).getFilter();
+            String themeName = theme.name().toLowerCase();
+            System.out.println(themeName);
+            for (int zoomLevel : ZOOM_LEVELS) {
+                runGeojson("geojson z" + zoomLevel + " all", tiles, new CountingSink(), zoomLevel);
+                runGeojson("geojson z" + zoomLevel + " filtered", tiles,
+                        new FilterSink(filter, zoomLevel), zoomLevel);
+                if (tileSource != null) {
+                    runMapFile("map z" + zoomLevel + " all", tileSource, center,
+                            new CountingSink(), zoomLevel);
+                    runMapFile("map z" + zoomLevel + " filtered", tileSource, center,
+                            new FilterSink(filter, zoomLevel), zoomLevel);
+                }
+            }
+            System.out.println();
+        }
+        if (tileSource != null)
+            tileSource.close();
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.tiling.source;
+
+import org.oscim.tiling.TileCacheCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the size of cached tiles, the CPU time to encode them and the
+ * latency to read them for raw storage and {@link TileCacheCodec} levels,
+ * with and without a dictionary trained on other tiles of the source.
+ * <p>
+ * Uses the tile files of the directory given as argument, e.g. a directory
+ * of MVT tiles, otherwise generated vector tiles with the layer, key and
+ * value strings of OpenMapTiles.
+ */
+public class TileCacheCodecTest {
+
+    static final int TILES = 2000;
+    static final int TRAINING = 200;
+    static final int ROUNDS = 5;
+
+    static final String[] LAYERS = {"water", "landcover", "landuse", "waterway",
+            "building", "transportation", "transportation_name", "place", "poi",
+            "housenumber", "boundary"};
+    static final String[] KEYS = {"class", "subclass", "name", "name_en", "name:latin",
+            "brunnel", "oneway", "ramp", "layer", "level", "rank", "render_height",
+            "render_min_height", "housenumber", "admin_level", "maritime", "intermittent"};
+    static final String[] VALUES = {"residential", "primary", "secondary", "tertiary",
+            "minor", "service", "track", "path", "motorway", "bridge", "tunnel", "wood",
+            "grass", "farmland", "forest", "river", "stream", "lake", "building", "school",
+            "restaurant", "cafe", "parking", "bus_stop", "village", "town", "suburb"};
+
+    /**
+     * Writes the protobuf fields of Mapbox vector tiles.
+     */
+    static class Pbf extends ByteArrayOutputStream {
+        void varint(long v) {
+            while ((v & ~0x7fL) != 0) {
+                write((int) ((v & 0x7f) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void tag(int field, int type) {
+            varint(field << 3 | type);
+        }
+
+        void string(int field, String s) {
+            bytes(field, s.getBytes());
+        }
+
+        void bytes(int field, byte[] b) {
+            tag(field, 2);
+            varint(b.length);
+            write(b, 0, b.length);
+        }
+
+        void packed(int field, Pbf values) {
+            bytes(field, values.toByteArray());
+        }
+    }
+
+    static int zigzag(int v) {
+        return (v << 1) ^ (v >> 31);
+    }
+
+    /**
+     * Half of the tiles are sparse, like those of rural areas and oceans.
+     */
+    static byte[] generateTile(Random r) {
+        boolean sparse = r.nextBoolean();
+        Pbf tile = new Pbf();
+        for (String name : LAYERS) {
+            if (r.nextInt(3) == 0)
+                continue;
+            Pbf layer = new Pbf();
+            layer.tag(15, 0);
+            layer.varint(2);
+            layer.string(1, name);
+
+            int features = 1 + r.nextInt(sparse ? 4 : 60);
+            for (int f = 0; f < features; f++) {
+                Pbf feature = new Pbf();
+                feature.tag(1, 0);
+                feature.varint(r.nextInt(1 << 30));
+
+                Pbf tags = new Pbf();
+                for (int t = r.nextInt(4); t >= 0; t--) {
+                    tags.varint(r.nextInt(KEYS.length));
+                    tags.varint(r.nextInt(VALUES.length + 20));
+                }
+                feature.packed(2, tags);
+
+                int type = 1 + r.nextInt(3);
+                feature.tag(3, 0);
+                feature.varint(type);
+
+                Pbf geom = new Pbf();
+                int points = type == 1 ? 1 : 2 + r.nextInt(30);
+                geom.varint(1 | 1 << 3);
+                geom.varint(zigzag(r.nextInt(4096)));
+                geom.varint(zigzag(r.nextInt(4096)));
+                if (points > 1) {
+                    geom.varint(2 | (points - 1) << 3);
+                    for (int p = 1; p < points; p++) {
+                        geom.varint(zigzag(r.nextInt(80) - 40));
+                        geom.varint(zigzag(r.nextInt(80) - 40));
+                    }
+                    if (type == 3)
+                        geom.varint(7 | 1 << 3);
+                }
+                feature.packed(4, geom);
+
+                layer.bytes(2, feature.toByteArray());
+            }
+            for (String key : KEYS)
+                layer.string(3, key);
+            for (String value : VALUES) {
+                Pbf v = new Pbf();
+                v.string(1, value);
+                layer.bytes(4, v.toByteArray());
+            }
+            for (int i = sparse ? 2 : 20; i > 0; i--) {
+                /* names, mostly unique per tile */
+                Pbf v = new Pbf();
+                v.string(1, "Street " + Integer.toString(r.nextInt(100000), 36));
+                layer.bytes(4, v.toByteArray());
+            }
+            layer.tag(5, 0);
+            layer.varint(4096);
+
+            tile.bytes(3, layer.toByteArray());
+        }
+        return tile.toByteArray();
+    }
+
+    static byte[] readFile(File file) throws IOException {
+        InputStream is = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = is.read(buf)) >= 0)
+                out.write(buf, 0, n);
+            return out.toByteArray();
+        } finally {
+            is.close();
+        }
+    }
+
+    static void run(String name, TileCacheCodec codec, List<byte[]> tiles) throws IOException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        byte[] buf = new byte[8192];
+
+        long rawSize = 0, size = 0;
+        long encodeCpu = 0, decodeCpu = 0, decodeTime = 0;
+        byte[][] entries = new byte[tiles.size()][];
+        for (int round = 0; round < ROUNDS; round++) {
+            long cpu = bean.getCurrentThreadCpuTime();
+            for (int i = 0; i < entries.length; i++) {
+                byte[] tile = tiles.get(i);
+                entries[i] = codec.encode(tile, 0, tile.length);
+            }
+            encodeCpu += bean.getCurrentThreadCpuTime() - cpu;
+
+            cpu = bean.getCurrentThreadCpuTime();
+            long time = System.nanoTime();
+            for (byte[] entry : entries) {
+                InputStream is = codec.decode(new ByteArrayInputStream(entry));
+                while (is.read(buf) >= 0) ;
+            }
+            decodeTime += System.nanoTime() - time;
+            decodeCpu += bean.getCurrentThreadCpuTime() - cpu;
+        }
+        for (int i = 0; i < entries.length; i++) {
+            rawSize += tiles.get(i).length;
+            size += entries[i].length;
+        }
+
+        long count = (long) ROUNDS * entries.length;
+        System.out.printf("%-22s size: %8d KB (%5.1f%%)  encode cpu: %6.1f us/tile"
+                        + "  read: %6.1f us/tile  read cpu: %6.1f us/tile%n",
+                name, size / 1024, 100.0 * size / rawSize,
+                encodeCpu / 1000.0 / count,
+                decodeTime / 1000.0 / count,
+                decodeCpu / 1000.0 / count);
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<byte[]> tiles = new ArrayList<>();
+        if (args.length > 0) {
+            File[] files = new File(args[0]).listFiles();
+            if (files == null)
+                throw new IOException("not a directory: " + args[0]);
+            Arrays.sort(files);
+            for (File file : files) {
+                if (file.isFile())
+                    tiles.add(readFile(file));
+            }
+        } else {
+            Random r = new Random(42);
+            for (int i = 0; i < TILES + TRAINING; i++)
+                tiles.add(generateTile(r));
+        }
+        if (tiles.size() <= TRAINING)
+            throw new IOException("need more than " + TRAINING + " tiles");
+
+        /* train on other tiles than measured */
+        List<byte[]> training = tiles.subList(0, TRAINING);
+        List<byte[]> measured = tiles.subList(TRAINING, tiles.size());
+        long avg = 0;
+        for (byte[] tile : measured)
+            avg += tile.length;
+        System.out.println("tiles: " + measured.size() + " average size: " + avg / measured.size() + " bytes");
+
+        long time = System.nanoTime();
+        byte[] dictionary = TileCacheCodec.trainDictionary(training, 16 * 1024);
+        System.out.println("dictionary: " + dictionary.length + " bytes, trained in "
+                + (System.nanoTime() - time) / 1000000 + " ms");
+
+        /* warm up */
+        run("warm up", new TileCacheCodec(6, dictionary), measured);
+        System.out.println();
+
+        run("raw", TileCacheCodec.NONE, measured);
+        run("deflate 1", new TileCacheCodec(1), measured);
+        run("deflate 6", new TileCacheCodec(6), measured);
+        run("deflate 9", new TileCacheCodec(9), measured);
+        run("deflate 1 dictionary", new TileCacheCodec(1, dictionary), measured);
+        run("deflate 6 dictionary", new TileCacheCodec(6, dictionary), measured);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.test.utils;
+
+import org.oscim.core.Box;
+import org.oscim.core.Point;
+import org.oscim.utils.PackedRTree;
+import org.oscim.utils.QuadTree;
+import org.oscim.utils.RTree;
+import org.oscim.utils.SpatialIndex;
+import org.oscim.utils.SpatialIndex.SearchCb;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares {@link PackedRTree} with {@link RTree} and {@link QuadTree} for
+ * one million boxes: the time and allocations to build the index, the heap
+ * it retains and the time of window and nearest neighbor queries. A packed
+ * tree is also written to a file and read back, to measure queries of the
+ * memory mapped tree.
+ */
+public class SpatialIndexTest {
+
+    static final int BOXES = 1000000;
+    static final int EXTENTS = 1 << 20;
+    static final int QUERIES = 10000;
+    static final int QUERY_SIZE = 4000;
+    static final int NEIGHBORS = 10;
+
+    interface Factory {
+        SpatialIndex<Integer> build(float[] boxes, Integer[] items);
+    }
+
+    static final SearchCb<Integer> COUNT = new SearchCb<Integer>() {
+        @Override
+        public boolean call(Integer item, Object context) {
+            ((int[]) context)[0]++;
+            return true;
+        }
+    };
+
+    static float[] generateBoxes(Random r) {
+        float[] boxes = new float[BOXES * 4];
+        for (int i = 0; i < BOXES; i++) {
+            float x = r.nextInt(2 * EXTENTS - 200) - EXTENTS;
+            float y = r.nextInt(2 * EXTENTS - 200) - EXTENTS;
+            boxes[i * 4] = x;
+            boxes[i * 4 + 1] = y;
+            boxes[i * 4 + 2] = x + 2 + r.nextInt(100);
+            boxes[i * 4 + 3] = y + 2 + r.nextInt(100);
+        }
+        return boxes;
+    }
+
+    static Box[] generateQueries(Random r) {
+        Box[] queries = new Box[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            double x = r.nextInt(2 * EXTENTS - QUERY_SIZE) - EXTENTS;
+            double y = r.nextInt(2 * EXTENTS - QUERY_SIZE) - EXTENTS;
+            queries[i] = new Box(x, y, x + QUERY_SIZE, y + QUERY_SIZE);
+        }
+        return queries;
+    }
+
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean)
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        return -1;
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    static void run(String name, Factory factory, float[] boxes, Integer[] items, Box[] queries,
+                    boolean knn) {
+        long heap = usedHeap();
+        long allocated = allocatedBytes();
+        long time = System.nanoTime();
+        SpatialIndex<Integer> index = factory.build(boxes, items);
+        long buildTime = System.nanoTime() - time;
+        allocated = allocatedBytes() - allocated;
+        heap = usedHeap() - heap;
+
+        int[] found = new int[1];
+        time = System.nanoTime();
+        for (Box query : queries)
+            index.search(query, COUNT, found);
+        long queryTime = System.nanoTime() - time;
+
+        long knnTime = 0;
+        if (knn) {
+            List<Integer> results = new ArrayList<>();
+            Point center = new Point();
+            time = System.nanoTime();
+            for (Box query : queries) {
+                center.x = query.xmin;
+                center.y = query.ymin;
+                results.clear();
+                index.searchKNearestNeighbors(center, NEIGHBORS, Double.MAX_VALUE, results);
+            }
+            knnTime = System.nanoTime() - time;
+        }
+
+        System.out.printf("%-18s build: %6d ms %6d MB alloc  heap: %5d MB  search: %6.2f us (%d found)"
+                        + "  knn: %s%n",
+                name, buildTime / 1000000, allocated >> 20, heap >> 20,
+                queryTime / 1000.0 / queries.length, found[0] / queries.length,
+                knn ? String.format("%6.2f us", knnTime / 1000.0 / queries.length) : "-");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Random r = new Random(42);
+        final float[] boxes = generateBoxes(r);
+        final Integer[] items = new Integer[BOXES];
+        for (int i = 0; i < BOXES; i++)
+            items[i] = i;
+        Box[] queries = generateQueries(r);
+
+        final File file = File.createTempFile("packed-rtree", ".idx");
+        file.deleteOnExit();
+        PackedRTree<Integer> written = new PackedRTree<>();
+        written.load(boxes, items, BOXES);
+        written.write(file);
+        written = null;
+
+        Factory packed = new Factory() {
+            @Override
+            public SpatialIndex<Integer> build(float[] boxes, Integer[] items) {
+                PackedRTree<Integer> tree = new PackedRTree<>();
+                tree.load(boxes, items, items.length);
+                return tree;
+            }
+        };
+        Factory mapped = new Factory() {
+            @Override
+            public SpatialIndex<Integer> build(float[] boxes, Integer[] items) {
+                try {
+                    return PackedRTree.read(file, items);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        Factory rtree = new Factory() {
+            @Override
+            public SpatialIndex<Integer> build(float[] boxes, Integer[] items) {
+                RTree<Integer> tree = new RTree<>();
+                Box box = new Box();
+                for (int i = 0; i < items.length; i++) {
+                    box.xmin = boxes[i * 4];
+                    box.ymin = boxes[i * 4 + 1];
+                    box.xmax = boxes[i * 4 + 2];
+                    box.ymax = boxes[i * 4 + 3];
+                    tree.insert(box, items[i]);
+                }
+                return tree;
+            }
+        };
+        Factory quadtree = new Factory() {
+            @Override
+            public SpatialIndex<Integer> build(float[] boxes, Integer[] items) {
+                QuadTree<Integer> tree = new QuadTree<>(EXTENTS, 12);
+                Box box = new Box();
+                for (int i = 0; i < items.length; i++) {
+                    box.xmin = boxes[i * 4];
+                    box.ymin = boxes[i * 4 + 1];
+                    box.xmax = boxes[i * 4 + 2];
+                    box.ymax = boxes[i * 4 + 3];
+                    tree.insert(box, items[i]);
+                }
+                return tree;
+            }
+        };
+
+        /* warm up */
+        run("warm up", packed, boxes, items, queries, true);
+        run("warm up", rtree, boxes, items, queries, true);
+        System.out.println();
+
+        run("PackedRTree", packed, boxes, items, queries, true);
+        run("PackedRTree file", mapped, boxes, items, queries, true);
+        run("RTree", rtree, boxes, items, queries, true);
+        /* QuadTree does not implement nearest neighbor queries */
+        run("QuadTree", quadtree, boxes, items, queries, false);
+    }
+}
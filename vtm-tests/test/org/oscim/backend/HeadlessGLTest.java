@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.backend;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+public class HeadlessGLTest {
+
+    private HeadlessGL gl;
+
+    @Before
+    public void setUp() {
+        gl = new HeadlessGL();
+        GLAdapter.init(gl);
+    }
+
+    @Test
+    public void redundantStateChanges() {
+        gl.enable(GL.BLEND);
+        gl.enable(GL.BLEND);
+        gl.blendFunc(GL.ONE, GL.ONE_MINUS_SRC_ALPHA);
+        gl.blendFunc(GL.ONE, GL.ONE_MINUS_SRC_ALPHA);
+        gl.disable(GL.BLEND);
+        gl.viewport(0, 0, 100, 100);
+        gl.viewport(0, 0, 100, 101);
+
+        Assert.assertEquals(5, gl.getFrame().stateChanges);
+        Assert.assertEquals(2, gl.getFrame().redundantStateChanges);
+        Assert.assertFalse(gl.isEnabled(GL.BLEND));
+    }
+
+    @Test
+    public void simulateObjects() {
+        IntBuffer ids = IntBuffer.allocate(2);
+        gl.genBuffers(2, ids);
+        Assert.assertNotEquals(ids.get(0), ids.get(1));
+
+        gl.bindBuffer(GL.ARRAY_BUFFER, ids.get(0));
+        gl.bufferData(GL.ARRAY_BUFFER, 1000, ByteBuffer.allocate(1000), GL.STATIC_DRAW);
+        gl.bindBuffer(GL.ELEMENT_ARRAY_BUFFER, ids.get(1));
+        gl.bufferData(GL.ELEMENT_ARRAY_BUFFER, 200, null, GL.STATIC_DRAW);
+        Assert.assertEquals(1200, gl.getBufferMemory());
+        Assert.assertEquals(1000, gl.getFrame().uploadBytes);
+
+        gl.deleteBuffer(ids.get(0));
+        Assert.assertEquals(200, gl.getBufferMemory());
+        Assert.assertFalse(gl.isBuffer(ids.get(0)));
+
+        int tex = gl.genTexture();
+        gl.bindTexture(GL.TEXTURE_2D, tex);
+        gl.texImage2D(GL.TEXTURE_2D, 0, GL.RGBA, 16, 16, 0, GL.RGBA, GL.UNSIGNED_BYTE, null);
+        Assert.assertEquals(1024, gl.getTextureMemory());
+        gl.deleteTexture(tex);
+        Assert.assertEquals(0, gl.getTextureMemory());
+    }
+
+    @Test
+    public void sections() {
+        gl.section("a");
+        gl.drawArrays(GL.TRIANGLES, 0, 6);
+        gl.section("b");
+        gl.drawElements(GL.TRIANGLES, 12, GL.UNSIGNED_SHORT, 0);
+        gl.drawArrays(GL.TRIANGLES, 0, 3);
+
+        Assert.assertEquals(1, gl.getSections().get("a").drawCalls);
+        Assert.assertEquals(2, gl.getSections().get("b").drawCalls);
+        Assert.assertEquals(3, gl.getFrame().drawCalls);
+        Assert.assertEquals(21, gl.getFrame().vertices);
+
+        gl.endFrame();
+        Assert.assertEquals(0, gl.getFrame().drawCalls);
+        Assert.assertEquals(0, gl.getSections().get("b").drawCalls);
+        Assert.assertEquals(3, gl.getTotal().drawCalls);
+        Assert.assertEquals(1, gl.getFrames());
+    }
+
+    @Test
+    public void locations() {
+        int a = gl.createProgram();
+        int b = gl.createProgram();
+        int mvp = gl.getUniformLocation(a, "u_mvp");
+        int pos = gl.getAttribLocation(a, "a_pos");
+        Assert.assertNotEquals(mvp, pos);
+        Assert.assertEquals(mvp, gl.getUniformLocation(a, "u_mvp"));
+        Assert.assertEquals(pos, gl.getAttribLocation(a, "a_pos"));
+
+        for (int i = 0; i < 20; i++)
+            gl.getUniformLocation(b, "u_" + i);
+        Assert.assertEquals(mvp, gl.getUniformLocation(a, "u_mvp"));
+        Assert.assertEquals(7, gl.getUniformLocation(b, "u_7"));
+    }
+
+    @Test
+    public void manyStates() {
+        for (int i = 0; i < 1000; i++)
+            gl.enableVertexAttribArray(i);
+        for (int i = 0; i < 1000; i++)
+            gl.enableVertexAttribArray(i);
+        Assert.assertEquals(1000, gl.getFrame().stateChanges);
+        Assert.assertEquals(1000, gl.getFrame().redundantStateChanges);
+    }
+
+    @Test
+    public void headlessFlag() {
+        Assert.assertTrue(GLAdapter.HEADLESS);
+        GLAdapter.section("a");
+        gl.drawArrays(GL.TRIANGLES, 0, 3);
+        Assert.assertEquals(1, gl.getSections().get("a").drawCalls);
+
+        GLAdapter.init(new StateFilterGL(gl));
+        Assert.assertTrue(GLAdapter.HEADLESS);
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.backend;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscim.renderer.GLState;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.FloatBuffer;
+
+public class StateFilterGLTest {
+
+    private HeadlessGL recorder;
+    private StateFilterGL gl;
+
+    @Before
+    public void setUp() {
+        recorder = new HeadlessGL();
+        GLAdapter.FILTER_STATE = true;
+        GLAdapter.init(recorder);
+        gl = (StateFilterGL) GLAdapter.gl;
+    }
+
+    @After
+    public void tearDown() {
+        GLAdapter.FILTER_STATE = false;
+        GLAdapter.gl30 = null;
+    }
+
+    @Test
+    public void filterUniforms() {
+        int p1 = gl.createProgram();
+        int p2 = gl.createProgram();
+        int color = gl.getUniformLocation(p1, "u_color");
+
+        gl.useProgram(p1);
+        gl.uniform1f(color, 1);
+        gl.uniform1f(color, 1);
+        gl.uniform4f(color, 1, 0, 0, 1);
+        gl.uniform4f(color, 1, 0, 0, 1);
+        gl.uniform4f(color, 1, 0, 0, 0.5f);
+
+        /* values are kept per program */
+        gl.useProgram(p2);
+        gl.uniform4f(color, 1, 0, 0, 0.5f);
+        gl.useProgram(p1);
+        gl.useProgram(p1);
+        gl.uniform4f(color, 1, 0, 0, 0.5f);
+
+        StateFilterGL.Stats stats = gl.getFrame();
+        Assert.assertEquals(4, stats.issued[StateFilterGL.UNIFORM]);
+        Assert.assertEquals(3, stats.filtered[StateFilterGL.UNIFORM]);
+        Assert.assertEquals(3, stats.issued[StateFilterGL.PROGRAM]);
+        Assert.assertEquals(1, stats.filtered[StateFilterGL.PROGRAM]);
+    }
+
+    @Test
+    public void filterMatrix() {
+        int p = gl.createProgram();
+        gl.useProgram(p);
+        FloatBuffer m = FloatBuffer.allocate(16);
+        m.put(0, 1);
+
+        gl.uniformMatrix4fv(0, 1, false, m);
+        gl.uniformMatrix4fv(0, 1, false, m);
+        m.put(5, 1);
+        gl.uniformMatrix4fv(0, 1, false, m);
+
+        Assert.assertEquals(2, gl.getFrame().issued[StateFilterGL.UNIFORM]);
+        Assert.assertEquals(1, gl.getFrame().filtered[StateFilterGL.UNIFORM]);
+    }
+
+    @Test
+    public void invalidateUniformArrays() {
+        int p = gl.createProgram();
+        gl.useProgram(p);
+        gl.uniform4f(2, 1, 1, 1, 1);
+        gl.uniform4fv(0, 4, new float[16], 0);
+        gl.uniform4f(2, 1, 1, 1, 1);
+
+        Assert.assertEquals(3, gl.getFrame().issued[StateFilterGL.UNIFORM]);
+        Assert.assertEquals(0, gl.getFrame().filtered[StateFilterGL.UNIFORM]);
+    }
+
+    @Test
+    public void cacheLocations() {
+        int p = gl.createProgram();
+        int l = gl.getUniformLocation(p, "u_mvp");
+        int calls = recorder.getFrame().calls;
+
+        Assert.assertEquals(l, gl.getUniformLocation(p, "u_mvp"));
+        Assert.assertEquals(calls, recorder.getFrame().calls);
+
+        /* relinking invalidates locations */
+        gl.linkProgram(p);
+        gl.getUniformLocation(p, "u_mvp");
+        Assert.assertEquals(calls + 2, recorder.getFrame().calls);
+    }
+
+    @Test
+    public void filterAttribPointers() {
+        int a = gl.genBuffer();
+        int b = gl.genBuffer();
+
+        gl.bindBuffer(GL.ARRAY_BUFFER, a);
+        gl.vertexAttribPointer(0, 2, GL.SHORT, false, 0, 0);
+        gl.vertexAttribPointer(0, 2, GL.SHORT, false, 0, 0);
+        gl.bindBuffer(GL.ARRAY_BUFFER, a);
+        gl.vertexAttribPointer(0, 2, GL.SHORT, false, 0, 16);
+
+        /* pointer refers to bound buffer */
+        gl.bindBuffer(GL.ARRAY_BUFFER, b);
+        gl.vertexAttribPointer(0, 2, GL.SHORT, false, 0, 16);
+        gl.vertexAttribPointer(1, 2, GL.SHORT, false, 0, 16);
+
+        gl.deleteBuffer(a);
+        gl.bindBuffer(GL.ARRAY_BUFFER, b);
+        gl.vertexAttribPointer(0, 2, GL.SHORT, false, 0, 16);
+
+        StateFilterGL.Stats stats = gl.getFrame();
+        Assert.assertEquals(5, stats.issued[StateFilterGL.ATTRIB_POINTER]);
+        Assert.assertEquals(1, stats.filtered[StateFilterGL.ATTRIB_POINTER]);
+        Assert.assertEquals(3, stats.issued[StateFilterGL.BUFFER]);
+        Assert.assertEquals(1, stats.filtered[StateFilterGL.BUFFER]);
+    }
+
+    @Test
+    public void filterStencilAndBlend() {
+        gl.stencilFunc(GL.EQUAL, 0x80, 0x80);
+        gl.stencilFunc(GL.EQUAL, 0x80, 0x80);
+        gl.stencilOp(GL.KEEP, GL.KEEP, GL.REPLACE);
+        gl.stencilOp(GL.KEEP, GL.KEEP, GL.REPLACE);
+        gl.stencilMask(0xff);
+        gl.stencilMask(0x00);
+        gl.stencilFuncSeparate(GL.FRONT, GL.ALWAYS, 0, 0);
+        gl.stencilFunc(GL.EQUAL, 0x80, 0x80);
+
+        gl.blendFunc(GL.ONE, GL.ONE_MINUS_SRC_ALPHA);
+        gl.blendFuncSeparate(GL.ONE, GL.ONE_MINUS_SRC_ALPHA, GL.ONE, GL.ONE_MINUS_SRC_ALPHA);
+        gl.blendFunc(GL.SRC_ALPHA, GL.ONE_MINUS_SRC_ALPHA);
+
+        StateFilterGL.Stats stats = gl.getFrame();
+        Assert.assertEquals(6, stats.issued[StateFilterGL.STENCIL]);
+        Assert.assertEquals(2, stats.filtered[StateFilterGL.STENCIL]);
+        Assert.assertEquals(2, stats.issued[StateFilterGL.BLEND]);
+        Assert.assertEquals(1, stats.filtered[StateFilterGL.BLEND]);
+    }
+
+    @Test
+    public void invalidateOnEndFrame() {
+        int p = gl.createProgram();
+        gl.useProgram(p);
+        gl.uniform1i(0, 1);
+        gl.blendFunc(GL.ONE, GL.ONE);
+        gl.blendFunc(GL.ONE, GL.ONE);
+        gl.endFrame();
+
+        Assert.assertEquals(3, gl.getLastFrame().getIssued());
+        Assert.assertEquals(1, gl.getLastFrame().getFiltered());
+        Assert.assertEquals(0, gl.getFrame().getIssued());
+
+        /* other code may have changed the state between frames */
+        gl.useProgram(p);
+        gl.uniform1i(0, 1);
+        gl.blendFunc(GL.ONE, GL.ONE);
+        Assert.assertEquals(3, gl.getFrame().getIssued());
+        Assert.assertEquals(0, gl.getFrame().getFiltered());
+    }
+
+    @Test
+    public void invalidateAfterExternalUse() {
+        int p = gl.createProgram();
+        int b = gl.genBuffer();
+        gl.useProgram(p);
+        gl.bindBuffer(GL.ARRAY_BUFFER, b);
+
+        /* e.g. a libgdx batch used the context behind the filter */
+        GLState.invalidate();
+        gl.useProgram(p);
+        gl.bindBuffer(GL.ARRAY_BUFFER, b);
+
+        Assert.assertEquals(2, gl.getFrame().issued[StateFilterGL.PROGRAM]);
+        Assert.assertEquals(0, gl.getFrame().filtered[StateFilterGL.PROGRAM]);
+        Assert.assertEquals(2, gl.getFrame().issued[StateFilterGL.BUFFER]);
+        Assert.assertEquals(0, gl.getFrame().filtered[StateFilterGL.BUFFER]);
+    }
+
+    @Test
+    public void wrapGL30() {
+        /* GL 3 calls are dropped, GL 2 calls go to the recorder */
+        GL30 gl30 = (GL30) Proxy.newProxyInstance(GL30.class.getClassLoader(),
+                new Class<?>[]{GL30.class}, (proxy, method, args) -> {
+                    Method m = method.getDeclaringClass() == GL30.class ? null
+                            : GL.class.getMethod(method.getName(), method.getParameterTypes());
+                    return m == null ? null : m.invoke(recorder, args);
+                });
+        GLAdapter.init(gl30);
+        Assert.assertTrue(GLAdapter.gl instanceof StateFilterGL30);
+        Assert.assertSame(GLAdapter.gl, GLAdapter.gl30);
+
+        StateFilterGL30 gl = (StateFilterGL30) GLAdapter.gl;
+        int b = gl.genBuffer();
+        gl.bindBuffer(GL.ELEMENT_ARRAY_BUFFER, b);
+        gl.bindBuffer(GL.ELEMENT_ARRAY_BUFFER, b);
+
+        /* a vertex array has its own element buffer binding */
+        GLAdapter.gl30.bindVertexArray(1);
+        gl.bindBuffer(GL.ELEMENT_ARRAY_BUFFER, b);
+
+        Assert.assertEquals(2, gl.getFrame().issued[StateFilterGL.BUFFER]);
+        Assert.assertEquals(1, gl.getFrame().filtered[StateFilterGL.BUFFER]);
+    }
+}
@@ -0,0 +1,53 @@
+package org.oscim.layers.tile;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JobQueueTest {
+
+    static MapTile tile(int x, int y, float distance) {
+        MapTile t = new MapTile(x, y, 14);
+        t.distance = distance;
+        return t;
+    }
+
+    @Test
+    public void shouldClaimAdjacentJobs() {
+        MapTile a = tile(0, 0, 1);
+        MapTile far = tile(8, 8, 2);
+        MapTile b = tile(1, 0, 3);
+        MapTile c = tile(3, 3, 4);
+        MapTile next = tile(4, 0, 5);
+
+        JobQueue queue = new JobQueue();
+        queue.setJobs(new MapTile[]{next, c, far, b, a});
+
+        MapTile[] batch = new MapTile[4];
+        assertEquals(3, queue.poll(batch, 4));
+        assertSame(a, batch[0]);
+        assertSame(b, batch[1]);
+        assertSame(c, batch[2]);
+
+        /* remaining jobs keep their priority */
+        assertSame(far, queue.poll());
+        assertSame(next, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void shouldLimitBatch() {
+        JobQueue queue = new JobQueue();
+        queue.setJobs(new MapTile[]{tile(0, 0, 1), tile(0, 1, 2), tile(1, 1, 3)});
+
+        MapTile[] batch = new MapTile[2];
+        assertEquals(2, queue.poll(batch, 2));
+        assertEquals(1, queue.poll(batch, 2));
+        assertEquals(1, batch[0].tileX);
+        assertEquals(0, queue.poll(batch, 2));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.layers.tile.buildings;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.core.Tag;
+
+public class S3DBMeshCacheTest {
+
+    private static GeometryBuffer outline(float x, float y) {
+        GeometryBuffer g = new GeometryBuffer(4, 2);
+        g.startPolygon();
+        g.addPoint(x, y);
+        g.addPoint(x + 100, y);
+        g.addPoint(x + 100, y + 60);
+        g.addPoint(x, y + 60);
+        return g;
+    }
+
+    @Test
+    public void reuseTranslatedMesh() {
+        S3DBMeshCache cache = new S3DBMeshCache(10);
+
+        GeometryBuffer a = outline(10, 20);
+        S3DBMeshCache.Key keyA = cache.key("1", Tag.VALUE_PYRAMIDAL, false, 0, a, 5, 10);
+        Assert.assertNull(cache.get(keyA));
+
+        GeometryBuffer meshA = new GeometryBuffer(a);
+        Assert.assertTrue(S3DBUtils.calcPyramidalMesh(meshA, 5, 10));
+        cache.put(keyA, meshA, null);
+
+        // Same building in the neighbouring tile
+        GeometryBuffer b = outline(10 - 4096, 20);
+        S3DBMeshCache.Mesh cached = cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 0, b, 5, 10));
+        Assert.assertNotNull(cached);
+        Assert.assertNull(cached.specialParts);
+
+        GeometryBuffer meshB = new GeometryBuffer(b);
+        S3DBUtils.calcPyramidalMesh(meshB, 5, 10);
+        Assert.assertArrayEquals(meshB.index, cached.roof.index);
+        Assert.assertArrayEquals(meshB.points, cached.roof.points, 1e-3f);
+
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void distinguishParameters() {
+        S3DBMeshCache cache = new S3DBMeshCache(10);
+        GeometryBuffer a = outline(0, 0);
+
+        GeometryBuffer mesh = new GeometryBuffer(a);
+        S3DBUtils.calcPyramidalMesh(mesh, 5, 10);
+        cache.put(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 0, a, 5, 10), mesh, null);
+
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 0, a, 5, 12)));
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_HIPPED, false, 0, a, 5, 10)));
+        Assert.assertNull(cache.get(cache.key("2", Tag.VALUE_PYRAMIDAL, false, 0, a, 5, 10)));
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, true, 0, a, 5, 10)));
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 1, a, 5, 10)));
+
+        // Orientation across and a direction of 1 degree are different keys
+        cache.put(cache.key("1", Tag.VALUE_PYRAMIDAL, true, 0, a, 5, 10), mesh, null);
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 1, a, 5, 10)));
+        Assert.assertNull(cache.get(cache.key("1", Tag.VALUE_PYRAMIDAL, false, 0, outline(0, 0).scale(2, 2), 5, 10)));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.renderer;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryBudgetTest {
+
+    private int mLimit;
+
+    @Before
+    public void setUp() {
+        mLimit = MemoryBudget.LIMIT;
+        MemoryBudget.reset(MemoryBudget.BUFFERS);
+        MemoryBudget.reset(MemoryBudget.TEXTURES);
+    }
+
+    @After
+    public void tearDown() {
+        MemoryBudget.LIMIT = mLimit;
+        MemoryBudget.reset(MemoryBudget.BUFFERS);
+        MemoryBudget.reset(MemoryBudget.TEXTURES);
+    }
+
+    @Test
+    public void accounting() {
+        MemoryBudget.LIMIT = 1000;
+
+        MemoryBudget.add(MemoryBudget.BUFFERS, 600);
+        MemoryBudget.add(MemoryBudget.TEXTURES, 300);
+        Assert.assertEquals(900, MemoryBudget.getTotalUsage());
+        Assert.assertFalse(MemoryBudget.isExceeded());
+
+        MemoryBudget.add(MemoryBudget.TEXTURES, 250);
+        Assert.assertEquals(150, MemoryBudget.getExcess());
+        Assert.assertTrue(MemoryBudget.isExceeded());
+
+        MemoryBudget.add(MemoryBudget.BUFFERS, -600);
+        Assert.assertEquals(0, MemoryBudget.getUsage(MemoryBudget.BUFFERS));
+        Assert.assertTrue(MemoryBudget.getPeak(MemoryBudget.BUFFERS) >= 600);
+        Assert.assertFalse(MemoryBudget.isExceeded());
+    }
+
+    @Test
+    public void accounts() {
+        MemoryBudget.Account account = MemoryBudget.register("test");
+        try {
+            Assert.assertTrue(MemoryBudget.getAccounts().contains(account));
+            account.set(2048);
+            account.evicted(1024);
+            account.evicted(512);
+            Assert.assertEquals(2048, account.getBytes());
+            Assert.assertEquals(2, account.getEvictedTiles());
+            Assert.assertEquals(1536, account.getEvictedBytes());
+        } finally {
+            MemoryBudget.unregister(account);
+        }
+        Assert.assertFalse(MemoryBudget.getAccounts().contains(account));
+    }
+
+    @Test
+    public void accountedExcess() {
+        MemoryBudget.LIMIT = 1000;
+        MemoryBudget.Account a = MemoryBudget.register("a");
+        MemoryBudget.Account b = MemoryBudget.register("b");
+        try {
+            a.set(800);
+            b.set(400);
+            MemoryBudget.add(MemoryBudget.BUFFERS, 1200);
+            Assert.assertEquals(1200, MemoryBudget.getAccountedUsage());
+            Assert.assertEquals(200, MemoryBudget.getAccountedExcess());
+
+            /* evicted, but buffers not yet released on the GL-Thread */
+            a.set(600);
+            Assert.assertEquals(200, MemoryBudget.getExcess());
+            Assert.assertEquals(0, MemoryBudget.getAccountedExcess());
+        } finally {
+            MemoryBudget.unregister(a);
+            MemoryBudget.unregister(b);
+        }
+        Assert.assertEquals(0, MemoryBudget.getAccountedUsage());
+    }
+
+    @Test
+    public void evictionScore() {
+        /* larger, farther and older items are evicted first */
+        Assert.assertTrue(MemoryBudget.evictionScore(2000, 1, 0)
+                > MemoryBudget.evictionScore(1000, 1, 0));
+        Assert.assertTrue(MemoryBudget.evictionScore(1000, 4, 0)
+                > MemoryBudget.evictionScore(1000, 1, 0));
+        Assert.assertTrue(MemoryBudget.evictionScore(1000, 1, 10000)
+                > MemoryBudget.evictionScore(1000, 1, 0));
+        /* a small tile far away goes before a large visible one */
+        Assert.assertTrue(MemoryBudget.evictionScore(1000, 8, 5000)
+                > MemoryBudget.evictionScore(4000, 0, 0));
+    }
+}
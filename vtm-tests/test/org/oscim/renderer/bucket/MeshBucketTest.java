@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.renderer.bucket;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.utils.Parameters;
+
+public class MeshBucketTest {
+
+    private static void addSquare(GeometryBuffer geom, float x, float y) {
+        geom.startPolygon();
+        geom.addPoint(x, y);
+        geom.addPoint(x + 10, y);
+        geom.addPoint(x + 10, y + 10);
+        geom.addPoint(x, y + 10);
+    }
+
+    @Test
+    public void shouldSkipOnlyPolygonsOverVertexLimit() {
+        GeometryBuffer geom = new GeometryBuffer(1 << 18, 8);
+        addSquare(geom, 0, 0);
+        /* crosses the 65536 vertex limit of short indices */
+        geom.startPolygon();
+        int n = 1 << 16;
+        for (int i = 0; i < n; i++) {
+            double a = 2 * Math.PI * i / n;
+            geom.addPoint((float) (100 + Math.cos(a) * 50), (float) (100 + Math.sin(a) * 50));
+        }
+        addSquare(geom, 200, 0);
+
+        boolean java = Parameters.JAVA_TESSELLATOR;
+        Parameters.JAVA_TESSELLATOR = true;
+        try {
+            MeshBucket bucket = new MeshBucket(0);
+            bucket.addMesh(geom);
+
+            /* the squares before and after the large polygon */
+            Assert.assertEquals(8, bucket.numVertices);
+            Assert.assertEquals(12, bucket.numIndices);
+        } finally {
+            Parameters.JAVA_TESSELLATOR = java;
+        }
+    }
+}
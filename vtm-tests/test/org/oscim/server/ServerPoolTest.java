@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ServerPoolTest {
+
+    private static ServerPool pool(String... urls) {
+        return new ServerPool(Arrays.asList(urls));
+    }
+
+    @Test
+    public void shouldComputePercentiles() {
+        ServerPool.Endpoint endpoint = pool("http://a").getEndpoints().get(0);
+        Assert.assertEquals(-1, endpoint.getLatencyPercentile(0.5));
+
+        for (int i = 100; i >= 1; i--)
+            endpoint.recordSuccess(i);
+
+        /* window holds the last 64 samples, 64..1 */
+        Assert.assertEquals(ServerPool.WINDOW, endpoint.getSampleCount());
+        Assert.assertEquals(32, endpoint.getLatencyPercentile(0.5));
+        Assert.assertEquals(61, endpoint.getLatencyPercentile(0.95));
+        Assert.assertEquals(64, endpoint.getLatencyPercentile(1));
+        Assert.assertEquals(0, endpoint.getErrorRate(), 0);
+
+        for (int i = 0; i < 16; i++)
+            endpoint.recordFailure();
+        Assert.assertEquals(0.25, endpoint.getErrorRate(), 1e-6);
+    }
+
+    @Test
+    public void shouldSelectFastestEndpoint() {
+        ServerPool pool = pool("http://slow", "http://fast");
+        ServerPool.Endpoint slow = pool.getEndpoints().get(0);
+        ServerPool.Endpoint fast = pool.getEndpoints().get(1);
+
+        /* endpoints without statistics are tried first */
+        for (int i = 0; i < ServerPool.MIN_SAMPLES; i++)
+            slow.recordSuccess(200);
+        Assert.assertSame(fast, pool.select());
+
+        for (int i = 0; i < ServerPool.MIN_SAMPLES; i++)
+            fast.recordSuccess(20);
+
+        int toSlow = 0;
+        for (int i = 0; i < 10 * ServerPool.EXPLORE_INTERVAL; i++) {
+            if (pool.select() == slow)
+                toSlow++;
+        }
+        /* only exploring requests */
+        Assert.assertTrue(toSlow > 0);
+        Assert.assertTrue(toSlow <= 10);
+
+        Assert.assertSame(slow, pool.selectHedge(fast));
+        Assert.assertEquals(20, pool.getHedgeDelay(fast));
+        Assert.assertEquals(200, pool.getHedgeDelay(slow));
+    }
+
+    @Test
+    public void shouldWeightErrors() {
+        ServerPool pool = pool("http://a", "http://b");
+        ServerPool.Endpoint a = pool.getEndpoints().get(0);
+        ServerPool.Endpoint b = pool.getEndpoints().get(1);
+        for (int i = 0; i < ServerPool.MIN_SAMPLES; i++) {
+            a.recordSuccess(20);
+            b.recordSuccess(30);
+        }
+        /* a fails every second request */
+        for (int i = 0; i < ServerPool.MIN_SAMPLES; i++) {
+            a.recordFailure();
+            a.recordSuccess(20);
+        }
+        Assert.assertSame(b, pool.select());
+    }
+
+    @Test
+    public void shouldOpenCircuit() throws InterruptedException {
+        ServerPool pool = pool("http://a", "http://b");
+        pool.setOpenTime(100);
+        ServerPool.Endpoint a = pool.getEndpoints().get(0);
+        ServerPool.Endpoint b = pool.getEndpoints().get(1);
+
+        for (int i = 0; i < ServerPool.FAILURE_THRESHOLD; i++) {
+            Assert.assertFalse(a.isOpen());
+            a.recordFailure();
+        }
+        Assert.assertTrue(a.isOpen());
+        Assert.assertNull(pool.selectHedge(b));
+        for (int i = 0; i < 2 * ServerPool.EXPLORE_INTERVAL; i++)
+            Assert.assertSame(b, pool.select());
+
+        /* all open: the one closing first */
+        for (int i = 0; i < ServerPool.FAILURE_THRESHOLD; i++)
+            b.recordFailure();
+        Assert.assertSame(a, pool.select());
+
+        /* half open: a single probe, failing it opens the circuit again */
+        Thread.sleep(150);
+        Assert.assertSame(a, pool.selectHedge(b));
+        Assert.assertNull(pool.selectHedge(b));
+        a.recordFailure();
+        Assert.assertTrue(a.isOpen());
+
+        /* a successful probe closes it */
+        Thread.sleep(150);
+        Assert.assertSame(a, pool.selectHedge(b));
+        a.recordSuccess(10);
+        Assert.assertFalse(a.isOpen());
+        Assert.assertSame(a, pool.selectHedge(b));
+    }
+
+    @Test
+    public void shouldSendSingleProbeFromConcurrentRequests() throws InterruptedException {
+        final ServerPool pool = pool("http://a", "http://b");
+        pool.setOpenTime(50);
+        final ServerPool.Endpoint a = pool.getEndpoints().get(0);
+        final ServerPool.Endpoint b = pool.getEndpoints().get(1);
+        for (int i = 0; i < ServerPool.FAILURE_THRESHOLD; i++)
+            a.recordFailure();
+        Thread.sleep(100);
+
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger probes = new AtomicInteger();
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < 1000; j++) {
+                        if (pool.selectHedge(b) == a)
+                            probes.incrementAndGet();
+                    }
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers)
+            worker.join();
+
+        Assert.assertEquals(1, probes.get());
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.theme.rule;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.Tag;
+import org.oscim.core.TagSet;
+import org.oscim.theme.rule.Rule.Element;
+import org.oscim.theme.styles.AreaStyle;
+import org.oscim.theme.styles.LineStyle;
+
+public class RuleFilterTest {
+
+    private static TagSet tags(String... kv) {
+        TagSet tags = new TagSet();
+        for (int i = 0; i < kv.length; i += 2)
+            tags.add(new Tag(kv[i], kv[i + 1]));
+        return tags;
+    }
+
+    private static Rule[] rules(RuleBuilder... builders) {
+        int[] level = new int[1];
+        Rule[] rules = new Rule[builders.length];
+        for (int i = 0; i < builders.length; i++)
+            rules[i] = builders[i].onComplete(level);
+        return rules;
+    }
+
+    @Test
+    public void shouldAcceptTagsOfRulesWithStyles() {
+        RuleFilter filter = new RuleFilter(rules(
+                RuleBuilder.create("highway", "primary|secondary")
+                        .element(Element.LINE)
+                        .zoom((byte) 8, (byte) 20)
+                        .rules(RuleBuilder.create("tunnel", "~|no")
+                                .style(LineStyle.builder().strokeWidth(2))),
+                RuleBuilder.create("natural", null)
+                        .element(Element.POLY)
+                        .style(AreaStyle.builder().color(0xff00ff00)),
+                /* no styles */
+                RuleBuilder.create("landuse", "forest")));
+
+        TagSet primary = tags("highway", "primary", "name", "Main");
+        Assert.assertTrue(filter.accept(GeometryType.LINE, primary, 10));
+        Assert.assertTrue(filter.accept(GeometryType.NONE, primary, 10));
+        Assert.assertFalse(filter.accept(GeometryType.LINE, primary, 5));
+        Assert.assertFalse(filter.accept(GeometryType.POLY, primary, 10));
+        Assert.assertFalse(filter.accept(GeometryType.LINE, tags("highway", "track"), 10));
+
+        Assert.assertTrue(filter.accept(GeometryType.POLY, tags("natural", "water"), 2));
+        Assert.assertFalse(filter.accept(GeometryType.POINT, tags("natural", "peak"), 14));
+        Assert.assertFalse(filter.accept(GeometryType.POLY, tags("landuse", "forest"), 14));
+    }
+
+    @Test
+    public void shouldAcceptAllBelowRulesWithoutTags() {
+        RuleFilter filter = new RuleFilter(rules(
+                RuleBuilder.create("building", "~|no")
+                        .zoom((byte) 16, (byte) 20)
+                        .style(AreaStyle.builder().color(0xff888888)),
+                RuleBuilder.create(null, "water")
+                        .style(AreaStyle.builder().color(0xff0000ff))));
+
+        Assert.assertTrue(filter.accept(GeometryType.POLY, tags("amenity", "bench"), 17));
+        Assert.assertFalse(filter.accept(GeometryType.POLY, tags("amenity", "bench"), 12));
+        Assert.assertTrue(filter.accept(GeometryType.POLY, tags("natural", "water"), 12));
+        Assert.assertTrue(filter.accept(GeometryType.TRIS, tags("amenity", "bench"), 12));
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.Tile;
+import org.oscim.tiling.ITileCache.Metadata;
+import org.oscim.tiling.ITileCache.TileWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+public class TileCacheCodecTest {
+
+    private static byte[] readAll(InputStream is) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[1000];
+        int n;
+        while ((n = is.read(buf)) >= 0)
+            out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    private byte[] testTile() throws IOException {
+        return readAll(getClass().getResourceAsStream("/mvt-test.pbf"));
+    }
+
+    private static byte[] decode(TileCacheCodec codec, byte[] entry) throws IOException {
+        return readAll(codec.decode(new ByteArrayInputStream(entry)));
+    }
+
+    /**
+     * Tiles sharing the keys and values of a vocabulary, with random
+     * coordinates.
+     */
+    private static List<byte[]> vocabularyTiles(int count, Random random) {
+        String[] words = {"highway", "residential", "primary", "building", "yes",
+                "landuse", "forest", "waterway", "river", "name", "amenity", "parking"};
+        List<byte[]> tiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int j = 0; j < 20; j++) {
+                byte[] word = words[random.nextInt(words.length)].getBytes();
+                out.write(word, 0, word.length);
+                out.write(random.nextInt(256));
+            }
+            tiles.add(out.toByteArray());
+        }
+        return tiles;
+    }
+
+    @Test
+    public void shouldCompressTiles() throws IOException {
+        byte[] tile = testTile();
+        TileCacheCodec codec = new TileCacheCodec(6);
+
+        byte[] entry = codec.encode(tile, 0, tile.length);
+        Assert.assertTrue(entry.length < tile.length * 0.8);
+        Assert.assertArrayEquals(tile, decode(codec, entry));
+
+        /* without dictionary, also read by other codecs */
+        Assert.assertArrayEquals(tile, decode(TileCacheCodec.NONE, entry));
+    }
+
+    @Test
+    public void shouldReadRawEntries() throws IOException {
+        byte[] tile = testTile();
+        TileCacheCodec codec = new TileCacheCodec(6);
+
+        Assert.assertSame(tile, TileCacheCodec.NONE.encode(tile, 0, tile.length));
+        Assert.assertArrayEquals(tile, decode(codec, tile));
+
+        byte[] small = {1, 2, 3};
+        Assert.assertArrayEquals(small, decode(codec, small));
+        Assert.assertArrayEquals(new byte[0], decode(codec, new byte[0]));
+    }
+
+    @Test
+    public void shouldStoreIncompressibleTilesRaw() throws IOException {
+        byte[] tile = new byte[5000];
+        new Random(1).nextBytes(tile);
+        TileCacheCodec codec = new TileCacheCodec(9);
+
+        byte[] entry = codec.encode(tile, 0, tile.length);
+        Assert.assertArrayEquals(tile, entry);
+        Assert.assertArrayEquals(tile, decode(codec, entry));
+    }
+
+    @Test
+    public void shouldNormalizeGzipTiles() throws IOException {
+        byte[] tile = testTile();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        GZIPOutputStream os = new GZIPOutputStream(gzip);
+        os.write(tile);
+        os.close();
+        byte[] gzipped = gzip.toByteArray();
+
+        TileCacheCodec codec = new TileCacheCodec(6);
+        byte[] entry = codec.encode(gzipped, 0, gzipped.length);
+        Assert.assertTrue(entry.length < gzipped.length);
+        Assert.assertArrayEquals(tile, decode(codec, entry));
+
+        /* gzip entries stored as received */
+        Assert.assertArrayEquals(tile, decode(TileCacheCodec.NONE, gzipped));
+    }
+
+    @Test
+    public void shouldUseDictionary() throws IOException {
+        Random random = new Random(2);
+        byte[] dictionary = TileCacheCodec.trainDictionary(vocabularyTiles(50, random), 4096);
+        Assert.assertTrue(dictionary.length > 0);
+        Assert.assertTrue(dictionary.length <= 4096);
+
+        TileCacheCodec plain = new TileCacheCodec(6);
+        TileCacheCodec trained = new TileCacheCodec(6, dictionary);
+        int plainSize = 0, trainedSize = 0;
+        for (byte[] tile : vocabularyTiles(50, random)) {
+            byte[] entry = trained.encode(tile, 0, tile.length);
+            Assert.assertArrayEquals(tile, decode(trained, entry));
+            trainedSize += entry.length;
+            plainSize += plain.encode(tile, 0, tile.length).length;
+        }
+        Assert.assertTrue(trainedSize < plainSize * 0.8);
+
+        /* entries of a dictionary can not be read without it */
+        byte[] tile = testTile();
+        byte[] entry = trained.encode(tile, 0, tile.length);
+        try {
+            decode(plain, entry);
+            Assert.fail();
+        } catch (IOException e) {
+            /* expected */
+        }
+        try {
+            decode(new TileCacheCodec(6, new byte[]{1, 2, 3}), entry);
+            Assert.fail();
+        } catch (IOException e) {
+            /* expected */
+        }
+    }
+
+    @Test
+    public void shouldEncodeOnComplete() throws IOException {
+        final ByteArrayOutputStream stored = new ByteArrayOutputStream();
+        final boolean[] completed = new boolean[1];
+        TileWriter writer = new TileWriter() {
+            @Override
+            public Tile getTile() {
+                return null;
+            }
+
+            @Override
+            public OutputStream getOutputStream() {
+                return stored;
+            }
+
+            @Override
+            public void setMetadata(Metadata metadata) {
+            }
+
+            @Override
+            public void complete(boolean success) {
+                completed[0] = success;
+            }
+        };
+        TileCacheCodec codec = new TileCacheCodec(6);
+        Assert.assertSame(writer, TileCacheCodec.NONE.wrap(writer));
+
+        byte[] tile = testTile();
+        TileWriter encoding = codec.wrap(writer);
+        encoding.getOutputStream().write(tile);
+        Assert.assertEquals(0, stored.size());
+        encoding.complete(true);
+
+        Assert.assertTrue(completed[0]);
+        Assert.assertTrue(stored.size() < tile.length);
+        Assert.assertArrayEquals(tile, decode(codec, stored.toByteArray()));
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.server.ServerPool;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.NioHttp.NioHttpFactory;
+import org.oscim.tiling.source.oscimap4.OSciMap4TileSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+public class NioHttpTest {
+
+    /**
+     * Minimal HTTP/1.1 server answering "tile " + path for each request,
+     * in the order the requests arrive on a connection.
+     */
+    static class StubServer {
+        final ServerSocket socket;
+        final AtomicInteger connections = new AtomicInteger();
+        final List<String> paths = Collections.synchronizedList(new ArrayList<String>());
+
+        volatile boolean gzip;
+        volatile boolean chunked;
+        /* write responses in pieces of this size */
+        volatile int split;
+        /* close connections without notice after this many responses */
+        volatile int closeAfter;
+        volatile int latency;
+
+        StubServer() throws IOException {
+            socket = new ServerSocket(0);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            final Socket s = socket.accept();
+                            connections.incrementAndGet();
+                            new Thread() {
+                                @Override
+                                public void run() {
+                                    serve(s);
+                                }
+                            }.start();
+                        }
+                    } catch (IOException e) {
+                        /* closed */
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String url() {
+            return "http://localhost:" + socket.getLocalPort() + "/tiles/vtm";
+        }
+
+        void serve(Socket s) {
+            try {
+                InputStream in = s.getInputStream();
+                OutputStream out = s.getOutputStream();
+                for (int n = 1; ; n++) {
+                    String path = readRequest(in);
+                    if (path == null)
+                        break;
+                    paths.add(path);
+                    if (latency > 0)
+                        Thread.sleep(latency);
+                    write(out, response(path));
+                    if (closeAfter > 0 && n == closeAfter)
+                        break;
+                }
+            } catch (Exception e) {
+                /* closed */
+            } finally {
+                try {
+                    s.close();
+                } catch (IOException e) {
+                    /* ignore */
+                }
+            }
+        }
+
+        private static String readRequest(InputStream in) throws IOException {
+            String request = null;
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) >= 0) {
+                if (c == '\r')
+                    continue;
+                if (c != '\n') {
+                    line.append((char) c);
+                    continue;
+                }
+                if (line.length() == 0)
+                    return request;
+                if (request == null)
+                    request = line.toString().split(" ")[1];
+                line.setLength(0);
+            }
+            return null;
+        }
+
+        private byte[] response(String path) throws IOException {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            boolean found = !path.contains("404");
+            byte[] content = ("tile " + path).getBytes();
+            if (gzip && found) {
+                GZIPOutputStream os = new GZIPOutputStream(body);
+                os.write(content);
+                os.close();
+            } else {
+                body.write(content);
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append(found ? "HTTP/1.1 200 OK\r\n" : "HTTP/1.1 404 Not Found\r\n");
+            if (gzip && found)
+                sb.append("Content-Encoding: gzip\r\n");
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (chunked) {
+                sb.append("Transfer-Encoding: chunked\r\n\r\n");
+                out.write(sb.toString().getBytes());
+                byte[] b = body.toByteArray();
+                for (int pos = 0; pos < b.length; pos += 5) {
+                    int len = Math.min(5, b.length - pos);
+                    out.write((Integer.toHexString(len) + "\r\n").getBytes());
+                    out.write(b, pos, len);
+                    out.write("\r\n".getBytes());
+                }
+                out.write("0\r\n\r\n".getBytes());
+            } else {
+                sb.append("Content-Length: ").append(body.size()).append("\r\n\r\n");
+                out.write(sb.toString().getBytes());
+                body.writeTo(out);
+            }
+            return out.toByteArray();
+        }
+
+        private void write(OutputStream out, byte[] data) throws Exception {
+            if (split <= 0) {
+                out.write(data);
+                out.flush();
+                return;
+            }
+            for (int pos = 0; pos < data.length; pos += split) {
+                out.write(data, pos, Math.min(split, data.length - pos));
+                out.flush();
+                Thread.sleep(1);
+            }
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private StubServer server;
+    private OSciMap4TileSource tileSource;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        tileSource = new OSciMap4TileSource(server.url());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    private static String read(HttpEngine engine) throws IOException {
+        InputStream is = engine.read();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[256];
+        int n;
+        while ((n = is.read(buf)) > 0)
+            out.write(buf, 0, n);
+        engine.requestCompleted(true);
+        return out.toString();
+    }
+
+    private static String path(int x, int y, int z) {
+        return "/tiles/vtm/" + z + "/" + x + "/" + y + ".vtm";
+    }
+
+    @Test
+    public void shouldLoadTile() throws Exception {
+        HttpEngine engine = new NioHttpFactory(2, 4).create(tileSource);
+        engine.sendRequest(new Tile(1, 2, (byte) 3));
+
+        Assert.assertEquals("tile " + path(1, 2, 3), read(engine));
+        Assert.assertEquals(path(1, 2, 3), server.paths.get(0));
+    }
+
+    @Test
+    public void shouldPipelineRequests() throws Exception {
+        NioHttpFactory factory = new NioHttpFactory(1, 4);
+        HttpEngine engine = factory.create(tileSource);
+        for (int i = 0; i < 12; i++)
+            engine.sendRequest(new Tile(i, 0, (byte) 5));
+
+        for (int i = 0; i < 12; i++)
+            Assert.assertEquals("tile " + path(i, 0, 5), read(engine));
+
+        Assert.assertEquals(1, server.connections.get());
+        Assert.assertEquals(1, factory.getClient().getOpenedConnections());
+        Assert.assertEquals(12, factory.getClient().getSentRequests());
+    }
+
+    @Test
+    public void shouldShareConnections() throws Exception {
+        NioHttpFactory factory = new NioHttpFactory(2, 4);
+        HttpEngine[] engines = new HttpEngine[4];
+        for (int i = 0; i < engines.length; i++) {
+            engines[i] = factory.create(tileSource);
+            engines[i].sendRequest(new Tile(i, 1, (byte) 5));
+            engines[i].sendRequest(new Tile(i, 2, (byte) 5));
+        }
+        for (int i = 0; i < engines.length; i++) {
+            Assert.assertEquals("tile " + path(i, 1, 5), read(engines[i]));
+            Assert.assertEquals("tile " + path(i, 2, 5), read(engines[i]));
+        }
+        Assert.assertTrue(server.connections.get() <= 2);
+    }
+
+    @Test
+    public void shouldInflateChunkedGzip() throws Exception {
+        server.gzip = true;
+        server.chunked = true;
+        server.split = 7;
+
+        HttpEngine engine = new NioHttpFactory(1, 4).create(tileSource);
+        for (int i = 0; i < 4; i++)
+            engine.sendRequest(new Tile(i, 3, (byte) 7));
+        for (int i = 0; i < 4; i++)
+            Assert.assertEquals("tile " + path(i, 3, 7), read(engine));
+    }
+
+    @Test
+    public void shouldRetryClosedConnections() throws Exception {
+        server.closeAfter = 3;
+
+        HttpEngine engine = new NioHttpFactory(2, 4).create(tileSource);
+        for (int i = 0; i < 16; i++)
+            engine.sendRequest(new Tile(i, 4, (byte) 8));
+        for (int i = 0; i < 16; i++)
+            Assert.assertEquals("tile " + path(i, 4, 8), read(engine));
+
+        Assert.assertTrue(server.connections.get() >= 6);
+    }
+
+    @Test
+    public void shouldFailOnHttpError() throws Exception {
+        HttpEngine engine = new NioHttpFactory(1, 4).create(tileSource);
+        engine.sendRequest(new Tile(404, 0, (byte) 10));
+        engine.sendRequest(new Tile(1, 0, (byte) 10));
+        try {
+            engine.read();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().contains("404"));
+        }
+        Assert.assertFalse(engine.requestCompleted(false));
+
+        /* connection is kept */
+        Assert.assertEquals("tile " + path(1, 0, 10), read(engine));
+        Assert.assertEquals(1, server.connections.get());
+    }
+
+    @Test
+    public void shouldCancelRequests() throws Exception {
+        server.latency = 500;
+
+        HttpEngine engine = new NioHttpFactory(1, 4).create(tileSource);
+        engine.sendRequest(new Tile(1, 1, (byte) 10));
+        engine.close();
+        long start = System.currentTimeMillis();
+        try {
+            engine.read();
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(System.currentTimeMillis() - start < 500);
+        }
+
+        /* still usable */
+        engine.sendRequest(new Tile(2, 1, (byte) 10));
+        Assert.assertEquals("tile " + path(2, 1, 10), read(engine));
+    }
+
+    @Test
+    public void shouldLoadBatch() throws Exception {
+        HttpEngine engine = new NioHttpFactory(1, 4).create(tileSource);
+        final List<String> decoded = Collections.synchronizedList(new ArrayList<String>());
+        ITileDecoder decoder = new ITileDecoder() {
+            @Override
+            public boolean decode(Tile tile, ITileDataSink sink, InputStream is) throws IOException {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int c;
+                while ((c = is.read()) >= 0)
+                    out.write(c);
+                decoded.add(out.toString());
+                return true;
+            }
+        };
+        UrlTileDataSource dataSource = new UrlTileDataSource(tileSource, decoder, engine);
+        Assert.assertTrue(dataSource.isPipelining());
+
+        int count = 4;
+        MapTile[] tiles = new MapTile[count];
+        final QueryResult[] results = new QueryResult[count];
+        ITileDataSink[] sinks = new ITileDataSink[count];
+        for (int i = 0; i < count; i++) {
+            tiles[i] = new MapTile(i, 5, 9);
+            final int index = i;
+            sinks[i] = new ITileDataSink() {
+                @Override
+                public void process(MapElement element) {
+                }
+
+                @Override
+                public void setTileImage(Bitmap bitmap) {
+                }
+
+                @Override
+                public void completed(QueryResult result) {
+                    results[index] = result;
+                }
+            };
+        }
+        dataSource.query(tiles, sinks, count);
+
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(QueryResult.SUCCESS, results[i]);
+            Assert.assertEquals("tile " + path(i, 5, 9), decoded.get(i));
+        }
+    }
+
+    private OSciMap4TileSource pooledTileSource(ServerPool pool) {
+        OSciMap4TileSource tileSource = new OSciMap4TileSource(server.url());
+        tileSource.setServerPool(pool);
+        return tileSource;
+    }
+
+    private static String deadUrl() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        socket.close();
+        return "http://localhost:" + socket.getLocalPort() + "/tiles/vtm";
+    }
+
+    @Test
+    public void shouldHedgeSlowRequests() throws Exception {
+        StubServer fast = new StubServer();
+        server.latency = 1000;
+        ServerPool pool = new ServerPool(Arrays.asList(server.url(), fast.url()));
+        pool.setHedgeDelay(20, 50);
+        ServerPool.Endpoint slow = pool.getEndpoints().get(0);
+
+        HttpEngine engine = new NioHttpFactory(2, 4).create(pooledTileSource(pool));
+        long start = System.currentTimeMillis();
+        engine.sendRequest(new Tile(1, 2, (byte) 3));
+        Assert.assertEquals("tile " + path(1, 2, 3), read(engine));
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 500);
+        Assert.assertEquals(1, server.paths.size());
+        Assert.assertEquals(1, fast.paths.size());
+        /* canceled request counts as latency, not as failure */
+        Assert.assertEquals(1, slow.getSampleCount());
+        Assert.assertEquals(0, slow.getErrorRate(), 0);
+        fast.close();
+    }
+
+    @Test
+    public void shouldRouteToFastServer() throws Exception {
+        StubServer fast = new StubServer();
+        server.latency = 30;
+        ServerPool pool = new ServerPool(Arrays.asList(server.url(), fast.url()));
+        pool.setHedgeDelay(1000, 1000);
+
+        HttpEngine engine = new NioHttpFactory(2, 4).create(pooledTileSource(pool));
+        for (int i = 0; i < 20; i++) {
+            engine.sendRequest(new Tile(i, 0, (byte) 6));
+            Assert.assertEquals("tile " + path(i, 0, 6), read(engine));
+        }
+        int slowRequests = server.paths.size();
+        for (int i = 0; i < 40; i++) {
+            engine.sendRequest(new Tile(i, 1, (byte) 6));
+            Assert.assertEquals("tile " + path(i, 1, 6), read(engine));
+        }
+        /* only exploring requests go to the slow server */
+        Assert.assertTrue(server.paths.size() - slowRequests <= 40 / ServerPool.EXPLORE_INTERVAL);
+        fast.close();
+    }
+
+    @Test
+    public void shouldCutOffFailingServer() throws Exception {
+        ServerPool pool = new ServerPool(Arrays.asList(deadUrl(), server.url()));
+        ServerPool.Endpoint dead = pool.getEndpoints().get(0);
+
+        HttpEngine engine = new NioHttpFactory(2, 4).create(pooledTileSource(pool));
+        for (int i = 0; i < 10; i++) {
+            engine.sendRequest(new Tile(i, 0, (byte) 6));
+            /* failed requests are sent to the other server at once */
+            Assert.assertEquals("tile " + path(i, 0, 6), read(engine));
+        }
+        Assert.assertEquals(10, server.paths.size());
+        /* tried once, then avoided */
+        Assert.assertEquals(1, dead.getErrorRate(), 0);
+        Assert.assertEquals(0, dead.getSampleCount());
+    }
+
+    @Test
+    public void shouldReleaseCanceledProbe() throws Exception {
+        server.latency = 500;
+        ServerPool pool = new ServerPool(Arrays.asList(server.url(), deadUrl()));
+        pool.setOpenTime(50);
+        ServerPool.Endpoint probed = pool.getEndpoints().get(0);
+        ServerPool.Endpoint other = pool.getEndpoints().get(1);
+        for (int i = 0; i < ServerPool.FAILURE_THRESHOLD; i++) {
+            probed.recordFailure();
+            other.recordFailure();
+        }
+        Thread.sleep(100);
+
+        /* half open, the request is the probe */
+        HttpEngine engine = new NioHttpFactory(2, 4).create(pooledTileSource(pool));
+        engine.sendRequest(new Tile(1, 1, (byte) 10));
+        Assert.assertNull(pool.selectHedge(other));
+
+        engine.close();
+        Assert.assertSame(probed, pool.selectHedge(other));
+    }
+}
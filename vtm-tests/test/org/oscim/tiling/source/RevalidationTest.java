@@ -0,0 +1,511 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileCache;
+import org.oscim.tiling.ITileCache.Metadata;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.NioHttp.NioHttpFactory;
+import org.oscim.tiling.source.oscimap4.OSciMap4TileSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RevalidationTest {
+
+    /**
+     * HTTP/1.1 server answering "tile v" + version + path with an ETag of
+     * the version, and 304 when If-None-Match matches it.
+     */
+    static class StubServer {
+        final ServerSocket socket;
+        /* request line and If-None-Match of each request */
+        final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+
+        volatile int version = 1;
+        volatile int maxAge;
+        /* sent instead of max-age when set */
+        volatile String cacheControl;
+        /* 304 without Cache-Control */
+        volatile boolean bareNotModified;
+        volatile boolean error;
+
+        StubServer() throws IOException {
+            socket = new ServerSocket(0);
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            final Socket s = socket.accept();
+                            new Thread() {
+                                @Override
+                                public void run() {
+                                    serve(s);
+                                }
+                            }.start();
+                        }
+                    } catch (IOException e) {
+                        /* closed */
+                    }
+                }
+            };
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String url() {
+            return "http://localhost:" + socket.getLocalPort() + "/tiles/vtm";
+        }
+
+        void serve(Socket s) {
+            try {
+                InputStream in = s.getInputStream();
+                OutputStream out = s.getOutputStream();
+                while (true) {
+                    String path = null;
+                    String ifNoneMatch = null;
+                    StringBuilder line = new StringBuilder();
+                    int c;
+                    while ((c = in.read()) >= 0) {
+                        if (c == '\r')
+                            continue;
+                        if (c != '\n') {
+                            line.append((char) c);
+                            continue;
+                        }
+                        if (line.length() == 0)
+                            break;
+                        String l = line.toString();
+                        if (path == null)
+                            path = l.split(" ")[1];
+                        else if (l.startsWith("If-None-Match: "))
+                            ifNoneMatch = l.substring(15);
+                        line.setLength(0);
+                    }
+                    if (c < 0)
+                        break;
+                    requests.add(path + " " + ifNoneMatch);
+
+                    String eTag = "\"v" + version + "\"";
+                    StringBuilder sb = new StringBuilder();
+                    byte[] body = new byte[0];
+                    boolean notModified = false;
+                    if (error) {
+                        sb.append("HTTP/1.1 500 Internal Server Error\r\n");
+                    } else if (eTag.equals(ifNoneMatch)) {
+                        sb.append("HTTP/1.1 304 Not Modified\r\n");
+                        notModified = true;
+                    } else {
+                        sb.append("HTTP/1.1 200 OK\r\n");
+                        body = ("tile v" + version + " " + path).getBytes();
+                    }
+                    sb.append("ETag: ").append(eTag).append("\r\n");
+                    if (cacheControl != null)
+                        sb.append("Cache-Control: ").append(cacheControl).append("\r\n");
+                    else if (!(notModified && bareNotModified))
+                        sb.append("Cache-Control: max-age=").append(maxAge).append("\r\n");
+                    if (body.length > 0 || error)
+                        sb.append("Content-Length: ").append(body.length).append("\r\n");
+                    sb.append("\r\n");
+                    out.write(sb.toString().getBytes());
+                    out.write(body);
+                    out.flush();
+                }
+            } catch (Exception e) {
+                /* closed */
+            } finally {
+                try {
+                    s.close();
+                } catch (IOException e) {
+                    /* ignore */
+                }
+            }
+        }
+
+        void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    static class MemoryCache implements ITileCache {
+        final Map<Tile, byte[]> data = Collections.synchronizedMap(new HashMap<Tile, byte[]>());
+        final Map<Tile, Metadata> metadata = Collections.synchronizedMap(new HashMap<Tile, Metadata>());
+
+        @Override
+        public void dispose() {
+        }
+
+        @Override
+        public TileWriter writeTile(final Tile tile) {
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            return new TileWriter() {
+                Metadata mMetadata;
+
+                @Override
+                public Tile getTile() {
+                    return tile;
+                }
+
+                @Override
+                public OutputStream getOutputStream() {
+                    return os;
+                }
+
+                @Override
+                public void setMetadata(Metadata metadata) {
+                    mMetadata = metadata;
+                }
+
+                @Override
+                public void complete(boolean success) {
+                    if (!success)
+                        return;
+                    Tile key = new Tile(tile.tileX, tile.tileY, tile.zoomLevel);
+                    data.put(key, os.toByteArray());
+                    metadata.put(key, mMetadata);
+                }
+            };
+        }
+
+        @Override
+        public TileReader getTile(final Tile tile) {
+            final byte[] bytes = data.get(tile);
+            if (bytes == null)
+                return null;
+            final Metadata m = metadata.get(tile);
+            return new TileReader() {
+                final InputStream is = new ByteArrayInputStream(bytes);
+
+                @Override
+                public Tile getTile() {
+                    return tile;
+                }
+
+                @Override
+                public InputStream getInputStream() {
+                    return is;
+                }
+
+                @Override
+                public Metadata getMetadata() {
+                    return m;
+                }
+            };
+        }
+
+        @Override
+        public void setCacheSize(long size) {
+        }
+
+        @Override
+        public void updateMetadata(Tile tile, Metadata m) {
+            metadata.put(new Tile(tile.tileX, tile.tileY, tile.zoomLevel), m);
+        }
+
+        String get(Tile tile) {
+            byte[] bytes = data.get(tile);
+            return bytes == null ? null : new String(bytes);
+        }
+    }
+
+    static class Sink implements ITileDataSink {
+        QueryResult result;
+
+        @Override
+        public void process(MapElement element) {
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+            this.result = result;
+        }
+    }
+
+    private StubServer server;
+    private MemoryCache cache;
+    private UrlTileSource tileSource;
+    private final List<String> decoded = Collections.synchronizedList(new ArrayList<String>());
+
+    private final ITileDecoder decoder = new ITileDecoder() {
+        @Override
+        public boolean decode(Tile tile, ITileDataSink sink, InputStream is) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int c;
+            while ((c = is.read()) >= 0)
+                out.write(c);
+            decoded.add(out.toString());
+            return true;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubServer();
+        cache = new MemoryCache();
+        tileSource = new OSciMap4TileSource(server.url());
+        tileSource.setCache(cache);
+        tileSource.setHttpEngine(new NioHttpFactory(2, 4));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+    }
+
+    private UrlTileDataSource dataSource() {
+        return new UrlTileDataSource(tileSource, decoder, tileSource.getHttpEngine());
+    }
+
+    private QueryResult query(UrlTileDataSource dataSource, MapTile tile) {
+        Sink sink = new Sink();
+        dataSource.query(tile, sink);
+        return sink.result;
+    }
+
+    private static String body(int version, MapTile tile) {
+        return "tile v" + version + " /tiles/vtm/" + tile.zoomLevel + "/"
+                + tile.tileX + "/" + tile.tileY + ".vtm";
+    }
+
+    @Test
+    public void shouldStoreMetadata() throws Exception {
+        server.maxAge = 3600;
+        UrlTileDataSource dataSource = dataSource();
+        Assert.assertTrue(dataSource.isConditional());
+
+        MapTile tile = new MapTile(1, 2, 3);
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(body(1, tile), cache.get(tile));
+
+        Metadata metadata = cache.metadata.get(tile);
+        Assert.assertEquals("\"v1\"", metadata.eTag);
+        Assert.assertTrue(metadata.expires >= now + 3600 * 1000);
+        Assert.assertTrue(metadata.expires < now + 3610 * 1000);
+
+        /* fresh tiles are used without request */
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(1, server.requests.size());
+        Assert.assertEquals(body(1, tile), decoded.get(1));
+    }
+
+    @Test
+    public void shouldRevalidateExpiredTiles() throws Exception {
+        UrlTileDataSource dataSource = dataSource();
+        MapTile tile = new MapTile(1, 2, 3);
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+
+        /* not modified */
+        server.maxAge = 3600;
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals("/tiles/vtm/3/1/2.vtm \"v1\"", server.requests.get(1));
+        Assert.assertEquals(body(1, tile), decoded.get(1));
+        Assert.assertFalse(cache.metadata.get(tile).isExpired(System.currentTimeMillis()));
+
+        /* modified */
+        cache.updateMetadata(tile, new Metadata("\"v1\"", null, 1));
+        server.version = 2;
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(3, server.requests.size());
+        Assert.assertEquals(body(2, tile), decoded.get(2));
+        Assert.assertEquals(body(2, tile), cache.get(tile));
+        Assert.assertEquals("\"v2\"", cache.metadata.get(tile).eTag);
+    }
+
+    @Test
+    public void shouldKeepLifetimeWithoutMaxAge() throws Exception {
+        server.maxAge = 3600;
+        UrlTileDataSource dataSource = dataSource();
+        MapTile tile = new MapTile(1, 2, 3);
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(3600 * 1000, cache.metadata.get(tile).lifetime);
+
+        /* 304 without Cache-Control renews the previous lifetime */
+        cache.updateMetadata(tile, new Metadata("\"v1\"", null, 1, 3600 * 1000));
+        server.bareNotModified = true;
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(2, server.requests.size());
+        Assert.assertEquals(body(1, tile), decoded.get(1));
+
+        Metadata metadata = cache.metadata.get(tile);
+        Assert.assertEquals("\"v1\"", metadata.eTag);
+        Assert.assertTrue(metadata.expires >= now + 3600 * 1000);
+        Assert.assertTrue(metadata.expires < now + 3610 * 1000);
+        Assert.assertEquals(3600 * 1000, metadata.lifetime);
+    }
+
+    @Test
+    public void shouldRenewExpiry() {
+        long now = 1000000;
+        Metadata cached = new Metadata("\"a\"", null, 1, 60000);
+        Assert.assertEquals(now + 60000, cached.revalidated(null, now).expires);
+        Assert.assertEquals(now + 60000, cached.revalidated(new Metadata("\"a\"", null, 0), now).expires);
+
+        /* expiry of the response */
+        Metadata revalidated = cached.revalidated(new Metadata(null, null, now + 1000, 1000), now);
+        Assert.assertEquals("\"a\"", revalidated.eTag);
+        Assert.assertEquals(now + 1000, revalidated.expires);
+        Assert.assertEquals(1000, revalidated.lifetime);
+
+        /* tiles without expiry stay so */
+        Assert.assertEquals(0, new Metadata("\"a\"", null, 0).revalidated(null, now).expires);
+    }
+
+    @Test
+    public void shouldNotStoreNoStore() throws Exception {
+        server.cacheControl = "private, no-store";
+        UrlTileDataSource dataSource = dataSource();
+        MapTile tile = new MapTile(1, 2, 3);
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(body(1, tile), decoded.get(0));
+        Assert.assertNull(cache.get(tile));
+    }
+
+    @Test
+    public void shouldRevalidateBatch() throws Exception {
+        UrlTileDataSource dataSource = dataSource();
+        int count = 4;
+        MapTile[] tiles = new MapTile[count];
+        Sink[] sinks = new Sink[count];
+        for (int i = 0; i < count; i++) {
+            tiles[i] = new MapTile(i, 5, 9);
+            sinks[i] = new Sink();
+        }
+        dataSource.query(tiles, sinks, count);
+
+        /* two tiles modified */
+        server.version = 2;
+        for (int i = 0; i < 2; i++)
+            cache.updateMetadata(tiles[i], new Metadata("\"v2\"", null, 1));
+
+        decoded.clear();
+        dataSource.query(tiles, sinks, count);
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals(QueryResult.SUCCESS, sinks[i].result);
+            Assert.assertEquals(body(i < 2 ? 1 : 2, tiles[i]), decoded.get(i));
+            Assert.assertEquals(body(i < 2 ? 1 : 2, tiles[i]), cache.get(tiles[i]));
+        }
+    }
+
+    @Test
+    public void shouldUseStaleTileOnError() throws Exception {
+        UrlTileDataSource dataSource = dataSource();
+        MapTile tile = new MapTile(1, 2, 3);
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+
+        server.error = true;
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(2, server.requests.size());
+        Assert.assertEquals(body(1, tile), decoded.get(1));
+
+        server.close();
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(body(1, tile), decoded.get(2));
+    }
+
+    @Test
+    public void shouldRevalidateInBackground() throws Exception {
+        tileSource.setStaleWhileRevalidate(true);
+        UrlTileDataSource dataSource = dataSource();
+        MapTile tile = new MapTile(1, 2, 3);
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+
+        /* stale tile is used, then replaced */
+        server.version = 2;
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(body(1, tile), decoded.get(1));
+        awaitRevalidation();
+        Assert.assertEquals(2, server.requests.size());
+        Assert.assertEquals("/tiles/vtm/3/1/2.vtm \"v1\"", server.requests.get(1));
+        Assert.assertEquals(body(2, tile), cache.get(tile));
+        Assert.assertEquals("\"v2\"", cache.metadata.get(tile).eTag);
+
+        /* not modified */
+        server.maxAge = 3600;
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(body(2, tile), decoded.get(2));
+        awaitRevalidation();
+        Assert.assertEquals("/tiles/vtm/3/1/2.vtm \"v2\"", server.requests.get(2));
+        Assert.assertEquals(body(2, tile), cache.get(tile));
+        Assert.assertFalse(cache.metadata.get(tile).isExpired(System.currentTimeMillis()));
+
+        Assert.assertEquals(QueryResult.SUCCESS, query(dataSource, tile));
+        Assert.assertEquals(3, server.requests.size());
+    }
+
+    private void awaitRevalidation() throws InterruptedException {
+        for (int i = 0; i < 500 && !tileSource.getRevalidator().isIdle(); i++)
+            Thread.sleep(10);
+        Assert.assertTrue(tileSource.getRevalidator().isIdle());
+    }
+
+    @Test
+    public void shouldParseCacheHeaders() {
+        long now = 1000000;
+        CacheHeaders headers = new CacheHeaders();
+        Assert.assertNull(headers.getMetadata(now));
+
+        headers.parse("ETag", "\"a\"");
+        Assert.assertEquals(0, headers.getMetadata(now).expires);
+
+        headers.parse("Cache-Control", "public, max-age=60");
+        Assert.assertEquals(now + 60000, headers.getMetadata(now).expires);
+        Assert.assertEquals(60000, headers.getMetadata(now).lifetime);
+        Assert.assertFalse(headers.isNoStore());
+
+        headers.parse("Cache-Control", "no-cache");
+        Assert.assertTrue(headers.getMetadata(now).isExpired(now));
+        Assert.assertFalse(headers.isNoStore());
+
+        headers.parse("Cache-Control", "max-age=60, No-Store");
+        Assert.assertTrue(headers.isNoStore());
+
+        /* relative to the server date */
+        headers.clear();
+        headers.parse("Date", "Sun, 06 Nov 1994 08:49:37 GMT");
+        headers.parse("Expires", "Sun, 06 Nov 1994 09:49:37 GMT");
+        Metadata metadata = headers.getMetadata(now);
+        Assert.assertNull(metadata.eTag);
+        Assert.assertEquals(now + 3600 * 1000, metadata.expires);
+
+        headers.parse("Expires", "0");
+        Assert.assertTrue(headers.getMetadata(now).isExpired(now));
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPOutputStream;
+
+public class TileArchiveTest {
+
+    private static String read(InputStream is) throws IOException {
+        if (is == null)
+            return null;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[256];
+        int n;
+        while ((n = is.read(buf)) >= 0)
+            out.write(buf, 0, n);
+        is.close();
+        return new String(out.toByteArray(), TileArchive.UTF8);
+    }
+
+    private static void varint(ByteArrayOutputStream out, long v) {
+        while (v >= 0x80) {
+            out.write((int) (v & 0x7f) | 0x80);
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    /**
+     * @param entries tile id, run length, offset, length per entry
+     */
+    private static byte[] directory(long[][] entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        varint(out, entries.length);
+        long last = 0;
+        for (long[] e : entries) {
+            varint(out, e[0] - last);
+            last = e[0];
+        }
+        for (long[] e : entries)
+            varint(out, e[1]);
+        for (long[] e : entries)
+            varint(out, e[3]);
+        for (int i = 0; i < entries.length; i++) {
+            boolean next = i > 0 && entries[i][2] == entries[i - 1][2] + entries[i - 1][3];
+            varint(out, next ? 0 : entries[i][2] + 1);
+        }
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        GZIPOutputStream os = new GZIPOutputStream(gz);
+        os.write(out.toByteArray());
+        os.close();
+        return gz.toByteArray();
+    }
+
+    /**
+     * Zoom levels 0-2: one entry for all tiles of zoom level 1, a leaf
+     * directory for zoom level 2 without tile 7.
+     */
+    private static File writePMTiles() throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        data.write("world".getBytes(TileArchive.UTF8));
+        data.write("same".getBytes(TileArchive.UTF8));
+
+        long[][] leaf = new long[15][];
+        for (int id = 5, i = 0; id <= 20; id++) {
+            if (id == 7)
+                continue;
+            byte[] tile = ("t" + id).getBytes(TileArchive.UTF8);
+            leaf[i++] = new long[]{id, 1, data.size(), tile.length};
+            data.write(tile);
+        }
+        byte[] leafDir = directory(leaf);
+        byte[] rootDir = directory(new long[][]{
+                {0, 1, 0, 5},
+                {1, 4, 5, 4},
+                {5, 0, 0, leafDir.length}});
+
+        ByteBuffer h = ByteBuffer.allocate(PMTilesArchive.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        h.put(PMTilesArchive.MAGIC.getBytes(TileArchive.UTF8));
+        h.put((byte) PMTilesArchive.VERSION);
+        long offset = PMTilesArchive.HEADER_SIZE;
+        h.putLong(8, offset);
+        h.putLong(16, rootDir.length);
+        offset += rootDir.length;
+        h.putLong(24, offset);
+        h.putLong(40, offset);
+        h.putLong(48, leafDir.length);
+        offset += leafDir.length;
+        h.putLong(56, offset);
+        h.putLong(64, data.size());
+        h.put(97, (byte) PMTilesArchive.COMPRESSION_GZIP);
+        h.put(98, (byte) PMTilesArchive.COMPRESSION_NONE);
+        h.put(99, (byte) PMTilesArchive.TYPE_MVT);
+        h.put(100, (byte) 0);
+        h.put(101, (byte) 2);
+
+        File file = File.createTempFile("archive", ".pmtiles");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(h.array());
+        out.write(rootDir);
+        out.write(leafDir);
+        out.write(data.toByteArray());
+        out.close();
+        return file;
+    }
+
+    @Test
+    public void shouldComputeHilbertTileIds() {
+        Assert.assertEquals(0, PMTilesArchive.getTileId(0, 0, 0));
+        Assert.assertEquals(1, PMTilesArchive.getTileId(1, 0, 0));
+        Assert.assertEquals(2, PMTilesArchive.getTileId(1, 0, 1));
+        Assert.assertEquals(3, PMTilesArchive.getTileId(1, 1, 1));
+        Assert.assertEquals(4, PMTilesArchive.getTileId(1, 1, 0));
+        Assert.assertEquals(5, PMTilesArchive.getTileId(2, 0, 0));
+        Assert.assertEquals(20, PMTilesArchive.getTileId(2, 3, 0));
+        Assert.assertEquals(21, PMTilesArchive.getTileId(3, 0, 0));
+    }
+
+    @Test
+    public void shouldReadPMTiles() throws IOException {
+        TileArchive archive = TileArchive.open(writePMTiles());
+        try {
+            Assert.assertTrue(archive instanceof PMTilesArchive);
+            Assert.assertEquals(TileArchive.FORMAT_PBF, archive.getFormat());
+            Assert.assertEquals(2, archive.getZoomMax());
+
+            Assert.assertEquals("world", read(archive.getTile(0, 0, 0)));
+            Assert.assertEquals("same", read(archive.getTile(1, 0, 0)));
+            Assert.assertEquals("same", read(archive.getTile(1, 1, 0)));
+            for (int x = 0; x < 4; x++) {
+                for (int y = 0; y < 4; y++) {
+                    long id = PMTilesArchive.getTileId(2, x, y);
+                    Assert.assertEquals(id == 7 ? null : "t" + id, read(archive.getTile(2, x, y)));
+                }
+            }
+            Assert.assertNull(archive.getTile(3, 0, 0));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void shouldReadMBTiles() throws Exception {
+        File file = new File(getClass().getResource("/archive-test.mbtiles").toURI());
+        TileArchive archive = TileArchive.open(file);
+        try {
+            Assert.assertTrue(archive instanceof MBTilesArchive);
+            Assert.assertEquals(TileArchive.FORMAT_PNG, archive.getFormat());
+            Assert.assertEquals(3, archive.getZoomMax());
+            Assert.assertEquals(-180, archive.getBounds().getMinLongitude(), 1e-6);
+
+            for (int z = 0; z <= 3; z++) {
+                for (int x = 0; x < 1 << z; x++) {
+                    for (int y = 0; y < 1 << z; y++) {
+                        String tile = "tile " + z + "/" + x + "/" + y;
+                        if (z == 3 && x == 2 && y == 5) {
+                            StringBuilder sb = new StringBuilder();
+                            for (int i = 0; i < 200; i++)
+                                sb.append(tile);
+                            tile = sb.toString();
+                        }
+                        /* 2/1/1 is gzipped */
+                        Assert.assertEquals(tile, read(archive.getTile(z, x, y)));
+                    }
+                }
+            }
+            Assert.assertNull(archive.getTile(4, 0, 0));
+        } finally {
+            archive.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreInvalidZoomLevels() {
+        Assert.assertEquals(14, MBTilesArchive.parseZoom(" 14 ", 0));
+        Assert.assertEquals(0, MBTilesArchive.parseZoom(null, 0));
+        Assert.assertEquals(0, MBTilesArchive.parseZoom("", 0));
+        Assert.assertEquals(20, MBTilesArchive.parseZoom("14.5", 20));
+        Assert.assertEquals(20, MBTilesArchive.parseZoom("max", 20));
+    }
+
+    @Test
+    public void shouldReadDeduplicatedMBTiles() throws Exception {
+        File file = new File(getClass().getResource("/archive-test-dedup.mbtiles").toURI());
+        TileArchive archive = TileArchive.open(file);
+        try {
+            Assert.assertEquals(TileArchive.FORMAT_PBF, archive.getFormat());
+            StringBuilder land = new StringBuilder();
+            for (int i = 0; i < 300; i++)
+                land.append("land");
+
+            for (int x = 0; x < 8; x++) {
+                for (int y = 0; y < 8; y++) {
+                    /* rows of the map table are TMS */
+                    int row = 7 - y;
+                    String tile = (x + row) % 3 == 0 ? land.toString() : "sea";
+                    Assert.assertEquals(tile, read(archive.getTile(3, x, y)));
+                }
+            }
+        } finally {
+            archive.close();
+        }
+    }
+}
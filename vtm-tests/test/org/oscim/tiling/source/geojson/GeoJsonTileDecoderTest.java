@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.geojson;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.MapElement;
+import org.oscim.core.Tag;
+import org.oscim.core.Tile;
+import org.oscim.theme.RenderTheme;
+import org.oscim.theme.rule.Rule;
+import org.oscim.theme.rule.RuleBuilder;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.QueryResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class GeoJsonTileDecoderTest {
+
+    private static final String JSON = "{\"type\":\"FeatureCollection\",\"features\":["
+            + "{\"type\":\"Feature\",\"id\":1,\"bbox\":[0,0,1,1],"
+            + "\"properties\":{\"unused\":{\"geometry\":{\"type\":\"Point\"}},"
+            + "\"highway\":\"primary\",\"lanes\":2,\"name\":\"Main\",\"tags\":[1,[2]]},"
+            + "\"geometry\":{\"type\":\"LineString\",\"crs\":{\"type\":\"name\"},"
+            + "\"coordinates\":[[0,0],[10,10]]}},"
+            + "{\"type\":\"Feature\",\"geometry\":{\"type\":\"Point\",\"coordinates\":[10,10]},"
+            + "\"properties\":{\"highway\":\"bus_stop\"}}]}";
+
+    private static final class TestTileSource extends GeoJsonTileSource {
+        final List<String> keys = new ArrayList<>();
+
+        TestTileSource() {
+            super("http://localhost");
+        }
+
+        @Override
+        public void decodeTags(MapElement mapElement, Map<String, Object> properties) {
+            for (Map.Entry<String, Object> e : properties.entrySet()) {
+                keys.add(e.getKey());
+                mapElement.tags.add(new Tag(e.getKey(), String.valueOf(e.getValue())));
+            }
+        }
+    }
+
+    private static List<MapElement> decode(TestTileSource tileSource) throws Exception {
+        final List<MapElement> elements = new ArrayList<>();
+        ITileDataSink sink = new ITileDataSink() {
+            @Override
+            public void process(MapElement element) {
+                elements.add(new MapElement(element));
+            }
+
+            @Override
+            public void setTileImage(Bitmap bitmap) {
+            }
+
+            @Override
+            public void completed(QueryResult result) {
+            }
+        };
+        new GeoJsonTileDecoder(tileSource).decode(new Tile(0, 0, (byte) 0), sink,
+                new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8)));
+        return elements;
+    }
+
+    @Test
+    public void shouldSkipUnusedProperties() throws Exception {
+        TestTileSource tileSource = new TestTileSource();
+        List<MapElement> elements = decode(tileSource);
+        Assert.assertEquals(2, elements.size());
+        Assert.assertEquals("[highway, lanes, name, highway]", tileSource.keys.toString());
+
+        MapElement line = elements.get(0);
+        Assert.assertEquals(GeometryType.LINE, line.type);
+        Assert.assertEquals(2, line.getNumPoints());
+        Assert.assertEquals(Tile.SIZE / 2f, line.getPointX(0), 1e-3);
+        Assert.assertEquals(GeometryType.POINT, elements.get(1).type);
+
+        Set<String> keys = new HashSet<>();
+        keys.add("highway");
+        keys.add("name");
+        tileSource.keys.clear();
+        tileSource.setPropertyKeys(keys);
+        elements = decode(tileSource);
+        Assert.assertEquals(2, elements.size());
+        Assert.assertEquals("[highway, name, highway]", tileSource.keys.toString());
+        Assert.assertEquals("Main", elements.get(0).tags.getValue("name"));
+    }
+
+    @Test
+    public void shouldCollectThemeKeys() {
+        RuleBuilder highway = RuleBuilder.create("highway", "primary|secondary")
+                .rules(RuleBuilder.create("tunnel", "~|no"),
+                        RuleBuilder.create("bridge|ford", null));
+        Rule[] rules = {highway.onComplete(new int[1])};
+        Set<String> keys = new RenderTheme(0, 1, rules, 1).getKeys();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("highway", "tunnel", "bridge", "ford")), keys);
+
+        rules = new Rule[]{RuleBuilder.create("kind", null)
+                .rules(RuleBuilder.create(null, "urban")).onComplete(new int[1])};
+        Assert.assertEquals(Collections.singleton("kind"), new RenderTheme(0, 1, rules, 1).getKeys());
+
+        rules = new Rule[]{RuleBuilder.create(null, "water").onComplete(new int[1])};
+        Assert.assertNull(new RenderTheme(0, 1, rules, 1).getKeys());
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.MercatorProjection;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.TileSource;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+import javax.imageio.ImageIO;
+
+public class HillshadeTest {
+
+    private static final int SIZE = 121;
+
+    /**
+     * Elevation rising by 10m per sample to the east, samples are 30
+     * arc seconds apart.
+     */
+    private static short elevation(int col, int row) {
+        return (short) (col * 10);
+    }
+
+    private static File tempDir() throws IOException {
+        File dir = Files.createTempDirectory("dem").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static void write(File file, byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(data);
+        out.close();
+        file.deleteOnExit();
+    }
+
+    private static File writeHgt(File dir, String name) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(SIZE * SIZE * 2);
+        for (int row = 0; row < SIZE; row++)
+            for (int col = 0; col < SIZE; col++)
+                buf.putShort(elevation(col, row));
+        File file = new File(dir, name);
+        write(file, buf.array());
+        return file;
+    }
+
+    /**
+     * Little endian GeoTIFF with two strips, pixel is point at 47N 11E.
+     */
+    private static File writeGeoTiff(File dir) throws IOException {
+        int entries = 10;
+        int ifd = 8;
+        int data = ifd + 2 + entries * 12 + 4;
+        int scale = data;
+        int tiepoint = scale + 3 * 8;
+        int keys = tiepoint + 6 * 8;
+        int offsets = keys + 8 * 2;
+        int pixels = offsets + 2 * 4;
+        int rowsPerStrip = (SIZE + 1) / 2;
+
+        ByteBuffer buf = ByteBuffer.allocate(pixels + SIZE * SIZE * 2);
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        buf.put((byte) 'I').put((byte) 'I').putShort((short) 42).putInt(ifd);
+
+        buf.putShort((short) entries);
+        entry(buf, 256, 3, 1, SIZE);
+        entry(buf, 257, 3, 1, SIZE);
+        entry(buf, 258, 3, 1, 16);
+        entry(buf, 259, 3, 1, 1);
+        entry(buf, 273, 4, 2, offsets);
+        entry(buf, 278, 3, 1, rowsPerStrip);
+        entry(buf, 339, 3, 1, 2);
+        entry(buf, 33550, 12, 3, scale);
+        entry(buf, 33922, 12, 6, tiepoint);
+        entry(buf, 34735, 3, 8, keys);
+        buf.putInt(0);
+
+        double step = 1.0 / (SIZE - 1);
+        buf.putDouble(step).putDouble(step).putDouble(0);
+        buf.putDouble(0).putDouble(0).putDouble(0).putDouble(11).putDouble(48).putDouble(0);
+        /* GTRasterTypeGeoKey: RasterPixelIsPoint */
+        buf.putShort((short) 1).putShort((short) 1).putShort((short) 0).putShort((short) 1);
+        buf.putShort((short) 1025).putShort((short) 0).putShort((short) 1).putShort((short) 2);
+        buf.putInt(pixels).putInt(pixels + rowsPerStrip * SIZE * 2);
+
+        for (int row = 0; row < SIZE; row++)
+            for (int col = 0; col < SIZE; col++)
+                buf.putShort(elevation(col, row));
+
+        File file = new File(dir, "dem.tif");
+        write(file, buf.array());
+        return file;
+    }
+
+    private static void entry(ByteBuffer buf, int tag, int type, int count, int value) {
+        buf.putShort((short) tag).putShort((short) type).putInt(count);
+        if (type == 3 && count == 1)
+            buf.putShort((short) value).putShort((short) 0);
+        else
+            buf.putInt(value);
+    }
+
+    @Test
+    public void shouldReadHgt() throws IOException {
+        File dir = tempDir();
+        writeHgt(dir, "N47E011.hgt");
+        writeHgt(dir, "S01W001.hgt");
+        ElevationModel model = ElevationModel.open(dir);
+
+        double step = 1.0 / (SIZE - 1);
+        Assert.assertEquals(0, model.getElevation(47.5, 11), 0.01);
+        Assert.assertEquals(10, model.getElevation(47.5, 11 + step), 0.01);
+        Assert.assertEquals(15, model.getElevation(47.5, 11 + step * 1.5), 0.01);
+        Assert.assertEquals(1195, model.getElevation(47.5, 12 - step / 2), 0.01);
+        Assert.assertEquals(600, model.getElevation(-0.5, -0.5), 0.01);
+
+        /* not covered */
+        Assert.assertEquals(0, model.getElevation(46.5, 11.5), 0.01);
+        Assert.assertNull(model.find(46.5, 11.5));
+
+        Assert.assertEquals(-1, model.getBounds().getMinLatitude(), 1e-6);
+        Assert.assertEquals(12, model.getBounds().getMaxLongitude(), 1e-6);
+        model.close();
+    }
+
+    @Test
+    public void shouldReadGeoTiff() throws IOException {
+        File dir = tempDir();
+        writeGeoTiff(dir);
+        ElevationModel model = ElevationModel.open(dir);
+
+        double step = 1.0 / (SIZE - 1);
+        Assert.assertEquals(47, model.getBounds().getMinLatitude(), 1e-6);
+        Assert.assertEquals(12, model.getBounds().getMaxLongitude(), 1e-6);
+        Assert.assertEquals(10, model.getElevation(47.9, 11 + step), 0.01);
+        /* second strip */
+        Assert.assertEquals(15, model.getElevation(47.01, 11 + step * 1.5), 0.01);
+        Assert.assertEquals(1200, model.getElevation(47, 12), 0.01);
+        model.close();
+    }
+
+    @Test
+    public void shouldShadeSlopes() {
+        Hillshading shading = new Hillshading(315, 45, 1, 1);
+        int size = 4;
+        int n = size + 2;
+        float[] elevation = new float[n * n];
+        float[] shade = new float[size];
+        byte[] pixels = new byte[size * 4];
+
+        /* flat */
+        shading.shadeRow(elevation, 10, size, 1, shade);
+        shading.toPixels(shade, size, pixels, 0);
+        for (int i = 0; i < size; i++)
+            Assert.assertEquals(0, pixels[i * 4 + 3]);
+
+        /* rising to the east, facing the light from north west */
+        for (int i = 0; i < n * n; i++)
+            elevation[i] = (i % n) * 10;
+        shading.shadeRow(elevation, 10, size, 1, shade);
+        shading.toPixels(shade, size, pixels, 0);
+        Assert.assertTrue(shade[0] > 0);
+        Assert.assertEquals((byte) 255, pixels[0]);
+        Assert.assertTrue((pixels[3] & 0xff) > 0);
+
+        /* rising to the north, facing away */
+        for (int i = 0; i < n * n; i++)
+            elevation[i] = (n - i / n) * 10;
+        shading.shadeRow(elevation, 10, size, 1, shade);
+        shading.toPixels(shade, size, pixels, 0);
+        Assert.assertTrue(shade[0] < 0);
+        Assert.assertEquals(0, pixels[0]);
+        Assert.assertTrue((pixels[3] & 0xff) > 0);
+    }
+
+    @Test
+    public void shouldEncodePng() throws IOException {
+        int size = 16;
+        byte[] scanlines = new byte[size * (1 + size * 4)];
+        for (int row = 0; row < size; row++)
+            for (int col = 0; col < size; col++)
+                scanlines[row * (1 + size * 4) + 1 + col * 4 + 3] = (byte) (row * 16 + col);
+
+        byte[] png = new PngEncoder().encode(scanlines, size, size);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+
+        Assert.assertEquals(size, image.getWidth());
+        Assert.assertEquals(size, image.getHeight());
+        Assert.assertEquals(5 * 16 + 3, image.getRGB(3, 5) >>> 24);
+    }
+
+    @Test
+    public void shouldShadeTiles() throws IOException {
+        File dir = tempDir();
+        writeHgt(dir, "N47E011.hgt");
+
+        HillshadeTileSource tileSource = HillshadeTileSource.builder()
+                .demDirectory(dir.getPath())
+                .build();
+        Assert.assertEquals(TileSource.OpenResult.SUCCESS, tileSource.open());
+        HillshadeTileDataSource dataSource = (HillshadeTileDataSource) tileSource.getDataSource();
+
+        int z = 12;
+        int x = (int) MercatorProjection.longitudeToTileX(11.5, (byte) z);
+        int y = (int) MercatorProjection.latitudeToTileY(47.5, (byte) z);
+        byte[] png = dataSource.shade(new MapTile(x, y, z));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        Assert.assertEquals(tileSource.getTileSize(), image.getWidth());
+        /* slope lit from north west */
+        Assert.assertEquals(0xffffff, image.getRGB(128, 128) & 0xffffff);
+        Assert.assertTrue((image.getRGB(128, 128) >>> 24) > 0);
+
+        x = (int) MercatorProjection.longitudeToTileX(20, (byte) z);
+        Assert.assertNull(dataSource.shade(new MapTile(x, y, z)));
+
+        tileSource.close();
+    }
+}
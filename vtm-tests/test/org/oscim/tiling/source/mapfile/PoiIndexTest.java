@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.mapfile;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscim.core.BoundingBox;
+import org.oscim.core.Tag;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class PoiIndexTest {
+
+    private File mFile;
+    private PoiIndex mIndex;
+
+    private static List<Tag> tags(String name, String... categories) {
+        List<Tag> tags = new ArrayList<>();
+        if (name != null)
+            tags.add(new Tag(Tag.KEY_NAME, name));
+        for (String c : categories) {
+            String[] kv = c.split("=");
+            tags.add(new Tag(kv[0], kv[1]));
+        }
+        return tags;
+    }
+
+    private static String name(PointOfInterest poi) {
+        for (Tag tag : poi.tags) {
+            if (Tag.KEY_NAME.equals(tag.key))
+                return tag.value;
+        }
+        return null;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        PoiIndexBuilder builder = new PoiIndexBuilder().setGridSize(8);
+        builder.add(52520000, 13400000, tags("Café Einstein", "amenity=cafe"));
+        builder.add(52510000, 13390000, tags("Cafe Am Neuen See", "amenity=cafe"));
+        builder.add(48130000, 11570000, tags("Café Luitpold", "amenity=cafe"));
+        builder.add(52500000, 13380000, tags("Berliner Dom", "amenity=place_of_worship"));
+        builder.add(52530000, 13410000, tags(null, "amenity=bench"));
+        /* neither name nor category */
+        builder.add(52530000, 13410000, Collections.singletonList(new Tag(Tag.KEY_ELE, "12")));
+
+        mFile = File.createTempFile("poi", ".idx");
+        builder.write(mFile, 1234, 5678);
+        mIndex = PoiIndex.open(mFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mIndex.close();
+        mFile.delete();
+    }
+
+    @Test
+    public void prefix() {
+        Assert.assertEquals(5, mIndex.size());
+
+        List<PointOfInterest> pois = mIndex.search("caf", null, null, 10);
+        Assert.assertEquals(3, pois.size());
+        /* sorted by normalized name */
+        Assert.assertEquals("Cafe Am Neuen See", name(pois.get(0)));
+
+        Assert.assertEquals(1, mIndex.search("CAFÉ E", null, null, 10).size());
+        Assert.assertEquals(0, mIndex.search("x", null, null, 10).size());
+        Assert.assertEquals(2, mIndex.search("caf", null, null, 2).size());
+    }
+
+    @Test
+    public void categoryAndBoundingBox() {
+        BoundingBox berlin = new BoundingBox(52.3, 13.0, 52.7, 13.8);
+
+        Assert.assertEquals(3, mIndex.search(null, "amenity=cafe", null, 10).size());
+        Assert.assertEquals(2, mIndex.search(null, "amenity=cafe", berlin, 10).size());
+        Assert.assertEquals(2, mIndex.search("caf", "amenity=cafe", berlin, 10).size());
+        Assert.assertEquals(0, mIndex.search("berl", "amenity=cafe", null, 10).size());
+        Assert.assertEquals(4, mIndex.search(null, null, berlin, 10).size());
+        Assert.assertEquals(0, mIndex.search(null, "shop=bakery", null, 10).size());
+
+        Assert.assertEquals(Arrays.asList("amenity=bench", "amenity=cafe", "amenity=place_of_worship"),
+                mIndex.getCategories());
+    }
+
+    @Test
+    public void gridMatchesScan() throws IOException {
+        Random random = new Random(42);
+        PoiIndexBuilder builder = new PoiIndexBuilder().setGridSize(16);
+        int[][] points = new int[2000][2];
+        for (int i = 0; i < points.length; i++) {
+            points[i][0] = 47000000 + random.nextInt(8000000);
+            points[i][1] = 6000000 + random.nextInt(9000000);
+            builder.add(points[i][0], points[i][1], tags("poi " + i));
+        }
+        File file = File.createTempFile("poi", ".idx");
+        try {
+            builder.write(file, 0, 0);
+            PoiIndex index = PoiIndex.open(file);
+            for (int q = 0; q < 20; q++) {
+                int lat = 47000000 + random.nextInt(8000000);
+                int lon = 6000000 + random.nextInt(9000000);
+                BoundingBox bbox = new BoundingBox(lat, lon, lat + 1000000, lon + 2000000);
+                int expected = 0;
+                for (int[] p : points) {
+                    if (p[0] >= bbox.minLatitudeE6 && p[0] <= bbox.maxLatitudeE6
+                            && p[1] >= bbox.minLongitudeE6 && p[1] <= bbox.maxLongitudeE6)
+                        expected++;
+                }
+                Assert.assertEquals(expected, index.search(null, null, bbox, Integer.MAX_VALUE).size());
+            }
+            index.close();
+        } finally {
+            file.delete();
+        }
+    }
+}
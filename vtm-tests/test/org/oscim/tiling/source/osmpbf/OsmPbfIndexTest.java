@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.osmpbf;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.oscim.core.MapElement;
+import org.oscim.core.MercatorProjection;
+import org.oscim.core.Tag;
+import org.oscim.core.Tile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OsmPbfIndexTest {
+
+    private File mFile;
+    private OsmPbfIndex mIndex;
+
+    private static MapElement point(double lat, double lon, String name) {
+        MapElement e = new MapElement();
+        e.startPoints();
+        e.addPoint((float) lon, (float) lat);
+        e.tags.add(new Tag(Tag.KEY_NAME, name));
+        return e;
+    }
+
+    private static MapElement line(double lat1, double lon1, double lat2, double lon2, String name) {
+        MapElement e = new MapElement();
+        e.startLine();
+        e.addPoint((float) lon1, (float) lat1);
+        e.addPoint((float) lon2, (float) lat2);
+        e.tags.add(new Tag(Tag.KEY_NAME, name));
+        e.tags.add(new Tag(Tag.KEY_HIGHWAY, "primary"));
+        return e;
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        mFile = File.createTempFile("osm", ".idx");
+        OsmPbfIndex.Writer writer = new OsmPbfIndex.Writer(mFile);
+        try {
+            writer.process(point(52.52, 13.40, "Berlin"));
+            writer.process(point(48.13, 11.57, "München"));
+            /* Berlin to Hamburg */
+            writer.process(line(52.52, 13.40, 53.55, 9.99, "A24"));
+            writer.finish();
+        } finally {
+            writer.close();
+        }
+        mIndex = OsmPbfIndex.open(mFile);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mIndex.close();
+        mFile.delete();
+    }
+
+    private List<String> query(int z, double lat, double lon) {
+        Tile tile = new Tile(
+                MercatorProjection.longitudeToTileX(lon, (byte) z),
+                MercatorProjection.latitudeToTileY(lat, (byte) z), (byte) z);
+        final List<String> names = new ArrayList<>();
+        mIndex.query(tile, 0, new MapElement(), new OsmPbfIndex.Callback() {
+            @Override
+            public void process(MapElement e) {
+                names.add(e.tags.getValue(Tag.KEY_NAME));
+                if (e.isPoint()) {
+                    Assert.assertTrue(e.points[0] >= 0 && e.points[0] <= Tile.SIZE);
+                    Assert.assertTrue(e.points[1] >= 0 && e.points[1] <= Tile.SIZE);
+                }
+            }
+        });
+        return names;
+    }
+
+    @Test
+    public void queryTiles() {
+        Assert.assertEquals(3, mIndex.size());
+
+        List<String> names = query(0, 0, 0);
+        Assert.assertEquals(3, names.size());
+
+        names = query(14, 52.52, 13.40);
+        Assert.assertTrue(names.contains("Berlin"));
+        Assert.assertTrue(names.contains("A24"));
+        Assert.assertFalse(names.contains("München"));
+
+        names = query(14, 48.13, 11.57);
+        Assert.assertEquals(1, names.size());
+        Assert.assertEquals("München", names.get(0));
+
+        /* in the bbox of the line, but no point */
+        names = query(16, 53.0, 12.0);
+        Assert.assertTrue(names.contains("A24"));
+
+        names = query(16, 40.0, -3.7);
+        Assert.assertTrue(names.isEmpty());
+    }
+
+    @Test
+    public void tags() {
+        final List<MapElement> elements = new ArrayList<>();
+        mIndex.query(new Tile(0, 0, (byte) 0), 0, new MapElement(), new OsmPbfIndex.Callback() {
+            @Override
+            public void process(MapElement e) {
+                elements.add(new MapElement(e));
+            }
+        });
+        for (MapElement e : elements) {
+            if (e.isLine()) {
+                Assert.assertEquals("primary", e.tags.getValue(Tag.KEY_HIGHWAY));
+                Assert.assertEquals(2, e.getNumPoints());
+                return;
+            }
+        }
+        Assert.fail("line not found");
+    }
+}
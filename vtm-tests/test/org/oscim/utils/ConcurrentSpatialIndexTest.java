@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.Box;
+import org.oscim.core.Point;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentSpatialIndexTest {
+
+    static final class Position {
+        final int id;
+        final float x, y;
+
+        Position(int id, float x, float y) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+        }
+
+        Box box() {
+            return new Box(x, y, x, y);
+        }
+    }
+
+    private static Position random(int id, Random r) {
+        return new Position(id, r.nextFloat() * 1000, r.nextFloat() * 1000);
+    }
+
+    @Test
+    public void shouldInsertSearchAndRemove() {
+        ConcurrentSpatialIndex<Position> index = new ConcurrentSpatialIndex<>();
+        Random r = new Random(1);
+        Position[] positions = new Position[5000];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = random(i, r);
+            index.insert(positions[i].box(), positions[i]);
+        }
+        Assert.assertEquals(positions.length, index.size());
+
+        for (int i = 0; i < positions.length; i += 2)
+            Assert.assertTrue(index.remove(positions[i].box(), positions[i]));
+        Assert.assertFalse(index.remove(positions[0].box(), positions[0]));
+        Assert.assertEquals(positions.length / 2, index.size());
+
+        Box box = new Box(100, 100, 400, 300);
+        Set<Position> expected = new HashSet<>();
+        for (int i = 1; i < positions.length; i += 2) {
+            Position p = positions[i];
+            if (p.x >= 100 && p.x <= 400 && p.y >= 100 && p.y <= 300)
+                expected.add(p);
+        }
+        List<Position> result = index.search(box, new ArrayList<Position>());
+        Assert.assertEquals(expected.size(), result.size());
+        Assert.assertEquals(expected, new HashSet<>(result));
+
+        List<Position> nearest = index.searchKNearestNeighbors(new Point(500, 500), 5, 1000, null);
+        Assert.assertEquals(5, nearest.size());
+        double last = 0;
+        for (Position p : nearest) {
+            Assert.assertEquals(1, p.id % 2);
+            double d = (p.x - 500) * (p.x - 500) + (p.y - 500) * (p.y - 500);
+            Assert.assertTrue(d >= last);
+            last = d;
+        }
+        for (int i = 1; i < positions.length; i += 2) {
+            Position p = positions[i];
+            if (!nearest.contains(p))
+                Assert.assertTrue((p.x - 500) * (p.x - 500) + (p.y - 500) * (p.y - 500) >= last);
+        }
+
+        index.clear();
+        Assert.assertEquals(0, index.size());
+    }
+
+    /**
+     * Move items on one thread while others query the whole extent: each
+     * query must see one consistent snapshot.
+     */
+    @Test
+    public void shouldQueryWhileUpdating() throws InterruptedException {
+        final int numItems = 2000;
+        final int numUpdates = 50000;
+        final ConcurrentSpatialIndex<Position> index = new ConcurrentSpatialIndex<>();
+        final Position[] positions = new Position[numItems];
+        final Random r = new Random(2);
+        for (int i = 0; i < numItems; i++) {
+            positions[i] = random(i, r);
+            index.insert(positions[i].box(), positions[i]);
+        }
+
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> error = new AtomicReference<>();
+        final int[] queries = new int[4];
+
+        Thread[] readers = new Thread[queries.length];
+        for (int t = 0; t < readers.length; t++) {
+            final int reader = t;
+            readers[t] = new Thread() {
+                @Override
+                public void run() {
+                    Box all = new Box(-1, -1, 1001, 1001);
+                    Box part = new Box(200, 200, 600, 500);
+                    List<Position> result = new ArrayList<>();
+                    Set<Integer> ids = new HashSet<>();
+                    while (!done.get() && error.get() == null) {
+                        result.clear();
+                        ids.clear();
+                        index.search(all, result);
+                        for (Position p : result)
+                            ids.add(p.id);
+                        /* between remove and insert of an update one item is missing */
+                        if (ids.size() != result.size() || result.size() < numItems - 1)
+                            error.set("inconsistent snapshot: " + result.size() + " " + ids.size());
+
+                        result.clear();
+                        index.search(part, result);
+                        for (Position p : result) {
+                            if (p.x < 200 || p.x > 600 || p.y < 200 || p.y > 500)
+                                error.set("outside of box: " + p.x + " " + p.y);
+                        }
+                        queries[reader]++;
+                    }
+                }
+            };
+            readers[t].start();
+        }
+
+        for (int i = 0; i < numUpdates; i++) {
+            int id = r.nextInt(numItems);
+            Position p = positions[id];
+            Assert.assertTrue(index.remove(p.box(), p));
+            positions[id] = random(id, r);
+            index.insert(positions[id].box(), positions[id]);
+        }
+
+        done.set(true);
+        for (Thread t : readers)
+            t.join();
+
+        Assert.assertNull(error.get(), error.get());
+        Assert.assertEquals(numItems, index.size());
+        Assert.assertEquals(numItems, index.search(new Box(-1, -1, 1001, 1001),
+                new ArrayList<Position>()).size());
+        for (int q : queries)
+            Assert.assertTrue(q > 0);
+    }
+}
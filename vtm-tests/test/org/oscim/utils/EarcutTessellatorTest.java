@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.GeometryBuffer;
+import org.oscim.renderer.bucket.VertexData;
+
+import java.util.Random;
+
+public class EarcutTessellatorTest {
+
+    private static float ringArea(float[] points, int pos, int len) {
+        float sum = 0;
+        for (int i = pos, j = pos + len - 2; i < pos + len; j = i, i += 2)
+            sum += points[j] * points[i + 1] - points[i] * points[j + 1];
+        return sum / 2;
+    }
+
+    private static float trianglesArea(float[] points, int ppos, int[] ids, int cnt) {
+        float sum = 0;
+        for (int i = 0; i < cnt; i += 3) {
+            int a = ppos + ids[i] * 2, b = ppos + ids[i + 1] * 2, c = ppos + ids[i + 2] * 2;
+            sum += ((points[b] - points[a]) * (points[c + 1] - points[a + 1])
+                    - (points[c] - points[a]) * (points[b + 1] - points[a + 1])) / 2;
+        }
+        return sum;
+    }
+
+    /**
+     * Star shaped ring with n points, concave for odd points.
+     */
+    private static void addStar(GeometryBuffer g, float cx, float cy, float r, int n, boolean ccw) {
+        g.startHole();
+        for (int i = 0; i < n; i++) {
+            double a = (ccw ? 1 : -1) * 2 * Math.PI * i / n;
+            float d = (i & 1) == 0 ? r : r * 0.6f;
+            g.addPoint(cx + (float) (Math.cos(a) * d), cy + (float) (Math.sin(a) * d));
+        }
+    }
+
+    @Test
+    public void shouldTriangulateSquare() {
+        float[] points = {0, 0, 10, 0, 10, 10, 0, 10};
+        int[] index = {8, -1};
+        EarcutTessellator tess = new EarcutTessellator();
+
+        int cnt = tess.tessellate(points, 0, index, 0, 1);
+
+        Assert.assertEquals(6, cnt);
+        Assert.assertEquals(100, trianglesArea(points, 0, tess.getIndices(), cnt), 0.001);
+    }
+
+    @Test
+    public void shouldKeepWindingOfOuterRing() {
+        float[] ccw = {0, 0, 10, 0, 10, 10, 5, 5, 0, 10};
+        float[] cw = {0, 10, 5, 5, 10, 10, 10, 0, 0, 0};
+        int[] index = {10, -1};
+        EarcutTessellator tess = new EarcutTessellator();
+
+        int cnt = tess.tessellate(ccw, 0, index, 0, 1);
+        Assert.assertEquals(9, cnt);
+        Assert.assertEquals(ringArea(ccw, 0, 10), trianglesArea(ccw, 0, tess.getIndices(), cnt), 0.001);
+
+        cnt = tess.tessellate(cw, 0, index, 0, 1);
+        Assert.assertEquals(9, cnt);
+        Assert.assertEquals(ringArea(cw, 0, 10), trianglesArea(cw, 0, tess.getIndices(), cnt), 0.001);
+        Assert.assertTrue(ringArea(cw, 0, 10) < 0);
+    }
+
+    @Test
+    public void shouldBridgeHoles() {
+        GeometryBuffer g = new GeometryBuffer(1024, 16);
+        g.startPolygon();
+        g.addPoint(0, 0);
+        g.addPoint(100, 0);
+        g.addPoint(100, 100);
+        g.addPoint(0, 100);
+        addStar(g, 30, 30, 10, 10, false);
+        addStar(g, 70, 60, 15, 12, false);
+        g.startHole();
+        g.addPoint(70, 20);
+        g.addPoint(75, 20);
+        g.addPoint(75, 10);
+        g.addPoint(70, 10);
+
+        float expected = 0;
+        for (int i = 0, pos = 0; i < 4; pos += g.index[i++])
+            expected += Math.abs(ringArea(g.points, pos, g.index[i])) * (i == 0 ? 1 : -1);
+
+        EarcutTessellator tess = new EarcutTessellator();
+        int cnt = tess.tessellate(g.points, 0, g.index, 0, 4);
+
+        /* n + 2h - 2 triangles for n points and h holes */
+        Assert.assertEquals((4 + 10 + 12 + 4 + 2 * 3 - 2) * 3, cnt);
+        Assert.assertEquals(expected, trianglesArea(g.points, 0, tess.getIndices(), cnt), 0.01);
+    }
+
+    @Test
+    public void shouldTriangulateLargeRings() {
+        /* uses z-order hashing */
+        Random r = new Random(42);
+        for (int k = 0; k < 20; k++) {
+            GeometryBuffer g = new GeometryBuffer(4096, 16);
+            g.startPolygon();
+            int n = 100 + r.nextInt(500);
+            for (int i = 0; i < n; i++) {
+                double a = 2 * Math.PI * i / n;
+                float d = 200 + r.nextFloat() * 100;
+                g.addPoint(500 + (float) (Math.cos(a) * d), 500 + (float) (Math.sin(a) * d));
+            }
+            addStar(g, 500, 500, 100, 40, r.nextBoolean());
+
+            float expected = ringArea(g.points, 0, g.index[0])
+                    - Math.abs(ringArea(g.points, g.index[0], g.index[1]));
+
+            EarcutTessellator tess = EarcutTessellator.get();
+            int cnt = tess.tessellate(g.points, 0, g.index, 0, 2);
+
+            Assert.assertEquals((n + 40) * 3, cnt);
+            Assert.assertEquals(1, trianglesArea(g.points, 0, tess.getIndices(), cnt) / expected, 0.0001);
+        }
+    }
+
+    @Test
+    public void shouldSkipDegeneratePolygons() {
+        float[] points = {0, 0, 10, 0, 20, 0};
+        EarcutTessellator tess = new EarcutTessellator();
+
+        Assert.assertEquals(0, tess.tessellate(points, 0, new int[]{4, -1}, 0, 1));
+        Assert.assertEquals(0, tess.tessellate(points, 0, new int[]{6, -1}, 0, 1));
+    }
+
+    @Test
+    public void shouldMapIdsToExtrusionVertices() {
+        /* outer ring with an odd number of points gets two extra vertices */
+        float[] points = {0, 0, 10, 0, 10, 10, 12, 12, 10, 20, 0, 20, 0, 10,
+                2, 2, 2, 4, 4, 4, 4, 2};
+        int[] index = {14, 8, -1};
+
+        boolean java = Parameters.JAVA_TESSELLATOR;
+        Parameters.JAVA_TESSELLATOR = true;
+        try {
+            VertexData out = new VertexData();
+            int cnt = Tessellator.tessellate(points, 0, 11, index, 0, 2, 1, out);
+
+            Assert.assertEquals((11 + 2 - 2) * 3, cnt);
+            short[] indices = out.obtainChunk().vertices;
+            for (int i = 0; i < cnt; i++) {
+                int v = indices[i] - 1;
+                Assert.assertEquals(0, v & 1);
+                /* outer ring vertices 0..12, hole 16..22 */
+                Assert.assertTrue(v < 14 || (v >= 16 && v < 24));
+            }
+        } finally {
+            Parameters.JAVA_TESSELLATOR = java;
+        }
+    }
+}
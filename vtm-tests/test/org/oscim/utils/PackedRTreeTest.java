@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.Box;
+import org.oscim.core.Point;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+public class PackedRTreeTest {
+
+    private static final int NUM_ITEMS = 10000;
+
+    private final float[] mBoxes = new float[NUM_ITEMS * 4];
+    private final Integer[] mItems = new Integer[NUM_ITEMS];
+
+    public PackedRTreeTest() {
+        Random r = new Random(42);
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            float x = r.nextFloat() * 1000;
+            float y = r.nextFloat() * 1000;
+            mBoxes[i * 4] = x;
+            mBoxes[i * 4 + 1] = y;
+            mBoxes[i * 4 + 2] = x + r.nextFloat() * 10;
+            mBoxes[i * 4 + 3] = y + r.nextFloat() * 10;
+            mItems[i] = i;
+        }
+    }
+
+    private List<Integer> bruteForce(Box b) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            if (mItems[i] == null)
+                continue;
+            if (mBoxes[i * 4] <= b.xmax && mBoxes[i * 4 + 1] <= b.ymax
+                    && mBoxes[i * 4 + 2] >= b.xmin && mBoxes[i * 4 + 3] >= b.ymin)
+                result.add(i);
+        }
+        return result;
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        Collections.sort(list);
+        return list;
+    }
+
+    private static Box box(float[] boxes, int i) {
+        return new Box(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]);
+    }
+
+    private void assertSearch(PackedRTree<Integer> tree) {
+        Random r = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            double x = r.nextDouble() * 1000;
+            double y = r.nextDouble() * 1000;
+            Box b = new Box(x, y, x + r.nextDouble() * 100, y + r.nextDouble() * 100);
+            List<Integer> result = tree.search(b, new ArrayList<Integer>());
+            Assert.assertEquals(bruteForce(b), sorted(result));
+        }
+    }
+
+    @Test
+    public void shouldSearch() {
+        PackedRTree<Integer> tree = new PackedRTree<>();
+        tree.load(mBoxes, mItems, NUM_ITEMS);
+        Assert.assertEquals(NUM_ITEMS, tree.size());
+        assertSearch(tree);
+
+        List<Integer> all = tree.search(new Box(-1, -1, 2000, 2000), new ArrayList<Integer>());
+        Assert.assertEquals(NUM_ITEMS, new HashSet<>(all).size());
+    }
+
+    @Test
+    public void shouldInsertAndRemove() {
+        PackedRTree<Integer> tree = new PackedRTree<>(4);
+        for (int i = 0; i < NUM_ITEMS; i++)
+            tree.insert(box(mBoxes, i), mItems[i]);
+        assertSearch(tree);
+
+        for (int i = 0; i < NUM_ITEMS; i += 3) {
+            Assert.assertTrue(tree.remove(box(mBoxes, i), mItems[i]));
+            mItems[i] = null;
+        }
+        Assert.assertEquals(NUM_ITEMS - (NUM_ITEMS + 2) / 3, tree.size());
+        assertSearch(tree);
+
+        tree.clear();
+        Assert.assertEquals(0, tree.size());
+        Assert.assertTrue(tree.search(new Box(0, 0, 1000, 1000), new ArrayList<Integer>()).isEmpty());
+    }
+
+    @Test
+    public void shouldFindNearest() {
+        PackedRTree<Integer> tree = new PackedRTree<>();
+        tree.load(mBoxes, mItems, NUM_ITEMS);
+
+        Point p = new Point(500, 500);
+        List<Integer> nearest = tree.searchKNearestNeighbors(p, 10, Double.MAX_VALUE, null);
+        Assert.assertEquals(10, nearest.size());
+
+        /* farthest of the result is closer than every other item */
+        double max = 0;
+        for (Integer i : nearest)
+            max = Math.max(max, distance(i, p));
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            if (!nearest.contains(i))
+                Assert.assertTrue(distance(i, p) >= max);
+        }
+
+        Assert.assertTrue(tree.searchKNearestNeighbors(p, 10, 0.001, null).size() <= 10);
+    }
+
+    private double distance(int i, Point p) {
+        double dx = Math.max(Math.max(mBoxes[i * 4] - p.x, 0), p.x - mBoxes[i * 4 + 2]);
+        double dy = Math.max(Math.max(mBoxes[i * 4 + 1] - p.y, 0), p.y - mBoxes[i * 4 + 3]);
+        return dx * dx + dy * dy;
+    }
+
+    @Test
+    public void shouldReadWritten() throws IOException {
+        PackedRTree<Integer> tree = new PackedRTree<>();
+        tree.load(mBoxes, mItems, NUM_ITEMS);
+
+        File file = File.createTempFile("rtree", ".bin");
+        try {
+            tree.write(file);
+            PackedRTree<Integer> read = PackedRTree.read(file, mItems);
+            Assert.assertEquals(NUM_ITEMS, read.size());
+            assertSearch(read);
+        } finally {
+            file.delete();
+        }
+    }
+}
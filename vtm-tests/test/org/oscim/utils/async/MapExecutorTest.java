@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.async;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class MapExecutorTest {
+
+    private MapExecutor mExecutor;
+
+    @Before
+    public void setUp() {
+        mExecutor = new MapExecutor(1, null);
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.dispose();
+    }
+
+    /**
+     * Occupy the single thread until the latch is released.
+     */
+    private CountDownLatch block() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        mExecutor.post(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+        return latch;
+    }
+
+    private void await() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        mExecutor.submit(null, Integer.MAX_VALUE, new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private Runnable add(final List<String> list, final String s) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                list.add(s);
+            }
+        };
+    }
+
+    @Test
+    public void shouldRunByPriority() throws InterruptedException {
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        CountDownLatch latch = block();
+        mExecutor.submit(null, MapExecutor.PRIORITY_DECORATIONS, add(order, "decoration"));
+        mExecutor.submit(null, MapExecutor.PRIORITY_PATHS, add(order, "path1"));
+        mExecutor.submit(null, MapExecutor.PRIORITY_LABELS, add(order, "labels"));
+        mExecutor.submit(null, MapExecutor.PRIORITY_PATHS, add(order, "path2"));
+        Assert.assertEquals(4, mExecutor.getQueueSize());
+        latch.countDown();
+        await();
+
+        Assert.assertEquals("[labels, path1, path2, decoration]", order.toString());
+        Assert.assertTrue(mExecutor.getMaxLatency() > 0);
+    }
+
+    @Test
+    public void shouldCoalesce() throws InterruptedException {
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        Object key = new Object();
+        CountDownLatch latch = block();
+        for (int i = 0; i < 10; i++)
+            mExecutor.submit(key, MapExecutor.PRIORITY_LABELS, add(order, "labels" + i));
+        Assert.assertEquals(1, mExecutor.getQueueSize());
+        latch.countDown();
+        await();
+
+        Assert.assertEquals("[labels9]", order.toString());
+        Assert.assertEquals(9, mExecutor.getCoalescedCount());
+    }
+
+    @Test
+    public void shouldRunAfterRunning() throws InterruptedException {
+        final Object key = new Object();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean canceled = new AtomicBoolean();
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+        mExecutor.dispose();
+        mExecutor = new MapExecutor(2, null);
+        mExecutor.submit(key, MapExecutor.PRIORITY_LABELS, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                canceled.set(MapExecutor.isCanceled());
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        /* the running task finishes, only the latest runs after it */
+        for (int i = 0; i < 5; i++)
+            mExecutor.submit(key, MapExecutor.PRIORITY_LABELS, add(order, "labels" + i));
+        Assert.assertEquals(1, mExecutor.getQueueSize());
+        release.countDown();
+        long end = System.currentTimeMillis() + 5000;
+        while (order.isEmpty() && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+        await();
+
+        Assert.assertFalse(canceled.get());
+        Assert.assertEquals("[labels4]", order.toString());
+    }
+
+    @Test
+    public void shouldCancelRunning() throws InterruptedException {
+        final Object key = new Object();
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean canceled = new AtomicBoolean();
+        final AtomicInteger runs = new AtomicInteger();
+
+        mExecutor.dispose();
+        mExecutor = new MapExecutor(2, null);
+        mExecutor.submit(key, MapExecutor.PRIORITY_LABELS, new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                long end = System.currentTimeMillis() + 5000;
+                while (!MapExecutor.isCanceled() && System.currentTimeMillis() < end)
+                    Thread.yield();
+                canceled.set(MapExecutor.isCanceled());
+            }
+        });
+        Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        /* superseded, the next one runs after the first one */
+        mExecutor.cancel(key);
+        mExecutor.submit(key, MapExecutor.PRIORITY_LABELS, new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                Assert.assertFalse(MapExecutor.isCanceled());
+            }
+        });
+        await();
+        long end = System.currentTimeMillis() + 5000;
+        while (runs.get() == 0 && System.currentTimeMillis() < end)
+            Thread.sleep(1);
+
+        Assert.assertTrue(canceled.get());
+        Assert.assertEquals(1, runs.get());
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.async;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.oscim.core.MapPosition;
+import org.oscim.map.Map;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+public class SimpleWorkerTest {
+
+    /**
+     * Worker whose first run blocks until released and then polls
+     * {@link MapExecutor#isCanceled()}.
+     */
+    static class Worker extends SimpleWorker<int[]> {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final AtomicInteger canceled = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger cleaned = new AtomicInteger();
+
+        Worker(Map map) {
+            super(map, 0, new int[1], new int[1]);
+        }
+
+        @Override
+        public boolean doWork(int[] task) {
+            if (runs.incrementAndGet() == 1) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    return false;
+                }
+            }
+            if (MapExecutor.isCanceled()) {
+                canceled.incrementAndGet();
+                return false;
+            }
+            task[0] = runs.get();
+            return true;
+        }
+
+        @Override
+        public void cleanup(int[] task) {
+            task[0] = 0;
+            cleaned.incrementAndGet();
+        }
+
+        @Override
+        public void finish() {
+            finished.incrementAndGet();
+        }
+    }
+
+    private MapExecutor mExecutor;
+    private Map mMap;
+    private final AtomicInteger mZoomLevel = new AtomicInteger(10);
+
+    /**
+     * Map running main-loop tasks immediately and worker tasks on a single
+     * thread executor.
+     */
+    @Before
+    public void setUp() {
+        mExecutor = new MapExecutor(1, null);
+        mMap = Mockito.mock(Map.class);
+        when(mMap.getExecutor()).thenReturn(mExecutor);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                mExecutor.submit(args[0], (Integer) args[1], (Runnable) args[2]);
+                return null;
+            }
+        }).when(mMap).addTask(any(), anyInt(), any(Runnable.class));
+        when(mMap.getMapPosition(any(MapPosition.class))).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                ((MapPosition) invocation.getArguments()[0]).zoomLevel = mZoomLevel.get();
+                return true;
+            }
+        });
+        when(mMap.postDelayed(any(Runnable.class), anyLong())).thenAnswer(new Answer<Boolean>() {
+            @Override
+            public Boolean answer(InvocationOnMock invocation) {
+                ((Runnable) invocation.getArguments()[0]).run();
+                return true;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        mExecutor.dispose();
+    }
+
+    private static void awaitIdle(SimpleWorker<?> worker) throws InterruptedException {
+        for (int i = 0; i < 500 && worker.isRunning(); i++)
+            Thread.sleep(10);
+        Assert.assertFalse(worker.isRunning());
+    }
+
+    @Test
+    public void shouldFinishRunningWork() throws InterruptedException {
+        Worker worker = new Worker(mMap);
+
+        worker.submit(0);
+        Assert.assertTrue(worker.started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            worker.submit(0);
+            worker.submit(10);
+        }
+        worker.release.countDown();
+        awaitIdle(worker);
+
+        /* the running task finished, the submits run once after poll */
+        Assert.assertEquals(0, worker.canceled.get());
+        Assert.assertEquals(1, worker.runs.get());
+        Assert.assertEquals(1, worker.poll()[0]);
+
+        awaitIdle(worker);
+        Assert.assertEquals(2, worker.runs.get());
+        Assert.assertEquals(2, worker.poll()[0]);
+        awaitIdle(worker);
+        Assert.assertEquals(2, worker.runs.get());
+        Assert.assertNull(worker.poll());
+    }
+
+    @Test
+    public void shouldRestartSupersededWork() throws InterruptedException {
+        Worker worker = new Worker(mMap);
+
+        worker.submit(0);
+        Assert.assertTrue(worker.started.await(5, TimeUnit.SECONDS));
+        /* a new zoom level makes the running task useless */
+        mZoomLevel.set(11);
+        worker.submit(0);
+        worker.submit(0);
+        worker.release.countDown();
+        awaitIdle(worker);
+
+        /* the task of the canceled run was reset before the next run */
+        Assert.assertEquals(1, worker.canceled.get());
+        Assert.assertEquals(1, worker.cleaned.get());
+        Assert.assertEquals(2, worker.runs.get());
+        int[] result = worker.poll();
+        Assert.assertNotNull(result);
+        Assert.assertEquals(2, result[0]);
+        Assert.assertNull(worker.poll());
+    }
+
+    @Test
+    public void shouldResubmitAfterPoll() throws InterruptedException {
+        Worker worker = new Worker(mMap);
+        worker.release.countDown();
+
+        worker.submit(0);
+        awaitIdle(worker);
+        /* result not polled yet */
+        worker.submit(10);
+        awaitIdle(worker);
+        Assert.assertEquals(1, worker.runs.get());
+
+        Assert.assertNotNull(worker.poll());
+        awaitIdle(worker);
+        Assert.assertEquals(2, worker.runs.get());
+        Assert.assertNotNull(worker.poll());
+    }
+
+    @Test
+    public void shouldCancelRunningWork() throws InterruptedException {
+        Worker worker = new Worker(mMap);
+
+        worker.submit(0);
+        Assert.assertTrue(worker.started.await(5, TimeUnit.SECONDS));
+        worker.cancel(true);
+        worker.release.countDown();
+        awaitIdle(worker);
+
+        Assert.assertEquals(1, worker.runs.get());
+        Assert.assertEquals(1, worker.canceled.get());
+        Assert.assertEquals(1, worker.finished.get());
+        Assert.assertNull(worker.poll());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.geom;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.oscim.core.GeometryBuffer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TileClipperTest {
+
+    private static GeometryBuffer square(float x, float y, float size) {
+        GeometryBuffer g = new GeometryBuffer(4, 2);
+        g.startPolygon();
+        g.addPoint(x, y);
+        g.addPoint(x + size, y);
+        g.addPoint(x + size, y + size);
+        g.addPoint(x, y + size);
+        return g;
+    }
+
+    private static GeometryBuffer zigzag(int n) {
+        GeometryBuffer g = new GeometryBuffer(n, 2);
+        g.startLine();
+        for (int i = 0; i < n; i++)
+            g.addPoint(i * 10 - 50, (i & 1) == 0 ? -20 : 120);
+        return g;
+    }
+
+    private static float[] points(GeometryBuffer g) {
+        return Arrays.copyOf(g.points, g.pointNextPos);
+    }
+
+    @Test
+    public void clipPolygon() {
+        TileClipper clipper = new TileClipper(0, 0, 100, 100);
+        GeometryBuffer g = square(-50, -50, 100);
+
+        Assert.assertTrue(clipper.clip(g, new GeometryBuffer(4, 2)));
+        Assert.assertEquals(8, g.index[0]);
+
+        for (int i = 0; i < g.pointNextPos; i++)
+            Assert.assertTrue(g.points[i] >= 0 && g.points[i] <= 50);
+    }
+
+    @Test
+    public void dropOutsidePolygon() {
+        TileClipper clipper = new TileClipper(0, 0, 100, 100);
+        Assert.assertFalse(clipper.clip(square(200, 200, 10), new GeometryBuffer(4, 2)));
+    }
+
+    @Test
+    public void clipLineMatchesLineClipper() {
+        TileClipper clipper = new TileClipper(0, 0, 100, 100);
+        GeometryBuffer g = zigzag(20);
+
+        GeometryBuffer expected = new GeometryBuffer(10, 2);
+        int numLines = new LineClipper(0, 0, 100, 100).clipLine(g, expected);
+
+        Assert.assertTrue(clipper.clip(g, new GeometryBuffer(10, 2)));
+        Assert.assertEquals(numLines - 1, g.indexCurrentPos);
+        for (int i = 0; i < numLines; i++)
+            Assert.assertEquals(expected.index[i], g.index[i]);
+        Assert.assertArrayEquals(points(expected), points(g), 1e-3f);
+    }
+
+    @Test
+    public void concurrentClip() throws InterruptedException {
+        final TileClipper clipper = new TileClipper(0, 0, 100, 100);
+
+        GeometryBuffer ref = zigzag(50);
+        clipper.clip(ref);
+        final float[] expected = points(ref);
+        final AtomicInteger failures = new AtomicInteger();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    GeometryBuffer scratch = new GeometryBuffer(10, 2);
+                    for (int i = 0; i < 1000; i++) {
+                        GeometryBuffer g = zigzag(50);
+                        clipper.clip(g, scratch);
+                        if (!Arrays.equals(expected, points(g)))
+                            failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread t : threads)
+            t.join();
+
+        Assert.assertEquals(0, failures.get());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.osmpbf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+public class NodeStoreTest {
+
+    private static void fill(NodeStore store, long[] ids) {
+        for (int i = 0; i < ids.length; i++)
+            store.put(ids[i], -900000000 + i, 1800000000 - i);
+    }
+
+    private static void check(NodeStore store, long[] ids) {
+        Assert.assertEquals(ids.length, store.size());
+        for (int i = 0; i < ids.length; i++) {
+            long coord = store.get(ids[i]);
+            Assert.assertEquals(-900000000 + i, NodeStore.Coordinates.lat(coord));
+            Assert.assertEquals(1800000000 - i, NodeStore.Coordinates.lon(coord));
+        }
+        Assert.assertEquals(NodeStore.NOT_FOUND, store.get(ids[ids.length - 1] + 1));
+        Assert.assertEquals(NodeStore.NOT_FOUND, store.get(ids[0] - 1));
+    }
+
+    private static long[] sortedIds(int n) {
+        Random random = new Random(1);
+        long[] ids = new long[n];
+        long id = 1;
+        for (int i = 0; i < n; i++) {
+            id += 1 + random.nextInt(5);
+            ids[i] = id;
+        }
+        return ids;
+    }
+
+    @Test
+    public void hashStore() {
+        long[] ids = sortedIds(100000);
+        NodeStore store = new HashNodeStore(16);
+        fill(store, ids);
+        check(store, ids);
+    }
+
+    @Test
+    public void sortedStore() {
+        /* more than one chunk */
+        long[] ids = sortedIds((1 << 20) + 1000);
+        NodeStore store = new SortedNodeStore();
+        fill(store, ids);
+        check(store, ids);
+        store.dispose();
+    }
+
+    @Test
+    public void fileBackedStore() throws IOException {
+        long[] ids = sortedIds(5000);
+        File file = File.createTempFile("nodes", ".bin");
+        NodeStore store = new SortedNodeStore(file);
+        fill(store, ids);
+        check(store, ids);
+        store.dispose();
+        Assert.assertFalse(file.exists());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sortedStoreRejectsUnsorted() {
+        NodeStore store = new SortedNodeStore();
+        store.put(10, 0, 0);
+        store.put(5, 0, 0);
+    }
+}
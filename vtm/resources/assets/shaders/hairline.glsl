@@ -11,9 +11,21 @@ uniform vec2 u_screen;
 attribute vec2 a_pos;
 varying vec4 v_pos;
 varying vec2 s_pos;
+#ifdef TILE_BATCH
+// xy tile position, z tile scale
+uniform vec4 u_tiles[TILE_BATCH];
+attribute float a_tile;
+varying vec2 v_tile;
+#endif
 
 void main() {
+#ifdef TILE_BATCH
+    vec4 t = u_tiles[int(a_tile)];
+    v_tile = a_pos;
+    v_pos = u_mvp * vec4(t.xy + a_pos * t.z, 0.0, 1.0);
+#else
     v_pos = u_mvp * vec4(a_pos, 0.0, 1.0);
+#endif
     s_pos = v_pos.xy / v_pos.w;
     gl_Position = v_pos;
 }
@@ -28,8 +40,16 @@ uniform float u_width;
 uniform vec2 u_screen;
 varying vec4 v_pos;
 varying vec2 s_pos;
+#ifdef TILE_BATCH
+varying vec2 v_tile;
+#endif
 
 void main() {
+#ifdef TILE_BATCH
+    // clip to tile region
+    if (any(lessThan(v_tile, vec2(0.0))) || any(greaterThan(v_tile, vec2(TILE_EXTENT))))
+        discard;
+#endif
     vec2 pos = (v_pos.xy) / v_pos.w * u_screen;
 
     float l = length(gl_FragCoord.xy - u_screen - pos.xy);
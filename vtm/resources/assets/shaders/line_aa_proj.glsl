@@ -4,8 +4,20 @@ precision highp float;
 #endif
 uniform mat4 u_mvp;
 // uniform mat4 u_vp;
+#ifdef TILE_BATCH
+// fixed and line scale dependent part of the width
+uniform vec2 u_width;
+// constant and width dependent part of the edge fade
+uniform vec2 u_fade;
+// xy tile position, z tile scale, w tile line scale
+uniform vec4 u_tiles[TILE_BATCH];
+attribute float a_tile;
+varying float v_fade;
+varying vec2 v_tile;
+#else
 // factor to increase line width relative to scale
 uniform float u_width;
+#endif
 // xy hold position, zw extrusion vector
 attribute vec4 a_pos;
 uniform float u_height;
@@ -15,7 +27,15 @@ void main() {
     // scale extrusion to u_width pixel
     // just ignore the two most insignificant bits.
     vec2 dir = a_pos.zw;
+#ifdef TILE_BATCH
+    vec4 t = u_tiles[int(a_tile)];
+    float width = u_width.x + u_width.y * t.w;
+    v_fade = u_fade.x + u_fade.y / width;
+    v_tile = a_pos.xy + (width * dir);
+    gl_Position = u_mvp * vec4(t.xy + v_tile * t.z, u_height, 1.0);
+#else
     gl_Position = u_mvp * vec4(a_pos.xy + (u_width * dir), u_height, 1.0);
+#endif
 
     // last two bits hold the texture coordinates.
     v_st = abs(mod(dir, 4.0)) - 1.0;
@@ -32,10 +52,23 @@ precision highp float;
 uniform sampler2D u_tex;
 uniform int u_mode;
 uniform vec4 u_color;
-uniform float u_fade;
 varying vec2 v_st;
+#ifdef TILE_BATCH
+varying float v_fade;
+varying vec2 v_tile;
+#else
+uniform float u_fade;
+#endif
 
 void main() {
+#ifdef TILE_BATCH
+    // clip to tile region
+    if (any(lessThan(v_tile, vec2(0.0))) || any(greaterThan(v_tile, vec2(TILE_EXTENT))))
+        discard;
+    float fade = v_fade;
+#else
+    float fade = u_fade;
+#endif
     float len;
     float fuzz;
     if (u_mode == 2) {
@@ -57,6 +90,6 @@ void main() {
     if (fuzz > 2.0)
         gl_FragColor = u_color * 0.5;
     else
-        gl_FragColor = u_color * clamp((1.0 - len) / max(u_fade, fuzz), 0.0, 1.0);
+        gl_FragColor = u_color * clamp((1.0 - len) / max(fade, fuzz), 0.0, 1.0);
         //gl_FragColor = u_color * clamp((1.0 - len), 0.0, 1.0);
 }
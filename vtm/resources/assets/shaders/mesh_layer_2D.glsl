@@ -4,9 +4,21 @@ precision highp float;
 uniform mat4 u_mvp;
 uniform float u_height;
 attribute vec2 a_pos;
+#ifdef TILE_BATCH
+// xy tile position, z tile scale
+uniform vec4 u_tiles[TILE_BATCH];
+attribute float a_tile;
+varying vec2 v_tile;
+#endif
 
 void main() {
+#ifdef TILE_BATCH
+    vec4 t = u_tiles[int(a_tile)];
+    v_tile = a_pos;
+    gl_Position = u_mvp * vec4(t.xy + a_pos * t.z, u_height, 1.0);
+#else
     gl_Position = u_mvp * vec4(a_pos, u_height, 1.0);
+#endif
 }
 
 $$
@@ -15,7 +27,15 @@ $$
 precision highp float;
 #endif
 uniform vec4 u_color;
+#ifdef TILE_BATCH
+varying vec2 v_tile;
+#endif
 
 void main() {
+#ifdef TILE_BATCH
+    // clip to tile region
+    if (any(lessThan(v_tile, vec2(0.0))) || any(greaterThan(v_tile, vec2(TILE_EXTENT))))
+        discard;
+#endif
     gl_FragColor = u_color;
 }
@@ -123,10 +123,27 @@ public abstract class CanvasAdapter {
      */
     protected abstract Bitmap decodeBitmapImpl(InputStream inputStream, int width, int height, int percent) throws IOException;
 
+    /**
+     * Create {@link Bitmap} from InputStream, decoding into the pixels of
+     * a recycled Bitmap when the backend supports it and size and format
+     * of the image match. The default implementation ignores 'reuse'.
+     *
+     * @param inputStream the input stream
+     * @param reuse       the Bitmap to decode into, may be null
+     * @return 'reuse' when it was decoded into, otherwise a new bitmap
+     */
+    protected Bitmap decodeBitmapImpl(InputStream inputStream, Bitmap reuse) throws IOException {
+        return decodeBitmapImpl(inputStream);
+    }
+
     public static Bitmap decodeBitmap(InputStream inputStream) throws IOException {
         return g.decodeBitmapImpl(inputStream);
     }
 
+    public static Bitmap decodeBitmap(InputStream inputStream, Bitmap reuse) throws IOException {
+        return g.decodeBitmapImpl(inputStream, reuse);
+    }
+
     public static Bitmap decodeBitmap(InputStream inputStream, int width, int height, int percent) throws IOException {
         return g.decodeBitmapImpl(inputStream, width, height, percent);
     }
@@ -44,16 +44,54 @@ public class GLAdapter {
      */
     public static boolean CIRCLE_QUADS = false;
 
+    /**
+     * Wrap the GL instance with {@link StateFilterGL} to drop redundant
+     * state changes.
+     */
+    public static boolean FILTER_STATE = false;
+
+    /**
+     * GL calls are recorded by a {@link HeadlessGL}, set by {@link #init(GL)}.
+     * Renderers then report what they draw with {@link #section(String)}.
+     */
+    public static boolean HEADLESS = false;
+
+    private static HeadlessGL headless;
+
     public static void init(GL gl) {
+        GL base = gl instanceof StateFilterGL ? ((StateFilterGL) gl).getGL() : gl;
+        headless = base instanceof HeadlessGL ? (HeadlessGL) base : null;
+        HEADLESS = headless != null;
+        if (FILTER_STATE && !(gl instanceof StateFilterGL))
+            gl = gl instanceof GL30 ? new StateFilterGL30((GL30) gl) : new StateFilterGL(gl);
         GLAdapter.gl = gl;
-        if (gl instanceof GL30)
-            GLAdapter.gl30 = (GL30) gl;
+        /* with a filter both must be the same instance to keep its state */
+        GLAdapter.gl30 = gl instanceof GL30 ? (GL30) gl : null;
 
         ANDROID_QUIRKS = (CanvasAdapter.platform == Platform.ANDROID);
         GDX_DESKTOP_QUIRKS = CanvasAdapter.platform.isDesktop();
         GDX_WEBGL_QUIRKS = (CanvasAdapter.platform == Platform.WEBGL);
     }
 
+    /**
+     * Attribute following GL calls to the named section when {@link #HEADLESS}.
+     *
+     * @see HeadlessGL#section(String)
+     */
+    public static void section(String name) {
+        if (headless != null)
+            headless.section(name);
+    }
+
+    /**
+     * Forget the state tracked by a {@link StateFilterGL}, after the GL
+     * context was used without {@link #gl}, e.g. by libgdx.
+     */
+    public static void invalidate() {
+        if (gl instanceof StateFilterGL)
+            ((StateFilterGL) gl).invalidate();
+    }
+
     public static boolean isGL30() {
         return gl30 != null;
     }
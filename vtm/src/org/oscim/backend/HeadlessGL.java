@@ -0,0 +1,1351 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.backend;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Headless {@link GL} which does not render anything but records what the
+ * renderers do: calls, draw calls, state changes (and how many of them were
+ * redundant) and uploaded bytes. Buffer and texture objects are simulated to
+ * keep track of the GL memory they would occupy.
+ * <p/>
+ * Allows to run {@link org.oscim.renderer.MapRenderer#onDrawFrame()} without
+ * GPU, e.g. for benchmarks:
+ * <pre>
+ * HeadlessGL gl = new HeadlessGL();
+ * GLAdapter.init(gl);
+ * ...
+ * renderer.onDrawFrame();
+ * log.debug(gl.report());
+ * gl.endFrame();
+ * </pre>
+ * The MapRenderer calls {@link #section(String)} with the name of each
+ * LayerRenderer, so that stats are also available per layer.
+ */
+public class HeadlessGL implements GL {
+
+    public static int MAX_TEXTURE_SIZE_VALUE = 4096;
+
+    /**
+     * Counters of one frame or section.
+     */
+    public static final class Stats {
+        public int calls;
+        public int drawCalls;
+        public long vertices;
+        public int stateChanges;
+        public int redundantStateChanges;
+        public int uploads;
+        public long uploadBytes;
+
+        public void add(Stats other) {
+            calls += other.calls;
+            drawCalls += other.drawCalls;
+            vertices += other.vertices;
+            stateChanges += other.stateChanges;
+            redundantStateChanges += other.redundantStateChanges;
+            uploads += other.uploads;
+            uploadBytes += other.uploadBytes;
+        }
+
+        public void clear() {
+            calls = 0;
+            drawCalls = 0;
+            vertices = 0;
+            stateChanges = 0;
+            redundantStateChanges = 0;
+            uploads = 0;
+            uploadBytes = 0;
+        }
+
+        @Override
+        public String toString() {
+            return "calls:" + calls
+                    + " draw:" + drawCalls
+                    + " vertices:" + vertices
+                    + " state:" + stateChanges
+                    + " redundant:" + redundantStateChanges
+                    + " uploads:" + uploads
+                    + " (" + (uploadBytes / 1024) + "kB)";
+        }
+    }
+
+    public static final String DEFAULT_SECTION = "default";
+
+    /* state namespaces, offset by GL enum or index */
+    private static final int CAPABILITY = 1 << 20;
+    private static final int BUFFER_BINDING = 2 << 20;
+    private static final int TEXTURE_BINDING = 3 << 20;
+    private static final int VERTEX_ATTRIB_ARRAY = 4 << 20;
+    private static final int STENCIL_FUNC = 5 << 20;
+    private static final int STENCIL_OP = 6 << 20;
+    private static final int STENCIL_WRITEMASK = 7 << 20;
+    private static final int HINT = 8 << 20;
+    private static final int PIXEL_STORE = 9 << 20;
+    private static final int ACTIVE_TEXTURE = 10 << 20;
+    private static final int BLEND_FUNC = 11 << 20;
+    private static final int BLEND_EQUATION = 12 << 20;
+    private static final int BLEND_COLOR = 13 << 20;
+    private static final int COLOR_CLEAR_VALUE = 14 << 20;
+    private static final int DEPTH_CLEAR_VALUE = 15 << 20;
+    private static final int STENCIL_CLEAR_VALUE = 16 << 20;
+    private static final int COLOR_WRITEMASK = 17 << 20;
+    private static final int CULL_FACE_MODE = 18 << 20;
+    private static final int DEPTH_FUNC = 19 << 20;
+    private static final int DEPTH_WRITEMASK = 20 << 20;
+    private static final int DEPTH_RANGE = 21 << 20;
+    private static final int FRONT_FACE = 22 << 20;
+    private static final int LINE_WIDTH = 23 << 20;
+    private static final int POLYGON_OFFSET = 24 << 20;
+    private static final int SCISSOR_BOX = 25 << 20;
+    private static final int VIEWPORT = 26 << 20;
+    private static final int CURRENT_PROGRAM = 27 << 20;
+    private static final int FRAMEBUFFER_BINDING = 28 << 20;
+    private static final int RENDERBUFFER_BINDING = 29 << 20;
+
+    private static final int MAX_TEXTURE_UNITS = 32;
+
+    private final Stats mFrame = new Stats();
+    private final Stats mTotal = new Stats();
+    private final Map<String, Stats> mSections = new LinkedHashMap<>();
+    private Stats mSection;
+    private int mFrames;
+
+    /* current state, to detect redundant changes: open addressing table
+     * of state keys (0 is empty) with two values per key */
+    private int[] mStateKeys = new int[256];
+    private long[] mStateValues = new long[512];
+    private int mStateCount;
+
+    /* simulated objects: bytes indexed by id, -1 if there is none */
+    private int[] mBufferSizes = new int[0];
+    private int[] mTextureSizes = new int[0];
+    private int mBufferCount;
+    private int mTextureCount;
+    private long mBufferBytes;
+    private long mTextureBytes;
+
+    /* names of the uniforms and attributes indexed by program id,
+     * a location is the index of its name */
+    private String[][] mLocationNames = new String[0][];
+    private int[] mLocationCount = new int[0];
+
+    private int mNextId;
+    private int mArrayBuffer;
+    private int mElementBuffer;
+    private int mTextureUnit;
+    private final int[] mBoundTextures = new int[MAX_TEXTURE_UNITS];
+
+    public HeadlessGL() {
+        section(DEFAULT_SECTION);
+    }
+
+    /**
+     * Attribute following calls to the named section, e.g. a layer.
+     */
+    public void section(String name) {
+        if (name == null)
+            name = DEFAULT_SECTION;
+        Stats stats = mSections.get(name);
+        if (stats == null) {
+            stats = new Stats();
+            mSections.put(name, stats);
+        }
+        mSection = stats;
+    }
+
+    /**
+     * @return stats of the current frame
+     */
+    public Stats getFrame() {
+        return mFrame;
+    }
+
+    /**
+     * @return stats of all finished frames
+     */
+    public Stats getTotal() {
+        return mTotal;
+    }
+
+    /**
+     * @return stats of the current frame per section
+     */
+    public Map<String, Stats> getSections() {
+        return Collections.unmodifiableMap(mSections);
+    }
+
+    /**
+     * @return number of finished frames
+     */
+    public int getFrames() {
+        return mFrames;
+    }
+
+    /**
+     * Finish the current frame: add its stats to the total and reset the
+     * frame and section stats.
+     */
+    public void endFrame() {
+        mTotal.add(mFrame);
+        mFrame.clear();
+        for (Stats stats : mSections.values())
+            stats.clear();
+        section(DEFAULT_SECTION);
+        mFrames++;
+    }
+
+    /**
+     * @return bytes held by simulated buffer objects
+     */
+    public long getBufferMemory() {
+        return mBufferBytes;
+    }
+
+    /**
+     * @return bytes held by simulated textures
+     */
+    public long getTextureMemory() {
+        return mTextureBytes;
+    }
+
+    public int getBufferCount() {
+        return mBufferCount;
+    }
+
+    public int getTextureCount() {
+        return mTextureCount;
+    }
+
+    /**
+     * @return stats of the current frame and its sections
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("frame ").append(mFrames).append(": ").append(mFrame);
+        for (Map.Entry<String, Stats> e : mSections.entrySet()) {
+            if (e.getValue().calls == 0)
+                continue;
+            sb.append("\n  ").append(e.getKey()).append(": ").append(e.getValue());
+        }
+        sb.append("\n  memory: buffers ").append(mBufferBytes / 1024)
+                .append("kB (").append(mBufferCount).append(")")
+                .append(", textures ").append(mTextureBytes / 1024)
+                .append("kB (").append(mTextureCount).append(")");
+        return sb.toString();
+    }
+
+    private void call() {
+        mFrame.calls++;
+        mSection.calls++;
+    }
+
+    private void state(int key, long value) {
+        state(key, value, 0);
+    }
+
+    private void state(int key, long a, long b) {
+        call();
+        int slot = stateSlot(mStateKeys, key);
+        if (mStateKeys[slot] == key) {
+            if (mStateValues[slot * 2] == a && mStateValues[slot * 2 + 1] == b) {
+                mFrame.redundantStateChanges++;
+                mSection.redundantStateChanges++;
+                return;
+            }
+        } else {
+            mStateKeys[slot] = key;
+            mStateCount++;
+        }
+        mStateValues[slot * 2] = a;
+        mStateValues[slot * 2 + 1] = b;
+        if (mStateCount * 2 > mStateKeys.length)
+            growState();
+        mFrame.stateChanges++;
+        mSection.stateChanges++;
+    }
+
+    /**
+     * @return the slot of key or the empty slot for it
+     */
+    private static int stateSlot(int[] keys, int key) {
+        int mask = keys.length - 1;
+        int slot = (key * 0x9e3779b9) >>> 16 & mask;
+        while (keys[slot] != 0 && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void growState() {
+        int[] keys = new int[mStateKeys.length * 2];
+        long[] values = new long[keys.length * 2];
+        for (int i = 0; i < mStateKeys.length; i++) {
+            if (mStateKeys[i] == 0)
+                continue;
+            int slot = stateSlot(keys, mStateKeys[i]);
+            keys[slot] = mStateKeys[i];
+            values[slot * 2] = mStateValues[i * 2];
+            values[slot * 2 + 1] = mStateValues[i * 2 + 1];
+        }
+        mStateKeys = keys;
+        mStateValues = values;
+    }
+
+    private void draw(int count) {
+        call();
+        mFrame.drawCalls++;
+        mSection.drawCalls++;
+        mFrame.vertices += count;
+        mSection.vertices += count;
+    }
+
+    private void upload(long bytes) {
+        mFrame.uploads++;
+        mSection.uploads++;
+        mFrame.uploadBytes += bytes;
+        mSection.uploadBytes += bytes;
+    }
+
+    private int boundBuffer(int target) {
+        return target == ELEMENT_ARRAY_BUFFER ? mElementBuffer : mArrayBuffer;
+    }
+
+    /**
+     * @return a new object id, with room for it in the object arrays
+     */
+    private int newId() {
+        int id = ++mNextId;
+        ensureObject(id);
+        return id;
+    }
+
+    private void ensureObject(int id) {
+        if (id < mBufferSizes.length)
+            return;
+        int size = Math.max(64, Math.max(id + 1, mBufferSizes.length * 2));
+        int old = mBufferSizes.length;
+        mBufferSizes = Arrays.copyOf(mBufferSizes, size);
+        mTextureSizes = Arrays.copyOf(mTextureSizes, size);
+        Arrays.fill(mBufferSizes, old, size, -1);
+        Arrays.fill(mTextureSizes, old, size, -1);
+    }
+
+    private static int size(int[] sizes, int id) {
+        return id >= 0 && id < sizes.length ? sizes[id] : -1;
+    }
+
+    private int newBuffer() {
+        int id = newId();
+        mBufferSizes[id] = 0;
+        mBufferCount++;
+        return id;
+    }
+
+    private int newTexture() {
+        int id = newId();
+        mTextureSizes[id] = 0;
+        mTextureCount++;
+        return id;
+    }
+
+    private void texture(int level, int bytes) {
+        int texture = mBoundTextures[mTextureUnit];
+        ensureObject(texture);
+        int size = mTextureSizes[texture];
+        if (size < 0) {
+            size = 0;
+            mTextureCount++;
+        }
+        /* level 0 replaces the texture, mipmaps add to it */
+        int newSize = level == 0 ? bytes : size + bytes;
+        mTextureSizes[texture] = newSize;
+        mTextureBytes += newSize - size;
+    }
+
+    private void deleteBufferObject(int buffer) {
+        int size = size(mBufferSizes, buffer);
+        if (size >= 0) {
+            mBufferSizes[buffer] = -1;
+            mBufferCount--;
+            mBufferBytes -= size;
+        }
+        if (mArrayBuffer == buffer)
+            mArrayBuffer = 0;
+        if (mElementBuffer == buffer)
+            mElementBuffer = 0;
+    }
+
+    private void deleteTextureObject(int texture) {
+        int size = size(mTextureSizes, texture);
+        if (size >= 0) {
+            mTextureSizes[texture] = -1;
+            mTextureCount--;
+            mTextureBytes -= size;
+        }
+        for (int i = 0; i < MAX_TEXTURE_UNITS; i++) {
+            if (mBoundTextures[i] == texture)
+                mBoundTextures[i] = 0;
+        }
+    }
+
+    private int location(int program, String name) {
+        if (program < 0)
+            return -1;
+        if (program >= mLocationNames.length) {
+            int size = Math.max(program + 1, mLocationNames.length * 2);
+            mLocationNames = Arrays.copyOf(mLocationNames, size);
+            mLocationCount = Arrays.copyOf(mLocationCount, size);
+        }
+        String[] names = mLocationNames[program];
+        int count = mLocationCount[program];
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name))
+                return i;
+        }
+        if (names == null || count == names.length)
+            names = mLocationNames[program] = Arrays.copyOf(names == null ? new String[0] : names,
+                    Math.max(8, count * 2));
+        names[count] = name;
+        mLocationCount[program] = count + 1;
+        return count;
+    }
+
+    private static long pack(int a, int b) {
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+
+    private static long pack(float a, float b) {
+        return pack(Float.floatToIntBits(a), Float.floatToIntBits(b));
+    }
+
+    private static int bytesPerPixel(int format, int type) {
+        if (type == UNSIGNED_SHORT_5_6_5
+                || type == UNSIGNED_SHORT_4_4_4_4
+                || type == UNSIGNED_SHORT_5_5_5_1)
+            return 2;
+        int size = type == FLOAT ? 4 : 1;
+        switch (format) {
+            case ALPHA:
+            case LUMINANCE:
+                return size;
+            case LUMINANCE_ALPHA:
+                return 2 * size;
+            case RGB:
+                return 3 * size;
+            default:
+                return 4 * size;
+        }
+    }
+
+    @Override
+    public void activeTexture(int texture) {
+        state(ACTIVE_TEXTURE, texture);
+        mTextureUnit = texture - TEXTURE0;
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        state(TEXTURE_BINDING + mTextureUnit, texture);
+        mBoundTextures[mTextureUnit] = texture;
+    }
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor) {
+        state(BLEND_FUNC, pack(sfactor, dfactor));
+    }
+
+    @Override
+    public void clear(int mask) {
+        call();
+    }
+
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        state(COLOR_CLEAR_VALUE, pack(red, green), pack(blue, alpha));
+    }
+
+    @Override
+    public void clearDepthf(float depth) {
+        state(DEPTH_CLEAR_VALUE, Float.floatToIntBits(depth));
+    }
+
+    @Override
+    public void clearStencil(int s) {
+        state(STENCIL_CLEAR_VALUE, s);
+    }
+
+    @Override
+    public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        state(COLOR_WRITEMASK, (red ? 1 : 0) | (green ? 2 : 0) | (blue ? 4 : 0) | (alpha ? 8 : 0));
+    }
+
+    @Override
+    public void compressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        call();
+        texture(level, imageSize);
+        upload(imageSize);
+    }
+
+    @Override
+    public void compressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        call();
+        upload(imageSize);
+    }
+
+    @Override
+    public void copyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        call();
+        texture(level, width * height * bytesPerPixel(internalformat, UNSIGNED_BYTE));
+    }
+
+    @Override
+    public void copyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        call();
+    }
+
+    @Override
+    public void cullFace(int mode) {
+        state(CULL_FACE_MODE, mode);
+    }
+
+    @Override
+    public void deleteTextures(int n, IntBuffer textures) {
+        call();
+        for (int i = 0; i < n; i++)
+            deleteTextureObject(textures.get(textures.position() + i));
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        call();
+        deleteTextureObject(texture);
+    }
+
+    @Override
+    public void depthFunc(int func) {
+        state(DEPTH_FUNC, func);
+    }
+
+    @Override
+    public void depthMask(boolean flag) {
+        state(DEPTH_WRITEMASK, flag ? 1 : 0);
+    }
+
+    @Override
+    public void depthRangef(float zNear, float zFar) {
+        state(DEPTH_RANGE, pack(zNear, zFar));
+    }
+
+    @Override
+    public void disable(int cap) {
+        state(CAPABILITY + cap, 0);
+    }
+
+    @Override
+    public void drawArrays(int mode, int first, int count) {
+        draw(count);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, Buffer indices) {
+        draw(count);
+    }
+
+    @Override
+    public void enable(int cap) {
+        state(CAPABILITY + cap, 1);
+    }
+
+    @Override
+    public void finish() {
+        call();
+    }
+
+    @Override
+    public void flush() {
+        call();
+    }
+
+    @Override
+    public void frontFace(int mode) {
+        state(FRONT_FACE, mode);
+    }
+
+    @Override
+    public void genTextures(int n, IntBuffer textures) {
+        call();
+        for (int i = 0; i < n; i++) {
+            textures.put(textures.position() + i, newTexture());
+        }
+    }
+
+    @Override
+    public int genTexture() {
+        call();
+        return newTexture();
+    }
+
+    @Override
+    public int getError() {
+        call();
+        return NO_ERROR;
+    }
+
+    @Override
+    public void getIntegerv(int pname, IntBuffer params) {
+        call();
+        int value = 0;
+        if (pname == MAX_TEXTURE_SIZE)
+            value = MAX_TEXTURE_SIZE_VALUE;
+        else if (pname == MAX_VERTEX_ATTRIBS)
+            value = 16;
+        params.put(params.position(), value);
+    }
+
+    @Override
+    public String getString(int name) {
+        call();
+        return name == VENDOR ? "VTM" : "Headless";
+    }
+
+    @Override
+    public void hint(int target, int mode) {
+        state(HINT + target, mode);
+    }
+
+    @Override
+    public void lineWidth(float width) {
+        state(LINE_WIDTH, Float.floatToIntBits(width));
+    }
+
+    @Override
+    public void pixelStorei(int pname, int param) {
+        state(PIXEL_STORE + pname, param);
+    }
+
+    @Override
+    public void polygonOffset(float factor, float units) {
+        state(POLYGON_OFFSET, pack(factor, units));
+    }
+
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        call();
+    }
+
+    @Override
+    public void scissor(int x, int y, int width, int height) {
+        state(SCISSOR_BOX, pack(x, y), pack(width, height));
+    }
+
+    @Override
+    public void stencilFunc(int func, int ref, int mask) {
+        state(STENCIL_FUNC, pack(func, ref), mask);
+    }
+
+    @Override
+    public void stencilMask(int mask) {
+        state(STENCIL_WRITEMASK, mask);
+    }
+
+    @Override
+    public void stencilOp(int fail, int zfail, int zpass) {
+        state(STENCIL_OP, pack(fail, zfail), zpass);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        call();
+        int bytes = width * height * bytesPerPixel(format, type);
+        texture(level, bytes);
+        if (pixels != null)
+            upload(bytes);
+    }
+
+    @Override
+    public void texParameterf(int target, int pname, float param) {
+        call();
+    }
+
+    @Override
+    public void texSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        call();
+        upload(width * height * bytesPerPixel(format, type));
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        state(VIEWPORT, pack(x, y), pack(width, height));
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        call();
+    }
+
+    @Override
+    public void bindAttribLocation(int program, int index, String name) {
+        call();
+    }
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        state(BUFFER_BINDING + target, buffer);
+        if (target == ARRAY_BUFFER)
+            mArrayBuffer = buffer;
+        else if (target == ELEMENT_ARRAY_BUFFER)
+            mElementBuffer = buffer;
+    }
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        state(FRAMEBUFFER_BINDING, framebuffer);
+    }
+
+    @Override
+    public void bindRenderbuffer(int target, int renderbuffer) {
+        state(RENDERBUFFER_BINDING, renderbuffer);
+    }
+
+    @Override
+    public void blendColor(float red, float green, float blue, float alpha) {
+        state(BLEND_COLOR, pack(red, green), pack(blue, alpha));
+    }
+
+    @Override
+    public void blendEquation(int mode) {
+        state(BLEND_EQUATION, mode);
+    }
+
+    @Override
+    public void blendEquationSeparate(int modeRGB, int modeAlpha) {
+        state(BLEND_EQUATION, pack(modeRGB, modeAlpha));
+    }
+
+    @Override
+    public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        state(BLEND_FUNC, pack(srcRGB, dstRGB), pack(srcAlpha, dstAlpha));
+    }
+
+    @Override
+    public void bufferData(int target, int size, Buffer data, int usage) {
+        call();
+        int buffer = boundBuffer(target);
+        ensureObject(buffer);
+        int old = mBufferSizes[buffer];
+        if (old < 0) {
+            old = 0;
+            mBufferCount++;
+        }
+        mBufferSizes[buffer] = size;
+        mBufferBytes += size - old;
+        if (data != null)
+            upload(size);
+    }
+
+    @Override
+    public void bufferSubData(int target, int offset, int size, Buffer data) {
+        call();
+        upload(size);
+    }
+
+    @Override
+    public int checkFramebufferStatus(int target) {
+        call();
+        return FRAMEBUFFER_COMPLETE;
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        call();
+    }
+
+    @Override
+    public int createProgram() {
+        call();
+        return newId();
+    }
+
+    @Override
+    public int createShader(int type) {
+        call();
+        return newId();
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        call();
+        deleteBufferObject(buffer);
+    }
+
+    @Override
+    public void deleteBuffers(int n, IntBuffer buffers) {
+        call();
+        for (int i = 0; i < n; i++)
+            deleteBufferObject(buffers.get(buffers.position() + i));
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        call();
+    }
+
+    @Override
+    public void deleteFramebuffers(int n, IntBuffer framebuffers) {
+        call();
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        call();
+    }
+
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        call();
+    }
+
+    @Override
+    public void deleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        call();
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        call();
+    }
+
+    @Override
+    public void detachShader(int program, int shader) {
+        call();
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        state(VERTEX_ATTRIB_ARRAY + index, 0);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, int indices) {
+        draw(count);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        state(VERTEX_ATTRIB_ARRAY + index, 1);
+    }
+
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        call();
+    }
+
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        call();
+    }
+
+    @Override
+    public int genBuffer() {
+        call();
+        return newBuffer();
+    }
+
+    @Override
+    public void genBuffers(int n, IntBuffer buffers) {
+        call();
+        for (int i = 0; i < n; i++) {
+            buffers.put(buffers.position() + i, newBuffer());
+        }
+    }
+
+    @Override
+    public void generateMipmap(int target) {
+        call();
+        int texture = mBoundTextures[mTextureUnit];
+        int bytes = size(mTextureSizes, texture);
+        if (bytes >= 0)
+            texture(1, bytes / 3);
+    }
+
+    @Override
+    public int genFramebuffer() {
+        call();
+        return newId();
+    }
+
+    @Override
+    public void genFramebuffers(int n, IntBuffer framebuffers) {
+        call();
+        for (int i = 0; i < n; i++)
+            framebuffers.put(framebuffers.position() + i, newId());
+    }
+
+    @Override
+    public int genRenderbuffer() {
+        call();
+        return newId();
+    }
+
+    @Override
+    public void genRenderbuffers(int n, IntBuffer renderbuffers) {
+        call();
+        for (int i = 0; i < n; i++)
+            renderbuffers.put(renderbuffers.position() + i, newId());
+    }
+
+    @Override
+    public String getActiveAttrib(int program, int index, IntBuffer size, Buffer type) {
+        call();
+        return null;
+    }
+
+    @Override
+    public String getActiveUniform(int program, int index, IntBuffer size, Buffer type) {
+        call();
+        return null;
+    }
+
+    @Override
+    public void getAttachedShaders(int program, int maxcount, Buffer count, IntBuffer shaders) {
+        call();
+    }
+
+    @Override
+    public int getAttribLocation(int program, String name) {
+        call();
+        return location(program, name);
+    }
+
+    @Override
+    public void getBooleanv(int pname, Buffer params) {
+        call();
+    }
+
+    @Override
+    public void getBufferParameteriv(int target, int pname, IntBuffer params) {
+        call();
+        if (pname == BUFFER_SIZE) {
+            int size = size(mBufferSizes, boundBuffer(target));
+            params.put(params.position(), Math.max(0, size));
+        }
+    }
+
+    @Override
+    public void getFloatv(int pname, FloatBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getProgramiv(int program, int pname, IntBuffer params) {
+        call();
+        params.put(params.position(), pname == LINK_STATUS ? TRUE : 0);
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        call();
+        return "";
+    }
+
+    @Override
+    public void getRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getShaderiv(int shader, int pname, IntBuffer params) {
+        call();
+        params.put(params.position(), pname == COMPILE_STATUS ? TRUE : 0);
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        call();
+        return "";
+    }
+
+    @Override
+    public void getShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        call();
+    }
+
+    @Override
+    public void getTexParameterfv(int target, int pname, FloatBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getTexParameteriv(int target, int pname, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getUniformfv(int program, int location, FloatBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getUniformiv(int program, int location, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public int getUniformLocation(int program, String name) {
+        call();
+        return location(program, name);
+    }
+
+    @Override
+    public void getVertexAttribfv(int index, int pname, FloatBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getVertexAttribiv(int index, int pname, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public void getVertexAttribPointerv(int index, int pname, Buffer pointer) {
+        call();
+    }
+
+    @Override
+    public boolean isBuffer(int buffer) {
+        call();
+        return size(mBufferSizes, buffer) >= 0;
+    }
+
+    @Override
+    public boolean isEnabled(int cap) {
+        call();
+        int key = CAPABILITY + cap;
+        int slot = stateSlot(mStateKeys, key);
+        return mStateKeys[slot] == key && mStateValues[slot * 2] == 1;
+    }
+
+    @Override
+    public boolean isFramebuffer(int framebuffer) {
+        call();
+        return false;
+    }
+
+    @Override
+    public boolean isProgram(int program) {
+        call();
+        return false;
+    }
+
+    @Override
+    public boolean isRenderbuffer(int renderbuffer) {
+        call();
+        return false;
+    }
+
+    @Override
+    public boolean isShader(int shader) {
+        call();
+        return false;
+    }
+
+    @Override
+    public boolean isTexture(int texture) {
+        call();
+        return size(mTextureSizes, texture) >= 0;
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        call();
+    }
+
+    @Override
+    public void releaseShaderCompiler() {
+        call();
+    }
+
+    @Override
+    public void renderbufferStorage(int target, int internalformat, int width, int height) {
+        call();
+    }
+
+    @Override
+    public void sampleCoverage(float value, boolean invert) {
+        call();
+    }
+
+    @Override
+    public void shaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        call();
+    }
+
+    @Override
+    public void shaderSource(int shader, String string) {
+        call();
+    }
+
+    @Override
+    public void stencilFuncSeparate(int face, int func, int ref, int mask) {
+        state(STENCIL_FUNC + face, pack(func, ref), mask);
+    }
+
+    @Override
+    public void stencilMaskSeparate(int face, int mask) {
+        state(STENCIL_WRITEMASK + face, mask);
+    }
+
+    @Override
+    public void stencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        state(STENCIL_OP + face, pack(fail, zfail), zpass);
+    }
+
+    @Override
+    public void texParameterfv(int target, int pname, FloatBuffer params) {
+        call();
+    }
+
+    @Override
+    public void texParameteri(int target, int pname, int param) {
+        call();
+    }
+
+    @Override
+    public void texParameteriv(int target, int pname, IntBuffer params) {
+        call();
+    }
+
+    @Override
+    public void uniform1f(int location, float x) {
+        call();
+    }
+
+    @Override
+    public void uniform1fv(int location, int count, FloatBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform1fv(int location, int count, float[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform1i(int location, int x) {
+        call();
+    }
+
+    @Override
+    public void uniform1iv(int location, int count, IntBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform1iv(int location, int count, int[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        call();
+    }
+
+    @Override
+    public void uniform2fv(int location, int count, FloatBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform2fv(int location, int count, float[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform2i(int location, int x, int y) {
+        call();
+    }
+
+    @Override
+    public void uniform2iv(int location, int count, IntBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform2iv(int location, int count, int[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        call();
+    }
+
+    @Override
+    public void uniform3fv(int location, int count, FloatBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform3fv(int location, int count, float[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform3i(int location, int x, int y, int z) {
+        call();
+    }
+
+    @Override
+    public void uniform3iv(int location, int count, IntBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform3iv(int location, int count, int[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        call();
+    }
+
+    @Override
+    public void uniform4fv(int location, int count, FloatBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform4fv(int location, int count, float[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniform4i(int location, int x, int y, int z, int w) {
+        call();
+    }
+
+    @Override
+    public void uniform4iv(int location, int count, IntBuffer v) {
+        call();
+    }
+
+    @Override
+    public void uniform4iv(int location, int count, int[] v, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        call();
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        call();
+    }
+
+    @Override
+    public void useProgram(int program) {
+        state(CURRENT_PROGRAM, program);
+    }
+
+    @Override
+    public void validateProgram(int program) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib1f(int indx, float x) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib1fv(int indx, FloatBuffer values) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib2f(int indx, float x, float y) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib2fv(int indx, FloatBuffer values) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib3f(int indx, float x, float y, float z) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib3fv(int indx, FloatBuffer values) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib4f(int indx, float x, float y, float z, float w) {
+        call();
+    }
+
+    @Override
+    public void vertexAttrib4fv(int indx, FloatBuffer values) {
+        call();
+    }
+
+    @Override
+    public void vertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        call();
+    }
+
+    @Override
+    public void vertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+        call();
+    }
+}
@@ -0,0 +1,1268 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.backend;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * {@link GL} wrapper that drops calls which would not change the GL state:
+ * uniforms of the current program, vertex attribute pointers, stencil
+ * func/op/mask, blend func, program and buffer bindings. Uniform and
+ * attribute locations are cached per program.
+ * <p/>
+ * The state is invalidated by {@link #endFrame()}, which MapRenderer calls
+ * after each frame, as other code may use the GL context between frames.
+ * Renderers which use the context directly during a frame, e.g. through
+ * libgdx, call {@link org.oscim.renderer.GLState#invalidate()} afterwards.
+ * Calls must go through {@link GLAdapter#gl}, or {@link GLAdapter#gl30}
+ * which is the same {@link StateFilterGL30} on GL 3 contexts.
+ * Enabled by {@link GLAdapter#FILTER_STATE}:
+ * <pre>
+ * GLAdapter.FILTER_STATE = true;
+ * GLAdapter.init(gl);
+ * ...
+ * log.debug("{}", ((StateFilterGL) GLAdapter.gl).getLastFrame());
+ * </pre>
+ */
+public class StateFilterGL implements GL {
+
+    /* call categories */
+    public static final int PROGRAM = 0;
+    public static final int BUFFER = 1;
+    public static final int UNIFORM = 2;
+    public static final int ATTRIB_POINTER = 3;
+    public static final int STENCIL = 4;
+    public static final int BLEND = 5;
+
+    private static final String[] NAMES = {
+            "program", "buffer", "uniform", "pointer", "stencil", "blend"
+    };
+
+    /**
+     * Counters of issued and filtered calls per category.
+     */
+    public static final class Stats {
+        public final int[] issued = new int[NAMES.length];
+        public final int[] filtered = new int[NAMES.length];
+
+        public int getIssued() {
+            int sum = 0;
+            for (int i : issued)
+                sum += i;
+            return sum;
+        }
+
+        public int getFiltered() {
+            int sum = 0;
+            for (int i : filtered)
+                sum += i;
+            return sum;
+        }
+
+        public void set(Stats other) {
+            System.arraycopy(other.issued, 0, issued, 0, issued.length);
+            System.arraycopy(other.filtered, 0, filtered, 0, filtered.length);
+        }
+
+        public void clear() {
+            Arrays.fill(issued, 0);
+            Arrays.fill(filtered, 0);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("issued:").append(getIssued())
+                    .append(" filtered:").append(getFiltered());
+            for (int i = 0; i < NAMES.length; i++) {
+                sb.append(' ').append(NAMES[i]).append(':')
+                        .append(issued[i]).append('/').append(filtered[i]);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final int MAX_ATTRIBS = 16;
+    /* locations above are not cached */
+    private static final int MAX_UNIFORMS = 256;
+    /* ints per cached uniform, mat4 */
+    private static final int UNIFORM_SIZE = 16;
+
+    /* uniform types */
+    private static final int U_1F = 1;
+    private static final int U_1I = 2;
+    private static final int U_2F = 3;
+    private static final int U_3F = 4;
+    private static final int U_4F = 5;
+    private static final int U_MAT4 = 6;
+
+    /**
+     * Cached locations and uniform values of a program.
+     */
+    static final class ProgramState {
+        final HashMap<String, Integer> uniforms = new HashMap<>();
+        final HashMap<String, Integer> attribs = new HashMap<>();
+
+        int[] types = new int[16];
+        int[] values = new int[16 * UNIFORM_SIZE];
+        int frame = -1;
+
+        void ensure(int location) {
+            if (location < types.length)
+                return;
+            int size = Math.max(location + 1, types.length * 2);
+            types = Arrays.copyOf(types, size);
+            values = Arrays.copyOf(values, size * UNIFORM_SIZE);
+        }
+    }
+
+    private final GL mGL;
+
+    private final HashMap<Integer, ProgramState> mPrograms = new HashMap<>();
+    private int mProgram = UNKNOWN;
+    private ProgramState mProgramState;
+
+    private int mArrayBuffer = UNKNOWN;
+    private int mElementBuffer = UNKNOWN;
+
+    /* buffer, format, stride and offset per attribute */
+    private final int[][] mAttribs = new int[MAX_ATTRIBS][4];
+
+    /* values and valid flag */
+    private final int[] mStencilFunc = new int[5];
+    private final int[] mStencilOp = new int[5];
+    private final int[] mStencilMask = new int[5];
+    private final int[] mBlendFunc = new int[5];
+
+    private final Stats mFrame = new Stats();
+    private final Stats mLastFrame = new Stats();
+    private int mFrames;
+
+    public StateFilterGL(GL gl) {
+        mGL = gl;
+        invalidate();
+    }
+
+    /**
+     * @return the wrapped GL
+     */
+    public GL getGL() {
+        return mGL;
+    }
+
+    /**
+     * @return counters of the current frame
+     */
+    public Stats getFrame() {
+        return mFrame;
+    }
+
+    /**
+     * @return counters of the last finished frame
+     */
+    public Stats getLastFrame() {
+        return mLastFrame;
+    }
+
+    /**
+     * Finish the current frame: keep its counters and invalidate the
+     * tracked state.
+     */
+    public void endFrame() {
+        mLastFrame.set(mFrame);
+        mFrame.clear();
+        mFrames++;
+        invalidate();
+    }
+
+    /**
+     * Forget the tracked state, e.g. when the GL context was used by
+     * other code. Locations stay cached.
+     */
+    public void invalidate() {
+        mProgram = UNKNOWN;
+        mProgramState = null;
+        invalidateBuffers();
+        mStencilFunc[4] = 0;
+        mStencilOp[4] = 0;
+        mStencilMask[4] = 0;
+        mBlendFunc[4] = 0;
+    }
+
+    /**
+     * Forget all cached state and locations, e.g. on a new GL context.
+     */
+    public void reset() {
+        mPrograms.clear();
+        invalidate();
+    }
+
+    private ProgramState program(int program) {
+        ProgramState state = mPrograms.get(program);
+        if (state == null) {
+            state = new ProgramState();
+            mPrograms.put(program, state);
+        }
+        return state;
+    }
+
+    /**
+     * @return the uniform values of the current program, cleared in each frame
+     */
+    private ProgramState uniforms() {
+        ProgramState state = mProgramState;
+        if (state != null && state.frame != mFrames) {
+            Arrays.fill(state.types, 0);
+            state.frame = mFrames;
+        }
+        return state;
+    }
+
+    /**
+     * @return true when the uniform needs to be set
+     */
+    private boolean uniform(int location, int type, int a, int b, int c, int d) {
+        ProgramState state = uniforms();
+        if (state == null || location < 0 || location >= MAX_UNIFORMS) {
+            mFrame.issued[UNIFORM]++;
+            return true;
+        }
+        state.ensure(location);
+        int[] v = state.values;
+        int o = location * UNIFORM_SIZE;
+        if (state.types[location] == type
+                && v[o] == a && v[o + 1] == b && v[o + 2] == c && v[o + 3] == d) {
+            mFrame.filtered[UNIFORM]++;
+            return false;
+        }
+        state.types[location] = type;
+        v[o] = a;
+        v[o + 1] = b;
+        v[o + 2] = c;
+        v[o + 3] = d;
+        mFrame.issued[UNIFORM]++;
+        return true;
+    }
+
+    private boolean uniformMatrix(int location, FloatBuffer buffer, float[] array, int offset) {
+        ProgramState state = uniforms();
+        if (state == null || location < 0 || location >= MAX_UNIFORMS) {
+            mFrame.issued[UNIFORM]++;
+            return true;
+        }
+        state.ensure(location);
+        int[] v = state.values;
+        int o = location * UNIFORM_SIZE;
+        boolean same = state.types[location] == U_MAT4;
+        for (int i = 0; i < UNIFORM_SIZE; i++) {
+            int value = bits(buffer != null ? buffer.get(offset + i) : array[offset + i]);
+            if (v[o + i] != value) {
+                v[o + i] = value;
+                same = false;
+            }
+        }
+        if (same) {
+            mFrame.filtered[UNIFORM]++;
+            return false;
+        }
+        state.types[location] = U_MAT4;
+        mFrame.issued[UNIFORM]++;
+        return true;
+    }
+
+    void invalidateUniforms(int location, int count) {
+        ProgramState state = uniforms();
+        mFrame.issued[UNIFORM]++;
+        if (state == null || location < 0)
+            return;
+        for (int i = location; i < location + count && i < state.types.length; i++)
+            state.types[i] = 0;
+    }
+
+    void invalidateAttrib(int indx) {
+        if (indx >= 0 && indx < MAX_ATTRIBS)
+            mAttribs[indx][0] = UNKNOWN;
+    }
+
+    /**
+     * @return true when the state needs to be set
+     */
+    private boolean set(int[] state, int category, int a, int b, int c, int d) {
+        if (state[4] == 1 && state[0] == a && state[1] == b && state[2] == c && state[3] == d) {
+            mFrame.filtered[category]++;
+            return false;
+        }
+        state[0] = a;
+        state[1] = b;
+        state[2] = c;
+        state[3] = d;
+        state[4] = 1;
+        mFrame.issued[category]++;
+        return true;
+    }
+
+    private static int bits(float value) {
+        return Float.floatToRawIntBits(value);
+    }
+
+    /* ------------------------ programs ------------------------ */
+
+    @Override
+    public void useProgram(int program) {
+        if (program == mProgram && mProgramState != null) {
+            mFrame.filtered[PROGRAM]++;
+            return;
+        }
+        mProgram = program;
+        mProgramState = program(program);
+        mFrame.issued[PROGRAM]++;
+        mGL.useProgram(program);
+    }
+
+    @Override
+    public void linkProgram(int program) {
+        ProgramState state = mPrograms.remove(program);
+        if (state == mProgramState)
+            mProgramState = null;
+        mGL.linkProgram(program);
+    }
+
+    @Override
+    public void deleteProgram(int program) {
+        ProgramState state = mPrograms.remove(program);
+        if (state == mProgramState)
+            mProgramState = null;
+        mGL.deleteProgram(program);
+    }
+
+    @Override
+    public int getUniformLocation(int program, String name) {
+        ProgramState state = program(program);
+        Integer location = state.uniforms.get(name);
+        if (location == null) {
+            location = mGL.getUniformLocation(program, name);
+            state.uniforms.put(name, location);
+        }
+        return location;
+    }
+
+    @Override
+    public int getAttribLocation(int program, String name) {
+        ProgramState state = program(program);
+        Integer location = state.attribs.get(name);
+        if (location == null) {
+            location = mGL.getAttribLocation(program, name);
+            state.attribs.put(name, location);
+        }
+        return location;
+    }
+
+    /* ------------------------ uniforms ------------------------ */
+
+    @Override
+    public void uniform1f(int location, float x) {
+        if (uniform(location, U_1F, bits(x), 0, 0, 0))
+            mGL.uniform1f(location, x);
+    }
+
+    @Override
+    public void uniform1i(int location, int x) {
+        if (uniform(location, U_1I, x, 0, 0, 0))
+            mGL.uniform1i(location, x);
+    }
+
+    @Override
+    public void uniform2f(int location, float x, float y) {
+        if (uniform(location, U_2F, bits(x), bits(y), 0, 0))
+            mGL.uniform2f(location, x, y);
+    }
+
+    @Override
+    public void uniform3f(int location, float x, float y, float z) {
+        if (uniform(location, U_3F, bits(x), bits(y), bits(z), 0))
+            mGL.uniform3f(location, x, y, z);
+    }
+
+    @Override
+    public void uniform4f(int location, float x, float y, float z, float w) {
+        if (uniform(location, U_4F, bits(x), bits(y), bits(z), bits(w)))
+            mGL.uniform4f(location, x, y, z, w);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        if (count != 1 || transpose) {
+            invalidateUniforms(location, count);
+        } else if (!uniformMatrix(location, value, null, value.position())) {
+            return;
+        }
+        mGL.uniformMatrix4fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix4fv(int location, int count, boolean transpose, float[] value, int offset) {
+        if (count != 1 || transpose) {
+            invalidateUniforms(location, count);
+        } else if (!uniformMatrix(location, null, value, offset)) {
+            return;
+        }
+        mGL.uniformMatrix4fv(location, count, transpose, value, offset);
+    }
+
+    /* ------------------------ vertex attributes ------------------------ */
+
+    @Override
+    public void vertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, int ptr) {
+        if (indx < 0 || indx >= MAX_ATTRIBS || mArrayBuffer == UNKNOWN) {
+            invalidateAttrib(indx);
+            mFrame.issued[ATTRIB_POINTER]++;
+            mGL.vertexAttribPointer(indx, size, type, normalized, stride, ptr);
+            return;
+        }
+        int[] a = mAttribs[indx];
+        int format = size | type << 8 | (normalized ? 1 << 31 : 0);
+        if (a[0] == mArrayBuffer && a[1] == format && a[2] == stride && a[3] == ptr) {
+            mFrame.filtered[ATTRIB_POINTER]++;
+            return;
+        }
+        a[0] = mArrayBuffer;
+        a[1] = format;
+        a[2] = stride;
+        a[3] = ptr;
+        mFrame.issued[ATTRIB_POINTER]++;
+        mGL.vertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    @Override
+    public void vertexAttribPointer(int indx, int size, int type, boolean normalized, int stride, Buffer ptr) {
+        invalidateAttrib(indx);
+        mFrame.issued[ATTRIB_POINTER]++;
+        mGL.vertexAttribPointer(indx, size, type, normalized, stride, ptr);
+    }
+
+    /* ------------------------ buffers ------------------------ */
+
+    @Override
+    public void bindBuffer(int target, int buffer) {
+        if (target == ARRAY_BUFFER) {
+            if (mArrayBuffer == buffer) {
+                mFrame.filtered[BUFFER]++;
+                return;
+            }
+            mArrayBuffer = buffer;
+        } else if (target == ELEMENT_ARRAY_BUFFER) {
+            if (mElementBuffer == buffer) {
+                mFrame.filtered[BUFFER]++;
+                return;
+            }
+            mElementBuffer = buffer;
+        }
+        mFrame.issued[BUFFER]++;
+        mGL.bindBuffer(target, buffer);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        invalidateBuffers();
+        mGL.deleteBuffer(buffer);
+    }
+
+    @Override
+    public void deleteBuffers(int n, IntBuffer buffers) {
+        invalidateBuffers();
+        mGL.deleteBuffers(n, buffers);
+    }
+
+    /**
+     * Deleted buffers are unbound, also from attributes.
+     */
+    void invalidateBuffers() {
+        mArrayBuffer = UNKNOWN;
+        mElementBuffer = UNKNOWN;
+        for (int i = 0; i < MAX_ATTRIBS; i++)
+            invalidateAttrib(i);
+    }
+
+    /* ------------------------ stencil ------------------------ */
+
+    @Override
+    public void stencilFunc(int func, int ref, int mask) {
+        if (set(mStencilFunc, STENCIL, func, ref, mask, 0))
+            mGL.stencilFunc(func, ref, mask);
+    }
+
+    @Override
+    public void stencilFuncSeparate(int face, int func, int ref, int mask) {
+        mStencilFunc[4] = 0;
+        mFrame.issued[STENCIL]++;
+        mGL.stencilFuncSeparate(face, func, ref, mask);
+    }
+
+    @Override
+    public void stencilMask(int mask) {
+        if (set(mStencilMask, STENCIL, mask, 0, 0, 0))
+            mGL.stencilMask(mask);
+    }
+
+    @Override
+    public void stencilMaskSeparate(int face, int mask) {
+        mStencilMask[4] = 0;
+        mFrame.issued[STENCIL]++;
+        mGL.stencilMaskSeparate(face, mask);
+    }
+
+    @Override
+    public void stencilOp(int fail, int zfail, int zpass) {
+        if (set(mStencilOp, STENCIL, fail, zfail, zpass, 0))
+            mGL.stencilOp(fail, zfail, zpass);
+    }
+
+    @Override
+    public void stencilOpSeparate(int face, int fail, int zfail, int zpass) {
+        mStencilOp[4] = 0;
+        mFrame.issued[STENCIL]++;
+        mGL.stencilOpSeparate(face, fail, zfail, zpass);
+    }
+
+    /* ------------------------ blending ------------------------ */
+
+    @Override
+    public void blendFunc(int sfactor, int dfactor) {
+        if (set(mBlendFunc, BLEND, sfactor, dfactor, sfactor, dfactor))
+            mGL.blendFunc(sfactor, dfactor);
+    }
+
+    @Override
+    public void blendFuncSeparate(int srcRGB, int dstRGB, int srcAlpha, int dstAlpha) {
+        if (set(mBlendFunc, BLEND, srcRGB, dstRGB, srcAlpha, dstAlpha))
+            mGL.blendFuncSeparate(srcRGB, dstRGB, srcAlpha, dstAlpha);
+    }
+
+    /* ------------------------ delegates ------------------------ */
+
+    @Override
+    public void activeTexture(int texture) {
+        mGL.activeTexture(texture);
+    }
+
+    @Override
+    public void bindTexture(int target, int texture) {
+        mGL.bindTexture(target, texture);
+    }
+
+    @Override
+    public void clear(int mask) {
+        mGL.clear(mask);
+    }
+
+    @Override
+    public void clearColor(float red, float green, float blue, float alpha) {
+        mGL.clearColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void clearDepthf(float depth) {
+        mGL.clearDepthf(depth);
+    }
+
+    @Override
+    public void clearStencil(int s) {
+        mGL.clearStencil(s);
+    }
+
+    @Override
+    public void colorMask(boolean red, boolean green, boolean blue, boolean alpha) {
+        mGL.colorMask(red, green, blue, alpha);
+    }
+
+    @Override
+    public void compressedTexImage2D(int target, int level, int internalformat, int width, int height, int border, int imageSize, Buffer data) {
+        mGL.compressedTexImage2D(target, level, internalformat, width, height, border, imageSize, data);
+    }
+
+    @Override
+    public void compressedTexSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int imageSize, Buffer data) {
+        mGL.compressedTexSubImage2D(target, level, xoffset, yoffset, width, height, format, imageSize, data);
+    }
+
+    @Override
+    public void copyTexImage2D(int target, int level, int internalformat, int x, int y, int width, int height, int border) {
+        mGL.copyTexImage2D(target, level, internalformat, x, y, width, height, border);
+    }
+
+    @Override
+    public void copyTexSubImage2D(int target, int level, int xoffset, int yoffset, int x, int y, int width, int height) {
+        mGL.copyTexSubImage2D(target, level, xoffset, yoffset, x, y, width, height);
+    }
+
+    @Override
+    public void cullFace(int mode) {
+        mGL.cullFace(mode);
+    }
+
+    @Override
+    public void deleteTextures(int n, IntBuffer textures) {
+        mGL.deleteTextures(n, textures);
+    }
+
+    @Override
+    public void deleteTexture(int texture) {
+        mGL.deleteTexture(texture);
+    }
+
+    @Override
+    public void depthFunc(int func) {
+        mGL.depthFunc(func);
+    }
+
+    @Override
+    public void depthMask(boolean flag) {
+        mGL.depthMask(flag);
+    }
+
+    @Override
+    public void depthRangef(float zNear, float zFar) {
+        mGL.depthRangef(zNear, zFar);
+    }
+
+    @Override
+    public void disable(int cap) {
+        mGL.disable(cap);
+    }
+
+    @Override
+    public void drawArrays(int mode, int first, int count) {
+        mGL.drawArrays(mode, first, count);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, Buffer indices) {
+        mGL.drawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void enable(int cap) {
+        mGL.enable(cap);
+    }
+
+    @Override
+    public void finish() {
+        mGL.finish();
+    }
+
+    @Override
+    public void flush() {
+        mGL.flush();
+    }
+
+    @Override
+    public void frontFace(int mode) {
+        mGL.frontFace(mode);
+    }
+
+    @Override
+    public void genTextures(int n, IntBuffer textures) {
+        mGL.genTextures(n, textures);
+    }
+
+    @Override
+    public int genTexture() {
+        return mGL.genTexture();
+    }
+
+    @Override
+    public int getError() {
+        return mGL.getError();
+    }
+
+    @Override
+    public void getIntegerv(int pname, IntBuffer params) {
+        mGL.getIntegerv(pname, params);
+    }
+
+    @Override
+    public String getString(int name) {
+        return mGL.getString(name);
+    }
+
+    @Override
+    public void hint(int target, int mode) {
+        mGL.hint(target, mode);
+    }
+
+    @Override
+    public void lineWidth(float width) {
+        mGL.lineWidth(width);
+    }
+
+    @Override
+    public void pixelStorei(int pname, int param) {
+        mGL.pixelStorei(pname, param);
+    }
+
+    @Override
+    public void polygonOffset(float factor, float units) {
+        mGL.polygonOffset(factor, units);
+    }
+
+    @Override
+    public void readPixels(int x, int y, int width, int height, int format, int type, Buffer pixels) {
+        mGL.readPixels(x, y, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void scissor(int x, int y, int width, int height) {
+        mGL.scissor(x, y, width, height);
+    }
+
+    @Override
+    public void texImage2D(int target, int level, int internalformat, int width, int height, int border, int format, int type, Buffer pixels) {
+        mGL.texImage2D(target, level, internalformat, width, height, border, format, type, pixels);
+    }
+
+    @Override
+    public void texParameterf(int target, int pname, float param) {
+        mGL.texParameterf(target, pname, param);
+    }
+
+    @Override
+    public void texSubImage2D(int target, int level, int xoffset, int yoffset, int width, int height, int format, int type, Buffer pixels) {
+        mGL.texSubImage2D(target, level, xoffset, yoffset, width, height, format, type, pixels);
+    }
+
+    @Override
+    public void viewport(int x, int y, int width, int height) {
+        mGL.viewport(x, y, width, height);
+    }
+
+    @Override
+    public void attachShader(int program, int shader) {
+        mGL.attachShader(program, shader);
+    }
+
+    @Override
+    public void bindAttribLocation(int program, int index, String name) {
+        mGL.bindAttribLocation(program, index, name);
+    }
+
+    @Override
+    public void bindFramebuffer(int target, int framebuffer) {
+        mGL.bindFramebuffer(target, framebuffer);
+    }
+
+    @Override
+    public void bindRenderbuffer(int target, int renderbuffer) {
+        mGL.bindRenderbuffer(target, renderbuffer);
+    }
+
+    @Override
+    public void blendColor(float red, float green, float blue, float alpha) {
+        mGL.blendColor(red, green, blue, alpha);
+    }
+
+    @Override
+    public void blendEquation(int mode) {
+        mGL.blendEquation(mode);
+    }
+
+    @Override
+    public void blendEquationSeparate(int modeRGB, int modeAlpha) {
+        mGL.blendEquationSeparate(modeRGB, modeAlpha);
+    }
+
+    @Override
+    public void bufferData(int target, int size, Buffer data, int usage) {
+        mGL.bufferData(target, size, data, usage);
+    }
+
+    @Override
+    public void bufferSubData(int target, int offset, int size, Buffer data) {
+        mGL.bufferSubData(target, offset, size, data);
+    }
+
+    @Override
+    public int checkFramebufferStatus(int target) {
+        return mGL.checkFramebufferStatus(target);
+    }
+
+    @Override
+    public void compileShader(int shader) {
+        mGL.compileShader(shader);
+    }
+
+    @Override
+    public int createProgram() {
+        return mGL.createProgram();
+    }
+
+    @Override
+    public int createShader(int type) {
+        return mGL.createShader(type);
+    }
+
+    @Override
+    public void deleteFramebuffer(int framebuffer) {
+        mGL.deleteFramebuffer(framebuffer);
+    }
+
+    @Override
+    public void deleteFramebuffers(int n, IntBuffer framebuffers) {
+        mGL.deleteFramebuffers(n, framebuffers);
+    }
+
+    @Override
+    public void deleteRenderbuffer(int renderbuffer) {
+        mGL.deleteRenderbuffer(renderbuffer);
+    }
+
+    @Override
+    public void deleteRenderbuffers(int n, IntBuffer renderbuffers) {
+        mGL.deleteRenderbuffers(n, renderbuffers);
+    }
+
+    @Override
+    public void deleteShader(int shader) {
+        mGL.deleteShader(shader);
+    }
+
+    @Override
+    public void detachShader(int program, int shader) {
+        mGL.detachShader(program, shader);
+    }
+
+    @Override
+    public void disableVertexAttribArray(int index) {
+        mGL.disableVertexAttribArray(index);
+    }
+
+    @Override
+    public void drawElements(int mode, int count, int type, int indices) {
+        mGL.drawElements(mode, count, type, indices);
+    }
+
+    @Override
+    public void enableVertexAttribArray(int index) {
+        mGL.enableVertexAttribArray(index);
+    }
+
+    @Override
+    public void framebufferRenderbuffer(int target, int attachment, int renderbuffertarget, int renderbuffer) {
+        mGL.framebufferRenderbuffer(target, attachment, renderbuffertarget, renderbuffer);
+    }
+
+    @Override
+    public void framebufferTexture2D(int target, int attachment, int textarget, int texture, int level) {
+        mGL.framebufferTexture2D(target, attachment, textarget, texture, level);
+    }
+
+    @Override
+    public int genBuffer() {
+        return mGL.genBuffer();
+    }
+
+    @Override
+    public void genBuffers(int n, IntBuffer buffers) {
+        mGL.genBuffers(n, buffers);
+    }
+
+    @Override
+    public void generateMipmap(int target) {
+        mGL.generateMipmap(target);
+    }
+
+    @Override
+    public int genFramebuffer() {
+        return mGL.genFramebuffer();
+    }
+
+    @Override
+    public void genFramebuffers(int n, IntBuffer framebuffers) {
+        mGL.genFramebuffers(n, framebuffers);
+    }
+
+    @Override
+    public int genRenderbuffer() {
+        return mGL.genRenderbuffer();
+    }
+
+    @Override
+    public void genRenderbuffers(int n, IntBuffer renderbuffers) {
+        mGL.genRenderbuffers(n, renderbuffers);
+    }
+
+    @Override
+    public String getActiveAttrib(int program, int index, IntBuffer size, Buffer type) {
+        return mGL.getActiveAttrib(program, index, size, type);
+    }
+
+    @Override
+    public String getActiveUniform(int program, int index, IntBuffer size, Buffer type) {
+        return mGL.getActiveUniform(program, index, size, type);
+    }
+
+    @Override
+    public void getAttachedShaders(int program, int maxcount, Buffer count, IntBuffer shaders) {
+        mGL.getAttachedShaders(program, maxcount, count, shaders);
+    }
+
+    @Override
+    public void getBooleanv(int pname, Buffer params) {
+        mGL.getBooleanv(pname, params);
+    }
+
+    @Override
+    public void getBufferParameteriv(int target, int pname, IntBuffer params) {
+        mGL.getBufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void getFloatv(int pname, FloatBuffer params) {
+        mGL.getFloatv(pname, params);
+    }
+
+    @Override
+    public void getFramebufferAttachmentParameteriv(int target, int attachment, int pname, IntBuffer params) {
+        mGL.getFramebufferAttachmentParameteriv(target, attachment, pname, params);
+    }
+
+    @Override
+    public void getProgramiv(int program, int pname, IntBuffer params) {
+        mGL.getProgramiv(program, pname, params);
+    }
+
+    @Override
+    public String getProgramInfoLog(int program) {
+        return mGL.getProgramInfoLog(program);
+    }
+
+    @Override
+    public void getRenderbufferParameteriv(int target, int pname, IntBuffer params) {
+        mGL.getRenderbufferParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void getShaderiv(int shader, int pname, IntBuffer params) {
+        mGL.getShaderiv(shader, pname, params);
+    }
+
+    @Override
+    public String getShaderInfoLog(int shader) {
+        return mGL.getShaderInfoLog(shader);
+    }
+
+    @Override
+    public void getShaderPrecisionFormat(int shadertype, int precisiontype, IntBuffer range, IntBuffer precision) {
+        mGL.getShaderPrecisionFormat(shadertype, precisiontype, range, precision);
+    }
+
+    @Override
+    public void getTexParameterfv(int target, int pname, FloatBuffer params) {
+        mGL.getTexParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void getTexParameteriv(int target, int pname, IntBuffer params) {
+        mGL.getTexParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void getUniformfv(int program, int location, FloatBuffer params) {
+        mGL.getUniformfv(program, location, params);
+    }
+
+    @Override
+    public void getUniformiv(int program, int location, IntBuffer params) {
+        mGL.getUniformiv(program, location, params);
+    }
+
+    @Override
+    public void getVertexAttribfv(int index, int pname, FloatBuffer params) {
+        mGL.getVertexAttribfv(index, pname, params);
+    }
+
+    @Override
+    public void getVertexAttribiv(int index, int pname, IntBuffer params) {
+        mGL.getVertexAttribiv(index, pname, params);
+    }
+
+    @Override
+    public void getVertexAttribPointerv(int index, int pname, Buffer pointer) {
+        mGL.getVertexAttribPointerv(index, pname, pointer);
+    }
+
+    @Override
+    public boolean isBuffer(int buffer) {
+        return mGL.isBuffer(buffer);
+    }
+
+    @Override
+    public boolean isEnabled(int cap) {
+        return mGL.isEnabled(cap);
+    }
+
+    @Override
+    public boolean isFramebuffer(int framebuffer) {
+        return mGL.isFramebuffer(framebuffer);
+    }
+
+    @Override
+    public boolean isProgram(int program) {
+        return mGL.isProgram(program);
+    }
+
+    @Override
+    public boolean isRenderbuffer(int renderbuffer) {
+        return mGL.isRenderbuffer(renderbuffer);
+    }
+
+    @Override
+    public boolean isShader(int shader) {
+        return mGL.isShader(shader);
+    }
+
+    @Override
+    public boolean isTexture(int texture) {
+        return mGL.isTexture(texture);
+    }
+
+    @Override
+    public void releaseShaderCompiler() {
+        mGL.releaseShaderCompiler();
+    }
+
+    @Override
+    public void renderbufferStorage(int target, int internalformat, int width, int height) {
+        mGL.renderbufferStorage(target, internalformat, width, height);
+    }
+
+    @Override
+    public void sampleCoverage(float value, boolean invert) {
+        mGL.sampleCoverage(value, invert);
+    }
+
+    @Override
+    public void shaderBinary(int n, IntBuffer shaders, int binaryformat, Buffer binary, int length) {
+        mGL.shaderBinary(n, shaders, binaryformat, binary, length);
+    }
+
+    @Override
+    public void shaderSource(int shader, String string) {
+        mGL.shaderSource(shader, string);
+    }
+
+    @Override
+    public void texParameterfv(int target, int pname, FloatBuffer params) {
+        mGL.texParameterfv(target, pname, params);
+    }
+
+    @Override
+    public void texParameteri(int target, int pname, int param) {
+        mGL.texParameteri(target, pname, param);
+    }
+
+    @Override
+    public void texParameteriv(int target, int pname, IntBuffer params) {
+        mGL.texParameteriv(target, pname, params);
+    }
+
+    @Override
+    public void uniform1fv(int location, int count, FloatBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform1fv(location, count, v);
+    }
+
+    @Override
+    public void uniform1fv(int location, int count, float[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform1fv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform1iv(int location, int count, IntBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform1iv(location, count, v);
+    }
+
+    @Override
+    public void uniform1iv(int location, int count, int[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform1iv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform2fv(int location, int count, FloatBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform2fv(location, count, v);
+    }
+
+    @Override
+    public void uniform2fv(int location, int count, float[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform2fv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform2i(int location, int x, int y) {
+        invalidateUniforms(location, 1);
+        mGL.uniform2i(location, x, y);
+    }
+
+    @Override
+    public void uniform2iv(int location, int count, IntBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform2iv(location, count, v);
+    }
+
+    @Override
+    public void uniform2iv(int location, int count, int[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform2iv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform3fv(int location, int count, FloatBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform3fv(location, count, v);
+    }
+
+    @Override
+    public void uniform3fv(int location, int count, float[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform3fv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform3i(int location, int x, int y, int z) {
+        invalidateUniforms(location, 1);
+        mGL.uniform3i(location, x, y, z);
+    }
+
+    @Override
+    public void uniform3iv(int location, int count, IntBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform3iv(location, count, v);
+    }
+
+    @Override
+    public void uniform3iv(int location, int count, int[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform3iv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform4fv(int location, int count, FloatBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform4fv(location, count, v);
+    }
+
+    @Override
+    public void uniform4fv(int location, int count, float[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform4fv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniform4i(int location, int x, int y, int z, int w) {
+        invalidateUniforms(location, 1);
+        mGL.uniform4i(location, x, y, z, w);
+    }
+
+    @Override
+    public void uniform4iv(int location, int count, IntBuffer v) {
+        invalidateUniforms(location, count);
+        mGL.uniform4iv(location, count, v);
+    }
+
+    @Override
+    public void uniform4iv(int location, int count, int[] v, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniform4iv(location, count, v, offset);
+    }
+
+    @Override
+    public void uniformMatrix2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL.uniformMatrix2fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix2fv(int location, int count, boolean transpose, float[] value, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniformMatrix2fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL.uniformMatrix3fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix3fv(int location, int count, boolean transpose, float[] value, int offset) {
+        invalidateUniforms(location, count);
+        mGL.uniformMatrix3fv(location, count, transpose, value, offset);
+    }
+
+    @Override
+    public void validateProgram(int program) {
+        mGL.validateProgram(program);
+    }
+
+    @Override
+    public void vertexAttrib1f(int indx, float x) {
+        mGL.vertexAttrib1f(indx, x);
+    }
+
+    @Override
+    public void vertexAttrib1fv(int indx, FloatBuffer values) {
+        mGL.vertexAttrib1fv(indx, values);
+    }
+
+    @Override
+    public void vertexAttrib2f(int indx, float x, float y) {
+        mGL.vertexAttrib2f(indx, x, y);
+    }
+
+    @Override
+    public void vertexAttrib2fv(int indx, FloatBuffer values) {
+        mGL.vertexAttrib2fv(indx, values);
+    }
+
+    @Override
+    public void vertexAttrib3f(int indx, float x, float y, float z) {
+        mGL.vertexAttrib3f(indx, x, y, z);
+    }
+
+    @Override
+    public void vertexAttrib3fv(int indx, FloatBuffer values) {
+        mGL.vertexAttrib3fv(indx, values);
+    }
+
+    @Override
+    public void vertexAttrib4f(int indx, float x, float y, float z, float w) {
+        mGL.vertexAttrib4f(indx, x, y, z, w);
+    }
+
+    @Override
+    public void vertexAttrib4fv(int indx, FloatBuffer values) {
+        mGL.vertexAttrib4fv(indx, values);
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.backend;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * {@link StateFilterGL} of a {@link GL30} context. The GL 3 calls are passed
+ * through, those which change the tracked state invalidate it: vertex array
+ * bindings, integer attribute pointers and the uniforms they set.
+ * {@link GLAdapter#init(GL)} sets it as both {@link GLAdapter#gl} and
+ * {@link GLAdapter#gl30}, so that all calls go through the filter.
+ */
+public class StateFilterGL30 extends StateFilterGL implements GL30 {
+
+    private final GL30 mGL30;
+
+    public StateFilterGL30(GL30 gl) {
+        super(gl);
+        mGL30 = gl;
+    }
+
+    @Override
+    public void readBuffer(int mode) {
+        mGL30.readBuffer(mode);
+    }
+
+    @Override
+    public void drawRangeElements(int mode, int start, int end, int count, int type, Buffer indices) {
+        mGL30.drawRangeElements(mode, start, end, count, type, indices);
+    }
+
+    @Override
+    public void drawRangeElements(int mode, int start, int end, int count, int type, int offset) {
+        mGL30.drawRangeElements(mode, start, end, count, type, offset);
+    }
+
+    @Override
+    public void texImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format,
+                           int type, Buffer pixels) {
+        mGL30.texImage3D(target, level, internalformat, width, height, depth, border, format, type, pixels);
+    }
+
+    @Override
+    public void texImage3D(int target, int level, int internalformat, int width, int height, int depth, int border, int format,
+                           int type, int offset) {
+        mGL30.texImage3D(target, level, internalformat, width, height, depth, border, format, type, offset);
+    }
+
+    @Override
+    public void texSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth,
+                              int format, int type, Buffer pixels) {
+        mGL30.texSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, pixels);
+    }
+
+    @Override
+    public void texSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int width, int height, int depth,
+                              int format, int type, int offset) {
+        mGL30.texSubImage3D(target, level, xoffset, yoffset, zoffset, width, height, depth, format, type, offset);
+    }
+
+    @Override
+    public void copyTexSubImage3D(int target, int level, int xoffset, int yoffset, int zoffset, int x, int y, int width,
+                                  int height) {
+        mGL30.copyTexSubImage3D(target, level, xoffset, yoffset, zoffset, x, y, width, height);
+    }
+
+    @Override
+    public void genQueries(int n, int[] ids, int offset) {
+        mGL30.genQueries(n, ids, offset);
+    }
+
+    @Override
+    public void genQueries(int n, IntBuffer ids) {
+        mGL30.genQueries(n, ids);
+    }
+
+    @Override
+    public void deleteQueries(int n, int[] ids, int offset) {
+        mGL30.deleteQueries(n, ids, offset);
+    }
+
+    @Override
+    public void deleteQueries(int n, IntBuffer ids) {
+        mGL30.deleteQueries(n, ids);
+    }
+
+    @Override
+    public boolean isQuery(int id) {
+        return mGL30.isQuery(id);
+    }
+
+    @Override
+    public void beginQuery(int target, int id) {
+        mGL30.beginQuery(target, id);
+    }
+
+    @Override
+    public void endQuery(int target) {
+        mGL30.endQuery(target);
+    }
+
+    @Override
+    public void getQueryiv(int target, int pname, IntBuffer params) {
+        mGL30.getQueryiv(target, pname, params);
+    }
+
+    @Override
+    public void getQueryObjectuiv(int id, int pname, IntBuffer params) {
+        mGL30.getQueryObjectuiv(id, pname, params);
+    }
+
+    @Override
+    public boolean unmapBuffer(int target) {
+        return mGL30.unmapBuffer(target);
+    }
+
+    @Override
+    public Buffer getBufferPointerv(int target, int pname) {
+        return mGL30.getBufferPointerv(target, pname);
+    }
+
+    @Override
+    public void drawBuffers(int n, IntBuffer bufs) {
+        mGL30.drawBuffers(n, bufs);
+    }
+
+    @Override
+    public void uniformMatrix2x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix2x3fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix3x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix3x2fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix2x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix2x4fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix4x2fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix4x2fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix3x4fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix3x4fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void uniformMatrix4x3fv(int location, int count, boolean transpose, FloatBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniformMatrix4x3fv(location, count, transpose, value);
+    }
+
+    @Override
+    public void blitFramebuffer(int srcX0, int srcY0, int srcX1, int srcY1, int dstX0, int dstY0, int dstX1, int dstY1,
+                                int mask, int filter) {
+        mGL30.blitFramebuffer(srcX0, srcY0, srcX1, srcY1, dstX0, dstY0, dstX1, dstY1, mask, filter);
+    }
+
+    @Override
+    public void renderbufferStorageMultisample(int target, int samples, int internalformat, int width, int height) {
+        mGL30.renderbufferStorageMultisample(target, samples, internalformat, width, height);
+    }
+
+    @Override
+    public void framebufferTextureLayer(int target, int attachment, int texture, int level, int layer) {
+        mGL30.framebufferTextureLayer(target, attachment, texture, level, layer);
+    }
+
+    @Override
+    public void flushMappedBufferRange(int target, int offset, int length) {
+        mGL30.flushMappedBufferRange(target, offset, length);
+    }
+
+    @Override
+    public void bindVertexArray(int array) {
+        /* the vertex array holds the element buffer and attributes */
+        invalidateBuffers();
+        mGL30.bindVertexArray(array);
+    }
+
+    @Override
+    public void deleteVertexArrays(int n, int[] arrays, int offset) {
+        invalidateBuffers();
+        mGL30.deleteVertexArrays(n, arrays, offset);
+    }
+
+    @Override
+    public void deleteVertexArrays(int n, IntBuffer arrays) {
+        invalidateBuffers();
+        mGL30.deleteVertexArrays(n, arrays);
+    }
+
+    @Override
+    public void genVertexArrays(int n, int[] arrays, int offset) {
+        mGL30.genVertexArrays(n, arrays, offset);
+    }
+
+    @Override
+    public void genVertexArrays(int n, IntBuffer arrays) {
+        mGL30.genVertexArrays(n, arrays);
+    }
+
+    @Override
+    public boolean isVertexArray(int array) {
+        return mGL30.isVertexArray(array);
+    }
+
+    @Override
+    public void beginTransformFeedback(int primitiveMode) {
+        mGL30.beginTransformFeedback(primitiveMode);
+    }
+
+    @Override
+    public void endTransformFeedback() {
+        mGL30.endTransformFeedback();
+    }
+
+    @Override
+    public void bindBufferRange(int target, int index, int buffer, int offset, int size) {
+        mGL30.bindBufferRange(target, index, buffer, offset, size);
+    }
+
+    @Override
+    public void bindBufferBase(int target, int index, int buffer) {
+        mGL30.bindBufferBase(target, index, buffer);
+    }
+
+    @Override
+    public void transformFeedbackVaryings(int program, String[] varyings, int bufferMode) {
+        mGL30.transformFeedbackVaryings(program, varyings, bufferMode);
+    }
+
+    @Override
+    public void vertexAttribIPointer(int index, int size, int type, int stride, int offset) {
+        invalidateAttrib(index);
+        mGL30.vertexAttribIPointer(index, size, type, stride, offset);
+    }
+
+    @Override
+    public void getVertexAttribIiv(int index, int pname, IntBuffer params) {
+        mGL30.getVertexAttribIiv(index, pname, params);
+    }
+
+    @Override
+    public void getVertexAttribIuiv(int index, int pname, IntBuffer params) {
+        mGL30.getVertexAttribIuiv(index, pname, params);
+    }
+
+    @Override
+    public void vertexAttribI4i(int index, int x, int y, int z, int w) {
+        mGL30.vertexAttribI4i(index, x, y, z, w);
+    }
+
+    @Override
+    public void vertexAttribI4ui(int index, int x, int y, int z, int w) {
+        mGL30.vertexAttribI4ui(index, x, y, z, w);
+    }
+
+    @Override
+    public void getUniformuiv(int program, int location, IntBuffer params) {
+        mGL30.getUniformuiv(program, location, params);
+    }
+
+    @Override
+    public int getFragDataLocation(int program, String name) {
+        return mGL30.getFragDataLocation(program, name);
+    }
+
+    @Override
+    public void uniform1uiv(int location, int count, IntBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniform1uiv(location, count, value);
+    }
+
+    @Override
+    public void uniform3uiv(int location, int count, IntBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniform3uiv(location, count, value);
+    }
+
+    @Override
+    public void uniform4uiv(int location, int count, IntBuffer value) {
+        invalidateUniforms(location, count);
+        mGL30.uniform4uiv(location, count, value);
+    }
+
+    @Override
+    public void clearBufferiv(int buffer, int drawbuffer, IntBuffer value) {
+        mGL30.clearBufferiv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void clearBufferuiv(int buffer, int drawbuffer, IntBuffer value) {
+        mGL30.clearBufferuiv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void clearBufferfv(int buffer, int drawbuffer, FloatBuffer value) {
+        mGL30.clearBufferfv(buffer, drawbuffer, value);
+    }
+
+    @Override
+    public void clearBufferfi(int buffer, int drawbuffer, float depth, int stencil) {
+        mGL30.clearBufferfi(buffer, drawbuffer, depth, stencil);
+    }
+
+    @Override
+    public String getStringi(int name, int index) {
+        return mGL30.getStringi(name, index);
+    }
+
+    @Override
+    public void copyBufferSubData(int readTarget, int writeTarget, int readOffset, int writeOffset, int size) {
+        mGL30.copyBufferSubData(readTarget, writeTarget, readOffset, writeOffset, size);
+    }
+
+    @Override
+    public void getUniformIndices(int program, String[] uniformNames, IntBuffer uniformIndices) {
+        mGL30.getUniformIndices(program, uniformNames, uniformIndices);
+    }
+
+    @Override
+    public void getActiveUniformsiv(int program, int uniformCount, IntBuffer uniformIndices, int pname,
+                                    IntBuffer params) {
+        mGL30.getActiveUniformsiv(program, uniformCount, uniformIndices, pname, params);
+    }
+
+    @Override
+    public int getUniformBlockIndex(int program, String uniformBlockName) {
+        return mGL30.getUniformBlockIndex(program, uniformBlockName);
+    }
+
+    @Override
+    public void getActiveUniformBlockiv(int program, int uniformBlockIndex, int pname, IntBuffer params) {
+        mGL30.getActiveUniformBlockiv(program, uniformBlockIndex, pname, params);
+    }
+
+    @Override
+    public void getActiveUniformBlockName(int program, int uniformBlockIndex, Buffer length,
+                                          Buffer uniformBlockName) {
+        mGL30.getActiveUniformBlockName(program, uniformBlockIndex, length, uniformBlockName);
+    }
+
+    @Override
+    public String getActiveUniformBlockName(int program, int uniformBlockIndex) {
+        return mGL30.getActiveUniformBlockName(program, uniformBlockIndex);
+    }
+
+    @Override
+    public void uniformBlockBinding(int program, int uniformBlockIndex, int uniformBlockBinding) {
+        mGL30.uniformBlockBinding(program, uniformBlockIndex, uniformBlockBinding);
+    }
+
+    @Override
+    public void drawArraysInstanced(int mode, int first, int count, int instanceCount) {
+        mGL30.drawArraysInstanced(mode, first, count, instanceCount);
+    }
+
+    @Override
+    public void drawElementsInstanced(int mode, int count, int type, int indicesOffset, int instanceCount) {
+        mGL30.drawElementsInstanced(mode, count, type, indicesOffset, instanceCount);
+    }
+
+    @Override
+    public void getInteger64v(int pname, LongBuffer params) {
+        mGL30.getInteger64v(pname, params);
+    }
+
+    @Override
+    public void getBufferParameteri64v(int target, int pname, LongBuffer params) {
+        mGL30.getBufferParameteri64v(target, pname, params);
+    }
+
+    @Override
+    public void genSamplers(int count, int[] samplers, int offset) {
+        mGL30.genSamplers(count, samplers, offset);
+    }
+
+    @Override
+    public void genSamplers(int count, IntBuffer samplers) {
+        mGL30.genSamplers(count, samplers);
+    }
+
+    @Override
+    public void deleteSamplers(int count, int[] samplers, int offset) {
+        mGL30.deleteSamplers(count, samplers, offset);
+    }
+
+    @Override
+    public void deleteSamplers(int count, IntBuffer samplers) {
+        mGL30.deleteSamplers(count, samplers);
+    }
+
+    @Override
+    public boolean isSampler(int sampler) {
+        return mGL30.isSampler(sampler);
+    }
+
+    @Override
+    public void bindSampler(int unit, int sampler) {
+        mGL30.bindSampler(unit, sampler);
+    }
+
+    @Override
+    public void samplerParameteri(int sampler, int pname, int param) {
+        mGL30.samplerParameteri(sampler, pname, param);
+    }
+
+    @Override
+    public void samplerParameteriv(int sampler, int pname, IntBuffer param) {
+        mGL30.samplerParameteriv(sampler, pname, param);
+    }
+
+    @Override
+    public void samplerParameterf(int sampler, int pname, float param) {
+        mGL30.samplerParameterf(sampler, pname, param);
+    }
+
+    @Override
+    public void samplerParameterfv(int sampler, int pname, FloatBuffer param) {
+        mGL30.samplerParameterfv(sampler, pname, param);
+    }
+
+    @Override
+    public void getSamplerParameteriv(int sampler, int pname, IntBuffer params) {
+        mGL30.getSamplerParameteriv(sampler, pname, params);
+    }
+
+    @Override
+    public void getSamplerParameterfv(int sampler, int pname, FloatBuffer params) {
+        mGL30.getSamplerParameterfv(sampler, pname, params);
+    }
+
+    @Override
+    public void vertexAttribDivisor(int index, int divisor) {
+        mGL30.vertexAttribDivisor(index, divisor);
+    }
+
+    @Override
+    public void bindTransformFeedback(int target, int id) {
+        mGL30.bindTransformFeedback(target, id);
+    }
+
+    @Override
+    public void deleteTransformFeedbacks(int n, int[] ids, int offset) {
+        mGL30.deleteTransformFeedbacks(n, ids, offset);
+    }
+
+    @Override
+    public void deleteTransformFeedbacks(int n, IntBuffer ids) {
+        mGL30.deleteTransformFeedbacks(n, ids);
+    }
+
+    @Override
+    public void genTransformFeedbacks(int n, int[] ids, int offset) {
+        mGL30.genTransformFeedbacks(n, ids, offset);
+    }
+
+    @Override
+    public void genTransformFeedbacks(int n, IntBuffer ids) {
+        mGL30.genTransformFeedbacks(n, ids);
+    }
+
+    @Override
+    public boolean isTransformFeedback(int id) {
+        return mGL30.isTransformFeedback(id);
+    }
+
+    @Override
+    public void pauseTransformFeedback() {
+        mGL30.pauseTransformFeedback();
+    }
+
+    @Override
+    public void resumeTransformFeedback() {
+        mGL30.resumeTransformFeedback();
+    }
+
+    @Override
+    public void programParameteri(int program, int pname, int value) {
+        mGL30.programParameteri(program, pname, value);
+    }
+
+    @Override
+    public void invalidateFramebuffer(int target, int numAttachments, IntBuffer attachments) {
+        mGL30.invalidateFramebuffer(target, numAttachments, attachments);
+    }
+
+    @Override
+    public void invalidateSubFramebuffer(int target, int numAttachments, IntBuffer attachments, int x, int y,
+                                         int width, int height) {
+        mGL30.invalidateSubFramebuffer(target, numAttachments, attachments, x, y, width, height);
+    }
+}
@@ -42,6 +42,7 @@ import org.oscim.renderer.bucket.RenderBuckets;
 import org.oscim.theme.styles.LineStyle;
 import org.oscim.utils.FastMath;
 import org.oscim.utils.GeoPointUtils;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.async.SimpleWorker;
 import org.oscim.utils.geom.LineClipper;
 
@@ -263,6 +264,7 @@ public class PathLayer extends Layer implements GestureListener {
 
         public Worker(Map map) {
             super(map, 0, new Task(), new Task());
+            mPriority = MapExecutor.PRIORITY_PATHS;
             mClipper = new LineClipper(-MAX_CLIP, -MAX_CLIP, MAX_CLIP, MAX_CLIP);
             mPPoints = new float[0];
         }
@@ -373,6 +375,12 @@ public class PathLayer extends Layer implements GestureListener {
             float[] segment = null;
 
             for (int j = 2; j < size * 2; j += 2) {
+                /* canceled or superseded by another zoom level */
+                if ((j & 0x3fff) == 0 && MapExecutor.isCanceled()) {
+                    task.buckets.clear();
+                    return false;
+                }
+
                 x = (int) ((mPreprojected[j + 0] - mx) * scale);
                 y = (int) ((mPreprojected[j + 1] - my) * scale);
 
@@ -447,19 +455,23 @@ public class PathLayer extends Layer implements GestureListener {
         }
     }
 
-    public synchronized boolean contains(float x, float y) {
+    public boolean contains(float x, float y) {
         // Touch min 20 px at baseline mdpi (160dpi)
         double distance = Math.max(20 / 2 * CanvasAdapter.getScale(), mLineStyle.width);
-        for (int i = 0; i < mPoints.size() - 1; i++) {
-            if (i == 0)
-                mMap.viewport().toScreenPoint(mPoints.get(i), false, mPoint1);
-            else {
-                mPoint1.x = mPoint2.x;
-                mPoint1.y = mPoint2.y;
+        /* guarded by the lock of the points like their modifications,
+         * the worker holds it only while projecting them */
+        synchronized (mPoints) {
+            for (int i = 0; i < mPoints.size() - 1; i++) {
+                if (i == 0)
+                    mMap.viewport().toScreenPoint(mPoints.get(i), false, mPoint1);
+                else {
+                    mPoint1.x = mPoint2.x;
+                    mPoint1.y = mPoint2.y;
+                }
+                mMap.viewport().toScreenPoint(mPoints.get(i + 1), false, mPoint2);
+                if (GeoPointUtils.distanceSegmentPoint(mPoint1.x, mPoint1.y, mPoint2.x, mPoint2.y, x, y) <= distance)
+                    return true;
             }
-            mMap.viewport().toScreenPoint(mPoints.get(i + 1), false, mPoint2);
-            if (GeoPointUtils.distanceSegmentPoint(mPoint1.x, mPoint1.y, mPoint2.x, mPoint2.y, x, y) <= distance)
-                return true;
         }
         return false;
     }
@@ -92,4 +92,54 @@ public class JobQueue {
         return t;
 
     }
+
+    /**
+     * Jobs are adjacent when their tiles have the same ancestor this many
+     * zoom levels above, i.e. lie in a square of 4x4 tiles.
+     */
+    public static int BATCH_LEVELS = 2;
+
+    /**
+     * Take the most important job and, in the order of their priority,
+     * up to max - 1 further jobs with tiles adjacent to it.
+     *
+     * @return the number of jobs put into tiles, 0 if empty.
+     */
+    public synchronized int poll(MapTile[] tiles, int max) {
+        MapTile first = poll();
+        if (first == null)
+            return 0;
+
+        tiles[0] = first;
+        int count = 1;
+        if (mJobs == null || max <= 1)
+            return count;
+
+        int x = first.tileX >> BATCH_LEVELS;
+        int y = first.tileY >> BATCH_LEVELS;
+        for (int i = mCurrentJob, n = mJobs.length; i < n && count < max; i++) {
+            MapTile t = mJobs[i];
+            if (t.zoomLevel == first.zoomLevel
+                    && (t.tileX >> BATCH_LEVELS) == x
+                    && (t.tileY >> BATCH_LEVELS) == y) {
+                tiles[count++] = t;
+                mJobs[i] = null;
+            }
+        }
+
+        /* move the remaining jobs to the end, keeping their order */
+        int pos = mJobs.length;
+        for (int i = pos - 1; i >= mCurrentJob; i--) {
+            if (mJobs[i] != null)
+                mJobs[--pos] = mJobs[i];
+        }
+        for (int i = mCurrentJob; i < pos; i++)
+            mJobs[i] = null;
+
+        mCurrentJob = pos;
+        if (mCurrentJob == mJobs.length)
+            mJobs = null;
+
+        return count;
+    }
 }
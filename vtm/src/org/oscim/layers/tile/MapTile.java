@@ -131,6 +131,11 @@ public class MapTile extends Tile {
      */
     int lastDraw = 0;
 
+    /**
+     * Frame time when tile was last in view region. Set by TileRenderer.
+     */
+    public long lastVisible;
+
     /**
      * Keep track which tiles are locked as proxy for this tile
      */
@@ -154,6 +159,13 @@ public class MapTile extends Tile {
 
         protected abstract void dispose();
 
+        /**
+         * @return bytes of GL memory held by this data
+         */
+        public int getMemoryUsage() {
+            return 0;
+        }
+
         @Override
         public TileData next() {
             return (TileData) next;
@@ -307,6 +319,16 @@ public class MapTile extends Tile {
         return (RenderBuckets) data;
     }
 
+    /**
+     * @return bytes of GL memory held by all TileData of this tile
+     */
+    public int getMemoryUsage() {
+        int bytes = 0;
+        for (TileData d = data; d != null; d = d.next)
+            bytes += d.getMemoryUsage();
+        return bytes;
+    }
+
     public TileData getData(Object id) {
         for (TileData d = data; d != null; d = d.next)
             if (d.id == id)
@@ -116,6 +116,7 @@ public abstract class TileLayer extends Layer implements UpdateListener {
             loader.finish();
             loader.dispose();
         }
+        mTileManager.dispose();
     }
 
     public void notifyLoaders() {
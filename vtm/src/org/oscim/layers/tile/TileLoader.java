@@ -40,6 +40,11 @@ public abstract class TileLoader extends PausableThread implements ITileDataSink
      */
     protected MapTile mTile;
 
+    /**
+     * currently processed batch of tiles
+     */
+    private MapTile[] mBatch = new MapTile[0];
+
     public TileLoader(TileManager tileManager) {
         super();
         mTileManager = tileManager;
@@ -48,6 +53,33 @@ public abstract class TileLoader extends PausableThread implements ITileDataSink
 
     protected abstract boolean loadTile(MapTile tile);
 
+    /**
+     * @return the number of adjacent tiles to be passed to
+     * {@link #loadTiles(MapTile[], int)} at once
+     */
+    protected int getBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Load several adjacent tiles. Override when the tile source can
+     * load them together, completed() must be called for each tile.
+     */
+    protected boolean loadTiles(MapTile[] tiles, int count) {
+        boolean ok = true;
+        for (int i = 0; i < count; i++) {
+            mTile = tiles[i];
+            try {
+                ok &= loadTile(mTile);
+            } catch (Exception e) {
+                e.printStackTrace();
+                completed(FAILED);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
     public void go() {
         synchronized (this) {
             notify();
@@ -56,6 +88,20 @@ public abstract class TileLoader extends PausableThread implements ITileDataSink
 
     @Override
     protected void doWork() {
+        int batchSize = getBatchSize();
+        if (batchSize > 1) {
+            if (mBatch.length < batchSize)
+                mBatch = new MapTile[batchSize];
+
+            int count = mTileManager.getTileJobs(mBatch, batchSize);
+            if (count > 0)
+                loadTiles(mBatch, count);
+
+            for (int i = 0; i < count; i++)
+                mBatch[i] = null;
+            return;
+        }
+
         mTile = mTileManager.getTileJob();
 
         if (mTile == null)
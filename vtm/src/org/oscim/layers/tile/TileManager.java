@@ -26,7 +26,8 @@ import org.oscim.event.EventListener;
 import org.oscim.layers.tile.MapTile.TileNode;
 import org.oscim.map.Map;
 import org.oscim.map.Viewport;
-import org.oscim.renderer.BufferObject;
+import org.oscim.renderer.MapRenderer;
+import org.oscim.renderer.MemoryBudget;
 import org.oscim.tiling.QueryResult;
 import org.oscim.utils.ScanBox;
 import org.oscim.utils.quadtree.TileIndex;
@@ -126,6 +127,11 @@ public class TileManager {
 
     private final float[] mMapPlane = new float[8];
 
+    private final MemoryBudget.Account mMemoryAccount =
+            MemoryBudget.register(getClass().getSimpleName());
+    private MapTile[] mEvictCandidates = new MapTile[0];
+    private float[] mEvictScores = new float[0];
+
     private boolean mLoadParent;
     private int mPrevZoomlevel;
 
@@ -378,7 +384,7 @@ public class TileManager {
         mJobs.clear();
 
         if (mCacheReduce < mCacheLimit / 2) {
-            if (BufferObject.isMaxFill()) {
+            if (MemoryBudget.getAccountedExcess() > 0) {
                 mCacheReduce += 10;
                 if (dbg)
                     log.debug("reduce cache {}", (mCacheLimit - mCacheReduce));
@@ -395,6 +401,11 @@ public class TileManager {
                 limitCache(pos, remove);
             }
         }
+
+        /* limit GL memory of cached tiles */
+        synchronized (mTilelock) {
+            limitMemory(pos);
+        }
         return true;
     }
 
@@ -410,6 +421,14 @@ public class TileManager {
         return jobQueue.poll();
     }
 
+    /**
+     * @return the number of adjacent jobs put into tiles, see
+     * {@link JobQueue#poll(MapTile[], int)}
+     */
+    public int getTileJobs(MapTile[] tiles, int max) {
+        return jobQueue.poll(tiles, max);
+    }
+
     /**
      * Retrieve a TileSet of current tiles. Tiles remain locked in cache until
      * the set is unlocked by either passing it again to this function or to
@@ -606,6 +625,114 @@ public class TileManager {
         mTilesToUpload = newTileCnt;
     }
 
+    /**
+     * Update the memory account of this TileManager and, while the accounts
+     * of the {@link MemoryBudget} exceed its limit, evict unlocked, uploaded
+     * tiles with the highest
+     * {@link MemoryBudget#evictionScore(int, float, long) cost/benefit score}.
+     * <p/>
+     * Only uploaded tiles are accounted: buffers and textures of other tiles
+     * are not allocated yet or are still being built by loader threads.
+     */
+    private void limitMemory(MapPosition pos) {
+        MapTile[] tiles = mTiles;
+        int bytes = 0;
+        int candidates = 0;
+
+        for (int i = 0; i < mTilesEnd; i++) {
+            MapTile t = tiles[i];
+            if (t == null || !t.state(READY))
+                continue;
+            int size = t.getMemoryUsage();
+            bytes += size;
+            if (size > 0 && !t.isLocked())
+                candidates++;
+        }
+        mMemoryAccount.set(bytes);
+
+        /* evicted tiles are released later on the GL-Thread, so the global
+         * usage would still include them: use the accounted bytes */
+        int excess = MemoryBudget.getAccountedExcess();
+        if (excess == 0 || candidates == 0)
+            return;
+
+        /* only evict our share of the excess */
+        int total = MemoryBudget.getAccountedUsage();
+        if (total > 0)
+            excess = (int) ((long) excess * bytes / total);
+
+        updateDistances(tiles, mTilesEnd, pos);
+
+        if (mEvictCandidates.length < candidates)
+            mEvictCandidates = new MapTile[candidates];
+        if (mEvictScores.length < candidates)
+            mEvictScores = new float[candidates];
+
+        MapTile[] evict = mEvictCandidates;
+        float[] scores = mEvictScores;
+        int cnt = 0;
+        long now = MapRenderer.frametime;
+        for (int i = 0; i < mTilesEnd; i++) {
+            MapTile t = tiles[i];
+            if (t == null || t.isLocked() || !t.state(READY))
+                continue;
+            int size = t.getMemoryUsage();
+            if (size == 0)
+                continue;
+            evict[cnt] = t;
+            scores[cnt] = MemoryBudget.evictionScore(size, t.distance,
+                    Math.max(0, now - t.lastVisible));
+            cnt++;
+        }
+
+        int freed = 0;
+        while (freed < excess && cnt > 0) {
+            /* pick the tile with highest score */
+            int max = 0;
+            for (int i = 1; i < cnt; i++) {
+                if (scores[i] > scores[max])
+                    max = i;
+            }
+            MapTile t = evict[max];
+            evict[max] = evict[--cnt];
+            scores[max] = scores[cnt];
+            evict[cnt] = null;
+
+            int size = t.getMemoryUsage();
+            if (removeFromCache(t)) {
+                for (int i = 0; i < mTilesEnd; i++) {
+                    if (tiles[i] == t) {
+                        tiles[i] = null;
+                        break;
+                    }
+                }
+                freed += size;
+                mMemoryAccount.evicted(size);
+            }
+        }
+        for (int i = 0; i < cnt; i++)
+            evict[i] = null;
+
+        mMemoryAccount.set(bytes - freed);
+        if (dbg && freed > 0)
+            log.debug("evicted {}kB ({}kB over budget)", freed / 1024, excess / 1024);
+    }
+
+    /**
+     * @return the account of GL memory held by tiles of this TileManager
+     */
+    public MemoryBudget.Account getMemoryAccount() {
+        return mMemoryAccount;
+    }
+
+    /**
+     * Remove the memory account of this TileManager from the
+     * {@link MemoryBudget}. Called when the layer is detached.
+     */
+    public void dispose() {
+        MemoryBudget.unregister(mMemoryAccount);
+    }
+
     /**
      * Called by TileLoader thread when tile is loaded.
      *
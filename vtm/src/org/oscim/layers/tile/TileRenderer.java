@@ -52,6 +52,12 @@ public abstract class TileRenderer extends LayerRenderer {
 
     private int mUploadSerial;
 
+    /**
+     * Upload statistics of the last frame.
+     */
+    private long mUploadTime;
+    private int mUploadCount;
+
     public TileRenderer() {
         mUploadSerial = 0;
         mDrawTiles = new TileSet();
@@ -117,15 +123,41 @@ public abstract class TileRenderer extends LayerRenderer {
                 /* check visibile tiles */
                 mScanBox.scan(v.pos.x, v.pos.y, v.pos.scale, tileZoom, v.plane);
             }
+
+            /* remember when tiles were last in view, see TileManager.limitMemory() */
+            MapTile[] tiles = mDrawTiles.tiles;
+            for (int i = 0; i < mDrawTiles.cnt; i++) {
+                if (tiles[i].isVisible)
+                    tiles[i].lastVisible = MapRenderer.frametime;
+            }
         }
         /* prepare tiles for rendering */
-        if (compileTileLayers(mDrawTiles.tiles, mDrawTiles.cnt + mProxyTileCnt) > 0) {
+        long uploadStart = System.nanoTime();
+        mUploadCount = compileTileLayers(mDrawTiles.tiles, mDrawTiles.cnt + mProxyTileCnt);
+        mUploadTime = System.nanoTime() - uploadStart;
+
+        if (mUploadCount > 0) {
             mUploadSerial++;
             BufferObject.checkBufferUsage(false);
         }
         setReady(true);
     }
 
+    /**
+     * @return time spent compiling and uploading tile data in the last
+     * frame, in nanoseconds
+     */
+    public long getUploadTime() {
+        return mUploadTime;
+    }
+
+    /**
+     * @return number of tiles uploaded in the last frame
+     */
+    public int getUploadCount() {
+        return mUploadCount;
+    }
+
     public void clearTiles() {
         synchronized (tilelock) {
             /* Clear all references to MapTiles as all current
@@ -32,7 +32,9 @@ import org.oscim.renderer.bucket.MeshBucket;
 import org.oscim.renderer.bucket.PolygonBucket;
 import org.oscim.renderer.bucket.RenderBucket;
 import org.oscim.renderer.bucket.RenderBuckets;
+import org.oscim.renderer.bucket.TileBatch;
 import org.oscim.utils.FastMath;
+import org.oscim.utils.Parameters;
 
 import static org.oscim.backend.GLAdapter.gl;
 import static org.oscim.layers.tile.MapTile.PROXY_GRAMPA;
@@ -62,6 +64,13 @@ public class VectorTileRenderer extends TileRenderer {
      */
     protected int mDrawSerial;
 
+    /**
+     * Draws tiles with one draw call per level when
+     * {@link Parameters#BATCH_TILES} is set.
+     */
+    protected final TileBatch mTileBatch = new TileBatch();
+    private final MapTile[] mBatchTiles = new MapTile[TileBatch.MAX_TILES];
+
     @Override
     public synchronized void render(GLViewport v) {
 
@@ -101,6 +110,10 @@ public class VectorTileRenderer extends TileRenderer {
             }
         }
 
+        /* batch needs all tiles at the same zoom-level */
+        if (Parameters.BATCH_TILES && !drawProxies)
+            drawBatch(tiles, tileCnt, v);
+
         /* draw visible tiles */
         for (int i = 0; i < tileCnt; i++) {
             MapTile t = tiles[i];
@@ -159,6 +172,42 @@ public class VectorTileRenderer extends TileRenderer {
         //GL.stencilMask(0x00);
     }
 
+    private void drawBatch(MapTile[] tiles, int tileCnt, GLViewport v) {
+        double tileScale = Tile.SIZE * v.pos.scale;
+        int zoomLevel = tiles[0].zoomLevel;
+        float scale = (float) (v.pos.scale / (1 << zoomLevel));
+
+        mTileBatch.begin();
+        int cnt = 0;
+        for (int i = 0; i < tileCnt && cnt < TileBatch.MAX_TILES; i++) {
+            MapTile t = tiles[i];
+            if (!t.isVisible || !t.state(READY) || t.holder != null
+                    || t.zoomLevel != zoomLevel)
+                continue;
+
+            RenderBuckets buckets = t.getBuckets();
+            if (buckets == null || buckets.vbo == null)
+                continue;
+
+            /* tiles that fade in are drawn with overdraw color */
+            if (mOverdrawColor != 0
+                    && MapRenderer.frametime - getFadeTime(t, 0) <= FADE_TIME)
+                continue;
+
+            float x = (float) ((t.x - v.pos.x) * tileScale);
+            float y = (float) ((t.y - v.pos.y) * tileScale);
+            if (mTileBatch.add(buckets, x, y, scale))
+                mBatchTiles[cnt++] = t;
+        }
+
+        if (mTileBatch.draw(v, scale)) {
+            for (int i = 0; i < cnt; i++)
+                mBatchTiles[i].lastDraw = mDrawSerial;
+        }
+        for (int i = 0; i < cnt; i++)
+            mBatchTiles[i] = null;
+    }
+
     private void drawTile(MapTile tile, GLViewport v, int proxyLevel) {
 
         /* ensure to draw parents only once */
@@ -246,6 +295,20 @@ public class VectorTileRenderer extends TileRenderer {
             return;
         }
 
+        long dTime = MapRenderer.frametime - getFadeTime(tile, proxyLevel);
+
+        if (mOverdrawColor == 0 || dTime > FADE_TIME) {
+            PolygonBucket.Renderer.drawOver(mClipMVP, 0, 1);
+            return;
+        }
+
+        float fade = 1 - dTime / FADE_TIME;
+        PolygonBucket.Renderer.drawOver(mClipMVP, mOverdrawColor, fade * fade);
+
+        MapRenderer.animate();
+    }
+
+    private long getFadeTime(MapTile tile, int proxyLevel) {
         long fadeTime = tile.fadeTime;
         if (fadeTime == 0) {
             if (tile.holder == null) {
@@ -258,18 +321,7 @@ public class VectorTileRenderer extends TileRenderer {
             }
             tile.fadeTime = fadeTime;
         }
-
-        long dTime = MapRenderer.frametime - fadeTime;
-
-        if (mOverdrawColor == 0 || dTime > FADE_TIME) {
-            PolygonBucket.Renderer.drawOver(mClipMVP, 0, 1);
-            return;
-        }
-
-        float fade = 1 - dTime / FADE_TIME;
-        PolygonBucket.Renderer.drawOver(mClipMVP, mOverdrawColor, fade * fade);
-
-        MapRenderer.animate();
+        return fadeTime;
     }
 
     protected boolean drawChildren(MapTile t, GLViewport v) {
@@ -161,9 +161,10 @@ public class BitmapTileLayer extends TileLayer {
     static final int POOL_FILL = 20;
 
     /**
-     * pool shared by TextLayers
+     * pool shared by TextLayers, also keeps uploaded Bitmaps
+     * for decoding the next tiles into.
      */
-    final TexturePool pool = new TexturePool(POOL_FILL) {
+    final TexturePool pool = new TexturePool(POOL_FILL, true) {
 
         //        int sum = 0;
         //
@@ -16,16 +16,21 @@
  */
 package org.oscim.layers.tile.bitmap;
 
+import org.oscim.backend.CanvasAdapter;
 import org.oscim.backend.canvas.Bitmap;
 import org.oscim.core.Tile;
 import org.oscim.layers.tile.MapTile;
 import org.oscim.layers.tile.TileLoader;
 import org.oscim.renderer.bucket.BitmapBucket;
 import org.oscim.renderer.bucket.RenderBuckets;
+import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.ITileDataSource;
 import org.oscim.tiling.TileSource;
 import org.oscim.debug.Logger;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import static org.oscim.layers.tile.MapTile.State.LOADING;
 
 public class BitmapTileLoader extends TileLoader {
@@ -55,7 +60,7 @@ public class BitmapTileLoader extends TileLoader {
     @Override
     public void setTileImage(Bitmap bitmap) {
         if (isCanceled() || !mTile.state(LOADING)) {
-            bitmap.recycle();
+            mLayer.pool.recycleBitmap(bitmap);
             return;
         }
 
@@ -67,6 +72,38 @@ public class BitmapTileLoader extends TileLoader {
         mTile.data = buckets;
     }
 
+    /**
+     * @return a Bitmap of a released tile to decode the next tile into,
+     * or null.
+     */
+    public Bitmap getRecycledBitmap() {
+        return mLayer.pool.getRecycledBitmap();
+    }
+
+    /**
+     * Decode a tile image, into a recycled Bitmap when 'sink' is a
+     * BitmapTileLoader.
+     */
+    public static Bitmap decodeBitmap(InputStream is, ITileDataSink sink) throws IOException {
+        Bitmap reuse = null;
+        if (sink instanceof BitmapTileLoader)
+            reuse = ((BitmapTileLoader) sink).getRecycledBitmap();
+
+        Bitmap bitmap;
+        try {
+            bitmap = CanvasAdapter.decodeBitmap(is, reuse);
+        } catch (IOException e) {
+            if (reuse != null)
+                reuse.recycle();
+            throw e;
+        }
+        /* drop Bitmaps that do not fit this source */
+        if (reuse != null && reuse != bitmap)
+            reuse.recycle();
+
+        return bitmap;
+    }
+
     @Override
     public void dispose() {
         mTileDataSource.cancel();
@@ -67,6 +67,14 @@ public class BuildingLayer extends Layer implements TileLoaderThemeHook, ZoomLim
 
     private static final Object BUILDING_DATA = BuildingLayer.class.getName();
 
+    /**
+     * Keys of the tags read by the layer, see {@link MapElement#isBuilding()}.
+     */
+    private static final Set<String> TAG_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            Tag.KEY_BUILDING, Tag.KEY_BUILDING_PART, "kind", "layer",
+            Tag.KEY_HEIGHT, Tag.KEY_MIN_HEIGHT, Tag.KEY_BUILDING_LEVELS, Tag.KEY_BUILDING_MIN_LEVEL,
+            Tag.KEY_ID, Tag.KEY_REF)));
+
     // Can be replaced with Multimap in Java 8
     protected java.util.Map<Integer, List<BuildingElement>> mBuildings = new HashMap<>();
 
@@ -133,6 +141,11 @@ public class BuildingLayer extends Layer implements TileLoaderThemeHook, ZoomLim
         mZoomLimiter.removeZoomLimit();
     }
 
+    @Override
+    public Set<String> getTagKeys() {
+        return TAG_KEYS;
+    }
+
     /**
      * TileLoaderThemeHook
      */
@@ -31,6 +31,8 @@ import org.oscim.utils.geom.GeometryUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -46,6 +48,21 @@ public class S3DBLayer extends BuildingLayer {
 
     private final float TILE_SCALE = (ExtrusionUtils.REF_TILE_SIZE / (Tile.SIZE * COORD_SCALE));
 
+    /**
+     * Number of roof meshes kept for reuse in other tiles.
+     */
+    public static int MESH_CACHE_SIZE = 2000;
+
+    private final S3DBMeshCache mMeshCache = new S3DBMeshCache(MESH_CACHE_SIZE);
+
+    /**
+     * Keys of the tags read for roofs and colors, besides those of buildings.
+     */
+    private static final Set<String> TAG_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            Tag.KEY_ROOF_HEIGHT, Tag.KEY_ROOF_LEVELS, Tag.KEY_ROOF_ANGLE, Tag.KEY_ROOF_SHAPE,
+            Tag.KEY_ROOF_COLOR, Tag.KEY_ROOF_MATERIAL, Tag.KEY_ROOF_ORIENTATION, Tag.KEY_ROOF_DIRECTION,
+            Tag.KEY_BUILDING_COLOR, Tag.KEY_BUILDING_MATERIAL)));
+
     private boolean mColored = true;
     private boolean mTransparent = true;
 
@@ -92,6 +109,20 @@ public class S3DBLayer extends BuildingLayer {
         mTransparent = transparent;
     }
 
+    /**
+     * @return the cache of generated roof meshes
+     */
+    public S3DBMeshCache getMeshCache() {
+        return mMeshCache;
+    }
+
+    @Override
+    public Set<String> getTagKeys() {
+        Set<String> keys = new HashSet<>(super.getTagKeys());
+        keys.addAll(TAG_KEYS);
+        return keys;
+    }
+
     @Override
     public void complete(MapTile tile, boolean success) {
         super.complete(tile, success);
@@ -283,49 +314,67 @@ public class S3DBLayer extends BuildingLayer {
 
         float groundScale = tile.getGroundScale();
 
-        GeometryBuffer gElement = new GeometryBuffer(element);
-        GeometryBuffer specialParts = null;
-
         if (mTransparent) {
             // Use transparency of default roof color
             roofColor = ExtrusionStyle.blendAlpha(roofColor, Color.aToFloat(extrusion.colorTop));
         }
 
+        float roofDegree = 0;
+        if (v.equals(Tag.VALUE_SKILLION)) {
+            // ROOF_SLOPE_DIRECTION is not supported yet
+            String roofDirection = element.tags.getValue(Tag.KEY_ROOF_DIRECTION);
+            if (roofDirection != null) {
+                roofDegree = Float.parseFloat(roofDirection);
+            }
+        }
+
+        GeometryBuffer gElement;
+        GeometryBuffer specialParts;
         boolean success;
-        switch (v) {
-            case Tag.VALUE_DOME:
-            case Tag.VALUE_ONION:
-                success = S3DBUtils.calcCircleMesh(gElement, minHeight, maxHeight, v);
-                break;
-            case Tag.VALUE_ROUND:
-            case Tag.VALUE_SALTBOX:
-            case Tag.VALUE_GABLED:
-            case Tag.VALUE_GAMBREL:
-                specialParts = new GeometryBuffer(0, 0); // No data in GeometryBuffer needed
-                success = S3DBUtils.calcRidgeMesh(gElement, minHeight, maxHeight, roofOrientationAcross, true, specialParts);
-                break;
-            case Tag.VALUE_MANSARD:
-            case Tag.VALUE_HALF_HIPPED:
-            case Tag.VALUE_HIPPED:
-                success = S3DBUtils.calcRidgeMesh(gElement, minHeight, maxHeight, roofOrientationAcross, false, null);
-                break;
-            case Tag.VALUE_SKILLION:
-                // ROOF_SLOPE_DIRECTION is not supported yet
-                String roofDirection = element.tags.getValue(Tag.KEY_ROOF_DIRECTION);
-                float roofDegree = 0;
-                if (roofDirection != null) {
-                    roofDegree = Float.parseFloat(roofDirection);
-                }
-                specialParts = new GeometryBuffer(element);
-                success = S3DBUtils.calcSkillionMesh(gElement, minHeight, maxHeight, roofDegree, specialParts);
-                break;
-            case Tag.VALUE_PYRAMIDAL:
-                success = S3DBUtils.calcPyramidalMesh(gElement, minHeight, maxHeight);
-                break;
-            case Tag.VALUE_FLAT:
-            default:
-                success = S3DBUtils.calcFlatMesh(gElement, minHeight);
-                break;
+
+        S3DBMeshCache.Key key = mMeshCache.key(getValue(element, Tag.KEY_ID), v,
+                roofOrientationAcross, roofDegree, element, minHeight, maxHeight);
+        S3DBMeshCache.Mesh mesh = mMeshCache.get(key);
+        if (mesh != null) {
+            gElement = mesh.roof;
+            specialParts = mesh.specialParts;
+            success = true;
+        } else {
+            gElement = new GeometryBuffer(element);
+            specialParts = null;
+
+            switch (v) {
+                case Tag.VALUE_DOME:
+                case Tag.VALUE_ONION:
+                    success = S3DBUtils.calcCircleMesh(gElement, minHeight, maxHeight, v);
+                    break;
+                case Tag.VALUE_ROUND:
+                case Tag.VALUE_SALTBOX:
+                case Tag.VALUE_GABLED:
+                case Tag.VALUE_GAMBREL:
+                    specialParts = new GeometryBuffer(0, 0); // No data in GeometryBuffer needed
+                    success = S3DBUtils.calcRidgeMesh(gElement, minHeight, maxHeight, roofOrientationAcross, true, specialParts);
+                    break;
+                case Tag.VALUE_MANSARD:
+                case Tag.VALUE_HALF_HIPPED:
+                case Tag.VALUE_HIPPED:
+                    success = S3DBUtils.calcRidgeMesh(gElement, minHeight, maxHeight, roofOrientationAcross, false, null);
+                    break;
+                case Tag.VALUE_SKILLION:
+                    specialParts = new GeometryBuffer(element);
+                    success = S3DBUtils.calcSkillionMesh(gElement, minHeight, maxHeight, roofDegree, specialParts);
+                    break;
+                case Tag.VALUE_PYRAMIDAL:
+                    success = S3DBUtils.calcPyramidalMesh(gElement, minHeight, maxHeight);
+                    break;
+                case Tag.VALUE_FLAT:
+                default:
+                    success = S3DBUtils.calcFlatMesh(gElement, minHeight);
+                    break;
+            }
+
+            if (success)
+                mMeshCache.put(key, gElement, specialParts);
         }
 
         if (success) {
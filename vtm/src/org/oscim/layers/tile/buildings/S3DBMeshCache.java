@@ -0,0 +1,218 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.layers.tile.buildings;
+
+import org.oscim.core.GeometryBuffer;
+import org.oscim.utils.LRUCache;
+
+import java.util.Arrays;
+
+/**
+ * Cache for generated roof meshes of {@link S3DBLayer}.
+ * <p/>
+ * Meshes are stored relative to the first point of the building outline. A
+ * building which is loaded again, e.g. in the neighbouring tile or after its
+ * tile was evicted, gets the cached mesh translated to its current position
+ * instead of recalculating it. The key holds the building id besides the
+ * inputs of the roof calculation, so entries are per building: identically
+ * shaped buildings with different ids do not share one.
+ * <p/>
+ * Meshes depend on the absolute size of the outline (ridge snapping), so
+ * they are only reused at the same scale, i.e. within one zoom level.
+ */
+public class S3DBMeshCache {
+
+    /**
+     * Key of a roof mesh: building id, roof orientation and direction,
+     * heights and the outline relative to its first point.
+     */
+    public static final class Key {
+        final String id;
+        final String shape;
+        final boolean orientationAcross;
+        final float direction;
+        final float minHeight;
+        final float maxHeight;
+        final float[] points;
+        final int[] index;
+        final float originX;
+        final float originY;
+        private final int hash;
+
+        Key(String id, String shape, boolean orientationAcross, float direction,
+            GeometryBuffer outline, float minHeight, float maxHeight) {
+            this.id = id;
+            this.shape = shape;
+            this.orientationAcross = orientationAcross;
+            this.direction = direction;
+            this.minHeight = minHeight;
+            this.maxHeight = maxHeight;
+
+            int indexSize = 0;
+            while (indexSize < outline.index.length && outline.index[indexSize] >= 0)
+                indexSize++;
+            index = Arrays.copyOf(outline.index, indexSize);
+
+            originX = outline.pointNextPos > 1 ? outline.points[0] : 0;
+            originY = outline.pointNextPos > 1 ? outline.points[1] : 0;
+            points = new float[outline.pointNextPos];
+            for (int i = 0; i < points.length - 1; i += 2) {
+                points[i] = outline.points[i] - originX;
+                points[i + 1] = outline.points[i + 1] - originY;
+            }
+
+            int h = id == null ? 0 : id.hashCode();
+            h = 31 * h + shape.hashCode();
+            h = 31 * h + (orientationAcross ? 1 : 0);
+            h = 31 * h + Float.floatToIntBits(direction);
+            h = 31 * h + Float.floatToIntBits(minHeight);
+            h = 31 * h + Float.floatToIntBits(maxHeight);
+            h = 31 * h + Arrays.hashCode(index);
+            h = 31 * h + Arrays.hashCode(points);
+            hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && (id == null ? other.id == null : id.equals(other.id))
+                    && shape.equals(other.shape)
+                    && orientationAcross == other.orientationAcross
+                    && direction == other.direction
+                    && minHeight == other.minHeight
+                    && maxHeight == other.maxHeight
+                    && Arrays.equals(index, other.index)
+                    && Arrays.equals(points, other.points);
+        }
+    }
+
+    /**
+     * A cached roof mesh and the optional special parts (e.g. gables).
+     */
+    public static final class Mesh {
+        public final GeometryBuffer roof;
+        public final GeometryBuffer specialParts;
+
+        Mesh(GeometryBuffer roof, GeometryBuffer specialParts) {
+            this.roof = roof;
+            this.specialParts = specialParts;
+        }
+    }
+
+    private final LRUCache<Key, Mesh> mCache;
+
+    private long mHits;
+    private long mMisses;
+
+    /**
+     * @param capacity the maximum number of cached meshes
+     */
+    public S3DBMeshCache(int capacity) {
+        mCache = new LRUCache<>(capacity);
+    }
+
+    /**
+     * @param orientationAcross the roof orientation of ridge roofs
+     * @param direction         the slope direction of skillion roofs in degree
+     */
+    public Key key(String id, String shape, boolean orientationAcross, float direction,
+                   GeometryBuffer outline, float minHeight, float maxHeight) {
+        return new Key(id, shape, orientationAcross, direction, outline, minHeight, maxHeight);
+    }
+
+    /**
+     * @return a copy of the cached mesh at the position of the key outline
+     * or null when there is none.
+     */
+    public Mesh get(Key key) {
+        Mesh mesh;
+        synchronized (mCache) {
+            mesh = mCache.get(key);
+            if (mesh == null) {
+                mMisses++;
+                return null;
+            }
+            mHits++;
+        }
+        return new Mesh(translate(mesh.roof, key.originX, key.originY),
+                translate(mesh.specialParts, key.originX, key.originY));
+    }
+
+    /**
+     * Stores a copy of the mesh relative to the origin of the key outline.
+     */
+    public void put(Key key, GeometryBuffer roof, GeometryBuffer specialParts) {
+        Mesh mesh = new Mesh(translate(roof, -key.originX, -key.originY),
+                translate(specialParts, -key.originX, -key.originY));
+        synchronized (mCache) {
+            mCache.put(key, mesh);
+        }
+    }
+
+    public void clear() {
+        synchronized (mCache) {
+            mCache.clear();
+        }
+    }
+
+    public long getHits() {
+        synchronized (mCache) {
+            return mHits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (mCache) {
+            return mMisses;
+        }
+    }
+
+    public int size() {
+        synchronized (mCache) {
+            return mCache.size();
+        }
+    }
+
+    /**
+     * Copy a 3D triangle mesh and translate its x/y coordinates.
+     */
+    private static GeometryBuffer translate(GeometryBuffer mesh, float dx, float dy) {
+        if (mesh == null)
+            return null;
+
+        GeometryBuffer out = new GeometryBuffer(mesh);
+        if (!mesh.isTris()) {
+            // Not yet calculated parts are plain 2D geometries
+            out.translate(dx, dy);
+            return out;
+        }
+        float[] points = out.points;
+        for (int i = 0, n = points.length - 2; i < n; i += 3) {
+            points[i] += dx;
+            points[i + 1] += dy;
+        }
+        return out;
+    }
+}
@@ -38,23 +38,202 @@ public final class S3DBUtils {
     private static final boolean IMPROVE_RIDGE_CALCULATION = false;
     private static final int SNAP_THRESHOLD = 70; // Threshold for ridge snap calculation (maybe should depend on map scale)
 
+    private static final byte RIDGE_NONE = 0;
+    private static final byte RIDGE_NULL = 1; // ridge point which could not be calculated
+    private static final byte RIDGE_SET = 2;
+
+    /**
+     * Scratch space of ridge, gabled and skillion calculations. Each loader
+     * thread reuses its instance for all buildings and zoom levels, arrays
+     * only grow with the largest outline.
+     */
+    private static final class RoofScratch {
+        // Ground points (x, y, z)
+        float[] points = new float[0];
+        // Normalized vectors to next point (x, y) and their lengths
+        float[] vectors = new float[0];
+        float[] lengths = new float[0];
+        byte[] angles = new byte[0];
+        float[] bisections = new float[0];
+        float[] intersections = new float[0];
+        boolean[] hasIntersection = new boolean[0];
+
+        // Ridge points and ridge lines by index of ground point
+        float[] ridgePoints = new float[0];
+        byte[] ridgeState = new byte[0];
+        float[] ridgeLines = new float[0];
+        boolean[] hasRidgeLine = new boolean[0];
+        boolean[] gablePoints = new boolean[0];
+        boolean[] skipFace = new boolean[0];
+        int[] ridgeIndex = new int[0];
+        int[] faceIndex = new int[0];
+
+        // Triangles of roof and special parts
+        int[] mesh = new int[0];
+        int meshSize;
+        int[] parts = new int[0];
+        int partsSize;
+
+        // Split polygons of gabled roofs and positions of split points
+        float[] split1 = new float[0];
+        float[] split2 = new float[0];
+        int[] splitIndex1 = new int[0];
+        int[] splitIndex2 = new int[0];
+
+        // Points (x, y, z) of skillion planes
+        float[] skillion = new float[0];
+
+        final int[] longestSide = new int[2];
+        final float[] posA = new float[2];
+        final float[] posB = new float[2];
+        final float[] pos = new float[2];
+
+        void init(int size) {
+            if (angles.length < size) {
+                points = new float[size * 3];
+                vectors = new float[size * 2];
+                lengths = new float[size];
+                angles = new byte[size];
+                bisections = new float[size * 2];
+                intersections = new float[size * 2];
+                hasIntersection = new boolean[size];
+                ridgePoints = new float[size * 2];
+                ridgeState = new byte[size];
+                ridgeLines = new float[size * 2];
+                hasRidgeLine = new boolean[size];
+                gablePoints = new boolean[size];
+                skipFace = new boolean[size];
+                ridgeIndex = new int[size];
+                faceIndex = new int[size];
+                split1 = new float[(size + 3) * 2];
+                split2 = new float[(size + 3) * 2];
+                splitIndex1 = new int[size + 3];
+                splitIndex2 = new int[size + 3];
+            }
+            Arrays.fill(ridgeState, 0, size, RIDGE_NONE);
+            Arrays.fill(hasRidgeLine, 0, size, false);
+            Arrays.fill(gablePoints, 0, size, false);
+            Arrays.fill(skipFace, 0, size, false);
+            meshSize = 0;
+            partsSize = 0;
+        }
+
+        /**
+         * Load the ground points and calculate their vectors and angles.
+         */
+        void load(float[] points, int pointPos, int size, float height) {
+            init(size);
+            for (int k = 0; k < size; k++, pointPos += 2) {
+                this.points[3 * k] = points[pointPos];
+                this.points[3 * k + 1] = points[pointPos + 1];
+                this.points[3 * k + 2] = height;
+            }
+            // Normalized vectors
+            for (int k = 0; k < size; k++) {
+                int next = (k + 1) % size;
+                float vx = this.points[3 * next] - this.points[3 * k];
+                float vy = this.points[3 * next + 1] - this.points[3 * k + 1];
+                float length = (float) Math.sqrt(vx * vx + vy * vy);
+                lengths[k] = length;
+                vectors[2 * k] = vx / length;
+                vectors[2 * k + 1] = vy / length;
+            }
+            calcSimpleAngles(vectors, size, angles);
+        }
+
+        float[] skillionPoints(int size) {
+            if (skillion.length < size * 3)
+                skillion = new float[size * 3];
+            return skillion;
+        }
+
+        void putRidge(int index, boolean valid, float[] point) {
+            ridgeState[index] = valid ? RIDGE_SET : RIDGE_NULL;
+            if (valid) {
+                ridgePoints[2 * index] = point[0];
+                ridgePoints[2 * index + 1] = point[1];
+            }
+        }
+
+        void setRidgeLine(int index, float[] vectors, int vector) {
+            hasRidgeLine[index] = true;
+            ridgeLines[2 * index] = vectors[2 * vector];
+            ridgeLines[2 * index + 1] = vectors[2 * vector + 1];
+        }
+
+        void addMesh(int a) {
+            if (meshSize == mesh.length)
+                mesh = Arrays.copyOf(mesh, Math.max(64, mesh.length * 2));
+            mesh[meshSize++] = a;
+        }
+
+        void addMesh(int a, int b, int c) {
+            addMesh(a);
+            addMesh(b);
+            addMesh(c);
+        }
+
+        void addPart(int a, int b, int c) {
+            if (partsSize + 3 > parts.length)
+                parts = Arrays.copyOf(parts, Math.max(64, parts.length * 2));
+            parts[partsSize++] = a;
+            parts[partsSize++] = b;
+            parts[partsSize++] = c;
+        }
+    }
+
+    private static final ThreadLocal<RoofScratch> sScratch = new ThreadLocal<RoofScratch>() {
+        @Override
+        protected RoofScratch initialValue() {
+            return new RoofScratch();
+        }
+    };
+
     /**
      * Adds point to ridgePoints and snaps it to a point which is in radius of SNAP_THRESHOLD.
      */
-    private static void addSnapRidgePoint(int id, float[] point, TreeMap<Integer, float[]> ridgePoints) {
+    private static void addSnapRidgePoint(RoofScratch s, int size, int id, boolean valid, float[] point) {
         // Simplify ridgePoints
-        if (point == null) return;
-        for (float[] ridPoint : ridgePoints.values()) {
-            if (ridPoint == null) {
+        if (!valid) return;
+        float[] ridgePoints = s.ridgePoints;
+        for (int k = 0; k < size; k++) {
+            if (s.ridgeState[k] == RIDGE_NONE)
+                continue;
+            if (s.ridgeState[k] == RIDGE_NULL) {
                 log.debug("Ridge point not found!");
                 continue;
             }
-            if (GeometryUtils.distance2D(ridPoint, point) < SNAP_THRESHOLD) {
-                ridgePoints.put(id, ridPoint);
+            float dx = ridgePoints[2 * k] - point[0];
+            float dy = ridgePoints[2 * k + 1] - point[1];
+            if (Math.sqrt(dx * dx + dy * dy) < SNAP_THRESHOLD) {
+                s.ridgeState[id] = RIDGE_SET;
+                ridgePoints[2 * id] = ridgePoints[2 * k];
+                ridgePoints[2 * id + 1] = ridgePoints[2 * k + 1];
                 return;
             }
         }
-        ridgePoints.put(id, point);
+        s.putRidge(id, true, point);
+    }
+
+    /**
+     * Intersection of line A with line B, see {@link GeometryUtils#intersectionLines2D}.
+     *
+     * @param out the intersection (x, y), may be one of the input arrays
+     * @return false if lines do not intersect
+     */
+    private static boolean intersectionLines2D(float[] pA, int a, float[] vA, int va,
+                                               float[] pB, int b, float[] vB, int vb, float[] out) {
+        // pA + ldA * vA == pB + ldB * vB;
+        float det = vB[vb] * vA[va + 1] - vB[vb + 1] * vA[va];
+        if (det == 0)
+            return false;
+        float lambA = ((pB[b + 1] - pA[a + 1]) * vB[vb] - (pB[b] - pA[a]) * vB[vb + 1]) / det;
+
+        float x = pA[a] + lambA * vA[va];
+        float y = pA[a + 1] + lambA * vA[va + 1];
+        out[0] = x;
+        out[1] = y;
+        return true;
     }
 
     /**
@@ -185,25 +364,16 @@ public final class S3DBUtils {
         if (Tessellator.tessellate(element, element) == 0) return false;
 
         float[] points = element.points;
-        List<float[]> point3Fs = new ArrayList<>();
+        int numPoints = points.length >> 1;
 
-        // Calculate center and load points
-        for (int pointPos = 0; pointPos < points.length; pointPos += 2) {
-            float x = points[pointPos];
-            float y = points[pointPos + 1];
-            point3Fs.add(new float[]{x, y, maxHeight});
+        float[] meshPoints = new float[3 * numPoints];
+        for (int i = 0, pointPos = 0, pPos = 0; i < numPoints; i++) {
+            meshPoints[pPos++] = points[pointPos++];
+            meshPoints[pPos++] = points[pointPos++];
+            meshPoints[pPos++] = maxHeight;
         }
 
-        points = new float[3 * point3Fs.size()];
-        for (int i = 0; i < point3Fs.size(); i++) {
-            int pPos = 3 * i;
-            float[] point3D = point3Fs.get(i);
-            points[pPos + 0] = point3D[0];
-            points[pPos + 1] = point3D[1];
-            points[pPos + 2] = point3D[2];
-        }
-
-        element.points = points;
+        element.points = meshPoints;
         element.pointNextPos = element.points.length;
         element.type = GeometryBuffer.GeometryType.TRIS;
         return true;
@@ -219,77 +389,62 @@ public final class S3DBUtils {
         float[] points = element.points;
         int[] index = element.index;
 
-        element.points = null;
-        element.index = null;
-
-        for (int i = 0, pointPos = 0; i < index.length; i++) {
-            if (index[i] < 0) {
+        // Count points of all rings to write the mesh in one go
+        int numRings = 0;
+        int numPointsTotal = 0;
+        for (int i = 0; i < index.length; i++) {
+            if (index[i] < 0)
                 break;
-            }
+            numRings++;
+            numPointsTotal += index[i] / 2;
+        }
 
-            int numPoints = index[i] / 2;
-            if (numPoints < 0) continue;
+        if (numRings == 0) {
+            element.points = null;
+            element.index = null;
+            return false;
+        }
 
-            List<float[]> point3Fs = new ArrayList<>();
+        // Each point has a bottom and a top vertex, each side needs 2 triangles
+        float[] meshPoints = new float[numPointsTotal * 6];
+        int[] meshIndex = new int[numPointsTotal * 6];
+
+        int pointPos = 0;
+        int vertexOffset = 0;
+        int indexPos = 0;
+        for (int i = 0; i < numRings; i++) {
+            int numPoints = index[i] / 2;
+            int numVertices = numPoints * 2;
 
             // load points
-            for (int j = 0; j < numPoints; j++, pointPos += 2) {
+            for (int j = 0, pos = vertexOffset * 3; j < numPoints; j++, pointPos += 2) {
                 float x = points[pointPos];
                 float y = points[pointPos + 1];
 
-                point3Fs.add(new float[]{x, y, minHeight});
-                point3Fs.add(new float[]{x, y, maxHeight});
+                meshPoints[pos++] = x;
+                meshPoints[pos++] = y;
+                meshPoints[pos++] = minHeight;
+                meshPoints[pos++] = x;
+                meshPoints[pos++] = y;
+                meshPoints[pos++] = maxHeight;
             }
 
             // Write index: index gives the first point of triangle mesh (divided 3)
-            int[] meshIndex = new int[numPoints * 6]; // 3 vertices and each side needs 2 triangles
-            for (int j = 0; j < point3Fs.size(); j = j + 2) {
-                int pos = 3 * j; // triangle mesh
-                meshIndex[pos + 2] = j;
-                meshIndex[pos + 1] = (j + 1) % point3Fs.size();
-                meshIndex[pos + 0] = (j + 3) % point3Fs.size();
-
-                meshIndex[pos + 5] = (j + 3) % point3Fs.size();
-                meshIndex[pos + 4] = (j + 2) % point3Fs.size();
-                meshIndex[pos + 3] = (j);
-            }
-
-            // Write points
-            float[] meshPoints = new float[point3Fs.size() * 3];
-            for (int j = 0; j < point3Fs.size(); j++) {
-                int pos = 3 * j;
-                meshPoints[pos + 0] = point3Fs.get(j)[0];
-                meshPoints[pos + 1] = point3Fs.get(j)[1];
-                meshPoints[pos + 2] = point3Fs.get(j)[2];
-            }
-
-            // Init points and indices or add more polygons (e.g. inner rings)
-            if (element.points == null) {
-                element.points = meshPoints;
-            } else {
-                float[] tmpPoints = element.points;
-                element.points = new float[tmpPoints.length + meshPoints.length];
-                System.arraycopy(tmpPoints, 0, element.points, 0, tmpPoints.length);
-                System.arraycopy(meshPoints, 0, element.points, tmpPoints.length, meshPoints.length);
+            for (int j = 0; j < numVertices; j += 2) {
+                meshIndex[indexPos++] = vertexOffset + (j + 3) % numVertices;
+                meshIndex[indexPos++] = vertexOffset + (j + 1) % numVertices;
+                meshIndex[indexPos++] = vertexOffset + j;
+
+                meshIndex[indexPos++] = vertexOffset + j;
+                meshIndex[indexPos++] = vertexOffset + (j + 2) % numVertices;
+                meshIndex[indexPos++] = vertexOffset + (j + 3) % numVertices;
             }
-
-            if (element.index == null) {
-                element.index = meshIndex;
-            } else {
-                int[] tmpIndex = element.index;
-                element.index = new int[tmpIndex.length + meshIndex.length];
-                System.arraycopy(tmpIndex, 0, element.index, 0, tmpIndex.length);
-                // Shift all indices with previous element.points.length
-                for (int k = 0; k < meshIndex.length; k++) {
-                    element.index[k + tmpIndex.length] = meshIndex[k] + (element.pointNextPos / 3);
-                }
-            }
-            element.pointNextPos = element.points.length;
+            vertexOffset += numVertices;
         }
 
-        if (element.points == null) {
-            return false;
-        }
+        element.points = meshPoints;
+        element.index = meshIndex;
+        element.pointNextPos = meshPoints.length;
 
         //element.indexCurrentPos = 0;
         element.type = GeometryBuffer.GeometryType.TRIS;
@@ -305,44 +460,31 @@ public final class S3DBUtils {
     public static boolean calcPyramidalMesh(GeometryBuffer element, float minHeight, float maxHeight) {
         float[] points = element.points;
         int[] index = element.index;
-        float[] topPoint = new float[3];
-        topPoint[2] = maxHeight;
 
-        for (int i = 0, pointPos = 0; i < index.length; i++) {
-            if (index[i] < 0) {
-                break;
-            }
-            if (i > 0) break; // May add inner rings
+        // May add inner rings
+        if (index.length > 0 && index[0] >= 0) {
+            int numPoints = index[0] / 2;
 
-            int numPoints = index[i] / 2;
-            if (numPoints < 0) continue;
+            // Ground points and top of roof
+            float[] meshPoints = new float[(numPoints + 1) * 3];
+            int[] meshIndex = new int[numPoints * 3];
 
-            // Init top of roof (attention with pointPos)
-            GeometryUtils.center(points, pointPos, numPoints << 1, topPoint);
+            for (int j = 0, pointPos = 0, pos = 0; j < numPoints; j++) {
+                meshPoints[pos++] = points[pointPos++];
+                meshPoints[pos++] = points[pointPos++];
+                meshPoints[pos++] = minHeight;
+            }
 
-            List<float[]> point3Fs = new ArrayList<>();
-            // Load points
-            for (int j = 0; j < (numPoints * 2); j += 2, pointPos += 2)
-                point3Fs.add(new float[]{points[pointPos], points[pointPos + 1], minHeight});
+            float[] topPoint = GeometryUtils.center(points, 0, numPoints << 1, null);
+            meshPoints[numPoints * 3] = topPoint[0];
+            meshPoints[numPoints * 3 + 1] = topPoint[1];
+            meshPoints[numPoints * 3 + 2] = maxHeight;
 
             // Write index: index gives the first point of triangle mesh (divided 3)
-            int[] meshIndex = new int[numPoints * 3];
-            for (int j = 0; j < point3Fs.size(); j++) {
-                int pos = 3 * j; // triangle mesh
-                meshIndex[pos + 0] = j;
-                meshIndex[pos + 1] = (j + 1) % point3Fs.size();
-                meshIndex[pos + 2] = point3Fs.size();
-            }
-
-            // Write points
-            point3Fs.add(topPoint);
-            float[] meshPoints = new float[point3Fs.size() * 3];
-            for (int j = 0; j < point3Fs.size(); j++) {
-                int pos = 3 * j;
-                float[] point3D = point3Fs.get(j);
-                meshPoints[pos + 0] = point3D[0];
-                meshPoints[pos + 1] = point3D[1];
-                meshPoints[pos + 2] = point3D[2];
+            for (int j = 0, pos = 0; j < numPoints; j++) {
+                meshIndex[pos++] = j;
+                meshIndex[pos++] = (j + 1) % numPoints;
+                meshIndex[pos++] = numPoints;
             }
 
             element.points = meshPoints;
@@ -384,160 +526,172 @@ public final class S3DBUtils {
                 return true;
             }
 
-            List<float[]> point3Fs = new ArrayList<>();
-
-            // Calculate center and load points
-            for (int j = 0; j < (numPoints * 2); j += 2, pointPos += 2) {
-                float x = points[pointPos];
-                float y = points[pointPos + 1];
-
-                point3Fs.add(new float[]{x, y, minHeight});
-            }
-
-            // Calc vectors
-            int groundSize = point3Fs.size();
+            // Load points and calc vectors
+            RoofScratch s = sScratch.get();
+            s.load(points, pointPos, numPoints, minHeight);
+            int groundSize = numPoints;
 
-            List<Float> lengths = new ArrayList<>();
-            List<float[]> normVectors = GeometryUtils.normalizedVectors2D(point3Fs, lengths);
+            float[] point3Fs = s.points;
+            float[] normVectors = s.vectors;
+            byte[] simpleAngles = s.angles;
 
-            List<Byte> simpleAngles = getSimpleAngles(normVectors);
-
-            Integer indexStart = getIndexStart(simpleAngles, lengths, orientationAcross);
+            int indexStart = getIndexStart(s, groundSize, orientationAcross);
 
             int countConcavAngles = 0;
-            for (Byte simpleAngle : simpleAngles) {
-                if (simpleAngle < -1)
+            for (int k = 0; k < groundSize; k++) {
+                if (simpleAngles[k] < -1)
                     countConcavAngles++;
             }
 
             // Calc different mesh, if roof has no nearly right angle
-            if (indexStart == null) {
+            if (indexStart < 0) {
                 if (isGabled)
                     return calcSimpleGabledMesh(element, minHeight, maxHeight, orientationAcross, specialParts);
                 else
                     return calcPyramidalMesh(element, minHeight, maxHeight);
             }
 
-            List<float[]> bisections = getBisections(normVectors);
-            List<float[]> intersections = new ArrayList<>();
+            float[] bisections = s.bisections;
+            calcBisections(normVectors, groundSize, bisections);
 
             // Calc intersection of bisection
+            float[] intersections = s.intersections;
+            float[] pos = s.pos;
             for (int k = 0; k < groundSize; k++) {
-                int nextTurn = getIndexNextTurn(k, simpleAngles);
-                float[] pA = point3Fs.get(nextTurn);
-                float[] pB = point3Fs.get(k);
-                intersections.add(GeometryUtils.intersectionLines2D(pA, bisections.get(nextTurn), pB, bisections.get(k)));
+                int nextTurn = getIndexNextTurn(k, simpleAngles, groundSize);
+                s.hasIntersection[k] = intersectionLines2D(point3Fs, 3 * nextTurn, bisections, 2 * nextTurn,
+                        point3Fs, 3 * k, bisections, 2 * k, pos);
+                intersections[2 * k] = pos[0];
+                intersections[2 * k + 1] = pos[1];
             }
 
             // Calc ridge points
-            TreeMap<Integer, float[]> ridgePoints = new TreeMap<>();
-            TreeMap<Integer, float[]> ridgeLines = new TreeMap<>();
-            HashSet<Integer> gablePoints = new HashSet<>(); // Only used if gabled
-            Integer currentRidgeInd = null;
+            float[] ridgePoints = s.ridgePoints;
+            byte[] ridgeState = s.ridgeState;
+            float[] ridgeLines = s.ridgeLines;
+            boolean[] hasRidgeLine = s.hasRidgeLine;
+            boolean[] gablePoints = s.gablePoints; // Only used if gabled
+            float[] positionRidgeA = s.posA;
+            float[] positionRidgeB = s.posB;
+            int currentRidgeInd = -1;
             boolean isOdd = false;
             for (int k = 0; k < groundSize; k++) {
                 int shift = (k + indexStart) % groundSize;
-                byte direction = simpleAngles.get(shift);
+                byte direction = simpleAngles[shift];
                 if (direction == 0) {
                     continue; // direction is similar to last one
                 } else if (direction < 0) {
                     // If shape turns left (concave)
-                    float[] positionRidgeA = null;
-                    float[] positionRidgeB = null;
+                    boolean hasRidgeA = false;
+                    boolean hasRidgeB = false;
 
                     // Check two previous corners
-                    Integer indexPrevious = getIndexPreviousConvexTurn(shift, simpleAngles);
-                    Integer indexPrevious2 = getIndexPreviousConvexTurn(indexPrevious == null ? shift - 1 : indexPrevious, simpleAngles);
+                    int indexPrevious = getIndexPreviousConvexTurn(shift, simpleAngles, groundSize);
+                    int indexPrevious2 = getIndexPreviousConvexTurn(indexPrevious < 0 ? shift - 1 : indexPrevious, simpleAngles, groundSize);
 
-                    if (indexPrevious != null && indexPrevious2 != null) {
+                    if (indexPrevious >= 0 && indexPrevious2 >= 0) {
                         // Write two previous
-                        if (!ridgeLines.containsKey(indexPrevious2)) {
-                            ridgeLines.put(indexPrevious2, normVectors.get(indexPrevious));
+                        if (!hasRidgeLine[indexPrevious2]) {
+                            s.setRidgeLine(indexPrevious2, normVectors, indexPrevious);
                         }
 
-                        positionRidgeA = intersections.get(indexPrevious2);
+                        hasRidgeA = s.hasIntersection[indexPrevious2];
+                        positionRidgeA[0] = intersections[2 * indexPrevious2];
+                        positionRidgeA[1] = intersections[2 * indexPrevious2 + 1];
                         currentRidgeInd = indexPrevious2;
                         if (isGabled) {
-                            positionRidgeA = GeometryUtils.intersectionLines2D(positionRidgeA, ridgeLines.get(indexPrevious2), point3Fs.get(indexPrevious2), normVectors.get(indexPrevious2));
-                            gablePoints.add(indexPrevious2);
+                            hasRidgeA = hasRidgeA && intersectionLines2D(positionRidgeA, 0, ridgeLines, 2 * indexPrevious2,
+                                    point3Fs, 3 * indexPrevious2, normVectors, 2 * indexPrevious2, positionRidgeA);
+                            gablePoints[indexPrevious2] = true;
                         }
-                        ridgePoints.put(indexPrevious2, positionRidgeA);
+                        s.putRidge(indexPrevious2, hasRidgeA, positionRidgeA);
 
                         // Remove previous ridge, if exists
-                        gablePoints.remove(indexPrevious);
-                        ridgePoints.remove(indexPrevious);
-                        ridgeLines.remove(indexPrevious);
+                        gablePoints[indexPrevious] = false;
+                        ridgeState[indexPrevious] = RIDGE_NONE;
+                        hasRidgeLine[indexPrevious] = false;
                     }
 
                     // Check two next corners
-                    Integer indexNext = getIndexNextConvexTurn(shift, simpleAngles);
-                    Integer indexNext2 = getIndexNextConvexTurn(indexNext == null ? shift + 1 : indexNext, simpleAngles);
+                    int indexNext = getIndexNextConvexTurn(shift, simpleAngles, groundSize);
+                    int indexNext2 = getIndexNextConvexTurn(indexNext < 0 ? shift + 1 : indexNext, simpleAngles, groundSize);
 
-                    if (indexNext != null && indexNext2 != null) {
-                        if (ridgePoints.get(indexNext) == null) {
+                    if (indexNext >= 0 && indexNext2 >= 0) {
+                        if (ridgeState[indexNext] != RIDGE_SET) {
                             // Write both next
-                            if (!ridgeLines.containsKey(indexNext)) {
-                                ridgeLines.put(indexNext, normVectors.get(indexNext2));
+                            if (!hasRidgeLine[indexNext]) {
+                                s.setRidgeLine(indexNext, normVectors, indexNext2);
                             }
-                            positionRidgeB = intersections.get(indexNext);
+                            hasRidgeB = s.hasIntersection[indexNext];
+                            positionRidgeB[0] = intersections[2 * indexNext];
+                            positionRidgeB[1] = intersections[2 * indexNext + 1];
 
                             if (isGabled) {
-                                positionRidgeB = GeometryUtils.intersectionLines2D(positionRidgeB, ridgeLines.get(indexNext), point3Fs.get(indexNext), normVectors.get(indexNext));
-                                gablePoints.add(indexNext);
+                                hasRidgeB = hasRidgeB && intersectionLines2D(positionRidgeB, 0, ridgeLines, 2 * indexNext,
+                                        point3Fs, 3 * indexNext, normVectors, 2 * indexNext, positionRidgeB);
+                                gablePoints[indexNext] = true;
                             }
-                            ridgePoints.put(indexNext, positionRidgeB);
+                            s.putRidge(indexNext, hasRidgeB, positionRidgeB);
                         } else {
-                            positionRidgeB = ridgePoints.get(indexNext);
+                            hasRidgeB = true;
+                            positionRidgeB[0] = ridgePoints[2 * indexNext];
+                            positionRidgeB[1] = ridgePoints[2 * indexNext + 1];
                         }
                     }
 
                     // Handle multiple concaves
-                    if (positionRidgeA == null || positionRidgeB == null) {
-                        if (positionRidgeA == null && positionRidgeB == null && currentRidgeInd != null) {
-                            positionRidgeA = ridgePoints.get(currentRidgeInd);
+                    if (!hasRidgeA || !hasRidgeB) {
+                        if (!hasRidgeA && !hasRidgeB && currentRidgeInd >= 0
+                                && ridgeState[currentRidgeInd] == RIDGE_SET) {
+                            hasRidgeA = true;
+                            positionRidgeA[0] = ridgePoints[2 * currentRidgeInd];
+                            positionRidgeA[1] = ridgePoints[2 * currentRidgeInd + 1];
                         }
-                        if (positionRidgeA != null && positionRidgeB == null) { // Next index is concave
-                            positionRidgeA = GeometryUtils.intersectionLines2D(positionRidgeA, ridgeLines.get(currentRidgeInd), point3Fs.get(shift), bisections.get(shift));
+                        if (hasRidgeA && !hasRidgeB) { // Next index is concave
+                            hasRidgeA = hasRidgeLine[currentRidgeInd] && intersectionLines2D(positionRidgeA, 0, ridgeLines, 2 * currentRidgeInd,
+                                    point3Fs, 3 * shift, bisections, 2 * shift, positionRidgeA);
                             currentRidgeInd = shift;
-                            addSnapRidgePoint(shift, positionRidgeA, ridgePoints);
-                            ridgeLines.put(shift, normVectors.get(shift)); // Add ridgeLine, if concave
+                            addSnapRidgePoint(s, groundSize, shift, hasRidgeA, positionRidgeA);
+                            s.setRidgeLine(shift, normVectors, shift); // Add ridgeLine, if concave
                             isOdd = false;
                             continue;
-                        } else if (positionRidgeA == null && positionRidgeB != null) { // Previous index is concave
-                            positionRidgeA = GeometryUtils.intersectionLines2D(positionRidgeB, ridgeLines.get(indexNext), point3Fs.get(shift), bisections.get(shift));
-                            addSnapRidgePoint(shift, positionRidgeA, ridgePoints);
-                            currentRidgeInd = null;
+                        } else if (!hasRidgeA && hasRidgeB) { // Previous index is concave
+                            hasRidgeA = hasRidgeLine[indexNext] && intersectionLines2D(positionRidgeB, 0, ridgeLines, 2 * indexNext,
+                                    point3Fs, 3 * shift, bisections, 2 * shift, positionRidgeA);
+                            addSnapRidgePoint(s, groundSize, shift, hasRidgeA, positionRidgeA);
+                            currentRidgeInd = -1;
                             isOdd = false;
                             continue;
                         } else {
                             log.debug("Should never happen, because positionRidge wouldn't be null then");
-                            currentRidgeInd = null;
+                            currentRidgeInd = -1;
                             continue;
                         }
                     }
 
                     // Calc actual concave
-                    if (currentRidgeInd == null || indexNext == null || ridgeLines.get(currentRidgeInd) == null || ridgeLines.get(indexNext) == null) {
+                    if (currentRidgeInd < 0 || indexNext < 0 || !hasRidgeLine[currentRidgeInd] || !hasRidgeLine[indexNext]) {
                         log.debug("Concave shape not calculated correctly: " + element.toString());
-                        currentRidgeInd = null;
+                        currentRidgeInd = -1;
                         continue;
                     }
 
-                    float[] intersection = GeometryUtils.intersectionLines2D(positionRidgeA, ridgeLines.get(currentRidgeInd), positionRidgeB, ridgeLines.get(indexNext));
-                    addSnapRidgePoint(shift, intersection, ridgePoints);
+                    boolean hasIntersection = intersectionLines2D(positionRidgeA, 0, ridgeLines, 2 * currentRidgeInd,
+                            positionRidgeB, 0, ridgeLines, 2 * indexNext, pos);
+                    addSnapRidgePoint(s, groundSize, shift, hasIntersection, pos);
 
                     // Set opposite ridge, if only one concave corner
                     if (countConcavAngles == 1) {
-                        Integer opposite = getIndexNextConvexTurn(indexNext2, simpleAngles);
-                        if (opposite != null) {
+                        int opposite = getIndexNextConvexTurn(indexNext2, simpleAngles, groundSize);
+                        if (opposite >= 0) {
                             if (isGabled)
-                                gablePoints.remove(opposite);
-                            ridgePoints.put(opposite, intersection);
+                                gablePoints[opposite] = false;
+                            s.putRidge(opposite, hasIntersection, pos);
                         }
                     }
 
                     // Reset ridges
-                    currentRidgeInd = null;
+                    currentRidgeInd = -1;
                     isOdd = false;
                     continue;
                 }
@@ -546,75 +700,84 @@ public final class S3DBUtils {
                     isOdd = false;
                     continue;
                 }
-                if (simpleAngles.get(shift) > 1) {
+                if (simpleAngles[shift] > 1) {
                     isOdd = true;
                 }
-                if (ridgePoints.containsKey(shift) && ridgeLines.containsKey(shift)) {
+                if (ridgeState[shift] != RIDGE_NONE && hasRidgeLine[shift]) {
                     currentRidgeInd = shift;
                     continue;
                 }
-                if (currentRidgeInd != null) {
-                    float[] intersection;
+                if (currentRidgeInd >= 0) {
                     // If is gabled, then use the normal line as intersection instead of bisection, but if the angle is not right, this is usually not a gable point
                     if (isGabled && direction > 1) {
-                        if (ridgePoints.get(currentRidgeInd) == null) {
+                        if (ridgeState[currentRidgeInd] != RIDGE_SET) {
                             log.debug("Gabled intersection calc failed");
-                            currentRidgeInd = null;
+                            currentRidgeInd = -1;
                             continue;
                         }
-                        intersection = GeometryUtils.intersectionLines2D(ridgePoints.get(currentRidgeInd), ridgeLines.get(currentRidgeInd), point3Fs.get(shift), normVectors.get(shift));
-                        if (intersection == null) {
+                        if (!hasRidgeLine[currentRidgeInd] || !intersectionLines2D(ridgePoints, 2 * currentRidgeInd, ridgeLines, 2 * currentRidgeInd,
+                                point3Fs, 3 * shift, normVectors, 2 * shift, pos)) {
                             log.debug("Gabled intersection calc failed");
-                            currentRidgeInd = null;
+                            currentRidgeInd = -1;
                             continue;
                         }
-                        gablePoints.add(shift);
-                        ridgePoints.put(shift, intersection);
+                        gablePoints[shift] = true;
+                        s.putRidge(shift, true, pos);
                     } else {
-                        intersection = GeometryUtils.intersectionLines2D(ridgePoints.get(currentRidgeInd), ridgeLines.get(currentRidgeInd), point3Fs.get(shift), bisections.get(shift));
-                        addSnapRidgePoint(shift, intersection, ridgePoints);
+                        boolean hasIntersection = ridgeState[currentRidgeInd] == RIDGE_SET && hasRidgeLine[currentRidgeInd]
+                                && intersectionLines2D(ridgePoints, 2 * currentRidgeInd, ridgeLines, 2 * currentRidgeInd,
+                                point3Fs, 3 * shift, bisections, 2 * shift, pos);
+                        addSnapRidgePoint(s, groundSize, shift, hasIntersection, pos);
                     }
                     if (isOdd) {
-                        currentRidgeInd = null;
+                        currentRidgeInd = -1;
                     } else {
-                        ridgeLines.put(shift, normVectors.get(shift));
+                        s.setRidgeLine(shift, normVectors, shift);
                         currentRidgeInd = shift;
                     }
                 } else {
-                    Integer indexNext = getIndexNextConvexTurn(shift, simpleAngles);
-                    if (indexNext == null) continue;
-                    if (!ridgeLines.containsKey(shift)) {
-                        ridgeLines.put(shift, normVectors.get(indexNext));
+                    int indexNext = getIndexNextConvexTurn(shift, simpleAngles, groundSize);
+                    if (indexNext < 0) continue;
+                    if (!hasRidgeLine[shift]) {
+                        s.setRidgeLine(shift, normVectors, indexNext);
                     }
                     currentRidgeInd = shift;
 
-                    float[] ridgePos = intersections.get(shift);
+                    boolean hasRidgePos = s.hasIntersection[shift];
+                    pos[0] = intersections[2 * shift];
+                    pos[1] = intersections[2 * shift + 1];
                     if (isGabled) {
-                        ridgePos = GeometryUtils.intersectionLines2D(ridgePos, ridgeLines.get(currentRidgeInd), point3Fs.get(shift), normVectors.get(shift));
-                        gablePoints.add(shift);
+                        hasRidgePos = hasRidgePos && intersectionLines2D(pos, 0, ridgeLines, 2 * currentRidgeInd,
+                                point3Fs, 3 * shift, normVectors, 2 * shift, pos);
+                        gablePoints[shift] = true;
                     }
-                    addSnapRidgePoint(shift, ridgePos, ridgePoints);
+                    addSnapRidgePoint(s, groundSize, shift, hasRidgePos, pos);
                 }
             }
 
-            if (ridgePoints.isEmpty()) {
+            int ridgePointSize = 0;
+            for (int k = 0; k < groundSize; k++) {
+                if (ridgeState[k] != RIDGE_NONE)
+                    ridgePointSize++;
+            }
+            if (ridgePointSize == 0) {
                 calcPyramidalMesh(element, minHeight, maxHeight);
                 return true;
             }
 
-            Iterator<Map.Entry<Integer, float[]>> ridgeIt = ridgePoints.entrySet().iterator();
-            while (ridgeIt.hasNext()) {
-                Map.Entry<Integer, float[]> ridgeEntry = ridgeIt.next();
-                Integer key = ridgeEntry.getKey();
-                if (ridgeEntry.getValue() == null) {
+            for (int key = 0; key < groundSize; key++) {
+                if (ridgeState[key] == RIDGE_NONE)
+                    continue;
+                if (ridgeState[key] == RIDGE_NULL) {
                     log.debug("Ridge calculation failed at point " + key);
-                    ridgeIt.remove();
+                    ridgeState[key] = RIDGE_NONE;
+                    ridgePointSize--;
                     continue;
                 }
 
                 // Only remove ridgePoint at concave corners
-                if (!isGabled || simpleAngles.get(key) < 0) {
-                    boolean isIn = GeometryUtils.pointInPoly(ridgeEntry.getValue()[0], ridgeEntry.getValue()[1], points, points.length, 0);
+                if (!isGabled || simpleAngles[key] < 0) {
+                    boolean isIn = GeometryUtils.pointInPoly(ridgePoints[2 * key], ridgePoints[2 * key + 1], points, points.length, 0);
                     if (!isIn) {
                         // FIXME can improve shapes with concaves that intersect each other and remove shapes which have ridgepoints outside the outline
                         if (!IMPROVE_RIDGE_CALCULATION) {
@@ -625,73 +788,82 @@ public final class S3DBUtils {
                     }
                 }
             }
+            if (ridgePointSize == 0) {
+                calcPyramidalMesh(element, minHeight, maxHeight);
+                return true;
+            }
 
-            // Allocate the indices to the points
-            int ridgePointSize = ridgePoints.size();
+            // Allocate the indices to the points: position in ridge points
+            int[] ridgeIndex = s.ridgeIndex;
+            for (int k = 0, l = 0; k < groundSize; k++) {
+                ridgeIndex[k] = l;
+                if (ridgeState[k] == RIDGE_SET)
+                    l++;
+            }
             float[] meshPoints = new float[(groundSize + ridgePointSize) * 3]; //(ridgePoints * 3 = 6)
-            List<Integer> meshVarIndex = new ArrayList<>();
 
             // Add special building parts
-            List<Integer> meshPartVarIndex = null;
-            if (isGabled && specialParts != null) {
-                meshPartVarIndex = new ArrayList<>();
-            }
+            boolean hasParts = isGabled && specialParts != null;
 
             for (int k = 0; k < groundSize; k++) {
                 // Add first face
-                float[] p = point3Fs.get(k);
                 int ridgePointIndex1 = k;
-                while (!ridgePoints.containsKey(ridgePointIndex1)) {
+                while (ridgeState[ridgePointIndex1] == RIDGE_NONE) {
                     ridgePointIndex1 = (ridgePointIndex1 + groundSize - 1) % groundSize; // Decrease ridgePointIndex
                 }
-                int ridgeIndex1 = ridgePoints.headMap(ridgePointIndex1).size(); // set ridgeIndex to shift in ridgePoints
-                if (meshPartVarIndex != null && gablePoints.contains(ridgePointIndex1) && getIndexNextTurn(ridgePointIndex1, simpleAngles).equals(getIndexNextTurn(k, simpleAngles))) {
-                    meshPartVarIndex.add(k);
-                    meshPartVarIndex.add((k + 1) % groundSize);
-                    meshPartVarIndex.add(ridgeIndex1 + groundSize);
+                int ridgeIndex1 = ridgeIndex[ridgePointIndex1]; // set ridgeIndex to shift in ridgePoints
+                if (hasParts && gablePoints[ridgePointIndex1] && getIndexNextTurn(ridgePointIndex1, simpleAngles, groundSize) == getIndexNextTurn(k, simpleAngles, groundSize)) {
+                    s.addPart(k, (k + 1) % groundSize, ridgeIndex1 + groundSize);
                 } else {
-                    meshVarIndex.add(k);
-                    meshVarIndex.add((k + 1) % groundSize);
-                    meshVarIndex.add(ridgeIndex1 + groundSize);
+                    s.addMesh(k, (k + 1) % groundSize, ridgeIndex1 + groundSize);
                 }
 
                 // Add second face, if necessary
                 int ridgePointIndex2 = (k + 1) % groundSize;
-                while (!ridgePoints.containsKey(ridgePointIndex2)) {
+                while (ridgeState[ridgePointIndex2] == RIDGE_NONE) {
                     ridgePointIndex2 = (ridgePointIndex2 + groundSize - 1) % groundSize; // Decrease ridgePointIndex
                 }
 
                 if (ridgePointIndex2 != ridgePointIndex1) {
-                    int ridgeIndex2 = ridgePoints.headMap(ridgePointIndex2).size(); // Set ridgeIndex to position in ridgePoints
-                    meshVarIndex.add(ridgeIndex1 + groundSize);
-                    meshVarIndex.add((k + 1) % groundSize);
-                    meshVarIndex.add(ridgeIndex2 + groundSize);
+                    int ridgeIndex2 = ridgeIndex[ridgePointIndex2]; // Set ridgeIndex to position in ridgePoints
+                    s.addMesh(ridgeIndex1 + groundSize, (k + 1) % groundSize, ridgeIndex2 + groundSize);
                 }
 
                 // Write points
-                meshPoints[3 * k + 0] = p[0];
-                meshPoints[3 * k + 1] = p[1];
-                meshPoints[3 * k + 2] = p[2];
+                meshPoints[3 * k + 0] = point3Fs[3 * k];
+                meshPoints[3 * k + 1] = point3Fs[3 * k + 1];
+                meshPoints[3 * k + 2] = point3Fs[3 * k + 2];
             }
 
             // Tessellate top, if necessary (can be used to improve wrong rendered roofs)
             if (ridgePointSize > 2) {
-                HashSet<Integer> ridgeSkipFaceIndex = new HashSet<>();
+                boolean[] ridgeSkipFaceIndex = s.skipFace;
+                int skipSize = 0;
                 boolean isTessellateAble = true;
                 for (int k = 0; k < groundSize; k++) {
-                    if (!isTessellateAble || ridgePoints.get(k) == null) continue;
-                    Integer middle = null;
+                    if (!isTessellateAble || ridgeState[k] != RIDGE_SET) continue;
+                    int middle = -1;
                     for (int m = k + 1; m <= k + groundSize; m++) {
                         int secIndex = m % groundSize;
-                        if (ridgePoints.get(secIndex) == null) continue;
-                        if (middle == null) {
+                        if (ridgeState[secIndex] != RIDGE_SET) continue;
+                        if (middle < 0) {
                             middle = secIndex;
                         } else {
-                            float isClockwise = GeometryUtils.isTrisClockwise(ridgePoints.get(k), ridgePoints.get(middle), ridgePoints.get(secIndex));
+                            float ax = ridgePoints[2 * k], ay = ridgePoints[2 * k + 1];
+                            float bx = ridgePoints[2 * middle], by = ridgePoints[2 * middle + 1];
+                            float cx = ridgePoints[2 * secIndex], cy = ridgePoints[2 * secIndex + 1];
+                            float isClockwise = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
                             if (Math.abs(isClockwise) < 0.001) {
-                                ridgeSkipFaceIndex.add(middle);
-                                if (Arrays.equals(ridgePoints.get(k), ridgePoints.get(secIndex)))
-                                    ridgeSkipFaceIndex.add(k);
+                                if (!ridgeSkipFaceIndex[middle]) {
+                                    ridgeSkipFaceIndex[middle] = true;
+                                    skipSize++;
+                                }
+                                if (Float.floatToIntBits(ax) == Float.floatToIntBits(cx)
+                                        && Float.floatToIntBits(ay) == Float.floatToIntBits(cy)
+                                        && !ridgeSkipFaceIndex[k]) {
+                                    ridgeSkipFaceIndex[k] = true;
+                                    skipSize++;
+                                }
                             }
                             if (isClockwise > 0 && IMPROVE_RIDGE_CALCULATION) {
                                 // TODO Improve handling of counter clockwise faces and support multiple faces
@@ -703,26 +875,25 @@ public final class S3DBUtils {
                         }
                     }
                 }
-                int faceLength = ridgePointSize - ridgeSkipFaceIndex.size();
+                int faceLength = ridgePointSize - skipSize;
                 if (isTessellateAble && faceLength > 0) {
                     float[] gbPoints = new float[2 * faceLength];
                     int k = 0;
-                    List<Integer> faceIndex = new ArrayList<>(); // Store used indices
+                    int[] faceIndex = s.faceIndex; // Store used indices
                     for (int m = 0; m < groundSize; m++) {
-                        float[] point = ridgePoints.get(m);
-                        if (ridgeSkipFaceIndex.contains(m) || point == null) {
+                        if (ridgeSkipFaceIndex[m] || ridgeState[m] != RIDGE_SET) {
                             continue;
                         }
-                        faceIndex.add(m);
-                        gbPoints[2 * k] = point[0];
-                        gbPoints[2 * k + 1] = point[1];
+                        faceIndex[k] = m;
+                        gbPoints[2 * k] = ridgePoints[2 * m];
+                        gbPoints[2 * k + 1] = ridgePoints[2 * m + 1];
                         k++;
                     }
                     GeometryBuffer buffer = new GeometryBuffer(gbPoints, new int[]{2 * faceLength});
                     if (Tessellator.tessellate(buffer, buffer) != 0) {
                         for (int ind : buffer.index) {
                             // Get position in ridgePoints, considering skipped points
-                            meshVarIndex.add(ridgePoints.headMap(faceIndex.get(ind)).size() + groundSize);
+                            s.addMesh(ridgeIndex[faceIndex[ind]] + groundSize);
                         }
                     } else {
                         // TODO Improve wrong or not tessellated faces
@@ -735,34 +906,23 @@ public final class S3DBUtils {
                 }
             }
 
-
-            // Replace in Java 8 / min API 24
-            int[] meshIndex = new int[meshVarIndex.size()]; // new int[(groundSize + ridgePointSize) * 3]; // 3 vertices per point + 6 vertices for left and right roof
-            for (int k = 0; k < meshIndex.length; k++)
-                meshIndex[k] = meshVarIndex.get(k);
+            int[] meshIndex = Arrays.copyOf(s.mesh, s.meshSize);
 
             for (int k = 0, l = 0; k < groundSize; k++) {
                 // Add ridge points
-                float[] tmp = ridgePoints.get(k);
-                if (tmp != null) {
-                    float[] p = new float[]{tmp[0], tmp[1], maxHeight};
+                if (ridgeState[k] == RIDGE_SET) {
                     int ppos = 3 * (l + groundSize);
-                    meshPoints[ppos + 0] = p[0];
-                    meshPoints[ppos + 1] = p[1];
-                    meshPoints[ppos + 2] = p[2];
+                    meshPoints[ppos + 0] = ridgePoints[2 * k];
+                    meshPoints[ppos + 1] = ridgePoints[2 * k + 1];
+                    meshPoints[ppos + 2] = maxHeight;
                     l++;
                 }
             }
 
             // Add special parts e.g. for gabled roofs
-            if (specialParts != null && meshPartVarIndex != null) {
-                // Replace in Java 8 / min API 24
-                int[] meshPartsIndex = new int[meshPartVarIndex.size()];
-                for (int k = 0; k < meshPartsIndex.length; k++)
-                    meshPartsIndex[k] = meshPartVarIndex.get(k);
-
+            if (hasParts) {
                 specialParts.points = meshPoints;
-                specialParts.index = meshPartsIndex;
+                specialParts.index = Arrays.copyOf(s.parts, s.partsSize);
                 specialParts.pointNextPos = meshPoints.length;
                 specialParts.type = GeometryBuffer.GeometryType.TRIS;
             }
@@ -800,97 +960,106 @@ public final class S3DBUtils {
                 return true;
             }
 
-            List<float[]> point3Fs = new ArrayList<>();
-
-            // Calculate center and load points
-            for (int j = 0; j < (numPoints * 2); j += 2, pointPos += 2) {
-                float x = points[pointPos];
-                float y = points[pointPos + 1];
-
-                point3Fs.add(new float[]{x, y, minHeight});
-            }
-
-            // Calc vectors
-            int groundSize = point3Fs.size();
-
-            List<Float> lengths = new ArrayList<>();
-            List<float[]> normVectors = GeometryUtils.normalizedVectors2D(point3Fs, lengths);
+            // Load points and calc vectors
+            RoofScratch s = sScratch.get();
+            s.load(points, pointPos, numPoints, minHeight);
+            int groundSize = numPoints;
 
-            List<Byte> simpleAngles = getSimpleAngles(normVectors);
+            float[] point3Fs = s.points;
+            float[] normVectors = s.vectors;
+            byte[] simpleAngles = s.angles;
 
-            int indexStart = getIndicesLongestSide(simpleAngles, lengths, null)[0];
+            int indexStart = getIndicesLongestSide(s, groundSize, -1)[0];
             if (orientationAcross) {
-                Integer tmp = getIndexPreviousConvexTurn(indexStart, simpleAngles);
-                if (tmp == null) {
-                    tmp = getIndexNextTurn(indexStart, simpleAngles);
+                int tmp = getIndexPreviousConvexTurn(indexStart, simpleAngles, groundSize);
+                if (tmp < 0) {
+                    tmp = getIndexNextTurn(indexStart, simpleAngles, groundSize);
                 }
                 indexStart = tmp;
             }
-            float[] vL = normVectors.get(indexStart);
-            float[] pL = point3Fs.get(indexStart);
-            float[] splitLinePoint = null;
+            float vLx = normVectors[2 * indexStart], vLy = normVectors[2 * indexStart + 1];
+            float pLx = point3Fs[3 * indexStart], pLy = point3Fs[3 * indexStart + 1];
+            int splitLinePoint = -1;
             float maxDist = 0;
-            for (float[] point : point3Fs) {
-                float curDist = GeometryUtils.distancePointLine2D(point, pL, vL);
+            for (int k = 0; k < groundSize; k++) {
+                // Distance of point to line
+                float vx = pLx - point3Fs[3 * k], vy = pLy - point3Fs[3 * k + 1];
+                float lambda = (vx * vLx + vy * vLy) / (vLx * vLx + vLy * vLy);
+                vx -= vLx * lambda;
+                vy -= vLy * lambda;
+                float curDist = (float) Math.sqrt(vx * vx + vy * vy);
                 if (curDist > maxDist) {
                     maxDist = curDist;
-                    splitLinePoint = point; // Farthest point from line
+                    splitLinePoint = k; // Farthest point from line
                 }
             }
+            if (splitLinePoint < 0)
+                return calcFlatMesh(element, minHeight);
+
             // Scale of normal vec
-            maxDist = Math.signum(GeometryUtils.isTrisClockwise(
-                    pL,
-                    GeometryUtils.sumVec(pL, vL),
-                    splitLinePoint)) * (maxDist / 2);
+            maxDist = Math.signum(isTrisClockwise(pLx, pLy, vLx + pLx, vLy + pLy,
+                    point3Fs[3 * splitLinePoint], point3Fs[3 * splitLinePoint + 1])) * (maxDist / 2);
 
-            float[] normL = new float[]{-vL[1], vL[0]}; // Normal vec to line
-            normL = GeometryUtils.scale(normL, (float) (maxDist / Math.sqrt(GeometryUtils.dotProduct(normL, normL)))); // normalize vec
-            splitLinePoint = GeometryUtils.sumVec(pL, normL);
-            float degreeNormL = (float) Math.atan2(normL[0], -normL[1]) * MathUtils.radiansToDegrees;
+            // Normal vec to line
+            float normLx = -vLy, normLy = vLx;
+            float scale = (float) (maxDist / Math.sqrt(normLx * normLx + normLy * normLy)); // normalize vec
+            normLx *= scale;
+            normLy *= scale;
+            float splitX = normLx + pLx, splitY = normLy + pLy;
+            float degreeNormL = (float) Math.atan2(normLx, -normLy) * MathUtils.radiansToDegrees;
 
             // Split polygon
             int sideChange = 0;
-            List<float[]> elementPoints1 = new ArrayList<>();
-            List<float[]> elementPoints2 = new ArrayList<>();
-            float[] secSplitPoint = GeometryUtils.sumVec(splitLinePoint, vL);
-            float sideLastPoint = Math.signum(GeometryUtils.isTrisClockwise(splitLinePoint, secSplitPoint, point3Fs.get(groundSize - 1)));
+            float[] elementPoints1 = s.split1, elementPoints2 = s.split2;
+            int size1 = 0, size2 = 0;
+            float secSplitX = vLx + splitX, secSplitY = vLy + splitY;
+            float sideLastPoint = Math.signum(isTrisClockwise(splitX, splitY, secSplitX, secSplitY,
+                    point3Fs[3 * (groundSize - 1)], point3Fs[3 * (groundSize - 1) + 1]));
             degreeNormL = sideLastPoint > 0 ? degreeNormL : (degreeNormL + 180f) % 360; // Correct angle
-            List<Integer> intersection1 = new ArrayList<>(), intersection2 = new ArrayList<>();
+            int[] intersection1 = s.splitIndex1, intersection2 = s.splitIndex2;
+            int intersectionSize1 = 0, intersectionSize2 = 0;
+            float[] split = s.posA;
+            split[0] = splitX;
+            split[1] = splitY;
+            float[] pos = s.pos;
             for (int k = 0; k < groundSize; k++) {
                 // If point is not on the same side as the previous point, the split line intersect and can calc split point
-                float sideCurPoint = Math.signum(GeometryUtils.isTrisClockwise(splitLinePoint, secSplitPoint, point3Fs.get(k)));
+                float sideCurPoint = Math.signum(isTrisClockwise(splitX, splitY, secSplitX, secSplitY,
+                        point3Fs[3 * k], point3Fs[3 * k + 1]));
                 if (sideCurPoint != sideLastPoint) {
                     if (sideChange > 2 && !IMPROVE_RIDGE_CALCULATION)
                         return calcFlatMesh(element, minHeight); // TODO Improve multiple side changes
                     int indexPrev = (k + groundSize - 1) % groundSize;
-                    float[] intersection = GeometryUtils.intersectionLines2D(splitLinePoint, vL, point3Fs.get(indexPrev), normVectors.get(indexPrev));
-                    elementPoints1.add(intersection);
-                    elementPoints2.add(intersection);
-                    intersection1.add(elementPoints1.size() - 1);
-                    intersection2.add(elementPoints2.size() - 1);
+                    if (!intersectionLines2D(split, 0, normVectors, 2 * indexStart,
+                            point3Fs, 3 * indexPrev, normVectors, 2 * indexPrev, pos))
+                        return calcFlatMesh(element, minHeight);
+                    elementPoints1[2 * size1] = pos[0];
+                    elementPoints1[2 * size1 + 1] = pos[1];
+                    elementPoints2[2 * size2] = pos[0];
+                    elementPoints2[2 * size2 + 1] = pos[1];
+                    intersection1[intersectionSize1++] = size1++;
+                    intersection2[intersectionSize2++] = size2++;
                     sideChange++;
                 }
                 if (sideChange % 2 == 0) {
-                    elementPoints1.add(point3Fs.get(k));
+                    elementPoints1[2 * size1] = point3Fs[3 * k];
+                    elementPoints1[2 * size1 + 1] = point3Fs[3 * k + 1];
+                    size1++;
                 } else {
-                    elementPoints2.add(point3Fs.get(k));
+                    elementPoints2[2 * size2] = point3Fs[3 * k];
+                    elementPoints2[2 * size2 + 1] = point3Fs[3 * k + 1];
+                    size2++;
                 }
                 sideLastPoint = sideCurPoint;
             }
 
-            GeometryBuffer geoEle1 = new GeometryBuffer(elementPoints1.size(), 1);
-            for (int k = 0; k < elementPoints1.size(); k++) {
-                geoEle1.points[2 * k] = elementPoints1.get(k)[0];
-                geoEle1.points[2 * k + 1] = elementPoints1.get(k)[1];
-            }
+            GeometryBuffer geoEle1 = new GeometryBuffer(size1, 1);
+            System.arraycopy(elementPoints1, 0, geoEle1.points, 0, 2 * size1);
             geoEle1.index[0] = geoEle1.points.length;
             geoEle1.pointNextPos = geoEle1.points.length;
 
-            GeometryBuffer geoEle2 = new GeometryBuffer(elementPoints2.size(), 1);
-            for (int k = 0; k < elementPoints2.size(); k++) {
-                geoEle2.points[2 * k] = elementPoints2.get(k)[0];
-                geoEle2.points[2 * k + 1] = elementPoints2.get(k)[1];
-            }
+            GeometryBuffer geoEle2 = new GeometryBuffer(size2, 1);
+            System.arraycopy(elementPoints2, 0, geoEle2.points, 0, 2 * size2);
             geoEle2.index[0] = geoEle2.points.length;
             geoEle2.pointNextPos = geoEle2.points.length;
 
@@ -903,13 +1072,13 @@ public final class S3DBUtils {
             }
 
             // Adapt gable intersections to max height
-            for (Integer integer : intersection1) {
-                geoEle1.points[integer * 3 + 2] = maxHeight;
-                specialParts1.points[6 * integer + 5] = maxHeight;
+            for (int k = 0; k < intersectionSize1; k++) {
+                geoEle1.points[intersection1[k] * 3 + 2] = maxHeight;
+                specialParts1.points[6 * intersection1[k] + 5] = maxHeight;
             }
-            for (Integer integer : intersection2) {
-                geoEle2.points[integer * 3 + 2] = maxHeight;
-                specialParts2.points[6 * integer + 5] = maxHeight;
+            for (int k = 0; k < intersectionSize2; k++) {
+                geoEle2.points[intersection2[k] * 3 + 2] = maxHeight;
+                specialParts2.points[6 * intersection2[k] + 5] = maxHeight;
             }
 
             // Merge buffers
@@ -941,18 +1110,19 @@ public final class S3DBUtils {
             int numPoints = index[i] / 2;
             if (numPoints < 0) continue;
 
-            List<float[]> point3Fs = new ArrayList<>();
-            for (int j = 0; j < (numPoints * 2); j += 2, pointPos += 2) {
-                float x = points[pointPos];
-                float y = points[pointPos + 1];
-
-                point3Fs.add(new float[]{x, y, minHeight});
+            // Separate from the ground points, as gabled roofs split their outline into two skillions
+            RoofScratch s = sScratch.get();
+            float[] point3Fs = s.skillionPoints(numPoints);
+            for (int k = 0; k < numPoints; k++, pointPos += 2) {
+                point3Fs[3 * k] = points[pointPos];
+                point3Fs[3 * k + 1] = points[pointPos + 1];
+                point3Fs[3 * k + 2] = minHeight;
             }
 
             boolean hasOutlines = calcOutlines(specialParts, minHeight, maxHeight);
 
             // Use 3 points that match the angle the best and use as plane
-            float[] min1 = null, min2 = null, max1 = null, max2 = null;
+            int min1 = -1, min2 = -1, max1 = -1, max2 = -1;
             float minDif1, minDif2, maxDif1, maxDif2;
             minDif1 = minDif2 = Float.MAX_VALUE;
             maxDif1 = maxDif2 = 0;
@@ -960,62 +1130,75 @@ public final class S3DBUtils {
             if (calcFlatMesh(element, maxHeight)) {
                 // To positive radian
                 roofDegree = ((MathUtils.degreesToRadians * roofDegree) + MathUtils.PI2) % MathUtils.PI2;
-                float[] vRidge = new float[2];
-                vRidge[0] = (float) Math.sin(roofDegree);
-                vRidge[1] = (float) -Math.cos(roofDegree);
-                vRidge = GeometryUtils.scale(vRidge, 100000000); // Use very large value, so the distances are nearly parallel
-
-                for (int k = 0; k < point3Fs.size(); k++) {
-                    float[] point = point3Fs.get(k);
-                    float vx = vRidge[0] - point[0];
-                    float vy = vRidge[1] - point[1];
+                // Use very large value, so the distances are nearly parallel
+                float vRidgeX = (float) Math.sin(roofDegree) * 100000000;
+                float vRidgeY = (float) -Math.cos(roofDegree) * 100000000;
+
+                for (int k = 0; k < numPoints; k++) {
+                    float vx = vRidgeX - point3Fs[3 * k];
+                    float vy = vRidgeY - point3Fs[3 * k + 1];
                     float currentDiff = (float) Math.sqrt(vx * vx + vy * vy);
-                    if (max1 == null || currentDiff > maxDif1) {
-                        if (max1 != null) {
+                    if (max1 < 0 || currentDiff > maxDif1) {
+                        if (max1 >= 0) {
                             max2 = max1;
                             maxDif2 = maxDif1;
                         }
-                        max1 = point;
+                        max1 = k;
                         maxDif1 = currentDiff;
-                    } else if (max2 == null || currentDiff > maxDif2) {
-                        max2 = point;
+                    } else if (max2 < 0 || currentDiff > maxDif2) {
+                        max2 = k;
                         maxDif2 = currentDiff;
                     }
-                    if (min1 == null || currentDiff < minDif1) {
-                        if (min1 != null) {
+                    if (min1 < 0 || currentDiff < minDif1) {
+                        if (min1 >= 0) {
                             min2 = min1;
                             minDif2 = minDif1;
                         }
-                        min1 = point;
+                        min1 = k;
                         minDif1 = currentDiff;
-                    } else if (min2 == null || currentDiff < minDif2) {
-                        min2 = point;
+                    } else if (min2 < 0 || currentDiff < minDif2) {
+                        min2 = k;
                         minDif2 = currentDiff;
                     }
                 }
-                if (min1 == max1) return false;
+                if (min1 == max1 || min2 < 0 || max2 < 0) return false;
 
-                float[] normal, zVector = new float[]{0, 0, 1}; // height intersection
-                min1[2] = minHeight;
-                max1[2] = maxHeight;
+                point3Fs[3 * min1 + 2] = minHeight;
+                point3Fs[3 * max1 + 2] = maxHeight;
 
                 // Use lower two points if they promise better results (e.g. at triangles)
+                int third;
                 if (Math.abs(minDif2 - minDif1) < Math.abs(maxDif2 - maxDif1)) {
-                    min2[2] = minHeight; // Note: min2 == max2 is possible
-                    normal = GeometryUtils.normalOfPlane(min1, max1, min2);
+                    point3Fs[3 * min2 + 2] = minHeight; // Note: min2 == max2 is possible
+                    third = min2;
                 } else {
-                    max2[2] = maxHeight;
-                    normal = GeometryUtils.normalOfPlane(min1, max1, max2);
+                    point3Fs[3 * max2 + 2] = maxHeight;
+                    third = max2;
                 }
 
-                // Calc intersection points of ground points with plane
-                for (int k = 0; k < point3Fs.size(); k++) {
-                    float[] intersection = GeometryUtils.intersectionLinePlane(point3Fs.get(k), zVector, min1, normal);
-                    if (intersection == null) return false;
-                    intersection[2] = intersection[2] > (2 * maxHeight) ? maxHeight : (intersection[2] < minHeight ? minHeight : intersection[2]);
-                    element.points[3 * k + 2] = intersection[2];
+                // Normal of plane
+                float bax = point3Fs[3 * max1] - point3Fs[3 * min1];
+                float bay = point3Fs[3 * max1 + 1] - point3Fs[3 * min1 + 1];
+                float baz = point3Fs[3 * max1 + 2] - point3Fs[3 * min1 + 2];
+                float bcx = point3Fs[3 * third] - point3Fs[3 * min1];
+                float bcy = point3Fs[3 * third + 1] - point3Fs[3 * min1 + 1];
+                float bcz = point3Fs[3 * third + 2] - point3Fs[3 * min1 + 2];
+                float nx = bay * bcz - baz * bcy;
+                float ny = baz * bcx - bax * bcz;
+                float nz = bax * bcy - bay * bcx;
+
+                // Calc intersection points of ground points with plane (height intersection)
+                float det = 0f + 0f * nx + 0f * ny + 1f * nz;
+                if (det == 0) return false;
+                for (int k = 0; k < numPoints; k++) {
+                    float dx = point3Fs[3 * min1] - point3Fs[3 * k];
+                    float dy = point3Fs[3 * min1 + 1] - point3Fs[3 * k + 1];
+                    float dz = point3Fs[3 * min1 + 2] - point3Fs[3 * k + 2];
+                    float z = point3Fs[3 * k + 2] + (dx * nx + dy * ny + dz * nz) / det;
+                    z = z > (2 * maxHeight) ? maxHeight : (z < minHeight ? minHeight : z);
+                    element.points[3 * k + 2] = z;
                     if (hasOutlines) {
-                        specialParts.points[6 * k + 5] = intersection[2]; // Every sixth point is height of k
+                        specialParts.points[6 * k + 5] = z; // Every sixth point is height of k
                     }
                 }
 
@@ -1027,25 +1210,22 @@ public final class S3DBUtils {
     }
 
     /**
-     * @return the bisections of vectors
+     * Calculates the bisections of vectors.
      */
-    private static List<float[]> getBisections(List<float[]> normVectors) {
-        int size = normVectors.size();
-        List<float[]> bisections = new ArrayList<>();
-        // Calc bisections
+    private static void calcBisections(float[] normVectors, int size, float[] out) {
         for (int k = 0; k < size; k++) {
-            float[] vBC = normVectors.get((k + size - 1) % size);
-            float[] vBA = normVectors.get(k);
-
-            // Change direction to get correct angle
-            vBC = Arrays.copyOf(vBC, vBC.length);
-            vBC[0] = -vBC[0];
-            vBC[1] = -vBC[1];
-
-            // Calc bisection
-            bisections.add(GeometryUtils.bisectionNorm2D(vBC, vBA));
+            int prev = (k + size - 1) % size;
+            // Change direction of previous vector to get correct angle
+            float bx = -normVectors[2 * prev] + normVectors[2 * k];
+            float by = -normVectors[2 * prev + 1] + normVectors[2 * k + 1];
+            if (bx == 0 && by == 0) {
+                // 90 degree to previous vector
+                bx = -normVectors[2 * prev + 1];
+                by = normVectors[2 * prev];
+            }
+            out[2 * k] = bx;
+            out[2 * k + 1] = by;
         }
-        return bisections;
     }
 
     /**
@@ -1074,84 +1254,84 @@ public final class S3DBUtils {
     }
 
     /**
-     * @return the index of convex turn after specified index or null, if it's concave.
+     * @return the index of convex turn after specified index or -1, if it's concave.
      */
-    private static Integer getIndexNextConvexTurn(int index, List<Byte> simpleAngles) {
-        for (int i = index + 1; i < simpleAngles.size() + index; i++) {
-            int iMod = i % simpleAngles.size();
-            if (simpleAngles.get(iMod) > 0) {
+    private static int getIndexNextConvexTurn(int index, byte[] simpleAngles, int size) {
+        for (int i = index + 1; i < size + index; i++) {
+            int iMod = i % size;
+            if (simpleAngles[iMod] > 0) {
                 return iMod;
-            } else if (simpleAngles.get(iMod) < 0) {
-                return null;
+            } else if (simpleAngles[iMod] < 0) {
+                return -1;
             }
         }
-        return (index + 1) % simpleAngles.size();
+        return (index + 1) % size;
     }
 
     /**
      * @return the index of next turn after specified index
      */
-    private static Integer getIndexNextTurn(int index, List<Byte> simpleAngles) {
-        for (int i = index + 1; i < simpleAngles.size() + index; i++) {
-            int iMod = i % simpleAngles.size();
-            if (simpleAngles.get(iMod) != 0) {
+    private static int getIndexNextTurn(int index, byte[] simpleAngles, int size) {
+        for (int i = index + 1; i < size + index; i++) {
+            int iMod = i % size;
+            if (simpleAngles[iMod] != 0) {
                 return iMod;
             }
         }
-        return (index + 1) % simpleAngles.size();
+        return (index + 1) % size;
     }
 
     /**
-     * @return the index of previous convex turn at specified index
+     * @return the index of previous convex turn at specified index or -1, if it's concave.
      */
-    private static Integer getIndexPreviousConvexTurn(int index, List<Byte> simpleAngles) {
-        for (int i = simpleAngles.size() + index - 1; i >= 0; i--) {
-            int iMod = i % simpleAngles.size();
-            if (simpleAngles.get(iMod) > 0) {
+    private static int getIndexPreviousConvexTurn(int index, byte[] simpleAngles, int size) {
+        for (int i = size + index - 1; i >= 0; i--) {
+            int iMod = i % size;
+            if (simpleAngles[iMod] > 0) {
                 return iMod;
-            } else if (simpleAngles.get(iMod) < 0) {
-                return null;
+            } else if (simpleAngles[iMod] < 0) {
+                return -1;
             }
         }
-        return (simpleAngles.size() + index - 1) % simpleAngles.size();
+        return (size + index - 1) % size;
     }
 
     /**
-     * @return the best index to begin a calculation
+     * @return the best index to begin a calculation or -1
      */
-    private static Integer getIndexStart(List<Byte> simpleAngles, List<Float> lengths, boolean directionAcross) {
-        int size = simpleAngles.size();
-        Integer indexStart = null;
-        Integer concaveStart = null;
+    private static int getIndexStart(RoofScratch s, int size, boolean directionAcross) {
+        byte[] simpleAngles = s.angles;
+        int indexStart = -1;
+        int concaveStart = -1;
         for (int i = 0; i < size; i++) {
-            if (indexStart != null && concaveStart != null) break;
-            if (indexStart == null && simpleAngles.get(i) > 1) {
+            if (indexStart >= 0 && concaveStart >= 0) break;
+            if (indexStart < 0 && simpleAngles[i] > 1) {
                 // Use first angle as start index;
                 indexStart = i;
-            } else if (concaveStart == null && simpleAngles.get(i) < -1) {
+            } else if (concaveStart < 0 && simpleAngles[i] < -1) {
                 // A real concave corner
                 concaveStart = i;
             }
         }
 
-        if (indexStart == null) {
-            return null;
+        if (indexStart < 0) {
+            return -1;
         }
 
-        if (concaveStart != null) {
+        if (concaveStart >= 0) {
             // look for next convex shape (point)
             for (int i = concaveStart; i < size + indexStart; i++) {
-                if (simpleAngles.get(i % size) < 0) {
+                if (simpleAngles[i % size] < 0) {
                     return i % size;
                 }
             }
         }
 
         // Calculate longest side with right angle next to it.
-        int[] iLongSide = getIndicesLongestSide(simpleAngles, lengths, indexStart);
-        if (simpleAngles.get(iLongSide[1]) < 2) {
+        int[] iLongSide = getIndicesLongestSide(s, size, indexStart);
+        if (simpleAngles[iLongSide[1]] < 2) {
             // If angle is not good to start a ridge use previous
-            indexStart = getIndexPreviousConvexTurn(iLongSide[0], simpleAngles);
+            indexStart = getIndexPreviousConvexTurn(iLongSide[0], simpleAngles, size);
         } else {
             indexStart = iLongSide[1]; // Get side next to longest one
         }
@@ -1165,15 +1345,18 @@ public final class S3DBUtils {
     }
 
     /**
-     * @param indexStart the start index, if already calculated (can be null)
+     * @param indexStart the start index, if already calculated (can be -1)
      * @return int[0] = start index, int[1] = end index
      */
-    private static int[] getIndicesLongestSide(List<Byte> simpleAngles, List<Float> lengths, Integer indexStart) {
-        int[] iLongSide = new int[2];
-        int size = simpleAngles.size();
-        if (indexStart == null) {
+    private static int[] getIndicesLongestSide(RoofScratch s, int size, int indexStart) {
+        byte[] simpleAngles = s.angles;
+        float[] lengths = s.lengths;
+        int[] iLongSide = s.longestSide;
+        iLongSide[0] = iLongSide[1] = 0;
+        if (indexStart < 0) {
+            indexStart = 0;
             for (int i = 0; i < size; i++) {
-                if (simpleAngles.get(i) > 0) {
+                if (simpleAngles[i] > 0) {
                     // Use first convex angle as start index;
                     indexStart = i;
                     break;
@@ -1190,12 +1373,12 @@ public final class S3DBUtils {
                 loopSize -= size;
             }
 
-            if (simpleAngles.get(i) != 0) {
+            if (simpleAngles[i] != 0) {
                 // Right angle
-                currentLength = lengths.get(i);
+                currentLength = lengths[i];
                 indexCurrentSide = i;
             } else {
-                currentLength += lengths.get(i);
+                currentLength += lengths[i];
             }
 
             if (currentLength > longestSideLength) {
@@ -1292,8 +1475,7 @@ public final class S3DBUtils {
     }
 
     /**
-     * @param normVectors the normalized vectors
-     * @return a list of simple angles:
+     * Calculates the simple angles of normalized vectors:
      * 0           straight
      * (+/-) 1     (convex/concave) obtuse angle
      * (+/-) 2     (convex/concave) right angle (or acute angle)
@@ -1301,23 +1483,22 @@ public final class S3DBUtils {
      * Note lhs coordinate system.
      * convex: turns right
      * concave: turns left
+     *
+     * @param normVectors the normalized vectors (x, y)
+     * @param out         the simple angles
      */
-    private static List<Byte> getSimpleAngles(List<float[]> normVectors) {
-        int size = normVectors.size();
-        // List<Float> angles = new ArrayList<>();
-        List<Byte> simpAngls = new ArrayList<>();
+    private static void calcSimpleAngles(float[] normVectors, int size, byte[] out) {
         float tmpAnlgeSum = 0;
         float threshold = MathUtils.PI / 12;
         for (int k = 0; k < size; k++) {
             // Check angle between next and this vector
-            float[] v2 = normVectors.get(k);
-            float[] v1 = normVectors.get((k - 1 + size) % size);
-            float val = v1[0] * v2[0] + v1[1] * v2[1];
+            int v2 = 2 * k;
+            int v1 = 2 * ((k - 1 + size) % size);
+            float val = normVectors[v1] * normVectors[v2] + normVectors[v1 + 1] * normVectors[v2 + 1];
             float angle = (float) Math.acos(Math.abs(val) > 1 ? Math.signum(val) : val);
-            // angles.add(angle);
 
             // Positive turns right (convex), negative turns left (concave)
-            byte simpAngle = (byte) Math.signum(v1[0] * v2[1] - v1[1] * v2[0]);
+            byte simpAngle = (byte) Math.signum(normVectors[v1] * normVectors[v2 + 1] - normVectors[v1 + 1] * normVectors[v2]);
             if (angle > (MathUtils.PI / 2) - threshold) {
                 // Right angle
                 simpAngle *= 2;
@@ -1335,10 +1516,15 @@ public final class S3DBUtils {
                 tmpAnlgeSum = 0;
             }
 
-            simpAngls.add(simpAngle);
+            out[k] = simpAngle;
         }
+    }
 
-        return simpAngls;
+    /**
+     * @see GeometryUtils#isTrisClockwise(float[], float[], float[])
+     */
+    private static float isTrisClockwise(float ax, float ay, float bx, float by, float cx, float cy) {
+        return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
     }
 
     private static GeometryBuffer initCircleMesh(float[][] circleShape, int numSections) {
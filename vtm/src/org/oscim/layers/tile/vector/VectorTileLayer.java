@@ -33,6 +33,9 @@ import org.oscim.utils.pool.Inlist.List;
 import org.oscim.utils.pool.LList;
 import org.oscim.debug.Logger;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * The vector-tile-map layer. This class manages instances of
  * {@link VectorTileLoader} that load and assemble vector tiles
@@ -90,6 +93,7 @@ public class VectorTileLayer extends TileLayer {
         }
 
         mTileSource = tileSource;
+        updateUsedKeys();
 
         mTileManager.setZoomLevel(tileSource.getZoomLevelMin(),
                 tileSource.getZoomLevelMax());
@@ -118,6 +122,7 @@ public class VectorTileLayer extends TileLayer {
         //    ((VectorTileLoader) l).setRenderTheme(theme);
 
         tileRenderer().setOverdrawColor(theme.getMapBackground());
+        updateUsedKeys();
 
         resumeLoaders();
     }
@@ -139,6 +144,14 @@ public class VectorTileLayer extends TileLayer {
          * Called on loader thread when tile loading is completed
          */
         public void complete(MapTile tile, boolean success);
+
+        /**
+         * @return the library keys of tags read by the hook, null when it
+         * may read any key
+         */
+        default Set<String> getTagKeys() {
+            return null;
+        }
     }
 
     /**
@@ -157,6 +170,14 @@ public class VectorTileLayer extends TileLayer {
          * Called on loader thread when tile loading is completed
          */
         public void complete(MapTile tile, boolean success);
+
+        /**
+         * @return the library keys of tags read by the hook besides those
+         * the theme uses, null when it may read any key
+         */
+        default Set<String> getTagKeys() {
+            return null;
+        }
     }
 
     private List<LList<TileLoaderProcessHook>> mLoaderProcessHooks =
@@ -167,10 +188,57 @@ public class VectorTileLayer extends TileLayer {
 
     public void addHook(TileLoaderProcessHook h) {
         mLoaderProcessHooks.append(new LList<TileLoaderProcessHook>(h));
+        updateUsedKeys();
     }
 
     public void addHook(TileLoaderThemeHook h) {
         mLoaderThemeHooks.append(new LList<TileLoaderThemeHook>(h));
+        updateUsedKeys();
+    }
+
+    /**
+     * @return the keys of tags used by the theme and the hooks, including
+     * their tile source keys, or null when any key may be used
+     */
+    public Set<String> getUsedKeys() {
+        IRenderTheme theme = mTheme;
+        if (theme == null)
+            return null;
+        Set<String> keys = theme.getKeys();
+        if (keys == null)
+            return null;
+        keys = new HashSet<>(keys);
+
+        for (LList<TileLoaderProcessHook> h = mLoaderProcessHooks.head(); h != null; h = h.next) {
+            if (!addKeys(keys, h.data.getTagKeys(), theme))
+                return null;
+        }
+        for (LList<TileLoaderThemeHook> h = mLoaderThemeHooks.head(); h != null; h = h.next) {
+            if (!addKeys(keys, h.data.getTagKeys(), theme))
+                return null;
+        }
+        return keys;
+    }
+
+    private static boolean addKeys(Set<String> keys, Set<String> hookKeys, IRenderTheme theme) {
+        if (hookKeys == null)
+            return false;
+        for (String key : hookKeys) {
+            keys.add(key);
+            String tileSourceKey = theme.transformBackwardKey(key);
+            if (tileSourceKey != null)
+                keys.add(tileSourceKey);
+        }
+        return true;
+    }
+
+    /**
+     * Let the tile source skip tags which are neither used by the theme nor
+     * by the hooks.
+     */
+    private void updateUsedKeys() {
+        if (mTileSource != null)
+            mTileSource.setUsedKeys(getUsedKeys());
     }
 
     @Override
@@ -192,6 +260,14 @@ public class VectorTileLayer extends TileLayer {
         }
     }
 
+    /**
+     * @return true when process hooks may use elements the theme does not
+     * render
+     */
+    public boolean hasProcessHooks() {
+        return mLoaderProcessHooks.head() != null;
+    }
+
     public boolean callProcessHooks(MapTile tile, RenderBuckets layers, MapElement element) {
 
         LList<TileLoaderProcessHook> ph = mLoaderProcessHooks.head();
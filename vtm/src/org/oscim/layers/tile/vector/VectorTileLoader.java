@@ -19,6 +19,8 @@
  */
 package org.oscim.layers.tile.vector;
 
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.backend.canvas.Color;
 import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
 import org.oscim.core.MercatorProjection;
@@ -35,6 +37,7 @@ import org.oscim.renderer.bucket.PolygonBucket;
 import org.oscim.renderer.bucket.RenderBuckets;
 import org.oscim.theme.IRenderTheme;
 import org.oscim.theme.RenderTheme;
+import org.oscim.theme.rule.RuleFilter;
 import org.oscim.theme.styles.AreaStyle;
 import org.oscim.theme.styles.CircleStyle;
 import org.oscim.theme.styles.ExtrusionStyle;
@@ -42,13 +45,18 @@ import org.oscim.theme.styles.LineStyle;
 import org.oscim.theme.styles.RenderStyle;
 import org.oscim.theme.styles.SymbolStyle;
 import org.oscim.theme.styles.TextStyle;
+import org.oscim.tiling.ITileBatchDataSource;
+import org.oscim.tiling.ITileDataFilter;
+import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.OverzoomTileDataSource;
 import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.UrlTileDataSource;
 import org.oscim.debug.Logger;
 
 import static org.oscim.layers.tile.MapTile.State.LOADING;
 
-public class VectorTileLoader extends TileLoader implements RenderStyle.Callback {
+public class VectorTileLoader extends TileLoader implements RenderStyle.Callback, ITileDataFilter {
     
     static final Logger log = new Logger(VectorTileLoader.class);
     
@@ -57,6 +65,23 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
 
     public static final byte STROKE_MIN_ZOOM = 12;
 
+    /**
+     * Pack vertex data of finished tiles into native buffers on the loader
+     * thread, so that the GL-Thread only needs to upload them.
+     */
+    public static boolean PACK_BUCKETS = true;
+
+    /**
+     * Let tile decoders skip elements which the theme does not render.
+     */
+    public static boolean FILTER_ELEMENTS = true;
+
+    /**
+     * Maximum number of adjacent tiles loaded at once from a data source
+     * which supports it, see {@link ITileBatchDataSource}.
+     */
+    public static int BATCH_SIZE = 4;
+
     protected IRenderTheme renderTheme;
     
     private static float getLineScaleInternal(double y, double zoomLevel) {
@@ -105,6 +130,18 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
 
     private final VectorTileLayer mTileLayer;
 
+    /**
+     * Tags needed by the theme, null when decoders must not skip elements
+     */
+    private RuleFilter mFilter;
+
+    /**
+     * Triangulate areas into mesh buckets, see {@link RenderTheme#isMeshPolygons()}
+     */
+    private boolean mMeshPolygons;
+
+    private BatchSink[] mSinks = new BatchSink[0];
+
     public VectorTileLoader(VectorTileLayer tileLayer) {
         super(tileLayer.getManager());
         mTileLayer = tileLayer;
@@ -125,6 +162,81 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
     @Override
     public boolean loadTile(MapTile tile) {
 
+        if (!prepare())
+            return false;
+
+        setTile(tile);
+
+        try {
+            /* query data source, which calls process() callback */
+            mTileDataSource.query(tile, this);
+        } catch (NullPointerException e) {
+            log.debug("NPE {} {}", tile, e);
+            e.printStackTrace();
+        } catch (Exception e) { 
+            log.debug("{} {}", tile, e);
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected int getBatchSize() {
+        /* over-zoom alone does not share work between tiles */
+        ITileDataSource dataSource = mTileDataSource;
+        if (dataSource instanceof OverzoomTileDataSource)
+            dataSource = ((OverzoomTileDataSource) dataSource).getDataSource();
+        /* without pipelining a batch would only serialize the requests */
+        if (dataSource instanceof UrlTileDataSource
+                && !((UrlTileDataSource) dataSource).isPipelining())
+            return 1;
+        if (dataSource instanceof ITileBatchDataSource)
+            return BATCH_SIZE;
+        return 1;
+    }
+
+    @Override
+    protected boolean loadTiles(MapTile[] tiles, int count) {
+        if (count == 1 || !(mTileDataSource instanceof ITileBatchDataSource) || !prepare())
+            return super.loadTiles(tiles, count);
+
+        if (mSinks.length < count) {
+            BatchSink[] sinks = new BatchSink[count];
+            System.arraycopy(mSinks, 0, sinks, 0, mSinks.length);
+            for (int i = mSinks.length; i < count; i++)
+                sinks[i] = new BatchSink();
+            mSinks = sinks;
+        }
+        for (int i = 0; i < count; i++)
+            mSinks[i].init(tiles[i]);
+
+        boolean ok = true;
+        try {
+            /* query data source, which calls process() of the sinks */
+            ((ITileBatchDataSource) mTileDataSource).query(tiles, mSinks, count);
+        } catch (Exception e) {
+            log.debug("{} {}", tiles[0], e);
+            e.printStackTrace();
+            ok = false;
+        }
+
+        /* the tiles must be completed in any case */
+        for (int i = 0; i < count; i++) {
+            if (!mSinks[i].done) {
+                mSinks[i].completed(QueryResult.FAILED);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    /**
+     * Set the theme and element filter for the next tiles.
+     *
+     * @return false if there is no data source or theme
+     */
+    private boolean prepare() {
         if (mTileDataSource == null) {
             log.error("no tile source is set");
             return false;
@@ -137,6 +249,18 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
 
         //mTileLayer.getLoaderHooks();
 
+        mFilter = null;
+        if (FILTER_ELEMENTS && renderTheme instanceof RenderTheme && !mTileLayer.hasProcessHooks())
+            mFilter = ((RenderTheme) renderTheme).getFilter();
+
+        mMeshPolygons = renderTheme instanceof RenderTheme
+                && ((RenderTheme) renderTheme).isMeshPolygons();
+        return true;
+    }
+
+    private void setTile(MapTile tile) {
+        mTile = tile;
+
         /* account for area changes with latitude */
         double lat = MercatorProjection.toLatitude(tile.y);
         mLineScale = (float) Math.pow(STROKE_INCREASE, tile.zoomLevel - STROKE_MIN_ZOOM);
@@ -147,19 +271,60 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
         mLineScale *= 0.4f + 0.6f * ((float) Math.sin(Math.abs(lat) * (Math.PI / 180)));
         mBuckets = new RenderBuckets();
         tile.data = mBuckets;
+    }
 
-        try {
-            /* query data source, which calls process() callback */
-            mTileDataSource.query(tile, this);
-        } catch (NullPointerException e) {
-            log.debug("NPE {} {}", tile, e);
-            e.printStackTrace();
-        } catch (Exception e) { 
-            log.debug("{} {}", tile, e);
-            e.printStackTrace();
-            return false;
+    /**
+     * Receives the elements of one tile of a batch query and passes them
+     * on with the state of that tile.
+     */
+    private final class BatchSink implements ITileDataSink, ITileDataFilter {
+        private MapTile tile;
+        private RenderBuckets buckets;
+        private float lineScale;
+        boolean done;
+
+        void init(MapTile tile) {
+            setTile(tile);
+            this.tile = tile;
+            buckets = mBuckets;
+            lineScale = mLineScale;
+            done = false;
+        }
+
+        private void select() {
+            mTile = tile;
+            mBuckets = buckets;
+            mLineScale = lineScale;
+        }
+
+        @Override
+        public boolean accept(GeometryType type, TagSet tags) {
+            select();
+            return VectorTileLoader.this.accept(type, tags);
+        }
+
+        @Override
+        public void process(MapElement element) {
+            select();
+            VectorTileLoader.this.process(element);
+        }
+
+        @Override
+        public void setTileImage(Bitmap bitmap) {
+            select();
+            VectorTileLoader.this.setTileImage(bitmap);
+        }
+
+        @Override
+        public void completed(QueryResult result) {
+            if (done)
+                return;
+            done = true;
+            select();
+            VectorTileLoader.this.completed(result);
+            tile = null;
+            buckets = null;
         }
-        return true;
     }
 
     @Override
@@ -170,6 +335,8 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
 
         /* finish buckets- tessellate and cleanup on worker-thread */
         mBuckets.prepare();
+        if (ok && PACK_BUCKETS && !isCanceled())
+            mBuckets.pack(true);
         clearState();
 
         super.completed(result);
@@ -209,6 +376,11 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
         return tagSet;
     }
 
+    @Override
+    public boolean accept(GeometryType type, TagSet tags) {
+        return mFilter == null || mFilter.accept(type, tags, mTile.zoomLevel);
+    }
+
     @Override
     public void process(MapElement element) {
         if (isCanceled() || !mTile.state(LOADING))
@@ -327,7 +499,7 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
 
         mTileLayer.callThemeHooks(mTile, mBuckets, mElement, area, nLevel);
 
-        if (USE_MESH_POLY || area.mesh) {
+        if (USE_MESH_POLY || area.mesh || (mMeshPolygons && isOpaqueFill(area))) {
             MeshBucket mb = mBuckets.getMeshBucket(nLevel);
             mb.area = area;
             mb.addMesh(mElement);
@@ -338,6 +510,17 @@ public class VectorTileLoader extends TileLoader implements RenderStyle.Callback
         }
     }
 
+    /**
+     * @return true when the area is a plain opaque fill. Textures, outlines,
+     * translucent colors and fading or blending are only drawn by the
+     * polygon renderer.
+     */
+    private static boolean isOpaqueFill(AreaStyle area) {
+        return area.texture == null && area.strokeWidth <= 0
+                && Color.isOpaque(area.color)
+                && area.fadeScale < 0 && area.blendScale < 0;
+    }
+
     @Override
     public void renderSymbol(SymbolStyle symbol) {
         mTileLayer.callThemeHooks(mTile, mBuckets, mElement, symbol, 0);
@@ -29,6 +29,7 @@ import org.oscim.layers.tile.ZoomLimiter;
 import org.oscim.layers.tile.vector.VectorTileLayer;
 import org.oscim.map.Map;
 import org.oscim.map.Viewport;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.async.SimpleWorker;
 import org.oscim.debug.Logger;
 
@@ -74,6 +75,7 @@ public class LabelLayer extends Layer implements Map.UpdateListener, TileManager
 
         public Worker(Map map) {
             super(map, 50, new LabelTask(), new LabelTask());
+            mPriority = MapExecutor.PRIORITY_LABELS;
         }
 
         @Override
@@ -95,11 +97,6 @@ public class LabelLayer extends Layer implements Map.UpdateListener, TileManager
         public void finish() {
             mLabelPlacer.cleanup();
         }
-
-        @Override
-        public synchronized boolean isRunning() {
-            return mRunning;
-        }
     }
 
     @Override
@@ -31,6 +31,7 @@ import org.oscim.renderer.bucket.SymbolItem;
 import org.oscim.renderer.bucket.TextItem;
 import org.oscim.theme.styles.TextStyle;
 import org.oscim.utils.FastMath;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.geom.OBB2D;
 import org.oscim.debug.Logger;
 
@@ -446,6 +447,9 @@ public class LabelPlacement {
             dx = flipLongitude(dx, maxx);
 
             l = addWayLabels(t, l, dx, dy, scale);
+
+            if (MapExecutor.isCanceled())
+                return abort(l);
         }
 
         /* add caption */
@@ -459,6 +463,9 @@ public class LabelPlacement {
             dx = flipLongitude(dx, maxx);
 
             l = addNodeLabels(t, l, dx, dy, scale, cos, sin);
+
+            if (MapExecutor.isCanceled())
+                return abort(l);
         }
 
         for (Label ti = mLabels; ti != null; ti = (Label) ti.next) {
@@ -540,6 +547,16 @@ public class LabelPlacement {
         return true;
     }
 
+    /**
+     * Stop labeling when superseded by a newer position. Labels placed so
+     * far are kept to be placed first by the next run.
+     */
+    private boolean abort(Label l) {
+        mPool.release(l);
+        mTileRenderer.releaseTiles(mTileSet);
+        return false;
+    }
+
     public void cleanup() {
         mLabels = (Label) mPool.releaseAll(mLabels);
         mTileSet.releaseTiles();
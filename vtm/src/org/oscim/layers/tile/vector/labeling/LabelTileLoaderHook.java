@@ -32,6 +32,9 @@ import org.oscim.theme.styles.TextStyle;
 import org.oscim.utils.Parameters;
 import org.oscim.utils.geom.PolyLabel;
 
+import java.util.Collections;
+import java.util.Set;
+
 import static org.oscim.core.GeometryBuffer.GeometryType.LINE;
 import static org.oscim.core.GeometryBuffer.GeometryType.POINT;
 import static org.oscim.core.GeometryBuffer.GeometryType.POLY;
@@ -190,4 +193,11 @@ public class LabelTileLoaderHook implements TileLoaderThemeHook {
     public void complete(MapTile tile, boolean success) {
     }
 
+    /**
+     * Labels only read the text keys of the theme.
+     */
+    @Override
+    public Set<String> getTagKeys() {
+        return Collections.emptySet();
+    }
 }
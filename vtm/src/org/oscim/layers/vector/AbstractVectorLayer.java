@@ -29,6 +29,7 @@ import org.oscim.renderer.BucketRenderer;
 import org.oscim.renderer.GLViewport;
 import org.oscim.renderer.MapRenderer;
 import org.oscim.renderer.bucket.RenderBuckets;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.async.SimpleWorker;
 import org.oscim.utils.geom.TileClipper;
 import org.oscim.debug.Logger;
@@ -88,6 +89,7 @@ public abstract class AbstractVectorLayer<T> extends Layer implements UpdateList
 
         public Worker(Map map) {
             super(map, 50, new Task(), new Task());
+            mPriority = MapExecutor.PRIORITY_DECORATIONS;
         }
 
         /**
@@ -153,6 +155,11 @@ public abstract class AbstractVectorLayer<T> extends Layer implements UpdateList
             //    t.position.x += 1;
             //}
 
+            if (MapExecutor.isCanceled()) {
+                t.buckets.clear();
+                return false;
+            }
+
             t.buckets.prepare();
 
             mMap.render();
@@ -43,7 +43,7 @@ import org.oscim.theme.ThemeLoader;
 import org.oscim.tiling.TileSource;
 import org.oscim.utils.Parameters;
 import org.oscim.utils.ThreadUtils;
-import org.oscim.utils.async.AsyncExecutor;
+import org.oscim.utils.async.MapExecutor;
 import org.oscim.utils.async.TaskQueue;
 import org.oscim.debug.Logger;
 
@@ -119,7 +119,7 @@ public abstract class Map implements TaskQueue {
 
     private final Layers mLayers;
     private final ViewController mViewport;
-    private final AsyncExecutor mAsyncExecutor;
+    private final MapExecutor mExecutor;
 
     protected final Animator mAnimator;
     protected final MapPosition mMapPosition;
@@ -153,7 +153,7 @@ public abstract class Map implements TaskQueue {
             }
         };
 
-        mAsyncExecutor = new AsyncExecutor(4, this);
+        mExecutor = new MapExecutor(this);
         mMapPosition = new MapPosition();
 
         if (Parameters.MAP_EVENT_LAYER2)
@@ -230,7 +230,7 @@ public abstract class Map implements TaskQueue {
 
     public void destroy() {
         mLayers.destroy();
-        mAsyncExecutor.dispose();
+        mExecutor.dispose();
     }
 
     /**
@@ -273,7 +273,26 @@ public abstract class Map implements TaskQueue {
      */
     @Override
     public void addTask(Runnable task) {
-        mAsyncExecutor.post(task);
+        mExecutor.post(task);
+    }
+
+    /**
+     * Post a task to run on a shared worker-thread. A pending task with the
+     * same key is replaced by this one, a running task with the key
+     * finishes before this one runs.
+     *
+     * @param key      stable key of the submitter, e.g. one per worker
+     * @param priority one of the {@link MapExecutor} priorities
+     */
+    public void addTask(Object key, int priority, Runnable task) {
+        mExecutor.submit(key, priority, task);
+    }
+
+    /**
+     * @return the executor for background work of layers
+     */
+    public MapExecutor getExecutor() {
+        return mExecutor;
     }
 
     /**
@@ -73,6 +73,7 @@ public final class BufferObject extends Inlist<BufferObject> {
             gl.bufferSubData(target, 0, newSize, buf);
         } else {
             mBufferMemoryUsage += newSize - size;
+            MemoryBudget.add(MemoryBudget.BUFFERS, newSize - size);
             size = newSize;
             //GL.bufferData(target, size, buf, GL20.DYNAMIC_DRAW);
             gl.bufferData(target, size, buf, GL.STATIC_DRAW);
@@ -83,6 +84,13 @@ public final class BufferObject extends Inlist<BufferObject> {
         GLState.bindBuffer(target, id);
     }
 
+    /**
+     * @return allocated bytes
+     */
+    public int getSize() {
+        return size;
+    }
+
     public void unbind() {
         GLState.bindBuffer(target, GLState.UNBIND);
     }
@@ -93,11 +101,13 @@ public final class BufferObject extends Inlist<BufferObject> {
 
     public static void checkBufferUsage(boolean force) {
         // try to clear some unused vbo when exceding limit
-        if (mBufferMemoryUsage < LIMIT_BUFFERS)
+        if (mBufferMemoryUsage < LIMIT_BUFFERS && !MemoryBudget.isExceeded())
             return;
 
         log.debug("use: " + mBufferMemoryUsage / MB + "MB");
-        mBufferMemoryUsage -= BufferObject.limitUsage(MB);
+        int freed = BufferObject.limitUsage(Math.max(MB, MemoryBudget.getExcess()));
+        mBufferMemoryUsage -= freed;
+        MemoryBudget.add(MemoryBudget.BUFFERS, -freed);
         log.debug("now: " + mBufferMemoryUsage / MB + "MB");
     }
 
@@ -225,6 +235,7 @@ public final class BufferObject extends Inlist<BufferObject> {
 
     static synchronized void clear() {
         mBufferMemoryUsage = 0;
+        MemoryBudget.reset(MemoryBudget.BUFFERS);
 
         pool[0] = null;
         pool[1] = null;
@@ -62,6 +62,19 @@ public class GLState {
         gl.disable(GL.BLEND);
     }
 
+    /**
+     * Forget the bound program, buffers and texture, after the GL context
+     * was used by other code, e.g. a libgdx batch. This also invalidates
+     * the {@link org.oscim.backend.StateFilterGL} of {@link GLAdapter#gl}.
+     */
+    public static void invalidate() {
+        shader = DISABLED;
+        currentTexId = DISABLED;
+        glVertexBuffer = DISABLED;
+        glIndexBuffer = DISABLED;
+        GLAdapter.invalidate();
+    }
+
     public static boolean useProgram(int shaderProgram) {
         if (shaderProgram < 0) {
             shader = DISABLED;
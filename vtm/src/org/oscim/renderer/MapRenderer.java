@@ -20,6 +20,7 @@ package org.oscim.renderer;
 
 import org.oscim.backend.GL;
 import org.oscim.backend.GLAdapter;
+import org.oscim.backend.StateFilterGL;
 import org.oscim.backend.canvas.Color;
 import org.oscim.map.Map;
 import org.oscim.renderer.bucket.RenderBuckets;
@@ -98,6 +99,9 @@ public class MapRenderer {
 
         mBufferPool.releaseBuffers();
         TextureItem.disposeTextures();
+
+        if (gl instanceof StateFilterGL)
+            ((StateFilterGL) gl).endFrame();
     }
 
     private void draw() {
@@ -145,6 +149,9 @@ public class MapRenderer {
             if (renderer == null)
                 continue;
 
+            if (GLAdapter.HEADLESS)
+                GLAdapter.section(renderer.getClass().getSimpleName());
+
             if (!renderer.isInitialized) {
                 renderer.setup();
                 renderer.isInitialized = true;
@@ -159,6 +166,9 @@ public class MapRenderer {
                 GLUtils.checkGlError(renderer.getClass().getName());
         }
 
+        if (GLAdapter.HEADLESS)
+            GLAdapter.section(null);
+
         if (GLUtils.checkGlError(getClass().getName() + ": finish", GL.OUT_OF_MEMORY)) {
             BufferObject.checkBufferUsage(true);
             // FIXME also throw out some textures etc
@@ -247,6 +257,10 @@ public class MapRenderer {
             GLAdapter.NO_BUFFER_SUB_DATA = true;
         }
 
+        /* locations of a previous context are invalid */
+        if (gl instanceof StateFilterGL)
+            ((StateFilterGL) gl).reset();
+
         GLState.init();
 
         // Set up some vertex buffer objects
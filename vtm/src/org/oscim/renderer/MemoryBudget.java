@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accounts GL memory of {@link BufferObject BufferObjects} and textures
+ * against one budget.
+ * <p/>
+ * Layers holding GL resources, e.g. the TileManager, register an
+ * {@link Account} to report their share and to record evictions. When the
+ * budget is exceeded they are expected to free their least valuable data,
+ * while {@link BufferObject#checkBufferUsage(boolean)} deletes unused
+ * buffers from its pool.
+ */
+public final class MemoryBudget {
+
+    private static final int MB = 1024 * 1024;
+
+    public static final int BUFFERS = 0;
+    public static final int TEXTURES = 1;
+
+    /**
+     * Budget in bytes for buffers and textures.
+     */
+    public static int LIMIT = 32 * MB;
+
+    private static final int[] mUsage = new int[2];
+    private static final int[] mPeak = new int[2];
+
+    private static final List<Account> mAccounts = new ArrayList<>();
+
+    /**
+     * Memory owned by one layer.
+     */
+    public static final class Account {
+        public final String name;
+
+        private int bytes;
+        private int evictedTiles;
+        private long evictedBytes;
+
+        Account(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Set bytes currently held by this account.
+         */
+        public void set(int bytes) {
+            synchronized (MemoryBudget.class) {
+                this.bytes = bytes;
+            }
+        }
+
+        /**
+         * Record eviction of an item holding the given bytes.
+         */
+        public void evicted(int bytes) {
+            synchronized (MemoryBudget.class) {
+                this.evictedTiles++;
+                this.evictedBytes += bytes;
+            }
+        }
+
+        public int getBytes() {
+            synchronized (MemoryBudget.class) {
+                return bytes;
+            }
+        }
+
+        public int getEvictedTiles() {
+            synchronized (MemoryBudget.class) {
+                return evictedTiles;
+            }
+        }
+
+        public long getEvictedBytes() {
+            synchronized (MemoryBudget.class) {
+                return evictedBytes;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + ": " + (bytes / 1024) + "kB, evicted "
+                    + evictedTiles + " (" + (evictedBytes / 1024) + "kB)";
+        }
+    }
+
+    private MemoryBudget() {
+    }
+
+    public static synchronized Account register(String name) {
+        Account account = new Account(name);
+        mAccounts.add(account);
+        return account;
+    }
+
+    public static synchronized void unregister(Account account) {
+        mAccounts.remove(account);
+    }
+
+    /**
+     * @return snapshot of registered accounts
+     */
+    public static synchronized List<Account> getAccounts() {
+        return new ArrayList<>(mAccounts);
+    }
+
+    /**
+     * @param type  {@link #BUFFERS} or {@link #TEXTURES}
+     * @param bytes allocated (positive) or freed (negative) bytes
+     */
+    public static synchronized void add(int type, int bytes) {
+        mUsage[type] += bytes;
+        if (mUsage[type] > mPeak[type])
+            mPeak[type] = mUsage[type];
+    }
+
+    static synchronized void reset(int type) {
+        mUsage[type] = 0;
+    }
+
+    public static synchronized int getUsage(int type) {
+        return mUsage[type];
+    }
+
+    public static synchronized int getPeak(int type) {
+        return mPeak[type];
+    }
+
+    public static synchronized int getTotalUsage() {
+        return mUsage[BUFFERS] + mUsage[TEXTURES];
+    }
+
+    /**
+     * @return bytes above {@link #LIMIT}, 0 when within budget
+     */
+    public static synchronized int getExcess() {
+        return Math.max(0, getTotalUsage() - LIMIT);
+    }
+
+    public static boolean isExceeded() {
+        return getExcess() > 0;
+    }
+
+    /**
+     * @return bytes currently held by all registered accounts
+     */
+    public static synchronized int getAccountedUsage() {
+        int bytes = 0;
+        for (Account account : mAccounts)
+            bytes += account.bytes;
+        return bytes;
+    }
+
+    /**
+     * Unlike {@link #getExcess()} this does not include memory which was
+     * already evicted by an account but not yet released on the GL-Thread,
+     * nor memory held by buffer pools.
+     *
+     * @return bytes of registered accounts above {@link #LIMIT}, 0 when
+     * within budget
+     */
+    public static synchronized int getAccountedExcess() {
+        return Math.max(0, getAccountedUsage() - LIMIT);
+    }
+
+    /**
+     * Score for cost/benefit eviction, items with the highest score should be
+     * removed first: large items which are far from the view (distance already
+     * weighted by zoom difference) and were not visible for a long time.
+     *
+     * @param bytes    memory held by the item
+     * @param distance distance to the current view
+     * @param age      milliseconds since the item was last visible
+     */
+    public static float evictionScore(int bytes, float distance, long age) {
+        return bytes * (1 + distance) * (1 + age / 1000f);
+    }
+}
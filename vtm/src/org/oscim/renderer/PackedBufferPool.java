@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.renderer;
+
+import org.oscim.utils.pool.Inlist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Bounded pool of native buffers which loader threads fill with vertex and
+ * index data, so that the GL-Thread only has to upload them.
+ * <p/>
+ * In contrast to {@link NativeBufferPool} buffers are owned by the data they
+ * hold until {@link #release(PackedBuffer)} is called. When the pool is
+ * exhausted {@link #get(int)} returns null and the caller should fall back to
+ * compiling on the GL-Thread.
+ */
+public final class PackedBufferPool {
+
+    /**
+     * Maximum number of buffers in use or pooled.
+     */
+    public static int MAX_BUFFERS = 32;
+
+    /**
+     * Maximum bytes allocated by all buffers.
+     */
+    public static int MAX_BYTES = 8 * 1024 * 1024;
+
+    /* 32kb min size, like NativeBufferPool */
+    private static final int MIN_SIZE = 1 << 15;
+
+    public static final class PackedBuffer extends Inlist<PackedBuffer> {
+        public final ByteBuffer byteBuffer;
+
+        PackedBuffer(int size) {
+            byteBuffer = ByteBuffer
+                    .allocateDirect(size)
+                    .order(ByteOrder.nativeOrder());
+        }
+
+        public int capacity() {
+            return byteBuffer.capacity();
+        }
+    }
+
+    private static PackedBuffer mPool;
+    private static int mBuffers;
+    private static int mBytes;
+
+    private static int mMisses;
+
+    private PackedBufferPool() {
+    }
+
+    /**
+     * @param size required bytes
+     * @return a cleared buffer with at least size bytes or null when the
+     * pool limits are reached
+     */
+    public static synchronized PackedBuffer get(int size) {
+        /* find the smallest pooled buffer which fits */
+        PackedBuffer prev = null, minPrev = null, min = null;
+        for (PackedBuffer b = mPool; b != null; prev = b, b = b.next) {
+            if (b.capacity() >= size && (min == null || b.capacity() < min.capacity())) {
+                min = b;
+                minPrev = prev;
+            }
+        }
+        if (min != null) {
+            if (minPrev == null)
+                mPool = min.next;
+            else
+                minPrev.next = min.next;
+            min.next = null;
+            min.byteBuffer.clear();
+            return min;
+        }
+
+        size = Math.max(size, MIN_SIZE);
+
+        /* drop pooled buffers which are too small to make room */
+        while (mPool != null && (mBuffers >= MAX_BUFFERS || mBytes + size > MAX_BYTES)) {
+            mBytes -= mPool.capacity();
+            mBuffers--;
+            mPool = mPool.next;
+        }
+
+        if (mBuffers >= MAX_BUFFERS || mBytes + size > MAX_BYTES) {
+            mMisses++;
+            return null;
+        }
+
+        mBuffers++;
+        mBytes += size;
+        return new PackedBuffer(size);
+    }
+
+    /**
+     * Return buffer to the pool.
+     *
+     * @return null
+     */
+    public static synchronized PackedBuffer release(PackedBuffer buffer) {
+        if (buffer == null)
+            return null;
+
+        buffer.next = mPool;
+        mPool = buffer;
+        return null;
+    }
+
+    /**
+     * @return number of requests which could not be served within the limits
+     */
+    public static synchronized int getMisses() {
+        return mMisses;
+    }
+
+    /**
+     * @return bytes currently allocated by pooled and used buffers
+     */
+    public static synchronized int getAllocatedBytes() {
+        return mBytes;
+    }
+}
@@ -44,7 +44,8 @@ public class BitmapBucket extends TextureBucket {
 
     /**
      * @param reuseBitmap false if the Bitmap should be disposed
-     *                    after loading to texture.
+     *                    after loading to texture. Bitmaps of pooled textures
+     *                    are passed to {@link TexturePool#recycleBitmap(Bitmap)}.
      */
     public BitmapBucket(boolean reuseBitmap) {
         super(RenderBucket.BITMAP);
@@ -137,7 +138,7 @@ public class BitmapBucket extends TextureBucket {
         textures.upload();
 
         if (!mReuseBitmap) {
-            mBitmap.recycle();
+            textures.pool.recycleBitmap(mBitmap);
             mBitmap = null;
             textures.bitmap = null;
         }
@@ -145,6 +146,7 @@ public class BitmapBucket extends TextureBucket {
 
     @Override
     protected void clear() {
+        TexturePool pool = (textures == null) ? TextureItem.NOPOOL : textures.pool;
 
         // release textures and vertexItems
         super.clear();
@@ -153,7 +155,7 @@ public class BitmapBucket extends TextureBucket {
             return;
 
         if (!mReuseBitmap)
-            mBitmap.recycle();
+            pool.recycleBitmap(mBitmap);
 
         mBitmap = null;
 
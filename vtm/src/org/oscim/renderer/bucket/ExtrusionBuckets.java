@@ -124,6 +124,11 @@ public class ExtrusionBuckets extends TileData {
 
     }
 
+    @Override
+    public int getMemoryUsage() {
+        return (vbo == null ? 0 : vbo.getSize()) + (ibo == null ? 0 : ibo.getSize());
+    }
+
     public void prepare() {
         for (RenderBucket b = buckets; b != null; b = b.next)
             b.prepare();
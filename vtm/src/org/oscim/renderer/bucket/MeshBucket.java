@@ -29,6 +29,8 @@ import org.oscim.renderer.GLViewport;
 import org.oscim.renderer.bucket.VertexData.Chunk;
 import org.oscim.theme.styles.AreaStyle;
 import org.oscim.utils.ColorUtil;
+import org.oscim.utils.EarcutTessellator;
+import org.oscim.utils.Parameters;
 import org.oscim.utils.TessJNI;
 import org.oscim.debug.Logger;
 
@@ -52,6 +54,10 @@ public class MeshBucket extends RenderBucket {
     }
 
     public void addMesh(GeometryBuffer geom) {
+        if (Parameters.JAVA_TESSELLATOR) {
+            addMeshJava(geom);
+            return;
+        }
         numPoints += geom.pointNextPos;
         if (tess == null)
             tess = new TessJNI(8);
@@ -59,6 +65,53 @@ public class MeshBucket extends RenderBucket {
         tess.addContour2D(geom.index, geom.points);
     }
 
+    /**
+     * Triangulate each polygon of geom directly into the vertex and index items.
+     */
+    private void addMeshJava(GeometryBuffer geom) {
+        EarcutTessellator tess = EarcutTessellator.get();
+        int[] index = geom.index;
+        float[] points = geom.points;
+
+        for (int ipos = 0, ppos = 0, n = index.length; ipos < n && index[ipos] >= 0; ) {
+            int len = index[ipos];
+            if (len == 0) {
+                ipos++;
+                continue;
+            }
+            int rings = 1;
+            while (ipos + rings < n && index[ipos + rings] > 0)
+                len += index[ipos + rings++];
+
+            int vertices = len >> 1;
+            if (numVertices + vertices > (1 << 16)) {
+                /* short indices: skip this polygon, smaller ones may still fit */
+                log.warn("skip polygon, too many vertices: " + vertices + " + " + numVertices);
+                ppos += len;
+                ipos += rings;
+                continue;
+            }
+
+            int cnt = tess.tessellate(points, ppos, index, ipos, rings);
+            if (cnt > 0) {
+                for (int i = ppos, end = ppos + len; i < end; i += 2)
+                    vertexItems.add(points[i] * COORD_SCALE, points[i + 1] * COORD_SCALE);
+
+                int[] ids = tess.getIndices();
+                int start = numVertices;
+                for (int i = 0; i < cnt; i += 3)
+                    indiceItems.add((short) (start + ids[i]),
+                            (short) (start + ids[i + 1]),
+                            (short) (start + ids[i + 2]));
+
+                numVertices += vertices;
+                numIndices += cnt;
+            }
+            ppos += len;
+            ipos += rings;
+        }
+    }
+
     public void addConvexMesh(GeometryBuffer geom) {
         short start = (short) numVertices;
 
@@ -197,7 +250,7 @@ public class MeshBucket extends RenderBucket {
                 if (ml.area == null)
                     GLUtils.setColor(s.uColor, Color.BLUE, 0.4f);
                 else {
-                    setColor(area, s, v.pos);
+                    setColor(area, s.uColor, v.pos);
                 }
                 gl.vertexAttribPointer(s.aPos, 2, GL.SHORT,
                         false, 0, ml.vertexOffset);
@@ -224,23 +277,23 @@ public class MeshBucket extends RenderBucket {
 
         private static final int OPAQUE = 0xff000000;
 
-        static void setColor(AreaStyle a, Shader s, MapPosition pos) {
+        static void setColor(AreaStyle a, int uColor, MapPosition pos) {
             float fade = a.getFade(pos.scale);
             float blend = a.getBlend(pos.scale);
 
             if (fade < 1.0f) {
                 GLState.blend(true);
-                GLUtils.setColor(s.uColor, a.color, fade);
+                GLUtils.setColor(uColor, a.color, fade);
             } else if (blend > 0.0f) {
                 if (blend == 1.0f)
-                    GLUtils.setColor(s.uColor, a.blendColor, 1);
+                    GLUtils.setColor(uColor, a.blendColor, 1);
                 else
-                    GLUtils.setColorBlend(s.uColor, a.color,
+                    GLUtils.setColorBlend(uColor, a.color,
                             a.blendColor, blend);
             } else {
                 /* test if color contains alpha */
                 GLState.blend((a.color & OPAQUE) != OPAQUE);
-                GLUtils.setColor(s.uColor, a.color, 1);
+                GLUtils.setColor(uColor, a.color, 1);
             }
         }
     }
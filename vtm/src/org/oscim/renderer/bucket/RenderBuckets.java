@@ -21,11 +21,16 @@ import org.oscim.core.Tile;
 import org.oscim.layers.tile.MapTile.TileData;
 import org.oscim.renderer.BufferObject;
 import org.oscim.renderer.MapRenderer;
+import org.oscim.renderer.PackedBufferPool;
+import org.oscim.renderer.PackedBufferPool.PackedBuffer;
 import org.oscim.theme.styles.AreaStyle;
 import org.oscim.theme.styles.CircleStyle;
 import org.oscim.theme.styles.LineStyle;
+import org.oscim.utils.Parameters;
 import org.oscim.debug.Logger;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
 
 import static org.oscim.renderer.MapRenderer.COORD_SCALE;
@@ -84,6 +89,22 @@ public class RenderBuckets extends TileData {
 
     private RenderBucket mCurBucket;
 
+    /**
+     * Data packed on loader thread, see {@link #pack(boolean)}.
+     */
+    private PackedBuffer mPacked;
+    private ShortBuffer mPackedVbo;
+    private ShortBuffer mPackedIbo;
+    private boolean mPackedFailed;
+
+    /**
+     * Copy of the uploaded data, kept for {@link TileBatch} which rebuilds
+     * its batch from it whenever the set of visible tiles changes. Counted
+     * in {@link #getMemoryUsage()}.
+     */
+    short[] batchVertices;
+    short[] batchIndices;
+
     public RenderBuckets() {
     }
 
@@ -308,6 +329,10 @@ public class RenderBuckets extends TileData {
         /* NB: set null calls clear() on each bucket! */
         set(null);
         mCurBucket = null;
+        releasePacked();
+        mPackedFailed = false;
+        batchVertices = null;
+        batchIndices = null;
 
         vbo = BufferObject.release(vbo);
         ibo = BufferObject.release(ibo);
@@ -329,6 +354,22 @@ public class RenderBuckets extends TileData {
         clear();
     }
 
+    /**
+     * @return bytes of buffer objects, of the copy kept for {@link TileBatch}
+     * and of textures held by buckets
+     */
+    @Override
+    public int getMemoryUsage() {
+        int bytes = (vbo == null ? 0 : vbo.getSize()) + (ibo == null ? 0 : ibo.getSize());
+        if (batchVertices != null)
+            bytes += (batchVertices.length + batchIndices.length) * SHORT_BYTES;
+        for (RenderBucket l = buckets; l != null; l = l.next) {
+            if (l instanceof TextureBucket)
+                bytes += ((TextureBucket) l).getTextureMemoryUsage();
+        }
+        return bytes;
+    }
+
     public void prepare() {
         for (RenderBucket l = buckets; l != null; l = l.next)
             l.prepare();
@@ -343,14 +384,90 @@ public class RenderBuckets extends TileData {
 
     }
 
+    /**
+     * Pack vertex and index data into a native buffer on the calling (loader)
+     * thread, so that {@link #compile(boolean)} only needs to upload it.
+     * Does nothing when buckets need the GL-Thread for compilation (e.g.
+     * textures) or when no buffer is available from {@link PackedBufferPool}.
+     *
+     * @param addFill must be the same as passed to {@link #compile(boolean)}.
+     * @return true if data was packed.
+     */
+    public boolean pack(boolean addFill) {
+        if (mPacked != null)
+            return true;
+
+        for (RenderBucket l = buckets; l != null; l = l.next) {
+            if (!isPackable(l.type))
+                return false;
+        }
+
+        int vboSize = countVboSize();
+        if (vboSize <= 0)
+            return false;
+
+        if (addFill)
+            vboSize += TILE_FILL_VERTICES * 2;
+
+        int iboSize = countIboSize();
+
+        PackedBuffer packed = PackedBufferPool.get((vboSize + iboSize) * SHORT_BYTES);
+        if (packed == null)
+            return false;
+
+        ByteBuffer bb = packed.byteBuffer;
+        bb.limit(vboSize * SHORT_BYTES);
+        ShortBuffer vboData = bb.slice().order(ByteOrder.nativeOrder()).asShortBuffer();
+
+        ShortBuffer iboData = null;
+        if (iboSize > 0) {
+            bb.limit((vboSize + iboSize) * SHORT_BYTES);
+            bb.position(vboSize * SHORT_BYTES);
+            iboData = bb.slice().order(ByteOrder.nativeOrder()).asShortBuffer();
+        }
+        bb.clear();
+
+        if (!fill(vboData, iboData, vboSize, iboSize, addFill)) {
+            /* bucket data is consumed, keep behaviour of compile() */
+            PackedBufferPool.release(packed);
+            mPackedFailed = true;
+            return false;
+        }
+
+        mPackedVbo = vboData;
+        mPackedIbo = iboData;
+        mPacked = packed;
+        return true;
+    }
+
+    private static boolean isPackable(int type) {
+        return type == LINE || type == TEXLINE || type == POLYGON
+                || type == MESH || type == HAIRLINE || type == CIRCLE;
+    }
+
     /**
      * Compile different types of buckets in one {@link #vbo VBO}.
+     * When buckets were packed by {@link #pack(boolean)} on a loader
+     * thread only the upload is done here.
      *
      * @param addFill fill tile (add {@link #TILE_FILL_VERTICES 4} vertices).
      * @return true if compilation succeeded.
      */
     public boolean compile(boolean addFill) {
 
+        if (mPackedFailed) {
+            mPackedFailed = false;
+            vbo = BufferObject.release(vbo);
+            ibo = BufferObject.release(ibo);
+            return false;
+        }
+
+        if (mPacked != null) {
+            boolean ok = upload(mPackedVbo, mPackedIbo);
+            releasePacked();
+            return ok;
+        }
+
         int vboSize = countVboSize();
 
         if (vboSize <= 0) {
@@ -364,9 +481,6 @@ public class RenderBuckets extends TileData {
 
         ShortBuffer vboData = MapRenderer.getShortBuffer(vboSize);
 
-        if (addFill)
-            vboData.put(fillShortCoords, 0, TILE_FILL_VERTICES * 2);
-
         ShortBuffer iboData = null;
 
         int iboSize = countIboSize();
@@ -374,6 +488,18 @@ public class RenderBuckets extends TileData {
             iboData = MapRenderer.getShortBuffer(iboSize);
         }
 
+        if (!fill(vboData, iboData, vboSize, iboSize, addFill))
+            return false;
+
+        return upload(vboData, iboData);
+    }
+
+    private boolean fill(ShortBuffer vboData, ShortBuffer iboData,
+                         int vboSize, int iboSize, boolean addFill) {
+
+        if (addFill)
+            vboData.put(fillShortCoords, 0, TILE_FILL_VERTICES * 2);
+
         int pos = addFill ? TILE_FILL_VERTICES : 0;
 
         for (RenderBucket l = buckets; l != null; l = l.next) {
@@ -418,6 +544,28 @@ public class RenderBuckets extends TileData {
                     + " buffer fill: " + iboData.remaining());
             return false;
         }
+        return true;
+    }
+
+    private boolean upload(ShortBuffer vboData, ShortBuffer iboData) {
+        int vboSize = vboData.position();
+        int iboSize = iboData == null ? 0 : iboData.position();
+
+        if (Parameters.BATCH_TILES && isBatchable()) {
+            batchVertices = new short[vboSize];
+            ShortBuffer data = vboData.duplicate();
+            data.flip();
+            data.get(batchVertices);
+            batchIndices = new short[iboSize];
+            if (iboSize > 0) {
+                data = iboData.duplicate();
+                data.flip();
+                data.get(batchIndices);
+            }
+        } else {
+            batchVertices = null;
+            batchIndices = null;
+        }
 
         if (vbo == null)
             vbo = BufferObject.get(GL.ARRAY_BUFFER, vboSize);
@@ -436,6 +584,26 @@ public class RenderBuckets extends TileData {
         return true;
     }
 
+    /**
+     * @return true if all buckets can be drawn by {@link TileBatch}.
+     */
+    public boolean isBatchable() {
+        if (buckets == null)
+            return false;
+
+        for (RenderBucket l = buckets; l != null; l = l.next) {
+            if (l.type != LINE && l.type != MESH && l.type != HAIRLINE)
+                return false;
+        }
+        return true;
+    }
+
+    private void releasePacked() {
+        mPacked = PackedBufferPool.release(mPacked);
+        mPackedVbo = null;
+        mPackedIbo = null;
+    }
+
     private static short[] fillShortCoords;
 
     static {
@@ -452,5 +620,6 @@ public class RenderBuckets extends TileData {
         MeshBucket.Renderer.init();
         HairLineBucket.Renderer.init();
         CircleBucket.Renderer.init();
+        TileBatch.Renderer.init();
     }
 }
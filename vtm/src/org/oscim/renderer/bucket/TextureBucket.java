@@ -75,6 +75,16 @@ public class TextureBucket extends RenderBucket {
         compileVertexItems(vboData);
     }
 
+    /**
+     * @return bytes of the uploaded textures of this bucket
+     */
+    public int getTextureMemoryUsage() {
+        int bytes = 0;
+        for (TextureItem t = textures; t != null; t = t.next)
+            bytes += t.getMemoryUsage();
+        return bytes;
+    }
+
     @Override
     protected void clear() {
         while (textures != null)
@@ -24,6 +24,7 @@ import org.oscim.backend.canvas.Bitmap;
 import org.oscim.backend.canvas.Color;
 import org.oscim.renderer.GLState;
 import org.oscim.renderer.GLUtils;
+import org.oscim.renderer.MemoryBudget;
 import org.oscim.utils.pool.Inlist;
 import org.oscim.utils.pool.SyncPool;
 import org.oscim.debug.Logger;
@@ -75,6 +76,12 @@ public class TextureItem extends Inlist<TextureItem> {
      */
     boolean loaded;
 
+    /**
+     * bytes accounted in {@link MemoryBudget} for this texture, written on
+     * the GL-Thread
+     */
+    private volatile int allocated;
+
     final TexturePool pool;
 
     public boolean mipmap;
@@ -143,6 +150,14 @@ public class TextureItem extends Inlist<TextureItem> {
             upload();
     }
 
+    /**
+     * @return bytes of the uploaded texture, 0 for clones which share the
+     * texture of another item.
+     */
+    public int getMemoryUsage() {
+        return ref == null ? allocated : 0;
+    }
+
     /**
      * Dispose TextureItem
      * [Threadsafe]
@@ -163,6 +178,7 @@ public class TextureItem extends Inlist<TextureItem> {
         private final int mHeight;
         private final int mWidth;
         private final boolean mUseBitmapPool;
+        private final boolean mRecycleBitmaps;
         private final boolean mMipmaps;
 
         //private final int mBitmapFormat;
@@ -175,14 +191,26 @@ public class TextureItem extends Inlist<TextureItem> {
             mWidth = width;
             mHeight = height;
             mUseBitmapPool = true;
+            mRecycleBitmaps = false;
             mMipmaps = mipmap;
         }
 
         public TexturePool(int maxFill) {
+            this(maxFill, false);
+        }
+
+        /**
+         * @param recycleBitmaps keep up to maxFill Bitmaps passed to
+         *                       {@link #recycleBitmap(Bitmap)} for decoding
+         *                       the next images into, see
+         *                       {@link CanvasAdapter#decodeBitmap(java.io.InputStream, Bitmap)}.
+         */
+        public TexturePool(int maxFill, boolean recycleBitmaps) {
             super(maxFill);
             mWidth = 0;
             mHeight = 0;
             mUseBitmapPool = false;
+            mRecycleBitmaps = recycleBitmaps;
             mMipmaps = false;
         }
 
@@ -221,6 +249,55 @@ public class TextureItem extends Inlist<TextureItem> {
             return t;
         }
 
+        /**
+         * Retrieve a recycled Bitmap to decode into.
+         * [Threadsafe]
+         *
+         * @return the Bitmap or null when none is available.
+         */
+        public Bitmap getRecycledBitmap() {
+            if (!mRecycleBitmaps)
+                return null;
+
+            synchronized (mBitmaps) {
+                int size = mBitmaps.size();
+                if (size == 0)
+                    return null;
+                return mBitmaps.remove(size - 1);
+            }
+        }
+
+        /**
+         * Put Bitmap back to be reused by {@link #getRecycledBitmap()},
+         * or recycle it when the pool is full or does not recycle Bitmaps.
+         * [Threadsafe]
+         */
+        public void recycleBitmap(Bitmap bitmap) {
+            if (mRecycleBitmaps) {
+                synchronized (mBitmaps) {
+                    if (mBitmaps.size() < mMaxFill) {
+                        mBitmaps.add(bitmap);
+                        return;
+                    }
+                }
+            }
+            bitmap.recycle();
+        }
+
+        @Override
+        public synchronized void clear() {
+            super.clear();
+
+            if (!mRecycleBitmaps)
+                return;
+
+            synchronized (mBitmaps) {
+                for (Bitmap bitmap : mBitmaps)
+                    bitmap.recycle();
+                mBitmaps.clear();
+            }
+        }
+
         @Override
         protected TextureItem createItem() {
             return new TextureItem(this, -1);
@@ -255,6 +332,8 @@ public class TextureItem extends Inlist<TextureItem> {
 
             if (t.ref == null && t.used == 0 && t.id >= 0) {
                 mTexCnt--;
+                MemoryBudget.add(MemoryBudget.TEXTURES, -t.allocated);
+                t.allocated = 0;
                 synchronized (disposedTextures) {
                     disposedTextures.add(Integer.valueOf(t.id));
                     t.id = -1;
@@ -293,6 +372,12 @@ public class TextureItem extends Inlist<TextureItem> {
 
                 mTexCnt++;
 
+                /* RGBA, mipmaps need another third */
+                t.allocated = t.width * t.height * 4;
+                if (t.mipmap)
+                    t.allocated += t.allocated / 3;
+                MemoryBudget.add(MemoryBudget.TEXTURES, t.allocated);
+
                 t.bitmap.uploadToTexture(false);
             } else {
                 GLState.bindTex2D(t.id);
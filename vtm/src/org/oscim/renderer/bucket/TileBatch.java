@@ -0,0 +1,653 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.renderer.bucket;
+
+import org.oscim.backend.GL;
+import org.oscim.backend.GLAdapter;
+import org.oscim.core.MercatorProjection;
+import org.oscim.core.Tile;
+import org.oscim.layers.tile.vector.VectorTileLoader;
+import org.oscim.renderer.BufferObject;
+import org.oscim.renderer.GLShader;
+import org.oscim.renderer.GLState;
+import org.oscim.renderer.GLUtils;
+import org.oscim.renderer.GLViewport;
+import org.oscim.renderer.MapRenderer;
+import org.oscim.theme.styles.AreaStyle;
+import org.oscim.theme.styles.LineStyle;
+import org.oscim.utils.Parameters;
+import org.oscim.debug.Logger;
+
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+
+import static org.oscim.backend.GLAdapter.gl;
+import static org.oscim.renderer.MapRenderer.COORD_SCALE;
+import static org.oscim.renderer.bucket.RenderBucket.HAIRLINE;
+import static org.oscim.renderer.bucket.RenderBucket.LINE;
+import static org.oscim.renderer.bucket.RenderBucket.MESH;
+
+/**
+ * Draws the line, mesh and hairline buckets of several tiles with one draw
+ * call per level.
+ * <p/>
+ * When the set of tiles changes the buckets of the same level and style are
+ * merged into one VBO and IBO. Line strips are joined by degenerate
+ * triangles, mesh and hairline indices are rebased. Each vertex carries the
+ * index of its tile. The shaders (compiled with TILE_BATCH) place the vertex
+ * by the tile position and scale from a uniform array and discard fragments
+ * outside of the tile instead of the stencil clip.
+ * <p/>
+ * Tiles must have the same zoom-level and only contain buckets that
+ * {@link RenderBuckets#isBatchable()}. Their data is kept in
+ * {@link RenderBuckets} when {@link Parameters#BATCH_TILES} is set.
+ */
+public class TileBatch {
+    static final Logger log = new Logger(TileBatch.class);
+
+    /**
+     * Maximum number of tiles in a batch, size of the tile uniform array.
+     */
+    public static final int MAX_TILES = 32;
+
+    /**
+     * Maximum number of vertices addressed by short indices.
+     */
+    private static final int MAX_INDEXED_VERTICES = 1 << 16;
+
+    private static final int LINE_SHORTS = RenderBuckets.VERTEX_CNT[LINE];
+    private static final int MESH_SHORTS = RenderBuckets.VERTEX_CNT[MESH];
+
+    private final RenderBuckets[] mBuckets = new RenderBuckets[MAX_TILES];
+    private final short[][] mData = new short[MAX_TILES][];
+
+    /* x, y, scale and line scale per tile */
+    private final float[] mTiles = new float[MAX_TILES * 4];
+
+    private int mTileCnt;
+    private int mAddCnt;
+    private boolean mChanged;
+
+    private BufferObject mVbo;
+    private BufferObject mIbo;
+
+    /* byte offsets in vbo */
+    private int mLineTileOffset;
+    private int mIndexedOffset;
+    private int mIndexedTileOffset;
+
+    private final ArrayList<Draw> mDraws = new ArrayList<>();
+
+    /**
+     * One draw call: the buckets of one level and style.
+     */
+    static final class Draw {
+        final Group group;
+        /* first vertex of indexed draws */
+        final int base;
+        /* first vertex (lines) or index */
+        final int first;
+        int count;
+
+        Draw(Group group, int base, int first) {
+            this.group = group;
+            this.base = base;
+            this.first = first;
+        }
+    }
+
+    /**
+     * Buckets of one level and style from all tiles.
+     */
+    static final class Group {
+        final int type;
+        final int level;
+        /* bucket that holds the style */
+        final RenderBucket bucket;
+        /* line referenced by an outline */
+        final LineBucket ref;
+        final boolean thin;
+
+        /* buckets with vertices and their tile */
+        RenderBucket[] items = new RenderBucket[8];
+        int[] tiles = new int[8];
+        int cnt;
+
+        Group next;
+
+        Group(RenderBucket bucket, LineBucket ref, boolean thin) {
+            this.type = bucket.type;
+            this.level = bucket.level;
+            this.bucket = bucket;
+            this.ref = ref;
+            this.thin = thin;
+        }
+
+        boolean matches(RenderBucket b, LineBucket r, boolean t) {
+            if (b.type != type || style(b) != style(bucket) || t != thin)
+                return false;
+            if (r == null || ref == null)
+                return r == ref;
+            return r.level == ref.level && r.line == ref.line;
+        }
+
+        void add(RenderBucket b, int tile) {
+            if (cnt == items.length) {
+                RenderBucket[] i = new RenderBucket[cnt * 2];
+                System.arraycopy(items, 0, i, 0, cnt);
+                items = i;
+                int[] t = new int[cnt * 2];
+                System.arraycopy(tiles, 0, t, 0, cnt);
+                tiles = t;
+            }
+            items[cnt] = b;
+            tiles[cnt++] = tile;
+        }
+
+        static Object style(RenderBucket b) {
+            if (b.type == LINE)
+                return ((LineBucket) b).line;
+            if (b.type == MESH)
+                return ((MeshBucket) b).area;
+            return ((HairLineBucket) b).line;
+        }
+    }
+
+    /**
+     * Start collecting the tiles of a frame.
+     */
+    public void begin() {
+        mAddCnt = 0;
+        mChanged = false;
+    }
+
+    /**
+     * Add the buckets of a tile, placed like in VectorTileRenderer.drawTile().
+     *
+     * @param x     tile position relative to map position
+     * @param y     tile position relative to map position
+     * @param scale scale relative to the zoom-level of the tile
+     * @return false when the batch is full or the buckets can not be batched
+     */
+    public boolean add(RenderBuckets buckets, float x, float y, float scale) {
+        if (mAddCnt == MAX_TILES || buckets.batchVertices == null)
+            return false;
+
+        int i = mAddCnt++;
+        if (i >= mTileCnt || mBuckets[i] != buckets || mData[i] != buckets.batchVertices) {
+            mBuckets[i] = buckets;
+            mData[i] = buckets.batchVertices;
+            mChanged = true;
+        }
+        mTiles[i * 4] = x;
+        mTiles[i * 4 + 1] = y;
+        mTiles[i * 4 + 2] = scale / COORD_SCALE;
+        return true;
+    }
+
+    /**
+     * Draw the tiles added since {@link #begin()}.
+     *
+     * @param scale scale relative to the zoom-level of the tiles
+     * @return false when nothing was drawn
+     */
+    public boolean draw(GLViewport v, float scale) {
+        if (Renderer.lineShaders[0] == null)
+            return false;
+
+        if (mChanged || mAddCnt != mTileCnt) {
+            for (int i = mAddCnt; i < mTileCnt; i++) {
+                mBuckets[i] = null;
+                mData[i] = null;
+            }
+            mTileCnt = mAddCnt;
+            build();
+        }
+        if (mDraws.isEmpty())
+            return false;
+
+        Renderer.draw(this, v, scale);
+        return true;
+    }
+
+    /**
+     * Release buffers and references to tiles.
+     */
+    public void clear() {
+        for (int i = 0; i < mTileCnt; i++) {
+            mBuckets[i] = null;
+            mData[i] = null;
+        }
+        mTileCnt = 0;
+        mDraws.clear();
+        mVbo = BufferObject.release(mVbo);
+        mIbo = BufferObject.release(mIbo);
+    }
+
+    private void build() {
+        mDraws.clear();
+
+        /* collect buckets by level and style */
+        ArrayList<Group> groups = new ArrayList<>();
+        HashMap<Integer, Group> levels = new HashMap<>();
+
+        for (int t = 0; t < mTileCnt; t++) {
+            float lineScale = 1;
+            for (RenderBucket b = mBuckets[t].get(); b != null; b = b.next) {
+                if (b.type != LINE) {
+                    addItem(groups, levels, b, null, false, t);
+                    continue;
+                }
+                LineBucket lb = (LineBucket) b;
+                if (!lb.line.outline) {
+                    if (!lb.line.fixed)
+                        lineScale = lb.scale;
+                    addItem(groups, levels, b, null, lb.scale < 1.5, t);
+                    continue;
+                }
+                for (LineBucket ref = lb.outlines; ref != null; ref = ref.outlines)
+                    addItem(groups, levels, b, ref, false, t);
+            }
+            mTiles[t * 4 + 3] = lineScale;
+        }
+
+        /* keep order of styles within a level */
+        Collections.sort(groups, new Comparator<Group>() {
+            @Override
+            public int compare(Group a, Group b) {
+                return Integer.compare(a.level, b.level);
+            }
+        });
+
+        int lineVertices = 0;
+        int indexedVertices = 0;
+        int indices = 0;
+        for (Group g : groups) {
+            for (int i = 0; i < g.cnt; i++) {
+                RenderBucket b = g.items[i];
+                if (g.type == LINE) {
+                    lineVertices += b.numVertices + (i > 0 ? 2 : 0);
+                } else {
+                    indexedVertices += b.numVertices;
+                    indices += b.numIndices;
+                }
+            }
+        }
+
+        int vboSize = lineVertices * (LINE_SHORTS + 1) + indexedVertices * (MESH_SHORTS + 1);
+        if (vboSize == 0) {
+            mVbo = BufferObject.release(mVbo);
+            mIbo = BufferObject.release(mIbo);
+            return;
+        }
+
+        mLineTileOffset = lineVertices * LINE_SHORTS;
+        mIndexedOffset = lineVertices * (LINE_SHORTS + 1);
+        mIndexedTileOffset = mIndexedOffset + indexedVertices * MESH_SHORTS;
+
+        ShortBuffer vboData = MapRenderer.getShortBuffer(vboSize);
+        ShortBuffer iboData = indices > 0 ? MapRenderer.getShortBuffer(indices) : null;
+
+        int line = 0;
+        int vertex = 0;
+        int base = 0;
+        int index = 0;
+
+        for (Group g : groups) {
+            Draw d = null;
+
+            if (g.type == LINE) {
+                d = new Draw(g, 0, line);
+                mDraws.add(d);
+            }
+            for (int i = 0; i < g.cnt; i++) {
+                RenderBucket b = g.items[i];
+                RenderBuckets rb = mBuckets[g.tiles[i]];
+                short tile = (short) g.tiles[i];
+
+                if (g.type == LINE) {
+                    int src = rb.offset[LINE] / RenderBuckets.SHORT_BYTES
+                            + b.vertexOffset * LINE_SHORTS;
+                    if (i > 0) {
+                        /* join strips by repeating last and first vertex */
+                        copyVertex(vboData, vboData, (line - 1) * LINE_SHORTS, line,
+                                vboData.get(mLineTileOffset + line - 1));
+                        line++;
+                        copyVertex(vboData, rb.batchVertices, src, line, tile);
+                        line++;
+                    }
+                    for (int n = 0; n < b.numVertices; n++, line++)
+                        copyVertex(vboData, rb.batchVertices, src + n * LINE_SHORTS, line, tile);
+                    d.count = line - d.first;
+                    continue;
+                }
+
+                if (vertex - base + b.numVertices > MAX_INDEXED_VERTICES) {
+                    base = vertex;
+                    d = null;
+                }
+                if (d == null) {
+                    d = new Draw(g, base, index);
+                    mDraws.add(d);
+                }
+                int src = b.vertexOffset / RenderBuckets.SHORT_BYTES;
+                for (int n = 0; n < b.numVertices; n++) {
+                    int pos = mIndexedOffset + (vertex + n) * MESH_SHORTS;
+                    vboData.put(pos, rb.batchVertices[src + n * MESH_SHORTS]);
+                    vboData.put(pos + 1, rb.batchVertices[src + n * MESH_SHORTS + 1]);
+                    vboData.put(mIndexedTileOffset + vertex + n, tile);
+                }
+                int offset = vertex - base;
+                src = b.indiceOffset / RenderBuckets.SHORT_BYTES;
+                for (int n = 0; n < b.numIndices; n++)
+                    iboData.put(index + n, (short) ((rb.batchIndices[src + n] & 0xffff) + offset));
+
+                vertex += b.numVertices;
+                index += b.numIndices;
+                d.count += b.numIndices;
+            }
+        }
+
+        vboData.position(vboSize);
+        if (mVbo == null)
+            mVbo = BufferObject.get(GL.ARRAY_BUFFER, vboSize);
+        mVbo.loadBufferData(vboData.flip(), vboSize * RenderBuckets.SHORT_BYTES);
+
+        if (indices > 0) {
+            iboData.position(indices);
+            if (mIbo == null)
+                mIbo = BufferObject.get(GL.ELEMENT_ARRAY_BUFFER, indices);
+            mIbo.loadBufferData(iboData.flip(), indices * RenderBuckets.SHORT_BYTES);
+        }
+
+        /* byte offsets */
+        mLineTileOffset *= RenderBuckets.SHORT_BYTES;
+        mIndexedOffset *= RenderBuckets.SHORT_BYTES;
+        mIndexedTileOffset *= RenderBuckets.SHORT_BYTES;
+    }
+
+    private void copyVertex(ShortBuffer dst, ShortBuffer src, int pos, int vertex, short tile) {
+        for (int j = 0; j < LINE_SHORTS; j++)
+            dst.put(vertex * LINE_SHORTS + j, src.get(pos + j));
+        dst.put(mLineTileOffset + vertex, tile);
+    }
+
+    private void copyVertex(ShortBuffer dst, short[] src, int pos, int vertex, short tile) {
+        for (int j = 0; j < LINE_SHORTS; j++)
+            dst.put(vertex * LINE_SHORTS + j, src[pos + j]);
+        dst.put(mLineTileOffset + vertex, tile);
+    }
+
+    private static void addItem(ArrayList<Group> groups, HashMap<Integer, Group> levels,
+                                RenderBucket b, LineBucket ref, boolean thin, int tile) {
+        RenderBucket item = ref != null ? ref : b;
+        if (item.numVertices == 0)
+            return;
+
+        Group first = levels.get(b.level);
+        Group g = first;
+        while (g != null && !g.matches(b, ref, thin))
+            g = g.next;
+
+        if (g == null) {
+            g = new Group(b, ref, thin);
+            groups.add(g);
+            if (first == null) {
+                levels.put(b.level, g);
+            } else {
+                while (first.next != null)
+                    first = first.next;
+                first.next = g;
+            }
+        }
+        g.add(item, tile);
+    }
+
+    public static final class Renderer {
+
+        /* factor to normalize extrusion vector and scale to coord scale */
+        private final static float COORD_SCALE_BY_DIR_SCALE =
+                COORD_SCALE / LineBucket.DIR_SCALE;
+
+        private final static int CAP_THIN = 0;
+        private final static int CAP_BUTT = 1;
+        private final static int CAP_ROUND = 2;
+
+        private final static int SHADER_FLAT = 1;
+        private final static int SHADER_PROJ = 0;
+
+        static Shader[] lineShaders = {null, null};
+        static Shader meshShader;
+        static Shader hairLineShader;
+
+        static boolean init() {
+            lineShaders[0] = lineShaders[1] = meshShader = hairLineShader = null;
+
+            /* only compile the batch shaders when they are used */
+            if (!Parameters.BATCH_TILES)
+                return true;
+
+            Shader proj = new Shader("line_aa_proj");
+            Shader flat = new Shader("line_aa");
+            Shader mesh = new Shader("mesh_layer_2D");
+            Shader hairLine = new Shader("hairline");
+            if (proj.program == 0 || flat.program == 0
+                    || mesh.program == 0 || hairLine.program == 0) {
+                log.error("could not create tile batch shaders");
+                return false;
+            }
+            lineShaders[SHADER_PROJ] = proj;
+            lineShaders[SHADER_FLAT] = flat;
+            meshShader = mesh;
+            hairLineShader = hairLine;
+            return true;
+        }
+
+        static class Shader extends GLShader {
+            int uMVP, uTiles, uColor, uHeight, aPos, aTile;
+            /* lines */
+            int uFade, uWidth, uMode;
+            /* hairlines */
+            int uScreen;
+
+            Shader(String shaderFile) {
+                if (!createDirective(shaderFile, "#define TILE_BATCH " + MAX_TILES
+                        + "\n#define TILE_EXTENT " + (Tile.SIZE * COORD_SCALE) + ".0"))
+                    return;
+
+                uMVP = getUniform("u_mvp");
+                uTiles = getUniform("u_tiles");
+                uColor = getUniform("u_color");
+                aPos = getAttrib("a_pos");
+                aTile = getAttrib("a_tile");
+                if (shaderFile.startsWith("line")) {
+                    uHeight = getUniform("u_height");
+                    uFade = getUniform("u_fade");
+                    uWidth = getUniform("u_width");
+                    uMode = getUniform("u_mode");
+                } else if (shaderFile.startsWith("mesh")) {
+                    uHeight = getUniform("u_height");
+                } else {
+                    uWidth = getUniform("u_width");
+                    uScreen = getUniform("u_screen");
+                }
+            }
+
+            void set(TileBatch batch, GLViewport v) {
+                useProgram();
+                GLState.enableVertexArrays(aPos, aTile);
+                v.mvp.setAsUniform(uMVP);
+                gl.uniform4fv(uTiles, batch.mTileCnt, batch.mTiles, 0);
+            }
+        }
+
+        static void draw(TileBatch batch, GLViewport v, float scale) {
+            /* clipping is done in fragment shader */
+            GLState.test(false, false);
+
+            batch.mVbo.bind();
+            if (batch.mIbo != null)
+                batch.mIbo.bind();
+
+            v.mvp.copy(v.viewproj);
+
+            int mode = v.pos.tilt < 1 ? SHADER_FLAT : SHADER_PROJ;
+            double variableScale = Math.sqrt(scale);
+            double pixel = (mode == SHADER_PROJ) ? 0.0001 : 1.5 / scale;
+
+            Shader s = null;
+            int base = -1;
+            int capMode = -1;
+            float heightOffset = 0;
+
+            for (int i = 0, n = batch.mDraws.size(); i < n; i++) {
+                Draw d = batch.mDraws.get(i);
+                Group g = d.group;
+
+                Shader next = (g.type == LINE) ? lineShaders[mode]
+                        : (g.type == MESH) ? meshShader : hairLineShader;
+                if (next != s) {
+                    s = next;
+                    s.set(batch, v);
+                    GLState.blend(true);
+                    base = -1;
+                    capMode = -1;
+                    heightOffset = 0;
+                    if (g.type == LINE) {
+                        if (!GLAdapter.GDX_DESKTOP_QUIRKS)
+                            GLState.bindTex2D(LineBucket.Renderer.mTexID);
+                        gl.vertexAttribPointer(s.aPos, 4, GL.SHORT, false, 0, 0);
+                        gl.vertexAttribPointer(s.aTile, 1, GL.SHORT, false, 0,
+                                batch.mLineTileOffset);
+                        gl.uniform1f(s.uHeight, 0);
+                    } else if (g.type == MESH) {
+                        gl.uniform1f(s.uHeight, 0);
+                    } else {
+                        gl.uniform2f(s.uScreen, v.getWidth() / 2, v.getHeight() / 2);
+                        gl.uniform1f(s.uWidth, 1.5f);
+                        gl.lineWidth(2);
+                    }
+                }
+
+                if (g.type != LINE && d.base != base) {
+                    base = d.base;
+                    gl.vertexAttribPointer(s.aPos, 2, GL.SHORT, false, 0,
+                            batch.mIndexedOffset + base * MESH_SHORTS * RenderBuckets.SHORT_BYTES);
+                    gl.vertexAttribPointer(s.aTile, 1, GL.SHORT, false, 0,
+                            batch.mIndexedTileOffset + base * RenderBuckets.SHORT_BYTES);
+                }
+
+                if (g.type == MESH) {
+                    AreaStyle area = ((MeshBucket) g.bucket).area.current();
+                    if (area.heightOffset != heightOffset) {
+                        heightOffset = area.heightOffset;
+                        gl.uniform1f(s.uHeight, heightOffset /
+                                MercatorProjection.groundResolution(v.pos));
+                    }
+                    MeshBucket.Renderer.setColor(area, s.uColor, v.pos);
+                    gl.drawElements(GL.TRIANGLES, d.count, GL.UNSIGNED_SHORT,
+                            d.first * RenderBuckets.SHORT_BYTES);
+                    continue;
+                }
+
+                if (g.type == HAIRLINE) {
+                    LineStyle line = ((HairLineBucket) g.bucket).line.current();
+                    GLUtils.setColor(s.uColor, line.color, 1);
+                    gl.drawElements(GL.LINES, d.count, GL.UNSIGNED_SHORT,
+                            d.first * RenderBuckets.SHORT_BYTES);
+                    continue;
+                }
+
+                LineBucket lb = (LineBucket) g.bucket;
+                LineStyle line = lb.line.current();
+
+                if (line.heightOffset != heightOffset) {
+                    heightOffset = line.heightOffset;
+                    gl.uniform1f(s.uHeight, heightOffset /
+                            MercatorProjection.groundResolution(v.pos));
+                }
+
+                if (line.fadeScale < v.pos.zoomLevel) {
+                    GLUtils.setColor(s.uColor, line.color, 1);
+                } else if (line.fadeScale > v.pos.zoomLevel) {
+                    continue;
+                } else {
+                    float alpha = (float) (scale > 1.2 ? scale : 1.2) - 1;
+                    GLUtils.setColor(s.uColor, line.color, alpha);
+                }
+
+                /* width is the fixed part plus the part relative to
+                 * line scale of the tile, see LineBucket.Renderer */
+                double fixed = 0, relative = 0;
+                int cap;
+                if (g.ref == null) {
+                    if (line.fixed)
+                        fixed = Math.max(line.width, 1) / scale;
+                    else if (line.minWidth > 0)
+                        fixed = Math.max(line.minWidth / scale,
+                                VectorTileLoader.getLineScale(v.pos.y, v.pos.scale) * line.width / scale);
+                    else
+                        relative = line.width / variableScale;
+
+                    cap = g.thin ? CAP_THIN : lb.roundCap ? CAP_ROUND : CAP_BUTT;
+                } else {
+                    LineStyle core = g.ref.line.current();
+                    if (core.fixed)
+                        fixed = Math.max(core.width, 1) / scale;
+                    else if (line.minWidth > 0)
+                        fixed = Math.max(line.minWidth / scale,
+                                VectorTileLoader.getLineScale(v.pos.y, v.pos.scale) * core.width / scale);
+                    else
+                        relative = core.width / variableScale;
+
+                    if (line.fixed)
+                        fixed += line.width / scale;
+                    else if (line.minWidth > 0)
+                        fixed += Math.max(line.minWidth / scale,
+                                VectorTileLoader.getLineScale(v.pos.y, v.pos.scale) * line.width / scale);
+                    else
+                        relative += line.width / variableScale;
+
+                    cap = g.ref.roundCap ? CAP_ROUND : CAP_BUTT;
+                }
+
+                gl.uniform2f(s.uWidth, (float) (fixed * COORD_SCALE_BY_DIR_SCALE),
+                        (float) (relative * COORD_SCALE_BY_DIR_SCALE));
+
+                /* Line-edge fade, pixel / width for flat shader */
+                if (line.blur > 0)
+                    gl.uniform2f(s.uFade, line.blur, 0);
+                else if (mode == SHADER_FLAT)
+                    gl.uniform2f(s.uFade, 0, (float) (pixel * COORD_SCALE_BY_DIR_SCALE));
+                else
+                    gl.uniform2f(s.uFade, (float) pixel, 0);
+
+                if (cap != capMode) {
+                    capMode = cap;
+                    gl.uniform1i(s.uMode, capMode);
+                }
+
+                gl.drawArrays(GL.TRIANGLE_STRIP, d.first, d.count);
+            }
+        }
+
+        private Renderer() {
+            /* Singleton */
+        }
+    }
+}
@@ -35,4 +35,10 @@ public class ServerDns
 		return this.listServerUrl.get((int) (Math.random() * this.listServerUrl.size()));
 	}
 	
+	@NonNull
+	List<String> getUrls()
+	{
+		return this.listServerUrl;
+	}
+	
 }
@@ -5,7 +5,9 @@ import androidx.annotation.Nullable;
 
 import org.oscim.GlobalConfig;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * All server DNS of tile servers are found here.
@@ -44,6 +46,22 @@ public class ServerDnsTiles
 		return null;
 	}
 	
+	/**
+	 * Get a {@link ServerPool} of the tiles URLs of all servers, to route each request to the 
+	 * fastest healthy one.
+	 * @return new {@link ServerPool}
+	 */
+	@NonNull
+	public ServerPool createServerPool()
+	{
+		final List<String> listUrl = new ArrayList<>();
+		for (final String serverUrl : this.server.getUrls())
+		{
+			listUrl.add(getTilesUrl(serverUrl));
+		}
+		return new ServerPool(listUrl);
+	}
+	
 	@NonNull
 	@Override
 	public String toString()
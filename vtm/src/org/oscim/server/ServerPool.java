@@ -0,0 +1,434 @@
+package org.oscim.server;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of equivalent server URLs which routes requests to the fastest healthy one.
+ * <p>
+ * Each {@link Endpoint} keeps the latency and outcome of its last {@link #WINDOW} requests.
+ * Requests go to the available endpoint with the lowest median latency, weighted by its error
+ * rate; every {@link #EXPLORE_INTERVAL}th request goes to another endpoint to keep their
+ * statistics current. A circuit breaker takes an endpoint out of the pool for the open time
+ * after {@link #FAILURE_THRESHOLD} consecutive failures, then lets a single probe request
+ * through.
+ * <p>
+ * Engines which can send a duplicate request, like
+ * {@link org.oscim.tiling.source.NioHttp}, do so to {@link #selectHedge(Endpoint)} when no
+ * response arrived within {@link #getHedgeDelay(Endpoint)}, the p95 latency of the endpoint.
+ */
+public class ServerPool
+{
+	/**
+	 * Number of requests per endpoint the statistics are computed from.
+	 */
+	public static final int WINDOW = 64;
+	
+	/**
+	 * Number of latency samples needed before the percentiles of an endpoint are used.
+	 */
+	public static final int MIN_SAMPLES = 8;
+	
+	/**
+	 * Number of consecutive failures which open the circuit of an endpoint.
+	 */
+	public static final int FAILURE_THRESHOLD = 5;
+	
+	/**
+	 * Every n-th request goes to the next available endpoint instead of the fastest.
+	 */
+	public static final int EXPLORE_INTERVAL = 20;
+	
+	/**
+	 * Create a {@link ServerPool} of all URLs of the given {@link ServerDns}.
+	 * @param listServerDns
+	 * 			{@link List} of available {@link ServerDns}
+	 * @return new {@link ServerPool}
+	 */
+	@NonNull
+	public static ServerPool fromServerDns(@NonNull final List<ServerDns> listServerDns)
+	{
+		final List<String> listUrl = new ArrayList<>();
+		for (final ServerDns serverDns : listServerDns)
+		{
+			listUrl.addAll(serverDns.getUrls());
+		}
+		return new ServerPool(listUrl);
+	}
+	
+	/**
+	 * Server URL with its request statistics and circuit breaker state.
+	 */
+	public class Endpoint
+	{
+		// attributes
+		@NonNull
+		public final String url;
+		
+		private final long[] latency = new long[WINDOW];
+		private int latencyCount;
+		private int latencyNext;
+		
+		private final boolean[] failed = new boolean[WINDOW];
+		private int outcomeCount;
+		private int outcomeNext;
+		private int failureCount;
+		
+		private int consecutiveFailures;
+		/**
+		 * Time until the circuit is open, 0 when it is closed.
+		 */
+		private long openUntil;
+		/**
+		 * A probe request is running while the circuit is half open.
+		 */
+		private boolean probing;
+		
+		/**
+		 * Sorted copy of the latency samples, null when outdated.
+		 */
+		@Nullable
+		private long[] sorted;
+		
+		Endpoint(@NonNull final String url)
+		{
+			this.url = url;
+		}
+		
+		private void addLatency(final long ms)
+		{
+			this.latency[this.latencyNext] = ms;
+			this.latencyNext = (this.latencyNext + 1) % WINDOW;
+			this.latencyCount = Math.min(this.latencyCount + 1, WINDOW);
+			this.sorted = null;
+		}
+		
+		private void addOutcome(final boolean failure)
+		{
+			if (this.outcomeCount == WINDOW && this.failed[this.outcomeNext])
+			{
+				this.failureCount--;
+			}
+			this.failed[this.outcomeNext] = failure;
+			if (failure)
+			{
+				this.failureCount++;
+			}
+			this.outcomeNext = (this.outcomeNext + 1) % WINDOW;
+			this.outcomeCount = Math.min(this.outcomeCount + 1, WINDOW);
+		}
+		
+		/**
+		 * Record a response received after the given time, this closes the circuit.
+		 * @param ms
+		 * 			time from sending the request to the complete response
+		 */
+		public synchronized void recordSuccess(final long ms)
+		{
+			addLatency(ms);
+			addOutcome(false);
+			this.consecutiveFailures = 0;
+			this.openUntil = 0;
+			this.probing = false;
+		}
+		
+		/**
+		 * Record a failed request, i.e. no or a server error response.
+		 */
+		public synchronized void recordFailure()
+		{
+			addOutcome(true);
+			this.consecutiveFailures++;
+			if (this.probing || this.consecutiveFailures >= FAILURE_THRESHOLD)
+			{
+				this.openUntil = System.currentTimeMillis() + ServerPool.this.openTime;
+				this.probing = false;
+			}
+		}
+		
+		/**
+		 * Record a request which was canceled after the given time because a hedged request was
+		 * faster. Only the latency is recorded, as a lower bound.
+		 */
+		public synchronized void recordCanceled(final long ms)
+		{
+			addLatency(ms);
+			this.probing = false;
+		}
+		
+		/**
+		 * @return true when the circuit is closed or half open without a running probe
+		 */
+		synchronized boolean isAvailable(final long now)
+		{
+			return this.openUntil == 0 || (now >= this.openUntil && !this.probing);
+		}
+		
+		/**
+		 * Take the endpoint for a request if it is available, starts the probe when the circuit
+		 * is half open. Checking and starting the probe at once lets only one request through.
+		 * @return true when the circuit is closed or half open without a running probe
+		 */
+		synchronized boolean tryAcquire(final long now)
+		{
+			if (this.openUntil == 0)
+			{
+				return true;
+			}
+			if (now < this.openUntil || this.probing)
+			{
+				return false;
+			}
+			this.probing = true;
+			return true;
+		}
+		
+		/**
+		 * @return true when requests are cut off from this endpoint
+		 */
+		public synchronized boolean isOpen()
+		{
+			return this.openUntil != 0 && System.currentTimeMillis() < this.openUntil;
+		}
+		
+		/**
+		 * @return number of latency samples
+		 */
+		public synchronized int getSampleCount()
+		{
+			return this.latencyCount;
+		}
+		
+		/**
+		 * @param quantile
+		 * 			in the range 0 to 1, e.g. 0.95
+		 * @return the latency percentile in milliseconds, -1 without samples
+		 */
+		public synchronized long getLatencyPercentile(final double quantile)
+		{
+			if (this.latencyCount == 0)
+			{
+				return -1;
+			}
+			if (this.sorted == null)
+			{
+				this.sorted = Arrays.copyOf(this.latency, this.latencyCount);
+				Arrays.sort(this.sorted);
+			}
+			final int index = (int) Math.ceil(quantile * this.latencyCount) - 1;
+			return this.sorted[Math.max(0, Math.min(index, this.latencyCount - 1))];
+		}
+		
+		/**
+		 * @return fraction of failed requests of the window
+		 */
+		public synchronized float getErrorRate()
+		{
+			return this.outcomeCount == 0 ? 0 : (float) this.failureCount / this.outcomeCount;
+		}
+		
+		/**
+		 * @return median latency weighted by the error rate; before enough samples are known 0 
+		 * so new endpoints are tried first, or the maximum after a failure
+		 */
+		synchronized float getScore()
+		{
+			if (this.latencyCount < MIN_SAMPLES)
+			{
+				return this.consecutiveFailures == 0 ? 0 : Float.MAX_VALUE;
+			}
+			return getLatencyPercentile(0.5) * (1 + 4 * getErrorRate());
+		}
+		
+		synchronized long getOpenUntil()
+		{
+			return this.openUntil;
+		}
+		
+		@NonNull
+		@Override
+		public String toString()
+		{
+			return this.url + " p50: " + getLatencyPercentile(0.5)
+					+ " p95: " + getLatencyPercentile(0.95)
+					+ " errors: " + getErrorRate()
+					+ (isOpen() ? " open" : "");
+		}
+	}
+	
+	// attributes
+	@NonNull
+	private final List<Endpoint> listEndpoint;
+	@NonNull
+	private final AtomicInteger requests = new AtomicInteger();
+	
+	private volatile long openTime = 10000;
+	private volatile long minHedgeDelay = 20;
+	private volatile long defaultHedgeDelay = 1000;
+	
+	/**
+	 * Create a new {@link ServerPool} instance.
+	 * @param listUrl
+	 * 			{@link List} of equivalent server URLs
+	 */
+	public ServerPool(@NonNull final List<String> listUrl)
+	{
+		if (listUrl.isEmpty())
+		{
+			throw new IllegalArgumentException();
+		}
+		final List<Endpoint> list = new ArrayList<>();
+		for (final String url : listUrl)
+		{
+			list.add(new Endpoint(url));
+		}
+		this.listEndpoint = Collections.unmodifiableList(list);
+	}
+	
+	@NonNull
+	public List<Endpoint> getEndpoints()
+	{
+		return this.listEndpoint;
+	}
+	
+	/**
+	 * @param openTime
+	 * 			milliseconds a failing endpoint is cut off before a probe request is sent
+	 */
+	public void setOpenTime(final long openTime)
+	{
+		this.openTime = openTime;
+	}
+	
+	/**
+	 * @param minHedgeDelay
+	 * 			lower bound of the hedge delay in milliseconds
+	 * @param defaultHedgeDelay
+	 * 			hedge delay in milliseconds of endpoints with less than {@link #MIN_SAMPLES}
+	 */
+	public void setHedgeDelay(final long minHedgeDelay, final long defaultHedgeDelay)
+	{
+		this.minHedgeDelay = minHedgeDelay;
+		this.defaultHedgeDelay = defaultHedgeDelay;
+	}
+	
+	/**
+	 * Get the {@link Endpoint} for the next request.
+	 * <p>
+	 * When the circuits of all endpoints are open the one closing first is returned.
+	 * @return the fastest available {@link Endpoint}
+	 */
+	@NonNull
+	public Endpoint select()
+	{
+		final long now = System.currentTimeMillis();
+		final int request = this.requests.incrementAndGet();
+		
+		Endpoint endpoint = null;
+		if (request % EXPLORE_INTERVAL == 0)
+		{
+			endpoint = next(request / EXPLORE_INTERVAL, now);
+		}
+		if (endpoint == null)
+		{
+			endpoint = best(null, now);
+		}
+		if (endpoint == null)
+		{
+			for (final Endpoint e : this.listEndpoint)
+			{
+				if (endpoint == null || e.getOpenUntil() < endpoint.getOpenUntil())
+				{
+					endpoint = e;
+				}
+			}
+		}
+		return endpoint;
+	}
+	
+	/**
+	 * Get the {@link Endpoint} for a duplicate of a request sent to the given one.
+	 * @param primary
+	 * 			{@link Endpoint} of the first request
+	 * @return the fastest available other {@link Endpoint}, null if there is none
+	 */
+	@Nullable
+	public Endpoint selectHedge(@NonNull final Endpoint primary)
+	{
+		return best(primary, System.currentTimeMillis());
+	}
+	
+	/**
+	 * @param endpoint
+	 * 			{@link Endpoint} of the first request
+	 * @return milliseconds to wait for a response before a hedged request is sent
+	 */
+	public long getHedgeDelay(@NonNull final Endpoint endpoint)
+	{
+		if (endpoint.getSampleCount() < MIN_SAMPLES)
+		{
+			return this.defaultHedgeDelay;
+		}
+		return Math.max(this.minHedgeDelay, endpoint.getLatencyPercentile(0.95));
+	}
+	
+	/**
+	 * @return the acquired available {@link Endpoint} with the lowest score, null if there is none
+	 */
+	@Nullable
+	private Endpoint best(@Nullable final Endpoint exclude, final long now)
+	{
+		while (true)
+		{
+			Endpoint best = null;
+			float bestScore = 0;
+			for (final Endpoint e : this.listEndpoint)
+			{
+				if (e == exclude || !e.isAvailable(now))
+				{
+					continue;
+				}
+				final float score = e.getScore();
+				if (best == null || score < bestScore)
+				{
+					best = e;
+					bestScore = score;
+				}
+			}
+			// another request may have started the probe since, then it is not available anymore
+			if (best == null || best.tryAcquire(now))
+			{
+				return best;
+			}
+		}
+	}
+	
+	@Nullable
+	private Endpoint next(final int start, final long now)
+	{
+		final int size = this.listEndpoint.size();
+		for (int i = 0; i < size; i++)
+		{
+			final Endpoint e = this.listEndpoint.get((start + i) % size);
+			if (e.tryAcquire(now))
+			{
+				return e;
+			}
+		}
+		return null;
+	}
+	
+	@NonNull
+	@Override
+	public String toString()
+	{
+		return this.listEndpoint.toString();
+	}
+	
+}
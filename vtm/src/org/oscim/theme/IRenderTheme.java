@@ -24,6 +24,8 @@ import org.oscim.core.Tag;
 import org.oscim.core.TagSet;
 import org.oscim.theme.styles.RenderStyle;
 
+import java.util.Set;
+
 public interface IRenderTheme {
 
     /**
@@ -58,6 +60,16 @@ public interface IRenderTheme {
 
     void updateStyles();
 
+    /**
+     * Tile sources may use these to skip tags which are not rendered.
+     *
+     * @return the keys of tags the theme uses, including their tile source
+     * keys, or null when it may use any key.
+     */
+    default Set<String> getKeys() {
+        return null;
+    }
+
     /**
      * Scales the text size of this RenderTheme by the given factor.
      *
@@ -24,7 +24,9 @@ import org.oscim.core.Tag;
 import org.oscim.core.TagSet;
 import org.oscim.theme.rule.Rule;
 import org.oscim.theme.rule.Rule.Element;
+import org.oscim.theme.rule.Rule.KeyVisitor;
 import org.oscim.theme.rule.Rule.RuleVisitor;
+import org.oscim.theme.rule.RuleFilter;
 import org.oscim.theme.styles.RenderStyle;
 import org.oscim.utils.ArrayUtils;
 import org.oscim.utils.LRUCache;
@@ -34,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class RenderTheme implements IRenderTheme {
     static final Logger log = new Logger(RenderTheme.class);
@@ -81,6 +84,10 @@ public class RenderTheme implements IRenderTheme {
 
     private final RenderStyleCache[] mStyleCache;
 
+    private volatile RuleFilter mFilter;
+
+    private boolean mMeshPolygons;
+
     public RenderTheme(int mapBackground, float baseTextSize, Rule[] rules, int levels) {
         this(mapBackground, baseTextSize, rules, levels, false);
     }
@@ -332,4 +339,62 @@ public class RenderTheme implements IRenderTheme {
             rule.apply(visitor);
     }
 
+    /**
+     * @return true when opaque areas are triangulated on loader threads and
+     * drawn as {@link org.oscim.renderer.bucket.MeshBucket} instead of using
+     * the stencil buffer
+     */
+    public boolean isMeshPolygons() {
+        return mMeshPolygons;
+    }
+
+    public void setMeshPolygons(boolean meshPolygons) {
+        mMeshPolygons = meshPolygons;
+    }
+
+    /**
+     * @return the tags needed by the rules, for tile decoders to skip
+     * elements which are not rendered
+     */
+    public RuleFilter getFilter() {
+        RuleFilter filter = mFilter;
+        if (filter == null) {
+            /* may be built twice by concurrent loaders, which is harmless */
+            filter = new RuleFilter(mRules);
+            mFilter = filter;
+        }
+        return filter;
+    }
+
+    /**
+     * Tile sources may use these to skip tags which are not rendered. Layers
+     * can read further keys, e.g. for building heights.
+     *
+     * @return the keys of tags matched by rules or used as text, including
+     * their tile source keys, or null when a rule which is not nested in a
+     * rule for keys matches values of any key.
+     */
+    @Override
+    public Set<String> getKeys() {
+        KeyVisitor visitor = new KeyVisitor();
+        traverseRules(visitor);
+        if (visitor.anyKey)
+            return null;
+
+        Set<String> keys = visitor.keys;
+        if (mTransformForwardKeyMap != null) {
+            for (Map.Entry<String, String> e : mTransformForwardKeyMap.entrySet()) {
+                if (keys.contains(e.getValue()))
+                    keys.add(e.getKey());
+            }
+        }
+        if (mTransformForwardTagMap != null) {
+            for (Map.Entry<Tag, Tag> e : mTransformForwardTagMap.entrySet()) {
+                if (keys.contains(e.getValue().key))
+                    keys.add(e.getKey().key);
+            }
+        }
+        return keys;
+    }
+
 }
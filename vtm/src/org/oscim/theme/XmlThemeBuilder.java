@@ -165,6 +165,7 @@ throw new ThemeException(e.getMessage(), e);
     int mMapBackground = 0xffffffff;
     private float mStrokeScale = 1;
     float mTextScale = 1;
+    private boolean mMeshPolygons;
 
     final ThemeFile mTheme;
     private final ThemeCallback mThemeCallback;
@@ -204,6 +205,7 @@ throw new ThemeException(e.getMessage(), e);
             rules[i] = mRulesList.get(i).onComplete(mMapsforgeTheme ? new int[1] : null);
 
         mRenderTheme = createTheme(rules);
+        mRenderTheme.setMeshPolygons(mMeshPolygons);
 
         mRulesList.clear();
         mStyles.clear();
@@ -915,6 +917,7 @@ throw new ThemeException(e.getMessage(), e);
         int mapBackground = Color.WHITE;
         float baseStrokeWidth = 1;
         float baseTextScale = 1;
+        boolean meshPolygons = false;
 
         for (int i = 0; i < attributes.getLength(); ++i) {
             String name = attributes.getLocalName(i);
@@ -937,6 +940,9 @@ throw new ThemeException(e.getMessage(), e);
             else if ("base-text-scale".equals(name) || "base-text-size".equals(name))
                 baseTextScale = Float.parseFloat(value);
 
+            else if ("mesh-polygons".equals(name))
+                meshPolygons = Boolean.parseBoolean(value);
+
             else
                 logUnknownAttribute(elementName, name, value, i);
 
@@ -954,6 +960,7 @@ throw new ThemeException(e.getMessage(), e);
         mMapBackground = mapBackground;
         mStrokeScale = baseStrokeWidth;
         mTextScale = baseTextScale;
+        mMeshPolygons = meshPolygons;
     }
 
     private void handleTextElement(String localName, Attributes attributes, boolean isStyle,
@@ -20,9 +20,13 @@ package org.oscim.theme.rule;
 import org.oscim.core.Tag;
 import org.oscim.theme.rule.RuleBuilder.RuleType;
 import org.oscim.theme.styles.RenderStyle;
+import org.oscim.theme.styles.TextStyle;
 import org.oscim.utils.Utils;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Rule {
     public final class Element {
@@ -72,6 +76,29 @@ public class Rule {
         return true;
     }
 
+    /**
+     * Add the keys of the tags this rule matches on.
+     *
+     * @return false when the rule matches values of any key
+     */
+    boolean addKeys(Set<String> keys) {
+        return true;
+    }
+
+    /**
+     * @return true when the rule only matches elements with certain keys or
+     * values, see {@link #addTags(RuleFilter.Level)}
+     */
+    boolean hasTags() {
+        return false;
+    }
+
+    /**
+     * Add the tags this rule matches to the filter level.
+     */
+    void addTags(RuleFilter.Level level) {
+    }
+
     public boolean matchElement(int type, Tag[] tags, int zoomLevel, List<RenderStyle> result) {
         if (((element & type) == 0) || ((zoom & zoomLevel) == 0) || !matchesTags(tags))
             return false;
@@ -165,6 +192,41 @@ public class Rule {
         }
     }
 
+    /**
+     * Collects the keys of tags matched by rules and of text styles.
+     * <p>
+     * Themes match values below a rule for their key, e.g.
+     * {@code <m k="kind"><m v="urban">}, so a rule for values is taken to
+     * match the keys of its parent rules.
+     */
+    public static class KeyVisitor extends RuleVisitor {
+        public final Set<String> keys = new HashSet<>();
+
+        /**
+         * true when a rule matches values of any key.
+         */
+        public boolean anyKey;
+
+        private int keyRules;
+
+        @Override
+        public void apply(Rule r) {
+            boolean keyRule = r.addKeys(keys);
+            if (!keyRule && keyRules == 0)
+                anyKey = true;
+            for (RenderStyle<?> ri : r.styles) {
+                if (ri instanceof TextStyle && ((TextStyle) ri).textKey != null)
+                    keys.add(((TextStyle) ri).textKey);
+            }
+            keyRule &= r.hasTags();
+            if (keyRule)
+                keyRules++;
+            super.apply(r);
+            if (keyRule)
+                keyRules--;
+        }
+    }
+
     public static class UpdateVisitor extends RuleVisitor {
         @Override
         public void apply(Rule r) {
@@ -188,6 +250,22 @@ public class Rule {
             mKey = key;
         }
 
+        @Override
+        boolean addKeys(Set<String> keys) {
+            keys.add(mKey);
+            return true;
+        }
+
+        @Override
+        boolean hasTags() {
+            return true;
+        }
+
+        @Override
+        void addTags(RuleFilter.Level level) {
+            level.addKey(mKey);
+        }
+
         @Override
         public boolean matchesTags(Tag[] tags) {
             for (Tag tag : tags)
@@ -207,6 +285,21 @@ public class Rule {
             mValue = value;
         }
 
+        @Override
+        boolean addKeys(Set<String> keys) {
+            return false;
+        }
+
+        @Override
+        boolean hasTags() {
+            return true;
+        }
+
+        @Override
+        void addTags(RuleFilter.Level level) {
+            level.addValue(mValue);
+        }
+
         @Override
         public boolean matchesTags(Tag[] tags) {
             for (Tag tag : tags)
@@ -229,6 +322,22 @@ public class Rule {
             mValue = value;
         }
 
+        @Override
+        boolean addKeys(Set<String> keys) {
+            keys.add(mKey);
+            return true;
+        }
+
+        @Override
+        boolean hasTags() {
+            return true;
+        }
+
+        @Override
+        void addTags(RuleFilter.Level level) {
+            level.addTag(mKey, mValue);
+        }
+
         @Override
         public boolean matchesTags(Tag[] tags) {
             for (Tag tag : tags)
@@ -259,6 +368,34 @@ public class Rule {
                 mValues = values;
         }
 
+        @Override
+        boolean addKeys(Set<String> keys) {
+            if (mKeys == null)
+                return false;
+            Collections.addAll(keys, mKeys);
+            return true;
+        }
+
+        @Override
+        boolean hasTags() {
+            return true;
+        }
+
+        @Override
+        void addTags(RuleFilter.Level level) {
+            if (mKeys == null) {
+                for (String value : mValues)
+                    level.addValue(value);
+            } else if (mValues == null) {
+                for (String key : mKeys)
+                    level.addKey(key);
+            } else {
+                for (String key : mKeys)
+                    for (String value : mValues)
+                        level.addTag(key, value);
+            }
+        }
+
         @Override
         public boolean matchesTags(Tag[] tags) {
             if (mKeys == null) {
@@ -313,6 +450,12 @@ public class Rule {
             this.exclusive = type == RuleType.EXCLUDE;
         }
 
+        @Override
+        boolean addKeys(Set<String> keys) {
+            Collections.addAll(keys, this.keys);
+            return true;
+        }
+
         @Override
         public boolean matchesTags(Tag[] tags) {
             if (!containsKeys(tags))
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.theme.rule;
+
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.Tag;
+import org.oscim.core.TagSet;
+import org.oscim.theme.rule.Rule.Element;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The tags needed by the rules of a theme per element type and zoom level.
+ * Elements without any of them do not match a rule with styles, so tile
+ * decoders can skip them before decoding their geometry.
+ * <p/>
+ * Only the first rule with keys or values on each path of the rule tree is
+ * considered: the filter accepts all elements the rules match and some more.
+ */
+public class RuleFilter {
+
+    private static final int NUM_ZOOM_LEVELS = 32;
+
+    /**
+     * Tags needed at one zoom level for one element type.
+     */
+    static final class Level {
+        boolean all;
+
+        /* keys with any value */
+        final HashSet<String> keys = new HashSet<>();
+        /* values of any key */
+        final HashSet<String> values = new HashSet<>();
+        final HashMap<String, HashSet<String>> tags = new HashMap<>();
+
+        void addKey(String key) {
+            keys.add(key);
+        }
+
+        void addValue(String value) {
+            values.add(value);
+        }
+
+        void addTag(String key, String value) {
+            HashSet<String> v = tags.get(key);
+            if (v == null) {
+                v = new HashSet<>();
+                tags.put(key, v);
+            }
+            v.add(value);
+        }
+
+        boolean accept(TagSet tagSet) {
+            if (all)
+                return true;
+
+            for (int i = 0, n = tagSet.size(); i < n; i++) {
+                Tag tag = tagSet.get(i);
+                if (keys.contains(tag.key))
+                    return true;
+                if (!values.isEmpty() && values.contains(tag.value))
+                    return true;
+                HashSet<String> v = tags.get(tag.key);
+                if (v != null && v.contains(tag.value))
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /* by element type NODE, LINE, POLY and zoom level */
+    private final Level[][] mLevels = new Level[3][NUM_ZOOM_LEVELS];
+
+    public RuleFilter(Rule[] rules) {
+        /* the first rules with tags on each path and the zoom levels where
+         * they lead to styles, per element type */
+        List<Rule> gates = new ArrayList<>();
+        List<int[]> gateZooms = new ArrayList<>();
+        int[] allZooms = new int[3];
+        for (Rule rule : rules)
+            addRule(rule, ~0, Element.ANY, gates, gateZooms, allZooms);
+
+        HashMap<BitSet, Level> levels = new HashMap<>();
+        for (int e = 0; e < 3; e++) {
+            for (int z = 0; z < NUM_ZOOM_LEVELS; z++) {
+                BitSet used = new BitSet();
+                /* last bit for match all */
+                if ((allZooms[e] & (1 << z)) != 0)
+                    used.set(gates.size());
+                for (int i = 0; i < gates.size(); i++) {
+                    if ((gateZooms.get(i)[e] & (1 << z)) != 0)
+                        used.set(i);
+                }
+
+                /* share levels with the same rules */
+                Level level = levels.get(used);
+                if (level == null) {
+                    level = new Level();
+                    level.all = used.get(gates.size());
+                    if (!level.all) {
+                        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1))
+                            gates.get(i).addTags(level);
+                    }
+                    levels.put(used, level);
+                }
+                mLevels[e][z] = level;
+            }
+        }
+    }
+
+    private static void addRule(Rule rule, int zoom, int element, List<Rule> gates,
+                                List<int[]> gateZooms, int[] allZooms) {
+        zoom &= rule.zoom;
+        element &= rule.element;
+        if (zoom == 0 || element == 0)
+            return;
+
+        if (rule.hasTags()) {
+            int[] zooms = new int[3];
+            addStyleZooms(rule, zoom, element, zooms);
+            if ((zooms[0] | zooms[1] | zooms[2]) != 0) {
+                gates.add(rule);
+                gateZooms.add(zooms);
+            }
+            return;
+        }
+
+        /* rule without tags or negative rule: may match any element */
+        if (rule.styles.length > 0)
+            addZooms(zoom, element, allZooms);
+
+        for (Rule subRule : rule.subRules)
+            addRule(subRule, zoom, element, gates, gateZooms, allZooms);
+    }
+
+    /**
+     * Add the zoom levels where the rule or its sub rules have styles.
+     */
+    private static void addStyleZooms(Rule rule, int zoom, int element, int[] zooms) {
+        zoom &= rule.zoom;
+        element &= rule.element;
+        if (zoom == 0 || element == 0)
+            return;
+
+        if (rule.styles.length > 0)
+            addZooms(zoom, element, zooms);
+
+        for (Rule subRule : rule.subRules)
+            addStyleZooms(subRule, zoom, element, zooms);
+    }
+
+    private static void addZooms(int zoom, int element, int[] zooms) {
+        if ((element & Element.NODE) != 0)
+            zooms[0] |= zoom;
+        if ((element & Element.LINE) != 0)
+            zooms[1] |= zoom;
+        if ((element & Element.POLY) != 0)
+            zooms[2] |= zoom;
+    }
+
+    /**
+     * @param type      POINT, LINE or POLY, NONE when not known yet
+     * @param zoomLevel the zoom level the element is rendered at
+     * @return false when no rule with styles can match the element
+     */
+    public boolean accept(GeometryType type, TagSet tags, int zoomLevel) {
+        if (zoomLevel < 0 || zoomLevel >= NUM_ZOOM_LEVELS)
+            return true;
+
+        switch (type) {
+            case POINT:
+                return mLevels[0][zoomLevel].accept(tags);
+            case LINE:
+                return mLevels[1][zoomLevel].accept(tags);
+            case POLY:
+                return mLevels[2][zoomLevel].accept(tags);
+            case NONE:
+                return mLevels[0][zoomLevel].accept(tags)
+                        || mLevels[1][zoomLevel].accept(tags)
+                        || mLevels[2][zoomLevel].accept(tags);
+            default:
+                return true;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling;
+
+import org.oscim.layers.tile.MapTile;
+
+/**
+ * Implemented by {@link ITileDataSource}s which can load several tiles at
+ * once and share work between them, e.g. reading data that covers more
+ * than one of the tiles.
+ */
+public interface ITileBatchDataSource extends ITileDataSource {
+
+    /**
+     * Load the first count tiles. Elements of tiles[i] are passed to
+     * sinks[i], completed() must be called on each sink. Tiles may be
+     * completed in any order and the same tile may be passed twice. The
+     * tiles may have different zoom levels.
+     *
+     * @param tiles the tiles to load.
+     * @param sinks the callbacks for each tile.
+     * @param count the number of tiles.
+     */
+    void query(MapTile[] tiles, ITileDataSink[] sinks, int count);
+}
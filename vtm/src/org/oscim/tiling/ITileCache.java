@@ -49,10 +49,24 @@ public interface ITileCache {
      */
     void setCacheSize(long size);
 
+    /**
+     * Replace the metadata of a stored tile, e.g. after the server answered a
+     * conditional request with 304 Not Modified.
+     *
+     * @param tile     The accessed tile.
+     * @param metadata The new metadata.
+     */
+    void updateMetadata(Tile tile, Metadata metadata);
+
     public interface TileReader {
         Tile getTile();
 
         InputStream getInputStream();
+
+        /**
+         * @return The metadata stored with the tile or null.
+         */
+        Metadata getMetadata();
     }
 
     public interface TileWriter {
@@ -60,6 +74,89 @@ public interface ITileCache {
 
         OutputStream getOutputStream();
 
+        /**
+         * @param metadata The metadata to store with the tile, may be null.
+         */
+        void setMetadata(Metadata metadata);
+
         void complete(boolean success);
     }
+
+    /**
+     * HTTP validators and expiry time of a cached tile.
+     */
+    public static final class Metadata {
+        /**
+         * ETag header of the response or null.
+         */
+        public final String eTag;
+
+        /**
+         * Last-Modified header of the response or null.
+         */
+        public final String lastModified;
+
+        /**
+         * Time in milliseconds since epoch after which the tile should be
+         * revalidated, 0 when it does not expire.
+         */
+        public final long expires;
+
+        /**
+         * Freshness lifetime in milliseconds the expiry time was calculated
+         * with, e.g. Cache-Control max-age. It renews the expiry time of a
+         * revalidated tile when the 304 response has no cache headers.
+         */
+        public final long lifetime;
+
+        public Metadata(String eTag, String lastModified, long expires) {
+            this(eTag, lastModified, expires, 0);
+        }
+
+        public Metadata(String eTag, String lastModified, long expires, long lifetime) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+            this.lifetime = lifetime;
+        }
+
+        /**
+         * @return true when the tile can be revalidated with a conditional request.
+         */
+        public boolean hasValidator() {
+            return eTag != null || lastModified != null;
+        }
+
+        public boolean isExpired(long now) {
+            return expires != 0 && now >= expires;
+        }
+
+        /**
+         * @param response The metadata of a 304 Not Modified response or null.
+         * @param now      time the response was received
+         * @return The metadata of the revalidated tile, validators missing in
+         * the response are kept. Without expiry time in the response the
+         * previous lifetime applies from now on.
+         */
+        public Metadata revalidated(Metadata response, long now) {
+            long expires = this.expires == 0 ? 0 : now + lifetime;
+            if (response == null)
+                return new Metadata(eTag, lastModified, expires, lifetime);
+
+            long lifetime = this.lifetime;
+            if (response.expires != 0) {
+                expires = response.expires;
+                lifetime = response.lifetime;
+            }
+            return new Metadata(response.eTag != null ? response.eTag : eTag,
+                    response.lastModified != null ? response.lastModified : lastModified,
+                    expires, lifetime);
+        }
+
+        @Override
+        public String toString() {
+            return "[ETag: " + eTag + ", Last-Modified: " + lastModified
+                    + ", expires: " + expires + ", lifetime: " + lifetime + "]";
+        }
+    }
 }
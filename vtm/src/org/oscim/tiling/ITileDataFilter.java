@@ -0,0 +1,32 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling;
+
+import org.oscim.core.GeometryBuffer.GeometryType;
+import org.oscim.core.TagSet;
+
+/**
+ * Implemented by {@link ITileDataSink}s which discard elements by their tags,
+ * e.g. when the theme does not render them. Decoders can ask before decoding
+ * the geometry of an element and skip it.
+ */
+public interface ITileDataFilter {
+
+    /**
+     * @param type POINT, LINE or POLY, NONE when not known yet
+     * @return false when the sink would discard an element with the tags
+     */
+    boolean accept(GeometryType type, TagSet tags);
+}
@@ -17,12 +17,14 @@ package org.oscim.tiling;
 
 import org.oscim.backend.CanvasAdapter;
 import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
+import org.oscim.core.TagSet;
 import org.oscim.core.Tile;
 import org.oscim.utils.geom.TileClipper;
 import org.oscim.utils.geom.TileSeparator;
 
-class OverzoomDataSink implements ITileDataSink {
+class OverzoomDataSink implements ITileDataSink, ITileDataFilter {
 
     private final ITileDataSink sink;
 
@@ -58,6 +60,12 @@ class OverzoomDataSink implements ITileDataSink {
         sink.process(element);
     }
 
+    @Override
+    public boolean accept(GeometryType type, TagSet tags) {
+        /* the sink filters for the zoom level of the overzoomed tile */
+        return !(sink instanceof ITileDataFilter) || ((ITileDataFilter) sink).accept(type, tags);
+    }
+
     @Override
     public void setTileImage(Bitmap bitmap) {
         sink.setTileImage(bitmap);
@@ -16,11 +16,14 @@ package org.oscim.tiling;
 
 import org.oscim.layers.tile.MapTile;
 
-public class OverzoomTileDataSource implements ITileDataSource {
+public class OverzoomTileDataSource implements ITileBatchDataSource {
 
     private final ITileDataSource tileDataSource;
     private final int overZoom;
 
+    private MapTile[] batchTiles = new MapTile[0];
+    private ITileDataSink[] batchSinks = new ITileDataSink[0];
+
     public OverzoomTileDataSource(ITileDataSource tileDataSource, int overZoom) {
         this.tileDataSource = tileDataSource;
         this.overZoom = overZoom;
@@ -42,6 +45,42 @@ public class OverzoomTileDataSource implements ITileDataSource {
         tileDataSource.query(mapTile, dataSink);
     }
 
+    /**
+     * Over-zoomed tiles are loaded as their parent at the over-zoom level,
+     * several of them may share the same parent.
+     */
+    @Override
+    public void query(MapTile[] tiles, ITileDataSink[] sinks, int count) {
+        if (!(tileDataSource instanceof ITileBatchDataSource)) {
+            for (int i = 0; i < count; i++)
+                query(tiles[i], sinks[i]);
+            return;
+        }
+
+        if (batchTiles.length < count) {
+            batchTiles = new MapTile[count];
+            batchSinks = new ITileDataSink[count];
+        }
+        for (int i = 0; i < count; i++) {
+            MapTile tile = tiles[i];
+            batchTiles[i] = tile;
+            batchSinks[i] = sinks[i];
+            int diff = tile.zoomLevel - overZoom;
+            if (diff > 0) {
+                batchTiles[i] = new MapTile(tile.node, tile.tileX >> diff, tile.tileY >> diff, overZoom);
+                batchSinks[i] = new OverzoomDataSink(sinks[i], batchTiles[i], tile);
+            }
+        }
+        try {
+            ((ITileBatchDataSource) tileDataSource).query(batchTiles, batchSinks, count);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                batchTiles[i] = null;
+                batchSinks[i] = null;
+            }
+        }
+    }
+
     @Override
     public void dispose() {
         tileDataSource.dispose();
@@ -0,0 +1,480 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling;
+
+import org.oscim.core.Tile;
+import org.oscim.tiling.ITileCache.Metadata;
+import org.oscim.tiling.ITileCache.TileWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of tiles stored in an {@link ITileCache}.
+ * <p/>
+ * Tiles are deflated, optionally with a preset dictionary of byte sequences
+ * common to the tiles of a source, see {@link #trainDictionary(List, int)},
+ * which pays off for small vector tiles. gzip encoded tiles are inflated
+ * first, tiles which do not get smaller, like PNG or JPEG, are stored as
+ * received.
+ * <p/>
+ * Compressed entries start with a header which raw tiles of the supported
+ * formats cannot start with, so {@link #decode(InputStream)} also reads
+ * entries stored as received, by older versions or another codec, and
+ * inflates those which are gzip encoded.
+ */
+public class TileCacheCodec {
+
+    /**
+     * Stores tiles as received and decodes entries compressed without
+     * dictionary.
+     */
+    public static final TileCacheCodec NONE = new TileCacheCodec(0, null);
+
+    static final byte[] MAGIC = {(byte) 0xf7, 'V', 'C'};
+    static final byte DEFLATE = 'D';
+    /**
+     * Magic, codec and uncompressed size
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * Tiles are stored as received unless compression saves this fraction.
+     */
+    static final float MIN_SAVING = 0.05f;
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    private final int mLevel;
+    private final byte[] mDictionary;
+
+    /**
+     * Deflaters and inflaters for reuse, they hold native memory
+     */
+    private final ArrayList<Deflater> mDeflaters = new ArrayList<>();
+    private final ArrayList<Inflater> mInflaters = new ArrayList<>();
+
+    /**
+     * @param level deflate level from 1 (fastest) to 9 (smallest)
+     */
+    public TileCacheCodec(int level) {
+        this(level, null);
+    }
+
+    /**
+     * @param level      deflate level from 1 (fastest) to 9 (smallest)
+     * @param dictionary preset dictionary or null. Entries written with a
+     *                   dictionary can only be read with the same one,
+     *                   with another they are cache misses.
+     */
+    public TileCacheCodec(int level, byte[] dictionary) {
+        if (level < 0 || level > 9)
+            throw new IllegalArgumentException("level " + level);
+        mLevel = level;
+        mDictionary = dictionary;
+    }
+
+    /**
+     * @return the data to store for a tile, the given array when the tile is
+     * stored as received.
+     */
+    public byte[] encode(byte[] data, int offset, int length) {
+        if (mLevel == 0)
+            return copy(data, offset, length);
+
+        byte[] raw = data;
+        if (isGzip(data, offset, length)) {
+            try {
+                raw = gunzip(data, offset, length);
+                offset = 0;
+                length = raw.length;
+            } catch (IOException e) {
+                return copy(data, offset, length);
+            }
+        }
+
+        Deflater deflater = getDeflater();
+        try {
+            byte[] out = new byte[HEADER_SIZE + length + (length >> 3) + 64];
+            System.arraycopy(MAGIC, 0, out, 0, MAGIC.length);
+            out[3] = DEFLATE;
+            writeInt(out, 4, length);
+
+            if (mDictionary != null)
+                deflater.setDictionary(mDictionary);
+            deflater.setInput(raw, offset, length);
+            deflater.finish();
+            int size = HEADER_SIZE;
+            while (!deflater.finished() && size < out.length)
+                size += deflater.deflate(out, size, out.length - size);
+
+            if (!deflater.finished() || size > (1 - MIN_SAVING) * length)
+                return copy(raw, offset, length);
+
+            return copy(out, 0, size);
+        } finally {
+            releaseDeflater(deflater);
+        }
+    }
+
+    /**
+     * @param is stream of a cache entry
+     * @return stream of the tile, inflated when it was stored gzip encoded
+     * @throws IOException when the entry is corrupt or was compressed with
+     *                     another dictionary
+     */
+    public InputStream decode(InputStream is) throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        int n = readFully(is, header, 0, HEADER_SIZE);
+        if (isGzip(header, 0, n))
+            return new GZIPInputStream(new PrefixInputStream(header, n, is));
+        if (n < HEADER_SIZE || !isEncoded(header))
+            return new PrefixInputStream(header, n, is);
+
+        int length = readInt(header, 4);
+        if (header[3] != DEFLATE || length < 0)
+            throw new IOException("unknown cache entry");
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(256, length / 4));
+        byte[] buf = new byte[8192];
+        while ((n = is.read(buf)) >= 0)
+            compressed.write(buf, 0, n);
+
+        byte[] out = new byte[length];
+        Inflater inflater = getInflater();
+        try {
+            inflater.setInput(compressed.toByteArray());
+            int size = 0;
+            while (size < length) {
+                int r = inflater.inflate(out, size, length - size);
+                if (r == 0) {
+                    if (!inflater.needsDictionary())
+                        throw new IOException("truncated cache entry");
+                    if (mDictionary == null)
+                        throw new IOException("cache entry needs a dictionary");
+                    inflater.setDictionary(mDictionary);
+                }
+                size += r;
+            }
+        } catch (DataFormatException e) {
+            /* also thrown for another dictionary */
+            throw new IOException(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            /* dictionary with another checksum */
+            throw new IOException("cache entry needs another dictionary");
+        } finally {
+            releaseInflater(inflater);
+        }
+        return new ByteArrayInputStream(out);
+    }
+
+    /**
+     * @return a writer which encodes the tile when it is completed, the
+     * given one for {@link #NONE}.
+     */
+    public TileWriter wrap(TileWriter writer) {
+        if (mLevel == 0)
+            return writer;
+        return new EncodingTileWriter(writer);
+    }
+
+    private final class EncodingTileWriter implements TileWriter {
+        final TileWriter mWriter;
+        final Buffer mBuffer = new Buffer();
+
+        EncodingTileWriter(TileWriter writer) {
+            mWriter = writer;
+        }
+
+        @Override
+        public Tile getTile() {
+            return mWriter.getTile();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return mBuffer;
+        }
+
+        @Override
+        public void setMetadata(Metadata metadata) {
+            mWriter.setMetadata(metadata);
+        }
+
+        @Override
+        public void complete(boolean success) {
+            if (success) {
+                try {
+                    mWriter.getOutputStream().write(mBuffer.encode());
+                } catch (IOException e) {
+                    success = false;
+                }
+            }
+            mWriter.complete(success);
+        }
+    }
+
+    private final class Buffer extends ByteArrayOutputStream {
+        Buffer() {
+            super(1 << 14);
+        }
+
+        byte[] encode() {
+            return TileCacheCodec.this.encode(buf, 0, count);
+        }
+    }
+
+    /**
+     * Build a preset dictionary from sample tiles of a source.
+     * <p/>
+     * Runs of 8 byte sequences found in at least two samples, like the
+     * keys and values of vector tiles, are collected. The most frequent
+     * ones are put at the end, where deflate references them with the
+     * shortest distances.
+     *
+     * @param samples tiles as received
+     * @param size    maximum dictionary size, deflate uses at most 32k
+     */
+    public static byte[] trainDictionary(List<byte[]> samples, int size) {
+        final int k = 8;
+
+        /* number of samples containing each sequence */
+        Map<Long, int[]> counts = new HashMap<>();
+        List<byte[]> raw = new ArrayList<>();
+        for (byte[] sample : samples) {
+            if (isGzip(sample, 0, sample.length)) {
+                try {
+                    sample = gunzip(sample, 0, sample.length);
+                } catch (IOException e) {
+                    continue;
+                }
+            }
+            raw.add(sample);
+            HashSet<Long> seen = new HashSet<>();
+            for (int i = 0; i + k <= sample.length; i++) {
+                Long key = readLong(sample, i);
+                if (!seen.add(key))
+                    continue;
+                int[] count = counts.get(key);
+                if (count == null)
+                    counts.put(key, new int[]{1});
+                else
+                    count[0]++;
+            }
+        }
+
+        /* maximal runs of common sequences, scored by the bytes they can save */
+        final Map<String, long[]> segments = new HashMap<>();
+        for (byte[] sample : raw) {
+            int start = -1;
+            long score = 0;
+            for (int i = 0; i + k <= sample.length + 1; i++) {
+                int count = 0;
+                if (i + k <= sample.length)
+                    count = counts.get(readLong(sample, i))[0];
+                if (count >= 2) {
+                    if (start < 0) {
+                        start = i;
+                        score = 0;
+                    }
+                    score += count;
+                } else if (start >= 0) {
+                    int end = Math.min(sample.length, i - 1 + k);
+                    String s = new String(sample, start, end - start, ISO_8859_1);
+                    if (!segments.containsKey(s))
+                        segments.put(s, new long[]{score});
+                    start = -1;
+                }
+            }
+        }
+
+        List<String> sorted = new ArrayList<>(segments.keySet());
+        Collections.sort(sorted, new Comparator<String>() {
+            @Override
+            public int compare(String a, String b) {
+                long d = segments.get(b)[0] - segments.get(a)[0];
+                return d < 0 ? -1 : d > 0 ? 1 : a.compareTo(b);
+            }
+        });
+
+        List<byte[]> chosen = new ArrayList<>();
+        int total = 0;
+        for (String s : sorted) {
+            if (total + s.length() > size)
+                continue;
+            chosen.add(s.getBytes(ISO_8859_1));
+            total += s.length();
+        }
+
+        /* most frequent last */
+        byte[] dictionary = new byte[total];
+        int pos = total;
+        for (byte[] b : chosen) {
+            pos -= b.length;
+            System.arraycopy(b, 0, dictionary, pos, b.length);
+        }
+        return dictionary;
+    }
+
+    private Deflater getDeflater() {
+        synchronized (mDeflaters) {
+            if (!mDeflaters.isEmpty())
+                return mDeflaters.remove(mDeflaters.size() - 1);
+        }
+        return new Deflater(mLevel);
+    }
+
+    private void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        synchronized (mDeflaters) {
+            mDeflaters.add(deflater);
+        }
+    }
+
+    private Inflater getInflater() {
+        synchronized (mInflaters) {
+            if (!mInflaters.isEmpty())
+                return mInflaters.remove(mInflaters.size() - 1);
+        }
+        return new Inflater();
+    }
+
+    private void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        synchronized (mInflaters) {
+            mInflaters.add(inflater);
+        }
+    }
+
+    static boolean isEncoded(byte[] header) {
+        for (int i = 0; i < MAGIC.length; i++)
+            if (header[i] != MAGIC[i])
+                return false;
+        return true;
+    }
+
+    private static boolean isGzip(byte[] data, int offset, int length) {
+        return length >= 2 && data[offset] == (byte) 0x1f && data[offset + 1] == (byte) 0x8b;
+    }
+
+    private static byte[] gunzip(byte[] data, int offset, int length) throws IOException {
+        GZIPInputStream is = new GZIPInputStream(new ByteArrayInputStream(data, offset, length));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+        byte[] buf = new byte[8192];
+        int n;
+        while ((n = is.read(buf)) >= 0)
+            out.write(buf, 0, n);
+        return out.toByteArray();
+    }
+
+    private static byte[] copy(byte[] data, int offset, int length) {
+        if (offset == 0 && length == data.length)
+            return data;
+        byte[] b = new byte[length];
+        System.arraycopy(data, offset, b, 0, length);
+        return b;
+    }
+
+    private static int readFully(InputStream is, byte[] buf, int offset, int length) throws IOException {
+        int n = 0;
+        while (n < length) {
+            int r = is.read(buf, offset + n, length - n);
+            if (r < 0)
+                break;
+            n += r;
+        }
+        return n;
+    }
+
+    private static void writeInt(byte[] buf, int pos, int v) {
+        buf[pos] = (byte) (v >>> 24);
+        buf[pos + 1] = (byte) (v >>> 16);
+        buf[pos + 2] = (byte) (v >>> 8);
+        buf[pos + 3] = (byte) v;
+    }
+
+    private static int readInt(byte[] buf, int pos) {
+        return (buf[pos] & 0xff) << 24 | (buf[pos + 1] & 0xff) << 16
+                | (buf[pos + 2] & 0xff) << 8 | (buf[pos + 3] & 0xff);
+    }
+
+    private static long readLong(byte[] buf, int pos) {
+        long v = 0;
+        for (int i = 0; i < 8; i++)
+            v = v << 8 | (buf[pos + i] & 0xff);
+        return v;
+    }
+
+    /**
+     * The bytes read to check for the header, followed by the rest.
+     */
+    static final class PrefixInputStream extends InputStream {
+        private final byte[] mPrefix;
+        private final int mLength;
+        private final InputStream mIn;
+        private int mPos;
+
+        PrefixInputStream(byte[] prefix, int length, InputStream in) {
+            mPrefix = prefix;
+            mLength = length;
+            mIn = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (mPos < mLength)
+                return mPrefix[mPos++] & 0xff;
+            return mIn.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+            if (mPos < mLength) {
+                int n = Math.min(len, mLength - mPos);
+                System.arraycopy(mPrefix, mPos, b, off, n);
+                mPos += n;
+                return n;
+            }
+            return mIn.read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return mLength - mPos + mIn.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            mIn.close();
+        }
+    }
+}
@@ -15,9 +15,11 @@
 package org.oscim.tiling;
 
 import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
+import org.oscim.core.TagSet;
 
-public class TileDataSink implements ITileDataSink {
+public class TileDataSink implements ITileDataSink, ITileDataFilter {
 
     private QueryResult result;
     private final ITileDataSink sink;
@@ -35,6 +37,11 @@ public class TileDataSink implements ITileDataSink {
         sink.process(element);
     }
 
+    @Override
+    public boolean accept(GeometryType type, TagSet tags) {
+        return !(sink instanceof ITileDataFilter) || ((ITileDataFilter) sink).accept(type, tags);
+    }
+
     @Override
     public void setTileImage(Bitmap bitmap) {
         sink.setTileImage(bitmap);
@@ -23,6 +23,7 @@ import org.oscim.layers.tile.buildings.BuildingLayer;
 import org.oscim.map.Viewport;
 
 import java.util.HashMap;
+import java.util.Set;
 
 public abstract class TileSource {
 
@@ -122,6 +123,15 @@ public abstract class TileSource {
 
     public abstract void close();
 
+    /**
+     * Called with the keys of the tags used by the layers of this source,
+     * i.e. by the theme and the layer hooks. Sources may skip other tags.
+     *
+     * @param keys the used keys, null when any key may be used
+     */
+    public void setUsedKeys(Set<String> keys) {
+    }
+
     public float getAlpha() {
         return mAlpha;
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.oscim.tiling.ITileCache.Metadata;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Cache related headers of a HTTP response.
+ */
+final class CacheHeaders {
+    String eTag;
+    String lastModified;
+    String cacheControl;
+    String expires;
+    String date;
+
+    void clear() {
+        eTag = null;
+        lastModified = null;
+        cacheControl = null;
+        expires = null;
+        date = null;
+    }
+
+    /**
+     * @return true when the header is one of the cache headers
+     */
+    boolean parse(String name, String value) {
+        if ("ETag".equalsIgnoreCase(name))
+            eTag = value;
+        else if ("Last-Modified".equalsIgnoreCase(name))
+            lastModified = value;
+        else if ("Cache-Control".equalsIgnoreCase(name))
+            cacheControl = value;
+        else if ("Expires".equalsIgnoreCase(name))
+            expires = value;
+        else if ("Date".equalsIgnoreCase(name))
+            date = value;
+        else
+            return false;
+        return true;
+    }
+
+    /**
+     * The expiry time is taken from Cache-Control max-age, or from Expires
+     * relative to the Date of the response so the clocks of client and
+     * server need not agree. no-cache expires immediately.
+     *
+     * @param now time the response was received
+     * @return the metadata to store with the tile, null without cache headers
+     */
+    Metadata getMetadata(long now) {
+        long expiry = 0;
+        long maxAge = getMaxAge();
+        if (maxAge >= 0) {
+            expiry = now + maxAge * 1000;
+        } else if (expires != null) {
+            long time = parseDate(expires);
+            long serverNow = date != null ? parseDate(date) : -1;
+            if (time < 0)
+                expiry = now;
+            else if (serverNow > 0)
+                expiry = now + Math.max(0, time - serverNow);
+            else
+                expiry = Math.max(now, time);
+        }
+        if (eTag == null && lastModified == null && expiry == 0)
+            return null;
+
+        return new Metadata(eTag, lastModified, expiry, expiry == 0 ? 0 : expiry - now);
+    }
+
+    /**
+     * @return true when the response must not be stored in the cache
+     */
+    boolean isNoStore() {
+        if (cacheControl == null)
+            return false;
+
+        for (String directive : cacheControl.split(",")) {
+            if (directive.trim().equalsIgnoreCase("no-store"))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return max-age in seconds, 0 for no-cache or no-store, -1 when not set
+     */
+    private long getMaxAge() {
+        if (cacheControl == null)
+            return -1;
+
+        long maxAge = -1;
+        for (String directive : cacheControl.split(",")) {
+            directive = directive.trim().toLowerCase(Locale.US);
+            if (directive.startsWith("no-cache") || directive.equals("no-store"))
+                return 0;
+            if (directive.startsWith("max-age=")) {
+                try {
+                    maxAge = Long.parseLong(directive.substring(8).replace("\"", "").trim());
+                } catch (NumberFormatException e) {
+                    maxAge = 0;
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    /**
+     * @return milliseconds since epoch of a RFC 1123 date, -1 when invalid
+     */
+    static long parseDate(String value) {
+        /* SimpleDateFormat is not thread safe */
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            return format.parse(value).getTime();
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
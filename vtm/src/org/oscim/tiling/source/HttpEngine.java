@@ -17,6 +17,7 @@
 package org.oscim.tiling.source;
 
 import org.oscim.core.Tile;
+import org.oscim.tiling.ITileCache;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -44,4 +45,43 @@ public interface HttpEngine {
         HttpEngine create(UrlTileSource tileSource);
     }
 
+    /**
+     * Implemented by engines which accept several requests before the
+     * first response is read. read(), setCache() and requestCompleted()
+     * then refer to the oldest request not yet completed.
+     */
+    public interface Pipelining extends HttpEngine {
+    }
+
+    /**
+     * Implemented by engines which send conditional requests and report the
+     * cache headers of responses. With a {@link Pipelining} engine the
+     * methods refer to the oldest request not yet completed, like read().
+     */
+    public interface Conditional extends HttpEngine {
+        /**
+         * Send a request with If-None-Match and If-Modified-Since headers
+         * from the validators of the cached tile.
+         */
+        void sendRequest(Tile tile, ITileCache.Metadata cached) throws IOException;
+
+        /**
+         * @return true when the server answered 304 Not Modified, read()
+         * returns an empty stream then.
+         */
+        boolean isNotModified();
+
+        /**
+         * @return the validators and expiry time of the response returned
+         * by read(), null when it had none.
+         */
+        ITileCache.Metadata getMetadata();
+
+        /**
+         * @return true when the response returned by read() must not be
+         * stored in the cache (Cache-Control: no-store).
+         */
+        boolean isNoStore();
+    }
+
 }
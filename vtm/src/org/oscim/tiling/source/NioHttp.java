@@ -0,0 +1,462 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.oscim.core.Tile;
+import org.oscim.debug.Logger;
+import org.oscim.server.ServerPool;
+import org.oscim.tiling.ITileCache;
+import org.oscim.tiling.source.NioHttpClient.Request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Map.Entry;
+
+/**
+ * Non-blocking HTTP engine for tile loading. The connections of all
+ * engines of a factory are handled by one selector thread, see
+ * {@link NioHttpClient}. Like {@link LwHttp} it does not do redirects or
+ * https.
+ * <p/>
+ * Several requests may be sent before reading the first response, which
+ * lets {@link UrlTileDataSource} load a batch of tiles with one round trip.
+ * <p/>
+ * When the tile source has a {@link ServerPool} each request goes to its
+ * fastest healthy server. A request still pending after the p95 latency of
+ * its server, or failed, is sent once more to another server and the first
+ * response is used.
+ * <p/>
+ * Requests for stale cached tiles are sent with the validators of the cache,
+ * see {@link HttpEngine.Conditional}.
+ */
+public class NioHttp implements HttpEngine.Pipelining, HttpEngine.Conditional {
+    static final Logger log = new Logger(NioHttp.class);
+
+    /**
+     * Time to wait for a response including the time it was queued,
+     * connect and read timeouts are handled by the client.
+     */
+    private static final long RESPONSE_TIMEOUT = 30000; // 30 seconds
+
+    private final NioHttpClient mClient;
+    private final UrlTileSource mTileSource;
+    private final ServerPool mPool;
+    private final String mRequestHeader;
+
+    /**
+     * Requests in the order they were sent
+     */
+    private final ArrayDeque<Call> mCalls = new ArrayDeque<>();
+
+    /**
+     * The request of a tile and, with a {@link ServerPool}, a hedged
+     * duplicate sent to another server. Both notify the call when done.
+     */
+    private static final class Call {
+        final Tile tile;
+        final ServerPool.Endpoint endpoint;
+        /**
+         * Validators of the cached tile for a conditional request or null
+         */
+        final ITileCache.Metadata cached;
+        Request request;
+
+        ServerPool.Endpoint hedgeEndpoint;
+        Request hedge;
+        /**
+         * No other server was available for a hedged request
+         */
+        boolean noHedge;
+
+        /**
+         * The request whose response is returned by read()
+         */
+        Request response;
+
+        /**
+         * The outcome of the requests was recorded on their endpoints
+         */
+        boolean recorded;
+
+        Call(Tile tile, ServerPool.Endpoint endpoint, ITileCache.Metadata cached) {
+            this.tile = tile;
+            this.endpoint = endpoint;
+            this.cached = cached;
+        }
+
+        private static boolean succeeded(Request r) {
+            return r != null && r.isDone() && r.getError() == null && r.status < 500;
+        }
+
+        /**
+         * @return the first successful request, the first request when all
+         * failed and no hedged request will be sent, otherwise null.
+         */
+        synchronized Request getResponse() {
+            if (succeeded(request))
+                return request;
+            if (succeeded(hedge))
+                return hedge;
+            if (!request.isDone())
+                return null;
+            if (hedge == null)
+                return noHedge ? request : null;
+            return hedge.isDone() ? request : null;
+        }
+    }
+
+    NioHttp(NioHttpClient client, UrlTileSource tileSource) {
+        mClient = client;
+        mTileSource = tileSource;
+        mPool = tileSource.getServerPool();
+
+        StringBuilder sb = new StringBuilder()
+                .append("\r\nUser-Agent: vtm/0.5.9")
+                .append("\r\nConnection: Keep-Alive");
+
+        boolean encoding = false;
+        for (Entry<String, String> l : tileSource.getRequestHeader().entrySet()) {
+            String key = l.getKey();
+            if ("Accept-Encoding".equalsIgnoreCase(key))
+                encoding = true;
+            sb.append("\r\n").append(key).append(": ").append(l.getValue());
+        }
+        if (!encoding)
+            sb.append("\r\nAccept-Encoding: gzip");
+
+        mRequestHeader = sb.toString();
+    }
+
+    private Request createRequest(Call call, ServerPool.Endpoint endpoint) throws IOException {
+        String tileUrl;
+        if (endpoint != null)
+            tileUrl = mTileSource.getTileUrl(call.tile, endpoint.url);
+        else
+            tileUrl = mTileSource.getTileUrl(call.tile, mTileSource.getUseFallbackUrl());
+
+        URL url = new URL(tileUrl);
+        int port = url.getPort();
+        if (port < 0)
+            port = 80;
+
+        NioHttpClient.Host host = mClient.getHost(url.getHost(), port);
+
+        StringBuilder sb = new StringBuilder()
+                .append("GET ").append(url.getFile())
+                .append(" HTTP/1.1\r\nHost: ").append(url.getHost())
+                .append(mRequestHeader);
+        if (call.cached != null) {
+            if (call.cached.eTag != null)
+                sb.append("\r\nIf-None-Match: ").append(call.cached.eTag);
+            if (call.cached.lastModified != null)
+                sb.append("\r\nIf-Modified-Since: ").append(call.cached.lastModified);
+        }
+        byte[] data = sb.append("\r\n\r\n").toString().getBytes();
+
+        return new Request(host, data, call);
+    }
+
+    @Override
+    public void sendRequest(Tile tile) throws IOException {
+        sendRequest(tile, null);
+    }
+
+    @Override
+    public void sendRequest(Tile tile, ITileCache.Metadata cached) throws IOException {
+        if (tile == null)
+            throw new IllegalArgumentException("Tile cannot be null.");
+
+        if (cached != null && !cached.hasValidator())
+            cached = null;
+
+        Call call = new Call(tile, mPool != null ? mPool.select() : null, cached);
+        try {
+            call.request = createRequest(call, call.endpoint);
+            synchronized (this) {
+                mCalls.add(call);
+            }
+            mClient.submit(call.request);
+        } catch (IOException e) {
+            synchronized (this) {
+                mCalls.remove(call);
+            }
+            if (call.endpoint != null)
+                call.endpoint.recordFailure();
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for the response of the oldest request not yet completed.
+     */
+    @Override
+    public InputStream read() throws IOException {
+        Call call;
+        synchronized (this) {
+            call = mCalls.peek();
+        }
+        if (call == null)
+            throw new IOException("No request");
+
+        Request response;
+        if (call.endpoint == null) {
+            call.request.await(RESPONSE_TIMEOUT);
+            response = call.request;
+        } else {
+            response = awaitHedged(call);
+        }
+        call.response = response;
+
+        if (response.getError() != null)
+            throw response.getError();
+        if (response.status != 200 && !(response.status == 304 && call.cached != null))
+            throw new IOException("HTTP Error: " + response.statusLine);
+
+        return response.body.getInputStream();
+    }
+
+    /**
+     * Wait for the request of the call, send a hedged request to another
+     * server when it takes longer than the p95 latency of its server or
+     * failed.
+     */
+    private Request awaitHedged(Call call) throws IOException {
+        long start = call.request.sentTime;
+        long hedgeTime = start + mPool.getHedgeDelay(call.endpoint);
+        long end = start + RESPONSE_TIMEOUT;
+
+        while (true) {
+            Request response;
+            boolean sendHedge = false;
+            synchronized (call) {
+                try {
+                    while ((response = call.getResponse()) == null) {
+                        long now = System.currentTimeMillis();
+                        boolean canHedge = call.hedge == null && !call.noHedge;
+                        if (canHedge && (now >= hedgeTime || call.request.isDone())) {
+                            sendHedge = true;
+                            break;
+                        }
+                        if (now >= end)
+                            break;
+                        call.wait(Math.max(1, (canHedge ? Math.min(hedgeTime, end) : end) - now));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted");
+                }
+            }
+            if (response != null) {
+                record(call, response);
+                return response;
+            }
+            if (!sendHedge) {
+                record(call, null);
+                throw new SocketTimeoutException("no response");
+            }
+            sendHedge(call);
+        }
+    }
+
+    private void sendHedge(Call call) {
+        ServerPool.Endpoint endpoint = mPool.selectHedge(call.endpoint);
+        Request hedge = null;
+        if (endpoint != null) {
+            try {
+                hedge = createRequest(call, endpoint);
+                mClient.submit(hedge);
+            } catch (IOException e) {
+                log.debug("{} hedge: {}", call.tile, e);
+                endpoint.recordFailure();
+                hedge = null;
+            }
+        }
+        synchronized (call) {
+            if (hedge != null && call.recorded) {
+                /* the call was canceled meanwhile */
+                mClient.cancel(hedge);
+                endpoint.recordCanceled(System.currentTimeMillis() - hedge.sentTime);
+            } else if (hedge != null) {
+                call.hedge = hedge;
+                call.hedgeEndpoint = endpoint;
+            } else {
+                call.noHedge = true;
+            }
+        }
+    }
+
+    /**
+     * Update the server statistics and cancel the slower request.
+     *
+     * @param response the request whose response is used, null on timeout
+     */
+    private void record(Call call, Request response) {
+        Request hedge;
+        synchronized (call) {
+            if (call.recorded)
+                return;
+            call.recorded = true;
+            hedge = call.hedge;
+        }
+        record(call.request, call.endpoint, response);
+        if (hedge != null)
+            record(hedge, call.hedgeEndpoint, response);
+    }
+
+    private void record(Request request, ServerPool.Endpoint endpoint, Request response) {
+        if (request.canceled)
+            return;
+        if (request.isDone()) {
+            if (request.getError() == null && request.status < 500)
+                endpoint.recordSuccess(request.getTime());
+            else
+                endpoint.recordFailure();
+        } else {
+            mClient.cancel(request);
+            if (response != null)
+                endpoint.recordCanceled(System.currentTimeMillis() - request.sentTime);
+            else
+                endpoint.recordFailure();
+        }
+    }
+
+    /**
+     * @return the request whose response was returned by read(), null
+     * when it is not done
+     */
+    private Request getResponse() {
+        Call call;
+        synchronized (this) {
+            call = mCalls.peek();
+        }
+        if (call == null || call.response == null || !call.response.isDone())
+            return null;
+        return call.response;
+    }
+
+    @Override
+    public boolean isNotModified() {
+        Request response = getResponse();
+        return response != null && response.status == 304;
+    }
+
+    @Override
+    public ITileCache.Metadata getMetadata() {
+        Request response = getResponse();
+        if (response == null)
+            return null;
+        return response.headers.getMetadata(response.sentTime + response.getTime());
+    }
+
+    @Override
+    public boolean isNoStore() {
+        Request response = getResponse();
+        return response != null && response.headers.isNoStore();
+    }
+
+    @Override
+    public void setCache(OutputStream os) {
+        Request response = getResponse();
+        if (response == null)
+            return;
+        try {
+            response.body.writeTo(os);
+        } catch (IOException e) {
+            log.debug("Cache write: {}", e);
+        }
+    }
+
+    @Override
+    public boolean requestCompleted(boolean ok) {
+        Call call;
+        synchronized (this) {
+            call = mCalls.poll();
+        }
+        if (call == null)
+            return false;
+
+        cancel(call);
+
+        return ok && call.response != null && !call.response.canceled;
+    }
+
+    private void cancel(Call call) {
+        /* record the requests which were not, a canceled probe request
+         * would otherwise keep its server out of the pool */
+        if (call.endpoint != null)
+            record(call, call.request);
+
+        synchronized (call) {
+            if (!call.request.isDone())
+                mClient.cancel(call.request);
+            if (call.hedge != null && !call.hedge.isDone())
+                mClient.cancel(call.hedge);
+            call.noHedge = true;
+        }
+    }
+
+    /**
+     * Cancel all requests, the engine can be used again afterwards.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            for (Call call : mCalls)
+                cancel(call);
+            mCalls.clear();
+        }
+    }
+
+    public static class NioHttpFactory implements HttpEngine.Factory {
+        private static NioHttpClient sDefaultClient;
+
+        private final NioHttpClient mClient;
+
+        /**
+         * Use the client shared by all default factories, with 4
+         * connections per host and up to 4 pipelined requests on each.
+         */
+        public NioHttpFactory() {
+            synchronized (NioHttpFactory.class) {
+                if (sDefaultClient == null)
+                    sDefaultClient = new NioHttpClient(4, 4);
+                mClient = sDefaultClient;
+            }
+        }
+
+        /**
+         * @param maxConnections connections per host
+         * @param maxPipeline    requests sent on a connection before the
+         *                       first response is read, 1 to disable
+         *                       pipelining
+         */
+        public NioHttpFactory(int maxConnections, int maxPipeline) {
+            mClient = new NioHttpClient(maxConnections, maxPipeline);
+        }
+
+        @Override
+        public HttpEngine create(UrlTileSource tileSource) {
+            return new NioHttp(mClient, tileSource);
+        }
+
+        NioHttpClient getClient() {
+            return mClient;
+        }
+    }
+}
@@ -0,0 +1,871 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.oscim.debug.Logger;
+import org.oscim.utils.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Shared HTTP/1.1 client of {@link NioHttp} engines. One selector thread
+ * keeps up to maxConnections keep-alive connections per host, pipelines up
+ * to maxPipeline requests on each and reads the responses into memory,
+ * inflating gzip content as it arrives. Loader threads only wait for
+ * completed bodies and decode them.
+ * <p/>
+ * The thread is started with the first request and stops when no
+ * connection is left open.
+ */
+final class NioHttpClient {
+    static final Logger log = new Logger(NioHttpClient.class);
+    static final boolean dbg = false;
+
+    private static final int CONNECT_TIMEOUT = 15000; // 15 seconds
+    private static final int SOCKET_TIMEOUT = 8000; // 8 seconds
+    private static final int KEEP_ALIVE_TIMEOUT = 10000; // 10 seconds
+    private static final int SELECT_TIMEOUT = 250;
+
+    /**
+     * Times a request is sent again when its connection was closed before
+     * the response was complete.
+     */
+    private static final int MAX_RETRIES = 2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_LINE = 8192;
+
+    private final int mMaxConnections;
+    private final int mMaxPipeline;
+
+    /**
+     * Guards mIncoming, mThread and mSelector
+     */
+    private final Object mLock = new Object();
+    private final ArrayList<Request> mIncoming = new ArrayList<>();
+    private Thread mThread;
+    private Selector mSelector;
+
+    private final HashMap<String, Host> mHosts = new HashMap<>();
+
+    /* only used on the selector thread */
+    private final ArrayList<Request> mPending = new ArrayList<>();
+    private final ArrayList<Connection> mConnections = new ArrayList<>();
+    private final ByteBuffer mReadBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /* statistics */
+    private volatile int mOpenedConnections;
+    private volatile int mSentRequests;
+
+    NioHttpClient(int maxConnections, int maxPipeline) {
+        if (maxConnections < 1 || maxPipeline < 1)
+            throw new IllegalArgumentException("maxConnections and maxPipeline must be > 0");
+
+        mMaxConnections = maxConnections;
+        mMaxPipeline = maxPipeline;
+    }
+
+    /**
+     * A GET request and its response. The response fields are written on
+     * the selector thread and may be read once the request is done.
+     */
+    static final class Request {
+        final Host host;
+        final byte[] data;
+        /**
+         * Notified when done, may be shared by several requests
+         */
+        final Object lock;
+        final long sentTime = System.currentTimeMillis();
+
+        volatile boolean canceled;
+        int retries;
+
+        int status;
+        String statusLine;
+        final CacheHeaders headers = new CacheHeaders();
+        final Body body = new Body();
+
+        private IOException mError;
+        private boolean mDone;
+        private long mDoneTime;
+
+        Request(Host host, byte[] data) {
+            this(host, data, null);
+        }
+
+        Request(Host host, byte[] data, Object lock) {
+            this.host = host;
+            this.data = data;
+            this.lock = lock != null ? lock : this;
+        }
+
+        void complete(IOException error) {
+            synchronized (lock) {
+                if (mDone)
+                    return;
+                mError = error;
+                mDone = true;
+                mDoneTime = System.currentTimeMillis();
+                lock.notifyAll();
+            }
+        }
+
+        boolean isDone() {
+            synchronized (lock) {
+                return mDone;
+            }
+        }
+
+        IOException getError() {
+            synchronized (lock) {
+                return mError;
+            }
+        }
+
+        /**
+         * @return milliseconds from creating the request until it was done
+         */
+        long getTime() {
+            synchronized (lock) {
+                return mDoneTime - sentTime;
+            }
+        }
+
+        /**
+         * Wait until the response is read completely.
+         *
+         * @throws IOException when the request failed or was canceled
+         */
+        void await(long timeout) throws IOException {
+            long end = System.currentTimeMillis() + timeout;
+            synchronized (lock) {
+                try {
+                    while (!mDone) {
+                        long wait = end - System.currentTimeMillis();
+                        if (wait <= 0)
+                            throw new SocketTimeoutException("no response");
+                        lock.wait(wait);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted");
+                }
+                if (mError != null)
+                    throw mError;
+            }
+        }
+    }
+
+    static final class Body extends ByteArrayOutputStream {
+        Body() {
+            super(1 << 14);
+        }
+
+        InputStream getInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
+    static final class Host {
+        final String name;
+        final InetSocketAddress address;
+
+        /* only used on the selector thread */
+        final ArrayDeque<Request> queue = new ArrayDeque<>();
+        int connections;
+
+        Host(String name, InetSocketAddress address) {
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Returns the host for name and port, the name is resolved on the
+     * calling thread the first time.
+     */
+    Host getHost(String name, int port) throws UnknownHostException {
+        String key = name + ':' + port;
+        synchronized (mHosts) {
+            Host host = mHosts.get(key);
+            if (host != null)
+                return host;
+        }
+        InetSocketAddress address = new InetSocketAddress(name, port);
+        if (address.isUnresolved())
+            throw new UnknownHostException(name);
+
+        synchronized (mHosts) {
+            Host host = mHosts.get(key);
+            if (host == null) {
+                host = new Host(name, address);
+                mHosts.put(key, host);
+            }
+            return host;
+        }
+    }
+
+    /**
+     * Queue the request, it is sent on the selector thread.
+     */
+    void submit(Request request) throws IOException {
+        synchronized (mLock) {
+            if (mThread == null) {
+                mSelector = Selector.open();
+                final Selector selector = mSelector;
+                mThread = new Thread("NioHttp") {
+                    @Override
+                    public void run() {
+                        loop(selector);
+                    }
+                };
+                mThread.setDaemon(true);
+                mThread.start();
+            }
+            mIncoming.add(request);
+            mSelector.wakeup();
+        }
+    }
+
+    /**
+     * Cancel the request. It is skipped when not yet sent, otherwise the
+     * response is still read to keep the connection, but dropped.
+     */
+    void cancel(Request request) {
+        request.canceled = true;
+        request.complete(new IOException("canceled"));
+    }
+
+    int getOpenedConnections() {
+        return mOpenedConnections;
+    }
+
+    int getSentRequests() {
+        return mSentRequests;
+    }
+
+    private void loop(Selector selector) {
+        try {
+            while (true) {
+                synchronized (mLock) {
+                    if (mIncoming.isEmpty() && mConnections.isEmpty() && !hasQueued()) {
+                        mThread = null;
+                        mSelector = null;
+                        break;
+                    }
+                    mPending.addAll(mIncoming);
+                    mIncoming.clear();
+                }
+                for (int i = 0, n = mPending.size(); i < n; i++) {
+                    Request r = mPending.get(i);
+                    if (!r.canceled)
+                        r.host.queue.add(r);
+                }
+                mPending.clear();
+                dispatchAll();
+
+                selector.select(SELECT_TIMEOUT);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection c = (Connection) key.attachment();
+                    if (!key.isValid()) {
+                        close(c, new SocketException("connection closed"), false);
+                        continue;
+                    }
+                    try {
+                        if (key.isConnectable())
+                            c.finishConnect();
+                        if (key.isValid() && key.isWritable())
+                            c.flush();
+                        if (key.isValid() && key.isReadable())
+                            c.read(mReadBuffer);
+                    } catch (IOException e) {
+                        if (dbg)
+                            log.debug("{} {}", c.host.name, e);
+                        close(c, e, false);
+                    }
+                }
+                checkTimeouts();
+            }
+        } catch (Throwable t) {
+            log.error(t);
+            synchronized (mLock) {
+                mThread = null;
+                mSelector = null;
+                mPending.addAll(mIncoming);
+                mIncoming.clear();
+            }
+            IOException e = new IOException(t.toString());
+            for (Connection c : new ArrayList<>(mConnections))
+                close(c, e, true);
+            for (Request r : mPending)
+                r.complete(e);
+            mPending.clear();
+            synchronized (mHosts) {
+                for (Host host : mHosts.values()) {
+                    for (Request r : host.queue)
+                        r.complete(e);
+                    host.queue.clear();
+                    host.connections = 0;
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(selector);
+        }
+    }
+
+    private void dispatchAll() {
+        synchronized (mHosts) {
+            for (Host host : mHosts.values())
+                dispatch(host);
+        }
+    }
+
+    private boolean hasQueued() {
+        synchronized (mHosts) {
+            for (Host host : mHosts.values())
+                if (!host.queue.isEmpty())
+                    return true;
+        }
+        return false;
+    }
+
+    /**
+     * Assign queued requests of the host to connections: idle ones first,
+     * then new ones and then those with the shortest pipeline.
+     */
+    private void dispatch(Host host) {
+        while (!host.queue.isEmpty()) {
+            Request r = host.queue.peek();
+            if (r.canceled) {
+                host.queue.poll();
+                continue;
+            }
+            Connection best = null;
+            for (int i = 0, n = mConnections.size(); i < n; i++) {
+                Connection c = mConnections.get(i);
+                if (c.host != host || c.closing)
+                    continue;
+                if (c.inFlight.size() >= (c.reusable ? mMaxPipeline : 1))
+                    continue;
+                if (best == null || c.inFlight.size() < best.inFlight.size())
+                    best = c;
+            }
+            if ((best == null || !best.inFlight.isEmpty())
+                    && host.connections < mMaxConnections) {
+                try {
+                    best = open(host);
+                } catch (IOException e) {
+                    log.debug("{} connect: {}", host.name, e);
+                    host.queue.poll();
+                    r.complete(e);
+                    continue;
+                }
+            }
+            if (best == null)
+                return;
+
+            host.queue.poll();
+            try {
+                best.send(r);
+            } catch (IOException e) {
+                close(best, e, false);
+            }
+        }
+    }
+
+    private Connection open(Host host) throws IOException {
+        Selector selector;
+        synchronized (mLock) {
+            selector = mSelector;
+        }
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection c = new Connection(host, channel);
+            if (channel.connect(host.address))
+                c.connected = true;
+            c.key = channel.register(selector, c.connected ? SelectionKey.OP_READ
+                    : SelectionKey.OP_CONNECT, c);
+            mConnections.add(c);
+            host.connections++;
+            mOpenedConnections++;
+            return c;
+        } catch (IOException e) {
+            IOUtils.closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Close the connection. Its requests are sent again unless they were
+     * retried too often or the connection timed out.
+     */
+    private void close(Connection c, IOException cause, boolean fail) {
+        if (!mConnections.remove(c))
+            return;
+        c.host.connections--;
+        if (c.key != null)
+            c.key.cancel();
+        IOUtils.closeQuietly(c.channel);
+        c.gunzip.end();
+
+        boolean timeout = fail || cause instanceof SocketTimeoutException;
+        Request[] requests = c.inFlight.toArray(new Request[0]);
+        c.inFlight.clear();
+        for (int i = requests.length - 1; i >= 0; i--) {
+            Request r = requests[i];
+            if (r.canceled)
+                continue;
+            /* requests behind the first were not started when the
+             * server closed a connection after its keep-alive limit */
+            boolean retry = !timeout
+                    && ((i > 0 && c.reusable) || ++r.retries <= MAX_RETRIES);
+            if (retry) {
+                r.body.reset();
+                c.host.queue.addFirst(r);
+            } else {
+                r.complete(cause);
+            }
+        }
+    }
+
+    private void checkTimeouts() {
+        long now = System.currentTimeMillis();
+        for (int i = mConnections.size() - 1; i >= 0; i--) {
+            Connection c = mConnections.get(i);
+            long idle = now - c.lastActive;
+            if (!c.connected) {
+                if (idle > CONNECT_TIMEOUT)
+                    close(c, new SocketTimeoutException("connect timeout"), false);
+            } else if (!c.inFlight.isEmpty()) {
+                if (idle > SOCKET_TIMEOUT)
+                    close(c, new SocketTimeoutException("read timeout"), false);
+            } else if (idle > KEEP_ALIVE_TIMEOUT || c.closing) {
+                close(c, null, false);
+            }
+        }
+    }
+
+    /* response parser states */
+    private static final int STATUS = 0;
+    private static final int HEADER = 1;
+    private static final int BODY = 2;
+    private static final int BODY_UNTIL_CLOSE = 3;
+    private static final int CHUNK_SIZE = 4;
+    private static final int CHUNK_DATA = 5;
+    private static final int CHUNK_END = 6;
+    private static final int TRAILER = 7;
+
+    private final class Connection {
+        final Host host;
+        final SocketChannel channel;
+        SelectionKey key;
+
+        final ArrayDeque<Request> inFlight = new ArrayDeque<>();
+        final ArrayDeque<ByteBuffer> writes = new ArrayDeque<>();
+
+        boolean connected;
+        /**
+         * Server kept the connection open after a response
+         */
+        boolean reusable;
+        /**
+         * Server requested to close the connection
+         */
+        boolean closing;
+        long lastActive = System.currentTimeMillis();
+
+        int state = STATUS;
+        final byte[] line = new byte[MAX_LINE];
+        int lineLength;
+        long remaining;
+        long contentLength;
+        boolean chunked;
+        boolean gzip;
+        final Gunzip gunzip = new Gunzip();
+
+        Connection(Host host, SocketChannel channel) {
+            this.host = host;
+            this.channel = channel;
+        }
+
+        void finishConnect() throws IOException {
+            channel.finishConnect();
+            connected = true;
+            lastActive = System.currentTimeMillis();
+            flush();
+        }
+
+        void send(Request r) throws IOException {
+            if (dbg)
+                log.debug("{} send {}", host.name, inFlight.size());
+
+            if (inFlight.isEmpty())
+                lastActive = System.currentTimeMillis();
+            inFlight.add(r);
+            mSentRequests++;
+            writes.add(ByteBuffer.wrap(r.data));
+            if (connected)
+                flush();
+        }
+
+        void flush() throws IOException {
+            while (!writes.isEmpty()) {
+                ByteBuffer b = writes.peek();
+                channel.write(b);
+                if (b.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+                writes.poll();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+
+        void read(ByteBuffer buf) throws IOException {
+            while (true) {
+                buf.clear();
+                int n = channel.read(buf);
+                if (n < 0) {
+                    if (state == BODY_UNTIL_CLOSE)
+                        finishResponse();
+                    close(this, new SocketException("connection closed"), false);
+                    return;
+                }
+                if (n == 0)
+                    return;
+                lastActive = System.currentTimeMillis();
+                parse(buf.array(), 0, n);
+                if (!mConnections.contains(this))
+                    return;
+            }
+        }
+
+        private void parse(byte[] buf, int pos, int end) throws IOException {
+            while (pos < end) {
+                Request r = inFlight.peek();
+                if (r == null)
+                    throw new IOException("unexpected data");
+
+                switch (state) {
+                    case STATUS:
+                    case HEADER:
+                    case CHUNK_SIZE:
+                    case CHUNK_END:
+                    case TRAILER:
+                        while (pos < end && buf[pos] != '\n') {
+                            if (lineLength == MAX_LINE)
+                                throw new IOException("Header too large!");
+                            line[lineLength++] = buf[pos++];
+                        }
+                        if (pos == end)
+                            return;
+                        pos++;
+                        if (lineLength > 0 && line[lineLength - 1] == '\r')
+                            lineLength--;
+                        String l = new String(line, 0, lineLength, "ISO-8859-1");
+                        lineLength = 0;
+                        parseLine(r, l);
+                        break;
+
+                    case BODY:
+                    case CHUNK_DATA: {
+                        int len = (int) Math.min(remaining, end - pos);
+                        write(r, buf, pos, len);
+                        pos += len;
+                        remaining -= len;
+                        if (remaining == 0) {
+                            if (state == BODY)
+                                finishResponse();
+                            else
+                                state = CHUNK_END;
+                        }
+                        break;
+                    }
+                    case BODY_UNTIL_CLOSE:
+                        write(r, buf, pos, end - pos);
+                        pos = end;
+                        break;
+                }
+                if (!mConnections.contains(this))
+                    return;
+            }
+        }
+
+        private void parseLine(Request r, String l) throws IOException {
+            if (dbg)
+                log.debug("> {} <", l);
+
+            switch (state) {
+                case STATUS:
+                    /* "HTTP/1.? ".length == 9 */
+                    if (l.length() < 12 || !l.startsWith("HTTP/1."))
+                        throw new IOException("Bad status line: " + l);
+                    try {
+                        r.status = Integer.parseInt(l.substring(9, 12));
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad status line: " + l);
+                    }
+                    r.statusLine = l;
+                    r.headers.clear();
+                    contentLength = -1;
+                    chunked = false;
+                    gzip = false;
+                    /* HTTP/1.0 closes unless keep-alive is sent */
+                    closing = l.charAt(7) == '0';
+                    state = HEADER;
+                    break;
+
+                case HEADER:
+                    if (l.isEmpty()) {
+                        startBody(r);
+                        break;
+                    }
+                    int colon = l.indexOf(':');
+                    if (colon < 0)
+                        break;
+                    String name = l.substring(0, colon).trim();
+                    String value = l.substring(colon + 1).trim();
+                    if ("Content-Length".equalsIgnoreCase(name)) {
+                        try {
+                            contentLength = Long.parseLong(value);
+                        } catch (NumberFormatException e) {
+                            throw new IOException("Bad Content-Length: " + value);
+                        }
+                    } else if ("Transfer-Encoding".equalsIgnoreCase(name)) {
+                        chunked = value.toLowerCase().contains("chunked");
+                    } else if ("Content-Encoding".equalsIgnoreCase(name)) {
+                        gzip = "gzip".equalsIgnoreCase(value);
+                    } else if ("Connection".equalsIgnoreCase(name)) {
+                        if ("close".equalsIgnoreCase(value))
+                            closing = true;
+                        else if ("keep-alive".equalsIgnoreCase(value))
+                            closing = false;
+                    } else {
+                        r.headers.parse(name, value);
+                    }
+                    break;
+
+                case CHUNK_SIZE:
+                    int ext = l.indexOf(';');
+                    String size = (ext < 0 ? l : l.substring(0, ext)).trim();
+                    try {
+                        remaining = Long.parseLong(size, 16);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad chunk size: " + l);
+                    }
+                    state = remaining == 0 ? TRAILER : CHUNK_DATA;
+                    break;
+
+                case CHUNK_END:
+                    state = CHUNK_SIZE;
+                    break;
+
+                case TRAILER:
+                    if (l.isEmpty())
+                        finishResponse();
+                    break;
+            }
+        }
+
+        private void startBody(Request r) throws IOException {
+            if (r.status / 100 == 1) {
+                /* interim response */
+                state = STATUS;
+                return;
+            }
+            if (gzip)
+                gunzip.reset();
+
+            if (r.status == 204 || r.status == 304) {
+                finishResponse();
+            } else if (chunked) {
+                state = CHUNK_SIZE;
+            } else if (contentLength >= 0) {
+                remaining = contentLength;
+                state = BODY;
+                if (remaining == 0)
+                    finishResponse();
+            } else {
+                closing = true;
+                state = BODY_UNTIL_CLOSE;
+            }
+        }
+
+        private void write(Request r, byte[] buf, int pos, int len) throws IOException {
+            if (r.canceled)
+                return;
+            if (gzip)
+                gunzip.inflate(buf, pos, len, r.body);
+            else
+                r.body.write(buf, pos, len);
+        }
+
+        private void finishResponse() throws IOException {
+            Request r = inFlight.poll();
+            state = STATUS;
+            lineLength = 0;
+
+            if (gzip && r.status == 200 && !r.canceled && !gunzip.finished())
+                throw new ZipException("Truncated gzip body");
+
+            r.complete(null);
+
+            if (closing) {
+                close(this, new SocketException("connection closed"), false);
+            } else {
+                reusable = true;
+                if (inFlight.isEmpty())
+                    lastActive = System.currentTimeMillis();
+            }
+        }
+    }
+
+    /**
+     * Incremental gzip decoder, content can be passed in any pieces.
+     */
+    static final class Gunzip {
+        private static final int FHCRC = 2;
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+
+        private static final int FIXED = 0;
+        private static final int XLEN = 1;
+        private static final int EXTRA = 2;
+        private static final int NAME = 3;
+        private static final int COMMENT = 4;
+        private static final int HCRC = 5;
+        private static final int DATA = 6;
+
+        private final Inflater mInflater = new Inflater(true);
+        private final byte[] mBuffer = new byte[BUFFER_SIZE];
+
+        private int mState;
+        private int mPos;
+        private int mFlags;
+        private int mRemain;
+
+        void reset() {
+            mInflater.reset();
+            mState = FIXED;
+            mPos = 0;
+        }
+
+        boolean finished() {
+            return mState == DATA && mInflater.finished();
+        }
+
+        void inflate(byte[] buf, int pos, int len, ByteArrayOutputStream out) throws IOException {
+            int end = pos + len;
+            while (pos < end && mState != DATA)
+                header(buf[pos++] & 0xff);
+
+            /* ignore trailer */
+            if (pos == end || mInflater.finished())
+                return;
+
+            mInflater.setInput(buf, pos, end - pos);
+            try {
+                while (!mInflater.finished() && !mInflater.needsInput()) {
+                    int n = mInflater.inflate(mBuffer);
+                    if (n == 0 && mInflater.needsDictionary())
+                        throw new ZipException("Dictionary needed");
+                    out.write(mBuffer, 0, n);
+                }
+            } catch (DataFormatException e) {
+                throw new ZipException(e.getMessage());
+            }
+        }
+
+        private void header(int v) throws IOException {
+            switch (mState) {
+                case FIXED:
+                    if ((mPos == 0 && v != 0x1f) || (mPos == 1 && v != 0x8b)
+                            || (mPos == 2 && v != 8))
+                        throw new ZipException("Not in GZIP format");
+                    if (mPos == 3)
+                        mFlags = v;
+                    if (++mPos == 10) {
+                        mPos = 0;
+                        mState = next(FIXED);
+                    }
+                    break;
+                case XLEN:
+                    mRemain |= v << (8 * mPos);
+                    if (++mPos == 2) {
+                        mPos = 0;
+                        mState = mRemain > 0 ? EXTRA : next(EXTRA);
+                    }
+                    break;
+                case EXTRA:
+                    if (--mRemain == 0)
+                        mState = next(EXTRA);
+                    break;
+                case NAME:
+                case COMMENT:
+                    if (v == 0)
+                        mState = next(mState);
+                    break;
+                case HCRC:
+                    if (++mPos == 2)
+                        mState = next(HCRC);
+                    break;
+            }
+        }
+
+        private int next(int state) {
+            mRemain = 0;
+            mPos = 0;
+            if (state < XLEN && (mFlags & FEXTRA) != 0)
+                return XLEN;
+            if (state < NAME && (mFlags & FNAME) != 0)
+                return NAME;
+            if (state < COMMENT && (mFlags & FCOMMENT) != 0)
+                return COMMENT;
+            if (state < HCRC && (mFlags & FHCRC) != 0)
+                return HCRC;
+            return DATA;
+        }
+
+        void end() {
+            mInflater.end();
+        }
+    }
+}
@@ -470,6 +470,19 @@ public abstract class PbfDecoder implements ITileDecoder {
         return mBufferOffset + bufferPos;
     }
 
+    /**
+     * Skip bytes of the message without decoding them.
+     */
+    protected void skip(int bytes) throws IOException {
+        while (bytes > 0) {
+            int n = Math.min(fillBuffer(1), bytes);
+            if (n <= 0)
+                throw new IOException("unexpected end of message");
+            bufferPos += n;
+            bytes -= n;
+        }
+    }
+
     public int fillBuffer(int size) throws IOException {
         int bytesLeft = bufferFill - bufferPos;
 
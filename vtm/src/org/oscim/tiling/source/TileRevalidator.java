@@ -0,0 +1,140 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source;
+
+import org.oscim.core.Tile;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileCache;
+import org.oscim.tiling.ITileCache.Metadata;
+import org.oscim.tiling.ITileCache.TileWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Refreshes stale cached tiles of a {@link UrlTileSource} in the background,
+ * for stale-while-revalidate. One request is sent at a time with an engine
+ * of the tile source, from a thread of minimum priority which exits when
+ * the queue is empty.
+ * <p/>
+ * The response is written to the cache without decoding it, a tile which
+ * fails to decode is loaded from the server the next time.
+ */
+final class TileRevalidator {
+    static final Logger log = new Logger(TileRevalidator.class);
+
+    /**
+     * Tiles queued for revalidation, more are dropped until the queue has
+     * room. They are revalidated when they are loaded again.
+     */
+    static final int MAX_QUEUED = 256;
+
+    private final UrlTileSource mTileSource;
+    private final LinkedHashMap<Tile, Metadata> mQueue = new LinkedHashMap<>();
+    private final byte[] mBuffer = new byte[8192];
+    private Thread mThread;
+
+    TileRevalidator(UrlTileSource tileSource) {
+        mTileSource = tileSource;
+    }
+
+    /**
+     * Queue a tile for revalidation unless it is already queued.
+     *
+     * @param cached metadata of the cached tile
+     */
+    synchronized void revalidate(Tile tile, Metadata cached) {
+        if (mQueue.size() >= MAX_QUEUED || mQueue.containsKey(tile))
+            return;
+
+        mQueue.put(new Tile(tile.tileX, tile.tileY, tile.zoomLevel), cached);
+
+        if (mThread == null) {
+            mThread = new Thread("TileRevalidator") {
+                @Override
+                public void run() {
+                    loop();
+                }
+            };
+            mThread.setDaemon(true);
+            mThread.setPriority(Thread.MIN_PRIORITY);
+            mThread.start();
+        }
+    }
+
+    synchronized boolean isIdle() {
+        return mThread == null;
+    }
+
+    private void loop() {
+        HttpEngine engine = mTileSource.getHttpEngine();
+        try {
+            while (true) {
+                Tile tile;
+                Metadata cached;
+                synchronized (this) {
+                    Iterator<Map.Entry<Tile, Metadata>> it = mQueue.entrySet().iterator();
+                    if (!it.hasNext() || !(engine instanceof HttpEngine.Conditional)) {
+                        mQueue.clear();
+                        mThread = null;
+                        return;
+                    }
+                    Map.Entry<Tile, Metadata> e = it.next();
+                    it.remove();
+                    tile = e.getKey();
+                    cached = e.getValue();
+                }
+                refresh((HttpEngine.Conditional) engine, tile, cached);
+            }
+        } finally {
+            engine.close();
+        }
+    }
+
+    private void refresh(HttpEngine.Conditional engine, Tile tile, Metadata cached) {
+        ITileCache cache = mTileSource.tileCache;
+        if (cache == null)
+            return;
+
+        boolean ok = false;
+        TileWriter cacheWriter = null;
+        try {
+            engine.sendRequest(tile, cached);
+            InputStream is = engine.read();
+            if (engine.isNotModified()) {
+                cache.updateMetadata(tile, cached.revalidated(engine.getMetadata(), System.currentTimeMillis()));
+            } else if (engine.isNoStore()) {
+                while (is.read(mBuffer) >= 0) ;
+            } else {
+                cacheWriter = mTileSource.getCacheCodec().wrap(cache.writeTile(tile));
+                cacheWriter.setMetadata(engine.getMetadata());
+                engine.setCache(cacheWriter.getOutputStream());
+                while (is.read(mBuffer) >= 0) ;
+            }
+            ok = true;
+        } catch (IOException e) {
+            log.debug("{} Revalidation: {}", tile, e);
+        } finally {
+            if (!engine.requestCompleted(ok))
+                ok = false;
+
+            if (cacheWriter != null)
+                cacheWriter.complete(ok);
+        }
+    }
+}
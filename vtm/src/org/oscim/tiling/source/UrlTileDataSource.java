@@ -21,10 +21,11 @@ package org.oscim.tiling.source;
 import org.oscim.core.MercatorProjection;
 import org.oscim.layers.tile.MapTile;
 import org.oscim.tiling.ITileCache;
+import org.oscim.tiling.ITileCache.Metadata;
 import org.oscim.tiling.ITileCache.TileReader;
 import org.oscim.tiling.ITileCache.TileWriter;
+import org.oscim.tiling.ITileBatchDataSource;
 import org.oscim.tiling.ITileDataSink;
-import org.oscim.tiling.ITileDataSource;
 import org.oscim.tiling.QueryResult;
 import org.oscim.utils.IOUtils;
 import org.oscim.debug.Logger;
@@ -39,7 +40,7 @@ import static org.oscim.tiling.QueryResult.DELAYED;
 import static org.oscim.tiling.QueryResult.FAILED;
 import static org.oscim.tiling.QueryResult.SUCCESS;
 
-public class UrlTileDataSource implements ITileDataSource {
+public class UrlTileDataSource implements ITileBatchDataSource {
     static final Logger log = new Logger(UrlTileDataSource.class);
 
     protected final HttpEngine mConn;
@@ -65,43 +66,170 @@ public class UrlTileDataSource implements ITileDataSource {
 
     @Override
     public void query(MapTile tile, ITileDataSink sink) {
+        MapTile loadedTile = getLoadedTile(tile);
 
-        MapTile loadedTile = tile;
-        if (mUseTmsAnnotation) {
-            loadedTile = new MapTile(tile.tileX, (int) MercatorProjection.tileYToTMS(tile.tileY, tile.zoomLevel), tile.zoomLevel);
+        TileReader cached = getCached(loadedTile);
+        TileReader stale = getStale(cached);
+        if (stale == null && readCache(loadedTile, cached, sink))
+            return;
+
+        load(loadedTile, sink, stale, true);
+    }
+
+    /**
+     * With a {@link HttpEngine.Pipelining} engine the requests of all tiles
+     * not in the cache are sent before reading the first response.
+     */
+    @Override
+    public void query(MapTile[] tiles, ITileDataSink[] sinks, int count) {
+        if (!isPipelining()) {
+            for (int i = 0; i < count; i++)
+                query(tiles[i], sinks[i]);
+            return;
         }
 
-        ITileCache cache = mTileSource.tileCache;
+        MapTile[] loadedTiles = new MapTile[count];
+        TileReader[] stale = new TileReader[count];
+        boolean[] sent = new boolean[count];
+        boolean ok = true;
+        for (int i = 0; i < count; i++) {
+            MapTile loadedTile = getLoadedTile(tiles[i]);
+            TileReader cached = getCached(loadedTile);
+            stale[i] = getStale(cached);
+            if (stale[i] == null && readCache(loadedTile, cached, sinks[i]))
+                continue;
 
-        if (mUseCache) {
-            TileReader c = cache.getTile(loadedTile);
-            if (c != null) {
-                InputStream is = c.getInputStream();
-                try {
-                    if (mTileDecoder.decode(loadedTile, sink, is)) {
-                        sink.completed(SUCCESS);
-                        return;
-                    }
-                } catch (IOException e) {
-                    log.debug("{} Cache read: {}", loadedTile, e);
-                } finally {
-                    IOUtils.closeQuietly(is);
-                }
+            loadedTiles[i] = loadedTile;
+            if (!ok)
+                continue;
+            try {
+                sendRequest(loadedTile, stale[i]);
+                sent[i] = true;
+            } catch (IOException e) {
+                /* the remaining tiles are sent one by one */
+                log.debug("{} Network Error: {}", loadedTile, e);
+                ok = false;
             }
         }
+        for (int i = 0; i < count; i++) {
+            if (loadedTiles[i] != null)
+                load(loadedTiles[i], sinks[i], stale[i], !sent[i]);
+        }
+    }
+
+    /**
+     * @return true when the engine accepts several requests at once.
+     */
+    public boolean isPipelining() {
+        return mConn instanceof HttpEngine.Pipelining;
+    }
+
+    /**
+     * @return true when the engine revalidates expired tiles of the cache.
+     */
+    public boolean isConditional() {
+        return mConn instanceof HttpEngine.Conditional;
+    }
+
+    private MapTile getLoadedTile(MapTile tile) {
+        if (mUseTmsAnnotation)
+            return new MapTile(tile.tileX, (int) MercatorProjection.tileYToTMS(tile.tileY, tile.zoomLevel), tile.zoomLevel);
+        return tile;
+    }
+
+    private TileReader getCached(MapTile loadedTile) {
+        if (!mUseCache)
+            return null;
+
+        return mTileSource.tileCache.getTile(loadedTile);
+    }
+
+    private boolean isExpired(TileReader cached) {
+        if (!isConditional())
+            return false;
+
+        Metadata metadata = cached.getMetadata();
+        return metadata != null && metadata.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the cached tile when it is expired and must be revalidated
+     * before it is used, null otherwise.
+     */
+    private TileReader getStale(TileReader cached) {
+        if (cached == null || mTileSource.isStaleWhileRevalidate() || !isExpired(cached))
+            return null;
+
+        return cached;
+    }
+
+    /**
+     * Decode the cached tile. With stale-while-revalidate an expired tile is
+     * queued for revalidation in the background.
+     */
+    private boolean readCache(MapTile loadedTile, TileReader cached, ITileDataSink sink) {
+        if (cached == null || !decodeCache(loadedTile, cached, sink))
+            return false;
+
+        sink.completed(SUCCESS);
+
+        if (mTileSource.isStaleWhileRevalidate() && isExpired(cached))
+            mTileSource.getRevalidator().revalidate(loadedTile, cached.getMetadata());
+
+        return true;
+    }
+
+    private boolean decodeCache(MapTile loadedTile, TileReader cached, ITileDataSink sink) {
+        InputStream is = cached.getInputStream();
+        try {
+            return mTileDecoder.decode(loadedTile, sink, mTileSource.getCacheCodec().decode(is));
+        } catch (IOException e) {
+            log.debug("{} Cache read: {}", loadedTile, e);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return false;
+    }
+
+    private void sendRequest(MapTile loadedTile, TileReader stale) throws IOException {
+        if (stale != null)
+            ((HttpEngine.Conditional) mConn).sendRequest(loadedTile, stale.getMetadata());
+        else
+            mConn.sendRequest(loadedTile);
+    }
+
+    /**
+     * @param stale expired cached tile to revalidate, it is used when the
+     *              server answers 304 Not Modified or no response is received
+     * @param send  false when the request was already sent
+     */
+    private void load(MapTile loadedTile, ITileDataSink sink, TileReader stale, boolean send) {
+        ITileCache cache = mTileSource.tileCache;
 
         QueryResult res = FAILED;
 
         TileWriter cacheWriter = null;
+        boolean received = false;
         try {
-            mConn.sendRequest(loadedTile);
+            if (send)
+                sendRequest(loadedTile, stale);
             InputStream is = mConn.read();
-            if (mUseCache) {
-                cacheWriter = cache.writeTile(loadedTile);
-                mConn.setCache(cacheWriter.getOutputStream());
+            received = true;
+            if (stale != null && ((HttpEngine.Conditional) mConn).isNotModified()) {
+                Metadata metadata = ((HttpEngine.Conditional) mConn).getMetadata();
+                cache.updateMetadata(loadedTile, stale.getMetadata().revalidated(metadata, System.currentTimeMillis()));
+                if (decodeCache(loadedTile, stale, sink))
+                    res = SUCCESS;
+            } else {
+                if (mUseCache && !(isConditional() && ((HttpEngine.Conditional) mConn).isNoStore())) {
+                    cacheWriter = mTileSource.getCacheCodec().wrap(cache.writeTile(loadedTile));
+                    if (isConditional())
+                        cacheWriter.setMetadata(((HttpEngine.Conditional) mConn).getMetadata());
+                    mConn.setCache(cacheWriter.getOutputStream());
+                }
+                if (mTileDecoder.decode(loadedTile, sink, is))
+                    res = SUCCESS;
             }
-            if (mTileDecoder.decode(loadedTile, sink, is))
-                res = SUCCESS;
         } catch (SocketException e) {
             log.debug("{} Socket Error: {}", loadedTile, e);
         } catch (SocketTimeoutException e) {
@@ -122,6 +250,10 @@ public class UrlTileDataSource implements ITileDataSource {
             if (cacheWriter != null)
                 cacheWriter.complete(ok);
 
+            /* stale-if-error */
+            if (!received && stale != null && decodeCache(loadedTile, stale, sink))
+                res = SUCCESS;
+
             sink.completed(res);
         }
     }
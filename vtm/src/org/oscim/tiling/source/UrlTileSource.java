@@ -21,6 +21,8 @@ package org.oscim.tiling.source;
 import org.oscim.core.Tile;
 import org.oscim.map.Viewport;
 import org.oscim.server.ServerDnsTiles;
+import org.oscim.server.ServerPool;
+import org.oscim.tiling.TileCacheCodec;
 import org.oscim.tiling.TileSource;
 import org.oscim.tiling.source.LwHttp.LwHttpFactory;
 
@@ -35,7 +37,10 @@ public abstract class UrlTileSource extends TileSource {
         protected String tilePath;
         protected String url;
         protected String fallbackUrl;
+        protected ServerPool serverPool;
         private HttpEngine.Factory engineFactory;
+        private boolean staleWhileRevalidate;
+        private TileCacheCodec cacheCodec = TileCacheCodec.NONE;
         private String keyName = "key";
         private String apiKey;
 
@@ -54,6 +59,7 @@ public abstract class UrlTileSource extends TileSource {
 
         protected Builder(ServerDnsTiles server, String tilePath) {
             this(server.getTilesUrl(), server.getTilesUrlFallback(), tilePath);
+            this.serverPool = server.createServerPool();
         }
 
         public T keyName(String keyName) {
@@ -76,11 +82,35 @@ public abstract class UrlTileSource extends TileSource {
             return self();
         }
 
+        /**
+         * Servers to route requests to, see {@link UrlTileSource#setServerPool(ServerPool)}.
+         */
+        public T serverPool(ServerPool serverPool) {
+            this.serverPool = serverPool;
+            return self();
+        }
+
         public T httpFactory(HttpEngine.Factory factory) {
             this.engineFactory = factory;
             return self();
         }
 
+        /**
+         * See {@link UrlTileSource#setStaleWhileRevalidate(boolean)}.
+         */
+        public T staleWhileRevalidate(boolean staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+            return self();
+        }
+
+        /**
+         * See {@link UrlTileSource#setCacheCodec(TileCacheCodec)}.
+         */
+        public T cacheCodec(TileCacheCodec cacheCodec) {
+            this.cacheCodec = cacheCodec;
+            return self();
+        }
+
     }
 
     public static final TileUrlFormatter URL_FORMATTER = new DefaultTileUrlFormatter();
@@ -90,6 +120,10 @@ public abstract class UrlTileSource extends TileSource {
     private final String[] mTilePath;
 
     private HttpEngine.Factory mHttpFactory;
+    private ServerPool mServerPool;
+    private boolean mStaleWhileRevalidate;
+    private TileRevalidator mRevalidator;
+    private TileCacheCodec mCacheCodec = TileCacheCodec.NONE;
     private Map<String, String> mRequestHeaders = Collections.emptyMap();
     private TileUrlFormatter mTileUrlFormatter = URL_FORMATTER;
     private String mKeyName = "key";
@@ -107,6 +141,10 @@ public abstract class UrlTileSource extends TileSource {
         mFallbackUrl = makeUrl(builder.fallbackUrl);
         mTilePath = builder.tilePath.split("\\{|\\}");
         mHttpFactory = builder.engineFactory;
+        mServerPool = builder.serverPool;
+        mStaleWhileRevalidate = builder.staleWhileRevalidate;
+        if (builder.cacheCodec != null)
+            mCacheCodec = builder.cacheCodec;
     }
 
     protected UrlTileSource(String urlString, String tilePath) {
@@ -185,8 +223,16 @@ public abstract class UrlTileSource extends TileSource {
     }
 
     public String getTileUrl(Tile tile, boolean useFallbackServer) {
+        return getTileUrl(tile, String.valueOf(useFallbackServer ? getFallbackUrl() : getUrl()));
+    }
+
+    /**
+     * @param serverUrl replaces the URL of the tile source, e.g. the URL of
+     *                  a {@link ServerPool.Endpoint}
+     */
+    public String getTileUrl(Tile tile, String serverUrl) {
         StringBuilder sb = new StringBuilder();
-        sb.append(useFallbackServer ? getFallbackUrl() : getUrl()).append(mTileUrlFormatter.formatTilePath(this, tile));
+        sb.append(serverUrl).append(mTileUrlFormatter.formatTilePath(this, tile));
         if (mApiKey != null) {
             sb.append("?").append(mKeyName).append("=").append(mApiKey);
         }
@@ -197,6 +243,57 @@ public abstract class UrlTileSource extends TileSource {
         mHttpFactory = httpFactory;
     }
 
+    /**
+     * Set servers equivalent to the URL of this tile source. Engines which
+     * support it, like {@link NioHttp}, route each request to the fastest
+     * healthy server and send hedged requests to slow ones.
+     */
+    public void setServerPool(ServerPool serverPool) {
+        mServerPool = serverPool;
+    }
+
+    public ServerPool getServerPool() {
+        return mServerPool;
+    }
+
+    /**
+     * Expired tiles of the cache are revalidated with a conditional request
+     * before they are used. With stale-while-revalidate they are used right
+     * away and revalidated in the background, the refreshed tile is used when
+     * it is loaded the next time.
+     * <p/>
+     * Needs a {@link HttpEngine.Conditional} engine like {@link NioHttp},
+     * with other engines cached tiles are used until they are removed.
+     */
+    public void setStaleWhileRevalidate(boolean staleWhileRevalidate) {
+        mStaleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public boolean isStaleWhileRevalidate() {
+        return mStaleWhileRevalidate;
+    }
+
+    /**
+     * Set the compression of tiles written to the cache, by default they are
+     * stored as received. Entries of other codecs are still read unless
+     * they need another dictionary.
+     */
+    public void setCacheCodec(TileCacheCodec cacheCodec) {
+        if (cacheCodec == null)
+            throw new IllegalArgumentException("cacheCodec cannot be null.");
+        mCacheCodec = cacheCodec;
+    }
+
+    public TileCacheCodec getCacheCodec() {
+        return mCacheCodec;
+    }
+
+    synchronized TileRevalidator getRevalidator() {
+        if (mRevalidator == null)
+            mRevalidator = new TileRevalidator(this);
+        return mRevalidator;
+    }
+
     public void setHttpRequestHeaders(Map<String, String> options) {
         mRequestHeaders = options;
     }
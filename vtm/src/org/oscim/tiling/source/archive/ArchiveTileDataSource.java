@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.oscim.backend.CanvasAdapter;
+import org.oscim.debug.Logger;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.source.ITileDecoder;
+import org.oscim.utils.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.oscim.tiling.QueryResult.FAILED;
+import static org.oscim.tiling.QueryResult.SUCCESS;
+import static org.oscim.tiling.QueryResult.TILE_NOT_FOUND;
+
+/**
+ * Passes tiles of a {@link TileArchive} to a decoder, or decodes them as
+ * bitmaps when there is none.
+ */
+public class ArchiveTileDataSource implements ITileDataSource {
+    private static final Logger log = new Logger(ArchiveTileDataSource.class);
+
+    private final TileArchive mArchive;
+    private final ITileDecoder mTileDecoder;
+
+    private long mReadCount;
+    private long mReadTime;
+
+    public ArchiveTileDataSource(TileArchive archive, ITileDecoder tileDecoder) {
+        mArchive = archive;
+        mTileDecoder = tileDecoder;
+    }
+
+    @Override
+    public void query(MapTile tile, ITileDataSink sink) {
+        QueryResult res = FAILED;
+        InputStream is = null;
+        try {
+            long start = System.nanoTime();
+            is = mArchive.getTile(tile.zoomLevel, tile.tileX, tile.tileY);
+            mReadTime += System.nanoTime() - start;
+            mReadCount++;
+
+            if (is == null) {
+                res = TILE_NOT_FOUND;
+            } else if (mTileDecoder == null) {
+                sink.setTileImage(CanvasAdapter.decodeBitmap(is));
+                res = SUCCESS;
+            } else if (mTileDecoder.decode(tile, sink, is)) {
+                res = SUCCESS;
+            }
+        } catch (IOException e) {
+            log.debug("{} Archive read: {}", tile, e);
+        } catch (Exception e) {
+            log.debug("{} Error: {}", tile, e);
+        } finally {
+            IOUtils.closeQuietly(is);
+            sink.completed(res);
+        }
+    }
+
+    /**
+     * @return number of tiles looked up in the archive
+     */
+    public long getReadCount() {
+        return mReadCount;
+    }
+
+    /**
+     * @return average time of looking up a tile in the archive in
+     * milliseconds, without decoding
+     */
+    public double getAverageReadTime() {
+        return mReadCount == 0 ? 0 : mReadTime / 1e6 / mReadCount;
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public void cancel() {
+    }
+}
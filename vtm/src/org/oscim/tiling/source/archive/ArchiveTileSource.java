@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.OverzoomTileDataSource;
+import org.oscim.tiling.TileSource;
+import org.oscim.tiling.source.ITileDecoder;
+import org.oscim.tiling.source.mvt.TileDecoder;
+import org.oscim.utils.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Tiles from a local PMTiles or MBTiles file, see {@link TileArchive}.
+ * Vector tiles are decoded as Mapbox vector tiles, other formats as
+ * bitmaps; override {@link #createTileDecoder()} for other vector formats.
+ * <p/>
+ * On open the zoom levels are taken from the archive, vector tiles beyond
+ * its maximum zoom level are over-zoomed.
+ */
+public class ArchiveTileSource extends TileSource {
+    private static final Logger log = new Logger(ArchiveTileSource.class);
+
+    private TileArchive mArchive;
+
+    public ArchiveTileSource() {
+    }
+
+    public boolean setArchiveFile(String filename) {
+        setOption("file", filename);
+
+        File file = new File(filename);
+        return file.isFile() && file.canRead();
+    }
+
+    @Override
+    public OpenResult open() {
+        if (!options.containsKey("file"))
+            return new OpenResult("no archive file set");
+
+        File file = new File(options.get("file"));
+        if (!file.isFile() || !file.canRead())
+            return new OpenResult("cannot read file: " + file);
+
+        try {
+            mArchive = TileArchive.open(file);
+        } catch (IOException e) {
+            log.error(e);
+            return new OpenResult(e.getMessage());
+        }
+
+        mZoomMin = mArchive.getZoomMin();
+        if (isVector())
+            mOverZoom = mArchive.getZoomMax();
+        else
+            mZoomMax = mArchive.getZoomMax();
+        return OpenResult.SUCCESS;
+    }
+
+    private boolean isVector() {
+        return TileArchive.FORMAT_PBF.equals(mArchive.getFormat());
+    }
+
+    /**
+     * @return the decoder for the tiles, one per data source, or null for
+     * bitmap tiles
+     */
+    protected ITileDecoder createTileDecoder() {
+        if (isVector())
+            return new TileDecoder();
+        return null;
+    }
+
+    @Override
+    public ITileDataSource getDataSource() {
+        ITileDecoder decoder = createTileDecoder();
+        ArchiveTileDataSource dataSource = new ArchiveTileDataSource(mArchive, decoder);
+        if (decoder == null)
+            return dataSource;
+        return new OverzoomTileDataSource(dataSource, mOverZoom);
+    }
+
+    @Override
+    public void close() {
+        IOUtils.closeQuietly(mArchive);
+        mArchive = null;
+    }
+
+    public TileArchive getArchive() {
+        return mArchive;
+    }
+
+    public BoundingBox getBounds() {
+        return mArchive != null ? mArchive.getBounds() : null;
+    }
+}
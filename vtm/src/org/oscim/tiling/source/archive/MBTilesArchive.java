@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.debug.Logger;
+import org.oscim.map.Viewport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads MBTiles databases with {@link SQLiteFile}, i.e. without a native
+ * SQLite library. Besides the plain 'tiles' table the deduplicated layout
+ * is supported, where the 'map' table refers to shared tiles in 'images'
+ * by their tile_id.
+ * <p/>
+ * Tiles are looked up through the unique indexes these layouts define.
+ * Without an index the table is scanned once when the first tile is read.
+ */
+public class MBTilesArchive extends TileArchive {
+    private static final Logger log = new Logger(MBTilesArchive.class);
+
+    private final SQLiteFile mDb;
+    private final Map<String, String> mMetadata = new HashMap<>();
+
+    /* 'tiles' or 'map' */
+    private final SQLiteFile.Table mTiles;
+    private final SQLiteFile.Index mTileIndex;
+    /* tile_data of 'tiles' or tile_id of 'map' */
+    private final int mTileColumn;
+
+    /* 'images' of the deduplicated layout, null otherwise */
+    private final SQLiteFile.Table mImages;
+    private final SQLiteFile.Index mImageIndex;
+    private final int mImageDataColumn;
+
+    /* rowids by tile key or tile_id when there is no index */
+    private HashMap<Long, Long> mTileRows;
+    private HashMap<Object, Long> mImageRows;
+
+    public MBTilesArchive(File file) throws IOException {
+        mDb = new SQLiteFile(file);
+        try {
+            SQLiteFile.Table metadata = mDb.getTable("metadata");
+            if (metadata != null) {
+                final int name = metadata.column("name");
+                final int value = metadata.column("value");
+                if (name >= 0 && value >= 0) {
+                    mDb.scan(metadata, new SQLiteFile.RowHandler() {
+                        @Override
+                        public void row(long rowid, Object[] values) {
+                            if (values[name] != null && values[value] != null)
+                                mMetadata.put(values[name].toString(), values[value].toString());
+                        }
+                    });
+                }
+            }
+
+            SQLiteFile.Table tiles = mDb.getTable("tiles");
+            if (tiles != null) {
+                mTiles = tiles;
+                mTileColumn = tiles.column("tile_data");
+                mImages = null;
+                mImageIndex = null;
+                mImageDataColumn = -1;
+            } else {
+                mTiles = mDb.getTable("map");
+                mImages = mDb.getTable("images");
+                if (mTiles == null || mImages == null)
+                    throw new IOException("no tiles table: " + file);
+                mTileColumn = mTiles.column("tile_id");
+                mImageIndex = mDb.getIndex(mImages, "tile_id");
+                mImageDataColumn = mImages.column("tile_data");
+                if (mImageDataColumn < 0 || mImages.column("tile_id") < 0)
+                    throw new IOException("invalid images table: " + file);
+            }
+            if (mTileColumn < 0 || mTiles.column("zoom_level") < 0
+                    || mTiles.column("tile_column") < 0 || mTiles.column("tile_row") < 0)
+                throw new IOException("invalid " + mTiles.name + " table: " + file);
+
+            mTileIndex = mDb.getIndex(mTiles, "zoom_level", "tile_column", "tile_row");
+        } catch (IOException e) {
+            mDb.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public InputStream getTile(int zoomLevel, int x, int y) throws IOException {
+        if (zoomLevel < 0 || zoomLevel > 30)
+            return null;
+
+        /* rows are counted from the bottom (TMS) */
+        long row = (1L << zoomLevel) - 1 - y;
+        long rowid;
+        if (mTileIndex != null)
+            rowid = mDb.find(mTileIndex, new Object[]{(long) zoomLevel, (long) x, row});
+        else
+            rowid = findTileRow(zoomLevel, x, row);
+        if (rowid < 0)
+            return null;
+
+        Object[] values = mDb.get(mTiles, rowid);
+        if (values == null)
+            return null;
+        Object data = values[mTileColumn];
+
+        if (mImages != null && data != null) {
+            if (mImageIndex != null)
+                rowid = mDb.find(mImageIndex, new Object[]{data});
+            else
+                rowid = findImageRow(data);
+            if (rowid < 0)
+                return null;
+            values = mDb.get(mImages, rowid);
+            if (values == null)
+                return null;
+            data = values[mImageDataColumn];
+        }
+
+        if (!(data instanceof byte[]))
+            return null;
+        return tileStream(ByteBuffer.wrap((byte[]) data));
+    }
+
+    private static long key(long zoomLevel, long x, long y) {
+        return (zoomLevel << 58) | (x << 29) | y;
+    }
+
+    private synchronized long findTileRow(int zoomLevel, int x, long y) throws IOException {
+        if (mTileRows == null) {
+            log.debug("no index on " + mTiles.name + ", scanning");
+            final HashMap<Long, Long> rows = new HashMap<>();
+            final int z = mTiles.column("zoom_level");
+            final int c = mTiles.column("tile_column");
+            final int r = mTiles.column("tile_row");
+            mDb.scan(mTiles, new SQLiteFile.RowHandler() {
+                @Override
+                public void row(long rowid, Object[] values) {
+                    if (values[z] instanceof Long && values[c] instanceof Long && values[r] instanceof Long)
+                        rows.put(key((Long) values[z], (Long) values[c], (Long) values[r]), rowid);
+                }
+            });
+            mTileRows = rows;
+        }
+        Long rowid = mTileRows.get(key(zoomLevel, x, y));
+        return rowid == null ? -1 : rowid;
+    }
+
+    private synchronized long findImageRow(Object tileId) throws IOException {
+        if (mImageRows == null) {
+            log.debug("no index on " + mImages.name + ", scanning");
+            final HashMap<Object, Long> rows = new HashMap<>();
+            final int id = mImages.column("tile_id");
+            mDb.scan(mImages, new SQLiteFile.RowHandler() {
+                @Override
+                public void row(long rowid, Object[] values) {
+                    if (values[id] != null)
+                        rows.put(values[id], rowid);
+                }
+            });
+            mImageRows = rows;
+        }
+        Long rowid = mImageRows.get(tileId);
+        return rowid == null ? -1 : rowid;
+    }
+
+    /**
+     * @return a value of the metadata table or null
+     */
+    public String getMetadata(String name) {
+        return mMetadata.get(name);
+    }
+
+    @Override
+    public String getFormat() {
+        String format = mMetadata.get("format");
+        if ("jpeg".equals(format))
+            return FORMAT_JPG;
+        return format;
+    }
+
+    @Override
+    public int getZoomMin() {
+        return parseZoom(mMetadata.get("minzoom"), Viewport.MIN_ZOOM_LEVEL);
+    }
+
+    @Override
+    public int getZoomMax() {
+        return parseZoom(mMetadata.get("maxzoom"), Viewport.MAX_ZOOM_LEVEL);
+    }
+
+    /**
+     * @return the zoom level of a metadata value, the default when it is
+     * missing or no number
+     */
+    static int parseZoom(String zoom, int defaultZoom) {
+        if (zoom == null)
+            return defaultZoom;
+        try {
+            return Integer.parseInt(zoom.trim());
+        } catch (NumberFormatException e) {
+            log.warn("invalid zoom level: " + zoom);
+            return defaultZoom;
+        }
+    }
+
+    @Override
+    public BoundingBox getBounds() {
+        String bounds = mMetadata.get("bounds");
+        if (bounds != null) {
+            String[] split = bounds.split(",");
+            if (split.length == 4) {
+                double w = Double.parseDouble(split[0].trim());
+                double s = Double.parseDouble(split[1].trim());
+                double e = Double.parseDouble(split[2].trim());
+                double n = Double.parseDouble(split[3].trim());
+                return new BoundingBox(s, w, n, e);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mDb.close();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only file mapped into memory. Files larger than one mapping are
+ * mapped in segments which overlap by {@link #MAX_READ} bytes, so every
+ * range up to that length lies within one segment.
+ * <p/>
+ * Reads do not change the state of the mappings and may run concurrently.
+ */
+final class MappedFile implements Closeable {
+
+    /**
+     * Maximum length of a range returned by {@link #get(long, int)}.
+     */
+    static final int MAX_READ = 1 << 24;
+
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final RandomAccessFile mFile;
+    private final MappedByteBuffer[] mSegments;
+    private final long mSize;
+
+    MappedFile(File file) throws IOException {
+        mFile = new RandomAccessFile(file, "r");
+        try {
+            mSize = mFile.length();
+            FileChannel channel = mFile.getChannel();
+            int n = (int) ((mSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+            mSegments = new MappedByteBuffer[Math.max(n, 1)];
+            for (int i = 0; i < mSegments.length; i++) {
+                long start = i * SEGMENT_SIZE;
+                long size = Math.min(mSize - start, SEGMENT_SIZE + MAX_READ);
+                mSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            }
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    long size() {
+        return mSize;
+    }
+
+    /**
+     * @return a view of the range, position 0 and limit length. The byte
+     * order is big endian.
+     */
+    ByteBuffer get(long offset, int length) throws IOException {
+        if (offset < 0 || length < 0 || offset + length > mSize)
+            throw new IOException("range out of file: " + offset + "+" + length);
+        if (length > MAX_READ)
+            throw new IOException("range too large: " + length);
+
+        ByteBuffer buf = mSegments[(int) (offset / SEGMENT_SIZE)].duplicate();
+        int pos = (int) (offset % SEGMENT_SIZE);
+        buf.limit(pos + length);
+        buf.position(pos);
+        return buf.slice();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.utils.LRUCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads PMTiles (version 3) archives. Tiles are addressed by their position
+ * on a Hilbert curve per zoom level, so neighbouring tiles are close in the
+ * file and in the directories. A directory entry covers a run of tiles with
+ * the same content, i.e. repeated tiles like ocean are stored once.
+ * <p/>
+ * The file is memory-mapped: the root directory is decoded on open, leaf
+ * directories when needed and kept in a cache. Uncompressed tiles are read
+ * straight from the mapping.
+ */
+public class PMTilesArchive extends TileArchive {
+
+    static final String MAGIC = "PMTiles";
+
+    static final int HEADER_SIZE = 127;
+    static final int VERSION = 3;
+
+    static final int COMPRESSION_UNKNOWN = 0;
+    static final int COMPRESSION_NONE = 1;
+    static final int COMPRESSION_GZIP = 2;
+
+    static final int TYPE_MVT = 1;
+    static final int TYPE_PNG = 2;
+    static final int TYPE_JPEG = 3;
+    static final int TYPE_WEBP = 4;
+
+    /**
+     * Number of decoded leaf directories kept in memory.
+     */
+    public static int LEAF_CACHE_SIZE = 64;
+
+    /* root and up to three levels of leaves */
+    private static final int MAX_DEPTH = 4;
+
+    /**
+     * Entries of a directory, ordered by tile id. Entries with run length 0
+     * point to a leaf directory covering the tiles from their tile id up to
+     * the next entry.
+     */
+    static final class Directory {
+        final long[] tileIds;
+        final int[] runLengths;
+        final long[] offsets;
+        final int[] lengths;
+
+        Directory(int size) {
+            tileIds = new long[size];
+            runLengths = new int[size];
+            offsets = new long[size];
+            lengths = new int[size];
+        }
+
+        /**
+         * @return the entry containing the tile or the leaf to look in,
+         * -1 when there is none
+         */
+        int find(long tileId) {
+            int lo = 0, hi = tileIds.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                long id = tileIds[mid];
+                if (id < tileId)
+                    lo = mid + 1;
+                else if (id > tileId)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            /* hi is the last entry before the tile */
+            if (hi < 0)
+                return -1;
+            if (runLengths[hi] == 0 || tileId - tileIds[hi] < runLengths[hi])
+                return hi;
+            return -1;
+        }
+    }
+
+    private final MappedFile mFile;
+    private final Directory mRoot;
+    private final LRUCache<Long, Directory> mLeaves;
+
+    private final long mLeafDirsOffset;
+    private final long mTileDataOffset;
+    private final int mInternalCompression;
+    private final int mTileCompression;
+    private final int mTileType;
+    private final int mZoomMin;
+    private final int mZoomMax;
+    private final BoundingBox mBounds;
+
+    public PMTilesArchive(File file) throws IOException {
+        mFile = new MappedFile(file);
+        try {
+            ByteBuffer h = mFile.get(0, HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (h.get(7) != VERSION)
+                throw new IOException("unsupported PMTiles version: " + h.get(7));
+
+            long rootOffset = h.getLong(8);
+            long rootLength = h.getLong(16);
+            mLeafDirsOffset = h.getLong(40);
+            mTileDataOffset = h.getLong(56);
+            mInternalCompression = h.get(97);
+            mTileCompression = h.get(98);
+            mTileType = h.get(99);
+            mZoomMin = h.get(100) & 0xff;
+            mZoomMax = h.get(101) & 0xff;
+            mBounds = new BoundingBox(h.getInt(106) / 1e7, h.getInt(102) / 1e7,
+                    h.getInt(114) / 1e7, h.getInt(110) / 1e7);
+
+            checkCompression(mInternalCompression);
+            checkCompression(mTileCompression);
+
+            mRoot = readDirectory(rootOffset, (int) rootLength);
+            mLeaves = new LRUCache<>(LEAF_CACHE_SIZE);
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    private static void checkCompression(int compression) throws IOException {
+        if (compression != COMPRESSION_UNKNOWN
+                && compression != COMPRESSION_NONE
+                && compression != COMPRESSION_GZIP)
+            throw new IOException("unsupported compression: " + compression);
+    }
+
+    /**
+     * @return the position of the tile on the Hilbert curves of all zoom
+     * levels up to its own
+     */
+    public static long getTileId(int zoomLevel, int x, int y) {
+        if (zoomLevel == 0)
+            return 0;
+
+        /* tiles on the lower zoom levels */
+        long acc = ((1L << (2 * zoomLevel)) - 1) / 3;
+        long d = 0;
+        for (int s = 1 << (zoomLevel - 1); s > 0; s >>= 1) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            d += (long) s * s * ((3 * rx) ^ ry);
+
+            /* rotate the quadrant */
+            x &= s - 1;
+            y &= s - 1;
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = s - 1 - x;
+                    y = s - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return acc + d;
+    }
+
+    @Override
+    public InputStream getTile(int zoomLevel, int x, int y) throws IOException {
+        if (zoomLevel < mZoomMin || zoomLevel > mZoomMax || zoomLevel > 30)
+            return null;
+        int n = 1 << zoomLevel;
+        if (x < 0 || y < 0 || x >= n || y >= n)
+            return null;
+
+        long tileId = getTileId(zoomLevel, x, y);
+        Directory dir = mRoot;
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            int i = dir.find(tileId);
+            if (i < 0)
+                return null;
+
+            if (dir.runLengths[i] > 0) {
+                ByteBuffer data = mFile.get(mTileDataOffset + dir.offsets[i], dir.lengths[i]);
+                if (mTileCompression == COMPRESSION_NONE)
+                    return new ByteBufferInputStream(data);
+                return tileStream(data);
+            }
+            dir = getLeaf(dir.offsets[i], dir.lengths[i]);
+        }
+        return null;
+    }
+
+    private Directory getLeaf(long offset, int length) throws IOException {
+        Long key = offset;
+        synchronized (mLeaves) {
+            Directory dir = mLeaves.get(key);
+            if (dir != null)
+                return dir;
+        }
+        /* may be read twice by concurrent loaders, but without blocking */
+        Directory dir = readDirectory(mLeafDirsOffset + offset, length);
+        synchronized (mLeaves) {
+            mLeaves.put(key, dir);
+        }
+        return dir;
+    }
+
+    private Directory readDirectory(long offset, int length) throws IOException {
+        InputStream is = new ByteBufferInputStream(mFile.get(offset, length));
+        if (mInternalCompression == COMPRESSION_GZIP)
+            is = new GZIPInputStream(is);
+        try {
+            int size = (int) readVarint(is);
+            Directory dir = new Directory(size);
+
+            long tileId = 0;
+            for (int i = 0; i < size; i++) {
+                tileId += readVarint(is);
+                dir.tileIds[i] = tileId;
+            }
+            for (int i = 0; i < size; i++)
+                dir.runLengths[i] = (int) readVarint(is);
+            for (int i = 0; i < size; i++)
+                dir.lengths[i] = (int) readVarint(is);
+            for (int i = 0; i < size; i++) {
+                long v = readVarint(is);
+                /* 0: directly after the previous entry */
+                if (v == 0 && i > 0)
+                    dir.offsets[i] = dir.offsets[i - 1] + dir.lengths[i - 1];
+                else
+                    dir.offsets[i] = v - 1;
+            }
+            return dir;
+        } finally {
+            is.close();
+        }
+    }
+
+    private static long readVarint(InputStream is) throws IOException {
+        long val = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = is.read();
+            if (b < 0)
+                throw new IOException("truncated directory");
+            val |= (long) (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return val;
+        }
+        throw new IOException("invalid varint");
+    }
+
+    @Override
+    public String getFormat() {
+        switch (mTileType) {
+            case TYPE_MVT:
+                return FORMAT_PBF;
+            case TYPE_PNG:
+                return FORMAT_PNG;
+            case TYPE_JPEG:
+                return FORMAT_JPG;
+            case TYPE_WEBP:
+                return FORMAT_WEBP;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public int getZoomMin() {
+        return mZoomMin;
+    }
+
+    @Override
+    public int getZoomMax() {
+        return mZoomMax;
+    }
+
+    @Override
+    public BoundingBox getBounds() {
+        return mBounds;
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
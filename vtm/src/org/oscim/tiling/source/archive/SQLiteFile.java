@@ -0,0 +1,520 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal read-only access to SQLite database files, enough to read MBTiles
+ * without a native library: rows are looked up by rowid or through an
+ * index, or scanned. There is no SQL, views are not resolved and tables
+ * WITHOUT ROWID are not supported. Text must be UTF-8 encoded.
+ * <p/>
+ * Values are returned as Long, Double, String, byte[] or null.
+ */
+final class SQLiteFile implements Closeable {
+
+    static final String MAGIC = "SQLite format 3";
+
+    private static final int INDEX_INTERIOR = 2;
+    private static final int TABLE_INTERIOR = 5;
+    private static final int INDEX_LEAF = 10;
+    private static final int TABLE_LEAF = 13;
+
+    /* guards against cycles in corrupt files */
+    private static final int MAX_DEPTH = 64;
+
+    static final class Table {
+        final String name;
+        final int rootPage;
+        final String[] columns;
+        /* column which is an alias for the rowid, -1 if none */
+        final int rowidColumn;
+
+        Table(String name, int rootPage, String[] columns, int rowidColumn) {
+            this.name = name;
+            this.rootPage = rootPage;
+            this.columns = columns;
+            this.rowidColumn = rowidColumn;
+        }
+
+        int column(String column) {
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i].equalsIgnoreCase(column))
+                    return i;
+            }
+            return -1;
+        }
+    }
+
+    static final class Index {
+        final String name;
+        final String table;
+        final int rootPage;
+        final String[] columns;
+
+        Index(String name, String table, int rootPage, String[] columns) {
+            this.name = name;
+            this.table = table;
+            this.rootPage = rootPage;
+            this.columns = columns;
+        }
+    }
+
+    interface RowHandler {
+        void row(long rowid, Object[] values) throws IOException;
+    }
+
+    private final MappedFile mFile;
+    private final int mPageSize;
+    private final int mUsableSize;
+
+    private final HashMap<String, Table> mTables = new HashMap<>();
+    private final List<Index> mIndexes = new ArrayList<>();
+
+    SQLiteFile(File file) throws IOException {
+        mFile = new MappedFile(file);
+        try {
+            if (mFile.size() < 100)
+                throw new IOException("not a database: " + file);
+            ByteBuffer h = mFile.get(0, 100);
+            int pageSize = h.getShort(16) & 0xffff;
+            mPageSize = pageSize == 1 ? 65536 : pageSize;
+            mUsableSize = mPageSize - (h.get(20) & 0xff);
+            int encoding = h.getInt(56);
+            if (encoding > 1)
+                throw new IOException("unsupported text encoding: " + encoding);
+
+            readSchema();
+        } catch (IOException e) {
+            mFile.close();
+            throw e;
+        }
+    }
+
+    private void readSchema() throws IOException {
+        Table master = new Table("sqlite_master", 1,
+                new String[]{"type", "name", "tbl_name", "rootpage", "sql"}, -1);
+
+        scan(master, new RowHandler() {
+            @Override
+            public void row(long rowid, Object[] values) {
+                String sql = (String) values[4];
+                if (sql == null || !(values[3] instanceof Long))
+                    return;
+                String name = (String) values[1];
+                int rootPage = ((Long) values[3]).intValue();
+
+                if ("table".equals(values[0])) {
+                    if (sql.toUpperCase(Locale.ROOT).matches("(?s).*\\)\\s*WITHOUT\\s+ROWID.*"))
+                        return;
+                    List<String> defs = parseDefinitions(sql);
+                    List<String> columns = new ArrayList<>();
+                    int rowidColumn = -1;
+                    for (String def : defs) {
+                        String column = firstToken(def);
+                        if (column.isEmpty() || isConstraint(column))
+                            continue;
+                        String d = def.toUpperCase(Locale.ROOT).replaceAll("\\s+", " ");
+                        if (d.matches("\\S+ INTEGER PRIMARY KEY( ASC)?( AUTOINCREMENT)?.*"))
+                            rowidColumn = columns.size();
+                        columns.add(column);
+                    }
+                    mTables.put(name.toLowerCase(Locale.ROOT), new Table(name, rootPage,
+                            columns.toArray(new String[columns.size()]), rowidColumn));
+                } else if ("index".equals(values[0])) {
+                    List<String> columns = new ArrayList<>();
+                    for (String def : parseDefinitions(sql))
+                        columns.add(firstToken(def));
+                    mIndexes.add(new Index(name, (String) values[2], rootPage,
+                            columns.toArray(new String[columns.size()])));
+                }
+            }
+        });
+    }
+
+    private static boolean isConstraint(String token) {
+        String t = token.toUpperCase(Locale.ROOT);
+        return t.equals("CONSTRAINT") || t.equals("PRIMARY") || t.equals("UNIQUE")
+                || t.equals("CHECK") || t.equals("FOREIGN");
+    }
+
+    /**
+     * @return the comma separated parts within the outer parentheses
+     */
+    static List<String> parseDefinitions(String sql) {
+        List<String> defs = new ArrayList<>();
+        int start = sql.indexOf('(');
+        if (start < 0)
+            return defs;
+
+        int depth = 0;
+        char quote = 0;
+        StringBuilder sb = new StringBuilder();
+        for (int i = start + 1; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote)
+                    quote = 0;
+            } else if (c == '"' || c == '\'' || c == '`') {
+                quote = c;
+            } else if (c == '[') {
+                quote = ']';
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth-- == 0)
+                    break;
+            } else if (c == ',' && depth == 0) {
+                defs.add(sb.toString().trim());
+                sb.setLength(0);
+                continue;
+            }
+            sb.append(c);
+        }
+        defs.add(sb.toString().trim());
+        return defs;
+    }
+
+    /**
+     * @return the first word of a definition, without quotes
+     */
+    static String firstToken(String def) {
+        if (def.isEmpty())
+            return def;
+        char c = def.charAt(0);
+        char close = c == '[' ? ']' : c;
+        if (c == '"' || c == '\'' || c == '`' || c == '[') {
+            int end = def.indexOf(close, 1);
+            return def.substring(1, end < 0 ? def.length() : end);
+        }
+        int end = 0;
+        while (end < def.length() && !Character.isWhitespace(def.charAt(end))
+                && def.charAt(end) != '(')
+            end++;
+        return def.substring(0, end);
+    }
+
+    /**
+     * @return the table or null if it does not exist or is a view
+     */
+    Table getTable(String name) {
+        return mTables.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return an index of the table starting with the columns, null if
+     * there is none
+     */
+    Index getIndex(Table table, String... columns) {
+        for (Index index : mIndexes) {
+            if (!index.table.equalsIgnoreCase(table.name) || index.columns.length < columns.length)
+                continue;
+            boolean match = true;
+            for (int i = 0; i < columns.length && match; i++)
+                match = index.columns[i].equalsIgnoreCase(columns[i]);
+            if (match)
+                return index;
+        }
+        return null;
+    }
+
+    private ByteBuffer page(int pageNo) throws IOException {
+        if (pageNo < 1)
+            throw new IOException("invalid page: " + pageNo);
+        return mFile.get((long) (pageNo - 1) * mPageSize, mPageSize);
+    }
+
+    /**
+     * @return the row or null if the table has no row with the rowid
+     */
+    Object[] get(Table table, long rowid) throws IOException {
+        int pageNo = table.rootPage;
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            ByteBuffer page = page(pageNo);
+            int hdr = pageNo == 1 ? 100 : 0;
+            int type = page.get(hdr);
+            int cells = page.getShort(hdr + 3) & 0xffff;
+
+            if (type == TABLE_INTERIOR) {
+                /* first cell with a key >= rowid */
+                int lo = 0, hi = cells;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    page.position(cell(page, hdr + 12, mid) + 4);
+                    if (varint(page) < rowid)
+                        lo = mid + 1;
+                    else
+                        hi = mid;
+                }
+                pageNo = lo < cells ? page.getInt(cell(page, hdr + 12, lo)) : page.getInt(hdr + 8);
+            } else if (type == TABLE_LEAF) {
+                int lo = 0, hi = cells - 1;
+                while (lo <= hi) {
+                    int mid = (lo + hi) >>> 1;
+                    page.position(cell(page, hdr + 8, mid));
+                    long size = varint(page);
+                    long key = varint(page);
+                    if (key < rowid)
+                        lo = mid + 1;
+                    else if (key > rowid)
+                        hi = mid - 1;
+                    else
+                        return record(table, key, payload(page, size, false));
+                }
+                return null;
+            } else {
+                throw new IOException("invalid table page: " + pageNo);
+            }
+        }
+        throw new IOException("invalid table: " + table.name);
+    }
+
+    /**
+     * @param key values of the first columns of the index
+     * @return the rowid of the first entry matching the key, -1 if none
+     */
+    long find(Index index, Object[] key) throws IOException {
+        int pageNo = index.rootPage;
+        for (int depth = 0; depth < MAX_DEPTH; depth++) {
+            ByteBuffer page = page(pageNo);
+            int hdr = pageNo == 1 ? 100 : 0;
+            int type = page.get(hdr);
+            int cells = page.getShort(hdr + 3) & 0xffff;
+            boolean interior = type == INDEX_INTERIOR;
+            if (!interior && type != INDEX_LEAF)
+                throw new IOException("invalid index page: " + pageNo);
+
+            int cellPtr = hdr + (interior ? 12 : 8);
+            int lo = 0, hi = cells;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                page.position(cell(page, cellPtr, mid) + (interior ? 4 : 0));
+                long size = varint(page);
+                Object[] entry = decodeRecord(payload(page, size, true));
+                int c = compare(key, entry);
+                if (c == 0) {
+                    Object rowid = entry[entry.length - 1];
+                    return rowid instanceof Long ? (Long) rowid : -1;
+                }
+                if (c < 0)
+                    hi = mid;
+                else
+                    lo = mid + 1;
+            }
+            if (!interior)
+                return -1;
+            pageNo = lo < cells ? page.getInt(cell(page, cellPtr, lo)) : page.getInt(hdr + 8);
+        }
+        throw new IOException("invalid index: " + index.name);
+    }
+
+    /**
+     * Pass all rows of the table to the handler, ordered by rowid.
+     */
+    void scan(Table table, RowHandler handler) throws IOException {
+        scan(table, table.rootPage, handler, 0);
+    }
+
+    private void scan(Table table, int pageNo, RowHandler handler, int depth) throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("invalid table: " + table.name);
+
+        ByteBuffer page = page(pageNo);
+        int hdr = pageNo == 1 ? 100 : 0;
+        int type = page.get(hdr);
+        int cells = page.getShort(hdr + 3) & 0xffff;
+
+        if (type == TABLE_INTERIOR) {
+            for (int i = 0; i < cells; i++)
+                scan(table, page.getInt(cell(page, hdr + 12, i)), handler, depth + 1);
+            scan(table, page.getInt(hdr + 8), handler, depth + 1);
+        } else if (type == TABLE_LEAF) {
+            for (int i = 0; i < cells; i++) {
+                page.position(cell(page, hdr + 8, i));
+                long size = varint(page);
+                long rowid = varint(page);
+                handler.row(rowid, record(table, rowid, payload(page, size, false)));
+            }
+        } else {
+            throw new IOException("invalid table page: " + pageNo);
+        }
+    }
+
+    private static int cell(ByteBuffer page, int cellPtr, int i) {
+        return page.getShort(cellPtr + 2 * i) & 0xffff;
+    }
+
+    /**
+     * Read the payload of the cell at the position of the page, following
+     * overflow pages.
+     */
+    private byte[] payload(ByteBuffer page, long size, boolean index) throws IOException {
+        int u = mUsableSize;
+        if (size < 0 || size > Integer.MAX_VALUE)
+            throw new IOException("invalid payload size: " + size);
+
+        int maxLocal = index ? (u - 12) * 64 / 255 - 23 : u - 35;
+        int local = (int) size;
+        if (size > maxLocal) {
+            int minLocal = (u - 12) * 32 / 255 - 23;
+            int k = minLocal + (int) ((size - minLocal) % (u - 4));
+            local = k <= maxLocal ? k : minLocal;
+        }
+
+        byte[] data = new byte[(int) size];
+        page.get(data, 0, local);
+
+        int pos = local;
+        int next = pos < size ? page.getInt() : 0;
+        while (pos < size) {
+            if (next == 0)
+                throw new IOException("truncated payload");
+            ByteBuffer overflow = page(next);
+            next = overflow.getInt();
+            int n = Math.min(u - 4, data.length - pos);
+            overflow.get(data, pos, n);
+            pos += n;
+        }
+        return data;
+    }
+
+    private static Object[] record(Table table, long rowid, byte[] payload) throws IOException {
+        Object[] values = decodeRecord(payload);
+        /* columns added later are missing in older rows */
+        if (values.length < table.columns.length) {
+            Object[] v = new Object[table.columns.length];
+            System.arraycopy(values, 0, v, 0, values.length);
+            values = v;
+        }
+        if (table.rowidColumn >= 0)
+            values[table.rowidColumn] = rowid;
+        return values;
+    }
+
+    static Object[] decodeRecord(byte[] payload) throws IOException {
+        ByteBuffer b = ByteBuffer.wrap(payload);
+        int headerSize = (int) varint(b);
+        List<Long> types = new ArrayList<>();
+        while (b.position() < headerSize)
+            types.add(varint(b));
+
+        Object[] values = new Object[types.size()];
+        int pos = headerSize;
+        for (int i = 0; i < values.length; i++) {
+            long type = types.get(i);
+            if (type == 0) {
+                values[i] = null;
+            } else if (type <= 6) {
+                int n = type <= 4 ? (int) type : type == 5 ? 6 : 8;
+                long v = payload[pos];
+                for (int j = 1; j < n; j++)
+                    v = (v << 8) | (payload[pos + j] & 0xff);
+                values[i] = v;
+                pos += n;
+            } else if (type == 7) {
+                values[i] = Double.longBitsToDouble(b.getLong(pos));
+                pos += 8;
+            } else if (type == 8 || type == 9) {
+                values[i] = type - 8;
+            } else if (type >= 12) {
+                int n = (int) ((type - 12) / 2);
+                if (pos + n > payload.length)
+                    throw new IOException("invalid record");
+                if ((type & 1) == 0) {
+                    byte[] blob = new byte[n];
+                    System.arraycopy(payload, pos, blob, 0, n);
+                    values[i] = blob;
+                } else {
+                    values[i] = new String(payload, pos, n, TileArchive.UTF8);
+                }
+                pos += n;
+            } else {
+                throw new IOException("invalid serial type: " + type);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Compare the key with the first values of an index entry.
+     */
+    static int compare(Object[] key, Object[] entry) {
+        for (int i = 0; i < key.length && i < entry.length; i++) {
+            int c = compareValues(key[i], entry[i]);
+            if (c != 0)
+                return c;
+        }
+        return 0;
+    }
+
+    private static int rank(Object v) {
+        if (v == null)
+            return 0;
+        if (v instanceof Number)
+            return 1;
+        if (v instanceof String)
+            return 2;
+        return 3;
+    }
+
+    private static int compareValues(Object a, Object b) {
+        int ra = rank(a), rb = rank(b);
+        if (ra != rb)
+            return ra < rb ? -1 : 1;
+
+        switch (ra) {
+            case 1:
+                if (a instanceof Long && b instanceof Long)
+                    return Long.compare((Long) a, (Long) b);
+                return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+            case 2:
+                return ((String) a).compareTo((String) b);
+            case 3:
+                byte[] x = (byte[]) a, y = (byte[]) b;
+                for (int i = 0; i < x.length && i < y.length; i++) {
+                    int c = (x[i] & 0xff) - (y[i] & 0xff);
+                    if (c != 0)
+                        return c;
+                }
+                return x.length - y.length;
+            default:
+                return 0;
+        }
+    }
+
+    private static long varint(ByteBuffer b) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            int c = b.get() & 0xff;
+            v = (v << 7) | (c & 0x7f);
+            if (c < 0x80)
+                return v;
+        }
+        return (v << 8) | (b.get() & 0xff);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+}
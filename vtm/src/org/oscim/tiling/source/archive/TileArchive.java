@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.archive;
+
+import org.oscim.core.BoundingBox;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Tiles stored in a single local file. Implementations must allow
+ * concurrent reads.
+ */
+public abstract class TileArchive implements Closeable {
+
+    /**
+     * Tile formats, as named in the MBTiles metadata.
+     */
+    public static final String FORMAT_PBF = "pbf";
+    public static final String FORMAT_PNG = "png";
+    public static final String FORMAT_JPG = "jpg";
+    public static final String FORMAT_WEBP = "webp";
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Open a PMTiles or MBTiles file, depending on its first bytes.
+     */
+    public static TileArchive open(File file) throws IOException {
+        byte[] magic = new byte[16];
+        InputStream is = new FileInputStream(file);
+        try {
+            int n = 0;
+            while (n < magic.length) {
+                int r = is.read(magic, n, magic.length - n);
+                if (r < 0)
+                    break;
+                n += r;
+            }
+        } finally {
+            is.close();
+        }
+
+        String s = new String(magic, 0, 16, UTF8);
+        if (s.startsWith(PMTilesArchive.MAGIC))
+            return new PMTilesArchive(file);
+        if (s.startsWith(SQLiteFile.MAGIC))
+            return new MBTilesArchive(file);
+
+        throw new IOException("unknown archive format: " + file);
+    }
+
+    /**
+     * @param y tile row from the top, as in {@link org.oscim.core.Tile}
+     * @return the tile data, uncompressed, or null when the archive does
+     * not contain the tile
+     */
+    public abstract InputStream getTile(int zoomLevel, int x, int y) throws IOException;
+
+    /**
+     * @return one of the FORMAT constants or null when not known
+     */
+    public abstract String getFormat();
+
+    public abstract int getZoomMin();
+
+    public abstract int getZoomMax();
+
+    /**
+     * @return the bounds of the tiles or null when not known
+     */
+    public abstract BoundingBox getBounds();
+
+    /**
+     * @return a stream of the data, decompressed when it starts with the
+     * gzip magic bytes, as vector tiles are usually stored
+     */
+    static InputStream tileStream(ByteBuffer data) throws IOException {
+        InputStream is = new ByteBufferInputStream(data);
+        int pos = data.position();
+        if (data.remaining() >= 2 && data.get(pos) == (byte) 0x1f && data.get(pos + 1) == (byte) 0x8b)
+            return new GZIPInputStream(is);
+        return is;
+    }
+}
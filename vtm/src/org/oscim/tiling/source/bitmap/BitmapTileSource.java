@@ -17,9 +17,9 @@
  */
 package org.oscim.tiling.source.bitmap;
 
-import org.oscim.backend.CanvasAdapter;
 import org.oscim.backend.canvas.Bitmap;
 import org.oscim.core.Tile;
+import org.oscim.layers.tile.bitmap.BitmapTileLoader;
 import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.ITileDataSource;
 import org.oscim.tiling.source.ITileDecoder;
@@ -89,7 +89,7 @@ public class BitmapTileSource extends UrlTileSource {
         public boolean decode(Tile tile, ITileDataSink sink, InputStream is)
                 throws IOException {
 
-            Bitmap bitmap = CanvasAdapter.decodeBitmap(is);
+            Bitmap bitmap = BitmapTileLoader.decodeBitmap(is, sink);
             if (!bitmap.isValid()) {
                 log.debug("{} invalid bitmap", tile);
                 return false;
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A grid of elevation samples in geographic coordinates, memory-mapped from
+ * a file. Rows run from north to south, the first and last rows and columns
+ * lie on the bounds.
+ * <p/>
+ * The file is mapped by {@link #open()}. Reads do not change the state of
+ * the mapping and may run concurrently.
+ */
+abstract class DemFile implements Closeable {
+
+    final File file;
+
+    int width, height;
+    double north, south, west, east;
+
+    private MappedByteBuffer mBuffer;
+
+    DemFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Map the file, does nothing when it is mapped already.
+     */
+    synchronized void open() throws IOException {
+        if (mBuffer != null)
+            return;
+
+        RandomAccessFile f = new RandomAccessFile(file, "r");
+        try {
+            if (f.length() > Integer.MAX_VALUE)
+                throw new IOException("file too large: " + file);
+            FileChannel channel = f.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, f.length());
+            buffer.order(getByteOrder());
+            init(buffer);
+            mBuffer = buffer;
+        } finally {
+            /* the mapping stays valid */
+            f.close();
+        }
+    }
+
+    boolean isOpen() {
+        return mBuffer != null;
+    }
+
+    /**
+     * Read the header and set the size and bounds of the grid.
+     */
+    abstract void init(MappedByteBuffer buffer) throws IOException;
+
+    ByteOrder getByteOrder() {
+        return ByteOrder.BIG_ENDIAN;
+    }
+
+    /**
+     * @return the elevation in meters of the sample, 0 for voids.
+     */
+    abstract float get(MappedByteBuffer buffer, int col, int row);
+
+    boolean contains(double lat, double lon) {
+        return lat >= south && lat <= north && lon >= west && lon <= east;
+    }
+
+    /**
+     * @return the bilinear interpolated elevation at a position within the
+     * bounds.
+     */
+    float elevation(double lat, double lon) {
+        MappedByteBuffer buffer = mBuffer;
+
+        double x = (lon - west) / (east - west) * (width - 1);
+        double y = (north - lat) / (north - south) * (height - 1);
+        int col = Math.min(Math.max((int) x, 0), width - 2);
+        int row = Math.min(Math.max((int) y, 0), height - 2);
+        float fx = (float) (x - col);
+        float fy = (float) (y - row);
+
+        float e00 = get(buffer, col, row);
+        float e10 = get(buffer, col + 1, row);
+        float e01 = get(buffer, col, row + 1);
+        float e11 = get(buffer, col + 1, row + 1);
+
+        float top = e00 + (e10 - e00) * fx;
+        float bottom = e01 + (e11 - e01) * fx;
+        return top + (bottom - top) * fy;
+    }
+
+    @Override
+    public synchronized void close() {
+        mBuffer = null;
+    }
+
+    @Override
+    public String toString() {
+        return file.getName() + " [" + south + "," + west + "," + north + "," + east + "]";
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.debug.Logger;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Elevation of the SRTM .hgt and GeoTIFF files in a directory. SRTM tiles
+ * are mapped on first access, GeoTIFFs on open to read their bounds.
+ */
+final class ElevationModel implements Closeable {
+    private static final Logger log = new Logger(ElevationModel.class);
+
+    private final HashMap<Integer, HgtFile> mHgtFiles = new HashMap<>();
+    private final ArrayList<GeoTiffFile> mGeoTiffs = new ArrayList<>();
+    private BoundingBox mBounds;
+
+    static ElevationModel open(File dir) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null)
+            throw new IOException("cannot list directory: " + dir);
+
+        ElevationModel model = new ElevationModel();
+        for (File file : files) {
+            String name = file.getName().toLowerCase(Locale.ENGLISH);
+            if (name.endsWith(".hgt")) {
+                HgtFile hgt = HgtFile.create(file);
+                if (hgt == null)
+                    log.debug("not an SRTM tile: {}", file);
+                else
+                    model.add(hgt);
+            } else if (name.endsWith(".tif") || name.endsWith(".tiff")) {
+                try {
+                    model.add(new GeoTiffFile(file));
+                } catch (IOException e) {
+                    log.debug("skip {}", e.getMessage());
+                }
+            }
+        }
+        if (model.mBounds == null) {
+            model.close();
+            throw new IOException("no elevation files in " + dir);
+        }
+        return model;
+    }
+
+    private void add(DemFile file) {
+        if (file instanceof HgtFile) {
+            HgtFile hgt = (HgtFile) file;
+            mHgtFiles.put(hgt.key(), hgt);
+        } else {
+            mGeoTiffs.add((GeoTiffFile) file);
+        }
+        BoundingBox bounds = new BoundingBox(file.south, file.west, file.north, file.east);
+        mBounds = (mBounds == null) ? bounds : mBounds.extendBoundingBox(bounds);
+    }
+
+    BoundingBox getBounds() {
+        return mBounds;
+    }
+
+    /**
+     * @return the file containing the position, or null.
+     */
+    DemFile find(double lat, double lon) throws IOException {
+        HgtFile hgt = mHgtFiles.get(HgtFile.key(lat, lon));
+        if (hgt != null) {
+            hgt.open();
+            return hgt;
+        }
+        for (int i = 0, n = mGeoTiffs.size(); i < n; i++) {
+            GeoTiffFile tiff = mGeoTiffs.get(i);
+            if (tiff.contains(lat, lon))
+                return tiff;
+        }
+        return null;
+    }
+
+    /**
+     * Sample the elevation along a row of positions, 0 where no file
+     * covers a position.
+     *
+     * @return the number of samples with elevation data.
+     */
+    int sampleRow(double lat, double[] lons, int count, float[] out, int offset) throws IOException {
+        int found = 0;
+        DemFile file = null;
+        for (int i = 0; i < count; i++) {
+            double lon = lons[i];
+            if (file == null || !file.contains(lat, lon))
+                file = find(lat, lon);
+
+            if (file == null) {
+                out[offset + i] = 0;
+            } else {
+                out[offset + i] = file.elevation(lat, lon);
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the elevation at the position, 0 where no file covers it.
+     */
+    float getElevation(double lat, double lon) throws IOException {
+        DemFile file = find(lat, lon);
+        return file == null ? 0 : file.elevation(lat, lon);
+    }
+
+    @Override
+    public void close() {
+        for (HgtFile hgt : mHgtFiles.values())
+            hgt.close();
+        for (GeoTiffFile tiff : mGeoTiffs)
+            tiff.close();
+    }
+}
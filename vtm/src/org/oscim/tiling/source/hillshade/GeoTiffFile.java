@@ -0,0 +1,289 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Elevation grid from a simple GeoTIFF in WGS84 coordinates: one
+ * uncompressed band in strips, 16 bit integer or 32 bit integer or float
+ * samples, positioned by ModelTiepoint and ModelPixelScale. Compressed or
+ * tiled files and other projections are not supported.
+ */
+final class GeoTiffFile extends DemFile {
+
+    private static final int IMAGE_WIDTH = 256;
+    private static final int IMAGE_LENGTH = 257;
+    private static final int BITS_PER_SAMPLE = 258;
+    private static final int COMPRESSION = 259;
+    private static final int STRIP_OFFSETS = 273;
+    private static final int SAMPLES_PER_PIXEL = 277;
+    private static final int ROWS_PER_STRIP = 278;
+    private static final int TILE_WIDTH = 322;
+    private static final int SAMPLE_FORMAT = 339;
+    private static final int MODEL_PIXEL_SCALE = 33550;
+    private static final int MODEL_TIEPOINT = 33922;
+    private static final int GEO_KEY_DIRECTORY = 34735;
+    private static final int GDAL_NODATA = 42113;
+
+    private static final int GT_RASTER_TYPE = 1025;
+    private static final int RASTER_PIXEL_IS_AREA = 1;
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_DOUBLE = 12;
+
+    private static final int INT16 = 0, UINT16 = 1, INT32 = 2, FLOAT32 = 3;
+
+    private ByteOrder mOrder;
+    private int mSampleType;
+    private int mSampleSize;
+    private int mRowsPerStrip;
+    private int[] mStripOffsets;
+    private float mNoData = Float.NaN;
+
+    GeoTiffFile(File file) throws IOException {
+        super(file);
+
+        /* byte order is needed before mapping */
+        RandomAccessFile f = new RandomAccessFile(file, "r");
+        try {
+            int b0 = f.read();
+            int b1 = f.read();
+            if (b0 == 'I' && b1 == 'I')
+                mOrder = ByteOrder.LITTLE_ENDIAN;
+            else if (b0 == 'M' && b1 == 'M')
+                mOrder = ByteOrder.BIG_ENDIAN;
+            else
+                throw new IOException("not a TIFF file: " + file);
+        } finally {
+            f.close();
+        }
+        /* read header for the bounds */
+        open();
+    }
+
+    @Override
+    ByteOrder getByteOrder() {
+        return mOrder;
+    }
+
+    @Override
+    void init(MappedByteBuffer buffer) throws IOException {
+        if (buffer.getShort(2) != 42)
+            throw new IOException("unsupported TIFF version: " + file);
+
+        int ifd = buffer.getInt(4);
+        int entries = buffer.getShort(ifd) & 0xffff;
+
+        int bits = 16;
+        int format = 1;
+        int samples = 1;
+        double[] scale = null;
+        double[] tiepoint = null;
+        int[] geoKeys = null;
+        mRowsPerStrip = Integer.MAX_VALUE;
+
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            int tag = buffer.getShort(entry) & 0xffff;
+            switch (tag) {
+                case IMAGE_WIDTH:
+                    width = readInts(buffer, entry)[0];
+                    break;
+                case IMAGE_LENGTH:
+                    height = readInts(buffer, entry)[0];
+                    break;
+                case BITS_PER_SAMPLE:
+                    bits = readInts(buffer, entry)[0];
+                    break;
+                case COMPRESSION:
+                    if (readInts(buffer, entry)[0] != 1)
+                        throw new IOException("compressed GeoTIFF not supported: " + file);
+                    break;
+                case STRIP_OFFSETS:
+                    mStripOffsets = readInts(buffer, entry);
+                    break;
+                case SAMPLES_PER_PIXEL:
+                    samples = readInts(buffer, entry)[0];
+                    break;
+                case ROWS_PER_STRIP:
+                    mRowsPerStrip = readInts(buffer, entry)[0];
+                    break;
+                case TILE_WIDTH:
+                    throw new IOException("tiled GeoTIFF not supported: " + file);
+                case SAMPLE_FORMAT:
+                    format = readInts(buffer, entry)[0];
+                    break;
+                case MODEL_PIXEL_SCALE:
+                    scale = readDoubles(buffer, entry);
+                    break;
+                case MODEL_TIEPOINT:
+                    tiepoint = readDoubles(buffer, entry);
+                    break;
+                case GEO_KEY_DIRECTORY:
+                    geoKeys = readInts(buffer, entry);
+                    break;
+                case GDAL_NODATA:
+                    mNoData = readNoData(buffer, entry);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (width < 2 || height < 2 || mStripOffsets == null)
+            throw new IOException("missing image size or strips: " + file);
+        if (samples != 1)
+            throw new IOException("only one band supported: " + file);
+        if (scale == null || tiepoint == null || scale.length < 2 || tiepoint.length < 6)
+            throw new IOException("missing georeference: " + file);
+
+        if (bits == 16 && format == 2) {
+            mSampleType = INT16;
+        } else if (bits == 16 && format == 1) {
+            mSampleType = UINT16;
+        } else if (bits == 32 && format == 2) {
+            mSampleType = INT32;
+        } else if (bits == 32 && format == 3) {
+            mSampleType = FLOAT32;
+        } else {
+            throw new IOException("unsupported samples " + bits + "/" + format + ": " + file);
+        }
+        mSampleSize = bits / 8;
+        mRowsPerStrip = Math.min(mRowsPerStrip, height);
+
+        if (mStripOffsets.length < (height + mRowsPerStrip - 1) / mRowsPerStrip)
+            throw new IOException("missing strips: " + file);
+        for (int i = 0, row = 0; row < height; i++, row += mRowsPerStrip) {
+            int rows = Math.min(mRowsPerStrip, height - row);
+            long end = (long) mStripOffsets[i] + (long) rows * width * mSampleSize;
+            if (mStripOffsets[i] < 0 || end > buffer.capacity())
+                throw new IOException("strip out of file: " + file);
+        }
+
+        /* pixel (I, J) is at (X, Y) */
+        double sx = scale[0];
+        double sy = scale[1];
+        west = tiepoint[3] - tiepoint[0] * sx;
+        north = tiepoint[4] + tiepoint[1] * sy;
+
+        /* samples represent the center of an area */
+        if (rasterType(geoKeys) == RASTER_PIXEL_IS_AREA) {
+            west += sx / 2;
+            north -= sy / 2;
+        }
+        east = west + (width - 1) * sx;
+        south = north - (height - 1) * sy;
+    }
+
+    private static int rasterType(int[] geoKeys) {
+        if (geoKeys == null)
+            return RASTER_PIXEL_IS_AREA;
+        /* header of 4 values, then keys of id, location, count, value */
+        for (int i = 4; i + 3 < geoKeys.length; i += 4) {
+            if (geoKeys[i] == GT_RASTER_TYPE && geoKeys[i + 1] == 0)
+                return geoKeys[i + 3];
+        }
+        return RASTER_PIXEL_IS_AREA;
+    }
+
+    private static int valueOffset(ByteBuffer buffer, int entry, int size) {
+        /* values of up to four bytes are stored in the entry */
+        return size <= 4 ? entry + 8 : buffer.getInt(entry + 8);
+    }
+
+    private int[] readInts(ByteBuffer buffer, int entry) throws IOException {
+        int type = buffer.getShort(entry + 2);
+        int count = buffer.getInt(entry + 4);
+        if (count < 1 || count > buffer.capacity())
+            throw new IOException("invalid TIFF entry: " + file);
+
+        int[] values = new int[count];
+        if (type == TYPE_SHORT) {
+            int pos = valueOffset(buffer, entry, count * 2);
+            for (int i = 0; i < count; i++)
+                values[i] = buffer.getShort(pos + i * 2) & 0xffff;
+        } else if (type == TYPE_LONG) {
+            int pos = valueOffset(buffer, entry, count * 4);
+            for (int i = 0; i < count; i++)
+                values[i] = buffer.getInt(pos + i * 4);
+        } else {
+            throw new IOException("unexpected TIFF type " + type + ": " + file);
+        }
+        return values;
+    }
+
+    private double[] readDoubles(ByteBuffer buffer, int entry) throws IOException {
+        int type = buffer.getShort(entry + 2);
+        int count = buffer.getInt(entry + 4);
+        if (type != TYPE_DOUBLE || count < 1 || count > buffer.capacity() / 8)
+            throw new IOException("invalid TIFF entry: " + file);
+
+        double[] values = new double[count];
+        int pos = buffer.getInt(entry + 8);
+        for (int i = 0; i < count; i++)
+            values[i] = buffer.getDouble(pos + i * 8);
+        return values;
+    }
+
+    private static float readNoData(ByteBuffer buffer, int entry) {
+        int count = buffer.getInt(entry + 4);
+        int pos = valueOffset(buffer, entry, count);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            char c = (char) buffer.get(pos + i);
+            if (c == 0)
+                break;
+            sb.append(c);
+        }
+        try {
+            return Float.parseFloat(sb.toString().trim());
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    @Override
+    float get(MappedByteBuffer buffer, int col, int row) {
+        int pos = mStripOffsets[row / mRowsPerStrip]
+                + ((row % mRowsPerStrip) * width + col) * mSampleSize;
+
+        float e;
+        switch (mSampleType) {
+            case INT16:
+                e = buffer.getShort(pos);
+                break;
+            case UINT16:
+                e = buffer.getShort(pos) & 0xffff;
+                break;
+            case INT32:
+                e = buffer.getInt(pos);
+                break;
+            default:
+                e = buffer.getFloat(pos);
+                break;
+        }
+        /* also catches NaN */
+        if (e == mNoData || !(e > -12000))
+            return 0;
+        return e;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SRTM elevation tile of one by one degree, named by its south west corner,
+ * e.g. N47E011.hgt. Samples are signed 16 bit big endian, 1201x1201 for
+ * 3 arc seconds or 3601x3601 for 1 arc second resolution.
+ */
+final class HgtFile extends DemFile {
+
+    private static final Pattern NAME = Pattern.compile("([NS])(\\d{1,2})([EW])(\\d{1,3})\\.hgt",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final short VOID = -32768;
+
+    /**
+     * @return the HgtFile or null when the name is not the one of an SRTM
+     * tile.
+     */
+    static HgtFile create(File file) {
+        Matcher m = NAME.matcher(file.getName());
+        if (!m.matches())
+            return null;
+
+        int lat = Integer.parseInt(m.group(2));
+        int lon = Integer.parseInt(m.group(4));
+        if ("S".equalsIgnoreCase(m.group(1)))
+            lat = -lat;
+        if ("W".equalsIgnoreCase(m.group(3)))
+            lon = -lon;
+
+        int size = (int) Math.round(Math.sqrt(file.length() / 2));
+        if (size < 2 || (long) size * size * 2 != file.length())
+            return null;
+
+        return new HgtFile(file, lat, lon, size);
+    }
+
+    private HgtFile(File file, int lat, int lon, int size) {
+        super(file);
+        south = lat;
+        north = lat + 1;
+        west = lon;
+        east = lon + 1;
+        width = size;
+        height = size;
+    }
+
+    /**
+     * @return key of the one degree cell containing the position.
+     */
+    static int key(double lat, double lon) {
+        return key((int) Math.floor(lat), (int) Math.floor(lon));
+    }
+
+    static int key(int lat, int lon) {
+        return (lat + 90) * 360 + (lon + 180);
+    }
+
+    int key() {
+        return key((int) south, (int) west);
+    }
+
+    @Override
+    void init(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() != width * height * 2)
+            throw new IOException("file size changed: " + file);
+    }
+
+    @Override
+    float get(MappedByteBuffer buffer, int col, int row) {
+        short e = buffer.getShort((row * width + col) << 1);
+        return e == VOID ? 0 : e;
+    }
+}
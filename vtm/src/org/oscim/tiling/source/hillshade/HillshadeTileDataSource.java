@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import org.oscim.backend.canvas.Bitmap;
+import org.oscim.core.BoundingBox;
+import org.oscim.core.MercatorProjection;
+import org.oscim.debug.Logger;
+import org.oscim.layers.tile.MapTile;
+import org.oscim.layers.tile.bitmap.BitmapTileLoader;
+import org.oscim.tiling.ITileCache;
+import org.oscim.tiling.ITileCache.TileReader;
+import org.oscim.tiling.ITileCache.TileWriter;
+import org.oscim.tiling.ITileDataSink;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.QueryResult;
+import org.oscim.utils.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.oscim.tiling.QueryResult.FAILED;
+import static org.oscim.tiling.QueryResult.SUCCESS;
+import static org.oscim.tiling.QueryResult.TILE_NOT_FOUND;
+
+/**
+ * Shades tiles of a {@link HillshadeTileSource}. Buffers are kept per data
+ * source, i.e. per loader thread.
+ */
+public class HillshadeTileDataSource implements ITileDataSource {
+    private static final Logger log = new Logger(HillshadeTileDataSource.class);
+
+    private final HillshadeTileSource mTileSource;
+    private final int mSize;
+
+    private final float[] mElevation;
+    private final float[] mResolution;
+    private final double[] mLongitudes;
+    private final float[] mShade;
+    private final byte[] mScanlines;
+    private final PngEncoder mEncoder = new PngEncoder();
+
+    private long mShadeCount;
+    private long mShadeTime;
+
+    public HillshadeTileDataSource(HillshadeTileSource tileSource) {
+        mTileSource = tileSource;
+        mSize = tileSource.getTileSize();
+
+        int n = mSize + 2;
+        mElevation = new float[n * n];
+        mResolution = new float[n];
+        mLongitudes = new double[n];
+        mShade = new float[mSize];
+        mScanlines = new byte[mSize * (1 + mSize * 4)];
+    }
+
+    @Override
+    public void query(MapTile tile, ITileDataSink sink) {
+        QueryResult res = FAILED;
+        try {
+            byte[] png = getTile(tile);
+            if (png == null) {
+                res = TILE_NOT_FOUND;
+            } else {
+                Bitmap bitmap = BitmapTileLoader.decodeBitmap(new ByteArrayInputStream(png), sink);
+                if (bitmap.isValid()) {
+                    sink.setTileImage(bitmap);
+                    res = SUCCESS;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("{} DEM read: {}", tile, e);
+        } catch (Exception e) {
+            log.debug("{} Error: {}", tile, e);
+        } finally {
+            sink.completed(res);
+        }
+    }
+
+    /**
+     * @return the shaded tile as PNG from the caches or shaded, null when
+     * there is no elevation data for the tile.
+     */
+    private byte[] getTile(MapTile tile) throws IOException {
+        byte[] png = mTileSource.getCachedTile(tile);
+        if (png != null)
+            return png;
+
+        ITileCache cache = mTileSource.tileCache;
+        if (cache != null) {
+            TileReader reader = cache.getTile(tile);
+            if (reader != null) {
+                png = readFully(reader.getInputStream());
+                if (png != null) {
+                    mTileSource.cacheTile(tile, png);
+                    return png;
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        png = shade(tile);
+        mShadeTime += System.nanoTime() - start;
+        mShadeCount++;
+
+        if (png == null)
+            return null;
+
+        mTileSource.cacheTile(tile, png);
+
+        if (cache != null) {
+            TileWriter writer = cache.writeTile(tile);
+            boolean ok = false;
+            try {
+                OutputStream os = writer.getOutputStream();
+                os.write(png);
+                ok = true;
+            } catch (IOException e) {
+                log.debug("{} Cache write: {}", tile, e);
+            } finally {
+                writer.complete(ok);
+            }
+        }
+        return png;
+    }
+
+    private static byte[] readFully(InputStream is) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 15);
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = is.read(buf)) > 0)
+                out.write(buf, 0, n);
+            return out.toByteArray();
+        } catch (IOException e) {
+            log.debug("Cache read: {}", e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Sample the elevation at the pixel centers of the tile and a border of
+     * one pixel, then shade it.
+     *
+     * @return the tile as PNG, null when there is no elevation data.
+     */
+    byte[] shade(MapTile tile) throws IOException {
+        ElevationModel model = mTileSource.getElevationModel();
+        if (model == null)
+            throw new IOException("tile source not opened");
+
+        BoundingBox bounds = model.getBounds();
+        if (!bounds.intersects(tile.getBoundingBox()))
+            return null;
+
+        int size = mSize;
+        int n = size + 2;
+        long mapSize = (long) size << tile.zoomLevel;
+        double x0 = (double) tile.tileX * size - 0.5;
+        double y0 = (double) tile.tileY * size - 0.5;
+
+        for (int i = 0; i < n; i++) {
+            double px = Math.min(Math.max(x0 + i, 0), mapSize);
+            mLongitudes[i] = MercatorProjection.pixelXToLongitude(px, mapSize);
+        }
+
+        int found = 0;
+        for (int row = 0; row < n; row++) {
+            double py = Math.min(Math.max(y0 + row, 0), mapSize);
+            double lat = MercatorProjection.pixelYToLatitude(py, mapSize);
+            mResolution[row] = (float) MercatorProjection.groundResolution(lat, mapSize);
+            found += model.sampleRow(lat, mLongitudes, n, mElevation, row * n);
+        }
+        if (found == 0)
+            return null;
+
+        Hillshading shading = mTileSource.shading;
+        int stride = 1 + size * 4;
+        for (int row = 1; row <= size; row++) {
+            shading.shadeRow(mElevation, mResolution[row], size, row, mShade);
+            int offset = (row - 1) * stride;
+            /* filter type none */
+            mScanlines[offset] = 0;
+            shading.toPixels(mShade, size, mScanlines, offset + 1);
+        }
+        return mEncoder.encode(mScanlines, size, size);
+    }
+
+    /**
+     * @return number of tiles shaded, excluding cache hits
+     */
+    public long getShadeCount() {
+        return mShadeCount;
+    }
+
+    /**
+     * @return average time of shading and encoding a tile in milliseconds
+     */
+    public double getAverageShadeTime() {
+        return mShadeCount == 0 ? 0 : mShadeTime / 1e6 / mShadeCount;
+    }
+
+    @Override
+    public void dispose() {
+        mEncoder.dispose();
+    }
+
+    @Override
+    public void cancel() {
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.core.Tile;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.TileSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hillshading computed locally from a directory of SRTM .hgt or GeoTIFF
+ * elevation files, for use with a BitmapTileLayer.
+ * <p/>
+ * Each loader thread of the layer shades its own tiles, set the number of
+ * loaders to the number of cores for fastest generation. Shaded tiles are
+ * kept as PNG in an LRU cache in memory and, when a cache is set with
+ * {@link #setCache(org.oscim.tiling.ITileCache)}, on disk.
+ */
+public class HillshadeTileSource extends TileSource {
+    private static final Logger log = new Logger(HillshadeTileSource.class);
+
+    public static class Builder<T extends Builder<T>> extends TileSource.Builder<T> {
+        protected String demDirectory;
+        protected float azimuth = 315;
+        protected float altitude = 45;
+        protected float exaggeration = 1;
+        protected float intensity = 1;
+        protected int memoryCacheSize = 128;
+
+        public Builder() {
+            zoomMin = 6;
+            zoomMax = 16;
+        }
+
+        /**
+         * Directory with SRTM .hgt or GeoTIFF files.
+         */
+        public T demDirectory(String demDirectory) {
+            this.demDirectory = demDirectory;
+            return self();
+        }
+
+        /**
+         * @param azimuth  direction of the light in degrees clockwise from north
+         * @param altitude angle of the light above the horizon in degrees
+         */
+        public T light(float azimuth, float altitude) {
+            this.azimuth = azimuth;
+            this.altitude = altitude;
+            return self();
+        }
+
+        public T exaggeration(float exaggeration) {
+            this.exaggeration = exaggeration;
+            return self();
+        }
+
+        public T intensity(float intensity) {
+            this.intensity = intensity;
+            return self();
+        }
+
+        /**
+         * @param tiles number of shaded tiles kept in memory, 0 to disable
+         */
+        public T memoryCacheSize(int tiles) {
+            this.memoryCacheSize = tiles;
+            return self();
+        }
+
+        @Override
+        public HillshadeTileSource build() {
+            return new HillshadeTileSource(this);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    public static Builder<?> builder() {
+        return new Builder();
+    }
+
+    final Hillshading shading;
+
+    private final String mDemDirectory;
+    private final int mMemoryCacheSize;
+    private final LinkedHashMap<Long, byte[]> mMemoryCache;
+
+    private ElevationModel mModel;
+
+    protected HillshadeTileSource(Builder<?> builder) {
+        super(builder);
+        mDemDirectory = builder.demDirectory;
+        mMemoryCacheSize = builder.memoryCacheSize;
+        shading = new Hillshading(builder.azimuth, builder.altitude,
+                builder.exaggeration, builder.intensity);
+
+        mMemoryCache = new LinkedHashMap<Long, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > mMemoryCacheSize;
+            }
+        };
+    }
+
+    @Override
+    public OpenResult open() {
+        if (mDemDirectory == null)
+            return new OpenResult("no DEM directory set");
+
+        File dir = new File(mDemDirectory);
+        if (!dir.isDirectory())
+            return new OpenResult("not a directory: " + dir);
+
+        try {
+            mModel = ElevationModel.open(dir);
+        } catch (IOException e) {
+            log.error(e);
+            return new OpenResult(e.getMessage());
+        }
+        return OpenResult.SUCCESS;
+    }
+
+    @Override
+    public ITileDataSource getDataSource() {
+        return new HillshadeTileDataSource(this);
+    }
+
+    @Override
+    public void close() {
+        if (mModel != null)
+            mModel.close();
+        mModel = null;
+
+        synchronized (mMemoryCache) {
+            mMemoryCache.clear();
+        }
+    }
+
+    ElevationModel getElevationModel() {
+        return mModel;
+    }
+
+    /**
+     * @return the bounds of the elevation data, null when not opened.
+     */
+    public BoundingBox getBounds() {
+        return mModel != null ? mModel.getBounds() : null;
+    }
+
+    private static long key(Tile tile) {
+        return ((long) tile.zoomLevel << 58) | ((long) tile.tileX << 29) | tile.tileY;
+    }
+
+    byte[] getCachedTile(Tile tile) {
+        if (mMemoryCacheSize <= 0)
+            return null;
+
+        synchronized (mMemoryCache) {
+            return mMemoryCache.get(key(tile));
+        }
+    }
+
+    void cacheTile(Tile tile, byte[] png) {
+        if (mMemoryCacheSize <= 0)
+            return;
+
+        synchronized (mMemoryCache) {
+            mMemoryCache.put(key(tile), png);
+        }
+    }
+}
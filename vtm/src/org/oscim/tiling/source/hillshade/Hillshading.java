@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+/**
+ * Shading of an elevation grid lit from one direction. Slopes facing the
+ * light are drawn white, slopes facing away black, with an alpha
+ * proportional to the difference to flat terrain which stays transparent.
+ * <p/>
+ * The inner loops work on plain arrays without branches or calls so the
+ * JIT can vectorize them.
+ */
+final class Hillshading {
+
+    private final float mLightX, mLightY, mLightZ;
+    private final float mExaggeration;
+    private final float mIntensity;
+
+    /**
+     * @param azimuth      direction of the light in degrees clockwise from north
+     * @param altitude     angle of the light above the horizon in degrees
+     * @param exaggeration vertical exaggeration
+     * @param intensity    alpha for a change in shade of one
+     */
+    Hillshading(float azimuth, float altitude, float exaggeration, float intensity) {
+        double az = Math.toRadians(azimuth);
+        double alt = Math.toRadians(altitude);
+        mLightX = (float) (Math.cos(alt) * Math.sin(az));
+        mLightY = (float) (Math.cos(alt) * Math.cos(az));
+        mLightZ = (float) Math.sin(alt);
+        mExaggeration = exaggeration;
+        mIntensity = intensity * 255;
+    }
+
+    /**
+     * Shade one row of the grid.
+     *
+     * @param elevation  grid of (size + 2)^2 elevations with a border of one
+     *                   sample, rows from north to south
+     * @param resolution meters between two samples of the row
+     * @param size       samples per row without border
+     * @param row        row to shade, 1 to size
+     * @param shade      receives size values, the change in shade against
+     *                   flat terrain from -1 to 1
+     */
+    void shadeRow(float[] elevation, float resolution, int size, int row, float[] shade) {
+        int stride = size + 2;
+        int center = row * stride + 1;
+        int north = center - stride;
+        int south = center + stride;
+
+        float f = mExaggeration / (2 * resolution);
+        float lx = mLightX, ly = mLightY, lz = mLightZ;
+
+        for (int i = 0; i < size; i++) {
+            /* gradient to east and north */
+            float dx = (elevation[center + i + 1] - elevation[center + i - 1]) * f;
+            float dy = (elevation[north + i] - elevation[south + i]) * f;
+            /* light on the surface normal (-dx, -dy, 1) */
+            float s = (lz - lx * dx - ly * dy) / (float) Math.sqrt(1 + dx * dx + dy * dy);
+            shade[i] = s - lz;
+        }
+    }
+
+    /**
+     * Convert shades of a row to RGBA pixels with straight alpha.
+     */
+    void toPixels(float[] shade, int size, byte[] out, int offset) {
+        float intensity = mIntensity;
+        for (int i = 0; i < size; i++) {
+            float s = shade[i];
+            int gray = s > 0 ? 255 : 0;
+            int alpha = (int) Math.min(Math.abs(s) * intensity, 255);
+            int o = offset + (i << 2);
+            out[o] = (byte) gray;
+            out[o + 1] = (byte) gray;
+            out[o + 2] = (byte) gray;
+            out[o + 3] = (byte) alpha;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.hillshade;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Minimal encoder for 8 bit RGBA PNG images. The Bitmap API has no way to
+ * set pixels, so generated images are passed to the backends as PNG.
+ * <p/>
+ * Not thread-safe, use one instance per thread.
+ */
+final class PngEncoder {
+
+    private static final byte[] SIGNATURE = {(byte) 137, 80, 78, 71, 13, 10, 26, 10};
+
+    private final Deflater mDeflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 mCrc = new CRC32();
+    private final byte[] mBuffer = new byte[1 << 16];
+    private final ByteArrayOutputStream mData = new ByteArrayOutputStream(1 << 16);
+    private final ByteArrayOutputStream mOut = new ByteArrayOutputStream(1 << 16);
+
+    /**
+     * @param scanlines height rows of one filter type byte followed by
+     *                  width RGBA pixels
+     */
+    byte[] encode(byte[] scanlines, int width, int height) {
+        mOut.reset();
+        mOut.write(SIGNATURE, 0, SIGNATURE.length);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 8; /* bit depth */
+        header[9] = 6; /* RGBA */
+        writeChunk("IHDR", header, header.length);
+
+        mData.reset();
+        mDeflater.reset();
+        mDeflater.setInput(scanlines, 0, height * (1 + width * 4));
+        mDeflater.finish();
+        while (!mDeflater.finished()) {
+            int n = mDeflater.deflate(mBuffer);
+            mData.write(mBuffer, 0, n);
+        }
+        writeChunk("IDAT", mData.toByteArray(), mData.size());
+        writeChunk("IEND", header, 0);
+
+        return mOut.toByteArray();
+    }
+
+    private void writeChunk(String type, byte[] data, int length) {
+        byte[] tmp = new byte[4];
+        putInt(tmp, 0, length);
+        mOut.write(tmp, 0, 4);
+
+        mCrc.reset();
+        for (int i = 0; i < 4; i++)
+            tmp[i] = (byte) type.charAt(i);
+        mOut.write(tmp, 0, 4);
+        mCrc.update(tmp, 0, 4);
+
+        mOut.write(data, 0, length);
+        mCrc.update(data, 0, length);
+
+        putInt(tmp, 0, (int) mCrc.getValue());
+        mOut.write(tmp, 0, 4);
+    }
+
+    private static void putInt(byte[] buf, int pos, int value) {
+        buf[pos] = (byte) (value >>> 24);
+        buf[pos + 1] = (byte) (value >>> 16);
+        buf[pos + 2] = (byte) (value >>> 8);
+        buf[pos + 3] = (byte) value;
+    }
+
+    void dispose() {
+        mDeflater.end();
+    }
+}
@@ -25,15 +25,19 @@ package org.oscim.tiling.source.mapfile;
 import org.oscim.backend.CanvasAdapter;
 import org.oscim.core.BoundingBox;
 import org.oscim.core.GeoPoint;
+import org.oscim.core.GeometryBuffer;
 import org.oscim.core.GeometryBuffer.GeometryType;
 import org.oscim.core.MapElement;
 import org.oscim.core.MercatorProjection;
+import org.oscim.core.PointF;
 import org.oscim.core.Tag;
 import org.oscim.core.Tile;
 import org.oscim.layers.tile.MapTile;
 import org.oscim.layers.tile.buildings.BuildingLayer;
+import org.oscim.tiling.ITileDataFilter;
 import org.oscim.tiling.ITileDataSink;
-import org.oscim.tiling.ITileDataSource;
+import org.oscim.tiling.QueryResult;
+import org.oscim.tiling.ITileBatchDataSource;
 import org.oscim.tiling.source.mapfile.header.SubFileParameter;
 import org.oscim.utils.Parameters;
 import org.oscim.utils.geom.TileClipper;
@@ -56,7 +60,7 @@ import static org.oscim.tiling.QueryResult.SUCCESS;
  *
  * @see <a href="http://code.google.com/p/mapsforge/wiki/SpecificationBinaryMapFile">Specification</a>
  */
-public class MapDatabase implements ITileDataSource {
+public class MapDatabase implements ITileBatchDataSource {
     /**
      * Bitmask to extract the block offset from an index entry.
      */
@@ -202,11 +206,62 @@ public class MapDatabase implements ITileDataSource {
 
     private final MapElement mElem = new MapElement();
 
-    private int minDeltaLat, minDeltaLon;
+    /**
+     * Maximum number of tiles processed together by a batch query.
+     */
+    private static final int MAX_BATCH_SIZE = 32;
 
-    private final TileProjection mTileProjection;
-    private final TileClipper mTileClipper;
-    private final TileSeparator mTileSeparator;
+    private static final int BLOCK_READ = 0;
+    private static final int BLOCK_EMPTY = 1;
+    private static final int BLOCK_INVALID = 2;
+
+    /**
+     * A tile of the current query with its own projection and clipping.
+     */
+    private static final class Target {
+        ITileDataSink sink;
+        ITileDataFilter filter;
+        QueryParameters params;
+        SubFileParameter subFileParameter;
+
+        final TileProjection projection = new TileProjection();
+        final TileClipper clipper = new TileClipper(0, 0, 0, 0);
+        final TileSeparator separator = new TileSeparator(0, 0, 0, 0);
+
+        /* tolerance for point reduction before projection */
+        int minDeltaLat, minDeltaLon;
+
+        /* number of elements on the query zoom level in the current block */
+        int numPois;
+        int numWays;
+        /* elements of the block may lie outside of the tile */
+        boolean filterRequired;
+
+        void setSink(ITileDataSink sink) {
+            this.sink = sink;
+            filter = sink instanceof ITileDataFilter ? (ITileDataFilter) sink : null;
+        }
+    }
+
+    /* the tile of single queries */
+    private final Target mTarget = new Target();
+    private final Target[] mSingle = {mTarget};
+    /* the tiles of batch queries */
+    private Target[] mBatch = new Target[0];
+    /* the tiles which need the current block */
+    private Target[] mActive = new Target[1];
+    private int mNumActive;
+
+    /* elements are projected and clipped per tile */
+    private final MapElement mCopy = new MapElement();
+    private final GeometryBuffer mClipBuffer = new GeometryBuffer(10, 1);
+
+    private long mBlockReads;
+    private long mBytesRead;
+    private long mSharedBlockReads;
+    private long mSharedDecodes;
+    private long mSkippedWays;
+    private long mSkippedWayBytes;
 
     private final MapFileTileSource mTileSource;
 
@@ -227,10 +282,6 @@ public class MapDatabase implements ITileDataSource {
             dispose();
             throw new IOException();
         }
-
-        mTileProjection = new TileProjection();
-        mTileClipper = new TileClipper(0, 0, 0, 0);
-        mTileSeparator = new TileSeparator(0, 0, 0, 0);
     }
 
     public MapFileTileSource getTileSource() {
@@ -249,50 +300,179 @@ public class MapDatabase implements ITileDataSource {
             mIntBuffer = new int[Short.MAX_VALUE * 2];
 
         try {
-            mTileProjection.setTile(tile);
-            //mTile = tile;
+            if (!prepare(mTarget, tile, sink)) {
+                sink.completed(FAILED);
+                return;
+            }
+            processBlocks(mSingle, 1, mTarget.subFileParameter, null, null, null);
+        } catch (IOException e) {
+            log.error(e);
+            sink.completed(FAILED);
+            return;
+        }
 
-            /* size of tile in map coordinates; */
-            double size = 1.0 / (1 << tile.zoomLevel);
+        sink.completed(SUCCESS);
+    }
 
-            /* simplification tolerance */
-            int pixel = (tile.zoomLevel > 11) ? 1 : 2;
+    /**
+     * Tiles which need the same blocks of the map file are processed
+     * together: each block is read once and each element is decoded once,
+     * then projected and clipped for every tile it belongs to. This helps
+     * when several tiles are in one block of the base zoom level, e.g.
+     * during zoom transitions.
+     */
+    @Override
+    public void query(MapTile[] tiles, ITileDataSink[] sinks, int count) {
+        /* with the experimental format tags of skipped ways are used */
+        if (count == 1 || mTileSource.fileHeader == null || mTileSource.experimental) {
+            for (int i = 0; i < count; i++)
+                query(tiles[i], sinks[i]);
+            return;
+        }
 
-            int simplify = Tile.SIZE / pixel;
+        if (mIntBuffer == null)
+            mIntBuffer = new int[Short.MAX_VALUE * 2];
 
-            /* translate screen pixel for tile to latitude and longitude
-             * tolerance for point reduction before projection. */
-            minDeltaLat = (int) (Math.abs(MercatorProjection.toLatitude(tile.y + size)
-                    - MercatorProjection.toLatitude(tile.y)) * 1e6) / simplify;
-            minDeltaLon = (int) (Math.abs(MercatorProjection.toLongitude(tile.x + size)
-                    - MercatorProjection.toLongitude(tile.x)) * 1e6) / simplify;
+        for (int from = 0; from < count; from += MAX_BATCH_SIZE)
+            queryBatch(tiles, sinks, from, Math.min(count, from + MAX_BATCH_SIZE));
+    }
 
-            QueryParameters queryParameters = new QueryParameters();
-            queryParameters.queryZoomLevel =
-                    mTileSource.fileHeader.getQueryZoomLevel(tile.zoomLevel);
+    private void queryBatch(MapTile[] tiles, ITileDataSink[] sinks, int from, int to) {
+        if (mBatch.length < to - from) {
+            Target[] batch = new Target[to - from];
+            System.arraycopy(mBatch, 0, batch, 0, mBatch.length);
+            for (int i = mBatch.length; i < batch.length; i++)
+                batch[i] = new Target();
+            mBatch = batch;
+        }
 
-            /* get and check the sub-file for the query zoom level */
-            SubFileParameter subFileParameter =
-                    mTileSource.fileHeader.getSubFileParameter(queryParameters.queryZoomLevel);
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (prepare(mBatch[count], tiles[i], sinks[i]))
+                count++;
+            else
+                sinks[i].completed(FAILED);
+        }
 
-            if (subFileParameter == null) {
-                log.warn("no sub-file for zoom level: "
-                        + queryParameters.queryZoomLevel);
+        /* only tiles with the same sub-file can share blocks */
+        Target[] group = new Target[count];
+        for (int i = 0; i < count; i++) {
+            SubFileParameter subFileParameter = mBatch[i].subFileParameter;
+            if (subFileParameter == null)
+                continue;
 
-                sink.completed(FAILED);
-                return;
+            int n = 0;
+            for (int j = i; j < count; j++) {
+                if (mBatch[j].subFileParameter == subFileParameter)
+                    group[n++] = mBatch[j];
             }
 
-            QueryCalculations.calculateBaseTiles(queryParameters, tile, subFileParameter);
-            QueryCalculations.calculateBlocks(queryParameters, subFileParameter);
-            processBlocks(sink, queryParameters, subFileParameter);
-        } catch (IOException e) {
-            log.error(e);
-            sink.completed(FAILED);
-            return;
+            QueryResult result = SUCCESS;
+            try {
+                processBlocks(group, n, subFileParameter, null, null, null);
+            } catch (IOException e) {
+                log.error(e);
+                result = FAILED;
+            }
+            for (int j = 0; j < n; j++) {
+                group[j].subFileParameter = null;
+                group[j].sink.completed(result);
+                group[j].setSink(null);
+            }
         }
+    }
 
-        sink.completed(SUCCESS);
+    /**
+     * Set up the projection and the query parameters for the tile.
+     *
+     * @return false if the map file has no sub-file for the tile
+     */
+    private boolean prepare(Target target, MapTile tile, ITileDataSink sink) {
+        target.setSink(sink);
+        target.projection.setTile(tile);
+        //mTile = tile;
+
+        /* size of tile in map coordinates; */
+        double size = 1.0 / (1 << tile.zoomLevel);
+
+        /* simplification tolerance */
+        int pixel = (tile.zoomLevel > 11) ? 1 : 2;
+
+        int simplify = Tile.SIZE / pixel;
+
+        /* translate screen pixel for tile to latitude and longitude
+         * tolerance for point reduction before projection. */
+        target.minDeltaLat = (int) (Math.abs(MercatorProjection.toLatitude(tile.y + size)
+                - MercatorProjection.toLatitude(tile.y)) * 1e6) / simplify;
+        target.minDeltaLon = (int) (Math.abs(MercatorProjection.toLongitude(tile.x + size)
+                - MercatorProjection.toLongitude(tile.x)) * 1e6) / simplify;
+
+        QueryParameters queryParameters = new QueryParameters();
+        queryParameters.queryZoomLevel =
+                mTileSource.fileHeader.getQueryZoomLevel(tile.zoomLevel);
+
+        /* get and check the sub-file for the query zoom level */
+        SubFileParameter subFileParameter =
+                mTileSource.fileHeader.getSubFileParameter(queryParameters.queryZoomLevel);
+
+        if (subFileParameter == null) {
+            log.warn("no sub-file for zoom level: "
+                    + queryParameters.queryZoomLevel);
+            target.subFileParameter = null;
+            return false;
+        }
+
+        QueryCalculations.calculateBaseTiles(queryParameters, tile, subFileParameter);
+        QueryCalculations.calculateBlocks(queryParameters, subFileParameter);
+        target.params = queryParameters;
+        target.subFileParameter = subFileParameter;
+        return true;
+    }
+
+    /**
+     * @return number of blocks read from the map file
+     */
+    public long getBlockReads() {
+        return mBlockReads;
+    }
+
+    /**
+     * @return number of bytes of the blocks read from the map file
+     */
+    public long getBytesRead() {
+        return mBytesRead;
+    }
+
+    /**
+     * @return number of block reads saved by batch queries, i.e. blocks
+     * which were read once for several tiles
+     */
+    public long getSharedBlockReads() {
+        return mSharedBlockReads;
+    }
+
+    /**
+     * @return number of way decodes saved by batch queries, i.e. ways
+     * which were decoded once for several tiles
+     */
+    public long getSharedDecodes() {
+        return mSharedDecodes;
+    }
+
+    /**
+     * @return number of ways skipped without decoding their geometry,
+     * because the sinks discard them by their tags
+     */
+    public long getSkippedWays() {
+        return mSkippedWays;
+    }
+
+    /**
+     * @return number of bytes of label positions and way data blocks
+     * skipped with the ways of {@link #getSkippedWays()}
+     */
+    public long getSkippedWayBytes() {
+        return mSkippedWayBytes;
     }
 
     @Override
@@ -327,12 +507,9 @@ public class MapDatabase implements ITileDataSource {
      * Processes a single block and executes the callback functions on all map
      * elements.
      *
-     * @param queryParameters  the parameters of the current query.
      * @param subFileParameter the parameters of the current map file.
-     * @param mapDataSink      the callback which handles the extracted map elements.
      */
-    private void processBlock(QueryParameters queryParameters,
-                              SubFileParameter subFileParameter, ITileDataSink mapDataSink,
+    private void processBlock(SubFileParameter subFileParameter,
                               BoundingBox boundingBox, Selector selector,
                               MapReadResult mapReadResult) {
 
@@ -344,9 +521,20 @@ public class MapDatabase implements ITileDataSource {
         if (zoomTable == null) {
             return;
         }
-        int zoomTableRow = queryParameters.queryZoomLevel - subFileParameter.zoomLevelMin;
-        int poisOnQueryZoomLevel = zoomTable[zoomTableRow][0];
-        int waysOnQueryZoomLevel = zoomTable[zoomTableRow][1];
+
+        /* elements are sorted by zoom level, so the tiles of the block need
+         * the first elements up to the count of their query zoom level */
+        int poisOnQueryZoomLevel = 0;
+        int waysOnQueryZoomLevel = 0;
+        for (int i = 0; i < mNumActive; i++) {
+            Target target = mActive[i];
+            int zoomTableRow = target.params.queryZoomLevel - subFileParameter.zoomLevelMin;
+            target.numPois = zoomTable[zoomTableRow][0];
+            target.numWays = zoomTable[zoomTableRow][1];
+            target.filterRequired = target.params.queryZoomLevel > subFileParameter.baseZoomLevel;
+            poisOnQueryZoomLevel = Math.max(poisOnQueryZoomLevel, target.numPois);
+            waysOnQueryZoomLevel = Math.max(waysOnQueryZoomLevel, target.numWays);
+        }
 
         /* get the relative offset to the first stored way in the block */
         int firstWayOffset = mReadBuffer.readUnsignedInt();
@@ -368,13 +556,11 @@ public class MapDatabase implements ITileDataSource {
             return;
         }
 
-        boolean filterRequired = queryParameters.queryZoomLevel > subFileParameter.baseZoomLevel;
-
         List<PointOfInterest> pois = null;
         if (mapReadResult != null)
             pois = new ArrayList<>();
 
-        if (!processPOIs(mapDataSink, poisOnQueryZoomLevel, boundingBox, filterRequired, pois)) {
+        if (!processPOIs(poisOnQueryZoomLevel, boundingBox, pois)) {
             return;
         }
 
@@ -394,7 +580,7 @@ public class MapDatabase implements ITileDataSource {
         if (mapReadResult != null && Selector.POIS != selector)
             ways = new ArrayList<>();
 
-        if (!processWays(queryParameters, mapDataSink, waysOnQueryZoomLevel, boundingBox, filterRequired, selector, ways)) {
+        if (!processWays(waysOnQueryZoomLevel, boundingBox, selector, ways)) {
             return;
         }
 
@@ -405,8 +591,9 @@ public class MapDatabase implements ITileDataSource {
         }
     }
 
-    private void setTileClipping(QueryParameters queryParameters, SubFileParameter subFileParameter,
-                                 long currentRow, long currentCol) {
+    private static void setTileClipping(Target target, SubFileParameter subFileParameter,
+                                        long currentRow, long currentCol) {
+        QueryParameters queryParameters = target.params;
         long numRows = queryParameters.toBlockY - queryParameters.fromBlockY;
         long numCols = queryParameters.toBlockX - queryParameters.fromBlockX;
 
@@ -455,133 +642,164 @@ public class MapDatabase implements ITileDataSource {
             if (currentRow < numRows)
                 ySmax = ymax = (int) ((currentRow + (isTopBorder ? numDifY : 0)) * h + h);
         }
-        mTileClipper.setRect(xmin, ymin, xmax, ymax);
-        mTileSeparator.setRect(xSmin, ySmin, xSmax, ySmax);
+        target.clipper.setRect(xmin, ymin, xmax, ymax);
+        target.separator.setRect(xSmin, ySmin, xSmax, ySmax);
     }
 
     //private static final Tag mWaterTag = new Tag("natural", "water");
 
     /**
-     * Map rendering.
-     */
-    private void processBlocks(ITileDataSink mapDataSink, QueryParameters queryParams,
-                               SubFileParameter subFileParameter) throws IOException {
-        processBlocks(mapDataSink, queryParams, subFileParameter, null, null, null);
-    }
-
-    /**
-     * Map data reading.
+     * Read and process the blocks of the targets from top to bottom and from
+     * left to right. Each block is read once for all targets which need it.
      */
-    private void processBlocks(QueryParameters queryParams,
+    private void processBlocks(Target[] targets, int count,
                                SubFileParameter subFileParameter, BoundingBox boundingBox,
                                Selector selector, MapReadResult mapReadResult) throws IOException {
-        processBlocks(null, queryParams, subFileParameter, boundingBox, selector, mapReadResult);
-    }
-
-    private void processBlocks(ITileDataSink mapDataSink, QueryParameters queryParams,
-                               SubFileParameter subFileParameter, BoundingBox boundingBox,
-                               Selector selector, MapReadResult mapReadResult) throws IOException {
-
-        /* read and process all blocks from top to bottom and from left to right */
-        for (long row = queryParams.fromBlockY; row <= queryParams.toBlockY; row++) {
-            for (long column = queryParams.fromBlockX; column <= queryParams.toBlockX; column++) {
-                setTileClipping(queryParams, subFileParameter,
-                        row - queryParams.fromBlockY,
-                        column - queryParams.fromBlockX);
-
-                /* calculate the actual block number of the needed block in the
-                 * file */
-                long blockNumber = row * subFileParameter.blocksWidth + column;
-
-                /* get the current index entry */
-                long blockIndexEntry = mTileSource.databaseIndexCache.getIndexEntry(subFileParameter,
-                        blockNumber);
-
-                /* check the water flag of the block in its index entry */
-                if ((blockIndexEntry & BITMASK_INDEX_WATER) != 0) {
-                    // Deprecate water tiles rendering
-                    /*MapElement e = mElem;
-                    e.clear();
-                    e.tags.clear();
-                    e.tags.add(mWaterTag);
-                    e.startPolygon();
-                    e.addPoint(xmin, ymin);
-                    e.addPoint(xmax, ymin);
-                    e.addPoint(xmax, ymax);
-                    e.addPoint(xmin, ymax);
-                    mapDataSink.process(e);*/
-                }
 
-                /* get and check the current block pointer */
-                long blockPointer = blockIndexEntry & BITMASK_INDEX_OFFSET;
-                if (blockPointer < 1 || blockPointer > subFileParameter.subFileSize) {
-                    log.warn("invalid current block pointer: " + blockPointer);
-                    log.warn("subFileSize: " + subFileParameter.subFileSize);
-                    return;
-                }
+        long fromBlockX = Long.MAX_VALUE, fromBlockY = Long.MAX_VALUE;
+        long toBlockX = Long.MIN_VALUE, toBlockY = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            QueryParameters queryParams = targets[i].params;
+            fromBlockX = Math.min(fromBlockX, queryParams.fromBlockX);
+            fromBlockY = Math.min(fromBlockY, queryParams.fromBlockY);
+            toBlockX = Math.max(toBlockX, queryParams.toBlockX);
+            toBlockY = Math.max(toBlockY, queryParams.toBlockY);
+        }
+        if (mActive.length < count)
+            mActive = new Target[count];
+
+        for (long row = fromBlockY; row <= toBlockY; row++) {
+            for (long column = fromBlockX; column <= toBlockX; column++) {
+                mNumActive = 0;
+                for (int i = 0; i < count; i++) {
+                    Target target = targets[i];
+                    QueryParameters queryParams = target.params;
+                    if (row < queryParams.fromBlockY || row > queryParams.toBlockY
+                            || column < queryParams.fromBlockX || column > queryParams.toBlockX)
+                        continue;
 
-                long nextBlockPointer;
-                /* check if the current block is the last block in the file */
-                if (blockNumber + 1 == subFileParameter.numberOfBlocks) {
-                    /* set the next block pointer to the end of the file */
-                    nextBlockPointer = subFileParameter.subFileSize;
-                } else {
-                    /* get and check the next block pointer */
-                    nextBlockPointer = mTileSource.databaseIndexCache.getIndexEntry(subFileParameter,
-                            blockNumber + 1);
-                    nextBlockPointer &= BITMASK_INDEX_OFFSET;
-
-                    if (nextBlockPointer < 1 || nextBlockPointer > subFileParameter.subFileSize) {
-                        log.warn("invalid next block pointer: " + nextBlockPointer);
-                        log.warn("sub-file size: " + subFileParameter.subFileSize);
-                        return;
-                    }
+                    setTileClipping(target, subFileParameter,
+                            row - queryParams.fromBlockY,
+                            column - queryParams.fromBlockX);
+                    mActive[mNumActive++] = target;
                 }
+                if (mNumActive == 0)
+                    continue;
 
-                /* calculate the size of the current block */
-                int blockSize = (int) (nextBlockPointer - blockPointer);
-                if (blockSize < 0) {
-                    log.warn("current block size must not be negative: "
-                            + blockSize);
+                int status = readBlock(subFileParameter, row, column);
+                if (status == BLOCK_INVALID)
                     return;
-                } else if (blockSize == 0) {
-                    /* the current block is empty, continue with the next block */
-                    continue;
-                } else if (blockSize > Parameters.MAXIMUM_BUFFER_SIZE) {
-                    /* the current block is too large, continue with the next
-                     * block */
-                    log.warn("current block size too large: " + blockSize);
+                if (status == BLOCK_EMPTY)
                     continue;
-                } else if (blockPointer + blockSize > mFileSize) {
-                    log.warn("current block larger than file size: "
-                            + blockSize);
-                    return;
-                }
 
-                /* seek to the current block in the map file */
-                mInputFile.seek(subFileParameter.startAddress + blockPointer);
+                mBlockReads++;
+                mSharedBlockReads += mNumActive - 1;
 
-                /* read the current block into the buffer */
-                if (!mReadBuffer.readFromFile(blockSize)) {
-                    /* skip the current block */
-                    log.warn("reading current block has failed: " + blockSize);
-                    return;
-                }
+                processBlock(subFileParameter, boundingBox, selector, mapReadResult);
+            }
+        }
+    }
 
-                /* calculate the top-left coordinates of the underlying tile */
-                double tileLatitudeDeg =
-                        Projection.tileYToLatitude(subFileParameter.boundaryTileTop + row,
-                                subFileParameter.baseZoomLevel);
-                double tileLongitudeDeg =
-                        Projection.tileXToLongitude(subFileParameter.boundaryTileLeft + column,
-                                subFileParameter.baseZoomLevel);
+    /**
+     * Read a block into the buffer.
+     *
+     * @return BLOCK_READ, BLOCK_EMPTY when the block is to be skipped or
+     * BLOCK_INVALID when the query must be aborted.
+     */
+    private int readBlock(SubFileParameter subFileParameter, long row, long column)
+            throws IOException {
+        /* calculate the actual block number of the needed block in the
+         * file */
+        long blockNumber = row * subFileParameter.blocksWidth + column;
+
+        /* get the current index entry */
+        long blockIndexEntry = mTileSource.databaseIndexCache.getIndexEntry(subFileParameter,
+                blockNumber);
+
+        /* check the water flag of the block in its index entry */
+        if ((blockIndexEntry & BITMASK_INDEX_WATER) != 0) {
+            // Deprecate water tiles rendering
+            /*MapElement e = mElem;
+            e.clear();
+            e.tags.clear();
+            e.tags.add(mWaterTag);
+            e.startPolygon();
+            e.addPoint(xmin, ymin);
+            e.addPoint(xmax, ymin);
+            e.addPoint(xmax, ymax);
+            e.addPoint(xmin, ymax);
+            mapDataSink.process(e);*/
+        }
 
-                mTileLatitude = (int) (tileLatitudeDeg * 1E6);
-                mTileLongitude = (int) (tileLongitudeDeg * 1E6);
+        /* get and check the current block pointer */
+        long blockPointer = blockIndexEntry & BITMASK_INDEX_OFFSET;
+        if (blockPointer < 1 || blockPointer > subFileParameter.subFileSize) {
+            log.warn("invalid current block pointer: " + blockPointer);
+            log.warn("subFileSize: " + subFileParameter.subFileSize);
+            return BLOCK_INVALID;
+        }
 
-                processBlock(queryParams, subFileParameter, mapDataSink, boundingBox, selector, mapReadResult);
+        long nextBlockPointer;
+        /* check if the current block is the last block in the file */
+        if (blockNumber + 1 == subFileParameter.numberOfBlocks) {
+            /* set the next block pointer to the end of the file */
+            nextBlockPointer = subFileParameter.subFileSize;
+        } else {
+            /* get and check the next block pointer */
+            nextBlockPointer = mTileSource.databaseIndexCache.getIndexEntry(subFileParameter,
+                    blockNumber + 1);
+            nextBlockPointer &= BITMASK_INDEX_OFFSET;
+
+            if (nextBlockPointer < 1 || nextBlockPointer > subFileParameter.subFileSize) {
+                log.warn("invalid next block pointer: " + nextBlockPointer);
+                log.warn("sub-file size: " + subFileParameter.subFileSize);
+                return BLOCK_INVALID;
             }
         }
+
+        /* calculate the size of the current block */
+        int blockSize = (int) (nextBlockPointer - blockPointer);
+        if (blockSize < 0) {
+            log.warn("current block size must not be negative: "
+                    + blockSize);
+            return BLOCK_INVALID;
+        } else if (blockSize == 0) {
+            /* the current block is empty, continue with the next block */
+            return BLOCK_EMPTY;
+        } else if (blockSize > Parameters.MAXIMUM_BUFFER_SIZE) {
+            /* the current block is too large, continue with the next
+             * block */
+            log.warn("current block size too large: " + blockSize);
+            return BLOCK_EMPTY;
+        } else if (blockPointer + blockSize > mFileSize) {
+            log.warn("current block larger than file size: "
+                    + blockSize);
+            return BLOCK_INVALID;
+        }
+
+        /* seek to the current block in the map file */
+        mInputFile.seek(subFileParameter.startAddress + blockPointer);
+
+        /* read the current block into the buffer */
+        if (!mReadBuffer.readFromFile(blockSize)) {
+            /* skip the current block */
+            log.warn("reading current block has failed: " + blockSize);
+            return BLOCK_INVALID;
+        }
+        mBytesRead += blockSize;
+
+        /* calculate the top-left coordinates of the underlying tile */
+        double tileLatitudeDeg =
+                Projection.tileYToLatitude(subFileParameter.boundaryTileTop + row,
+                        subFileParameter.baseZoomLevel);
+        double tileLongitudeDeg =
+                Projection.tileXToLongitude(subFileParameter.boundaryTileLeft + column,
+                        subFileParameter.baseZoomLevel);
+
+        mTileLatitude = (int) (tileLatitudeDeg * 1E6);
+        mTileLongitude = (int) (tileLongitudeDeg * 1E6);
+
+        return BLOCK_READ;
     }
 
     /**
@@ -605,13 +823,12 @@ public class MapDatabase implements ITileDataSource {
     /**
      * Processes the given number of POIs.
      *
-     * @param mapDataSink  the callback which handles the extracted POIs.
      * @param numberOfPois how many POIs should be processed.
      * @return true if the POIs could be processed successfully, false
      * otherwise.
      */
-    private boolean processPOIs(ITileDataSink mapDataSink, int numberOfPois, BoundingBox boundingBox,
-                                boolean filterRequired, List<PointOfInterest> pois) {
+    private boolean processPOIs(int numberOfPois, BoundingBox boundingBox,
+                                List<PointOfInterest> pois) {
         Tag[] poiTags = mTileSource.fileInfo.poiTags;
         MapElement e = mElem;
 
@@ -669,27 +886,49 @@ public class MapDatabase implements ITileDataSource {
                 String str = Integer.toString(mReadBuffer.readSignedInt());
                 e.tags.add(new Tag(Tag.KEY_ELE, str, false));
             }
-            mTileProjection.projectPoint(latitude, longitude, e);
 
-            if (!mTileSeparator.separate(e))
+            int targets = 0;
+            int poi = numberOfPois - elementCounter;
+            for (int i = 0; i < mNumActive; i++) {
+                if (poi < mActive[i].numPois)
+                    targets |= 1 << i;
+            }
+            if (targets == 0)
                 continue;
+            mSharedDecodes += Integer.bitCount(targets) - 1;
 
-            e.setLayer(layer);
-
-            if (pois != null) {
-                List<Tag> tags = new ArrayList<>();
-                for (int i = 0; i < e.tags.size(); i++)
-                    tags.add(e.tags.get(i));
-                GeoPoint position = new GeoPoint(latitude, longitude);
-                // depending on the zoom level configuration the poi can lie outside
-                // the tile requested, we filter them out here
-                if (!filterRequired || boundingBox.contains(position)) {
-                    pois.add(new PointOfInterest(layer, tags, position));
+            /* the last tile gets the decoded element, the others a copy */
+            int last = 31 - Integer.numberOfLeadingZeros(targets);
+            for (int i = 0; i <= last; i++) {
+                if ((targets & (1 << i)) == 0)
+                    continue;
+                Target target = mActive[i];
+                MapElement p = e;
+                if (i < last)
+                    p = copy(e, mCopy);
+
+                target.projection.projectPoint(latitude, longitude, p);
+
+                if (!target.separator.separate(p))
+                    continue;
+
+                p.setLayer(layer);
+
+                if (pois != null) {
+                    List<Tag> tags = new ArrayList<>();
+                    for (int j = 0; j < p.tags.size(); j++)
+                        tags.add(p.tags.get(j));
+                    GeoPoint position = new GeoPoint(latitude, longitude);
+                    // depending on the zoom level configuration the poi can lie outside
+                    // the tile requested, we filter them out here
+                    if (!target.filterRequired || boundingBox.contains(position)) {
+                        pois.add(new PointOfInterest(layer, tags, position));
+                    }
                 }
-            }
 
-            if (mapDataSink != null)
-                mapDataSink.process(e);
+                if (target.sink != null)
+                    target.sink.process(p);
+            }
         }
 
         return true;
@@ -798,20 +1037,27 @@ public class MapDatabase implements ITileDataSource {
     /**
      * Processes the given number of ways.
      *
-     * @param queryParameters the parameters of the current query.
-     * @param mapDataSink     the callback which handles the extracted ways.
-     * @param numberOfWays    how many ways should be processed.
+     * @param numberOfWays how many ways should be processed.
      * @return true if the ways could be processed successfully, false
      * otherwise.
      */
-    private boolean processWays(QueryParameters queryParameters, ITileDataSink mapDataSink,
-                                int numberOfWays, BoundingBox boundingBox, boolean filterRequired,
+    private boolean processWays(int numberOfWays, BoundingBox boundingBox,
                                 Selector selector, List<Way> ways) {
 
         Tag[] wayTags = mTileSource.fileInfo.wayTags;
         MapElement e = mElem;
 
+        /* skip ways outside of all tiles with the combined tile bitmask */
+        boolean useTileBitmask = true;
+        int queryTileBitmask = 0;
+        for (int i = 0; i < mNumActive; i++) {
+            QueryParameters queryParameters = mActive[i].params;
+            useTileBitmask &= queryParameters.useTileBitmask;
+            queryTileBitmask |= queryParameters.queryTileBitmask;
+        }
+
         int wayDataBlocks;
+        int wayEnd;
 
         // skip string block
         int stringsSize = 0;
@@ -839,8 +1085,9 @@ public class MapDatabase implements ITileDataSource {
                 }
             }
 
-            if (queryParameters.useTileBitmask) {
-                elementCounter = mReadBuffer.skipWays(queryParameters.queryTileBitmask,
+            int wayBitmask;
+            if (useTileBitmask) {
+                elementCounter = mReadBuffer.skipWays(queryTileBitmask,
                         elementCounter);
 
                 if (elementCounter == 0)
@@ -849,6 +1096,9 @@ public class MapDatabase implements ITileDataSource {
                 if (elementCounter < 0)
                     return false;
 
+                wayEnd = mReadBuffer.lastWayEnd;
+                wayBitmask = mReadBuffer.lastWayBitmask;
+
                 if (mTileSource.experimental && mReadBuffer.lastTagPosition > 0) {
                     int pos = mReadBuffer.getBufferPosition();
                     mReadBuffer.setBufferPosition(mReadBuffer.lastTagPosition);
@@ -870,9 +1120,23 @@ public class MapDatabase implements ITileDataSource {
                     log.error("BUG way 2");
                     return false;
                 }
+                wayEnd = mReadBuffer.getBufferPosition() + wayDataSize;
 
-                /* ignore the way tile bitmask (2 bytes) */
-                mReadBuffer.skipBytes(2);
+                /* get the way tile bitmask (2 bytes) */
+                wayBitmask = mReadBuffer.readShort();
+            }
+
+            int targets = 0;
+            int way = numberOfWays - elementCounter;
+            for (int i = 0; i < mNumActive; i++) {
+                QueryParameters queryParameters = mActive[i].params;
+                if (way < mActive[i].numWays && (!queryParameters.useTileBitmask
+                        || (wayBitmask & queryParameters.queryTileBitmask) != 0))
+                    targets |= 1 << i;
+            }
+            if (targets == 0) {
+                mReadBuffer.setBufferPosition(wayEnd);
+                continue;
             }
 
             /* get the special byte which encodes multiple flags */
@@ -930,6 +1194,25 @@ public class MapDatabase implements ITileDataSource {
                 }
             }
 
+            /* skip ways which the sinks discard by their tags */
+            if (ways == null) {
+                for (int i = 0; i < mNumActive; i++) {
+                    ITileDataFilter filter = mActive[i].filter;
+                    if (filter != null && (targets & (1 << i)) != 0
+                            && !filter.accept(GeometryType.NONE, e.tags))
+                        targets &= ~(1 << i);
+                }
+            }
+            if (targets == 0) {
+                /* skip label position and way data blocks */
+                mSkippedWays++;
+                mSkippedWayBytes += wayEnd - mReadBuffer.getBufferPosition();
+                mReadBuffer.setBufferPosition(wayEnd);
+                continue;
+            }
+            /* the last tile gets the decoded element, the others a copy */
+            int last = 31 - Integer.numberOfLeadingZeros(targets);
+
             int[] labelPosition = null;
             if ((featureByte & WAY_FEATURE_LABEL_POSITION) != 0) {
                 labelPosition = readOptionalLabelPosition();
@@ -967,44 +1250,79 @@ public class MapDatabase implements ITileDataSource {
 
                 if (labelPosition != null && wayDataBlock == 0)
                     e.setLabelPosition(e.points[0] + labelPosition[0], e.points[1] + labelPosition[1]);
-                mTileProjection.project(e);
 
-                // Avoid clipping for buildings, which slows rendering.
-                // But clip everything if buildings are displayed.
-                if (!e.tags.containsKey(Tag.KEY_BUILDING)
-                        && !e.tags.containsKey(Tag.KEY_BUILDING_PART)) {
-                    if (!mTileClipper.clip(e))
-                        continue;
-                } else if (queryParameters.queryZoomLevel >= BuildingLayer.MIN_ZOOM) {
-                    if (!mTileSeparator.separate(e))
+                mSharedDecodes += Integer.bitCount(targets) - 1;
+
+                for (int i = 0; i <= last; i++) {
+                    if ((targets & (1 << i)) == 0)
                         continue;
-                }
-                e.simplify(1, true);
-
-                e.setLayer(layer);
-
-                if (ways != null) {
-                    BoundingBox wayFilterBbox = boundingBox.extendMeters(wayFilterDistance);
-                    GeoPoint[][] wayNodesArray = wayNodes.toArray(new GeoPoint[wayNodes.size()][]);
-                    if (!filterRequired || !wayFilterEnabled || wayFilterBbox.intersectsArea(wayNodesArray)) {
-                        List<Tag> tags = new ArrayList<>();
-                        for (int i = 0; i < e.tags.size(); i++)
-                            tags.add(e.tags.get(i));
-                        if (Selector.ALL == selector || hasName || hasHouseNr || hasRef || wayAsLabelTagFilter(tags)) {
-                            GeoPoint labelPos = e.labelPosition != null ? new GeoPoint(e.labelPosition.y / 1E6, e.labelPosition.x / 1E6) : null;
-                            ways.add(new Way(layer, tags, wayNodesArray, labelPos, e.type));
+                    Target target = mActive[i];
+                    MapElement w = e;
+                    if (i < last)
+                        w = copy(e, mCopy);
+
+                    target.projection.project(w);
+
+                    // Avoid clipping for buildings, which slows rendering.
+                    // But clip everything if buildings are displayed.
+                    if (!w.tags.containsKey(Tag.KEY_BUILDING)
+                            && !w.tags.containsKey(Tag.KEY_BUILDING_PART)) {
+                        if (!target.clipper.clip(w, mClipBuffer))
+                            continue;
+                    } else if (target.params.queryZoomLevel >= BuildingLayer.MIN_ZOOM) {
+                        if (!target.separator.separate(w))
+                            continue;
+                    }
+                    w.simplify(1, true);
+
+                    w.setLayer(layer);
+
+                    if (ways != null) {
+                        BoundingBox wayFilterBbox = boundingBox.extendMeters(wayFilterDistance);
+                        GeoPoint[][] wayNodesArray = wayNodes.toArray(new GeoPoint[wayNodes.size()][]);
+                        if (!target.filterRequired || !wayFilterEnabled || wayFilterBbox.intersectsArea(wayNodesArray)) {
+                            List<Tag> tags = new ArrayList<>();
+                            for (int j = 0; j < w.tags.size(); j++)
+                                tags.add(w.tags.get(j));
+                            if (Selector.ALL == selector || hasName || hasHouseNr || hasRef || wayAsLabelTagFilter(tags)) {
+                                GeoPoint labelPos = w.labelPosition != null ? new GeoPoint(w.labelPosition.y / 1E6, w.labelPosition.x / 1E6) : null;
+                                ways.add(new Way(layer, tags, wayNodesArray, labelPos, w.type));
+                            }
                         }
                     }
-                }
 
-                if (mapDataSink != null)
-                    mapDataSink.process(e);
+                    if (target.sink != null)
+                        target.sink.process(w);
+                }
             }
         }
 
         return true;
     }
 
+    /**
+     * Copy the decoded element, before it is projected and clipped for a tile.
+     */
+    private static MapElement copy(MapElement e, MapElement out) {
+        out.clear();
+        out.tags.set(e.tags);
+        out.type = e.type;
+        out.layer = e.layer;
+
+        float[] points = out.ensurePointSize(e.pointNextPos >> 1, false);
+        System.arraycopy(e.points, 0, points, 0, e.pointNextPos);
+        out.pointNextPos = e.pointNextPos;
+
+        int[] index = out.ensureIndexSize(e.index.length, false);
+        System.arraycopy(e.index, 0, index, 0, e.index.length);
+        index[e.index.length] = -1;
+        out.indexCurrentPos = e.indexCurrentPos;
+
+        out.labelPosition = e.labelPosition != null
+                ? new PointF(e.labelPosition.x, e.labelPosition.y) : null;
+        return out;
+    }
+
     /**
      * Reads only labels for tile.
      *
@@ -1055,17 +1373,36 @@ public class MapDatabase implements ITileDataSource {
         if (mTileSource.fileHeader == null)
             return null;
 
+        return readMapData(upperLeft, lowerRight,
+                mTileSource.fileHeader.getQueryZoomLevel(upperLeft.zoomLevel), selector);
+    }
+
+    /**
+     * Reads all POIs of the blocks covered by the given tile which are visible
+     * at the query zoom level. Used by {@link PoiIndexBuilder} to scan the
+     * blocks of a sub-file one by one.
+     */
+    MapReadResult readPoiData(Tile tile, byte queryZoomLevel) {
+        if (mTileSource.fileHeader == null)
+            return null;
+
+        return readMapData(tile, tile, queryZoomLevel, Selector.POIS);
+    }
+
+    private MapReadResult readMapData(Tile upperLeft, Tile lowerRight, byte queryZoomLevel,
+                                      Selector selector) {
+
         MapReadResult mapReadResult = new MapReadResult();
 
         if (mIntBuffer == null)
             mIntBuffer = new int[Short.MAX_VALUE * 2];
 
         try {
-            mTileProjection.setTile(upperLeft);
+            mTarget.setSink(null);
+            mTarget.projection.setTile(upperLeft);
 
             QueryParameters queryParameters = new QueryParameters();
-            queryParameters.queryZoomLevel =
-                    mTileSource.fileHeader.getQueryZoomLevel(upperLeft.zoomLevel);
+            queryParameters.queryZoomLevel = queryZoomLevel;
 
             /* get and check the sub-file for the query zoom level */
             SubFileParameter subFileParameter =
@@ -1080,7 +1417,8 @@ public class MapDatabase implements ITileDataSource {
 
             QueryCalculations.calculateBaseTiles(queryParameters, upperLeft, lowerRight, subFileParameter);
             QueryCalculations.calculateBlocks(queryParameters, subFileParameter);
-            processBlocks(queryParameters, subFileParameter, Tile.getBoundingBox(upperLeft, lowerRight), selector, mapReadResult);
+            mTarget.params = queryParameters;
+            processBlocks(mSingle, 1, subFileParameter, Tile.getBoundingBox(upperLeft, lowerRight), selector, mapReadResult);
         } catch (IOException e) {
             log.error(e);
             return null;
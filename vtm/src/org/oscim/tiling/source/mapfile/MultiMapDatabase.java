@@ -16,14 +16,14 @@ package org.oscim.tiling.source.mapfile;
 
 import org.oscim.core.Tile;
 import org.oscim.layers.tile.MapTile;
+import org.oscim.tiling.ITileBatchDataSource;
 import org.oscim.tiling.ITileDataSink;
-import org.oscim.tiling.ITileDataSource;
 import org.oscim.tiling.TileDataSink;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class MultiMapDatabase implements ITileDataSource {
+public class MultiMapDatabase implements ITileBatchDataSource {
 
     private final List<MapDatabase> mapDatabases = new ArrayList<>();
 
@@ -47,6 +47,29 @@ public class MultiMapDatabase implements ITileDataSource {
         sink.completed(dataSink.getResult());
     }
 
+    @Override
+    public void query(MapTile[] tiles, ITileDataSink[] sinks, int count) {
+        TileDataSink[] dataSinks = new TileDataSink[count];
+        for (int i = 0; i < count; i++)
+            dataSinks[i] = new TileDataSink(sinks[i]);
+
+        MapTile[] batchTiles = new MapTile[count];
+        ITileDataSink[] batchSinks = new ITileDataSink[count];
+        for (MapDatabase mapDatabase : mapDatabases) {
+            int n = 0;
+            for (int i = 0; i < count; i++) {
+                if (mapDatabase.supportsTile(tiles[i])) {
+                    batchTiles[n] = tiles[i];
+                    batchSinks[n++] = dataSinks[i];
+                }
+            }
+            if (n > 0)
+                mapDatabase.query(batchTiles, batchSinks, n);
+        }
+        for (int i = 0; i < count; i++)
+            sinks[i].completed(dataSinks[i].getResult());
+    }
+
     @Override
     public void dispose() {
         for (MapDatabase mapDatabase : mapDatabases) {
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.mapfile;
+
+import org.oscim.core.BoundingBox;
+import org.oscim.core.GeoPoint;
+import org.oscim.core.Tag;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Memory-mapped POI search index, written by {@link PoiIndexBuilder} as
+ * sidecar of a map file.
+ * <p/>
+ * POIs can be queried by name prefix, category ("key=value" of a POI tag)
+ * and bounding box without decoding map blocks:
+ * <ul>
+ * <li>entries are sorted by normalized name, a prefix maps to a range of entries</li>
+ * <li>each category has a sorted posting list of entry ids</li>
+ * <li>a uniform grid over the bounding box of all entries holds entry ids per cell</li>
+ * </ul>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic, version, map file size and date, counts, bounds, section offsets
+ * entries  count * (lat, lon, key offset, name offset)
+ * category count * string offset, count + 1 posting starts
+ * postings entry ids
+ * grid     size * size + 1 cell starts, entry ids
+ * strings  (unsigned short length, UTF-8 bytes)*
+ * </pre>
+ */
+public class PoiIndex implements Closeable {
+
+    static final int MAGIC = 0x56504f49; // VPOI
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 4 * 4 + 2 * 8 + 4 * 4 + 4 * 5;
+    static final int ENTRY_SIZE = 4 * 4;
+
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final RandomAccessFile mFile;
+    private final ByteBuffer mBuffer;
+
+    private final long mMapFileSize;
+    private final long mMapDate;
+    private final int mEntries;
+    private final int mCategories;
+    private final int mGridSize;
+    private final int mMinLat, mMinLon, mMaxLat, mMaxLon;
+
+    private final int mCategoryOffset;
+    private final int mPostingsOffset;
+    private final int mGridOffset;
+    private final int mStringsOffset;
+
+    private long mBytesRead;
+
+    private PoiIndex(RandomAccessFile file, ByteBuffer buffer) throws IOException {
+        mFile = file;
+        mBuffer = buffer;
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException("invalid poi index");
+
+        mEntries = buffer.getInt(8);
+        mCategories = buffer.getInt(12);
+        mMapFileSize = buffer.getLong(16);
+        mMapDate = buffer.getLong(24);
+        mGridSize = buffer.getInt(32);
+        mMinLat = buffer.getInt(36);
+        mMinLon = buffer.getInt(40);
+        mMaxLat = buffer.getInt(44);
+        mMaxLon = buffer.getInt(48);
+        mCategoryOffset = buffer.getInt(52);
+        mPostingsOffset = buffer.getInt(56);
+        mGridOffset = buffer.getInt(60);
+        mStringsOffset = buffer.getInt(64);
+    }
+
+    /**
+     * Memory-map the index file.
+     */
+    public static PoiIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            return new PoiIndex(raf, buffer);
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the default sidecar file of a map file.
+     */
+    public static File getIndexFile(File mapFile) {
+        return new File(mapFile.getPath() + ".poi");
+    }
+
+    /**
+     * Key used for sorting and prefix search.
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void close() throws IOException {
+        mFile.close();
+    }
+
+    /**
+     * @return true when the index was built from the given map file.
+     */
+    public boolean isValid(MapInfo mapInfo) {
+        return mapInfo.fileSize == mMapFileSize && mapInfo.mapDate == mMapDate;
+    }
+
+    public int size() {
+        return mEntries;
+    }
+
+    /**
+     * @return number of bytes of the index read by searches, not
+     * synchronized between threads
+     */
+    public long getBytesRead() {
+        return mBytesRead;
+    }
+
+    public List<String> getCategories() {
+        List<String> categories = new ArrayList<>(mCategories);
+        for (int i = 0; i < mCategories; i++)
+            categories.add(category(i));
+        return categories;
+    }
+
+    /**
+     * Search POIs, all criteria are optional.
+     *
+     * @param prefix   name prefix, case-insensitive
+     * @param category "key=value" of a POI tag
+     * @param bbox     area to search in
+     * @param limit    maximum number of results
+     * @return matching POIs with name and category tags, in name order when
+     * a prefix is given.
+     */
+    public List<PointOfInterest> search(String prefix, String category, BoundingBox bbox, int limit) {
+        List<PointOfInterest> result = new ArrayList<>();
+        if (limit <= 0)
+            return result;
+
+        int postingStart = 0, postingEnd = 0;
+        if (category != null) {
+            int c = findCategory(category);
+            if (c < 0)
+                return result;
+            postingStart = postingStart(c);
+            postingEnd = postingStart(c + 1);
+        }
+
+        if (prefix != null) {
+            String key = normalize(prefix);
+            int from = lowerBound(key);
+            for (int id = from; id < mEntries && result.size() < limit; id++) {
+                if (!key(id).startsWith(key))
+                    break;
+                if (category != null && !contains(postingStart, postingEnd, id))
+                    continue;
+                if (bbox != null && !contains(bbox, id))
+                    continue;
+                result.add(poi(id, category));
+            }
+        } else if (category != null) {
+            for (int i = postingStart; i < postingEnd && result.size() < limit; i++) {
+                int id = getInt(mPostingsOffset + i * 4);
+                if (bbox != null && !contains(bbox, id))
+                    continue;
+                result.add(poi(id, null));
+            }
+        } else if (bbox != null) {
+            searchGrid(bbox, limit, result);
+        } else {
+            for (int id = 0; id < mEntries && result.size() < limit; id++)
+                result.add(poi(id, null));
+        }
+        return result;
+    }
+
+    private void searchGrid(BoundingBox bbox, int limit, List<PointOfInterest> result) {
+        if (mEntries == 0
+                || bbox.maxLatitudeE6 < mMinLat || bbox.minLatitudeE6 > mMaxLat
+                || bbox.maxLongitudeE6 < mMinLon || bbox.minLongitudeE6 > mMaxLon)
+            return;
+
+        int y1 = cell(bbox.minLatitudeE6, mMinLat, mMaxLat);
+        int y2 = cell(bbox.maxLatitudeE6, mMinLat, mMaxLat);
+        int x1 = cell(bbox.minLongitudeE6, mMinLon, mMaxLon);
+        int x2 = cell(bbox.maxLongitudeE6, mMinLon, mMaxLon);
+        int ids = mGridOffset + (mGridSize * mGridSize + 1) * 4;
+
+        for (int y = y1; y <= y2; y++) {
+            for (int x = x1; x <= x2; x++) {
+                int cell = y * mGridSize + x;
+                int start = getInt(mGridOffset + cell * 4);
+                int end = getInt(mGridOffset + cell * 4 + 4);
+                for (int i = start; i < end; i++) {
+                    int id = getInt(ids + i * 4);
+                    if (!contains(bbox, id))
+                        continue;
+                    result.add(poi(id, null));
+                    if (result.size() >= limit)
+                        return;
+                }
+            }
+        }
+    }
+
+    int cell(int v, int min, int max) {
+        return cell(v, min, max, mGridSize);
+    }
+
+    static int cell(int v, int min, int max, int gridSize) {
+        if (v <= min)
+            return 0;
+        if (v >= max)
+            return gridSize - 1;
+        return (int) ((long) (v - min) * gridSize / ((long) max - min + 1));
+    }
+
+    private boolean contains(BoundingBox bbox, int id) {
+        int lat = lat(id);
+        int lon = lon(id);
+        return lat >= bbox.minLatitudeE6 && lat <= bbox.maxLatitudeE6
+                && lon >= bbox.minLongitudeE6 && lon <= bbox.maxLongitudeE6;
+    }
+
+    /**
+     * Binary search in the sorted posting list.
+     */
+    private boolean contains(int start, int end, int id) {
+        int lo = start, hi = end - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = getInt(mPostingsOffset + mid * 4);
+            if (v < id)
+                lo = mid + 1;
+            else if (v > id)
+                hi = mid - 1;
+            else
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return first entry with key >= the given key
+     */
+    private int lowerBound(String key) {
+        int lo = 0, hi = mEntries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(mid).compareTo(key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private int findCategory(String category) {
+        /* categories are sorted */
+        int lo = 0, hi = mCategories - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = category(mid).compareTo(category);
+            if (cmp < 0)
+                lo = mid + 1;
+            else if (cmp > 0)
+                hi = mid - 1;
+            else
+                return mid;
+        }
+        return -1;
+    }
+
+    private PointOfInterest poi(int id, String category) {
+        List<Tag> tags = new ArrayList<>(2);
+        String name = name(id);
+        if (name.length() > 0)
+            tags.add(new Tag(Tag.KEY_NAME, name, false));
+        if (category != null) {
+            int sep = category.indexOf('=');
+            tags.add(new Tag(category.substring(0, sep), category.substring(sep + 1)));
+        }
+        return new PointOfInterest((byte) 5, tags.isEmpty()
+                ? Collections.<Tag>emptyList() : tags, new GeoPoint(lat(id), lon(id)));
+    }
+
+    private int lat(int id) {
+        return getInt(HEADER_SIZE + id * ENTRY_SIZE);
+    }
+
+    private int lon(int id) {
+        return getInt(HEADER_SIZE + id * ENTRY_SIZE + 4);
+    }
+
+    String key(int id) {
+        return string(getInt(HEADER_SIZE + id * ENTRY_SIZE + 8));
+    }
+
+    private String name(int id) {
+        return string(getInt(HEADER_SIZE + id * ENTRY_SIZE + 12));
+    }
+
+    private String category(int c) {
+        return string(getInt(mCategoryOffset + c * 4));
+    }
+
+    private int postingStart(int c) {
+        return getInt(mCategoryOffset + mCategories * 4 + c * 4);
+    }
+
+    private int getInt(int index) {
+        mBytesRead += 4;
+        return mBuffer.getInt(index);
+    }
+
+    private String string(int offset) {
+        int pos = mStringsOffset + offset;
+        int length = mBuffer.getShort(pos) & 0xffff;
+        mBytesRead += 2 + length;
+        byte[] bytes = new byte[length];
+        ByteBuffer b = mBuffer.duplicate();
+        b.position(pos + 2);
+        b.get(bytes);
+        return new String(bytes, UTF8);
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.tiling.source.mapfile;
+
+import org.oscim.core.Tag;
+import org.oscim.core.Tile;
+import org.oscim.debug.Logger;
+import org.oscim.tiling.source.mapfile.header.SubFileParameter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link PoiIndex} by scanning all POI blocks of a map file once.
+ * <p/>
+ * Usage:
+ * <pre>
+ * MapFileTileSource tileSource = new MapFileTileSource();
+ * tileSource.setMapFile(path);
+ * tileSource.open();
+ * new PoiIndexBuilder().build(tileSource, PoiIndex.getIndexFile(new File(path)));
+ * </pre>
+ */
+public class PoiIndexBuilder {
+    private static final Logger log = new Logger(PoiIndexBuilder.class);
+
+    public static final int DEFAULT_GRID_SIZE = 64;
+
+    private int mGridSize = DEFAULT_GRID_SIZE;
+
+    private int mCount;
+    private int[] mLat = new int[1024];
+    private int[] mLon = new int[1024];
+    private String[] mNames = new String[1024];
+
+    private final Map<String, Integer> mCategoryIds = new HashMap<>();
+    private final List<String> mCategories = new ArrayList<>();
+    /* per category: entry ids, in insertion order */
+    private final List<int[]> mPostings = new ArrayList<>();
+    private final List<Integer> mPostingSizes = new ArrayList<>();
+
+    /**
+     * @param gridSize cells per side of the spatial grid
+     */
+    public PoiIndexBuilder setGridSize(int gridSize) {
+        mGridSize = Math.max(1, gridSize);
+        return this;
+    }
+
+    /**
+     * Scan the POIs of an opened map file and write the index.
+     *
+     * @return number of indexed POIs
+     */
+    public int build(MapFileTileSource tileSource, File out) throws IOException {
+        if (tileSource.fileHeader == null)
+            throw new IOException("map file not opened");
+
+        MapDatabase mapDatabase = new MapDatabase(tileSource);
+        try {
+            /* all POIs are in the sub-file of the highest zoom level */
+            byte queryZoomLevel = tileSource.fileHeader.getQueryZoomLevel(Byte.MAX_VALUE);
+            SubFileParameter subFile = tileSource.fileHeader.getSubFileParameter(queryZoomLevel);
+
+            for (long y = subFile.boundaryTileTop; y <= subFile.boundaryTileBottom; y++) {
+                for (long x = subFile.boundaryTileLeft; x <= subFile.boundaryTileRight; x++) {
+                    Tile tile = new Tile((int) x, (int) y, subFile.baseZoomLevel);
+                    MapReadResult result = mapDatabase.readPoiData(tile, queryZoomLevel);
+                    if (result == null)
+                        continue;
+                    for (PointOfInterest poi : result.pointOfInterests)
+                        add(poi.position.latitudeE6, poi.position.longitudeE6, poi.tags);
+                }
+            }
+        } finally {
+            mapDatabase.dispose();
+        }
+
+        MapInfo mapInfo = tileSource.getMapInfo();
+        write(out, mapInfo.fileSize, mapInfo.mapDate);
+        log.debug("indexed " + mCount + " pois, " + mCategories.size() + " categories");
+        return mCount;
+    }
+
+    /**
+     * Add a POI. The name tag is indexed for prefix search, all other tags
+     * except house number and elevation as categories. POIs without name
+     * and category are ignored.
+     */
+    public void add(int latitudeE6, int longitudeE6, List<Tag> tags) {
+        String name = null;
+        int id = mCount;
+        boolean added = false;
+
+        for (int i = 0, n = tags.size(); i < n; i++) {
+            Tag tag = tags.get(i);
+            if (Tag.KEY_NAME.equals(tag.key)) {
+                name = tag.value;
+            } else if (!Tag.KEY_HOUSE_NUMBER.equals(tag.key) && !Tag.KEY_ELE.equals(tag.key)) {
+                addPosting(tag.key + "=" + tag.value, id);
+                added = true;
+            }
+        }
+        if (name == null && !added)
+            return;
+
+        if (mCount == mLat.length) {
+            int size = mCount + (mCount >> 1);
+            mLat = Arrays.copyOf(mLat, size);
+            mLon = Arrays.copyOf(mLon, size);
+            mNames = Arrays.copyOf(mNames, size);
+        }
+        mLat[mCount] = latitudeE6;
+        mLon[mCount] = longitudeE6;
+        mNames[mCount] = name == null ? "" : name;
+        mCount++;
+    }
+
+    private void addPosting(String category, int id) {
+        Integer c = mCategoryIds.get(category);
+        if (c == null) {
+            c = mCategories.size();
+            mCategoryIds.put(category, c);
+            mCategories.add(category);
+            mPostings.add(new int[4]);
+            mPostingSizes.add(0);
+        }
+        int[] posting = mPostings.get(c);
+        int size = mPostingSizes.get(c);
+        /* a POI may have the same tag twice */
+        if (size > 0 && posting[size - 1] == id)
+            return;
+        if (size == posting.length) {
+            posting = Arrays.copyOf(posting, size * 2);
+            mPostings.set(c, posting);
+        }
+        posting[size] = id;
+        mPostingSizes.set(c, size + 1);
+    }
+
+    /**
+     * Write the index of all added POIs.
+     *
+     * @param mapFileSize size of the indexed map file
+     * @param mapDate     date of the indexed map file
+     */
+    public void write(File out, long mapFileSize, long mapDate) throws IOException {
+        final int count = mCount;
+        final String[] keys = new String[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = PoiIndex.normalize(mNames[i]);
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return keys[a].compareTo(keys[b]);
+            }
+        });
+        /* old id -> sorted id */
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++)
+            ids[order[i]] = i;
+
+        /* string table, equal strings are stored once */
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream strings = new DataOutputStream(stringBytes);
+        Map<String, Integer> stringOffsets = new HashMap<>();
+
+        int minLat = Integer.MAX_VALUE, minLon = Integer.MAX_VALUE;
+        int maxLat = Integer.MIN_VALUE, maxLon = Integer.MIN_VALUE;
+        int[] keyOffsets = new int[count];
+        int[] nameOffsets = new int[count];
+        for (int i = 0; i < count; i++) {
+            int old = order[i];
+            keyOffsets[i] = string(strings, stringOffsets, keys[old]);
+            nameOffsets[i] = string(strings, stringOffsets, mNames[old]);
+            minLat = Math.min(minLat, mLat[old]);
+            minLon = Math.min(minLon, mLon[old]);
+            maxLat = Math.max(maxLat, mLat[old]);
+            maxLon = Math.max(maxLon, mLon[old]);
+        }
+        if (count == 0)
+            minLat = minLon = maxLat = maxLon = 0;
+
+        /* categories in sorted order */
+        int numCategories = mCategories.size();
+        Integer[] categoryOrder = new Integer[numCategories];
+        for (int i = 0; i < numCategories; i++)
+            categoryOrder[i] = i;
+        Arrays.sort(categoryOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return mCategories.get(a).compareTo(mCategories.get(b));
+            }
+        });
+        int[] categoryOffsets = new int[numCategories];
+        int numPostings = 0;
+        for (int i = 0; i < numCategories; i++) {
+            categoryOffsets[i] = string(strings, stringOffsets, mCategories.get(categoryOrder[i]));
+            numPostings += mPostingSizes.get(categoryOrder[i]);
+        }
+
+        /* grid cells, counting sort of sorted ids by cell */
+        int cells = mGridSize * mGridSize;
+        int[] cellStart = new int[cells + 1];
+        int[] cellOf = new int[count];
+        for (int i = 0; i < count; i++) {
+            int old = order[i];
+            int cell = PoiIndex.cell(mLat[old], minLat, maxLat, mGridSize) * mGridSize
+                    + PoiIndex.cell(mLon[old], minLon, maxLon, mGridSize);
+            cellOf[i] = cell;
+            cellStart[cell + 1]++;
+        }
+        for (int i = 0; i < cells; i++)
+            cellStart[i + 1] += cellStart[i];
+        int[] gridIds = new int[count];
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < count; i++)
+            gridIds[fill[cellOf[i]]++] = i;
+
+        int categoryOffset = PoiIndex.HEADER_SIZE + count * PoiIndex.ENTRY_SIZE;
+        int postingsOffset = categoryOffset + (2 * numCategories + 1) * 4;
+        int gridOffset = postingsOffset + numPostings * 4;
+        int stringsOffset = gridOffset + (cells + 1 + count) * 4;
+
+        DataOutputStream os = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(out)));
+        try {
+            os.writeInt(PoiIndex.MAGIC);
+            os.writeInt(PoiIndex.VERSION);
+            os.writeInt(count);
+            os.writeInt(numCategories);
+            os.writeLong(mapFileSize);
+            os.writeLong(mapDate);
+            os.writeInt(mGridSize);
+            os.writeInt(minLat);
+            os.writeInt(minLon);
+            os.writeInt(maxLat);
+            os.writeInt(maxLon);
+            os.writeInt(categoryOffset);
+            os.writeInt(postingsOffset);
+            os.writeInt(gridOffset);
+            os.writeInt(stringsOffset);
+
+            for (int i = 0; i < count; i++) {
+                os.writeInt(mLat[order[i]]);
+                os.writeInt(mLon[order[i]]);
+                os.writeInt(keyOffsets[i]);
+                os.writeInt(nameOffsets[i]);
+            }
+
+            for (int i = 0; i < numCategories; i++)
+                os.writeInt(categoryOffsets[i]);
+            int start = 0;
+            for (int i = 0; i < numCategories; i++) {
+                os.writeInt(start);
+                start += mPostingSizes.get(categoryOrder[i]);
+            }
+            os.writeInt(start);
+
+            for (int i = 0; i < numCategories; i++) {
+                int c = categoryOrder[i];
+                int size = mPostingSizes.get(c);
+                int[] posting = new int[size];
+                int[] old = mPostings.get(c);
+                for (int j = 0; j < size; j++)
+                    posting[j] = ids[old[j]];
+                Arrays.sort(posting);
+                for (int j = 0; j < size; j++)
+                    os.writeInt(posting[j]);
+            }
+
+            for (int i = 0; i <= cells; i++)
+                os.writeInt(cellStart[i]);
+            for (int i = 0; i < count; i++)
+                os.writeInt(gridIds[i]);
+
+            strings.flush();
+            stringBytes.writeTo(os);
+        } finally {
+            os.close();
+        }
+    }
+
+    private static int string(DataOutputStream strings, Map<String, Integer> offsets,
+                              String s) throws IOException {
+        Integer offset = offsets.get(s);
+        if (offset != null)
+            return offset;
+
+        byte[] bytes = s.getBytes(PoiIndex.UTF8);
+        if (bytes.length > 0xffff) {
+            /* cut at a character boundary */
+            int end = 0xffff;
+            while (end > 0 && (bytes[end] & 0xc0) == 0x80)
+                end--;
+            bytes = Arrays.copyOf(bytes, end);
+        }
+        offset = strings.size();
+        strings.writeShort(bytes.length);
+        strings.write(bytes);
+        offsets.put(s, offset);
+        return offset;
+    }
+}
@@ -453,6 +453,9 @@ public class ReadBuffer {
 
     private static final int WAY_NUMBER_OF_TAGS_BITMASK = 0x0f;
     int lastTagPosition;
+    /* end and tile bitmask of the way found by skipWays */
+    int lastWayEnd;
+    int lastWayBitmask;
 
     int skipWays(int queryTileBitmask, int elements) {
         int pos = mBufferPosition;
@@ -497,7 +500,8 @@ public class ReadBuffer {
             }
 
             // check if way matches queryTileBitmask
-            if ((((data[pos] << 8) | (data[pos + 1] & 0xff)) & queryTileBitmask) == 0) {
+            int bitmask = (data[pos] << 8) | (data[pos + 1] & 0xff);
+            if ((bitmask & queryTileBitmask) == 0) {
 
                 // remember last tags position
                 if ((data[pos + 2] & WAY_NUMBER_OF_TAGS_BITMASK) != 0)
@@ -506,6 +510,8 @@ public class ReadBuffer {
                 pos += skip;
                 cnt--;
             } else {
+                lastWayEnd = pos + skip;
+                lastWayBitmask = bitmask;
                 pos += 2;
                 break;
             }
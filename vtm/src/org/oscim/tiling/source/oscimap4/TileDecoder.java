@@ -23,6 +23,7 @@ import org.oscim.core.MapElement;
 import org.oscim.core.Tag;
 import org.oscim.core.TagSet;
 import org.oscim.core.Tile;
+import org.oscim.tiling.ITileDataFilter;
 import org.oscim.tiling.ITileDataSink;
 import org.oscim.tiling.source.PbfDecoder;
 import org.oscim.utils.FastMath;
@@ -73,6 +74,7 @@ public class TileDecoder extends PbfDecoder {
 
     private final TagSet mTileTags;
     private ITileDataSink mMapDataSink;
+    private ITileDataFilter mFilter;
 
     private int mVersion;
 
@@ -94,6 +96,7 @@ public class TileDecoder extends PbfDecoder {
 
         mTile = tile;
         mMapDataSink = sink;
+        mFilter = (sink instanceof ITileDataFilter) ? (ITileDataFilter) sink : null;
 
         mTileTags.clearAndNullTags();
 
@@ -289,6 +292,12 @@ public class TileDecoder extends PbfDecoder {
                 case TAG_ELEM_TAGS:
                     if (!decodeElementTags(numTags))
                         return false;
+                    /* tags precede the geometry */
+                    if (mFilter != null && type != TAG_TILE_MESH
+                            && !mFilter.accept(getGeometryType(type), mElem.tags)) {
+                        skip(end - position());
+                        return true;
+                    }
                     break;
 
                 case TAG_ELEM_NUM_INDICES:
@@ -359,24 +368,25 @@ public class TileDecoder extends PbfDecoder {
             return false;
         }
 
+        mElem.type = getGeometryType(type);
+
+        mMapDataSink.process(mElem);
+
+        return true;
+    }
+
+    private static GeometryType getGeometryType(int type) {
         switch (type) {
             case TAG_TILE_LINE:
-                mElem.type = GeometryType.LINE;
-                break;
+                return GeometryType.LINE;
             case TAG_TILE_POLY:
-                mElem.type = GeometryType.POLY;
-                break;
+                return GeometryType.POLY;
             case TAG_TILE_POINT:
-                mElem.type = GeometryType.POINT;
-                break;
+                return GeometryType.POINT;
             case TAG_TILE_MESH:
-                mElem.type = GeometryType.TRIS;
-                break;
+                return GeometryType.TRIS;
         }
-
-        mMapDataSink.process(mElem);
-
-        return true;
+        return GeometryType.NONE;
     }
 
     private boolean decodeElementTags(int numTags) throws IOException {
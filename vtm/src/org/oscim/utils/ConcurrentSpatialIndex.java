@@ -0,0 +1,354 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import org.oscim.core.Box;
+import org.oscim.core.Point;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SpatialIndex} for items that are updated from other threads than
+ * the one iterating them, e.g. live positions in a layer.
+ * <p/>
+ * Every update publishes a new immutable snapshot, readers take the current
+ * snapshot without locking and see no update which happens during their
+ * query. A snapshot is a {@link PackedRTree} plus the items inserted and
+ * removed since it was built; when these get too many, the writer rebuilds
+ * the tree. Inserts append to arrays shared between snapshots, only removes
+ * copy the removed set.
+ * <p/>
+ * Writers are serialized. Queries must not be nested in callbacks of
+ * another query on the same thread.
+ */
+public class ConcurrentSpatialIndex<T> implements SpatialIndex<T> {
+
+    /**
+     * Minimum number of updates before the tree is rebuilt.
+     */
+    public static int MIN_UPDATES = 256;
+
+    private static final class Snapshot {
+        final long epoch;
+        final PackedRTree<Object> tree;
+
+        /* inserted since the tree was built, shared with later snapshots */
+        final float[] boxes;
+        final Object[] items;
+        final int numAdded;
+
+        /* removed from the tree */
+        final Map<Object, Boolean> removed;
+
+        Snapshot(long epoch, PackedRTree<Object> tree, float[] boxes, Object[] items,
+                 int numAdded, Map<Object, Boolean> removed) {
+            this.epoch = epoch;
+            this.tree = tree;
+            this.boxes = boxes;
+            this.items = items;
+            this.numAdded = numAdded;
+            this.removed = removed;
+        }
+
+        int size() {
+            return tree.size() - removed.size() + numAdded;
+        }
+    }
+
+    /**
+     * Per-thread query buffers.
+     */
+    private static final class Reader implements SearchCb<Object> {
+        final PackedRTree.Query query = new PackedRTree.Query();
+
+        Map<Object, Boolean> removed;
+        SearchCb<Object> cb;
+        Object context;
+
+        /* nearest neighbors, sorted by distance */
+        Object[] items = new Object[16];
+        float[] distances = new float[16];
+        int count;
+        int limit;
+        boolean collect;
+
+        @Override
+        public boolean call(Object item, Object ctx) {
+            if (removed.containsKey(item))
+                return true;
+            if (collect) {
+                add(item, query.distance);
+                return true;
+            }
+            return cb.call(item, context);
+        }
+
+        void add(Object item, float distance) {
+            if (count == limit) {
+                if (distances[count - 1] <= distance)
+                    return;
+                count--;
+            }
+            if (count == items.length) {
+                items = Arrays.copyOf(items, count * 2);
+                distances = Arrays.copyOf(distances, count * 2);
+            }
+            /* insertion sort, keeps the limit nearest */
+            int i = count++;
+            while (i > 0 && distances[i - 1] > distance) {
+                items[i] = items[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            items[i] = item;
+            distances[i] = distance;
+        }
+
+        void reset() {
+            Arrays.fill(items, 0, count, null);
+            count = 0;
+            removed = null;
+            cb = null;
+            context = null;
+        }
+    }
+
+    private final ThreadLocal<Reader> mReaders = new ThreadLocal<Reader>() {
+        @Override
+        protected Reader initialValue() {
+            return new Reader();
+        }
+    };
+
+    private final PackedRTree.Query mWriterQuery = new PackedRTree.Query();
+    private final Object mWriteLock = new Object();
+    private volatile Snapshot mSnapshot;
+
+    public ConcurrentSpatialIndex() {
+        mSnapshot = empty(0);
+    }
+
+    private static Snapshot empty(long epoch) {
+        return new Snapshot(epoch, new PackedRTree<>(), new float[64], new Object[16], 0,
+                Collections.<Object, Boolean>emptyMap());
+    }
+
+    /**
+     * @return number of the current snapshot, incremented by each update
+     */
+    public long getEpoch() {
+        return mSnapshot.epoch;
+    }
+
+    @Override
+    public void insert(Box box, T item) {
+        synchronized (mWriteLock) {
+            Snapshot s = mSnapshot;
+            float[] boxes = s.boxes;
+            Object[] items = s.items;
+            int n = s.numAdded;
+            if (n == items.length) {
+                items = Arrays.copyOf(items, n * 2);
+                boxes = Arrays.copyOf(boxes, n * 2 * 4);
+            }
+            /* slots beyond numAdded are not visible to older snapshots */
+            items[n] = item;
+            boxes[n * 4] = (float) box.xmin;
+            boxes[n * 4 + 1] = (float) box.ymin;
+            boxes[n * 4 + 2] = (float) box.xmax;
+            boxes[n * 4 + 3] = (float) box.ymax;
+
+            publish(new Snapshot(s.epoch + 1, s.tree, boxes, items, n + 1, s.removed));
+        }
+    }
+
+    @Override
+    public boolean remove(Box box, T item) {
+        synchronized (mWriteLock) {
+            Snapshot s = mSnapshot;
+            for (int i = 0; i < s.numAdded; i++) {
+                if (s.items[i] != item)
+                    continue;
+                /* copy, older snapshots still read the arrays */
+                Object[] items = Arrays.copyOf(s.items, s.items.length);
+                float[] boxes = Arrays.copyOf(s.boxes, s.boxes.length);
+                int last = s.numAdded - 1;
+                items[i] = items[last];
+                items[last] = null;
+                System.arraycopy(boxes, last * 4, boxes, i * 4, 4);
+                publish(new Snapshot(s.epoch + 1, s.tree, boxes, items, last, s.removed));
+                return true;
+            }
+
+            if (s.removed.containsKey(item) || !contains(s.tree, box, item))
+                return false;
+
+            Map<Object, Boolean> removed = new IdentityHashMap<>(s.removed);
+            removed.put(item, Boolean.TRUE);
+            publish(new Snapshot(s.epoch + 1, s.tree, s.boxes, s.items, s.numAdded,
+                    Collections.unmodifiableMap(removed)));
+            return true;
+        }
+    }
+
+    private boolean contains(PackedRTree<Object> tree, Box box, final T item) {
+        return !tree.search((float) box.xmin, (float) box.ymin, (float) box.xmax, (float) box.ymax,
+                new SearchCb<Object>() {
+                    @Override
+                    public boolean call(Object it, Object context) {
+                        return it != item;
+                    }
+                }, null, mWriterQuery);
+    }
+
+    /**
+     * Publish the snapshot, after rebuilding the tree when it has too
+     * many updates.
+     */
+    private void publish(Snapshot s) {
+        int updates = s.numAdded + s.removed.size();
+        int treeSize = s.tree.size();
+        if (updates > Math.max(MIN_UPDATES, 4 * (int) Math.sqrt(treeSize))) {
+            int n = s.size();
+            float[] boxes = new float[n * 4];
+            Object[] items = new Object[n];
+            int count = 0;
+            if (s.removed.isEmpty()) {
+                count = s.tree.getLeaves(boxes, items, 0);
+            } else {
+                float[] b = new float[treeSize * 4];
+                Object[] it = new Object[treeSize];
+                int m = s.tree.getLeaves(b, it, 0);
+                for (int i = 0; i < m; i++) {
+                    if (s.removed.containsKey(it[i]))
+                        continue;
+                    items[count] = it[i];
+                    System.arraycopy(b, i * 4, boxes, count * 4, 4);
+                    count++;
+                }
+            }
+            System.arraycopy(s.items, 0, items, count, s.numAdded);
+            System.arraycopy(s.boxes, 0, boxes, count * 4, s.numAdded * 4);
+
+            PackedRTree<Object> tree = new PackedRTree<>();
+            tree.load(boxes, items, n);
+            s = new Snapshot(s.epoch, tree, new float[64], new Object[16], 0,
+                    Collections.<Object, Boolean>emptyMap());
+        }
+        mSnapshot = s;
+    }
+
+    @Override
+    public List<T> search(Box bbox, List<T> results) {
+        if (results == null)
+            results = new ArrayList<>(16);
+        search(bbox, PackedRTree.CollectCb.<T>get(), results);
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean search(Box bbox, SearchCb<T> cb, Object context) {
+        Snapshot s = mSnapshot;
+        float x1 = (float) bbox.xmin, y1 = (float) bbox.ymin;
+        float x2 = (float) bbox.xmax, y2 = (float) bbox.ymax;
+
+        Reader r = mReaders.get();
+        r.removed = s.removed;
+        r.cb = (SearchCb<Object>) cb;
+        r.context = context;
+        r.collect = false;
+        try {
+            if (!s.tree.search(x1, y1, x2, y2, r, context, r.query))
+                return false;
+        } finally {
+            r.reset();
+        }
+
+        float[] b = s.boxes;
+        for (int i = 0; i < s.numAdded; i++) {
+            int p = i * 4;
+            if (b[p] > x2 || b[p + 1] > y2 || b[p + 2] < x1 || b[p + 3] < y1)
+                continue;
+            if (!cb.call((T) s.items[i], context))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public List<T> searchKNearestNeighbors(Point center, int k, double maxDistance, List<T> results) {
+        if (results == null)
+            results = new ArrayList<>(k);
+        searchKNearestNeighbors(center, k, maxDistance, PackedRTree.CollectCb.<T>get(), results);
+        return results;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void searchKNearestNeighbors(Point center, int k, double maxDistance, SearchCb<T> cb, Object context) {
+        if (k <= 0)
+            return;
+
+        Snapshot s = mSnapshot;
+        float px = (float) center.x;
+        float py = (float) center.y;
+        double maxSq = maxDistance * maxDistance;
+
+        Reader r = mReaders.get();
+        try {
+            r.removed = s.removed;
+            r.collect = true;
+            r.limit = k;
+            /* removed items are counted by the tree */
+            s.tree.searchKNearestNeighbors(px, py, k + s.removed.size(), maxDistance,
+                    r, null, r.query);
+
+            float[] b = s.boxes;
+            for (int i = 0; i < s.numAdded; i++) {
+                int p = i * 4;
+                float dx = px < b[p] ? b[p] - px : (px > b[p + 2] ? px - b[p + 2] : 0);
+                float dy = py < b[p + 1] ? b[p + 1] - py : (py > b[p + 3] ? py - b[p + 3] : 0);
+                float dist = dx * dx + dy * dy;
+                if (dist <= maxSq)
+                    r.add(s.items[i], dist);
+            }
+
+            for (int i = 0; i < r.count; i++) {
+                if (!cb.call((T) r.items[i], context))
+                    break;
+            }
+        } finally {
+            r.reset();
+        }
+    }
+
+    @Override
+    public int size() {
+        return mSnapshot.size();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (mWriteLock) {
+            mSnapshot = empty(mSnapshot.epoch + 1);
+        }
+    }
+}
@@ -0,0 +1,773 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import java.util.Arrays;
+
+/**
+ * Pure Java polygon triangulation by ear clipping, see
+ * https://github.com/mapbox/earcut
+ * <p/>
+ * Holes are bridged into the outer ring before clipping. Large rings are
+ * indexed along a z-order curve to speed up the ear test. No vertices are
+ * added, so the resulting indices refer to the input points.
+ * <p/>
+ * The linked list of ring nodes is kept in primitive arrays which grow on
+ * demand and are reused for the next polygon, i.e. an instance does not
+ * allocate once warmed up. An instance must not be used concurrently, use
+ * {@link #get()} for the instance of the current thread.
+ */
+public class EarcutTessellator {
+
+    /**
+     * Rings with more points are indexed along a z-order curve.
+     */
+    private static final int HASH_THRESHOLD = 80;
+
+    private static final int NONE = -1;
+
+    private static final ThreadLocal<EarcutTessellator> sInstance =
+            new ThreadLocal<EarcutTessellator>() {
+                @Override
+                protected EarcutTessellator initialValue() {
+                    return new EarcutTessellator();
+                }
+            };
+
+    /**
+     * @return the tessellator of the current thread
+     */
+    public static EarcutTessellator get() {
+        return sInstance.get();
+    }
+
+    /* ring nodes */
+    private float[] mX = new float[64];
+    private float[] mY = new float[64];
+    private int[] mId = new int[64];
+    private int[] mPrev = new int[64];
+    private int[] mNext = new int[64];
+    private int[] mPrevZ = new int[64];
+    private int[] mNextZ = new int[64];
+    private int[] mZ = new int[64];
+    private boolean[] mSteiner = new boolean[64];
+    private int mNumNodes;
+
+    /* leftmost node of each hole */
+    private int[] mHoles = new int[8];
+
+    /* resulting triangles */
+    private int[] mIndices = new int[192];
+    private int mNumIndices;
+
+    /* z-order hashing of the current polygon */
+    private float mMinX, mMinY, mInvSize;
+
+    /* emit triangles in reversed order to keep the input winding */
+    private boolean mFlip;
+
+    /**
+     * Triangulates one polygon, i.e. an outer ring followed by its holes.
+     * Rings with less than three points are ignored.
+     *
+     * @param points   the coordinates as x,y pairs
+     * @param ppos     position of the outer ring in points
+     * @param index    the ring lengths as in {@link org.oscim.core.GeometryBuffer#index}
+     * @param ipos     position of the outer ring in index
+     * @param numRings number of rings including the outer ring
+     * @return number of indices in {@link #getIndices()}. The indices are
+     * point ids starting with 0 at ppos.
+     */
+    public int tessellate(float[] points, int ppos, int[] index, int ipos, int numRings) {
+        mNumNodes = 0;
+        mNumIndices = 0;
+
+        int outerLen = index[ipos];
+        if (outerLen < 6)
+            return 0;
+
+        int outer = linkedList(points, ppos, ppos, ppos + outerLen, true);
+        if (outer == NONE || mNext[outer] == mPrev[outer])
+            return 0;
+
+        mFlip = signedArea(points, ppos, ppos + outerLen) < 0;
+
+        if (numRings > 1)
+            outer = eliminateHoles(points, ppos, ppos + outerLen, index, ipos + 1, numRings - 1, outer);
+
+        mInvSize = 0;
+        if (outerLen > HASH_THRESHOLD * 2) {
+            float minX = points[ppos], minY = points[ppos + 1];
+            float maxX = minX, maxY = minY;
+            for (int i = ppos + 2, end = ppos + outerLen; i < end; i += 2) {
+                float x = points[i];
+                float y = points[i + 1];
+                if (x < minX) minX = x;
+                if (y < minY) minY = y;
+                if (x > maxX) maxX = x;
+                if (y > maxY) maxY = y;
+            }
+            float size = Math.max(maxX - minX, maxY - minY);
+            mMinX = minX;
+            mMinY = minY;
+            mInvSize = size != 0 ? 32767 / size : 0;
+        }
+
+        earcutLinked(outer, 0);
+
+        return mNumIndices;
+    }
+
+    /**
+     * @return the triangle indices of the last {@link #tessellate} call.
+     * The array is reused by the next call.
+     */
+    public int[] getIndices() {
+        return mIndices;
+    }
+
+    private int linkedList(float[] points, int ppos, int start, int end, boolean clockwise) {
+        int last = NONE;
+        if (clockwise == (signedArea(points, start, end) > 0)) {
+            for (int i = start; i < end; i += 2)
+                last = insertNode((i - ppos) >> 1, points[i], points[i + 1], last);
+        } else {
+            for (int i = end - 2; i >= start; i -= 2)
+                last = insertNode((i - ppos) >> 1, points[i], points[i + 1], last);
+        }
+        if (last != NONE && equals(last, mNext[last])) {
+            int next = mNext[last];
+            removeNode(last);
+            last = next;
+        }
+        return last;
+    }
+
+    private int filterPoints(int start, int end) {
+        if (start == NONE)
+            return start;
+        if (end == NONE)
+            end = start;
+
+        int p = start;
+        boolean again;
+        do {
+            again = false;
+            if (!mSteiner[p] && (equals(p, mNext[p]) || area(mPrev[p], p, mNext[p]) == 0)) {
+                removeNode(p);
+                p = end = mPrev[p];
+                if (p == mNext[p])
+                    break;
+                again = true;
+            } else {
+                p = mNext[p];
+            }
+        } while (again || p != end);
+
+        return end;
+    }
+
+    private void earcutLinked(int ear, int pass) {
+        if (ear == NONE)
+            return;
+
+        if (pass == 0 && mInvSize != 0)
+            indexCurve(ear);
+
+        int stop = ear;
+
+        while (mPrev[ear] != mNext[ear]) {
+            int prev = mPrev[ear];
+            int next = mNext[ear];
+
+            if (mInvSize != 0 ? isEarHashed(ear) : isEar(ear)) {
+                addTriangle(mId[prev], mId[ear], mId[next]);
+                removeNode(ear);
+                ear = stop = mNext[next];
+                continue;
+            }
+
+            ear = next;
+
+            if (ear == stop) {
+                if (pass == 0) {
+                    earcutLinked(filterPoints(ear, NONE), 1);
+                } else if (pass == 1) {
+                    ear = cureLocalIntersections(filterPoints(ear, NONE));
+                    earcutLinked(ear, 2);
+                } else if (pass == 2) {
+                    splitEarcut(ear);
+                }
+                break;
+            }
+        }
+    }
+
+    private boolean isEar(int ear) {
+        int a = mPrev[ear], b = ear, c = mNext[ear];
+
+        /* reflex, can't be an ear */
+        if (area(a, b, c) >= 0)
+            return false;
+
+        float ax = mX[a], bx = mX[b], cx = mX[c];
+        float ay = mY[a], by = mY[b], cy = mY[c];
+
+        float x0 = Math.min(ax, Math.min(bx, cx));
+        float y0 = Math.min(ay, Math.min(by, cy));
+        float x1 = Math.max(ax, Math.max(bx, cx));
+        float y1 = Math.max(ay, Math.max(by, cy));
+
+        /* no other point may be inside the ear */
+        for (int p = mNext[c]; p != a; p = mNext[p]) {
+            float px = mX[p], py = mY[p];
+            if (px >= x0 && px <= x1 && py >= y0 && py <= y1
+                    && pointInTriangle(ax, ay, bx, by, cx, cy, px, py)
+                    && area(mPrev[p], p, mNext[p]) >= 0)
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isEarHashed(int ear) {
+        int a = mPrev[ear], b = ear, c = mNext[ear];
+
+        if (area(a, b, c) >= 0)
+            return false;
+
+        float ax = mX[a], bx = mX[b], cx = mX[c];
+        float ay = mY[a], by = mY[b], cy = mY[c];
+
+        float x0 = Math.min(ax, Math.min(bx, cx));
+        float y0 = Math.min(ay, Math.min(by, cy));
+        float x1 = Math.max(ax, Math.max(bx, cx));
+        float y1 = Math.max(ay, Math.max(by, cy));
+
+        /* z-order range for the current triangle bbox */
+        int minZ = zOrder(x0, y0);
+        int maxZ = zOrder(x1, y1);
+
+        int p = mPrevZ[ear];
+        int n = mNextZ[ear];
+
+        /* look for points inside the triangle in both directions */
+        while (p != NONE && mZ[p] >= minZ && n != NONE && mZ[n] <= maxZ) {
+            if (isInsideEar(p, a, c, x0, y0, x1, y1, ax, ay, bx, by, cx, cy))
+                return false;
+            p = mPrevZ[p];
+
+            if (isInsideEar(n, a, c, x0, y0, x1, y1, ax, ay, bx, by, cx, cy))
+                return false;
+            n = mNextZ[n];
+        }
+
+        while (p != NONE && mZ[p] >= minZ) {
+            if (isInsideEar(p, a, c, x0, y0, x1, y1, ax, ay, bx, by, cx, cy))
+                return false;
+            p = mPrevZ[p];
+        }
+
+        while (n != NONE && mZ[n] <= maxZ) {
+            if (isInsideEar(n, a, c, x0, y0, x1, y1, ax, ay, bx, by, cx, cy))
+                return false;
+            n = mNextZ[n];
+        }
+        return true;
+    }
+
+    private boolean isInsideEar(int p, int a, int c,
+                                float x0, float y0, float x1, float y1,
+                                float ax, float ay, float bx, float by, float cx, float cy) {
+        float px = mX[p], py = mY[p];
+        return px >= x0 && px <= x1 && py >= y0 && py <= y1
+                && p != a && p != c
+                && pointInTriangle(ax, ay, bx, by, cx, cy, px, py)
+                && area(mPrev[p], p, mNext[p]) >= 0;
+    }
+
+    /**
+     * Go through all polygon nodes and cure small local self-intersections.
+     */
+    private int cureLocalIntersections(int start) {
+        int p = start;
+        do {
+            int a = mPrev[p];
+            int b = mNext[mNext[p]];
+
+            if (!equals(a, b) && intersects(a, p, mNext[p], b)
+                    && locallyInside(a, b) && locallyInside(b, a)) {
+
+                addTriangle(mId[a], mId[p], mId[b]);
+
+                /* remove two nodes involved */
+                removeNode(mNext[p]);
+                removeNode(p);
+
+                p = start = b;
+            }
+            p = mNext[p];
+        } while (p != start);
+
+        return filterPoints(p, NONE);
+    }
+
+    /**
+     * Try splitting the polygon into two and triangulate them independently.
+     */
+    private void splitEarcut(int start) {
+        int a = start;
+        do {
+            int b = mNext[mNext[a]];
+            while (b != mPrev[a]) {
+                if (mId[a] != mId[b] && isValidDiagonal(a, b)) {
+                    int c = splitPolygon(a, b);
+
+                    a = filterPoints(a, mNext[a]);
+                    c = filterPoints(c, mNext[c]);
+
+                    earcutLinked(a, 0);
+                    earcutLinked(c, 0);
+                    return;
+                }
+                b = mNext[b];
+            }
+            a = mNext[a];
+        } while (a != start);
+    }
+
+    private int eliminateHoles(float[] points, int ppos, int pos, int[] index,
+                               int ipos, int numHoles, int outer) {
+        if (mHoles.length < numHoles)
+            mHoles = new int[numHoles];
+
+        int cnt = 0;
+        for (int i = 0; i < numHoles; i++) {
+            int len = index[ipos + i];
+            if (len >= 6) {
+                int list = linkedList(points, ppos, pos, pos + len, false);
+                if (list != NONE) {
+                    if (list == mNext[list])
+                        mSteiner[list] = true;
+                    mHoles[cnt++] = getLeftmost(list);
+                }
+            }
+            pos += len;
+        }
+
+        /* sort holes by x (insertion sort, holes are few) */
+        int[] holes = mHoles;
+        for (int i = 1; i < cnt; i++) {
+            int h = holes[i];
+            int j = i - 1;
+            while (j >= 0 && mX[holes[j]] > mX[h]) {
+                holes[j + 1] = holes[j];
+                j--;
+            }
+            holes[j + 1] = h;
+        }
+
+        for (int i = 0; i < cnt; i++)
+            outer = eliminateHole(holes[i], outer);
+
+        return outer;
+    }
+
+    private int eliminateHole(int hole, int outer) {
+        int bridge = findHoleBridge(hole, outer);
+        if (bridge == NONE)
+            return outer;
+
+        int bridgeReverse = splitPolygon(bridge, hole);
+
+        filterPoints(bridgeReverse, mNext[bridgeReverse]);
+        return filterPoints(bridge, mNext[bridge]);
+    }
+
+    /**
+     * David Eberly's algorithm for finding a bridge between hole and outer polygon.
+     */
+    private int findHoleBridge(int hole, int outer) {
+        int p = outer;
+        float hx = mX[hole];
+        float hy = mY[hole];
+        float qx = Float.NEGATIVE_INFINITY;
+        int m = NONE;
+
+        /* find a segment intersected by a ray from the hole's leftmost
+         * point to the left; segment's endpoint with lesser x will be
+         * potential connection point */
+        do {
+            int n = mNext[p];
+            if (hy <= mY[p] && hy >= mY[n] && mY[n] != mY[p]) {
+                float x = mX[p] + (hy - mY[p]) * (mX[n] - mX[p]) / (mY[n] - mY[p]);
+                if (x <= hx && x > qx) {
+                    qx = x;
+                    m = mX[p] < mX[n] ? p : n;
+                    if (x == hx)
+                        return m;
+                }
+            }
+            p = n;
+        } while (p != outer);
+
+        if (m == NONE)
+            return NONE;
+
+        /* look for points inside the triangle of hole point, segment
+         * intersection and endpoint; if there are no points found, we have
+         * a valid connection; otherwise choose the point of the minimum
+         * angle with the ray as connection point */
+        int stop = m;
+        float mx = mX[m];
+        float my = mY[m];
+        float tanMin = Float.POSITIVE_INFINITY;
+
+        p = m;
+        do {
+            float px = mX[p], py = mY[p];
+            if (hx >= px && px >= mx && hx != px
+                    && pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, px, py)) {
+
+                float tan = Math.abs(hy - py) / (hx - px);
+
+                if (locallyInside(p, hole)
+                        && (tan < tanMin || (tan == tanMin
+                        && (px > mX[m] || (px == mX[m] && sectorContainsSector(m, p)))))) {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = mNext[p];
+        } while (p != stop);
+
+        return m;
+    }
+
+    /**
+     * Whether sector in vertex m contains sector in vertex p in the same coordinates.
+     */
+    private boolean sectorContainsSector(int m, int p) {
+        return area(mPrev[m], m, mPrev[p]) < 0 && area(mNext[p], m, mNext[m]) < 0;
+    }
+
+    /**
+     * Interlink polygon nodes in z-order.
+     */
+    private void indexCurve(int start) {
+        int p = start;
+        do {
+            if (mZ[p] == 0)
+                mZ[p] = zOrder(mX[p], mY[p]);
+            mPrevZ[p] = mPrev[p];
+            mNextZ[p] = mNext[p];
+            p = mNext[p];
+        } while (p != start);
+
+        mNextZ[mPrevZ[p]] = NONE;
+        mPrevZ[p] = NONE;
+
+        sortLinked(p);
+    }
+
+    /**
+     * Simon Tatham's linked list merge sort algorithm.
+     */
+    private int sortLinked(int list) {
+        int inSize = 1;
+        int numMerges;
+        do {
+            int p = list;
+            int tail = NONE;
+            list = NONE;
+            numMerges = 0;
+
+            while (p != NONE) {
+                numMerges++;
+                int q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++) {
+                    pSize++;
+                    q = mNextZ[q];
+                    if (q == NONE)
+                        break;
+                }
+                int qSize = inSize;
+
+                while (pSize > 0 || (qSize > 0 && q != NONE)) {
+                    int e;
+                    if (pSize != 0 && (qSize == 0 || q == NONE || mZ[p] <= mZ[q])) {
+                        e = p;
+                        p = mNextZ[p];
+                        pSize--;
+                    } else {
+                        e = q;
+                        q = mNextZ[q];
+                        qSize--;
+                    }
+
+                    if (tail != NONE)
+                        mNextZ[tail] = e;
+                    else
+                        list = e;
+
+                    mPrevZ[e] = tail;
+                    tail = e;
+                }
+                p = q;
+            }
+
+            mNextZ[tail] = NONE;
+            inSize *= 2;
+
+        } while (numMerges > 1);
+
+        return list;
+    }
+
+    /**
+     * Z-order of a point given coords and inverse of the longer side of
+     * data bbox.
+     */
+    private int zOrder(float px, float py) {
+        /* coords are transformed into non-negative 15-bit integer range */
+        int x = (int) ((px - mMinX) * mInvSize);
+        int y = (int) ((py - mMinY) * mInvSize);
+
+        x = (x | (x << 8)) & 0x00FF00FF;
+        x = (x | (x << 4)) & 0x0F0F0F0F;
+        x = (x | (x << 2)) & 0x33333333;
+        x = (x | (x << 1)) & 0x55555555;
+
+        y = (y | (y << 8)) & 0x00FF00FF;
+        y = (y | (y << 4)) & 0x0F0F0F0F;
+        y = (y | (y << 2)) & 0x33333333;
+        y = (y | (y << 1)) & 0x55555555;
+
+        return x | (y << 1);
+    }
+
+    private int getLeftmost(int start) {
+        int p = start;
+        int leftmost = start;
+        do {
+            if (mX[p] < mX[leftmost] || (mX[p] == mX[leftmost] && mY[p] < mY[leftmost]))
+                leftmost = p;
+            p = mNext[p];
+        } while (p != start);
+
+        return leftmost;
+    }
+
+    private static boolean pointInTriangle(float ax, float ay, float bx, float by,
+                                           float cx, float cy, float px, float py) {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+                && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+                && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    /**
+     * Whether a diagonal between two polygon nodes lies within the polygon.
+     */
+    private boolean isValidDiagonal(int a, int b) {
+        return mId[mNext[a]] != mId[b] && mId[mPrev[a]] != mId[b]
+                && !intersectsPolygon(a, b)
+                && (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b)
+                && (area(mPrev[a], a, mPrev[b]) != 0 || area(a, mPrev[b], b) != 0)
+                || equals(a, b) && area(mPrev[a], a, mNext[a]) > 0
+                && area(mPrev[b], b, mNext[b]) > 0);
+    }
+
+    private float area(int p, int q, int r) {
+        return (mY[q] - mY[p]) * (mX[r] - mX[q]) - (mX[q] - mX[p]) * (mY[r] - mY[q]);
+    }
+
+    private boolean equals(int p1, int p2) {
+        return mX[p1] == mX[p2] && mY[p1] == mY[p2];
+    }
+
+    private boolean intersects(int p1, int q1, int p2, int q2) {
+        int o1 = sign(area(p1, q1, p2));
+        int o2 = sign(area(p1, q1, q2));
+        int o3 = sign(area(p2, q2, p1));
+        int o4 = sign(area(p2, q2, q1));
+
+        if (o1 != o2 && o3 != o4)
+            return true;
+
+        /* collinear cases */
+        if (o1 == 0 && onSegment(p1, p2, q1))
+            return true;
+        if (o2 == 0 && onSegment(p1, q2, q1))
+            return true;
+        if (o3 == 0 && onSegment(p2, p1, q2))
+            return true;
+        if (o4 == 0 && onSegment(p2, q1, q2))
+            return true;
+
+        return false;
+    }
+
+    /**
+     * For collinear points p, q, r, check if point q lies on segment pr.
+     */
+    private boolean onSegment(int p, int q, int r) {
+        return mX[q] <= Math.max(mX[p], mX[r]) && mX[q] >= Math.min(mX[p], mX[r])
+                && mY[q] <= Math.max(mY[p], mY[r]) && mY[q] >= Math.min(mY[p], mY[r]);
+    }
+
+    private static int sign(float v) {
+        return v > 0 ? 1 : v < 0 ? -1 : 0;
+    }
+
+    private boolean intersectsPolygon(int a, int b) {
+        int p = a;
+        int ia = mId[a], ib = mId[b];
+        do {
+            int n = mNext[p];
+            if (mId[p] != ia && mId[n] != ia && mId[p] != ib && mId[n] != ib
+                    && intersects(p, n, a, b))
+                return true;
+            p = n;
+        } while (p != a);
+
+        return false;
+    }
+
+    private boolean locallyInside(int a, int b) {
+        return area(mPrev[a], a, mNext[a]) < 0
+                ? area(a, b, mNext[a]) >= 0 && area(a, mPrev[a], b) >= 0
+                : area(a, b, mPrev[a]) < 0 || area(a, mNext[a], b) < 0;
+    }
+
+    /**
+     * Whether the middle point of a polygon diagonal is inside the polygon.
+     */
+    private boolean middleInside(int a, int b) {
+        int p = a;
+        boolean inside = false;
+        float px = (mX[a] + mX[b]) / 2;
+        float py = (mY[a] + mY[b]) / 2;
+        do {
+            int n = mNext[p];
+            if (((mY[p] > py) != (mY[n] > py)) && mY[n] != mY[p]
+                    && (px < (mX[n] - mX[p]) * (py - mY[p]) / (mY[n] - mY[p]) + mX[p]))
+                inside = !inside;
+            p = n;
+        } while (p != a);
+
+        return inside;
+    }
+
+    /**
+     * Link two polygon vertices with a bridge; if the vertices belong to
+     * the same ring, it splits polygon into two; if one belongs to the
+     * outer ring and another to a hole, it merges it into a single ring.
+     */
+    private int splitPolygon(int a, int b) {
+        int a2 = newNode(mId[a], mX[a], mY[a]);
+        int b2 = newNode(mId[b], mX[b], mY[b]);
+        int an = mNext[a];
+        int bp = mPrev[b];
+
+        mNext[a] = b;
+        mPrev[b] = a;
+
+        mNext[a2] = an;
+        mPrev[an] = a2;
+
+        mNext[b2] = a2;
+        mPrev[a2] = b2;
+
+        mNext[bp] = b2;
+        mPrev[b2] = bp;
+
+        return b2;
+    }
+
+    private int insertNode(int id, float x, float y, int last) {
+        int p = newNode(id, x, y);
+
+        if (last == NONE) {
+            mPrev[p] = p;
+            mNext[p] = p;
+        } else {
+            mNext[p] = mNext[last];
+            mPrev[p] = last;
+            mPrev[mNext[last]] = p;
+            mNext[last] = p;
+        }
+        return p;
+    }
+
+    private void removeNode(int p) {
+        mPrev[mNext[p]] = mPrev[p];
+        mNext[mPrev[p]] = mNext[p];
+
+        if (mPrevZ[p] != NONE)
+            mNextZ[mPrevZ[p]] = mNextZ[p];
+        if (mNextZ[p] != NONE)
+            mPrevZ[mNextZ[p]] = mPrevZ[p];
+    }
+
+    private int newNode(int id, float x, float y) {
+        int p = mNumNodes++;
+        if (p == mX.length) {
+            int size = p * 2;
+            mX = Arrays.copyOf(mX, size);
+            mY = Arrays.copyOf(mY, size);
+            mId = Arrays.copyOf(mId, size);
+            mPrev = Arrays.copyOf(mPrev, size);
+            mNext = Arrays.copyOf(mNext, size);
+            mPrevZ = Arrays.copyOf(mPrevZ, size);
+            mNextZ = Arrays.copyOf(mNextZ, size);
+            mZ = Arrays.copyOf(mZ, size);
+            mSteiner = Arrays.copyOf(mSteiner, size);
+        }
+        mId[p] = id;
+        mX[p] = x;
+        mY[p] = y;
+        mPrevZ[p] = NONE;
+        mNextZ[p] = NONE;
+        mZ[p] = 0;
+        mSteiner[p] = false;
+        return p;
+    }
+
+    private void addTriangle(int a, int b, int c) {
+        if (mNumIndices + 3 > mIndices.length)
+            mIndices = Arrays.copyOf(mIndices, mIndices.length * 2);
+
+        int[] indices = mIndices;
+        int i = mNumIndices;
+        indices[i] = a;
+        if (mFlip) {
+            indices[i + 1] = c;
+            indices[i + 2] = b;
+        } else {
+            indices[i + 1] = b;
+            indices[i + 2] = c;
+        }
+        mNumIndices = i + 3;
+    }
+
+    private static float signedArea(float[] points, int start, int end) {
+        float sum = 0;
+        for (int i = start, j = end - 2; i < end; i += 2) {
+            sum += (points[j] - points[i]) * (points[i + 1] + points[j + 1]);
+            j = i;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,691 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils;
+
+import org.oscim.core.Box;
+import org.oscim.core.Point;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Static R-tree packed along a Hilbert curve, see
+ * https://github.com/mourner/flatbush
+ * <p/>
+ * All boxes are stored in one float array, child references in one int
+ * array. The tree is bulk-loaded by {@link #load(float[], Object[], int)}
+ * or on the first query after {@link #insert(Box, Object)}; any later
+ * insert rebuilds the whole tree on the next query, so use this for
+ * data which is mostly read. {@link #remove(Box, Object)} only clears the
+ * item.
+ * <p/>
+ * Queries do not allocate but reuse internal buffers, i.e. they must not
+ * be run concurrently or from within a callback.
+ * <p/>
+ * Items have ids in the order they were loaded or inserted. A tree written
+ * by {@link #write(File)} is restored by {@link #read(File, Object[])}
+ * with the items in the same order. A restored tree queries the memory
+ * mapped file directly, its boxes and child references take no heap.
+ */
+public class PackedRTree<T> implements SpatialIndex<T> {
+
+    public static final int DEFAULT_NODE_SIZE = 16;
+
+    static final int MAGIC = 0x52545245; // RTRE
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 5 * 4;
+
+    private final int mNodeSize;
+
+    /**
+     * Leaves come first, then each level up to the root.
+     * For leaves mIndices holds the item id, for nodes the first child.
+     * Both wrap arrays of a built tree or are views of a mapped file.
+     */
+    private FloatBuffer mBoxes = FloatBuffer.allocate(0);
+    private IntBuffer mIndices = IntBuffer.allocate(0);
+    private int[] mLevelBounds = new int[0];
+    private int mNumLeaves;
+    private int mNumNodes;
+
+    private Object[] mItems = new Object[0];
+    private int mRemoved;
+
+    private float[] mPendingBoxes = new float[0];
+    private Object[] mPendingItems = new Object[0];
+    private int mNumPending;
+
+    private final Query mQuery = new Query();
+
+    /**
+     * Buffers of a query. Trees that are no longer modified can be
+     * queried concurrently with one Query per thread.
+     */
+    static final class Query {
+        int[] stack = new int[32];
+        int[] heapIds = new int[32];
+        float[] heapDist = new float[32];
+        int heapSize;
+
+        /**
+         * Square distance of the item passed to a k-nearest callback.
+         */
+        float distance;
+
+        void push(int node, int sp) {
+            if (sp == stack.length)
+                stack = Arrays.copyOf(stack, sp * 2);
+            stack[sp] = node;
+        }
+
+        void heapPush(int id, float dist) {
+            if (heapSize == heapIds.length) {
+                heapIds = Arrays.copyOf(heapIds, heapSize * 2);
+                heapDist = Arrays.copyOf(heapDist, heapSize * 2);
+            }
+            int pos = heapSize++;
+            while (pos > 0) {
+                int parent = (pos - 1) >> 1;
+                if (heapDist[parent] <= dist)
+                    break;
+                heapIds[pos] = heapIds[parent];
+                heapDist[pos] = heapDist[parent];
+                pos = parent;
+            }
+            heapIds[pos] = id;
+            heapDist[pos] = dist;
+        }
+
+        int heapPop() {
+            int top = heapIds[0];
+            int size = --heapSize;
+            if (size > 0) {
+                int id = heapIds[size];
+                float dist = heapDist[size];
+                int pos = 0;
+                int half = size >> 1;
+                while (pos < half) {
+                    int child = (pos << 1) + 1;
+                    if (child + 1 < size && heapDist[child + 1] < heapDist[child])
+                        child++;
+                    if (heapDist[child] >= dist)
+                        break;
+                    heapIds[pos] = heapIds[child];
+                    heapDist[pos] = heapDist[child];
+                    pos = child;
+                }
+                heapIds[pos] = id;
+                heapDist[pos] = dist;
+            }
+            return top;
+        }
+    }
+
+    public PackedRTree() {
+        this(DEFAULT_NODE_SIZE);
+    }
+
+    /**
+     * @param nodeSize max number of children per node
+     */
+    public PackedRTree(int nodeSize) {
+        if (nodeSize < 2)
+            throw new IllegalArgumentException("nodeSize < 2");
+        mNodeSize = nodeSize;
+    }
+
+    /**
+     * Replace the content of the tree.
+     *
+     * @param boxes xmin, ymin, xmax, ymax of each item
+     * @param items the items, ids are their positions
+     * @param count number of items
+     */
+    public void load(float[] boxes, Object[] items, int count) {
+        mNumPending = 0;
+        mRemoved = 0;
+        build(Arrays.copyOf(boxes, count * 4), Arrays.copyOf(items, count), count);
+    }
+
+    private void build(float[] itemBoxes, Object[] items, int n) {
+        mItems = items;
+
+        if (n == 0) {
+            mBoxes = FloatBuffer.allocate(0);
+            mIndices = IntBuffer.allocate(0);
+            mLevelBounds = new int[0];
+            mNumLeaves = mNumNodes = 0;
+            return;
+        }
+
+        /* nodes per level */
+        int numLevels = 1;
+        for (int count = n; count > 1; count = (count + mNodeSize - 1) / mNodeSize)
+            numLevels++;
+        if (n == 1)
+            numLevels = 2;
+
+        mLevelBounds = new int[numLevels];
+        int count = n;
+        int numNodes = n;
+        mLevelBounds[0] = n;
+        for (int i = 1; i < numLevels; i++) {
+            count = (count + mNodeSize - 1) / mNodeSize;
+            numNodes += count;
+            mLevelBounds[i] = numNodes;
+        }
+
+        mNumLeaves = n;
+        mNumNodes = numNodes;
+        float[] boxes = new float[numNodes * 4];
+        int[] indices = new int[numNodes];
+        System.arraycopy(itemBoxes, 0, boxes, 0, n * 4);
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+            minX = Math.min(minX, boxes[i * 4]);
+            minY = Math.min(minY, boxes[i * 4 + 1]);
+            maxX = Math.max(maxX, boxes[i * 4 + 2]);
+            maxY = Math.max(maxY, boxes[i * 4 + 3]);
+        }
+
+        if (n > mNodeSize) {
+            float width = maxX - minX;
+            float height = maxY - minY;
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) {
+                float cx = (boxes[i * 4] + boxes[i * 4 + 2]) / 2;
+                float cy = (boxes[i * 4 + 1] + boxes[i * 4 + 3]) / 2;
+                int x = width > 0 ? (int) (0xffff * (cx - minX) / width) : 0;
+                int y = height > 0 ? (int) (0xffff * (cy - minY) / height) : 0;
+                /* unsigned to signed order */
+                values[i] = hilbert(x, y) ^ Integer.MIN_VALUE;
+            }
+            sort(values, boxes, indices, 0, n - 1);
+        }
+
+        /* parent nodes */
+        int pos = 0;
+        int out = n;
+        for (int level = 0; level < numLevels - 1; level++) {
+            int end = mLevelBounds[level];
+            while (pos < end) {
+                int first = pos;
+                float x1 = Float.MAX_VALUE, y1 = Float.MAX_VALUE;
+                float x2 = -Float.MAX_VALUE, y2 = -Float.MAX_VALUE;
+                for (int i = 0; i < mNodeSize && pos < end; i++, pos++) {
+                    x1 = Math.min(x1, boxes[pos * 4]);
+                    y1 = Math.min(y1, boxes[pos * 4 + 1]);
+                    x2 = Math.max(x2, boxes[pos * 4 + 2]);
+                    y2 = Math.max(y2, boxes[pos * 4 + 3]);
+                }
+                indices[out] = first;
+                boxes[out * 4] = x1;
+                boxes[out * 4 + 1] = y1;
+                boxes[out * 4 + 2] = x2;
+                boxes[out * 4 + 3] = y2;
+                out++;
+            }
+        }
+        mBoxes = FloatBuffer.wrap(boxes);
+        mIndices = IntBuffer.wrap(indices);
+    }
+
+    /**
+     * Rebuild with pending inserts.
+     */
+    private void ensureBuilt() {
+        if (mNumPending == 0)
+            return;
+
+        int n = mNumLeaves + mNumPending;
+        float[] boxes = new float[n * 4];
+        for (int pos = 0; pos < mNumLeaves; pos++)
+            copyBox(pos, boxes, mIndices.get(pos));
+        System.arraycopy(mPendingBoxes, 0, boxes, mNumLeaves * 4, mNumPending * 4);
+
+        Object[] items = Arrays.copyOf(mItems, n);
+        System.arraycopy(mPendingItems, 0, items, mNumLeaves, mNumPending);
+
+        Arrays.fill(mPendingItems, 0, mNumPending, null);
+        mNumPending = 0;
+        build(boxes, items, n);
+    }
+
+    private void copyBox(int pos, float[] boxes, int offset) {
+        for (int k = 0; k < 4; k++)
+            boxes[offset * 4 + k] = mBoxes.get(pos * 4 + k);
+    }
+
+    /**
+     * Sort leaves by hilbert value.
+     */
+    private static void sort(int[] values, float[] boxes, int[] indices, int left, int right) {
+        while (left < right) {
+            int pivot = values[(left + right) >>> 1];
+            int i = left - 1;
+            int j = right + 1;
+            while (true) {
+                do i++; while (values[i] < pivot);
+                do j--; while (values[j] > pivot);
+                if (i >= j)
+                    break;
+                swap(values, boxes, indices, i, j);
+            }
+            /* recurse into the smaller part */
+            if (j - left < right - j) {
+                sort(values, boxes, indices, left, j);
+                left = j + 1;
+            } else {
+                sort(values, boxes, indices, j + 1, right);
+                right = j;
+            }
+        }
+    }
+
+    private static void swap(int[] values, float[] b, int[] indices, int i, int j) {
+        int v = values[i];
+        values[i] = values[j];
+        values[j] = v;
+
+        int idx = indices[i];
+        indices[i] = indices[j];
+        indices[j] = idx;
+
+        for (int k = 0; k < 4; k++) {
+            float t = b[i * 4 + k];
+            b[i * 4 + k] = b[j * 4 + k];
+            b[j * 4 + k] = t;
+        }
+    }
+
+    /**
+     * Hilbert index (unsigned) of a 16 bit coordinate, see
+     * https://github.com/rawrunprotected/hilbert_curves
+     */
+    static int hilbert(int x, int y) {
+        int a = x ^ y;
+        int b = 0xFFFF ^ a;
+        int c = 0xFFFF ^ (x | y);
+        int d = x & (y ^ 0xFFFF);
+
+        int A = a | (b >>> 1);
+        int B = (a >>> 1) ^ a;
+        int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+        int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = ((a & (a >>> 2)) ^ (b & (b >>> 2)));
+        B = ((a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2)));
+        C ^= ((a & (c >>> 2)) ^ (b & (d >>> 2)));
+        D ^= ((b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2)));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        A = ((a & (a >>> 4)) ^ (b & (b >>> 4)));
+        B = ((a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4)));
+        C ^= ((a & (c >>> 4)) ^ (b & (d >>> 4)));
+        D ^= ((b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4)));
+
+        a = A;
+        b = B;
+        c = C;
+        d = D;
+        C ^= ((a & (c >>> 8)) ^ (b & (d >>> 8)));
+        D ^= ((b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8)));
+
+        a = C ^ (C >>> 1);
+        b = D ^ (D >>> 1);
+
+        int i0 = x ^ y;
+        int i1 = b | (0xFFFF ^ (i0 | a));
+
+        return (interleave(i1) << 1) | interleave(i0);
+    }
+
+    private static int interleave(int x) {
+        x = (x | (x << 8)) & 0x00FF00FF;
+        x = (x | (x << 4)) & 0x0F0F0F0F;
+        x = (x | (x << 2)) & 0x33333333;
+        x = (x | (x << 1)) & 0x55555555;
+        return x;
+    }
+
+    /**
+     * @return end of the level containing node
+     */
+    private int levelEnd(int node) {
+        int[] bounds = mLevelBounds;
+        for (int i = 0; i < bounds.length; i++) {
+            if (bounds[i] > node)
+                return bounds[i];
+        }
+        return mNumNodes;
+    }
+
+    @Override
+    public void insert(Box box, T item) {
+        if (mNumPending == mPendingItems.length) {
+            int size = Math.max(16, mNumPending * 2);
+            mPendingItems = Arrays.copyOf(mPendingItems, size);
+            mPendingBoxes = Arrays.copyOf(mPendingBoxes, size * 4);
+        }
+        int i = mNumPending++;
+        mPendingItems[i] = item;
+        mPendingBoxes[i * 4] = (float) box.xmin;
+        mPendingBoxes[i * 4 + 1] = (float) box.ymin;
+        mPendingBoxes[i * 4 + 2] = (float) box.xmax;
+        mPendingBoxes[i * 4 + 3] = (float) box.ymax;
+    }
+
+    @Override
+    public boolean remove(Box box, T item) {
+        for (int i = 0; i < mNumPending; i++) {
+            if (mPendingItems[i] == item) {
+                int last = --mNumPending;
+                mPendingItems[i] = mPendingItems[last];
+                System.arraycopy(mPendingBoxes, last * 4, mPendingBoxes, i * 4, 4);
+                mPendingItems[last] = null;
+                return true;
+            }
+        }
+        if (mNumNodes == 0)
+            return false;
+
+        float x1 = (float) box.xmin, y1 = (float) box.ymin;
+        float x2 = (float) box.xmax, y2 = (float) box.ymax;
+        Query q = mQuery;
+        int node = mNumNodes - 1;
+        int sp = 0;
+        while (true) {
+            int end = Math.min(node + mNodeSize, levelEnd(node));
+            for (int pos = node; pos < end; pos++) {
+                if (!intersects(pos, x1, y1, x2, y2))
+                    continue;
+                int index = mIndices.get(pos);
+                if (node >= mNumLeaves) {
+                    q.push(index, sp++);
+                } else if (mItems[index] == item) {
+                    mItems[index] = null;
+                    mRemoved++;
+                    return true;
+                }
+            }
+            if (sp == 0)
+                return false;
+            node = q.stack[--sp];
+        }
+    }
+
+    private boolean intersects(int pos, float x1, float y1, float x2, float y2) {
+        FloatBuffer b = mBoxes;
+        int p = pos * 4;
+        return !(b.get(p) > x2 || b.get(p + 1) > y2 || b.get(p + 2) < x1 || b.get(p + 3) < y1);
+    }
+
+    @Override
+    public List<T> search(Box bbox, List<T> results) {
+        if (results == null)
+            results = new ArrayList<>(16);
+        search(bbox, CollectCb.<T>get(), results);
+        return results;
+    }
+
+    @Override
+    public boolean search(Box bbox, SearchCb<T> cb, Object context) {
+        return search((float) bbox.xmin, (float) bbox.ymin,
+                (float) bbox.xmax, (float) bbox.ymax, cb, context);
+    }
+
+    /**
+     * @return false when the callback stopped the search
+     */
+    public boolean search(float x1, float y1, float x2, float y2, SearchCb<T> cb, Object context) {
+        ensureBuilt();
+        return search(x1, y1, x2, y2, cb, context, mQuery);
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean search(float x1, float y1, float x2, float y2, SearchCb<T> cb, Object context, Query q) {
+        if (mNumNodes == 0)
+            return true;
+
+        int node = mNumNodes - 1;
+        int sp = 0;
+        while (true) {
+            int end = Math.min(node + mNodeSize, levelEnd(node));
+            for (int pos = node; pos < end; pos++) {
+                if (!intersects(pos, x1, y1, x2, y2))
+                    continue;
+                int index = mIndices.get(pos);
+                if (node >= mNumLeaves) {
+                    q.push(index, sp++);
+                } else {
+                    Object item = mItems[index];
+                    if (item != null && !cb.call((T) item, context))
+                        return false;
+                }
+            }
+            if (sp == 0)
+                return true;
+            node = q.stack[--sp];
+        }
+    }
+
+    @Override
+    public List<T> searchKNearestNeighbors(Point center, int k, double maxDistance, List<T> results) {
+        if (results == null)
+            results = new ArrayList<>(k);
+        searchKNearestNeighbors(center, k, maxDistance, CollectCb.<T>get(), results);
+        return results;
+    }
+
+    /**
+     * Items are passed to the callback ordered by distance of their box to
+     * center.
+     */
+    @Override
+    public void searchKNearestNeighbors(Point center, int k, double maxDistance, SearchCb<T> cb, Object context) {
+        ensureBuilt();
+        searchKNearestNeighbors((float) center.x, (float) center.y, k, maxDistance, cb, context, mQuery);
+    }
+
+    @SuppressWarnings("unchecked")
+    void searchKNearestNeighbors(float px, float py, int k, double maxDistance,
+                                 SearchCb<T> cb, Object context, Query q) {
+        if (mNumNodes == 0 || k <= 0)
+            return;
+
+        double maxSq = maxDistance * maxDistance;
+
+        q.heapSize = 0;
+        int found = 0;
+        int node = mNumNodes - 1;
+        while (true) {
+            boolean leaves = node < mNumLeaves;
+            int end = Math.min(node + mNodeSize, levelEnd(node));
+            for (int pos = node; pos < end; pos++) {
+                float dist = squareDistance(pos, px, py);
+                if (dist > maxSq)
+                    continue;
+                int index = mIndices.get(pos);
+                if (leaves && mItems[index] == null)
+                    continue;
+                q.heapPush((index << 1) | (leaves ? 1 : 0), dist);
+            }
+
+            /* items closer than any remaining node */
+            while (q.heapSize > 0 && (q.heapIds[0] & 1) != 0) {
+                q.distance = q.heapDist[0];
+                int index = q.heapPop() >> 1;
+                if (!cb.call((T) mItems[index], context) || ++found == k) {
+                    q.heapSize = 0;
+                    return;
+                }
+            }
+            if (q.heapSize == 0)
+                return;
+            node = q.heapPop() >> 1;
+        }
+    }
+
+    private float squareDistance(int pos, float x, float y) {
+        FloatBuffer b = mBoxes;
+        int p = pos * 4;
+        float x1 = b.get(p), y1 = b.get(p + 1), x2 = b.get(p + 2), y2 = b.get(p + 3);
+        float dx = x < x1 ? x1 - x : (x > x2 ? x - x2 : 0);
+        float dy = y < y1 ? y1 - y : (y > y2 ? y - y2 : 0);
+        return dx * dx + dy * dy;
+    }
+
+    @Override
+    public int size() {
+        return mNumLeaves + mNumPending - mRemoved;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mPendingItems, 0, mNumPending, null);
+        mNumPending = 0;
+        mRemoved = 0;
+        build(new float[0], new Object[0], 0);
+    }
+
+    /**
+     * Copy boxes and items of all leaves that were not removed, in the
+     * order of their ids.
+     *
+     * @return number of items
+     */
+    int getLeaves(float[] boxes, Object[] items, int offset) {
+        ensureBuilt();
+        /* leaves are in hilbert order */
+        int[] positions = new int[mNumLeaves];
+        for (int pos = 0; pos < mNumLeaves; pos++)
+            positions[mIndices.get(pos)] = pos;
+
+        int n = offset;
+        for (int id = 0; id < mNumLeaves; id++) {
+            if (mItems[id] == null)
+                continue;
+            items[n] = mItems[id];
+            copyBox(positions[id], boxes, n);
+            n++;
+        }
+        return n - offset;
+    }
+
+    /**
+     * Write the tree structure, without items, to a file.
+     */
+    public void write(File file) throws IOException {
+        ensureBuilt();
+        long size = HEADER_SIZE + (long) mNumNodes * 4 * 4 + (long) mNumNodes * 4
+                + (long) mLevelBounds.length * 4;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(size);
+            ByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buf.putInt(MAGIC);
+            buf.putInt(VERSION);
+            buf.putInt(mNodeSize);
+            buf.putInt(mNumLeaves);
+            buf.putInt(mLevelBounds.length);
+            buf.asIntBuffer().put(mLevelBounds);
+            buf.position(buf.position() + mLevelBounds.length * 4);
+            FloatBuffer boxes = mBoxes.duplicate();
+            boxes.rewind();
+            buf.asFloatBuffer().put(boxes);
+            buf.position(buf.position() + mNumNodes * 4 * 4);
+            IntBuffer indices = mIndices.duplicate();
+            indices.rewind();
+            buf.asIntBuffer().put(indices);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Read a tree written by {@link #write(File)}.
+     *
+     * @param items the items in the order of their ids
+     */
+    public static <T> PackedRTree<T> read(File file, T[] items) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            ByteBuffer buf = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            if (buf.getInt() != MAGIC || buf.getInt() != VERSION)
+                throw new IOException("invalid file " + file);
+
+            PackedRTree<T> tree = new PackedRTree<>(buf.getInt());
+            int numLeaves = buf.getInt();
+            if (numLeaves != items.length)
+                throw new IOException("expected " + numLeaves + " items, got " + items.length);
+
+            int[] levelBounds = new int[buf.getInt()];
+            buf.asIntBuffer().get(levelBounds);
+            buf.position(buf.position() + levelBounds.length * 4);
+
+            int numNodes = levelBounds.length == 0 ? 0 : levelBounds[levelBounds.length - 1];
+            FloatBuffer boxes = buf.asFloatBuffer();
+            boxes.limit(numNodes * 4);
+            buf.position(buf.position() + numNodes * 4 * 4);
+
+            IntBuffer indices = buf.asIntBuffer();
+            indices.limit(numNodes);
+
+            tree.mLevelBounds = levelBounds;
+            tree.mBoxes = boxes;
+            tree.mIndices = indices;
+            tree.mNumLeaves = numLeaves;
+            tree.mNumNodes = numNodes;
+            tree.mItems = Arrays.copyOf(items, numLeaves, Object[].class);
+            return tree;
+        } finally {
+            raf.close();
+        }
+    }
+
+    static final class CollectCb<T> implements SearchCb<T> {
+        static final CollectCb<?> INSTANCE = new CollectCb<>();
+
+        @SuppressWarnings("unchecked")
+        static <T> CollectCb<T> get() {
+            return (CollectCb<T>) INSTANCE;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean call(T item, Object context) {
+            ((List<T>) context).add(item);
+            return true;
+        }
+    }
+}
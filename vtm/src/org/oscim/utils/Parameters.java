@@ -31,11 +31,25 @@ public final class Parameters {
      */
     public static boolean CUSTOM_TILE_SIZE = false;
 
+    /**
+     * If true the VectorTileRenderer draws the line, mesh and hairline buckets of all
+     * visible tiles per level from shared buffers, see {@link org.oscim.renderer.bucket.TileBatch}.
+     * Must be set before the map is created.
+     */
+    public static boolean BATCH_TILES = false;
+
     /**
      * If true the <code>MapEventLayer2</code> will be used instead of default <code>MapEventLayer</code>.
      */
     public static boolean MAP_EVENT_LAYER2 = false;
 
+    /**
+     * If true polygons are triangulated by the pure Java {@link org.oscim.utils.EarcutTessellator}
+     * instead of the native libtess2 {@link org.oscim.utils.TessJNI}.
+     * Platforms without the vtm-jni library should enable it.
+     */
+    public static boolean JAVA_TESSELLATOR = false;
+
     /**
      * Maximum buffer size for map files.
      */
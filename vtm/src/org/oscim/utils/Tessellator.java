@@ -44,6 +44,9 @@ public class Tessellator {
     public static int tessellate(float[] points, int ppos, int numPoints, int[] index,
                                  int ipos, int numRings, int vertexOffset, VertexData outTris) {
 
+        if (Parameters.JAVA_TESSELLATOR)
+            return tessellateJava(points, ppos, index, ipos, numRings, vertexOffset, outTris);
+
         int buckets = FastMath.log2(MathUtils.nextPowerOfTwo(numPoints));
         buckets -= 2;
         //log.debug("tess use {}", buckets);
@@ -131,6 +134,51 @@ public class Tessellator {
         return sumIndices;
     }
 
+    private static int tessellateJava(float[] points, int ppos, int[] index, int ipos,
+                                      int numRings, int vertexOffset, VertexData outTris) {
+
+        EarcutTessellator tess = EarcutTessellator.get();
+        int nelems = tess.tessellate(points, ppos, index, ipos, numRings);
+        if (nelems == 0)
+            return 0;
+
+        int[] ids = tess.getIndices();
+
+        /* first point id and vertex shift of each ring, see above */
+        int ringEnd = index[ipos] >> 1;
+
+        VertexData.Chunk vd = outTris.obtainChunk();
+
+        for (int offset = 0; offset < nelems; ) {
+            if (VertexData.SIZE == vd.used)
+                vd = outTris.obtainChunk();
+
+            int size = Math.min(nelems - offset, VertexData.SIZE - vd.used);
+            short[] indices = vd.vertices;
+
+            for (int i = vd.used, end = i + size; i < end; i++) {
+                int id = ids[offset++];
+                int vertex = id * 2;
+                if (id >= ringEnd) {
+                    /* two extra vertices for each previous ring with an odd
+                     * number of points */
+                    for (int r = 0, p = 0; r < numRings - 1; r++) {
+                        int len = index[ipos + r];
+                        p += len >> 1;
+                        if (id < p)
+                            break;
+                        if (((len >> 1) & 1) != 0)
+                            vertex += 2;
+                    }
+                }
+                indices[i] = (short) (vertex + vertexOffset);
+            }
+            vd.used += size;
+            outTris.releaseChunk();
+        }
+        return nelems;
+    }
+
     /**
      * Tessellates a {@link org.oscim.core.GeometryBuffer} to a triangular/mesh GeometryBuffer.
      * The points array remains the same.
@@ -150,6 +198,9 @@ public class Tessellator {
             numRings++;
         }
 
+        if (Parameters.JAVA_TESSELLATOR)
+            return tessellateJava(geom.points, index, numRings, outMesh);
+
         int buckets = FastMath.log2(MathUtils.nextPowerOfTwo(numPoints));
         buckets -= 2;
         //log.debug("tess use {}", buckets);
@@ -184,6 +235,49 @@ public class Tessellator {
         return nelems;
     }
 
+    private static int tessellateJava(float[] points, int[] index, int numRings,
+                                      GeometryBuffer outMesh) {
+
+        EarcutTessellator tess = EarcutTessellator.get();
+        int[] out = null;
+        int nelems = 0;
+
+        /* each polygon starts with its outer ring, polygons are
+         * separated by an empty ring */
+        for (int ipos = 0, ppos = 0; ipos < numRings; ) {
+            int rings = 1;
+            int len = index[ipos];
+            while (ipos + rings < numRings && index[ipos + rings] > 0)
+                len += index[ipos + rings++];
+
+            int cnt = tess.tessellate(points, ppos, index, ipos, rings);
+            if (cnt > 0) {
+                if (out == null)
+                    out = new int[cnt];
+                else
+                    out = Arrays.copyOf(out, nelems + cnt);
+
+                int[] ids = tess.getIndices();
+                int first = ppos >> 1;
+                for (int k = 0; k < cnt; k++)
+                    out[nelems + k] = ids[k] + first;
+
+                nelems += cnt;
+            }
+            ppos += len;
+            ipos += rings;
+            /* skip separator */
+            while (ipos < numRings && index[ipos] == 0)
+                ipos++;
+        }
+
+        if (nelems == 0)
+            return 0;
+
+        outMesh.index = out;
+        return nelems;
+    }
+
     //    private static final int RESULT_VERTICES = 0;
     //    private static final int RESULT_TRIANGLES = 1;
     //
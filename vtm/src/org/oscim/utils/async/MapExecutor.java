@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 calimoto GmbH
+ *
+ * This program is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU Lesser General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A
+ * PARTICULAR PURPOSE. See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.oscim.utils.async;
+
+import org.oscim.debug.Logger;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+/**
+ * Executor for the background work of a map: runs tasks by priority on a
+ * pool sized by the number of cores.
+ * <p/>
+ * Tasks submitted with a key are coalesced: a pending task is replaced by
+ * a newer one with the same key (latest wins), and tasks with the same key
+ * never run concurrently, a newer one runs after the running one finished.
+ * A running task can check {@link #isCanceled()} to stop early when it was
+ * canceled by {@link #cancel(Object)}, e.g. as a newer map position
+ * supersedes it.
+ */
+public class MapExecutor {
+    static final Logger log = new Logger(MapExecutor.class);
+
+    /**
+     * Priorities, lower runs first: labels of the map, paths such as the
+     * PathLayer, other work and decorations, i.e. overlays of user
+     * geometries such as vector layers.
+     */
+    public static final int PRIORITY_LABELS = 0;
+    public static final int PRIORITY_PATHS = 1;
+    public static final int PRIORITY_DEFAULT = 2;
+    public static final int PRIORITY_DECORATIONS = 3;
+
+    /**
+     * Upper limit of the number of threads.
+     */
+    public static int MAX_THREADS = 4;
+
+    private static final ThreadLocal<Entry> sCurrent = new ThreadLocal<>();
+
+    static final class Entry implements Comparable<Entry> {
+        final Object key;
+        final int priority;
+        final long seq;
+        final Runnable task;
+        final long submitTime;
+
+        volatile boolean canceled;
+
+        Entry(Object key, int priority, long seq, Runnable task) {
+            this.key = key;
+            this.priority = priority;
+            this.seq = seq;
+            this.task = task;
+            this.submitTime = System.nanoTime();
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            if (priority != o.priority)
+                return priority < o.priority ? -1 : 1;
+            return seq < o.seq ? -1 : (seq == o.seq ? 0 : 1);
+        }
+    }
+
+    private final TaskQueue mMainloop;
+    private final Thread[] mThreads;
+
+    private final PriorityQueue<Entry> mQueue = new PriorityQueue<>();
+    /* latest entry by key, queued or waiting for the running one */
+    private final HashMap<Object, Entry> mPending = new HashMap<>();
+    private final HashMap<Object, Entry> mRunning = new HashMap<>();
+    private final HashMap<Object, Entry> mDeferred = new HashMap<>();
+
+    private long mSeq;
+    private boolean mDisposed;
+
+    /* statistics */
+    private long mExecuted;
+    private long mCoalesced;
+    private long mLatencySum;
+    private long mLatencyMax;
+
+    public MapExecutor(TaskQueue mainloop) {
+        this(Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1)),
+                mainloop);
+    }
+
+    public MapExecutor(int numThreads, TaskQueue mainloop) {
+        mMainloop = mainloop;
+        mThreads = new Thread[numThreads];
+        for (int i = 0; i < numThreads; i++) {
+            mThreads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    loop();
+                }
+            }, "VtmMapExecutor-" + i);
+            mThreads[i].setDaemon(true);
+            mThreads[i].setPriority(Thread.NORM_PRIORITY - 1);
+            mThreads[i].start();
+        }
+    }
+
+    /**
+     * Run a task with {@link #PRIORITY_DEFAULT}, without coalescing.
+     *
+     * @return false when the executor was disposed
+     */
+    public boolean post(Runnable task) {
+        return submit(null, PRIORITY_DEFAULT, task);
+    }
+
+    /**
+     * Run a task, replacing a pending task with the same key. When a task
+     * with the key is running the new task runs after it.
+     *
+     * @param key      identifies tasks that supersede each other, or null
+     * @param priority one of the PRIORITY constants, lower runs first
+     * @return false when the executor was disposed
+     */
+    public boolean submit(Object key, int priority, Runnable task) {
+        if (task instanceof AsyncTask)
+            ((AsyncTask) task).setTaskQueue(mMainloop);
+
+        synchronized (this) {
+            if (mDisposed)
+                return false;
+
+            Entry entry = new Entry(key, priority, mSeq++, task);
+            if (key == null) {
+                mQueue.add(entry);
+                notify();
+                return true;
+            }
+
+            Entry pending = mPending.put(key, entry);
+            if (pending != null) {
+                pending.canceled = true;
+                mCoalesced++;
+            }
+            if (mRunning.containsKey(key)) {
+                mDeferred.put(key, entry);
+            } else {
+                mQueue.add(entry);
+                notify();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Cancel pending and running tasks with the key.
+     */
+    public synchronized void cancel(Object key) {
+        Entry pending = mPending.remove(key);
+        if (pending != null) {
+            pending.canceled = true;
+            mDeferred.remove(key);
+        }
+        Entry running = mRunning.get(key);
+        if (running != null)
+            running.canceled = true;
+    }
+
+    /**
+     * @return true when called from a task that was canceled
+     */
+    public static boolean isCanceled() {
+        Entry e = sCurrent.get();
+        return e != null && e.canceled;
+    }
+
+    private void loop() {
+        while (true) {
+            Entry entry;
+            synchronized (this) {
+                entry = next();
+                if (entry == null)
+                    return;
+            }
+
+            sCurrent.set(entry);
+            try {
+                entry.task.run();
+            } catch (Throwable t) {
+                log.error(t);
+            } finally {
+                sCurrent.remove();
+            }
+
+            synchronized (this) {
+                if (entry.key != null) {
+                    mRunning.remove(entry.key);
+                    Entry deferred = mDeferred.remove(entry.key);
+                    if (deferred != null) {
+                        mQueue.add(deferred);
+                        notify();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the next task to run, null when disposed
+     */
+    private Entry next() {
+        while (true) {
+            if (mDisposed)
+                return null;
+
+            Entry entry = mQueue.poll();
+            if (entry == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    return null;
+                }
+                continue;
+            }
+            if (entry.canceled)
+                continue;
+
+            if (entry.key != null) {
+                mPending.remove(entry.key);
+                mRunning.put(entry.key, entry);
+            }
+
+            long latency = System.nanoTime() - entry.submitTime;
+            mLatencySum += latency;
+            mLatencyMax = Math.max(mLatencyMax, latency);
+            mExecuted++;
+            return entry;
+        }
+    }
+
+    /**
+     * @return number of threads
+     */
+    public int getThreadCount() {
+        return mThreads.length;
+    }
+
+    /**
+     * @return number of tasks waiting to run
+     */
+    public synchronized int getQueueSize() {
+        int n = mDeferred.size();
+        for (Entry e : mQueue) {
+            if (!e.canceled)
+                n++;
+        }
+        return n;
+    }
+
+    /**
+     * @return number of tasks started
+     */
+    public synchronized long getExecutedCount() {
+        return mExecuted;
+    }
+
+    /**
+     * @return number of tasks replaced by newer tasks with the same key
+     */
+    public synchronized long getCoalescedCount() {
+        return mCoalesced;
+    }
+
+    /**
+     * @return average time between submit and start of tasks in
+     * milliseconds
+     */
+    public synchronized double getAverageLatency() {
+        return mExecuted == 0 ? 0 : mLatencySum / 1e6 / mExecuted;
+    }
+
+    /**
+     * @return max time between submit and start of tasks in milliseconds
+     */
+    public synchronized double getMaxLatency() {
+        return mLatencyMax / 1e6;
+    }
+
+    public synchronized void resetStatistics() {
+        mExecuted = 0;
+        mCoalesced = 0;
+        mLatencySum = 0;
+        mLatencyMax = 0;
+    }
+
+    /**
+     * Waits for running tasks to finish and stops the threads. Pending
+     * tasks are not run.
+     */
+    public void dispose() {
+        synchronized (this) {
+            mDisposed = true;
+            mQueue.clear();
+            mPending.clear();
+            mDeferred.clear();
+            notifyAll();
+        }
+        for (Thread t : mThreads) {
+            if (t == Thread.currentThread())
+                continue;
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException("Couldn't shutdown loading thread");
+            }
+        }
+    }
+}
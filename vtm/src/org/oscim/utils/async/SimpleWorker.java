@@ -1,22 +1,42 @@
 package org.oscim.utils.async;
 
+import org.oscim.core.MapPosition;
 import org.oscim.map.Map;
 
 /**
- * Simple 'Double Buffering' worker for running Tasks on AsyncExecutor
+ * Simple 'Double Buffering' worker for running Tasks on MapExecutor
  * thread.
  */
 public abstract class SimpleWorker<T> implements Runnable {
 
     protected final Map mMap;
 
+    /**
+     * Key of this worker on the {@link MapExecutor}: a submit replaces a
+     * pending run of this worker.
+     */
+    protected final Object mKey = new Object();
+
+    /**
+     * Map position when the running task started and at a submit while it
+     * runs, to check if the new position supersedes it.
+     */
+    private final MapPosition mRunningPos = new MapPosition();
+    private final MapPosition mSubmitPos = new MapPosition();
+
     protected boolean mRunning;
+    protected boolean mQueued;
     protected boolean mWait;
     protected boolean mCancel;
     protected boolean mDelayed;
 
     protected long mMinDelay;
 
+    /**
+     * Priority on the {@link MapExecutor}.
+     */
+    protected int mPriority = MapExecutor.PRIORITY_DEFAULT;
+
     /**
      * Stuff which can be processed on the worker thread.
      */
@@ -32,6 +52,28 @@ public abstract class SimpleWorker<T> implements Runnable {
      */
     protected T mTaskLocked;
 
+    /**
+     * Runs on main-loop after the delay passed to submit().
+     */
+    private final Runnable mDelayedTask = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (SimpleWorker.this) {
+                if (!mDelayed)
+                    return;
+                mDelayed = false;
+
+                // FIXME: mTaskTodo == null?
+                if (mRunning || mTaskTodo == null) {
+                    mWait = true;
+                    return;
+                }
+                onMainLoop(mTaskTodo);
+                execute();
+            }
+        }
+    };
+
     public SimpleWorker(Map map, long minDelay, T t1, T t2) {
         mMap = map;
         mMinDelay = minDelay;
@@ -40,58 +82,64 @@ public abstract class SimpleWorker<T> implements Runnable {
         mTaskLocked = t2;
     }
 
+    /**
+     * Runs on the {@link MapExecutor}, never concurrently with itself.
+     */
     @Override
     public void run() {
+        T task;
 
         synchronized (this) {
-            if (mCancel) {
-                mCancel = false;
-                mRunning = false;
-                mDelayed = false;
-                mWait = false;
-                if (mTaskTodo != null)
-                    cleanup(mTaskTodo);
-                finish();
-                return;
-            }
+            mQueued = false;
 
-            // FIXME: mTaskTodo == null?
-            if (mDelayed || mTaskTodo == null) {
-
-                if (mDelayed && mTaskTodo != null)
-                    onMainLoop(mTaskTodo);
+            /* canceled before it started */
+            if (MapExecutor.isCanceled())
+                return;
 
-                // entered on main-loop
-                mDelayed = false;
-                // unset running temporarily
-                mRunning = false;
-                submit(0);
+            if (mTaskTodo == null) {
+                /* previous result is not polled yet */
+                mWait = true;
                 return;
             }
+            task = mTaskTodo;
+            mRunning = true;
+            mMap.getMapPosition(mRunningPos);
         }
 
-        boolean done = doWork(mTaskTodo);
+        boolean done = doWork(task);
 
         synchronized (this) {
             mRunning = false;
 
             if (mCancel) {
-                cleanup(mTaskTodo);
+                cleanup(task);
                 finish();
                 mCancel = false;
             } else if (done) {
-                mTaskDone = mTaskTodo;
+                mTaskDone = task;
                 mTaskTodo = null;
-            } else if (mWait) {
-                // only submit if not 'done'
-                // as otherwise there is no
-                // mStuffTodo
-                submit(mMinDelay);
-                mWait = false;
+            } else {
+                /* superseded or not finished: start again from a clean task */
+                cleanup(task);
+                if (mWait) {
+                    // only submit if not 'done'
+                    // as otherwise there is no
+                    // mStuffTodo
+                    submit(mMinDelay);
+                    mWait = false;
+                }
             }
         }
     }
 
+    /**
+     * Long running work should poll {@link MapExecutor#isCanceled()} and
+     * return false when it is set: cancel() or a map position which
+     * {@link #isSuperseded(MapPosition, MapPosition) supersedes} the one of
+     * this run.
+     *
+     * @return true when the task is ready for poll()
+     */
     public abstract boolean doWork(T task);
 
     public abstract void cleanup(T task);
@@ -100,6 +148,20 @@ public abstract class SimpleWorker<T> implements Runnable {
 
     }
 
+    /**
+     * Checked on a submit while a task runs. When true the running task is
+     * canceled and runs again, otherwise it finishes and runs once more
+     * with the latest state.
+     *
+     * @param running position when the running task started
+     * @param current position at the submit
+     * @return true when the result for running would be of no use at
+     * current, by default when the zoom level changed
+     */
+    protected boolean isSuperseded(MapPosition running, MapPosition current) {
+        return running.zoomLevel != current.zoomLevel;
+    }
+
     /**
      * do stuff on main-loop before executing the task
      */
@@ -114,22 +176,30 @@ public abstract class SimpleWorker<T> implements Runnable {
     public synchronized void submit(long delay) {
 
         if (mRunning) {
+            /* let the running task finish, unless it is superseded */
             mWait = true;
+            mMap.getMapPosition(mSubmitPos);
+            if (isSuperseded(mRunningPos, mSubmitPos))
+                mMap.getExecutor().cancel(mKey);
             return;
         }
 
-        mRunning = true;
         if (delay <= 0) {
-            mMap.addTask(this);
+            execute();
             return;
         }
 
         if (!mDelayed) {
             mDelayed = true;
-            mMap.postDelayed(this, delay);
+            mMap.postDelayed(mDelayedTask, delay);
         }
     }
 
+    private void execute() {
+        mQueued = true;
+        mMap.addTask(mKey, mPriority, this);
+    }
+
     public synchronized T poll() {
         if (mTaskDone == null)
             return null;
@@ -149,6 +219,11 @@ public abstract class SimpleWorker<T> implements Runnable {
     }
 
     public synchronized void cancel(boolean clear) {
+        mMap.getExecutor().cancel(mKey);
+        mQueued = false;
+        mDelayed = false;
+        mWait = false;
+
         if (mRunning) {
             mCancel = true;
             return;
@@ -159,8 +234,11 @@ public abstract class SimpleWorker<T> implements Runnable {
         finish();
     }
 
+    /**
+     * @return true while submitted, waiting for the delay or running
+     */
     public synchronized boolean isRunning() {
-        return mRunning;
+        return mRunning || mQueued || mDelayed;
     }
 
 }
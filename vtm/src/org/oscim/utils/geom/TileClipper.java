@@ -23,6 +23,11 @@ import org.oscim.core.GeometryBuffer;
  * Simple-Feature geometry, i.e. all polygon rings are clipped independently
  * so that inner and outer rings might touch, etc.
  * <p/>
+ * {@link #clip(GeometryBuffer, GeometryBuffer)} only reads the clip rectangle
+ * and works on the passed buffers, so one instance can be used concurrently
+ * by several threads as long as each one supplies its own scratch buffer and
+ * {@link #setRect(float, float, float, float)} is not called meanwhile.
+ * <p/>
  * based on http://www.cs.rit.edu/~icss571/clipTrans/PolyClipBack.html
  */
 public class TileClipper {
@@ -36,7 +41,6 @@ public class TileClipper {
         this.ymin = ymin;
         this.xmax = xmax;
         this.ymax = ymax;
-        mLineClipper = new LineClipper(xmin, ymin, xmax, ymax);
     }
 
     public void setRect(float xmin, float ymin, float xmax, float ymax) {
@@ -44,17 +48,33 @@ public class TileClipper {
         this.ymin = ymin;
         this.xmax = xmax;
         this.ymax = ymax;
-        mLineClipper.setRect(xmin, ymin, xmax, ymax);
     }
 
-    private final LineClipper mLineClipper;
-
     private final GeometryBuffer mGeomOut = new GeometryBuffer(10, 1);
 
+    /**
+     * Clip geometry in place using the internal scratch buffer.
+     * Use {@link #clip(GeometryBuffer, GeometryBuffer)} when the clipper
+     * is shared between threads.
+     *
+     * @return false when nothing of the geometry remains
+     */
     public synchronized boolean clip(GeometryBuffer geom) {
+        return clip(geom, mGeomOut);
+    }
+
+    /**
+     * Clip geometry in place. Reentrant, no allocations unless the buffers
+     * need to grow.
+     *
+     * @param geom    the geometry to clip
+     * @param scratch buffer for intermediate results, owned by the caller
+     * @return false when nothing of the geometry remains
+     */
+    public boolean clip(GeometryBuffer geom, GeometryBuffer scratch) {
         if (geom.isPoly()) {
 
-            GeometryBuffer out = mGeomOut;
+            GeometryBuffer out = scratch;
             out.clear();
 
             clipEdge(geom, out, LineClipper.LEFT);
@@ -72,10 +92,10 @@ public class TileClipper {
                 return false;
         } else if (geom.isLine()) {
 
-            GeometryBuffer out = mGeomOut;
+            GeometryBuffer out = scratch;
             out.clear();
 
-            int numLines = mLineClipper.clipLine(geom, out);
+            int numLines = clipLines(geom, out);
 
             int idx[] = geom.ensureIndexSize(numLines + 1, false);
             System.arraycopy(out.index, 0, idx, 0, numLines);
@@ -147,110 +167,267 @@ public class TileClipper {
         return true;
     }
 
+    /* Each input point yields at most two output points. Reserve that
+     * upfront so the ring loops write straight into the arrays. */
+    private static float[] reserve(GeometryBuffer out, int len) {
+        return out.ensurePointSize((out.pointNextPos >> 1) + len, true);
+    }
+
+    private static void commit(GeometryBuffer out, int pos) {
+        out.index[out.indexCurrentPos] += pos - out.pointNextPos;
+        out.pointNextPos = pos;
+    }
+
     private void clipRingLeft(int indexPos, int pointPos, GeometryBuffer in, GeometryBuffer out) {
+        final float xmin = this.xmin;
+        final float[] src = in.points;
+        final float[] dst = reserve(out, in.index[indexPos]);
+        int o = out.pointNextPos;
+
         int end = in.index[indexPos] + pointPos;
-        float px = in.points[end - 2];
-        float py = in.points[end - 1];
+        float px = src[end - 2];
+        float py = src[end - 1];
 
-        for (int i = pointPos; i < end; ) {
-            float cx = in.points[i++];
-            float cy = in.points[i++];
+        for (int i = pointPos; i < end; i += 2) {
+            float cx = src[i];
+            float cy = src[i + 1];
             if (cx > xmin) {
                 /* current is inside */
-                if (px > xmin) {
-                    /* previous was inside */
-                    out.addPoint(cx, cy);
-                } else {
+                if (px <= xmin) {
                     /* previous was outside, add edge point */
-                    out.addPoint(xmin, py + (cy - py) * (xmin - px) / (cx - px));
-                    out.addPoint(cx, cy);
-                }
-            } else {
-                if (px > xmin) {
-                    /* previous was inside, add edge point */
-                    out.addPoint(xmin, py + (cy - py) * (xmin - px) / (cx - px));
+                    dst[o++] = xmin;
+                    dst[o++] = py + (cy - py) * (xmin - px) / (cx - px);
                 }
-                /* else skip point */
+                dst[o++] = cx;
+                dst[o++] = cy;
+            } else if (px > xmin) {
+                /* previous was inside, add edge point */
+                dst[o++] = xmin;
+                dst[o++] = py + (cy - py) * (xmin - px) / (cx - px);
             }
+            /* else skip point */
             px = cx;
             py = cy;
         }
+        commit(out, o);
     }
 
     private void clipRingRight(int indexPos, int pointPos, GeometryBuffer in, GeometryBuffer out) {
-        int len = in.index[indexPos] + pointPos;
-        float px = in.points[len - 2];
-        float py = in.points[len - 1];
+        final float xmax = this.xmax;
+        final float[] src = in.points;
+        final float[] dst = reserve(out, in.index[indexPos]);
+        int o = out.pointNextPos;
 
-        for (int i = pointPos; i < len; ) {
-            float cx = in.points[i++];
-            float cy = in.points[i++];
+        int end = in.index[indexPos] + pointPos;
+        float px = src[end - 2];
+        float py = src[end - 1];
 
+        for (int i = pointPos; i < end; i += 2) {
+            float cx = src[i];
+            float cy = src[i + 1];
             if (cx < xmax) {
-                if (px < xmax) {
-                    out.addPoint(cx, cy);
-                } else {
-                    out.addPoint(xmax, py + (cy - py) * (xmax - px) / (cx - px));
-                    out.addPoint(cx, cy);
-                }
-            } else {
-                if (px < xmax) {
-                    out.addPoint(xmax, py + (cy - py) * (xmax - px) / (cx - px));
+                if (px >= xmax) {
+                    dst[o++] = xmax;
+                    dst[o++] = py + (cy - py) * (xmax - px) / (cx - px);
                 }
+                dst[o++] = cx;
+                dst[o++] = cy;
+            } else if (px < xmax) {
+                dst[o++] = xmax;
+                dst[o++] = py + (cy - py) * (xmax - px) / (cx - px);
             }
             px = cx;
             py = cy;
         }
+        commit(out, o);
     }
 
     private void clipRingTop(int indexPos, int pointPos, GeometryBuffer in, GeometryBuffer out) {
-        int len = in.index[indexPos] + pointPos;
-        float px = in.points[len - 2];
-        float py = in.points[len - 1];
+        final float ymax = this.ymax;
+        final float[] src = in.points;
+        final float[] dst = reserve(out, in.index[indexPos]);
+        int o = out.pointNextPos;
 
-        for (int i = pointPos; i < len; ) {
-            float cx = in.points[i++];
-            float cy = in.points[i++];
+        int end = in.index[indexPos] + pointPos;
+        float px = src[end - 2];
+        float py = src[end - 1];
 
+        for (int i = pointPos; i < end; i += 2) {
+            float cx = src[i];
+            float cy = src[i + 1];
             if (cy < ymax) {
-                if (py < ymax) {
-                    out.addPoint(cx, cy);
-                } else {
-                    out.addPoint(px + (cx - px) * (ymax - py) / (cy - py), ymax);
-                    out.addPoint(cx, cy);
-                }
-            } else {
-                if (py < ymax) {
-                    out.addPoint(px + (cx - px) * (ymax - py) / (cy - py), ymax);
+                if (py >= ymax) {
+                    dst[o++] = px + (cx - px) * (ymax - py) / (cy - py);
+                    dst[o++] = ymax;
                 }
+                dst[o++] = cx;
+                dst[o++] = cy;
+            } else if (py < ymax) {
+                dst[o++] = px + (cx - px) * (ymax - py) / (cy - py);
+                dst[o++] = ymax;
             }
             px = cx;
             py = cy;
         }
+        commit(out, o);
     }
 
     private void clipRingBottom(int indexPos, int pointPos, GeometryBuffer in, GeometryBuffer out) {
-        int len = in.index[indexPos] + pointPos;
-        float px = in.points[len - 2];
-        float py = in.points[len - 1];
+        final float ymin = this.ymin;
+        final float[] src = in.points;
+        final float[] dst = reserve(out, in.index[indexPos]);
+        int o = out.pointNextPos;
+
+        int end = in.index[indexPos] + pointPos;
+        float px = src[end - 2];
+        float py = src[end - 1];
 
-        for (int i = pointPos; i < len; ) {
-            float cx = in.points[i++];
-            float cy = in.points[i++];
+        for (int i = pointPos; i < end; i += 2) {
+            float cx = src[i];
+            float cy = src[i + 1];
             if (cy > ymin) {
-                if (py > ymin) {
-                    out.addPoint(cx, cy);
-                } else {
-                    out.addPoint(px + (cx - px) * (ymin - py) / (cy - py), ymin);
-                    out.addPoint(cx, cy);
-                }
-            } else {
-                if (py > ymin) {
-                    out.addPoint(px + (cx - px) * (ymin - py) / (cy - py), ymin);
+                if (py <= ymin) {
+                    dst[o++] = px + (cx - px) * (ymin - py) / (cy - py);
+                    dst[o++] = ymin;
                 }
+                dst[o++] = cx;
+                dst[o++] = cy;
+            } else if (py > ymin) {
+                dst[o++] = px + (cx - px) * (ymin - py) / (cy - py);
+                dst[o++] = ymin;
             }
             px = cx;
             py = cy;
         }
+        commit(out, o);
+    }
+
+    private int outcode(float x, float y) {
+        int outcode = LineClipper.INSIDE;
+        if (x < xmin)
+            outcode |= LineClipper.LEFT;
+        else if (x > xmax)
+            outcode |= LineClipper.RIGHT;
+        if (y < ymin)
+            outcode |= LineClipper.BOTTOM;
+        else if (y > ymax)
+            outcode |= LineClipper.TOP;
+        return outcode;
+    }
+
+    /**
+     * Same as {@link LineClipper#clipLine(GeometryBuffer, GeometryBuffer)}
+     * but keeps all state on the stack. Partially visible segments are
+     * clipped with Liang-Barsky.
+     */
+    private int clipLines(GeometryBuffer in, GeometryBuffer out) {
+        final float xmin = this.xmin, ymin = this.ymin;
+        final float xmax = this.xmax, ymax = this.ymax;
+        final float[] src = in.points;
+
+        int pointPos = 0;
+        int numLines = 0;
+
+        for (int i = 0, n = in.index.length; i < n; i++) {
+            int len = in.index[i];
+            if (len < 0)
+                break;
+
+            if (len < 4) {
+                pointPos += len;
+                continue;
+            }
+
+            int inPos = pointPos;
+            int end = inPos + len;
+
+            float px = src[inPos++];
+            float py = src[inPos++];
+            int prevCode = outcode(px, py);
+            boolean inside = prevCode == LineClipper.INSIDE;
+
+            if (inside) {
+                out.startLine();
+                out.addPoint(px, py);
+                numLines++;
+            }
+
+            while (inPos < end) {
+                float cx = src[inPos++];
+                float cy = src[inPos++];
+                int code = outcode(cx, cy);
+
+                if ((prevCode | code) == 0) {
+                    /* current segment is fully within */
+                    out.addPoint(cx, cy);
+                } else if ((prevCode & code) == 0) {
+                    float dx = cx - px;
+                    float dy = cy - py;
+                    float t0 = 0, t1 = 1;
+                    boolean visible = true;
+
+                    /* left, right, bottom, top */
+                    for (int edge = 0; edge < 4 && visible; edge++) {
+                        float p, q;
+                        switch (edge) {
+                            case 0:
+                                p = -dx;
+                                q = px - xmin;
+                                break;
+                            case 1:
+                                p = dx;
+                                q = xmax - px;
+                                break;
+                            case 2:
+                                p = -dy;
+                                q = py - ymin;
+                                break;
+                            default:
+                                p = dy;
+                                q = ymax - py;
+                                break;
+                        }
+                        if (p == 0) {
+                            if (q < 0)
+                                visible = false;
+                        } else {
+                            float r = q / p;
+                            if (p < 0) {
+                                if (r > t1)
+                                    visible = false;
+                                else if (r > t0)
+                                    t0 = r;
+                            } else {
+                                if (r < t0)
+                                    visible = false;
+                                else if (r < t1)
+                                    t1 = r;
+                            }
+                        }
+                    }
+
+                    if (visible) {
+                        if (!inside) {
+                            /* previous was outside */
+                            out.startLine();
+                            numLines++;
+                            out.addPoint(px + t0 * dx, py + t0 * dy);
+                        }
+                        if (t1 == 1)
+                            out.addPoint(cx, cy);
+                        else
+                            out.addPoint(px + t1 * dx, py + t1 * dy);
+                    }
+                }
+                /* else: current segment is fully outside */
+
+                inside = code == LineClipper.INSIDE;
+                prevCode = code;
+                px = cx;
+                py = cy;
+            }
+            pointPos = end;
+        }
+        return numLines;
     }
 }
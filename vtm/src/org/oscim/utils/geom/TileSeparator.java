@@ -19,6 +19,11 @@ import org.oscim.core.GeometryBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Checks whether geometry touches a rectangle without clipping it.
+ * {@link #separate(GeometryBuffer)} keeps no state besides the rectangle and
+ * may be called concurrently as long as {@link #setRect} is not.
+ */
 public class TileSeparator {
 
     private static final Logger log = LoggerFactory.getLogger(TileSeparator.class);
@@ -63,10 +68,14 @@ public class TileSeparator {
             } else
                 log.warn("Geometry (Point) has wrong format: " + geom.toString());
         } else if (geom.isPoly()) {
+            final float xmin = this.xmin, ymin = this.ymin;
+            final float xmax = this.xmax, ymax = this.ymax;
+            final float[] points = geom.points;
+            final int[] index = geom.index;
             int pointPos = 0;
 
-            for (int indexPos = 0, n = geom.index.length; indexPos < n; indexPos++) {
-                int len = geom.index[indexPos];
+            for (int indexPos = 0, n = index.length; indexPos < n; indexPos++) {
+                int len = index[indexPos];
                 if (len < 0)
                     break;
 
@@ -77,11 +86,11 @@ public class TileSeparator {
 
                 int end = pointPos + len;
 
-                for (int i = pointPos; i < end; ) {
-                    float cx = geom.points[i++];
-                    float cy = geom.points[i++];
+                for (int i = pointPos; i < end; i += 2) {
+                    float cx = points[i];
+                    float cy = points[i + 1];
 
-                    if (isInside(cx, cy))
+                    if (cx >= xmin && cx < xmax && cy >= ymin && cy < ymax)
                         return true;
                 }
 